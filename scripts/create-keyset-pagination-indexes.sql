@@ -0,0 +1,28 @@
+-- 游标分页索引脚本
+-- 游标分页按 (时间 DESC, id DESC) 排序并以 (时间, id) 定位下一页，
+-- 以下组合索引保证任意深度的页面都只需一次索引定位加顺序读取一页数据
+--
+-- 执行方式：
+-- mysql -u <用户名> -p YXRobot < create-keyset-pagination-indexes.sql
+
+USE YXRobot;
+
+-- 设备列表：GET /api/admin/devices/cursor
+CREATE INDEX idx_managed_devices_deleted_created_id ON managed_devices(is_deleted, created_at, id)
+COMMENT '设备游标分页索引';
+
+-- 设备日志：GET /api/admin/devices/{id}/logs/cursor
+CREATE INDEX idx_managed_device_logs_device_time_id ON managed_device_logs(device_id, timestamp, id)
+COMMENT '设备日志游标分页索引';
+
+-- 设备告警：GET /api/admin/device/monitoring/alerts/cursor
+CREATE INDEX idx_device_alerts_timestamp_id ON device_alerts(alert_timestamp, id)
+COMMENT '设备告警游标分页索引';
+
+-- 订单列表：GET /api/admin/orders/cursor
+CREATE INDEX idx_orders_deleted_created_id ON orders(is_deleted, created_at, id)
+COMMENT '订单游标分页索引';
+
+-- 链接点击历史：GET /api/platform-links/clicks/{id}/click-history/cursor
+CREATE INDEX idx_link_click_logs_link_clicked_id ON link_click_logs(link_id, clicked_at, id)
+COMMENT '链接点击日志游标分页索引';
@@ -0,0 +1,55 @@
+-- =====================================================
+-- 平台链接模块 - 点击汇总表
+-- 创建时间: 2025-02-17
+-- 说明: 点击趋势、设备/来源统计改为读取汇总表，不再对 link_click_logs 做 GROUP BY / COUNT(DISTINCT)
+--       汇总表由 LinkClickRollupService 在点击日志批量写入后增量累加，
+--       每天凌晨按前一天的原始日志重建校准（也可调用 /api/platform-links/clicks/rollups/rebuild 回填历史）
+-- =====================================================
+
+-- 使用YXRobot数据库
+USE YXRobot;
+
+-- 1. 按小时汇总
+CREATE TABLE IF NOT EXISTS link_click_hourly_stats (
+    link_id BIGINT NOT NULL COMMENT '链接ID',
+    stat_hour DATETIME NOT NULL COMMENT '统计小时（整点）',
+    click_count BIGINT NOT NULL DEFAULT 0 COMMENT '点击量',
+    conversion_count BIGINT NOT NULL DEFAULT 0 COMMENT '转化量',
+    conversion_value DECIMAL(14,2) NOT NULL DEFAULT 0 COMMENT '转化价值',
+    updated_at DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '更新时间',
+
+    PRIMARY KEY (link_id, stat_hour),
+    INDEX idx_stat_hour (stat_hour)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='链接点击小时汇总表';
+
+-- 2. 按天汇总（link_id = 0 为全部链接合计，独立访客用 HyperLogLog 草图合并）
+CREATE TABLE IF NOT EXISTS link_click_daily_stats (
+    link_id BIGINT NOT NULL COMMENT '链接ID，0表示全部链接',
+    stat_date DATE NOT NULL COMMENT '统计日期',
+    click_count BIGINT NOT NULL DEFAULT 0 COMMENT '点击量',
+    conversion_count BIGINT NOT NULL DEFAULT 0 COMMENT '转化量',
+    conversion_value DECIMAL(14,2) NOT NULL DEFAULT 0 COMMENT '转化价值',
+    unique_visitors BIGINT NOT NULL DEFAULT 0 COMMENT '独立访客数（估计值）',
+    visitor_sketch VARBINARY(2048) COMMENT '独立访客HyperLogLog草图',
+    updated_at DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '更新时间',
+
+    PRIMARY KEY (link_id, stat_date),
+    INDEX idx_stat_date (stat_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='链接点击日汇总表';
+
+-- 3. 按小时、设备类型/来源维度汇总
+CREATE TABLE IF NOT EXISTS link_click_dimension_stats (
+    link_id BIGINT NOT NULL COMMENT '链接ID',
+    stat_hour DATETIME NOT NULL COMMENT '统计小时（整点）',
+    dimension VARCHAR(20) NOT NULL COMMENT '维度类型：device-设备类型，referer-来源',
+    dimension_value VARCHAR(50) NOT NULL COMMENT '维度取值',
+    click_count BIGINT NOT NULL DEFAULT 0 COMMENT '点击量',
+    conversion_count BIGINT NOT NULL DEFAULT 0 COMMENT '转化量',
+    updated_at DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '更新时间',
+
+    PRIMARY KEY (link_id, stat_hour, dimension, dimension_value),
+    INDEX idx_dimension_hour (dimension, stat_hour)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='链接点击维度汇总表';
+
+-- 显示创建结果
+SELECT 'Link click rollup tables created successfully!' as result;
@@ -0,0 +1,23 @@
+-- =====================================================
+-- 订单模块 - 搜索历史表
+-- 创建时间: 2025-02-25
+-- 说明: 保存每个用户最近的订单搜索条件，相同条件只保留一行并累加搜索次数，
+--       每个用户只保留最近20条（由 OrderSearchHistoryService 写入时清理）
+-- =====================================================
+
+-- 使用YXRobot数据库
+USE YXRobot;
+
+CREATE TABLE IF NOT EXISTS order_search_history (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '主键ID',
+    user_id VARCHAR(64) NOT NULL COMMENT '用户ID',
+    query_hash CHAR(32) NOT NULL COMMENT '规范化搜索条件的MD5',
+    query_text VARCHAR(500) COMMENT '搜索条件描述',
+    criteria_json TEXT COMMENT '搜索条件（JSON）',
+    result_count INT COMMENT '结果数量',
+    search_count INT NOT NULL DEFAULT 1 COMMENT '搜索次数',
+    searched_at DATETIME NOT NULL COMMENT '最近搜索时间',
+
+    UNIQUE KEY uk_user_query (user_id, query_hash),
+    INDEX idx_user_searched (user_id, searched_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='订单搜索历史表';
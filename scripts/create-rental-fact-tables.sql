@@ -0,0 +1,40 @@
+-- =====================================================
+-- 租赁模块 - 日事实表
+-- 创建时间: 2025-03-07
+-- 说明: 租赁统计和趋势/分布图表改为读取日事实表，不再对 rental_records 做 DATE_FORMAT GROUP BY / COUNT(DISTINCT)
+--       事实表由 RentalFactService 在租赁记录新增、修改、归还、删除时按增量累加，
+--       每天凌晨按租赁记录重建最近几天校准（也可调用 /api/rental/facts/rebuild 重建指定范围）
+--       应用启动时事实表为空会自动按全部租赁记录重建
+-- =====================================================
+
+-- 使用YXRobot数据库
+USE YXRobot;
+
+-- 1. 按租赁开始日期、地区（交付地址）、渠道（交付方式）、设备型号汇总
+CREATE TABLE IF NOT EXISTS rental_daily_facts (
+    stat_date DATE NOT NULL COMMENT '统计日期（租赁开始日期）',
+    region VARCHAR(500) NOT NULL COMMENT '地区（交付地址），为空时为“未知地区”',
+    channel VARCHAR(50) NOT NULL COMMENT '渠道（交付方式），为空时为“未知渠道”',
+    device_model VARCHAR(100) NOT NULL COMMENT '设备型号，为空时为“未知型号”',
+    revenue DECIMAL(14,2) NOT NULL DEFAULT 0 COMMENT '租赁收入',
+    order_count INT NOT NULL DEFAULT 0 COMMENT '订单数',
+    rental_days BIGINT NOT NULL DEFAULT 0 COMMENT '租赁天数合计',
+    active_orders INT NOT NULL DEFAULT 0 COMMENT '租赁中的订单数',
+    completed_orders INT NOT NULL DEFAULT 0 COMMENT '已完成的订单数',
+    updated_at DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '更新时间',
+
+    PRIMARY KEY (stat_date, channel, device_model, region)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='租赁日事实表';
+
+-- 2. 按租赁开始日期、设备汇总订单数，用于计算任意日期范围内的租赁设备数（去重）
+CREATE TABLE IF NOT EXISTS rental_daily_device_facts (
+    stat_date DATE NOT NULL COMMENT '统计日期（租赁开始日期）',
+    device_id BIGINT NOT NULL COMMENT '设备ID',
+    order_count INT NOT NULL DEFAULT 0 COMMENT '订单数',
+    updated_at DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '更新时间',
+
+    PRIMARY KEY (stat_date, device_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='租赁设备日事实表';
+
+-- 显示创建结果
+SELECT 'Rental fact tables created successfully!' as result;
@@ -0,0 +1,21 @@
+-- =====================================================
+-- 文件上传 - 内容寻址存储表
+-- 创建时间: 2025-03-02
+-- 说明: 上传文件按内容的SHA-256存储为一个文件（blob），相同内容只保存一份，
+--       ref_count 记录引用次数，降为0时由 UploadBlobService 删除记录和文件
+-- =====================================================
+
+-- 使用YXRobot数据库
+USE YXRobot;
+
+CREATE TABLE IF NOT EXISTS upload_blobs (
+    content_hash CHAR(64) NOT NULL PRIMARY KEY COMMENT '文件内容的SHA-256（十六进制）',
+    storage_path VARCHAR(255) NOT NULL COMMENT '相对上传目录的存储路径',
+    file_size BIGINT NOT NULL COMMENT '文件大小（字节）',
+    content_type VARCHAR(100) COMMENT 'MIME类型',
+    ref_count INT NOT NULL DEFAULT 1 COMMENT '引用次数',
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+
+    INDEX idx_ref_count (ref_count)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='上传文件内容寻址存储表';
@@ -3,17 +3,19 @@ package com.yxrobot.cache;
 import com.yxrobot.dto.CustomerStatsDTO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 /**
  * 客户管理模块缓存服务
  * 提供数据缓存机制，提高统计和查询数据性能
+ * 缓存存储由 {@link LocalCacheManager} 统一管理（有界、按区域TTL过期）
  */
 @Service
 public class CustomerCacheService {
@@ -22,39 +24,25 @@ public class CustomerCacheService {
     
     // 缓存配置
     private static final long STATS_CACHE_DURATION_MINUTES = 5;  // 统计数据缓存5分钟
+    private static final long STATS_CACHE_REFRESH_SECONDS = 240;  // 统计数据写入4分钟后后台刷新
     private static final long FILTER_OPTIONS_CACHE_DURATION_MINUTES = 30;  // 筛选选项缓存30分钟
     private static final long CUSTOMER_DETAIL_CACHE_DURATION_MINUTES = 10;  // 客户详情缓存10分钟
+    private static final int CUSTOMER_DETAIL_CACHE_MAX_SIZE = 2000;  // 客户详情及关联数据最多缓存2000项
     
-    // 内存缓存存储
-    private final Map<String, CacheItem<CustomerStatsDTO>> statsCache = new ConcurrentHashMap<>();
-    private final Map<String, CacheItem<Map<String, Object>>> filterOptionsCache = new ConcurrentHashMap<>();
-    private final Map<String, CacheItem<Object>> customerDetailCache = new ConcurrentHashMap<>();
+    // 缓存区域
+    private final LocalCache<String, CustomerStatsDTO> statsCache;
+    private final LocalCache<String, Map<String, Object>> filterOptionsCache;
+    private final LocalCache<String, Object> customerDetailCache;
     
-    /**
-     * 缓存项包装类
-     */
-    private static class CacheItem<T> {
-        private final T data;
-        private final LocalDateTime timestamp;
-        private final long durationMinutes;
-        
-        public CacheItem(T data, long durationMinutes) {
-            this.data = data;
-            this.timestamp = LocalDateTime.now();
-            this.durationMinutes = durationMinutes;
-        }
-        
-        public T getData() {
-            return data;
-        }
-        
-        public boolean isExpired() {
-            return ChronoUnit.MINUTES.between(timestamp, LocalDateTime.now()) > durationMinutes;
-        }
-        
-        public LocalDateTime getTimestamp() {
-            return timestamp;
-        }
+    @Autowired
+    public CustomerCacheService(LocalCacheManager cacheManager) {
+        this.statsCache = cacheManager.getOrCreateCache("customer-stats", 16,
+            Duration.ofMinutes(STATS_CACHE_DURATION_MINUTES), LocalCache.EvictionPolicy.LRU,
+            Duration.ofSeconds(STATS_CACHE_REFRESH_SECONDS));
+        this.filterOptionsCache = cacheManager.getOrCreateCache("customer-filter-options", 16,
+            Duration.ofMinutes(FILTER_OPTIONS_CACHE_DURATION_MINUTES));
+        this.customerDetailCache = cacheManager.getOrCreateCache("customer-detail", CUSTOMER_DETAIL_CACHE_MAX_SIZE,
+            Duration.ofMinutes(CUSTOMER_DETAIL_CACHE_DURATION_MINUTES), LocalCache.EvictionPolicy.TINY_LFU);
     }
     
     // ==================== 客户统计数据缓存 ====================
@@ -64,23 +52,31 @@ public class CustomerCacheService {
      */
     public CustomerStatsDTO getCachedCustomerStats() {
         String key = "customer_stats";
-        CacheItem<CustomerStatsDTO> cacheItem = statsCache.get(key);
+        CustomerStatsDTO stats = statsCache.get(key);
         
-        if (cacheItem != null && !cacheItem.isExpired()) {
+        if (stats != null) {
             logger.debug("Cache hit for customer stats");
-            return cacheItem.getData();
+            return stats;
         }
         
         logger.debug("Cache miss for customer stats");
         return null;
     }
     
+    /**
+     * 获取客户统计数据，未命中时通过loader加载
+     * 并发未命中只执行一次loader，临近过期时后台刷新，统计查询每个TTL窗口只执行一次
+     */
+    public CustomerStatsDTO getCustomerStats(Supplier<CustomerStatsDTO> loader) {
+        return statsCache.get("customer_stats", key -> loader.get());
+    }
+    
     /**
      * 缓存客户统计数据
      */
     public void cacheCustomerStats(CustomerStatsDTO stats) {
         String key = "customer_stats";
-        statsCache.put(key, new CacheItem<>(stats, STATS_CACHE_DURATION_MINUTES));
+        statsCache.put(key, stats);
         logger.debug("Cached customer stats for {} minutes", STATS_CACHE_DURATION_MINUTES);
     }
     
@@ -88,7 +84,7 @@ public class CustomerCacheService {
      * 清除客户统计数据缓存
      */
     public void clearCustomerStatsCache() {
-        statsCache.clear();
+        statsCache.invalidateAll();
         logger.debug("Cleared customer stats cache");
     }
     
@@ -99,11 +95,11 @@ public class CustomerCacheService {
      */
     public Map<String, Object> getCachedFilterOptions() {
         String key = "filter_options";
-        CacheItem<Map<String, Object>> cacheItem = filterOptionsCache.get(key);
+        Map<String, Object> options = filterOptionsCache.get(key);
         
-        if (cacheItem != null && !cacheItem.isExpired()) {
+        if (options != null) {
             logger.debug("Cache hit for filter options");
-            return cacheItem.getData();
+            return options;
         }
         
         logger.debug("Cache miss for filter options");
@@ -115,7 +111,7 @@ public class CustomerCacheService {
      */
     public void cacheFilterOptions(Map<String, Object> options) {
         String key = "filter_options";
-        filterOptionsCache.put(key, new CacheItem<>(options, FILTER_OPTIONS_CACHE_DURATION_MINUTES));
+        filterOptionsCache.put(key, options);
         logger.debug("Cached filter options for {} minutes", FILTER_OPTIONS_CACHE_DURATION_MINUTES);
     }
     
@@ -123,7 +119,7 @@ public class CustomerCacheService {
      * 清除筛选选项缓存
      */
     public void clearFilterOptionsCache() {
-        filterOptionsCache.clear();
+        filterOptionsCache.invalidateAll();
         logger.debug("Cleared filter options cache");
     }
     
@@ -134,11 +130,11 @@ public class CustomerCacheService {
      */
     public Object getCachedCustomerDetail(Long customerId) {
         String key = "customer_detail_" + customerId;
-        CacheItem<Object> cacheItem = customerDetailCache.get(key);
+        Object customerDetail = customerDetailCache.get(key);
         
-        if (cacheItem != null && !cacheItem.isExpired()) {
+        if (customerDetail != null) {
             logger.debug("Cache hit for customer detail: {}", customerId);
-            return cacheItem.getData();
+            return customerDetail;
         }
         
         logger.debug("Cache miss for customer detail: {}", customerId);
@@ -150,7 +146,7 @@ public class CustomerCacheService {
      */
     public void cacheCustomerDetail(Long customerId, Object customerDetail) {
         String key = "customer_detail_" + customerId;
-        customerDetailCache.put(key, new CacheItem<>(customerDetail, CUSTOMER_DETAIL_CACHE_DURATION_MINUTES));
+        customerDetailCache.put(key, customerDetail);
         logger.debug("Cached customer detail for customer {} for {} minutes", 
                     customerId, CUSTOMER_DETAIL_CACHE_DURATION_MINUTES);
     }
@@ -160,7 +156,7 @@ public class CustomerCacheService {
      */
     public void clearCustomerDetailCache(Long customerId) {
         String key = "customer_detail_" + customerId;
-        customerDetailCache.remove(key);
+        customerDetailCache.invalidate(key);
         logger.debug("Cleared customer detail cache for customer: {}", customerId);
     }
     
@@ -168,7 +164,7 @@ public class CustomerCacheService {
      * 清除所有客户详情缓存
      */
     public void clearAllCustomerDetailCache() {
-        customerDetailCache.clear();
+        customerDetailCache.invalidateAll();
         logger.debug("Cleared all customer detail cache");
     }
     
@@ -179,11 +175,11 @@ public class CustomerCacheService {
      */
     public List<Object> getCachedCustomerDevices(Long customerId) {
         String key = "customer_devices_" + customerId;
-        CacheItem<Object> cacheItem = customerDetailCache.get(key);
+        Object cached = customerDetailCache.get(key);
         
-        if (cacheItem != null && !cacheItem.isExpired()) {
+        if (cached != null) {
             logger.debug("Cache hit for customer devices: {}", customerId);
-            return (List<Object>) cacheItem.getData();
+            return (List<Object>) cached;
         }
         
         logger.debug("Cache miss for customer devices: {}", customerId);
@@ -195,7 +191,7 @@ public class CustomerCacheService {
      */
     public void cacheCustomerDevices(Long customerId, List<Object> devices) {
         String key = "customer_devices_" + customerId;
-        customerDetailCache.put(key, new CacheItem<>(devices, CUSTOMER_DETAIL_CACHE_DURATION_MINUTES));
+        customerDetailCache.put(key, devices);
         logger.debug("Cached customer devices for customer {} for {} minutes", 
                     customerId, CUSTOMER_DETAIL_CACHE_DURATION_MINUTES);
     }
@@ -205,11 +201,11 @@ public class CustomerCacheService {
      */
     public List<Object> getCachedCustomerOrders(Long customerId) {
         String key = "customer_orders_" + customerId;
-        CacheItem<Object> cacheItem = customerDetailCache.get(key);
+        Object cached = customerDetailCache.get(key);
         
-        if (cacheItem != null && !cacheItem.isExpired()) {
+        if (cached != null) {
             logger.debug("Cache hit for customer orders: {}", customerId);
-            return (List<Object>) cacheItem.getData();
+            return (List<Object>) cached;
         }
         
         logger.debug("Cache miss for customer orders: {}", customerId);
@@ -221,7 +217,7 @@ public class CustomerCacheService {
      */
     public void cacheCustomerOrders(Long customerId, List<Object> orders) {
         String key = "customer_orders_" + customerId;
-        customerDetailCache.put(key, new CacheItem<>(orders, CUSTOMER_DETAIL_CACHE_DURATION_MINUTES));
+        customerDetailCache.put(key, orders);
         logger.debug("Cached customer orders for customer {} for {} minutes", 
                     customerId, CUSTOMER_DETAIL_CACHE_DURATION_MINUTES);
     }
@@ -231,11 +227,11 @@ public class CustomerCacheService {
      */
     public List<Object> getCachedCustomerServiceRecords(Long customerId) {
         String key = "customer_service_records_" + customerId;
-        CacheItem<Object> cacheItem = customerDetailCache.get(key);
+        Object cached = customerDetailCache.get(key);
         
-        if (cacheItem != null && !cacheItem.isExpired()) {
+        if (cached != null) {
             logger.debug("Cache hit for customer service records: {}", customerId);
-            return (List<Object>) cacheItem.getData();
+            return (List<Object>) cached;
         }
         
         logger.debug("Cache miss for customer service records: {}", customerId);
@@ -247,7 +243,7 @@ public class CustomerCacheService {
      */
     public void cacheCustomerServiceRecords(Long customerId, List<Object> serviceRecords) {
         String key = "customer_service_records_" + customerId;
-        customerDetailCache.put(key, new CacheItem<>(serviceRecords, CUSTOMER_DETAIL_CACHE_DURATION_MINUTES));
+        customerDetailCache.put(key, serviceRecords);
         logger.debug("Cached customer service records for customer {} for {} minutes", 
                     customerId, CUSTOMER_DETAIL_CACHE_DURATION_MINUTES);
     }
@@ -258,9 +254,9 @@ public class CustomerCacheService {
      * 清除所有缓存
      */
     public void clearAllCache() {
-        statsCache.clear();
-        filterOptionsCache.clear();
-        customerDetailCache.clear();
+        statsCache.invalidateAll();
+        filterOptionsCache.invalidateAll();
+        customerDetailCache.invalidateAll();
         logger.info("Cleared all customer cache");
     }
     
@@ -268,54 +264,21 @@ public class CustomerCacheService {
      * 清除过期缓存
      */
     public void clearExpiredCache() {
-        // 清除过期的统计数据缓存
-        statsCache.entrySet().removeIf(entry -> entry.getValue().isExpired());
-        
-        // 清除过期的筛选选项缓存
-        filterOptionsCache.entrySet().removeIf(entry -> entry.getValue().isExpired());
+        int removed = statsCache.cleanUp()
+            + filterOptionsCache.cleanUp()
+            + customerDetailCache.cleanUp();
         
-        // 清除过期的客户详情缓存
-        customerDetailCache.entrySet().removeIf(entry -> entry.getValue().isExpired());
-        
-        logger.debug("Cleared expired cache items");
+        logger.debug("Cleared {} expired cache items", removed);
     }
     
     /**
      * 获取缓存统计信息
      */
     public Map<String, Object> getCacheStats() {
-        Map<String, Object> stats = new ConcurrentHashMap<>();
-        
-        // 统计数据缓存
-        long validStatsCache = statsCache.values().stream()
-            .mapToLong(item -> item.isExpired() ? 0 : 1)
-            .sum();
-        stats.put("statsCache", Map.of(
-            "total", statsCache.size(),
-            "valid", validStatsCache,
-            "expired", statsCache.size() - validStatsCache
-        ));
-        
-        // 筛选选项缓存
-        long validFilterCache = filterOptionsCache.values().stream()
-            .mapToLong(item -> item.isExpired() ? 0 : 1)
-            .sum();
-        stats.put("filterOptionsCache", Map.of(
-            "total", filterOptionsCache.size(),
-            "valid", validFilterCache,
-            "expired", filterOptionsCache.size() - validFilterCache
-        ));
-        
-        // 客户详情缓存
-        long validDetailCache = customerDetailCache.values().stream()
-            .mapToLong(item -> item.isExpired() ? 0 : 1)
-            .sum();
-        stats.put("customerDetailCache", Map.of(
-            "total", customerDetailCache.size(),
-            "valid", validDetailCache,
-            "expired", customerDetailCache.size() - validDetailCache
-        ));
-        
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("statsCache", statsCache.getStats());
+        stats.put("filterOptionsCache", filterOptionsCache.getStats());
+        stats.put("customerDetailCache", customerDetailCache.getStats());
         return stats;
     }
     
@@ -344,9 +307,9 @@ public class CustomerCacheService {
         String ordersKey = "customer_orders_" + customerId;
         String serviceRecordsKey = "customer_service_records_" + customerId;
         
-        customerDetailCache.remove(devicesKey);
-        customerDetailCache.remove(ordersKey);
-        customerDetailCache.remove(serviceRecordsKey);
+        customerDetailCache.invalidate(devicesKey);
+        customerDetailCache.invalidate(ordersKey);
+        customerDetailCache.invalidate(serviceRecordsKey);
         
         // 清除统计数据缓存（因为客户数据变更可能影响统计）
         clearCustomerStatsCache();
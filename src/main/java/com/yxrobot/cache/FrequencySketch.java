@@ -0,0 +1,97 @@
+package com.yxrobot.cache;
+
+/**
+ * 访问频率估算器（Count-Min Sketch）
+ * 使用4行4位计数器估算键的近期访问频率，用于TinyLFU准入判断
+ *
+ * 计数器在累计采样数达到阈值后整体减半，使旧的热点逐渐冷却。
+ * 本类非线程安全，由调用方在锁内访问。
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-10
+ */
+public class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private static final long[] SEEDS = {
+        0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0x27D4EB2F165667C5L
+    };
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * @param expectedSize 预计需要跟踪的键数量（通常为缓存容量）
+     */
+    public FrequencySketch(int expectedSize) {
+        int size = Integer.highestOneBit(Math.max(expectedSize, 16) - 1) << 1;
+        this.table = new long[size];
+        this.tableMask = size - 1;
+        this.sampleSize = Math.max(expectedSize, 16) * 10;
+    }
+
+    /**
+     * 记录一次访问
+     */
+    public void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int i = 0; i < DEPTH; i++) {
+            added |= incrementAt(indexOf(hash, i));
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * 估算访问频率（0-15）
+     */
+    public int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = MAX_COUNT;
+        for (int i = 0; i < DEPTH; i++) {
+            int index = indexOf(hash, i);
+            int count = (int) ((table[index >>> 4] >>> ((index & 15) << 2)) & 0xFL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    private boolean incrementAt(int index) {
+        int slot = index >>> 4;
+        int offset = (index & 15) << 2;
+        long mask = 0xFL << offset;
+        if ((table[slot] & mask) != mask) {
+            table[slot] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 计数器整体减半（老化）
+     */
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & 0x7777777777777777L;
+        }
+        additions = additions >>> 1;
+    }
+
+    private int indexOf(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        // 每个long存放16个计数器，索引范围为 table.length * 16
+        return (int) h & ((tableMask << 4) | 15);
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+}
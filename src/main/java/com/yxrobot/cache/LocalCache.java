@@ -0,0 +1,510 @@
+package com.yxrobot.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * 有界本地缓存区域
+ * 按容量淘汰（LRU 或 TinyLFU 准入 + LRU）并按区域TTL过期（TTL为null时只按容量淘汰），记录命中/未命中/淘汰计数
+ *
+ * 内部按键哈希分段，每段一把锁和一个访问顺序的LinkedHashMap，
+ * 避免所有读写争用同一把锁。实例由 {@link LocalCacheManager} 统一创建和管理。
+ *
+ * 通过 {@link #get(Object, Function)} 加载时，同一键的并发未命中只执行一次加载（single-flight），
+ * 其余请求等待同一结果；配置了提前刷新时间的区域在条目临近过期时于后台异步刷新，
+ * 刷新期间继续返回旧值。
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-10
+ * @param <K> 键类型
+ * @param <V> 值类型
+ */
+public class LocalCache<K, V> {
+
+    /**
+     * 淘汰策略
+     */
+    public enum EvictionPolicy {
+        /** 最近最少使用 */
+        LRU,
+        /** 频率准入：新键访问频率不高于淘汰候选时拒绝写入，防止一次性键冲掉热点 */
+        TINY_LFU
+    }
+
+    private static final int ENTRIES_PER_SEGMENT = 64;
+    private static final int MAX_SEGMENTS = 16;
+
+    /** 不过期区域条目的过期偏移（约146年），保证 nanoTime 差值比较不溢出 */
+    private static final long NO_EXPIRY_NANOS = Long.MAX_VALUE >> 1;
+
+    private final String name;
+    private final int maximumSize;
+    private final long ttlNanos;
+    private final EvictionPolicy policy;
+    private final long refreshAfterNanos;
+    private final Executor refreshExecutor;
+    private final Segment<K, V>[] segments;
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder coalescedLoads = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+
+    /**
+     * @param ttl 写入后的过期时间，null表示不过期
+     * @param refreshAfter 写入后多久触发后台刷新，null表示不提前刷新（需小于ttl才有意义）
+     * @param refreshExecutor 后台刷新执行器
+     */
+    @SuppressWarnings("unchecked")
+    LocalCache(String name, int maximumSize, Duration ttl, EvictionPolicy policy,
+               Duration refreshAfter, Executor refreshExecutor) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("缓存容量必须大于0: " + name);
+        }
+        this.name = name;
+        this.maximumSize = maximumSize;
+        this.ttlNanos = ttl != null ? ttl.toNanos() : 0;
+        this.policy = policy;
+        this.refreshAfterNanos = refreshAfter != null && (ttl == null || refreshAfter.compareTo(ttl) < 0)
+            ? refreshAfter.toNanos() : 0;
+        this.refreshExecutor = refreshExecutor;
+
+        int segmentCount = Integer.highestOneBit(
+            Math.max(1, Math.min(MAX_SEGMENTS, maximumSize / ENTRIES_PER_SEGMENT)));
+        this.segments = new Segment[segmentCount];
+        int perSegment = (maximumSize + segmentCount - 1) / segmentCount;
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(perSegment, policy == EvictionPolicy.TINY_LFU);
+        }
+    }
+
+    /**
+     * 缓存条目
+     */
+    static final class Entry<V> {
+        final V value;
+        final long writeNanos;
+        final long expireNanos;
+
+        Entry(V value, long writeNanos, long expireNanos) {
+            this.value = value;
+            this.writeNanos = writeNanos;
+            this.expireNanos = expireNanos;
+        }
+
+        boolean isExpired(long now) {
+            return now - expireNanos >= 0;
+        }
+    }
+
+    /**
+     * 缓存分段
+     */
+    private static final class Segment<K, V> {
+        final ReentrantLock lock = new ReentrantLock();
+        final LinkedHashMap<K, Entry<V>> map = new LinkedHashMap<>(16, 0.75f, true);
+        final int capacity;
+        final FrequencySketch sketch;
+
+        Segment(int capacity, boolean admission) {
+            this.capacity = capacity;
+            this.sketch = admission ? new FrequencySketch(capacity) : null;
+        }
+    }
+
+    // ==================== 读写操作 ====================
+
+    /**
+     * 获取缓存值，未命中或已过期返回null
+     */
+    public V get(K key) {
+        Entry<V> entry = getEntry(key);
+        return entry != null ? entry.value : null;
+    }
+
+    /**
+     * 获取缓存值，未命中时通过loader加载并写入缓存
+     * 同一键的并发未命中合并为一次加载；loader返回null时不缓存
+     *
+     * @param key 键
+     * @param loader 加载函数，抛出的运行时异常会传递给所有等待者
+     * @return 缓存值或加载结果
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        Entry<V> entry = getEntry(key);
+        if (entry != null) {
+            if (refreshAfterNanos > 0 && System.nanoTime() - entry.writeNanos >= refreshAfterNanos) {
+                refreshAsync(key, loader);
+            }
+            return entry.value;
+        }
+        return load(key, loader);
+    }
+
+    private V load(K key, Function<? super K, ? extends V> loader) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            coalescedLoads.increment();
+            return await(existing);
+        }
+
+        try {
+            // 上一次加载可能刚好完成并写入
+            Entry<V> entry = peekEntry(key);
+            if (entry != null) {
+                future.complete(entry.value);
+                return entry.value;
+            }
+            V value = invokeLoader(key, loader);
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private void refreshAsync(K key, Function<? super K, ? extends V> loader) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, future) != null) {
+            return;
+        }
+        Runnable task = () -> {
+            try {
+                future.complete(invokeLoader(key, loader));
+                refreshes.increment();
+            } catch (Throwable e) {
+                // 刷新失败保留旧值，到期后由下一次请求重新加载
+                future.completeExceptionally(e);
+            } finally {
+                inFlight.remove(key, future);
+            }
+        };
+        try {
+            refreshExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, future);
+            future.completeExceptionally(e);
+        }
+    }
+
+    private V invokeLoader(K key, Function<? super K, ? extends V> loader) {
+        loads.increment();
+        try {
+            V value = loader.apply(key);
+            put(key, value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            loadFailures.increment();
+            throw e;
+        }
+    }
+
+    private V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 读取未过期条目，不影响统计和访问顺序
+     */
+    private Entry<V> peekEntry(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            Entry<V> entry = segment.map.get(key);
+            return entry != null && !entry.isExpired(System.nanoTime()) ? entry : null;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * 获取未过期的缓存条目
+     */
+    Entry<V> getEntry(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        long now = System.nanoTime();
+        segment.lock.lock();
+        try {
+            if (segment.sketch != null) {
+                segment.sketch.increment(key);
+            }
+            Entry<V> entry = segment.map.get(key);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (entry.isExpired(now)) {
+                segment.map.remove(key);
+                expirations.increment();
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * 写入缓存，null值不缓存
+     */
+    public void put(K key, V value) {
+        if (key == null || value == null) {
+            return;
+        }
+        Segment<K, V> segment = segmentFor(key);
+        long now = System.nanoTime();
+        Entry<V> entry = new Entry<>(value, now, now + (ttlNanos > 0 ? ttlNanos : NO_EXPIRY_NANOS));
+        segment.lock.lock();
+        try {
+            if (segment.map.containsKey(key) || segment.map.size() < segment.capacity) {
+                segment.map.put(key, entry);
+                puts.increment();
+                return;
+            }
+
+            Iterator<Map.Entry<K, Entry<V>>> iterator = segment.map.entrySet().iterator();
+            Map.Entry<K, Entry<V>> eldest = iterator.next();
+            if (eldest.getValue().isExpired(now)) {
+                iterator.remove();
+                expirations.increment();
+            } else if (segment.sketch != null
+                    && segment.sketch.frequency(key) <= segment.sketch.frequency(eldest.getKey())) {
+                rejections.increment();
+                return;
+            } else {
+                iterator.remove();
+                evictions.increment();
+            }
+            segment.map.put(key, entry);
+            puts.increment();
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * 删除指定键
+     */
+    public void invalidate(K key) {
+        if (key == null) {
+            return;
+        }
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            segment.map.remove(key);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * 删除满足条件的键
+     *
+     * @return 删除数量
+     */
+    public int invalidateIf(Predicate<K> predicate) {
+        int removed = 0;
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                Iterator<K> iterator = segment.map.keySet().iterator();
+                while (iterator.hasNext()) {
+                    if (predicate.test(iterator.next())) {
+                        iterator.remove();
+                        removed++;
+                    }
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * 清空区域
+     */
+    public void invalidateAll() {
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                segment.map.clear();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 清除过期条目
+     *
+     * @return 清除数量
+     */
+    public int cleanUp() {
+        long now = System.nanoTime();
+        int removed = 0;
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                Iterator<Entry<V>> iterator = segment.map.values().iterator();
+                while (iterator.hasNext()) {
+                    if (iterator.next().isExpired(now)) {
+                        iterator.remove();
+                        removed++;
+                    }
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        expirations.add(removed);
+        return removed;
+    }
+
+    /**
+     * 当前键快照（含未清理的过期键）
+     */
+    public List<K> keys() {
+        List<K> keys = new ArrayList<>();
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                keys.addAll(segment.map.keySet());
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * 当前条目数（含未清理的过期条目）
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.map.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    // ==================== 统计信息 ====================
+
+    /**
+     * 区域统计信息
+     */
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requestCount = hitCount + missCount;
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("name", name);
+        stats.put("policy", policy.name());
+        stats.put("maximumSize", maximumSize);
+        stats.put("ttlSeconds", Duration.ofNanos(ttlNanos).getSeconds());
+        stats.put("size", size());
+        stats.put("hitCount", hitCount);
+        stats.put("missCount", missCount);
+        stats.put("hitRate", requestCount == 0 ? 0.0 : Math.round(hitCount * 10000.0 / requestCount) / 100.0);
+        stats.put("putCount", puts.sum());
+        stats.put("evictionCount", evictions.sum());
+        stats.put("expirationCount", expirations.sum());
+        stats.put("rejectionCount", rejections.sum());
+        stats.put("loadCount", loads.sum());
+        stats.put("loadFailureCount", loadFailures.sum());
+        stats.put("coalescedLoadCount", coalescedLoads.sum());
+        stats.put("refreshCount", refreshes.sum());
+        stats.put("refreshAfterSeconds", Duration.ofNanos(refreshAfterNanos).getSeconds());
+        return stats;
+    }
+
+    /**
+     * 重置计数器
+     */
+    public void resetStats() {
+        hits.reset();
+        misses.reset();
+        puts.reset();
+        evictions.reset();
+        expirations.reset();
+        rejections.reset();
+        loads.reset();
+        loadFailures.reset();
+        coalescedLoads.reset();
+        refreshes.reset();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * @return 过期时间，不过期时为null
+     */
+    public Duration getTtl() {
+        return ttlNanos > 0 ? Duration.ofNanos(ttlNanos) : null;
+    }
+
+    public EvictionPolicy getPolicy() {
+        return policy;
+    }
+
+    public Duration getRefreshAfter() {
+        return refreshAfterNanos > 0 ? Duration.ofNanos(refreshAfterNanos) : null;
+    }
+
+    private Segment<K, V> segmentFor(Object key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return segments[h & (segments.length - 1)];
+    }
+}
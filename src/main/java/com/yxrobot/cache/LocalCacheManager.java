@@ -0,0 +1,204 @@
+package com.yxrobot.cache;
+
+import com.yxrobot.config.LocalCacheConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * 本地缓存管理器
+ * 统一创建、配置和清理所有业务缓存区域，替代各模块自行维护的无界Map
+ *
+ * 各服务通过 {@link #getOrCreateCache} 声明区域及默认容量/TTL/提前刷新时间，
+ * 实际参数可由 yxrobot.cache.regions.* 覆盖。
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-10
+ */
+@Component
+public class LocalCacheManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalCacheManager.class);
+
+    private final Map<String, LocalCache<?, ?>> caches = new ConcurrentHashMap<>();
+
+    private final LocalCacheConfig cacheConfig;
+
+    private final Executor refreshExecutor;
+
+    @Autowired
+    public LocalCacheManager(LocalCacheConfig cacheConfig,
+                             @Qualifier("cacheRefreshExecutor") Executor refreshExecutor) {
+        this.cacheConfig = cacheConfig;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    /**
+     * 获取或创建缓存区域
+     *
+     * @param name 区域名称
+     * @param defaultMaximumSize 默认最大条目数
+     * @param defaultTtl 默认过期时间，null表示不过期（只按容量淘汰）
+     * @param defaultPolicy 默认淘汰策略
+     * @return 缓存区域
+     */
+    public <K, V> LocalCache<K, V> getOrCreateCache(String name, int defaultMaximumSize,
+                                                   Duration defaultTtl, LocalCache.EvictionPolicy defaultPolicy) {
+        return getOrCreateCache(name, defaultMaximumSize, defaultTtl, defaultPolicy, null);
+    }
+
+    /**
+     * 获取或创建支持提前刷新的缓存区域
+     * 条目写入超过 defaultRefreshAfter 后，下一次读取会触发后台刷新（仅对 {@link LocalCache#get(Object, java.util.function.Function)} 生效）
+     *
+     * @param defaultRefreshAfter 默认提前刷新时间，null表示不提前刷新
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> LocalCache<K, V> getOrCreateCache(String name, int defaultMaximumSize, Duration defaultTtl,
+                                                   LocalCache.EvictionPolicy defaultPolicy, Duration defaultRefreshAfter) {
+        return (LocalCache<K, V>) caches.computeIfAbsent(name,
+            key -> createCache(key, defaultMaximumSize, defaultTtl, defaultPolicy, defaultRefreshAfter));
+    }
+
+    /**
+     * 获取或创建LRU缓存区域
+     */
+    public <K, V> LocalCache<K, V> getOrCreateCache(String name, int defaultMaximumSize, Duration defaultTtl) {
+        return getOrCreateCache(name, defaultMaximumSize, defaultTtl, LocalCache.EvictionPolicy.LRU);
+    }
+
+    /**
+     * 获取已存在的缓存区域
+     */
+    public LocalCache<?, ?> getCache(String name) {
+        return caches.get(name);
+    }
+
+    /**
+     * 所有区域名称
+     */
+    public List<String> getCacheNames() {
+        List<String> names = new ArrayList<>(caches.keySet());
+        Collections.sort(names);
+        return names;
+    }
+
+    /**
+     * 所有区域统计信息
+     */
+    public Map<String, Object> getAllStats() {
+        Map<String, Object> stats = new TreeMap<>();
+        caches.forEach((name, cache) -> stats.put(name, cache.getStats()));
+        return stats;
+    }
+
+    /**
+     * 汇总统计信息
+     */
+    public Map<String, Object> getSummary() {
+        long hits = 0;
+        long misses = 0;
+        long evictions = 0;
+        long size = 0;
+        for (LocalCache<?, ?> cache : caches.values()) {
+            Map<String, Object> stats = cache.getStats();
+            hits += (Long) stats.get("hitCount");
+            misses += (Long) stats.get("missCount");
+            evictions += (Long) stats.get("evictionCount");
+            size += (Integer) stats.get("size");
+        }
+        long requests = hits + misses;
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("regionCount", caches.size());
+        summary.put("totalSize", size);
+        summary.put("hitCount", hits);
+        summary.put("missCount", misses);
+        summary.put("hitRate", requests == 0 ? 0.0 : Math.round(hits * 10000.0 / requests) / 100.0);
+        summary.put("evictionCount", evictions);
+        return summary;
+    }
+
+    /**
+     * 清空指定区域
+     *
+     * @return 区域是否存在
+     */
+    public boolean clear(String name) {
+        LocalCache<?, ?> cache = caches.get(name);
+        if (cache == null) {
+            return false;
+        }
+        cache.invalidateAll();
+        logger.info("已清空缓存区域: {}", name);
+        return true;
+    }
+
+    /**
+     * 清空所有区域
+     */
+    public void clearAll() {
+        caches.values().forEach(LocalCache::invalidateAll);
+        logger.info("已清空所有缓存区域，共 {} 个", caches.size());
+    }
+
+    /**
+     * 定期清理过期条目
+     */
+    @Scheduled(fixedDelayString = "${yxrobot.cache.cleanup-interval-ms:60000}")
+    public void cleanUpExpired() {
+        int removed = 0;
+        for (LocalCache<?, ?> cache : caches.values()) {
+            removed += cache.cleanUp();
+        }
+        if (removed > 0) {
+            logger.debug("已清理 {} 个过期缓存条目", removed);
+        }
+    }
+
+    private <K, V> LocalCache<K, V> createCache(String name, int defaultMaximumSize, Duration defaultTtl,
+                                               LocalCache.EvictionPolicy defaultPolicy, Duration defaultRefreshAfter) {
+        int maximumSize = defaultMaximumSize;
+        Duration ttl = defaultTtl;
+        LocalCache.EvictionPolicy policy = defaultPolicy;
+        Duration refreshAfter = defaultRefreshAfter;
+
+        LocalCacheConfig.Region region = cacheConfig.getRegions().get(name);
+        if (region != null) {
+            if (region.getMaximumSize() != null && region.getMaximumSize() > 0) {
+                maximumSize = region.getMaximumSize();
+            }
+            if (region.getTtlSeconds() != null && region.getTtlSeconds() > 0) {
+                ttl = Duration.ofSeconds(region.getTtlSeconds());
+            }
+            if (region.getRefreshAfterSeconds() != null) {
+                refreshAfter = region.getRefreshAfterSeconds() > 0
+                    ? Duration.ofSeconds(region.getRefreshAfterSeconds()) : null;
+            }
+            if (region.getPolicy() != null) {
+                try {
+                    policy = LocalCache.EvictionPolicy.valueOf(region.getPolicy().trim().toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    logger.warn("缓存区域 {} 的淘汰策略配置无效: {}，使用默认策略 {}", name, region.getPolicy(), policy);
+                }
+            }
+        }
+
+        logger.info("创建缓存区域: {} (maximumSize={}, ttl={}s, policy={}, refreshAfter={}s)",
+                   name, maximumSize, ttl != null ? ttl.getSeconds() : 0, policy, refreshAfter != null ? refreshAfter.getSeconds() : 0);
+        return new LocalCache<>(name, maximumSize, ttl, policy, refreshAfter, refreshExecutor);
+    }
+}
@@ -0,0 +1,75 @@
+package com.yxrobot.cache;
+
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Spring Cache 适配器
+ * 将 {@link LocalCache} 区域暴露为 Spring 的 {@link org.springframework.cache.Cache}，
+ * 供 @Cacheable / @CacheEvict 注解使用。不缓存null值。
+ * 声明 sync = true 的注解方法在并发未命中时只执行一次。
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-12
+ */
+public class LocalSpringCache extends AbstractValueAdaptingCache {
+
+    private final LocalCache<Object, Object> cache;
+
+    public LocalSpringCache(LocalCache<Object, Object> cache) {
+        super(false);
+        this.cache = cache;
+    }
+
+    @Override
+    public String getName() {
+        return cache.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return cache;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        return cache.get(key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return (T) cache.get(key, k -> {
+            try {
+                return valueLoader.call();
+            } catch (Exception e) {
+                throw new ValueRetrievalException(k, valueLoader, e);
+            }
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        cache.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        Object existing = cache.get(key);
+        if (existing == null) {
+            cache.put(key, value);
+        }
+        return toValueWrapper(existing);
+    }
+
+    @Override
+    public void evict(Object key) {
+        cache.invalidate(key);
+    }
+
+    @Override
+    public void clear() {
+        cache.invalidateAll();
+    }
+}
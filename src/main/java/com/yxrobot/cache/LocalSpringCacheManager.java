@@ -0,0 +1,69 @@
+package com.yxrobot.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Spring CacheManager 实现
+ * 注解缓存区域按需创建在 {@link LocalCacheManager} 中，统一受容量上限、TTL和统计管理
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-12
+ */
+public class LocalSpringCacheManager implements CacheManager {
+
+    /**
+     * 注解缓存区域规格
+     */
+    public static class RegionSpec {
+        private final int maximumSize;
+        private final Duration ttl;
+
+        public RegionSpec(int maximumSize, Duration ttl) {
+            this.maximumSize = maximumSize;
+            this.ttl = ttl;
+        }
+
+        public int getMaximumSize() {
+            return maximumSize;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+    }
+
+    private final LocalCacheManager localCacheManager;
+    private final Map<String, RegionSpec> regionSpecs;
+    private final RegionSpec defaultSpec;
+    private final Map<String, LocalSpringCache> caches = new ConcurrentHashMap<>();
+
+    public LocalSpringCacheManager(LocalCacheManager localCacheManager,
+                                   Map<String, RegionSpec> regionSpecs, RegionSpec defaultSpec) {
+        this.localCacheManager = localCacheManager;
+        this.regionSpecs = new HashMap<>(regionSpecs);
+        this.defaultSpec = defaultSpec;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, key -> {
+            RegionSpec spec = regionSpecs.getOrDefault(key, defaultSpec);
+            LocalCache<Object, Object> cache = localCacheManager.getOrCreateCache(
+                key, spec.getMaximumSize(), spec.getTtl());
+            return new LocalSpringCache(cache);
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+}
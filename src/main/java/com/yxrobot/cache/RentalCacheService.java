@@ -4,17 +4,20 @@ import com.yxrobot.dto.DeviceUtilizationDTO;
 import com.yxrobot.dto.RentalStatsDTO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 /**
  * 租赁数据缓存服务
  * 提高统计和图表数据查询性能
+ * 缓存存储由 {@link LocalCacheManager} 统一管理（有界、按区域TTL过期）
  * 
  * @author Kiro
  * @date 2025-01-28
@@ -30,53 +33,51 @@ public class RentalCacheService {
     private static final int DEVICE_CACHE_EXPIRE_MINUTES = 3;     // 设备数据缓存3分钟
     private static final int TODAY_CACHE_EXPIRE_MINUTES = 1;      // 今日数据缓存1分钟
     
-    // 缓存存储
-    private final Map<String, CacheEntry<RentalStatsDTO>> statsCache = new ConcurrentHashMap<>();
-    private final Map<String, CacheEntry<Map<String, Object>>> chartCache = new ConcurrentHashMap<>();
-    private final Map<String, CacheEntry<List<DeviceUtilizationDTO>>> deviceCache = new ConcurrentHashMap<>();
-    private final Map<String, CacheEntry<Map<String, Object>>> todayStatsCache = new ConcurrentHashMap<>();
+    // 统计数据写入4分钟后后台刷新（秒）
+    private static final int STATS_CACHE_REFRESH_SECONDS = 240;
     
-    /**
-     * 缓存条目
-     */
-    private static class CacheEntry<T> {
-        private final T data;
-        private final LocalDateTime expireTime;
-        
-        public CacheEntry(T data, int expireMinutes) {
-            this.data = data;
-            this.expireTime = LocalDateTime.now().plusMinutes(expireMinutes);
-        }
-        
-        public T getData() {
-            return data;
-        }
-        
-        public boolean isExpired() {
-            return LocalDateTime.now().isAfter(expireTime);
-        }
-        
-        public LocalDateTime getExpireTime() {
-            return expireTime;
-        }
+    // 缓存容量（条目数）
+    private static final int STATS_CACHE_MAX_SIZE = 256;
+    private static final int CHART_CACHE_MAX_SIZE = 512;
+    private static final int DEVICE_CACHE_MAX_SIZE = 1024;        // 设备键包含分页和关键词，使用频率准入防止冲刷
+    private static final int TODAY_CACHE_MAX_SIZE = 8;
+    
+    // 缓存区域
+    private final LocalCache<String, RentalStatsDTO> statsCache;
+    private final LocalCache<String, Map<String, Object>> chartCache;
+    private final LocalCache<String, List<DeviceUtilizationDTO>> deviceCache;
+    private final LocalCache<String, Map<String, Object>> todayStatsCache;
+    
+    @Autowired
+    public RentalCacheService(LocalCacheManager cacheManager) {
+        this.statsCache = cacheManager.getOrCreateCache("rental-stats", STATS_CACHE_MAX_SIZE,
+            Duration.ofMinutes(STATS_CACHE_EXPIRE_MINUTES), LocalCache.EvictionPolicy.LRU,
+            Duration.ofSeconds(STATS_CACHE_REFRESH_SECONDS));
+        this.chartCache = cacheManager.getOrCreateCache("rental-chart", CHART_CACHE_MAX_SIZE,
+            Duration.ofMinutes(CHART_CACHE_EXPIRE_MINUTES));
+        this.deviceCache = cacheManager.getOrCreateCache("rental-device", DEVICE_CACHE_MAX_SIZE,
+            Duration.ofMinutes(DEVICE_CACHE_EXPIRE_MINUTES), LocalCache.EvictionPolicy.TINY_LFU);
+        this.todayStatsCache = cacheManager.getOrCreateCache("rental-today-stats", TODAY_CACHE_MAX_SIZE,
+            Duration.ofMinutes(TODAY_CACHE_EXPIRE_MINUTES));
     }
     
     /**
      * 获取租赁统计数据缓存
      */
     public RentalStatsDTO getStatsCache(String key) {
-        CacheEntry<RentalStatsDTO> entry = statsCache.get(key);
-        if (entry != null && !entry.isExpired()) {
+        RentalStatsDTO data = statsCache.get(key);
+        if (data != null) {
             logger.debug("命中租赁统计缓存: {}", key);
-            return entry.getData();
         }
-        
-        if (entry != null && entry.isExpired()) {
-            statsCache.remove(key);
-            logger.debug("租赁统计缓存已过期，已清除: {}", key);
-        }
-        
-        return null;
+        return data;
+    }
+    
+    /**
+     * 获取租赁统计数据，未命中时通过loader加载
+     * 同一键的并发未命中只执行一次loader，临近过期时后台刷新
+     */
+    public RentalStatsDTO getStatsCache(String key, Supplier<RentalStatsDTO> loader) {
+        return statsCache.get(key, k -> loader.get());
     }
     
     /**
@@ -84,7 +85,7 @@ public class RentalCacheService {
      */
     public void putStatsCache(String key, RentalStatsDTO data) {
         if (data != null) {
-            statsCache.put(key, new CacheEntry<>(data, STATS_CACHE_EXPIRE_MINUTES));
+            statsCache.put(key, data);
             logger.debug("设置租赁统计缓存: {}", key);
         }
     }
@@ -93,18 +94,11 @@ public class RentalCacheService {
      * 获取图表数据缓存
      */
     public Map<String, Object> getChartCache(String key) {
-        CacheEntry<Map<String, Object>> entry = chartCache.get(key);
-        if (entry != null && !entry.isExpired()) {
+        Map<String, Object> data = chartCache.get(key);
+        if (data != null) {
             logger.debug("命中图表数据缓存: {}", key);
-            return entry.getData();
-        }
-        
-        if (entry != null && entry.isExpired()) {
-            chartCache.remove(key);
-            logger.debug("图表数据缓存已过期，已清除: {}", key);
         }
-        
-        return null;
+        return data;
     }
     
     /**
@@ -112,7 +106,7 @@ public class RentalCacheService {
      */
     public void putChartCache(String key, Map<String, Object> data) {
         if (data != null) {
-            chartCache.put(key, new CacheEntry<>(data, CHART_CACHE_EXPIRE_MINUTES));
+            chartCache.put(key, data);
             logger.debug("设置图表数据缓存: {}", key);
         }
     }
@@ -121,18 +115,11 @@ public class RentalCacheService {
      * 获取设备数据缓存
      */
     public List<DeviceUtilizationDTO> getDeviceCache(String key) {
-        CacheEntry<List<DeviceUtilizationDTO>> entry = deviceCache.get(key);
-        if (entry != null && !entry.isExpired()) {
+        List<DeviceUtilizationDTO> data = deviceCache.get(key);
+        if (data != null) {
             logger.debug("命中设备数据缓存: {}", key);
-            return entry.getData();
-        }
-        
-        if (entry != null && entry.isExpired()) {
-            deviceCache.remove(key);
-            logger.debug("设备数据缓存已过期，已清除: {}", key);
         }
-        
-        return null;
+        return data;
     }
     
     /**
@@ -140,7 +127,7 @@ public class RentalCacheService {
      */
     public void putDeviceCache(String key, List<DeviceUtilizationDTO> data) {
         if (data != null) {
-            deviceCache.put(key, new CacheEntry<>(data, DEVICE_CACHE_EXPIRE_MINUTES));
+            deviceCache.put(key, data);
             logger.debug("设置设备数据缓存: {}", key);
         }
     }
@@ -149,18 +136,11 @@ public class RentalCacheService {
      * 获取今日统计数据缓存
      */
     public Map<String, Object> getTodayStatsCache(String key) {
-        CacheEntry<Map<String, Object>> entry = todayStatsCache.get(key);
-        if (entry != null && !entry.isExpired()) {
+        Map<String, Object> data = todayStatsCache.get(key);
+        if (data != null) {
             logger.debug("命中今日统计缓存: {}", key);
-            return entry.getData();
         }
-        
-        if (entry != null && entry.isExpired()) {
-            todayStatsCache.remove(key);
-            logger.debug("今日统计缓存已过期，已清除: {}", key);
-        }
-        
-        return null;
+        return data;
     }
     
     /**
@@ -168,7 +148,7 @@ public class RentalCacheService {
      */
     public void putTodayStatsCache(String key, Map<String, Object> data) {
         if (data != null) {
-            todayStatsCache.put(key, new CacheEntry<>(data, TODAY_CACHE_EXPIRE_MINUTES));
+            todayStatsCache.put(key, data);
             logger.debug("设置今日统计缓存: {}", key);
         }
     }
@@ -219,10 +199,10 @@ public class RentalCacheService {
      * 清除所有缓存
      */
     public void clearAllCache() {
-        statsCache.clear();
-        chartCache.clear();
-        deviceCache.clear();
-        todayStatsCache.clear();
+        statsCache.invalidateAll();
+        chartCache.invalidateAll();
+        deviceCache.invalidateAll();
+        todayStatsCache.invalidateAll();
         logger.info("已清除所有租赁数据缓存");
     }
     
@@ -230,78 +210,25 @@ public class RentalCacheService {
      * 清除过期缓存
      */
     public void clearExpiredCache() {
-        int clearedCount = 0;
-        
-        // 清除过期的统计缓存
-        clearedCount += clearExpiredEntries(statsCache);
-        
-        // 清除过期的图表缓存
-        clearedCount += clearExpiredEntries(chartCache);
-        
-        // 清除过期的设备缓存
-        clearedCount += clearExpiredEntries(deviceCache);
-        
-        // 清除过期的今日统计缓存
-        clearedCount += clearExpiredEntries(todayStatsCache);
+        int clearedCount = statsCache.cleanUp()
+            + chartCache.cleanUp()
+            + deviceCache.cleanUp()
+            + todayStatsCache.cleanUp();
         
         if (clearedCount > 0) {
             logger.info("已清除 {} 个过期缓存条目", clearedCount);
         }
     }
     
-    /**
-     * 清除指定缓存Map中的过期条目
-     */
-    private <T> int clearExpiredEntries(Map<String, CacheEntry<T>> cache) {
-        int clearedCount = 0;
-        var iterator = cache.entrySet().iterator();
-        
-        while (iterator.hasNext()) {
-            var entry = iterator.next();
-            if (entry.getValue().isExpired()) {
-                iterator.remove();
-                clearedCount++;
-            }
-        }
-        
-        return clearedCount;
-    }
-    
     /**
      * 获取缓存统计信息
      */
     public Map<String, Object> getCacheStats() {
         Map<String, Object> stats = new HashMap<>();
-        
-        stats.put("statsCache", Map.of(
-            "size", statsCache.size(),
-            "expired", countExpiredEntries(statsCache)
-        ));
-        
-        stats.put("chartCache", Map.of(
-            "size", chartCache.size(),
-            "expired", countExpiredEntries(chartCache)
-        ));
-        
-        stats.put("deviceCache", Map.of(
-            "size", deviceCache.size(),
-            "expired", countExpiredEntries(deviceCache)
-        ));
-        
-        stats.put("todayStatsCache", Map.of(
-            "size", todayStatsCache.size(),
-            "expired", countExpiredEntries(todayStatsCache)
-        ));
-        
+        stats.put("statsCache", statsCache.getStats());
+        stats.put("chartCache", chartCache.getStats());
+        stats.put("deviceCache", deviceCache.getStats());
+        stats.put("todayStatsCache", todayStatsCache.getStats());
         return stats;
     }
-    
-    /**
-     * 统计过期条目数量
-     */
-    private <T> long countExpiredEntries(Map<String, CacheEntry<T>> cache) {
-        return cache.values().stream()
-                   .mapToLong(entry -> entry.isExpired() ? 1 : 0)
-                   .sum();
-    }
-}
\ No newline at end of file
+}
@@ -2,6 +2,7 @@ package com.yxrobot.config;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
@@ -151,4 +152,136 @@ public class AsyncConfig {
         
         return executor;
     }
-}
\ No newline at end of file
+    
+    /**
+     * 缓存后台刷新执行器
+     * 刷新为尽力而为，队列满时直接丢弃（旧值到期后由请求线程重新加载）
+     * 
+     * @return 任务执行器
+     */
+    @Bean("cacheRefreshExecutor")
+    public Executor cacheRefreshExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        // 核心线程数
+        executor.setCorePoolSize(1);
+        // 最大线程数
+        executor.setMaxPoolSize(4);
+        // 队列容量
+        executor.setQueueCapacity(100);
+        // 线程名前缀
+        executor.setThreadNamePrefix("CacheRefresh-");
+        // 线程空闲时间（秒）
+        executor.setKeepAliveSeconds(60);
+        // 拒绝策略：丢弃
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        // 关闭时不等待刷新任务
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        // 初始化
+        executor.initialize();
+        
+        logger.info("缓存刷新执行器初始化完成 - 核心线程: {}, 最大线程: {}, 队列容量: {}", 
+                   executor.getCorePoolSize(), executor.getMaxPoolSize(), executor.getQueueCapacity());
+        
+        return executor;
+    }
+    
+    /**
+     * 导出任务执行器
+     * 大批量导出在后台线程中流式写文件，线程数较少以限制同时占用的数据库连接；
+     * 队列满时拒绝新任务，而不是回落到请求线程执行
+     * 
+     * @return 任务执行器
+     */
+    @Bean("exportJobExecutor")
+    public Executor exportJobExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        // 核心线程数
+        executor.setCorePoolSize(2);
+        // 最大线程数
+        executor.setMaxPoolSize(2);
+        // 队列容量
+        executor.setQueueCapacity(20);
+        // 线程名前缀
+        executor.setThreadNamePrefix("ExportJob-");
+        // 拒绝策略：抛出异常，由调用方标记任务失败
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        // 关闭时等待正在写的导出完成
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        // 等待时间
+        executor.setAwaitTerminationSeconds(60);
+        // 初始化
+        executor.initialize();
+        
+        logger.info("导出任务执行器初始化完成 - 核心线程: {}, 最大线程: {}, 队列容量: {}", 
+                   executor.getCorePoolSize(), executor.getMaxPoolSize(), executor.getQueueCapacity());
+        
+        return executor;
+    }
+    
+    /**
+     * 设备命令发送执行器
+     * 每个设备任务同一时间只有一次发送在执行，超时的发送被中断后可能仍短暂占用线程，
+     * 最大线程数为并发上限的两倍；线程和队列都满时拒绝，该次发送按失败处理并重试
+     * 
+     * @param parallelism 批量命令并发上限
+     * @return 任务执行器
+     */
+    @Bean("deviceCommandSendExecutor")
+    public Executor deviceCommandSendExecutor(@Value("${yxrobot.device-control.parallelism:32}") int parallelism) {
+        int threads = Math.max(1, parallelism);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        // 核心线程数
+        executor.setCorePoolSize(threads);
+        // 最大线程数
+        executor.setMaxPoolSize(threads * 2);
+        // 队列容量
+        executor.setQueueCapacity(threads);
+        // 线程名前缀
+        executor.setThreadNamePrefix("DeviceCommandSend-");
+        // 线程空闲时间（秒）
+        executor.setKeepAliveSeconds(60);
+        // 拒绝策略：抛出异常，由调用方按发送失败处理
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        // 关闭时中断正在发送的命令
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        // 初始化
+        executor.initialize();
+        
+        logger.info("设备命令发送执行器初始化完成 - 核心线程: {}, 最大线程: {}, 队列容量: {}", 
+                   executor.getCorePoolSize(), executor.getMaxPoolSize(), executor.getQueueCapacity());
+        
+        return executor;
+    }
+    
+    /**
+     * 设备异步批次协调执行器
+     * 每个异步批次占用一个线程等待设备任务完成，队列满时拒绝新批次
+     * 
+     * @return 任务执行器
+     */
+    @Bean("deviceCommandBatchExecutor")
+    public Executor deviceCommandBatchExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        // 核心线程数
+        executor.setCorePoolSize(2);
+        // 最大线程数
+        executor.setMaxPoolSize(4);
+        // 队列容量
+        executor.setQueueCapacity(50);
+        // 线程名前缀
+        executor.setThreadNamePrefix("DeviceCommandBatch-");
+        // 线程空闲时间（秒）
+        executor.setKeepAliveSeconds(60);
+        // 拒绝策略：抛出异常，由调用方标记批次失败
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        // 关闭时中断正在执行的批次
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        // 初始化
+        executor.initialize();
+        
+        logger.info("设备批次协调执行器初始化完成 - 核心线程: {}, 最大线程: {}, 队列容量: {}", 
+                   executor.getCorePoolSize(), executor.getMaxPoolSize(), executor.getQueueCapacity());
+        
+        return executor;
+    }
+}
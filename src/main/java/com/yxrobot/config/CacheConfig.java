@@ -0,0 +1,107 @@
+package com.yxrobot.config;
+
+import com.yxrobot.cache.LocalCacheManager;
+import com.yxrobot.cache.LocalSpringCacheManager;
+import com.yxrobot.cache.LocalSpringCacheManager.RegionSpec;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 注解缓存配置类
+ * 启用 @Cacheable / @CacheEvict，并以本地有界缓存作为 CacheManager
+ *
+ * 区域的容量和TTL在此声明默认值，可通过 yxrobot.cache.regions.&lt;区域名&gt; 覆盖。
+ * 订单、设备类区域的写入路径不全在客户模块内，因此使用较短的TTL限制数据陈旧时间。
+ * spring.cache.type=none 时（如集成测试）不注册本地CacheManager，由Spring Boot回退为不缓存。
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-12
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * 未声明区域的默认规格
+     */
+    private static final RegionSpec DEFAULT_SPEC = new RegionSpec(1000, Duration.ofMinutes(5));
+
+    /**
+     * 客户服务记录相关缓存区域（写入时由 CustomerServiceRecordService 精确清除）
+     */
+    private static final String[] CUSTOMER_SERVICE_RECORD_CACHES = {
+        "customerServiceRecords",
+        "customerServiceStats",
+        "customerMaintenanceRecords",
+        "customerUpgradeRecords",
+        "customerConsultationRecords",
+        "customerComplaintRecords",
+        "customerCompletedServices",
+        "customerInProgressServices",
+        "customerUrgentServices",
+        "customerHighPriorityServices",
+        "customerServiceStatusDistribution",
+        "customerServiceTypeDistribution"
+    };
+
+    /**
+     * 客户设备相关缓存区域
+     */
+    private static final String[] CUSTOMER_DEVICE_CACHES = {
+        "customerDevices",
+        "customerDeviceStats",
+        "customerPurchasedDevices",
+        "customerRentalDevices",
+        "customerActiveDevices",
+        "customerDeviceTypeDistribution",
+        "customerDeviceStatusDistribution"
+    };
+
+    /**
+     * 客户订单相关缓存区域
+     */
+    private static final String[] CUSTOMER_ORDER_CACHES = {
+        "customerOrders",
+        "customerOrderStats",
+        "customerPurchaseOrders",
+        "customerRentalOrders",
+        "customerCompletedOrders",
+        "customerPendingOrders",
+        "customerRecentOrders",
+        "customerOrderStatusDistribution",
+        "customerOrderTypeDistribution",
+        "customerMonthlyOrderStats"
+    };
+
+    @Bean
+    @ConditionalOnExpression("'${spring.cache.type:local}' != 'none'")
+    public CacheManager cacheManager(LocalCacheManager localCacheManager) {
+        Map<String, RegionSpec> specs = new HashMap<>();
+
+        RegionSpec serviceRecordSpec = new RegionSpec(2000, Duration.ofMinutes(10));
+        for (String name : CUSTOMER_SERVICE_RECORD_CACHES) {
+            specs.put(name, serviceRecordSpec);
+        }
+        specs.put("customerRecentServices", new RegionSpec(2000, Duration.ofMinutes(10)));
+        specs.put("customerMonthlyServiceStats", new RegionSpec(1000, Duration.ofMinutes(30)));
+
+        RegionSpec deviceSpec = new RegionSpec(2000, Duration.ofMinutes(3));
+        for (String name : CUSTOMER_DEVICE_CACHES) {
+            specs.put(name, deviceSpec);
+        }
+
+        RegionSpec orderSpec = new RegionSpec(2000, Duration.ofMinutes(2));
+        for (String name : CUSTOMER_ORDER_CACHES) {
+            specs.put(name, orderSpec);
+        }
+
+        return new LocalSpringCacheManager(localCacheManager, specs, DEFAULT_SPEC);
+    }
+}
@@ -0,0 +1,96 @@
+package com.yxrobot.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 分页总数统计配置
+ * 按接口指定总数统计方式（exact、cached、estimated、hasMore），未配置的接口使用默认方式；
+ * 请求参数 countMode 可覆盖配置
+ *
+ * 示例：
+ * <pre>
+ * yxrobot:
+ *   count:
+ *     default-mode: exact
+ *     cache-ttl-seconds: 30
+ *     endpoints:
+ *       devices.list: cached
+ *       news.list: estimated
+ * </pre>
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-24
+ */
+@Configuration
+@ConfigurationProperties(prefix = "yxrobot.count")
+public class CountStrategyConfig {
+
+    /**
+     * 默认统计方式
+     */
+    private String defaultMode = "exact";
+
+    /**
+     * 总数缓存过期时间（秒）
+     */
+    private long cacheTtlSeconds = 30;
+
+    /**
+     * 总数缓存最大条目数
+     */
+    private int cacheMaximumSize = 2000;
+
+    /**
+     * 表行数估算值的缓存时间（秒）
+     */
+    private long estimateTtlSeconds = 300;
+
+    /**
+     * 接口名称 -> 统计方式
+     */
+    private Map<String, String> endpoints = new HashMap<>();
+
+    public String getDefaultMode() {
+        return defaultMode;
+    }
+
+    public void setDefaultMode(String defaultMode) {
+        this.defaultMode = defaultMode;
+    }
+
+    public long getCacheTtlSeconds() {
+        return cacheTtlSeconds;
+    }
+
+    public void setCacheTtlSeconds(long cacheTtlSeconds) {
+        this.cacheTtlSeconds = cacheTtlSeconds;
+    }
+
+    public int getCacheMaximumSize() {
+        return cacheMaximumSize;
+    }
+
+    public void setCacheMaximumSize(int cacheMaximumSize) {
+        this.cacheMaximumSize = cacheMaximumSize;
+    }
+
+    public long getEstimateTtlSeconds() {
+        return estimateTtlSeconds;
+    }
+
+    public void setEstimateTtlSeconds(long estimateTtlSeconds) {
+        this.estimateTtlSeconds = estimateTtlSeconds;
+    }
+
+    public Map<String, String> getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(Map<String, String> endpoints) {
+        this.endpoints = endpoints;
+    }
+}
@@ -0,0 +1,114 @@
+package com.yxrobot.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 本地缓存配置类
+ * 按区域覆盖缓存容量、过期时间和淘汰策略，未配置的区域使用各服务声明的默认值
+ *
+ * 示例：
+ * <pre>
+ * yxrobot:
+ *   cache:
+ *     regions:
+ *       rental-device:
+ *         maximum-size: 500
+ *         ttl-seconds: 180
+ *         refresh-after-seconds: 150
+ *         policy: TINY_LFU
+ * </pre>
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-10
+ */
+@Configuration
+@ConfigurationProperties(prefix = "yxrobot.cache")
+public class LocalCacheConfig {
+
+    /**
+     * 过期条目清理间隔（毫秒）
+     */
+    private long cleanupIntervalMs = 60000;
+
+    /**
+     * 区域配置
+     */
+    private Map<String, Region> regions = new HashMap<>();
+
+    public long getCleanupIntervalMs() {
+        return cleanupIntervalMs;
+    }
+
+    public void setCleanupIntervalMs(long cleanupIntervalMs) {
+        this.cleanupIntervalMs = cleanupIntervalMs;
+    }
+
+    public Map<String, Region> getRegions() {
+        return regions;
+    }
+
+    public void setRegions(Map<String, Region> regions) {
+        this.regions = regions;
+    }
+
+    /**
+     * 区域配置
+     */
+    public static class Region {
+        /**
+         * 最大条目数
+         */
+        private Integer maximumSize;
+
+        /**
+         * 过期时间（秒）
+         */
+        private Long ttlSeconds;
+
+        /**
+         * 写入后提前刷新时间（秒），0表示不提前刷新
+         */
+        private Long refreshAfterSeconds;
+
+        /**
+         * 淘汰策略：LRU / TINY_LFU
+         */
+        private String policy;
+
+        public Integer getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(Integer maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Long getTtlSeconds() {
+            return ttlSeconds;
+        }
+
+        public void setTtlSeconds(Long ttlSeconds) {
+            this.ttlSeconds = ttlSeconds;
+        }
+
+        public Long getRefreshAfterSeconds() {
+            return refreshAfterSeconds;
+        }
+
+        public void setRefreshAfterSeconds(Long refreshAfterSeconds) {
+            this.refreshAfterSeconds = refreshAfterSeconds;
+        }
+
+        public String getPolicy() {
+            return policy;
+        }
+
+        public void setPolicy(String policy) {
+            this.policy = policy;
+        }
+    }
+}
@@ -141,9 +141,19 @@ public class PerformanceConfig {
         private int readTimeoutMs = 15000;
         
         /**
-         * 最大并发验证数
+         * 最大并发验证数（同时在途的HTTP请求）
          */
-        private int maxConcurrentValidations = 20;
+        private int maxConcurrentValidations = 200;
+        
+        /**
+         * 单个主机的最大并发请求数
+         */
+        private int maxConcurrentPerHost = 4;
+        
+        /**
+         * 自适应读取超时的下限（毫秒），上限为 readTimeoutMs
+         */
+        private int minReadTimeoutMs = 2000;
         
         /**
          * 批量验证最大数量
@@ -180,6 +190,22 @@ public class PerformanceConfig {
             this.maxConcurrentValidations = maxConcurrentValidations;
         }
         
+        public int getMaxConcurrentPerHost() {
+            return maxConcurrentPerHost;
+        }
+        
+        public void setMaxConcurrentPerHost(int maxConcurrentPerHost) {
+            this.maxConcurrentPerHost = maxConcurrentPerHost;
+        }
+        
+        public int getMinReadTimeoutMs() {
+            return minReadTimeoutMs;
+        }
+        
+        public void setMinReadTimeoutMs(int minReadTimeoutMs) {
+            this.minReadTimeoutMs = minReadTimeoutMs;
+        }
+        
         public int getMaxBatchSize() {
             return maxBatchSize;
         }
@@ -0,0 +1,100 @@
+package com.yxrobot.controller;
+
+import com.yxrobot.cache.LocalCache;
+import com.yxrobot.cache.LocalCacheManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 缓存管理控制器
+ * 提供本地缓存区域的统计查询和清理接口
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-10
+ */
+@RestController
+@RequestMapping("/api/admin/cache")
+public class CacheAdminController {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheAdminController.class);
+
+    @Autowired
+    private LocalCacheManager cacheManager;
+
+    /**
+     * 获取所有缓存区域统计
+     * GET /api/admin/cache/stats
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        try {
+            Map<String, Object> data = new HashMap<>();
+            data.put("summary", cacheManager.getSummary());
+            data.put("regions", cacheManager.getAllStats());
+
+            return ResponseEntity.ok(createSuccessResponse("获取缓存统计成功", data));
+        } catch (Exception e) {
+            logger.error("获取缓存统计失败", e);
+            return ResponseEntity.status(500).body(createErrorResponse(500, "获取缓存统计失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 获取指定缓存区域统计
+     * GET /api/admin/cache/stats/{name}
+     */
+    @GetMapping("/stats/{name}")
+    public ResponseEntity<Map<String, Object>> getRegionStats(@PathVariable String name) {
+        LocalCache<?, ?> cache = cacheManager.getCache(name);
+        if (cache == null) {
+            return ResponseEntity.status(404).body(createErrorResponse(404, "缓存区域不存在: " + name));
+        }
+        return ResponseEntity.ok(createSuccessResponse("获取缓存统计成功", cache.getStats()));
+    }
+
+    /**
+     * 清空指定缓存区域
+     * DELETE /api/admin/cache/{name}
+     */
+    @DeleteMapping("/{name}")
+    public ResponseEntity<Map<String, Object>> clearRegion(@PathVariable String name) {
+        logger.info("清空缓存区域: {}", name);
+        if (!cacheManager.clear(name)) {
+            return ResponseEntity.status(404).body(createErrorResponse(404, "缓存区域不存在: " + name));
+        }
+        return ResponseEntity.ok(createSuccessResponse("缓存区域已清空", null));
+    }
+
+    /**
+     * 清空所有缓存区域
+     * DELETE /api/admin/cache
+     */
+    @DeleteMapping
+    public ResponseEntity<Map<String, Object>> clearAll() {
+        logger.info("清空所有缓存区域");
+        cacheManager.clearAll();
+        return ResponseEntity.ok(createSuccessResponse("所有缓存区域已清空", null));
+    }
+
+    private Map<String, Object> createSuccessResponse(String message, Object data) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("code", 200);
+        response.put("message", message);
+        response.put("data", data);
+        return response;
+    }
+
+    private Map<String, Object> createErrorResponse(int code, String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("code", code);
+        response.put("message", message);
+        response.put("data", null);
+        return response;
+    }
+}
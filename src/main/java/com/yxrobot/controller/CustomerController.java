@@ -9,6 +9,9 @@ import com.yxrobot.dto.CustomerDeviceDTO;
 import com.yxrobot.dto.CustomerOrderDTO;
 import com.yxrobot.dto.ServiceRecordDTO;
 import com.yxrobot.entity.Customer;
+import com.yxrobot.entity.CustomerServiceRecord;
+import com.yxrobot.enums.ExportFormat;
+import com.yxrobot.service.DataExportService;
 import com.yxrobot.service.CustomerService;
 import com.yxrobot.service.CustomerStatsService;
 import com.yxrobot.service.CustomerDeviceService;
@@ -16,12 +19,14 @@ import com.yxrobot.service.CustomerOrderService;
 import com.yxrobot.service.CustomerServiceRecordService;
 import com.yxrobot.service.CustomerValidationService;
 import com.yxrobot.exception.CustomerException;
+import com.yxrobot.util.ExportResponseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import java.util.HashMap;
 import java.util.List;
@@ -66,6 +71,9 @@ public class CustomerController {
     @Autowired
     private com.yxrobot.service.CustomerSearchOptimizationService searchOptimizationService;
     
+    @Autowired
+    private DataExportService dataExportService;
+    
     // ==================== 客户列表和查询接口 ====================
     
     /**
@@ -478,6 +486,104 @@ public class CustomerController {
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * 新增客户服务记录关联
+     */
+    @PostMapping("/{id}/service-records")
+    public ResponseEntity<Map<String, Object>> createCustomerServiceRecord(@PathVariable Long id,
+                                                                           @RequestBody CustomerServiceRecord record) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            record.setCustomerId(id);
+            CustomerServiceRecord created = customerServiceRecordService.createServiceRecord(record);
+            
+            response.put("code", 200);
+            response.put("message", "服务记录关联成功");
+            response.put("data", created);
+            
+        } catch (IllegalArgumentException e) {
+            response.put("code", 400);
+            response.put("message", e.getMessage());
+            response.put("data", null);
+        } catch (Exception e) {
+            response.put("code", 500);
+            response.put("message", "关联失败: " + e.getMessage());
+            response.put("data", null);
+        }
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * 更新客户服务记录关联
+     * 路径中的relationId为关联ID，关联必须属于该客户；请求体中的customerId为空时沿用路径中的客户ID，与路径不一致时返回400
+     */
+    @PutMapping("/{id}/service-records/{relationId}")
+    public ResponseEntity<Map<String, Object>> updateCustomerServiceRecord(@PathVariable Long id,
+                                                                           @PathVariable Long relationId,
+                                                                           @RequestBody CustomerServiceRecord record) {
+        Map<String, Object> response = new HashMap<>();
+        
+        if (record.getCustomerId() != null && !record.getCustomerId().equals(id)) {
+            response.put("code", 400);
+            response.put("message", "请求体中的客户ID与路径中的客户ID不一致");
+            response.put("data", null);
+            return ResponseEntity.badRequest().body(response);
+        }
+        
+        try {
+            customerServiceRecordService.getServiceRecordRelation(id, relationId);
+            record.setId(relationId);
+            record.setCustomerId(id);
+            customerServiceRecordService.updateServiceRecord(record);
+            
+            response.put("code", 200);
+            response.put("message", "服务记录关联更新成功");
+            response.put("data", record);
+            
+        } catch (IllegalArgumentException e) {
+            response.put("code", 400);
+            response.put("message", e.getMessage());
+            response.put("data", null);
+        } catch (Exception e) {
+            response.put("code", 500);
+            response.put("message", "更新失败: " + e.getMessage());
+            response.put("data", null);
+        }
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * 删除客户服务记录关联
+     * 路径中的relationId为关联ID，与更新接口一致
+     */
+    @DeleteMapping("/{id}/service-records/{relationId}")
+    public ResponseEntity<Map<String, Object>> deleteCustomerServiceRecord(@PathVariable Long id,
+                                                                           @PathVariable Long relationId) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            customerServiceRecordService.deleteServiceRecordRelation(id, relationId);
+            
+            response.put("code", 200);
+            response.put("message", "服务记录关联删除成功");
+            response.put("data", null);
+            
+        } catch (IllegalArgumentException e) {
+            response.put("code", 400);
+            response.put("message", e.getMessage());
+            response.put("data", null);
+        } catch (Exception e) {
+            response.put("code", 500);
+            response.put("message", "删除失败: " + e.getMessage());
+            response.put("data", null);
+        }
+        
+        return ResponseEntity.ok(response);
+    }
+    
     // ==================== 搜索和筛选接口 ====================
     
     /**
@@ -810,18 +916,47 @@ public class CustomerController {
     }
     
     /**
-     * 导出客户数据 - 预留接口
+     * 导出客户数据
      * 对应前端API: customerApi.exportCustomers()
+     * 按筛选条件流式导出全部客户，GET 使用查询参数，POST 使用请求体；format 为 excel/xlsx 或 csv
      */
     @GetMapping("/export")
-    public ResponseEntity<Map<String, Object>> exportCustomers() {
-        Map<String, Object> response = new HashMap<>();
-        
-        response.put("code", 501);
-        response.put("message", "数据导出功能暂未实现");
-        response.put("data", null);
-        
-        return ResponseEntity.ok(response);
+    public ResponseEntity<Map<String, Object>> exportCustomers(CustomerQueryDTO queryDTO,
+                                                               @RequestParam(defaultValue = "excel") String format,
+                                                               @RequestHeader(value = "Accept-Encoding", required = false) String acceptEncoding,
+                                                               HttpServletResponse response) {
+        return writeCustomerExport(queryDTO, format, acceptEncoding, response);
+    }
+    
+    @PostMapping("/export")
+    public ResponseEntity<Map<String, Object>> exportCustomersByBody(@RequestBody(required = false) CustomerQueryDTO queryDTO,
+                                                                     @RequestParam(defaultValue = "excel") String format,
+                                                                     @RequestHeader(value = "Accept-Encoding", required = false) String acceptEncoding,
+                                                                     HttpServletResponse response) {
+        return writeCustomerExport(queryDTO != null ? queryDTO : new CustomerQueryDTO(), format, acceptEncoding, response);
+    }
+    
+    private ResponseEntity<Map<String, Object>> writeCustomerExport(CustomerQueryDTO queryDTO, String format,
+                                                                    String acceptEncoding, HttpServletResponse response) {
+        try {
+            ExportFormat exportFormat = ExportFormat.fromCode(format);
+            ExportResponseUtil.write(response, "客户", exportFormat, acceptEncoding,
+                out -> dataExportService.exportCustomers(queryDTO, exportFormat, out));
+            return null;
+            
+        } catch (Exception e) {
+            logger.error("导出客户数据失败", e);
+            if (response.isCommitted()) {
+                // 已开始发送文件，无法再返回错误信息
+                return null;
+            }
+            response.reset();
+            Map<String, Object> result = new HashMap<>();
+            result.put("code", 400);
+            result.put("message", "导出失败: " + e.getMessage());
+            result.put("data", null);
+            return ResponseEntity.badRequest().body(result);
+        }
     }
     
     // ==================== 性能监控和优化接口 ====================
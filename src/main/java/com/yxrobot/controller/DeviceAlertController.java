@@ -1,5 +1,6 @@
 package com.yxrobot.controller;
 
+import com.yxrobot.dto.CursorPage;
 import com.yxrobot.dto.DeviceAlertDTO;
 import com.yxrobot.entity.AlertLevel;
 import com.yxrobot.service.DeviceAlertService;
@@ -7,6 +8,7 @@ import com.yxrobot.service.DeviceMonitoringService.PageResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -24,6 +26,7 @@ import java.util.Map;
  * 
  * 主要接口：
  * - GET /api/admin/device/monitoring/alerts - 获取告警列表
+ * - GET /api/admin/device/monitoring/alerts/cursor - 游标分页获取告警列表
  * - GET /api/admin/device/monitoring/alerts/unresolved - 获取未解决告警
  * - GET /api/admin/device/monitoring/alerts/recent - 获取最近告警
  * - POST /api/admin/device/monitoring/alerts/{id}/resolve - 解决告警
@@ -41,4 +44,55 @@ public class DeviceAlertController {
     
     @Autowired
     private DeviceAlertService deviceAlertService;
+    
+    /**
+     * 游标分页获取告警列表
+     * 按告警时间倒序返回，响应中的 nextCursor 作为下一次请求的 cursor 参数
+     * 
+     * @param cursor 上一页返回的游标，第一页不传
+     * @param size 每页大小
+     * @param alertLevel 告警级别筛选
+     * @param deviceId 设备ID筛选
+     * @param isResolved 是否已解决筛选
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @param keyword 关键词搜索
+     * @param includeTotal 是否返回总数
+     * @return 告警列表和下一页游标
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<Map<String, Object>> getAlertsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") Integer size,
+            @RequestParam(required = false) String alertLevel,
+            @RequestParam(required = false) Long deviceId,
+            @RequestParam(required = false) Boolean isResolved,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        
+        Map<String, Object> response = new HashMap<>();
+        try {
+            if (size < 1 || size > 100) {
+                throw new IllegalArgumentException("每页大小必须在1-100之间");
+            }
+            CursorPage<DeviceAlertDTO> result = deviceAlertService.getDeviceAlertsByCursor(
+                cursor, size, alertLevel, deviceId, isResolved, startTime, endTime, keyword, includeTotal);
+            
+            response.put("code", 200);
+            response.put("message", "查询成功");
+            response.put("data", result);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("code", 400);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (Exception e) {
+            logger.error("游标查询告警列表失败", e);
+            response.put("code", 500);
+            response.put("message", "查询失败: " + e.getMessage());
+            return ResponseEntity.status(500).body(response);
+        }
+    }
 }
\ No newline at end of file
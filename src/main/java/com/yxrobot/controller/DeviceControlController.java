@@ -137,6 +137,50 @@ public class DeviceControlController {
         }
     }
     
+    /**
+     * 异步批量控制设备
+     * 立即返回批次ID，通过 /batch/{batchId}/progress 查询进度和最终结果
+     * 
+     * @param operation 操作类型
+     * @param deviceIds 设备ID列表
+     * @return 批次进度
+     */
+    @PostMapping("/batch/{operation}/async")
+    public ResponseEntity<Map<String, Object>> startBatchControl(
+            @PathVariable String operation,
+            @Valid @RequestBody List<Long> deviceIds) {
+        logger.info("接收到异步批量控制设备请求: operation={}, deviceCount={}", operation, deviceIds.size());
+        
+        try {
+            return ResponseEntity.ok(deviceControlService.startBatchControl(deviceIds, operation));
+        } catch (Exception e) {
+            logger.error("异步批量控制设备失败: operation={}, deviceCount={}", operation, deviceIds.size(), e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+    
+    /**
+     * 获取批量控制进度
+     * 
+     * @param batchId 批次ID
+     * @return 批次进度，完成后包含批量控制结果
+     */
+    @GetMapping("/batch/{batchId}/progress")
+    public ResponseEntity<Map<String, Object>> getBatchProgress(@PathVariable String batchId) {
+        logger.debug("获取批量控制进度: batchId={}", batchId);
+        
+        try {
+            Map<String, Object> progress = deviceControlService.getBatchProgress(batchId);
+            if (progress == null) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(progress);
+        } catch (Exception e) {
+            logger.error("获取批量控制进度失败: batchId={}", batchId, e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+    
     /**
      * 获取设备控制状态
      * 
@@ -3,6 +3,7 @@ package com.yxrobot.controller;
 import com.yxrobot.dto.DeviceMonitoringStatsDTO;
 import com.yxrobot.dto.DeviceMonitoringDataDTO;
 import com.yxrobot.dto.DeviceMapDataDTO;
+import com.yxrobot.dto.DeviceMapViewDTO;
 import com.yxrobot.service.DeviceMonitoringStatsService;
 import com.yxrobot.service.DeviceMonitoringService;
 import com.yxrobot.service.DeviceMonitoringService.PageResult;
@@ -27,7 +28,7 @@ import java.util.Map;
  * - GET /api/admin/device/monitoring/stats - 获取监控统计数据
  * - GET /api/admin/device/monitoring/devices - 获取设备监控列表
  * - GET /api/admin/device/monitoring/device/{id} - 获取设备监控详情
- * - GET /api/admin/device/monitoring/map - 获取设备分布地图数据
+ * - GET /api/admin/device/monitoring/map - 获取设备分布地图数据（可按视口和缩放级别聚合）
  * 
  * @author YXRobot Development Team
  * @since 2024
@@ -138,12 +139,27 @@ public class DeviceMonitoringController {
   
     /**
      * 获取设备分布地图数据
-     * 支持前端地图组件显示
+     * 支持前端地图组件显示；传入视口范围和缩放级别时只返回视口内的设备和聚合点，
+     * 不传时返回全部设备
      * 
+     * @param minLat 视口最小纬度
+     * @param minLng 视口最小经度，大于最大经度时表示视口跨越180度经线
+     * @param maxLat 视口最大纬度
+     * @param maxLng 视口最大经度
+     * @param zoom 地图缩放级别
      * @return 统一响应格式的地图数据
      */
     @GetMapping("/map")
-    public ResponseEntity<Map<String, Object>> getDeviceMapData() {
+    public ResponseEntity<Map<String, Object>> getDeviceMapData(
+            @RequestParam(required = false) Double minLat,
+            @RequestParam(required = false) Double minLng,
+            @RequestParam(required = false) Double maxLat,
+            @RequestParam(required = false) Double maxLng,
+            @RequestParam(required = false) Integer zoom) {
+        
+        if (minLat != null || minLng != null || maxLat != null || maxLng != null || zoom != null) {
+            return getDeviceMapView(minLat, minLng, maxLat, maxLng, zoom);
+        }
         logger.info("获取设备分布地图数据");
         
         try {
@@ -163,6 +179,39 @@ public class DeviceMonitoringController {
         }
     }
     
+    private ResponseEntity<Map<String, Object>> getDeviceMapView(Double minLat, Double minLng,
+                                                                 Double maxLat, Double maxLng, Integer zoom) {
+        if (minLat == null || minLng == null || maxLat == null || maxLng == null || zoom == null) {
+            return ResponseEntity.badRequest().body(
+                createBadRequestResponse("视口查询需要同时提供minLat、minLng、maxLat、maxLng和zoom"));
+        }
+        if (minLat < -90 || maxLat > 90 || minLat > maxLat
+            || minLng < -180 || minLng > 180 || maxLng < -180 || maxLng > 180) {
+            return ResponseEntity.badRequest().body(createBadRequestResponse("视口范围无效"));
+        }
+        if (zoom < 0 || zoom > 22) {
+            return ResponseEntity.badRequest().body(createBadRequestResponse("缩放级别必须在0-22之间"));
+        }
+        
+        try {
+            DeviceMapViewDTO view = deviceMonitoringService.getDeviceMapView(minLat, minLng, maxLat, maxLng, zoom);
+            
+            Map<String, Object> responseData = new HashMap<>();
+            responseData.put("devices", view.getDevices());
+            responseData.put("clusters", view.getClusters());
+            responseData.put("total", view.getTotal());
+            responseData.put("zoom", view.getZoom());
+            responseData.put("clustered", view.isClustered());
+            responseData.put("lastUpdateTime", java.time.LocalDateTime.now().toString());
+            
+            return ResponseEntity.ok(createSuccessResponse(responseData, "获取设备分布地图数据成功"));
+            
+        } catch (Exception e) {
+            logger.error("获取视口设备地图数据失败", e);
+            return ResponseEntity.ok(createErrorResponse("获取设备分布地图数据失败: " + e.getMessage()));
+        }
+    }
+    
     /**
      * 搜索设备
      * 支持前端设备搜索功能
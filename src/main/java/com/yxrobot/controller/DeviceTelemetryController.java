@@ -0,0 +1,120 @@
+package com.yxrobot.controller;
+
+import com.yxrobot.service.DeviceTelemetryIngestService;
+import com.yxrobot.service.DeviceTelemetryIngestService.IngestResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 设备遥测数据接入控制器
+ * 设备批量上报性能指标和网络状态，样本进入接入队列后异步批量写入
+ *
+ * 主要接口：
+ * - POST /api/admin/device/monitoring/telemetry - 上报批次（application/x-ndjson 或 application/octet-stream）
+ * - GET /api/admin/device/monitoring/telemetry/stats - 接入速率、队列深度、丢弃数等指标
+ *
+ * @author YXRobot开发团队
+ * @since 2025-03-05
+ */
+@RestController
+@RequestMapping("/api/admin/device/monitoring/telemetry")
+@CrossOrigin(origins = "*")
+public class DeviceTelemetryController {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceTelemetryController.class);
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    @Autowired
+    private DeviceTelemetryIngestService deviceTelemetryIngestService;
+
+    /**
+     * 上报NDJSON批次，每行一条记录
+     *
+     * @param request HTTP请求对象
+     * @return 接收结果：accepted 已入队、rejected 校验失败、dropped 队列已满被丢弃
+     */
+    @PostMapping(consumes = NDJSON)
+    public ResponseEntity<Map<String, Object>> ingestNdjson(HttpServletRequest request) {
+        try {
+            return buildResponse(deviceTelemetryIngestService.ingestNdjson(request.getInputStream()));
+        } catch (IOException e) {
+            logger.warn("读取遥测数据失败: {}", e.getMessage());
+            return ResponseEntity.status(400).body(createErrorResponse(400, "读取请求体失败"));
+        }
+    }
+
+    /**
+     * 上报二进制批次，记录格式见 {@link DeviceTelemetryIngestService#decodeBinary}
+     *
+     * @param request HTTP请求对象
+     * @return 接收结果
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<Map<String, Object>> ingestBinary(HttpServletRequest request) {
+        try {
+            return buildResponse(deviceTelemetryIngestService.decodeBinary(request.getInputStream()));
+        } catch (IOException e) {
+            logger.warn("读取遥测数据失败: {}", e.getMessage());
+            return ResponseEntity.status(400).body(createErrorResponse(400, "读取请求体失败"));
+        }
+    }
+
+    /**
+     * 获取接入运行指标
+     *
+     * @return 接入速率、队列深度、拒绝/丢弃/写入失败数等指标
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getIngestionStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("code", 200);
+        response.put("message", "获取遥测接入指标成功");
+        response.put("data", deviceTelemetryIngestService.getIngestionStats());
+        response.put("timestamp", System.currentTimeMillis());
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 全部被丢弃时返回503提示设备稍后重试，全部校验失败时返回400，其余返回202
+     */
+    private ResponseEntity<Map<String, Object>> buildResponse(IngestResult result) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("data", result);
+        response.put("timestamp", System.currentTimeMillis());
+
+        if (result.getAccepted() == 0 && result.getDropped() > 0) {
+            response.put("code", 503);
+            response.put("message", "接入队列已满，请稍后重试");
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "1").body(response);
+        }
+        if (result.getAccepted() == 0 && result.getRejected() > 0) {
+            response.put("code", 400);
+            response.put("message", "数据校验失败");
+            return ResponseEntity.status(400).body(response);
+        }
+        response.put("code", 202);
+        response.put("message", "遥测数据已接收");
+        return ResponseEntity.status(202).body(response);
+    }
+
+    private Map<String, Object> createErrorResponse(int code, String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("code", code);
+        response.put("message", message);
+        response.put("data", null);
+        response.put("timestamp", System.currentTimeMillis());
+        return response;
+    }
+}
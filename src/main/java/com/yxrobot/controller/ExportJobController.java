@@ -0,0 +1,140 @@
+package com.yxrobot.controller;
+
+import com.yxrobot.dto.SalesRecordQueryDTO;
+import com.yxrobot.enums.ExportFormat;
+import com.yxrobot.service.ExportJobService;
+import com.yxrobot.service.ExportJobService.ExportJob;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 导出任务控制器
+ * 提交后台导出任务、查询进度并下载导出文件
+ *
+ * 下载接口返回文件资源，Spring MVC 根据 Range 请求头返回 206 分段内容，客户端中断后可从已下载位置继续；
+ * 导出文件生成后不再修改，ETag 取任务ID，If-None-Match 命中时返回 304。
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-28
+ */
+@RestController
+@RequestMapping("/api/admin/export-jobs")
+public class ExportJobController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportJobController.class);
+
+    @Autowired
+    private ExportJobService exportJobService;
+
+    /**
+     * 提交链接点击日志导出
+     * POST /api/admin/export-jobs/click-logs
+     */
+    @PostMapping("/click-logs")
+    public ResponseEntity<Map<String, Object>> submitClickLogExport(
+            @RequestParam(required = false) Long linkId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime,
+            @RequestParam(defaultValue = "csv") String format) {
+        try {
+            ExportJob job = exportJobService.submitClickLogExport(linkId, startTime, endTime, ExportFormat.fromCode(format));
+            return ResponseEntity.accepted().body(createSuccessResponse("导出任务已提交", job));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(400, e.getMessage()));
+        }
+    }
+
+    /**
+     * 提交销售记录导出
+     * POST /api/admin/export-jobs/sales-records
+     */
+    @PostMapping("/sales-records")
+    public ResponseEntity<Map<String, Object>> submitSalesRecordExport(
+            @RequestBody(required = false) SalesRecordQueryDTO query,
+            @RequestParam(defaultValue = "csv") String format) {
+        try {
+            ExportJob job = exportJobService.submitSalesRecordExport(
+                query != null ? query : new SalesRecordQueryDTO(), ExportFormat.fromCode(format));
+            return ResponseEntity.accepted().body(createSuccessResponse("导出任务已提交", job));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(400, e.getMessage()));
+        }
+    }
+
+    /**
+     * 查询导出任务进度
+     * GET /api/admin/export-jobs/{jobId}
+     */
+    @GetMapping("/{jobId}")
+    public ResponseEntity<Map<String, Object>> getJob(@PathVariable String jobId) {
+        ExportJob job = exportJobService.getJob(jobId);
+        if (job == null) {
+            return ResponseEntity.status(404).body(createErrorResponse(404, "导出任务不存在或已过期: " + jobId));
+        }
+        return ResponseEntity.ok(createSuccessResponse("查询成功", job));
+    }
+
+    /**
+     * 下载导出文件，支持 Range 断点续传
+     * GET /api/admin/export-jobs/{jobId}/download
+     */
+    @GetMapping("/{jobId}/download")
+    public ResponseEntity<Resource> download(@PathVariable String jobId) throws IOException {
+        ExportJob job = exportJobService.getJob(jobId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Path file = exportJobService.getArtifact(jobId);
+        if (file == null) {
+            // 任务未完成或失败
+            return ResponseEntity.status(409).build();
+        }
+
+        logger.info("下载导出文件 - 任务ID: {}, 文件: {}", jobId, job.getFileName());
+        MediaType contentType = job.getFileName().endsWith(".gz")
+            ? MediaType.parseMediaType("application/gzip")
+            : MediaType.parseMediaType(ExportFormat.fromCode(job.getFormat()).getContentType());
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(job.getFileName(), StandardCharsets.UTF_8).build().toString())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag("\"" + jobId + "\"")
+                .lastModified(Files.getLastModifiedTime(file).toMillis())
+                .body(new FileSystemResource(file));
+    }
+
+    private Map<String, Object> createSuccessResponse(String message, Object data) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("code", 200);
+        response.put("message", message);
+        response.put("data", data);
+        return response;
+    }
+
+    private Map<String, Object> createErrorResponse(int code, String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("code", code);
+        response.put("message", message);
+        response.put("data", null);
+        return response;
+    }
+}
@@ -1,25 +1,38 @@
 package com.yxrobot.controller;
 
+import com.yxrobot.service.StaticFileService;
+import com.yxrobot.service.StaticFileService.FileMetadata;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpRange;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.util.UriUtils;
 
 import javax.servlet.http.HttpServletRequest;
-import java.io.File;
-import java.nio.file.Files;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
 
 /**
  * 文件访问控制器
  * 提供上传文件的HTTP访问服务
- * 
+ *
+ * 文件元数据由 {@link StaticFileService} 缓存，响应携带强 ETag、Last-Modified 和 Cache-Control，
+ * 条件请求命中时返回 304；支持单个字节范围的 Range/If-Range 请求（视频拖动进度条时只下载所需片段）。
+ * 文件内容在 Tomcat 支持时交由 sendfile 发送，否则通过 FileChannel.transferTo 写出，不经过堆内缓冲。
+ *
  * @author YXRobot开发团队
  * @version 1.0
  * @since 2024-12-19
@@ -30,65 +43,152 @@ public class FileController {
     
     private static final Logger logger = LoggerFactory.getLogger(FileController.class);
     
+    private static final String URL_PREFIX = "/api/v1/files/";
+    
+    /**
+     * Tomcat sendfile 请求属性
+     */
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    
+    /**
+     * 小于该大小的内容直接写出，sendfile 的额外开销不划算（与 Tomcat DefaultServlet 的默认阈值一致）
+     */
+    private static final long SENDFILE_MIN_SIZE = 48 * 1024;
+    
+    @Autowired
+    private StaticFileService staticFileService;
+    
     /**
-     * 文件存储根路径
+     * 浏览器缓存时间（秒），过期后凭 ETag 重新验证
      */
-    @Value("${file.upload.path:./uploads}")
-    private String uploadPath;
+    @Value("${yxrobot.file-serving.max-age-seconds:86400}")
+    private long maxAgeSeconds;
     
     /**
      * 获取文件
-     * 
-     * @param filePath 文件相对路径
-     * @return 文件资源
+     *
+     * @param request HTTP请求，路径为文件相对路径
+     * @param response HTTP响应，文件内容直接写入
      */
     @GetMapping("/**")
-    public ResponseEntity<Resource> getFile(HttpServletRequest request) {
+    public void getFile(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // 获取请求路径中的文件路径
+        String filePath = UriUtils.decode(request.getRequestURI().substring(URL_PREFIX.length()), StandardCharsets.UTF_8);
+    
+        FileMetadata metadata;
         try {
-            // 获取请求路径中的文件路径
-            String requestPath = request.getRequestURI();
-            String filePath = requestPath.substring("/api/v1/files/".length());
-            
-            logger.info("请求文件: {}", filePath);
-            
-            // 构建完整文件路径
-            String fullPath = uploadPath + File.separator + filePath.replace("/", File.separator);
-            Path path = Paths.get(fullPath);
-            
-            // 检查文件是否存在
-            if (!Files.exists(path) || !Files.isRegularFile(path)) {
-                logger.warn("文件不存在: {}", fullPath);
-                return ResponseEntity.notFound().build();
-            }
-            
-            // 安全检查：确保文件在上传目录内
-            Path uploadDir = Paths.get(uploadPath).toAbsolutePath().normalize();
-            Path requestedFile = path.toAbsolutePath().normalize();
-            
-            if (!requestedFile.startsWith(uploadDir)) {
-                logger.warn("非法文件访问尝试: {}", fullPath);
-                return ResponseEntity.badRequest().build();
+            metadata = staticFileService.getMetadata(filePath);
+        } catch (IllegalArgumentException e) {
+            logger.warn("非法文件访问尝试: {}", filePath);
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        if (metadata == null) {
+            logger.debug("文件不存在: {}", filePath);
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+    
+        // 写入 ETag/Last-Modified；If-None-Match/If-Modified-Since 命中时设置 304
+        if (new ServletWebRequest(request, response).checkNotModified(metadata.getEtag(), metadata.getLastModified())) {
+            return;
+        }
+    
+        response.setContentType(metadata.getContentType());
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                           CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePublic().getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                           "inline; filename=\"" + metadata.getPath().getFileName().toString() + "\"");
+    
+        long size = metadata.getSize();
+        long start = 0;
+        long length = size;
+        HttpRange range = resolveRange(request, metadata);
+        if (range != null) {
+            start = range.getRangeStart(size);
+            length = range.getRangeEnd(size) - start + 1;
+            if (start >= size || length <= 0) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
             }
-            
-            // 创建文件资源
-            Resource resource = new FileSystemResource(path);
-            
-            // 确定文件的MIME类型
-            String contentType = Files.probeContentType(path);
-            if (contentType == null) {
-                contentType = "application/octet-stream";
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (start + length - 1) + "/" + size);
+        }
+        response.setContentLengthLong(length);
+    
+        if ("HEAD".equals(request.getMethod()) || length == 0) {
+            return;
+        }
+        transfer(request, response, metadata.getPath(), start, length);
+    }
+    
+    /**
+     * 解析 Range 请求头
+     * 格式错误、包含多个范围或 If-Range 与当前文件不匹配时返回null（返回完整内容）
+     */
+    private HttpRange resolveRange(HttpServletRequest request, FileMetadata metadata) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null || !isIfRangeSatisfied(request, metadata)) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * If-Range 为 ETag 时要求强匹配，为日期时要求与最后修改时间（秒）一致
+     */
+    private boolean isIfRangeSatisfied(HttpServletRequest request, FileMetadata metadata) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        ifRange = ifRange.trim();
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(metadata.getEtag());
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == metadata.getLastModified() / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * 写出文件内容：优先使用 Tomcat sendfile（内核直接从页缓存发送到套接字），
+     * 否则用 FileChannel.transferTo 写入响应输出流
+     */
+    private void transfer(HttpServletRequest request, HttpServletResponse response, Path file,
+                          long start, long length) throws IOException {
+        if (length >= SENDFILE_MIN_SIZE && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + length);
+            return;
+        }
+    
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long written = channel.transferTo(position, remaining, out);
+                if (written <= 0) {
+                    // 文件在发送过程中被截断
+                    break;
+                }
+                position += written;
+                remaining -= written;
             }
-            
-            logger.info("成功访问文件: {}, 类型: {}", fullPath, contentType);
-            
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + path.getFileName().toString() + "\"")
-                    .body(resource);
-                    
-        } catch (Exception e) {
-            logger.error("文件访问失败", e);
-            return ResponseEntity.internalServerError().build();
         }
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,8 @@
 package com.yxrobot.controller;
 
+import com.yxrobot.dto.CursorPage;
 import com.yxrobot.dto.LinkClickLogDTO;
+import com.yxrobot.service.LinkClickRollupService;
 import com.yxrobot.service.LinkClickService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,6 +15,7 @@ import org.springframework.web.bind.annotation.*;
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.constraints.NotNull;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
@@ -36,6 +39,9 @@ public class LinkClickController {
     @Autowired
     private LinkClickService linkClickService;
     
+    @Autowired
+    private LinkClickRollupService rollupService;
+    
     /**
      * 记录链接点击事件
      * 
@@ -85,6 +91,76 @@ public class LinkClickController {
         }
     }
     
+    /**
+     * 获取点击写后缓冲的运行指标
+     * 
+     * @return 队列深度、写入量、同步写入（背压）次数等指标
+     */
+    @GetMapping("/ingestion-stats")
+    public ResponseEntity<Map<String, Object>> getIngestionStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("code", 200);
+        response.put("message", "获取点击写入指标成功");
+        response.put("data", linkClickService.getIngestionStats());
+        response.put("timestamp", System.currentTimeMillis());
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * 按原始点击日志重建点击汇总，用于回填历史数据
+     * 
+     * @param startDate 开始日期（含）
+     * @param endDate 结束日期（含，必须早于今天）
+     * @return 参与重建的点击日志数量
+     */
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildRollups(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        
+        logger.info("重建点击汇总 - 开始日期: {}, 结束日期: {}", startDate, endDate);
+        
+        try {
+            long processed = rollupService.rebuildRollups(startDate, endDate);
+            
+            Map<String, Object> data = new HashMap<>();
+            data.put("startDate", startDate);
+            data.put("endDate", endDate);
+            data.put("processedLogs", processed);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("code", 200);
+            response.put("message", "点击汇总重建成功");
+            response.put("data", data);
+            response.put("timestamp", System.currentTimeMillis());
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (IllegalArgumentException e) {
+            logger.warn("重建点击汇总失败 - 错误: {}", e.getMessage());
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("code", 400);
+            response.put("message", e.getMessage());
+            response.put("data", null);
+            response.put("timestamp", System.currentTimeMillis());
+            
+            return ResponseEntity.status(400).body(response);
+            
+        } catch (Exception e) {
+            logger.error("重建点击汇总失败", e);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("code", 500);
+            response.put("message", "点击汇总重建失败: " + e.getMessage());
+            response.put("data", null);
+            response.put("timestamp", System.currentTimeMillis());
+            
+            return ResponseEntity.status(500).body(response);
+        }
+    }
+    
     /**
      * 记录转化事件
      * 
@@ -371,5 +447,51 @@ public class LinkClickController {
         }
     }
     
+    /**
+     * 游标分页获取链接的点击历史
+     * 按点击时间倒序返回，响应中的 nextCursor 作为下一次请求的 cursor 参数
+     * 
+     * @param id 链接ID
+     * @param cursor 上一页返回的游标，第一页不传
+     * @param size 每页数量
+     * @param includeTotal 是否返回总点击数
+     * @return 点击历史和下一页游标
+     */
+    @GetMapping("/{id}/click-history/cursor")
+    public ResponseEntity<Map<String, Object>> getClickHistoryByCursor(
+            @PathVariable @NotNull Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") Integer size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        
+        Map<String, Object> response = new HashMap<>();
+        try {
+            if (size < 1 || size > 500) {
+                throw new IllegalArgumentException("每页数量必须在1-500之间");
+            }
+            CursorPage<LinkClickLogDTO> history = linkClickService.getClickHistoryByCursor(id, cursor, size, includeTotal);
+            
+            response.put("code", 200);
+            response.put("message", "查询成功");
+            response.put("data", history);
+            response.put("timestamp", System.currentTimeMillis());
+            return ResponseEntity.ok(response);
+            
+        } catch (IllegalArgumentException e) {
+            response.put("code", 400);
+            response.put("message", e.getMessage());
+            response.put("data", null);
+            response.put("timestamp", System.currentTimeMillis());
+            return ResponseEntity.badRequest().body(response);
+        } catch (Exception e) {
+            logger.error("游标获取链接点击历史失败", e);
+            response.put("code", 500);
+            response.put("message", "查询失败: " + e.getMessage());
+            response.put("data", null);
+            response.put("timestamp", System.currentTimeMillis());
+            return ResponseEntity.status(500).body(response);
+        }
+    }
+    
 
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.yxrobot.controller;
 
+import com.yxrobot.dto.CursorPage;
 import com.yxrobot.dto.ManagedDeviceDTO;
 import com.yxrobot.dto.ManagedDeviceStatsDTO;
 import com.yxrobot.service.ManagedDeviceService;
@@ -60,6 +61,7 @@ public class ManagedDeviceController {
      * @param endDate 结束日期
      * @param sortBy 排序字段
      * @param sortOrder 排序方向
+     * @param countMode 总数统计方式（exact、cached、estimated、hasMore），不传时使用配置
      * @return 设备列表和分页信息
      */
     @GetMapping
@@ -73,7 +75,8 @@ public class ManagedDeviceController {
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortOrder) {
+            @RequestParam(defaultValue = "desc") String sortOrder,
+            @RequestParam(required = false) String countMode) {
         
         logger.info("获取设备列表 - 页码: {}, 页面大小: {}, 关键词: {}, 状态: {}, 型号: {}", 
                    page, pageSize, keyword, status, model);
@@ -81,7 +84,7 @@ public class ManagedDeviceController {
         try {
             com.yxrobot.dto.PageResult<ManagedDeviceDTO> result = managedDeviceService.getManagedDevices(
                 page, pageSize, keyword, status, model, customerId, 
-                startDate, endDate, sortBy, sortOrder
+                startDate, endDate, sortBy, sortOrder, countMode
             );
             
             // 获取统计数据
@@ -97,6 +100,9 @@ public class ManagedDeviceController {
             data.put("page", result.getPage());
             data.put("pageSize", result.getSize());
             data.put("totalPages", result.getTotalPages());
+            data.put("totalExact", result.getTotalExact());
+            data.put("countMode", result.getCountMode());
+            data.put("hasMore", result.getHasMore());
             data.put("stats", stats);
             
             response.put("data", data);
@@ -111,6 +117,58 @@ public class ManagedDeviceController {
         }
     }
     
+    /**
+     * 游标分页获取设备列表
+     * 按创建时间倒序返回，响应中的 nextCursor 作为下一次请求的 cursor 参数，
+     * 适用于深度翻页和导出等需要遍历大量设备的场景
+     * 
+     * @param cursor 上一页返回的游标，第一页不传
+     * @param pageSize 每页大小
+     * @param keyword 搜索关键词
+     * @param status 设备状态筛选
+     * @param model 设备型号筛选
+     * @param customerId 客户筛选
+     * @param startDate 开始日期
+     * @param endDate 结束日期
+     * @param includeTotal 是否返回总数
+     * @return 设备列表和下一页游标
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<Map<String, Object>> getDevicesByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") @Min(1) Integer pageSize,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String model,
+            @RequestParam(required = false) Long customerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        
+        try {
+            CursorPage<ManagedDeviceDTO> result = managedDeviceService.getManagedDevicesByCursor(
+                cursor, pageSize, keyword, status, model, customerId, startDate, endDate, includeTotal
+            );
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("code", 200);
+            response.put("message", "查询成功");
+            response.put("data", result);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("code", 400);
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(400).body(errorResponse);
+        } catch (Exception e) {
+            logger.error("游标查询设备列表失败", e);
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("code", 500);
+            errorResponse.put("message", "查询失败: " + e.getMessage());
+            return ResponseEntity.status(500).body(errorResponse);
+        }
+    }
+    
     /**
      * 根据ID获取设备详情
      * 支持前端详情查询，返回完整的设备详细信息
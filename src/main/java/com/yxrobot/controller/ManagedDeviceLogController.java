@@ -1,5 +1,9 @@
 package com.yxrobot.controller;
 
+import com.yxrobot.dto.CursorPage;
+import com.yxrobot.dto.ManagedDeviceLogDTO;
+import com.yxrobot.enums.ExportFormat;
+import com.yxrobot.service.ExportJobService;
 import com.yxrobot.service.ManagedDeviceLogService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -9,6 +13,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import java.time.LocalDateTime;
@@ -34,6 +39,9 @@ public class ManagedDeviceLogController {
     @Autowired
     private ManagedDeviceLogService logService;
     
+    @Autowired
+    private ExportJobService exportJobService;
+    
     /**
      * 获取设备日志
      * 支持前端日志查询功能，返回分页的设备日志数据
@@ -86,6 +94,57 @@ public class ManagedDeviceLogController {
         }
     }
     
+    /**
+     * 游标分页获取设备日志
+     * 按日志时间倒序返回，响应中的 nextCursor 作为下一次请求的 cursor 参数
+     * 
+     * @param id 设备ID
+     * @param cursor 上一页返回的游标，第一页不传
+     * @param pageSize 每页大小
+     * @param level 日志级别筛选
+     * @param category 日志分类筛选
+     * @param startDate 开始时间
+     * @param endDate 结束时间
+     * @param includeTotal 是否返回总数
+     * @return 设备日志数据
+     */
+    @GetMapping("/{id}/logs/cursor")
+    public ResponseEntity<Map<String, Object>> getDeviceLogsByCursor(
+            @PathVariable @NotNull Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(500) Integer pageSize,
+            @RequestParam(required = false) String level,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        
+        try {
+            CursorPage<ManagedDeviceLogDTO> logs = logService.getManagedDeviceLogsByCursor(
+                id, cursor, pageSize, level, category, startDate, endDate, includeTotal
+            );
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("code", 200);
+            response.put("message", "查询成功");
+            response.put("data", logs);
+            
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            logger.error("游标获取设备日志失败 - 参数错误: {}", e.getMessage());
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("code", 400);
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(400).body(errorResponse);
+        } catch (Exception e) {
+            logger.error("游标获取设备日志失败 - 设备ID: {}", id, e);
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("code", 500);
+            errorResponse.put("message", "查询失败: " + e.getMessage());
+            return ResponseEntity.status(500).body(errorResponse);
+        }
+    }
+    
     /**
      * 获取设备日志级别统计
      * 返回各种日志级别的数量分布
@@ -268,15 +327,16 @@ public class ManagedDeviceLogController {
     
     /**
      * 导出设备日志
-     * 导出指定条件的设备日志数据
+     * 提交后台导出任务后立即返回，通过 /api/admin/export-jobs/{jobId} 查询进度和下载文件；
+     * 相同条件的导出在进行中或文件未过期时返回同一个任务
      * 
      * @param id 设备ID
      * @param level 日志级别筛选
      * @param category 日志分类筛选
      * @param startDate 开始时间
      * @param endDate 结束时间
-     * @param format 导出格式（csv, json）
-     * @return 导出结果
+     * @param format 导出格式（csv, xlsx）
+     * @return 导出任务
      */
     @GetMapping("/{id}/logs/export")
     public ResponseEntity<Map<String, Object>> exportDeviceLogs(
@@ -290,24 +350,20 @@ public class ManagedDeviceLogController {
         logger.info("导出设备日志 - 设备ID: {}, 格式: {}", id, format);
         
         try {
-            // 这里简化处理，实际项目中应该生成实际的导出文件
-            String filename = String.format("device_%d_logs_%d.%s", 
-                id, System.currentTimeMillis(), format);
-            String downloadUrl = "/api/files/exports/" + filename;
+            ExportJobService.ExportJob job = exportJobService.submitDeviceLogExport(
+                id, level, category, startDate, endDate, ExportFormat.fromCode(format));
             
             Map<String, Object> response = new HashMap<>();
             response.put("code", 200);
-            response.put("message", "导出成功");
-            
-            Map<String, Object> data = new HashMap<>();
-            data.put("filename", filename);
-            data.put("downloadUrl", downloadUrl);
-            data.put("format", format);
-            data.put("exportTime", LocalDateTime.now());
-            
-            response.put("data", data);
+            response.put("message", "导出任务已提交");
+            response.put("data", job);
             
-            return ResponseEntity.ok(response);
+            return ResponseEntity.accepted().body(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("code", 400);
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(400).body(errorResponse);
         } catch (Exception e) {
             logger.error("导出设备日志失败 - 设备ID: {}", id, e);
             Map<String, Object> errorResponse = new HashMap<>();
@@ -77,6 +77,7 @@ public class NewsController {
      * @param author 作者（可选）
      * @param keyword 搜索关键词（可选）
      * @param isFeatured 是否推荐（可选）
+     * @param countMode 总数统计方式（exact、cached、estimated、hasMore），不传时使用配置
      * @return 分页结果
      */
     @GetMapping
@@ -87,13 +88,14 @@ public class NewsController {
             @RequestParam(required = false) NewsStatus status,
             @RequestParam(required = false) String author,
             @RequestParam(required = false) String keyword,
-            @RequestParam(required = false) Boolean isFeatured) {
+            @RequestParam(required = false) Boolean isFeatured,
+            @RequestParam(required = false) String countMode) {
         
         logger.info("查询新闻列表 - 页码: {}, 每页大小: {}, 分类ID: {}, 状态: {}, 作者: {}, 关键词: {}, 是否推荐: {}", 
                    page, pageSize, categoryId, status, author, keyword, isFeatured);
         
         try {
-            Map<String, Object> result = newsService.getNewsList(page, pageSize, categoryId, status, author, keyword, isFeatured);
+            Map<String, Object> result = newsService.getNewsList(page, pageSize, categoryId, status, author, keyword, isFeatured, countMode);
             
             Map<String, Object> response = new HashMap<>();
             response.put("code", 200);
@@ -2,12 +2,15 @@ package com.yxrobot.controller;
 
 import com.yxrobot.dto.*;
 import com.yxrobot.entity.OrderStatus;
+import com.yxrobot.enums.ExportFormat;
+import com.yxrobot.service.DataExportService;
 import com.yxrobot.service.OrderService;
 import com.yxrobot.service.OrderStatsService;
 import com.yxrobot.service.OrderStatusService;
 import com.yxrobot.service.OrderValidationService;
 import com.yxrobot.validator.OrderFormValidator;
 import com.yxrobot.exception.OrderException;
+import com.yxrobot.util.ExportResponseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,6 +18,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import java.util.ArrayList;
@@ -51,6 +55,9 @@ public class OrderController {
     @Autowired
     private com.yxrobot.service.OrderSearchService orderSearchService;
 
+    @Autowired
+    private DataExportService dataExportService;
+
     /**
      * 获取订单列表
      * GET /api/admin/orders
@@ -111,6 +118,47 @@ public class OrderController {
         }
     }
 
+    /**
+     * 游标分页获取订单列表
+     * GET /api/admin/orders/cursor
+     * 按创建时间倒序，响应中的 nextCursor 作为下一次请求的 cursor 参数
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<Map<String, Object>> getOrdersByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        
+        try {
+            if (size < 1 || size > 100) {
+                return ResponseEntity.badRequest().body(createErrorResponse("每页大小必须在1-100之间"));
+            }
+            
+            OrderQueryDTO queryDTO = new OrderQueryDTO();
+            queryDTO.setSize(size);
+            queryDTO.setKeyword(keyword);
+            queryDTO.setType(type);
+            queryDTO.setStatus(status);
+            if (startDate != null && !startDate.isEmpty()) {
+                queryDTO.setStartDate(java.time.LocalDate.parse(startDate));
+            }
+            if (endDate != null && !endDate.isEmpty()) {
+                queryDTO.setEndDate(java.time.LocalDate.parse(endDate));
+            }
+            
+            CursorPage<OrderDTO> result = orderService.getOrdersByCursor(queryDTO, cursor, includeTotal);
+            return ResponseEntity.ok(createSuccessResponse("查询成功", result));
+            
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(createErrorResponse("查询失败：" + e.getMessage()));
+        }
+    }
+
     /**
      * 获取订单详情
      * GET /api/admin/orders/{id}
@@ -385,7 +433,7 @@ public class OrderController {
     /**
      * 导出订单数据
      * GET /api/admin/orders/export
-     * 支持前端订单数据导出功能
+     * 按筛选条件流式导出全部订单，format 为 excel/xlsx 或 csv
      */
     @GetMapping("/export")
     public ResponseEntity<Map<String, Object>> exportOrders(
@@ -394,9 +442,13 @@ public class OrderController {
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String startDate,
             @RequestParam(required = false) String endDate,
-            @RequestParam(defaultValue = "excel") String format) {
+            @RequestParam(defaultValue = "excel") String format,
+            @RequestHeader(value = "Accept-Encoding", required = false) String acceptEncoding,
+            HttpServletResponse response) {
         
         try {
+            ExportFormat exportFormat = ExportFormat.fromCode(format);
+            
             // 构建查询条件
             OrderQueryDTO queryDTO = new OrderQueryDTO();
             queryDTO.setKeyword(keyword);
@@ -411,26 +463,18 @@ public class OrderController {
                 queryDTO.setEndDate(java.time.LocalDate.parse(endDate));
             }
             
-            // 获取要导出的订单数据
-            OrderService.OrderQueryResult result = orderService.getOrders(queryDTO);
-            
-            // 构建导出数据
-            Map<String, Object> exportData = new HashMap<>();
-            exportData.put("orders", result.getList());
-            exportData.put("total", result.getTotal());
-            exportData.put("exportTime", java.time.LocalDateTime.now().toString());
-            exportData.put("format", format);
-            exportData.put("filters", Map.of(
-                "keyword", keyword != null ? keyword : "",
-                "type", type != null ? type : "",
-                "status", status != null ? status : "",
-                "startDate", startDate != null ? startDate : "",
-                "endDate", endDate != null ? endDate : ""
-            ));
-            
-            return ResponseEntity.ok(createSuccessResponse("导出数据准备完成", exportData));
+            // 边查询边写出，响应体由导出服务直接写入
+            ExportResponseUtil.write(response, "订单", exportFormat, acceptEncoding,
+                out -> dataExportService.exportOrders(queryDTO, exportFormat, out));
+            return null;
             
         } catch (Exception e) {
+            logger.error("导出订单失败", e);
+            if (response.isCommitted()) {
+                // 已开始发送文件，无法再返回错误信息
+                return null;
+            }
+            response.reset();
             return ResponseEntity.badRequest().body(createErrorResponse("导出失败：" + e.getMessage()));
         }
     }
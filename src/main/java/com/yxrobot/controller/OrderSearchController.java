@@ -52,7 +52,11 @@ public class OrderSearchController {
             Map<String, Object> responseData = new HashMap<>();
             responseData.put("orders", result.getOrders());
             responseData.put("total", result.getTotal());
+            responseData.put("totalExact", result.isTotalExact());
+            responseData.put("countMode", result.getCountMode());
+            responseData.put("hasMore", result.isHasMore());
             responseData.put("statistics", result.getStatistics());
+            responseData.put("facets", result.getFacets());
             responseData.put("suggestions", result.getSuggestions());
             responseData.put("queryTime", result.getQueryTime());
             responseData.put("queryComplexity", SearchOptimizationUtil.calculateQueryComplexity(optimizedQuery));
@@ -267,25 +271,11 @@ public class OrderSearchController {
             @RequestParam String input,
             @RequestParam(defaultValue = "5") @Positive Integer limit) {
         try {
-            // TODO: 实现关键词建议功能
-            // 这里可以基于历史搜索、订单数据等提供智能建议
-            
-            List<String> suggestions = List.of();
-            
-            // 简单的建议逻辑
-            if (input != null && !input.trim().isEmpty()) {
-                String trimmed = input.trim().toLowerCase();
-                suggestions = List.of(
-                    trimmed + " 销售订单",
-                    trimmed + " 租赁订单",
-                    trimmed + " 已完成",
-                    trimmed + " 处理中"
-                );
-            }
+            List<String> suggestions = orderSearchService.getKeywordSuggestions(input, limit);
             
             Map<String, Object> responseData = new HashMap<>();
             responseData.put("input", input);
-            responseData.put("suggestions", suggestions.subList(0, Math.min(suggestions.size(), limit)));
+            responseData.put("suggestions", suggestions);
             
             return ResponseEntity.ok(createSuccessResponse("获取关键词建议成功", responseData));
             
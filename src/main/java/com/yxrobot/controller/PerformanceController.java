@@ -1,5 +1,6 @@
 package com.yxrobot.controller;
 
+import com.yxrobot.util.LatencyRecorder;
 import com.yxrobot.util.PerformanceMonitor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -7,9 +8,12 @@ import org.springframework.web.bind.annotation.*;
 
 import javax.servlet.http.HttpServletRequest;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 性能监控控制器
@@ -22,6 +26,15 @@ public class PerformanceController {
     @Autowired
     private PerformanceMonitor performanceMonitor;
     
+    // 支持的耗时分布统计窗口
+    private static final Map<String, Long> LATENCY_WINDOWS = new LinkedHashMap<>();
+    
+    static {
+        LATENCY_WINDOWS.put("1m", TimeUnit.MINUTES.toMillis(1));
+        LATENCY_WINDOWS.put("5m", TimeUnit.MINUTES.toMillis(5));
+        LATENCY_WINDOWS.put("1h", TimeUnit.HOURS.toMillis(1));
+    }
+    
     /**
      * 获取系统整体性能指标
      * GET /api/performance/system
@@ -66,6 +79,10 @@ public class PerformanceController {
                 statData.put("errorCalls", stats.getErrorCalls());
                 statData.put("lastCallTime", stats.getLastCallTime());
                 
+                LatencyRecorder.Snapshot recent = stats.getLatency(LATENCY_WINDOWS.get("5m"));
+                statData.put("p95ResponseTime5m", recent.getPercentile(95));
+                statData.put("p99ResponseTime5m", recent.getPercentile(99));
+                
                 formattedStats.put(entry.getKey(), statData);
             }
             
@@ -90,7 +107,7 @@ public class PerformanceController {
     public ResponseEntity<Map<String, Object>> getApiStats(HttpServletRequest request) {
         try {
             String apiPath = request.getRequestURI().substring("/api/performance/apis".length());
-            PerformanceMonitor.ApiPerformanceStats stats = performanceMonitor.getApiStats(apiPath);
+            PerformanceMonitor.ApiPerformanceStats stats = findApiStats(apiPath);
             
             if (stats == null) {
                 return ResponseEntity.badRequest().body(createErrorResponse("未找到API性能数据：" + apiPath));
@@ -107,6 +124,12 @@ public class PerformanceController {
             statData.put("errorCalls", stats.getErrorCalls());
             statData.put("lastCallTime", stats.getLastCallTime());
             
+            Map<String, Object> latency = new LinkedHashMap<>();
+            for (Map.Entry<String, Long> window : LATENCY_WINDOWS.entrySet()) {
+                latency.put(window.getKey(), formatLatency(stats.getLatency(window.getValue())));
+            }
+            statData.put("latency", latency);
+            
             Map<String, Object> response = new HashMap<>();
             response.put("code", 200);
             response.put("message", "获取API性能统计成功");
@@ -120,6 +143,55 @@ public class PerformanceController {
         }
     }
     
+    /**
+     * 获取各API耗时百分位排行
+     * GET /api/performance/latency?window=5m&limit=20
+     * 
+     * 统计键为“HTTP方法 + 路由模板”，按p99从高到低排序
+     */
+    @GetMapping("/latency")
+    public ResponseEntity<Map<String, Object>> getLatencyRanking(
+            @RequestParam(defaultValue = "5m") String window,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            Long windowMillis = LATENCY_WINDOWS.get(window);
+            if (windowMillis == null) {
+                return ResponseEntity.badRequest().body(createErrorResponse("不支持的统计窗口：" + window + "，可选值：" + LATENCY_WINDOWS.keySet()));
+            }
+            
+            List<Map<String, Object>> ranking = new ArrayList<>();
+            for (Map.Entry<String, PerformanceMonitor.ApiPerformanceStats> entry : performanceMonitor.getAllApiStats().entrySet()) {
+                LatencyRecorder.Snapshot snapshot = entry.getValue().getLatency(windowMillis);
+                if (snapshot.getCount() == 0) {
+                    continue;
+                }
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("api", entry.getKey());
+                item.putAll(formatLatency(snapshot));
+                ranking.add(item);
+            }
+            ranking.sort(Comparator.comparingDouble((Map<String, Object> item) -> (Double) item.get("p99")).reversed());
+            if (limit > 0 && ranking.size() > limit) {
+                ranking = new ArrayList<>(ranking.subList(0, limit));
+            }
+            
+            Map<String, Object> data = new HashMap<>();
+            data.put("window", window);
+            data.put("apis", ranking);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("code", 200);
+            response.put("message", "获取API耗时分布成功");
+            response.put("data", data);
+            response.put("success", true);
+            response.put("timestamp", System.currentTimeMillis());
+            
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(createErrorResponse("获取API耗时分布失败：" + e.getMessage()));
+        }
+    }
+    
     /**
      * 获取性能报告
      * GET /api/performance/report
@@ -237,6 +309,38 @@ public class PerformanceController {
         }
     }
     
+    /**
+     * 按统计键查找API统计，兼容只传路径（不带HTTP方法）的查询
+     */
+    private PerformanceMonitor.ApiPerformanceStats findApiStats(String apiPath) {
+        PerformanceMonitor.ApiPerformanceStats stats = performanceMonitor.getApiStats(apiPath);
+        if (stats != null) {
+            return stats;
+        }
+        for (Map.Entry<String, PerformanceMonitor.ApiPerformanceStats> entry : performanceMonitor.getAllApiStats().entrySet()) {
+            if (entry.getKey().endsWith(" " + apiPath)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * 格式化耗时分布（毫秒）
+     */
+    private Map<String, Object> formatLatency(LatencyRecorder.Snapshot snapshot) {
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("count", snapshot.getCount());
+        latency.put("mean", snapshot.getMean());
+        latency.put("p50", snapshot.getPercentile(50));
+        latency.put("p90", snapshot.getPercentile(90));
+        latency.put("p95", snapshot.getPercentile(95));
+        latency.put("p99", snapshot.getPercentile(99));
+        latency.put("p999", snapshot.getPercentile(99.9));
+        latency.put("max", snapshot.getMax());
+        return latency;
+    }
+    
     /**
      * 创建错误响应
      */
@@ -3,10 +3,14 @@ package com.yxrobot.controller;
 import com.yxrobot.dto.DeviceUtilizationDTO;
 import com.yxrobot.dto.RentalStatsDTO;
 import com.yxrobot.entity.RentalCustomer;
+import com.yxrobot.entity.RentalRecord;
+import com.yxrobot.exception.RentalException;
 import com.yxrobot.service.RentalStatsService;
 import com.yxrobot.service.DeviceUtilizationService;
 import com.yxrobot.service.RentalAnalysisService;
 import com.yxrobot.service.RentalCustomerService;
+import com.yxrobot.service.RentalFactService;
+import com.yxrobot.service.RentalRecordService;
 import com.yxrobot.validation.RentalValidator;
 import com.yxrobot.validation.RentalFormValidator;
 import com.yxrobot.cache.RentalCacheService;
@@ -50,6 +54,12 @@ public class RentalController {
     @Autowired
     private RentalCustomerService rentalCustomerService;
     
+    @Autowired
+    private RentalRecordService rentalRecordService;
+    
+    @Autowired
+    private RentalFactService rentalFactService;
+    
     @Autowired
     private RentalValidator rentalValidator;
     
@@ -422,7 +432,7 @@ public class RentalController {
      * 获取分布图表数据 - 适配前端分布图表
      * 对应前端API: mockRentalAPI.getDistributionData()
      * 
-     * @param type 分布类型（region、device-model、utilization-ranking）
+     * @param type 分布类型（region、channel、device-model、utilization-ranking）
      * @param startDate 开始日期（可选）
      * @param endDate 结束日期（可选）
      * @return 分布图表数据
@@ -1268,4 +1278,200 @@ public class RentalController {
             return ResponseEntity.status(500).body(response);
         }
     }
+    
+    /**
+     * 新增租赁记录
+     * 
+     * @param record 租赁记录
+     * @return 新增后的租赁记录
+     */
+    @PostMapping("/records")
+    public ResponseEntity<Map<String, Object>> createRentalRecord(@RequestBody RentalRecord record) {
+        
+        logger.info("新增租赁记录，订单号：{}", record.getRentalOrderNumber());
+        
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            RentalRecord created = rentalRecordService.createRentalRecord(record);
+            
+            response.put("code", 200);
+            response.put("message", "新增成功");
+            response.put("data", created);
+            return ResponseEntity.ok(response);
+            
+        } catch (RentalException e) {
+            return rentalBadRequest(response, e);
+        } catch (Exception e) {
+            logger.error("新增租赁记录失败", e);
+            response.put("code", 500);
+            response.put("message", "新增失败: " + e.getMessage());
+            response.put("data", null);
+            return ResponseEntity.status(500).body(response);
+        }
+    }
+    
+    /**
+     * 修改租赁记录
+     * 
+     * @param id 租赁记录ID
+     * @param record 修改后的租赁记录
+     * @return 修改后的租赁记录
+     */
+    @PutMapping("/records/{id}")
+    public ResponseEntity<Map<String, Object>> updateRentalRecord(@PathVariable Long id,
+                                                                  @RequestBody RentalRecord record) {
+        
+        logger.info("修改租赁记录，ID：{}", id);
+        
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            RentalRecord updated = rentalRecordService.updateRentalRecord(id, record);
+            
+            response.put("code", 200);
+            response.put("message", "修改成功");
+            response.put("data", updated);
+            return ResponseEntity.ok(response);
+            
+        } catch (RentalException e) {
+            return rentalBadRequest(response, e);
+        } catch (Exception e) {
+            logger.error("修改租赁记录失败，ID：{}", id, e);
+            response.put("code", 500);
+            response.put("message", "修改失败: " + e.getMessage());
+            response.put("data", null);
+            return ResponseEntity.status(500).body(response);
+        }
+    }
+    
+    /**
+     * 归还租赁设备
+     * 
+     * @param id 租赁记录ID
+     * @param returnDate 归还日期（可选，默认当天）
+     * @param returnCondition 归还状况（可选）
+     * @return 归还后的租赁记录
+     */
+    @PostMapping("/records/{id}/return")
+    public ResponseEntity<Map<String, Object>> returnRental(
+            @PathVariable Long id,
+            @RequestParam(required = false) String returnDate,
+            @RequestParam(required = false) String returnCondition) {
+        
+        logger.info("归还租赁设备，ID：{}，归还日期：{}", id, returnDate);
+        
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            LocalDate date = rentalValidator.validateDateParam(returnDate, "returnDate");
+            RentalRecord returned = rentalRecordService.returnRental(id, date, returnCondition);
+            
+            response.put("code", 200);
+            response.put("message", "归还成功");
+            response.put("data", returned);
+            return ResponseEntity.ok(response);
+            
+        } catch (RentalException e) {
+            return rentalBadRequest(response, e);
+        } catch (Exception e) {
+            logger.error("归还租赁设备失败，ID：{}", id, e);
+            response.put("code", 500);
+            response.put("message", "归还失败: " + e.getMessage());
+            response.put("data", null);
+            return ResponseEntity.status(500).body(response);
+        }
+    }
+    
+    /**
+     * 删除租赁记录
+     * 
+     * @param id 租赁记录ID
+     * @return 操作结果
+     */
+    @DeleteMapping("/records/{id}")
+    public ResponseEntity<Map<String, Object>> deleteRentalRecord(@PathVariable Long id) {
+        
+        logger.info("删除租赁记录，ID：{}", id);
+        
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            rentalRecordService.deleteRentalRecord(id);
+            
+            response.put("code", 200);
+            response.put("message", "删除成功");
+            response.put("data", null);
+            return ResponseEntity.ok(response);
+            
+        } catch (RentalException e) {
+            return rentalBadRequest(response, e);
+        } catch (Exception e) {
+            logger.error("删除租赁记录失败，ID：{}", id, e);
+            response.put("code", 500);
+            response.put("message", "删除失败: " + e.getMessage());
+            response.put("data", null);
+            return ResponseEntity.status(500).body(response);
+        }
+    }
+    
+    /**
+     * 按租赁记录重建租赁日事实，用于回填或修正统计数据
+     * 
+     * @param startDate 开始日期（可选，不传时不限）
+     * @param endDate 结束日期（可选，不传时不限）
+     * @return 重建的日事实行数
+     */
+    @PostMapping("/facts/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildRentalFacts(
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate) {
+        
+        logger.info("重建租赁日事实，时间范围：{} 到 {}", startDate, endDate);
+        
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            LocalDate start = rentalValidator.validateDateParam(startDate, "startDate");
+            LocalDate end = rentalValidator.validateDateParam(endDate, "endDate");
+            if (start != null && end != null && start.isAfter(end)) {
+                response.put("code", 400);
+                response.put("message", "开始日期不能晚于结束日期");
+                response.put("data", null);
+                return ResponseEntity.badRequest().body(response);
+            }
+            
+            int rows = rentalFactService.rebuildFacts(start, end);
+            
+            Map<String, Object> data = new HashMap<>();
+            data.put("rows", rows);
+            
+            response.put("code", 200);
+            response.put("message", "重建成功");
+            response.put("data", data);
+            return ResponseEntity.ok(response);
+            
+        } catch (RentalException e) {
+            return rentalBadRequest(response, e);
+        } catch (Exception e) {
+            logger.error("重建租赁日事实失败", e);
+            response.put("code", 500);
+            response.put("message", "重建失败: " + e.getMessage());
+            response.put("data", null);
+            return ResponseEntity.status(500).body(response);
+        }
+    }
+    
+    /**
+     * 租赁业务异常转换为400响应
+     */
+    private ResponseEntity<Map<String, Object>> rentalBadRequest(Map<String, Object> response, RentalException e) {
+        logger.warn("租赁业务异常: {} - {}", e.getErrorCode(), e.getMessage());
+        response.put("code", 400);
+        response.put("message", e.getMessage());
+        response.put("data", null);
+        response.put("errorCode", e.getErrorCode());
+        response.put("errorDetail", e.getErrorDetail());
+        return ResponseEntity.badRequest().body(response);
+    }
 }
\ No newline at end of file
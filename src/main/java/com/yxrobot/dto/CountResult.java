@@ -0,0 +1,69 @@
+package com.yxrobot.dto;
+
+import com.yxrobot.enums.CountMode;
+
+/**
+ * 分页总数统计结果
+ * 除总数外说明总数的来源，total 为 null 表示未统计总数（只判断是否有下一页）
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-24
+ */
+public class CountResult {
+
+    /**
+     * 总记录数，未统计时为null
+     */
+    private final Long total;
+
+    /**
+     * 总数是否为当前数据的精确值
+     */
+    private final boolean exact;
+
+    /**
+     * 实际使用的统计方式
+     */
+    private final CountMode mode;
+
+    public CountResult(Long total, boolean exact, CountMode mode) {
+        this.total = total;
+        this.exact = exact;
+        this.mode = mode;
+    }
+
+    /**
+     * 精确统计结果
+     */
+    public static CountResult exact(long total) {
+        return new CountResult(total, true, CountMode.EXACT);
+    }
+
+    /**
+     * 未统计总数的结果
+     */
+    public static CountResult unknown() {
+        return new CountResult(null, false, CountMode.HAS_MORE);
+    }
+
+    public Long getTotal() {
+        return total;
+    }
+
+    public boolean isExact() {
+        return exact;
+    }
+
+    public CountMode getMode() {
+        return mode;
+    }
+
+    @Override
+    public String toString() {
+        return "CountResult{" +
+                "total=" + total +
+                ", exact=" + exact +
+                ", mode=" + mode +
+                '}';
+    }
+}
@@ -0,0 +1,128 @@
+package com.yxrobot.dto;
+
+import com.yxrobot.util.PageCursor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 游标分页结果封装类
+ * 与 {@link PageResult} 不同，不返回页码，客户端用 nextCursor 请求下一页；
+ * 总记录数需要额外执行一次COUNT，只有请求时才会计算，否则为null
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-22
+ * @param <T> 数据类型
+ */
+public class CursorPage<T> {
+
+    /**
+     * 数据列表
+     */
+    private List<T> list;
+
+    /**
+     * 下一页游标，没有更多数据时为null
+     */
+    private String nextCursor;
+
+    /**
+     * 是否还有下一页
+     */
+    private boolean hasMore;
+
+    /**
+     * 每页数量
+     */
+    private Integer size;
+
+    /**
+     * 总记录数（可选）
+     */
+    private Long total;
+
+    public CursorPage() {}
+
+    public CursorPage(List<T> list, String nextCursor, boolean hasMore, Integer size) {
+        this.list = list;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+        this.size = size;
+    }
+
+    /**
+     * 由查询结果构建一页数据
+     * 查询时应多取一行（LIMIT size + 1），多出的一行只用于判断是否还有下一页
+     *
+     * @param rows 按 (排序时间 DESC, id DESC) 排列的查询结果
+     * @param size 每页数量
+     * @param sortKey 排序时间
+     * @param idKey 行ID
+     * @param <E> 行类型
+     * @return 分页结果
+     */
+    public static <E> CursorPage<E> fromRows(List<E> rows, int size,
+                                             Function<E, LocalDateTime> sortKey, Function<E, Long> idKey) {
+        boolean hasMore = rows.size() > size;
+        List<E> list = hasMore ? new ArrayList<>(rows.subList(0, size)) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            E last = list.get(list.size() - 1);
+            nextCursor = new PageCursor(sortKey.apply(last), idKey.apply(last)).encode();
+        }
+        return new CursorPage<>(list, nextCursor, hasMore, size);
+    }
+
+    /**
+     * 转换数据类型，保留游标信息
+     */
+    public <R> CursorPage<R> map(Function<T, R> mapper) {
+        CursorPage<R> page = new CursorPage<>(list.stream().map(mapper).collect(Collectors.toList()),
+                                              nextCursor, hasMore, size);
+        page.setTotal(total);
+        return page;
+    }
+
+    public List<T> getList() {
+        return list;
+    }
+
+    public void setList(List<T> list) {
+        this.list = list;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    public Integer getSize() {
+        return size;
+    }
+
+    public void setSize(Integer size) {
+        this.size = size;
+    }
+
+    public Long getTotal() {
+        return total;
+    }
+
+    public void setTotal(Long total) {
+        this.total = total;
+    }
+}
@@ -366,6 +366,8 @@ public class DeviceControlDTO {
         private Map<Long, String> failureDetails;
         private LocalDateTime timestamp;
         private String batchId;
+        private int retryCount;             // 重试次数合计
+        private long durationMs;            // 批次耗时（毫秒）
         
         public BatchControlResult() {
             this.failureDetails = new HashMap<>();
@@ -438,6 +440,22 @@ public class DeviceControlDTO {
         public void setBatchId(String batchId) {
             this.batchId = batchId;
         }
+        
+        public int getRetryCount() {
+            return retryCount;
+        }
+        
+        public void setRetryCount(int retryCount) {
+            this.retryCount = retryCount;
+        }
+        
+        public long getDurationMs() {
+            return durationMs;
+        }
+        
+        public void setDurationMs(long durationMs) {
+            this.durationMs = durationMs;
+        }
     }
     
     /**
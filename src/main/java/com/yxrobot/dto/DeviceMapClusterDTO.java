@@ -0,0 +1,132 @@
+package com.yxrobot.dto;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * 设备地图聚合点DTO
+ * 地图缩放级别较小时，同一网格内的多台设备合并为一个聚合点返回
+ *
+ * @author YXRobot开发团队
+ * @since 2025-03-06
+ */
+public class DeviceMapClusterDTO {
+
+    /**
+     * 聚合点标识，格式为 网格层级/x/y
+     */
+    private String id;
+
+    /**
+     * 网格内设备位置的平均纬度
+     */
+    private BigDecimal latitude;
+
+    /**
+     * 网格内设备位置的平均经度
+     */
+    private BigDecimal longitude;
+
+    /**
+     * 设备数量
+     */
+    private int count;
+
+    /**
+     * 各状态设备数量，键为状态代码
+     */
+    private Map<String, Integer> statusCounts;
+
+    /**
+     * 网格范围，点击聚合点时前端可缩放到该范围
+     */
+    private BigDecimal minLatitude;
+    private BigDecimal minLongitude;
+    private BigDecimal maxLatitude;
+    private BigDecimal maxLongitude;
+
+    public DeviceMapClusterDTO() {}
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public BigDecimal getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(BigDecimal latitude) {
+        this.latitude = latitude;
+    }
+
+    public BigDecimal getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(BigDecimal longitude) {
+        this.longitude = longitude;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    public Map<String, Integer> getStatusCounts() {
+        return statusCounts;
+    }
+
+    public void setStatusCounts(Map<String, Integer> statusCounts) {
+        this.statusCounts = statusCounts;
+    }
+
+    public BigDecimal getMinLatitude() {
+        return minLatitude;
+    }
+
+    public void setMinLatitude(BigDecimal minLatitude) {
+        this.minLatitude = minLatitude;
+    }
+
+    public BigDecimal getMinLongitude() {
+        return minLongitude;
+    }
+
+    public void setMinLongitude(BigDecimal minLongitude) {
+        this.minLongitude = minLongitude;
+    }
+
+    public BigDecimal getMaxLatitude() {
+        return maxLatitude;
+    }
+
+    public void setMaxLatitude(BigDecimal maxLatitude) {
+        this.maxLatitude = maxLatitude;
+    }
+
+    public BigDecimal getMaxLongitude() {
+        return maxLongitude;
+    }
+
+    public void setMaxLongitude(BigDecimal maxLongitude) {
+        this.maxLongitude = maxLongitude;
+    }
+
+    @Override
+    public String toString() {
+        return "DeviceMapClusterDTO{" +
+                "id='" + id + '\'' +
+                ", latitude=" + latitude +
+                ", longitude=" + longitude +
+                ", count=" + count +
+                ", statusCounts=" + statusCounts +
+                '}';
+    }
+}
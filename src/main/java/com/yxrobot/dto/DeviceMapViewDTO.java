@@ -0,0 +1,80 @@
+package com.yxrobot.dto;
+
+import java.util.List;
+
+/**
+ * 设备地图视口数据DTO
+ * 只包含视口范围内的设备：缩放级别较小时按网格聚合为聚合点，网格内只有一台设备时直接返回设备
+ *
+ * @author YXRobot开发团队
+ * @since 2025-03-06
+ */
+public class DeviceMapViewDTO {
+
+    /**
+     * 单独显示的设备
+     */
+    private List<DeviceMapDataDTO> devices;
+
+    /**
+     * 聚合点
+     */
+    private List<DeviceMapClusterDTO> clusters;
+
+    /**
+     * 视口内设备总数（含聚合点内的设备）
+     */
+    private int total;
+
+    /**
+     * 请求的缩放级别
+     */
+    private int zoom;
+
+    /**
+     * 是否按网格聚合，超过最大聚合级别时为false，只返回设备
+     */
+    private boolean clustered;
+
+    public DeviceMapViewDTO() {}
+
+    public List<DeviceMapDataDTO> getDevices() {
+        return devices;
+    }
+
+    public void setDevices(List<DeviceMapDataDTO> devices) {
+        this.devices = devices;
+    }
+
+    public List<DeviceMapClusterDTO> getClusters() {
+        return clusters;
+    }
+
+    public void setClusters(List<DeviceMapClusterDTO> clusters) {
+        this.clusters = clusters;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getZoom() {
+        return zoom;
+    }
+
+    public void setZoom(int zoom) {
+        this.zoom = zoom;
+    }
+
+    public boolean isClustered() {
+        return clustered;
+    }
+
+    public void setClustered(boolean clustered) {
+        this.clustered = clustered;
+    }
+}
@@ -0,0 +1,105 @@
+package com.yxrobot.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * 订单分面统计的分组行
+ * 按类型、状态、支付状态、销售人员和金额区间分组后的一行，
+ * 各分面的计数由这些分组行在内存中汇总得到
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-26
+ */
+public class OrderFacetRow {
+
+    /**
+     * 订单类型
+     */
+    private String type;
+
+    /**
+     * 订单状态
+     */
+    private String status;
+
+    /**
+     * 支付状态
+     */
+    private String paymentStatus;
+
+    /**
+     * 销售人员
+     */
+    private String salesPerson;
+
+    /**
+     * 金额区间序号，对应 OrderFacetService 的金额区间，金额为空时为-1
+     */
+    private Integer amountBucket;
+
+    /**
+     * 订单数量
+     */
+    private Long orderCount;
+
+    /**
+     * 订单总金额
+     */
+    private BigDecimal totalAmount;
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getPaymentStatus() {
+        return paymentStatus;
+    }
+
+    public void setPaymentStatus(String paymentStatus) {
+        this.paymentStatus = paymentStatus;
+    }
+
+    public String getSalesPerson() {
+        return salesPerson;
+    }
+
+    public void setSalesPerson(String salesPerson) {
+        this.salesPerson = salesPerson;
+    }
+
+    public Integer getAmountBucket() {
+        return amountBucket;
+    }
+
+    public void setAmountBucket(Integer amountBucket) {
+        this.amountBucket = amountBucket;
+    }
+
+    public Long getOrderCount() {
+        return orderCount;
+    }
+
+    public void setOrderCount(Long orderCount) {
+        this.orderCount = orderCount;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+}
@@ -0,0 +1,116 @@
+package com.yxrobot.dto;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 订单搜索分面统计
+ * 各分面的值 -> 订单数量按数量降序排列。类型和状态分面不应用自身的筛选条件，
+ * 选中某个状态后仍能看到其他状态各有多少订单；其余统计应用全部筛选条件。
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-26
+ */
+public class OrderFacets {
+
+    /**
+     * 符合全部筛选条件的订单数量
+     */
+    private long matchedCount;
+
+    /**
+     * 符合全部筛选条件的订单总金额
+     */
+    private BigDecimal matchedAmount = BigDecimal.ZERO;
+
+    private Map<String, Long> types = new LinkedHashMap<>();
+
+    private Map<String, Long> statuses = new LinkedHashMap<>();
+
+    private Map<String, Long> paymentStatuses = new LinkedHashMap<>();
+
+    private Map<String, Long> salesPersons = new LinkedHashMap<>();
+
+    private List<AmountBucket> amountRanges = new ArrayList<>();
+
+    public long getMatchedCount() {
+        return matchedCount;
+    }
+
+    public void setMatchedCount(long matchedCount) {
+        this.matchedCount = matchedCount;
+    }
+
+    public BigDecimal getMatchedAmount() {
+        return matchedAmount;
+    }
+
+    public void setMatchedAmount(BigDecimal matchedAmount) {
+        this.matchedAmount = matchedAmount;
+    }
+
+    public Map<String, Long> getTypes() {
+        return types;
+    }
+
+    public void setTypes(Map<String, Long> types) {
+        this.types = types;
+    }
+
+    public Map<String, Long> getStatuses() {
+        return statuses;
+    }
+
+    public void setStatuses(Map<String, Long> statuses) {
+        this.statuses = statuses;
+    }
+
+    public Map<String, Long> getPaymentStatuses() {
+        return paymentStatuses;
+    }
+
+    public void setPaymentStatuses(Map<String, Long> paymentStatuses) {
+        this.paymentStatuses = paymentStatuses;
+    }
+
+    public Map<String, Long> getSalesPersons() {
+        return salesPersons;
+    }
+
+    public void setSalesPersons(Map<String, Long> salesPersons) {
+        this.salesPersons = salesPersons;
+    }
+
+    public List<AmountBucket> getAmountRanges() {
+        return amountRanges;
+    }
+
+    public void setAmountRanges(List<AmountBucket> amountRanges) {
+        this.amountRanges = amountRanges;
+    }
+
+    /**
+     * 金额区间分面，max 为空表示不设上限
+     */
+    public static class AmountBucket {
+        private String label;
+        private BigDecimal min;
+        private BigDecimal max;
+        private long count;
+
+        public AmountBucket(String label, BigDecimal min, BigDecimal max, long count) {
+            this.label = label;
+            this.min = min;
+            this.max = max;
+            this.count = count;
+        }
+
+        public String getLabel() { return label; }
+        public BigDecimal getMin() { return min; }
+        public BigDecimal getMax() { return max; }
+        public long getCount() { return count; }
+    }
+}
@@ -65,6 +65,9 @@ public class OrderQueryDTO {
     @JsonProperty("sortOrder")
     private String sortOrder = "desc";   // 排序方向：asc, desc，默认降序
     
+    @JsonProperty("countMode")
+    private String countMode;           // 总数统计方式：exact, cached, estimated, hasMore，为空时使用配置
+    
     // 构造函数
     public OrderQueryDTO() {}
     
@@ -196,4 +199,12 @@ public class OrderQueryDTO {
     public void setSortOrder(String sortOrder) {
         this.sortOrder = sortOrder;
     }
+    
+    public String getCountMode() {
+        return countMode;
+    }
+    
+    public void setCountMode(String countMode) {
+        this.countMode = countMode;
+    }
 }
\ No newline at end of file
@@ -38,6 +38,21 @@ public class PageResult<T> {
      */
     private Integer totalPages;
     
+    /**
+     * 总记录数是否为精确值，为null时表示精确统计
+     */
+    private Boolean totalExact;
+    
+    /**
+     * 总数统计方式，见 {@link com.yxrobot.enums.CountMode}
+     */
+    private String countMode;
+    
+    /**
+     * 是否还有下一页
+     */
+    private Boolean hasMore;
+    
     // 默认构造函数
     public PageResult() {}
     
@@ -63,6 +78,34 @@ public class PageResult<T> {
         return new PageResult<>(list, total, page, size);
     }
     
+    /**
+     * 静态工厂方法，按总数统计结果创建分页结果
+     * 未统计总数时 total 和 totalPages 为null，由 hasMore 说明是否还有下一页
+     * @param list 数据列表
+     * @param count 总数统计结果
+     * @param page 当前页码
+     * @param size 每页数量
+     * @param hasMore 是否还有下一页（仅在未统计总数时使用）
+     * @param <T> 数据类型
+     * @return 分页结果对象
+     */
+    public static <T> PageResult<T> of(List<T> list, CountResult count, Integer page, Integer size, boolean hasMore) {
+        PageResult<T> result = new PageResult<>();
+        result.list = list;
+        result.page = page;
+        result.size = size;
+        result.total = count.getTotal();
+        result.totalExact = count.isExact();
+        result.countMode = count.getMode().getCode();
+        if (count.getTotal() != null) {
+            result.totalPages = (int) Math.ceil((double) count.getTotal() / size);
+            result.hasMore = (long) page * size < count.getTotal();
+        } else {
+            result.hasMore = hasMore;
+        }
+        return result;
+    }
+    
     /**
      * 静态工厂方法，创建空的分页结果
      * @param page 当前页码
@@ -95,6 +138,9 @@ public class PageResult<T> {
      * @return true-是最后一页，false-不是最后一页
      */
     public boolean isLastPage() {
+        if (totalPages == null) {
+            return !Boolean.TRUE.equals(hasMore);
+        }
         return page.equals(totalPages);
     }
     
@@ -139,6 +185,30 @@ public class PageResult<T> {
         this.totalPages = totalPages;
     }
     
+    public Boolean getTotalExact() {
+        return totalExact;
+    }
+    
+    public void setTotalExact(Boolean totalExact) {
+        this.totalExact = totalExact;
+    }
+    
+    public String getCountMode() {
+        return countMode;
+    }
+    
+    public void setCountMode(String countMode) {
+        this.countMode = countMode;
+    }
+    
+    public Boolean getHasMore() {
+        return hasMore;
+    }
+    
+    public void setHasMore(Boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+    
     @Override
     public String toString() {
         return "PageResult{" +
@@ -147,6 +217,9 @@ public class PageResult<T> {
                 ", page=" + page +
                 ", size=" + size +
                 ", totalPages=" + totalPages +
+                ", totalExact=" + totalExact +
+                ", countMode='" + countMode + '\'' +
+                ", hasMore=" + hasMore +
                 '}';
     }
 }
\ No newline at end of file
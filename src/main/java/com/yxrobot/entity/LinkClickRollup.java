@@ -0,0 +1,155 @@
+package com.yxrobot.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 链接点击汇总实体类
+ * 对应 link_click_hourly_stats（按小时）、link_click_daily_stats（按天）和
+ * link_click_dimension_stats（按小时、设备类型/来源维度）三张汇总表的一行
+ *
+ * @author YXRobot开发团队
+ * @version 1.0
+ * @since 2025-02-17
+ */
+public class LinkClickRollup {
+
+    /**
+     * 链接ID，日汇总表中 0 表示全部链接
+     */
+    private Long linkId;
+
+    /**
+     * 统计时间：小时汇总为整点，日汇总为当天零点
+     */
+    private LocalDateTime statTime;
+
+    /**
+     * 维度类型（device/referer），仅维度汇总表使用
+     */
+    private String dimension;
+
+    /**
+     * 维度取值，如“移动设备”“Google”，仅维度汇总表使用
+     */
+    private String dimensionValue;
+
+    /**
+     * 点击量
+     */
+    private Long clickCount;
+
+    /**
+     * 转化量
+     */
+    private Long conversionCount;
+
+    /**
+     * 转化价值
+     */
+    private BigDecimal conversionValue;
+
+    /**
+     * 独立访客数（HyperLogLog 估计值），仅日汇总表使用
+     */
+    private Long uniqueVisitors;
+
+    /**
+     * 独立访客 HyperLogLog 草图，仅日汇总表使用
+     */
+    private byte[] visitorSketch;
+
+    public LinkClickRollup() {
+    }
+
+    public LinkClickRollup(Long linkId, LocalDateTime statTime) {
+        this.linkId = linkId;
+        this.statTime = statTime;
+    }
+
+    public Long getLinkId() {
+        return linkId;
+    }
+
+    public void setLinkId(Long linkId) {
+        this.linkId = linkId;
+    }
+
+    public LocalDateTime getStatTime() {
+        return statTime;
+    }
+
+    public void setStatTime(LocalDateTime statTime) {
+        this.statTime = statTime;
+    }
+
+    public String getDimension() {
+        return dimension;
+    }
+
+    public void setDimension(String dimension) {
+        this.dimension = dimension;
+    }
+
+    public String getDimensionValue() {
+        return dimensionValue;
+    }
+
+    public void setDimensionValue(String dimensionValue) {
+        this.dimensionValue = dimensionValue;
+    }
+
+    public Long getClickCount() {
+        return clickCount;
+    }
+
+    public void setClickCount(Long clickCount) {
+        this.clickCount = clickCount;
+    }
+
+    public Long getConversionCount() {
+        return conversionCount;
+    }
+
+    public void setConversionCount(Long conversionCount) {
+        this.conversionCount = conversionCount;
+    }
+
+    public BigDecimal getConversionValue() {
+        return conversionValue;
+    }
+
+    public void setConversionValue(BigDecimal conversionValue) {
+        this.conversionValue = conversionValue;
+    }
+
+    public Long getUniqueVisitors() {
+        return uniqueVisitors;
+    }
+
+    public void setUniqueVisitors(Long uniqueVisitors) {
+        this.uniqueVisitors = uniqueVisitors;
+    }
+
+    public byte[] getVisitorSketch() {
+        return visitorSketch;
+    }
+
+    public void setVisitorSketch(byte[] visitorSketch) {
+        this.visitorSketch = visitorSketch;
+    }
+
+    @Override
+    public String toString() {
+        return "LinkClickRollup{" +
+                "linkId=" + linkId +
+                ", statTime=" + statTime +
+                ", dimension='" + dimension + '\'' +
+                ", dimensionValue='" + dimensionValue + '\'' +
+                ", clickCount=" + clickCount +
+                ", conversionCount=" + conversionCount +
+                ", conversionValue=" + conversionValue +
+                ", uniqueVisitors=" + uniqueVisitors +
+                '}';
+    }
+}
@@ -0,0 +1,118 @@
+package com.yxrobot.entity;
+
+import java.time.LocalDateTime;
+
+/**
+ * 订单搜索历史实体类
+ * 对应 order_search_history 表，同一用户的相同搜索条件只保留一行
+ *
+ * @author YXRobot开发团队
+ * @version 1.0
+ * @since 2025-02-25
+ */
+public class OrderSearchHistory {
+
+    /**
+     * 主键ID
+     */
+    private Long id;
+
+    /**
+     * 用户ID
+     */
+    private String userId;
+
+    /**
+     * 规范化搜索条件的MD5
+     */
+    private String queryHash;
+
+    /**
+     * 搜索条件描述，如“关键词:张三 状态:pending”
+     */
+    private String queryText;
+
+    /**
+     * 搜索条件（JSON）
+     */
+    private String criteriaJson;
+
+    /**
+     * 最近一次搜索的结果数量
+     */
+    private Integer resultCount;
+
+    /**
+     * 搜索次数
+     */
+    private Integer searchCount;
+
+    /**
+     * 最近搜索时间
+     */
+    private LocalDateTime searchedAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getQueryHash() {
+        return queryHash;
+    }
+
+    public void setQueryHash(String queryHash) {
+        this.queryHash = queryHash;
+    }
+
+    public String getQueryText() {
+        return queryText;
+    }
+
+    public void setQueryText(String queryText) {
+        this.queryText = queryText;
+    }
+
+    public String getCriteriaJson() {
+        return criteriaJson;
+    }
+
+    public void setCriteriaJson(String criteriaJson) {
+        this.criteriaJson = criteriaJson;
+    }
+
+    public Integer getResultCount() {
+        return resultCount;
+    }
+
+    public void setResultCount(Integer resultCount) {
+        this.resultCount = resultCount;
+    }
+
+    public Integer getSearchCount() {
+        return searchCount;
+    }
+
+    public void setSearchCount(Integer searchCount) {
+        this.searchCount = searchCount;
+    }
+
+    public LocalDateTime getSearchedAt() {
+        return searchedAt;
+    }
+
+    public void setSearchedAt(LocalDateTime searchedAt) {
+        this.searchedAt = searchedAt;
+    }
+}
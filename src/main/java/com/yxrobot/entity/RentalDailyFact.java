@@ -0,0 +1,165 @@
+package com.yxrobot.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 租赁日事实实体类
+ * 对应 rental_daily_facts（按日期、地区、渠道、设备型号）和
+ * rental_daily_device_facts（按日期、设备）两张事实表的一行；写入时各度量为增量，可以为负数
+ *
+ * @author YXRobot开发团队
+ * @version 1.0
+ * @since 2025-03-07
+ */
+public class RentalDailyFact {
+
+    /**
+     * 统计日期（租赁开始日期）
+     */
+    private LocalDate statDate;
+
+    /**
+     * 地区（交付地址），仅日事实表使用
+     */
+    private String region;
+
+    /**
+     * 渠道（交付方式），仅日事实表使用
+     */
+    private String channel;
+
+    /**
+     * 设备型号，仅日事实表使用
+     */
+    private String deviceModel;
+
+    /**
+     * 设备ID，仅设备日事实表使用
+     */
+    private Long deviceId;
+
+    /**
+     * 租赁收入
+     */
+    private BigDecimal revenue;
+
+    /**
+     * 订单数
+     */
+    private Integer orderCount;
+
+    /**
+     * 租赁天数合计
+     */
+    private Long rentalDays;
+
+    /**
+     * 租赁中的订单数
+     */
+    private Integer activeOrders;
+
+    /**
+     * 已完成的订单数
+     */
+    private Integer completedOrders;
+
+    public RentalDailyFact() {
+    }
+
+    public LocalDate getStatDate() {
+        return statDate;
+    }
+
+    public void setStatDate(LocalDate statDate) {
+        this.statDate = statDate;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public void setRegion(String region) {
+        this.region = region;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public void setChannel(String channel) {
+        this.channel = channel;
+    }
+
+    public String getDeviceModel() {
+        return deviceModel;
+    }
+
+    public void setDeviceModel(String deviceModel) {
+        this.deviceModel = deviceModel;
+    }
+
+    public Long getDeviceId() {
+        return deviceId;
+    }
+
+    public void setDeviceId(Long deviceId) {
+        this.deviceId = deviceId;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+
+    public Integer getOrderCount() {
+        return orderCount;
+    }
+
+    public void setOrderCount(Integer orderCount) {
+        this.orderCount = orderCount;
+    }
+
+    public Long getRentalDays() {
+        return rentalDays;
+    }
+
+    public void setRentalDays(Long rentalDays) {
+        this.rentalDays = rentalDays;
+    }
+
+    public Integer getActiveOrders() {
+        return activeOrders;
+    }
+
+    public void setActiveOrders(Integer activeOrders) {
+        this.activeOrders = activeOrders;
+    }
+
+    public Integer getCompletedOrders() {
+        return completedOrders;
+    }
+
+    public void setCompletedOrders(Integer completedOrders) {
+        this.completedOrders = completedOrders;
+    }
+
+    @Override
+    public String toString() {
+        return "RentalDailyFact{" +
+                "statDate=" + statDate +
+                ", region='" + region + '\'' +
+                ", channel='" + channel + '\'' +
+                ", deviceModel='" + deviceModel + '\'' +
+                ", deviceId=" + deviceId +
+                ", revenue=" + revenue +
+                ", orderCount=" + orderCount +
+                ", rentalDays=" + rentalDays +
+                ", activeOrders=" + activeOrders +
+                ", completedOrders=" + completedOrders +
+                '}';
+    }
+}
@@ -0,0 +1,105 @@
+package com.yxrobot.entity;
+
+import java.time.LocalDateTime;
+
+/**
+ * 上传文件内容实体类
+ * 对应 upload_blobs 表，相同内容的上传共用一个文件，记录引用次数
+ *
+ * @author YXRobot开发团队
+ * @version 1.0
+ * @since 2025-03-02
+ */
+public class UploadBlob {
+
+    /**
+     * 文件内容的SHA-256（十六进制）
+     */
+    private String contentHash;
+
+    /**
+     * 相对上传目录的存储路径
+     */
+    private String storagePath;
+
+    /**
+     * 文件大小（字节）
+     */
+    private Long fileSize;
+
+    /**
+     * MIME类型
+     */
+    private String contentType;
+
+    /**
+     * 引用次数
+     */
+    private Integer refCount;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updatedAt;
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public String getStoragePath() {
+        return storagePath;
+    }
+
+    public void setStoragePath(String storagePath) {
+        this.storagePath = storagePath;
+    }
+
+    public Long getFileSize() {
+        return fileSize;
+    }
+
+    public void setFileSize(Long fileSize) {
+        this.fileSize = fileSize;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public Integer getRefCount() {
+        return refCount;
+    }
+
+    public void setRefCount(Integer refCount) {
+        this.refCount = refCount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
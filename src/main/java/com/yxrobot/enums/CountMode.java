@@ -0,0 +1,60 @@
+package com.yxrobot.enums;
+
+/**
+ * 分页总数统计方式
+ * 分页列表除了查询当前页，还要统计满足条件的总数，
+ * 总数查询的 COUNT(*) 和数据查询使用相同的筛选条件，成本与数据查询相当
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-24
+ */
+public enum CountMode {
+
+    /**
+     * 每次执行 COUNT(*)
+     */
+    EXACT("exact", "精确统计"),
+
+    /**
+     * 按查询条件缓存 COUNT(*) 结果，过期前返回缓存值
+     */
+    CACHED("cached", "缓存统计"),
+
+    /**
+     * 无筛选条件时按表统计信息估算，有筛选条件时按缓存统计处理
+     */
+    ESTIMATED("estimated", "估算"),
+
+    /**
+     * 不统计总数，只返回是否还有下一页
+     */
+    HAS_MORE("hasMore", "仅判断是否有下一页");
+
+    private final String code;
+    private final String description;
+
+    CountMode(String code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * 根据代码获取枚举（忽略大小写）
+     */
+    public static CountMode fromCode(String code) {
+        for (CountMode mode : values()) {
+            if (mode.code.equalsIgnoreCase(code) || mode.name().equalsIgnoreCase(code)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unknown count mode code: " + code);
+    }
+}
@@ -0,0 +1,57 @@
+package com.yxrobot.enums;
+
+/**
+ * 数据导出格式
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-27
+ */
+public enum ExportFormat {
+
+    /**
+     * CSV（UTF-8，带BOM以便Excel识别编码）
+     */
+    CSV("csv", "csv", "text/csv;charset=UTF-8"),
+
+    /**
+     * Excel 2007+ 工作簿
+     */
+    XLSX("xlsx", "xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
+    private final String code;
+    private final String extension;
+    private final String contentType;
+
+    ExportFormat(String code, String extension, String contentType) {
+        this.code = code;
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * 根据代码获取枚举（忽略大小写），excel 视为 xlsx
+     */
+    public static ExportFormat fromCode(String code) {
+        if ("excel".equalsIgnoreCase(code)) {
+            return XLSX;
+        }
+        for (ExportFormat format : values()) {
+            if (format.code.equalsIgnoreCase(code)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("不支持的导出格式: " + code);
+    }
+}
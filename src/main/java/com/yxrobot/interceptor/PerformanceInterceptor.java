@@ -1,14 +1,18 @@
 package com.yxrobot.interceptor;
 
+import com.yxrobot.service.ManagedDeviceApiMonitoringService;
 import com.yxrobot.service.ManagedDevicePerformanceMonitorService;
+import com.yxrobot.util.PerformanceMonitor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 性能监控拦截器
@@ -22,7 +26,19 @@ public class PerformanceInterceptor implements HandlerInterceptor {
     @Autowired
     private ManagedDevicePerformanceMonitorService performanceMonitorService;
     
+    @Autowired
+    private PerformanceMonitor performanceMonitor;
+    
+    @Autowired
+    private ManagedDeviceApiMonitoringService apiMonitoringService;
+    
     private static final String START_TIME_ATTRIBUTE = "startTime";
+    private static final String START_NANOS_ATTRIBUTE = PerformanceInterceptor.class.getName() + ".startNanos";
+    
+    /**
+     * 未匹配到路由模板的请求（如404、扫描探测）统一计入该键，避免任意URI各占一个统计项
+     */
+    static final String UNMATCHED_API = "UNMATCHED";
     
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
@@ -30,6 +46,11 @@ public class PerformanceInterceptor implements HandlerInterceptor {
         long startTime = System.currentTimeMillis();
         request.setAttribute(START_TIME_ATTRIBUTE, startTime);
         
+        // 拦截器可能被多个配置重复注册，只以最外层的开始时间为准
+        if (request.getAttribute(START_NANOS_ATTRIBUTE) == null) {
+            request.setAttribute(START_NANOS_ATTRIBUTE, performanceMonitor.startTiming(request.getRequestURI()));
+        }
+        
         // 记录请求信息
         String requestUri = request.getRequestURI();
         String method = request.getMethod();
@@ -40,6 +61,23 @@ public class PerformanceInterceptor implements HandlerInterceptor {
     
     @Override
     public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) throws Exception {
+        // 按接口模板记录耗时分布（如 GET /api/admin/devices/{id}），同一请求只记录一次
+        Long startNanos = (Long) request.getAttribute(START_NANOS_ATTRIBUTE);
+        if (startNanos != null) {
+            request.removeAttribute(START_NANOS_ATTRIBUTE);
+            boolean success = ex == null && response.getStatus() < 500;
+            String routePath = resolveRoutePath(request);
+            String apiName = routePath != null ? request.getMethod() + " " + routePath : UNMATCHED_API;
+            performanceMonitor.endTiming(apiName, startNanos, success);
+            
+            // 设备管理API的调用明细
+            if (routePath != null && routePath.startsWith("/api/admin/devices")) {
+                long responseTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+                apiMonitoringService.recordApiMetric(routePath, request.getMethod(), responseTime,
+                    response.getStatus(), request.getRemoteAddr(), request.getHeader("User-Agent"));
+            }
+        }
+        
         // 计算响应时间
         Long startTime = (Long) request.getAttribute(START_TIME_ATTRIBUTE);
         if (startTime != null) {
@@ -64,6 +102,14 @@ public class PerformanceInterceptor implements HandlerInterceptor {
         }
     }
     
+    /**
+     * 获取匹配到的路由模板（如 /api/admin/devices/{id}），未匹配时返回null
+     */
+    private String resolveRoutePath(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : null;
+    }
+    
     /**
      * 记录功能使用统计
      * 
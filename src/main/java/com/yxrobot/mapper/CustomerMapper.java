@@ -6,6 +6,7 @@ import com.yxrobot.dto.CustomerStatsDTO;
 import com.yxrobot.entity.Customer;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -53,6 +54,11 @@ public interface CustomerMapper {
      */
     Long selectCount(@Param("query") CustomerQueryDTO query);
     
+    /**
+     * 流式查询导出客户，逐行交给 handler 处理，不分页，筛选条件和排序同 selectList
+     */
+    void selectForExport(@Param("query") CustomerQueryDTO query, ResultHandler<Map<String, Object>> handler);
+    
     /**
      * 查询所有客户总数（兼容方法）
      */
@@ -321,4 +327,15 @@ public interface CustomerMapper {
      * 缓存友好的客户基本信息查询
      */
     List<Map<String, Object>> selectBasicInfoForCache();
+    
+    /**
+     * 按ID顺序分批查询客户的输入提示字段，用于构建输入提示索引
+     * 返回 id、name、phone
+     */
+    List<Map<String, Object>> selectSuggestionTerms(@Param("afterId") Long afterId, @Param("limit") int limit);
+    
+    /**
+     * 查询单条客户的输入提示字段，不存在或已删除时返回null
+     */
+    Map<String, Object> selectSuggestionTermsById(@Param("id") Long id);
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -31,6 +32,13 @@ public interface DeviceAlertMapper {
      */
     int insert(DeviceAlert alert);
     
+    /**
+     * 批量插入设备告警
+     * @param alerts 告警列表
+     * @return 影响行数
+     */
+    int batchInsert(@Param("alerts") List<DeviceAlert> alerts);
+    
     /**
      * 根据ID查询设备告警
      * @param id 告警ID
@@ -45,6 +53,13 @@ public interface DeviceAlertMapper {
      */
     List<DeviceAlert> selectWithPagination(@Param("params") Map<String, Object> params);
     
+    /**
+     * 游标分页查询设备告警列表（按告警时间、ID倒序）
+     * @param params 查询参数，cursorTime/cursorId 为上一页最后一条告警的时间和ID，limit 为查询数量
+     * @return 设备告警列表
+     */
+    List<DeviceAlert> selectByCursor(@Param("params") Map<String, Object> params);
+    
     /**
      * 统计设备告警总数（支持筛选）
      * @param params 查询参数
@@ -176,6 +191,15 @@ public interface DeviceAlertMapper {
     List<DeviceAlert> selectDuplicateAlerts(@Param("deviceId") Long deviceId, 
                                            @Param("alertType") String alertType);
     
+    /**
+     * 批量查询未解决的告警（用于批量去重）
+     * @param deviceIds 设备ID列表
+     * @param alertTypes 告警类型列表
+     * @return 未解决告警的设备ID与类型（deviceId、alertType）
+     */
+    List<Map<String, Object>> selectUnresolvedKeys(@Param("deviceIds") Collection<Long> deviceIds, 
+                                                   @Param("alertTypes") Collection<String> alertTypes);
+    
     /**
      * 自动解决过期告警（超过指定时间未处理的低级别告警）
      * @param beforeTime 过期时间阈值
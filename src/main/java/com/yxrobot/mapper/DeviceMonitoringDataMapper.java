@@ -4,6 +4,7 @@ import com.yxrobot.entity.DeviceMonitoringData;
 import com.yxrobot.entity.DeviceStatus;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -45,6 +46,12 @@ public interface DeviceMonitoringDataMapper {
      */
     DeviceMonitoringData selectByDeviceId(@Param("deviceId") Long deviceId);
     
+    /**
+     * 流式查询所有设备的状态和最后在线时间，逐行交给handler处理（用于设备状态表加载）
+     * @param handler 结果处理器
+     */
+    void selectDeviceStates(ResultHandler<DeviceMonitoringData> handler);
+    
     /**
      * 根据设备序列号查询监控数据
      * @param serialNumber 设备序列号
@@ -5,6 +5,7 @@ import com.yxrobot.entity.NetworkType;
 import com.yxrobot.entity.ConnectionStatus;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -47,6 +48,12 @@ public interface DeviceNetworkStatusMapper {
      */
     DeviceNetworkStatus selectLatestByDeviceId(@Param("deviceId") Long deviceId);
     
+    /**
+     * 流式查询每台设备的最新网络状态，逐行交给handler处理（用于设备状态表加载）
+     * @param handler 结果处理器
+     */
+    void selectLatestForAllDevices(ResultHandler<DeviceNetworkStatus> handler);
+    
     /**
      * 根据设备ID查询网络状态历史记录
      * @param deviceId 设备ID
@@ -3,6 +3,7 @@ package com.yxrobot.mapper;
 import com.yxrobot.entity.DevicePerformanceMetrics;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -45,6 +46,28 @@ public interface DevicePerformanceMetricsMapper {
      */
     DevicePerformanceMetrics selectLatestByDeviceId(@Param("deviceId") Long deviceId);
     
+    /**
+     * 查询最大ID
+     * @return 最大ID，表为空时返回null
+     */
+    Long selectMaxId();
+    
+    /**
+     * 流式查询指定时间之后、ID不超过maxId的性能指标，逐行交给handler处理（用于时间序列存储加载）
+     * @param startTime 开始时间
+     * @param maxId 最大ID
+     * @param handler 结果处理器
+     */
+    void selectForTimeSeries(@Param("startTime") LocalDateTime startTime,
+                             @Param("maxId") Long maxId,
+                             ResultHandler<DevicePerformanceMetrics> handler);
+    
+    /**
+     * 流式查询每台设备的最新性能指标，逐行交给handler处理（用于设备状态表加载）
+     * @param handler 结果处理器
+     */
+    void selectLatestForAllDevices(ResultHandler<DevicePerformanceMetrics> handler);
+    
     /**
      * 根据设备ID查询性能指标历史记录
      * @param deviceId 设备ID
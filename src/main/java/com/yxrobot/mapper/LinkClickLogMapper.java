@@ -3,6 +3,7 @@ package com.yxrobot.mapper;
 import com.yxrobot.entity.LinkClickLog;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -34,6 +35,19 @@ public interface LinkClickLogMapper {
      */
     List<LinkClickLog> selectByLinkId(@Param("linkId") Long linkId, @Param("limit") Integer limit);
     
+    /**
+     * 游标分页查询链接点击日志（按点击时间、ID倒序）
+     * @param linkId 链接ID
+     * @param cursorTime 上一页最后一条日志的点击时间，第一页传null
+     * @param cursorId 上一页最后一条日志的ID，第一页传null
+     * @param limit 查询数量
+     * @return 点击日志列表
+     */
+    List<LinkClickLog> selectByLinkIdAfterCursor(@Param("linkId") Long linkId, 
+                                                @Param("cursorTime") LocalDateTime cursorTime, 
+                                                @Param("cursorId") Long cursorId, 
+                                                @Param("limit") Integer limit);
+    
     /**
      * 插入点击日志
      * @param log 点击日志实体
@@ -132,4 +146,40 @@ public interface LinkClickLogMapper {
      * @return 影响行数
      */
     int updateLinkClickStats(@Param("linkId") Long linkId);
+    
+    /**
+     * 按增量累加链接的点击统计
+     * @param linkId 链接ID
+     * @param clickDelta 新增点击量
+     * @param conversionDelta 新增转化量
+     * @return 影响行数
+     */
+    int incrementLinkClickStats(@Param("linkId") Long linkId, 
+                               @Param("clickDelta") long clickDelta, 
+                               @Param("conversionDelta") long conversionDelta);
+    
+    /**
+     * 按ID顺序分页查询时间范围内的点击日志，用于重建点击汇总
+     * @param afterId 上一页最后的日志ID
+     * @param startTime 开始时间（含）
+     * @param endTime 结束时间（不含）
+     * @param limit 每页数量
+     * @return 点击日志列表
+     */
+    List<LinkClickLog> selectForRollup(@Param("afterId") Long afterId, 
+                                      @Param("startTime") LocalDateTime startTime, 
+                                      @Param("endTime") LocalDateTime endTime, 
+                                      @Param("limit") Integer limit);
+    
+    /**
+     * 流式查询导出点击日志（按点击时间倒序），逐行交给 handler 处理；筛选条件同 selectClickCount
+     * @param linkId 链接ID（可选）
+     * @param startTime 开始时间（可选）
+     * @param endTime 结束时间（可选）
+     * @param handler 结果处理器
+     */
+    void selectForExport(@Param("linkId") Long linkId, 
+                         @Param("startTime") LocalDateTime startTime, 
+                         @Param("endTime") LocalDateTime endTime, 
+                         ResultHandler<Map<String, Object>> handler);
 }
\ No newline at end of file
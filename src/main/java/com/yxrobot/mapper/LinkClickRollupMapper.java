@@ -0,0 +1,95 @@
+package com.yxrobot.mapper;
+
+import com.yxrobot.entity.LinkClickRollup;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 链接点击汇总数据访问层接口
+ * 负责按小时/按天/按维度的点击汇总表读写，汇总行按增量累加
+ *
+ * @author YXRobot开发团队
+ * @version 1.0
+ * @since 2025-02-17
+ */
+@Mapper
+public interface LinkClickRollupMapper {
+
+    /**
+     * 累加小时汇总（不存在时插入）
+     * @param rows 汇总增量
+     * @return 影响行数
+     */
+    int upsertHourlyStats(@Param("rows") List<LinkClickRollup> rows);
+
+    /**
+     * 累加维度汇总（不存在时插入）
+     * @param rows 汇总增量
+     * @return 影响行数
+     */
+    int upsertDimensionStats(@Param("rows") List<LinkClickRollup> rows);
+
+    /**
+     * 查询已有的日汇总访客草图
+     * @param keys 链接ID与统计日期
+     * @return 日汇总列表（仅包含 linkId、statTime、visitorSketch）
+     */
+    List<LinkClickRollup> selectDailySketches(@Param("keys") List<LinkClickRollup> keys);
+
+    /**
+     * 累加日汇总（不存在时插入），访客草图和访客数直接覆盖为合并后的值
+     * @param rows 汇总增量
+     * @return 影响行数
+     */
+    int upsertDailyStats(@Param("rows") List<LinkClickRollup> rows);
+
+    /**
+     * 获取日点击/转化趋势
+     * @param linkId 链接ID，0 表示全部链接
+     * @param startTime 开始日期
+     * @return 趋势数据（date、clickCount、uniqueVisitors、conversionCount、totalValue）
+     */
+    List<Map<String, Object>> selectDailyTrends(@Param("linkId") Long linkId,
+                                                @Param("startTime") LocalDateTime startTime);
+
+    /**
+     * 按维度汇总点击量/转化量
+     * @param linkId 链接ID（可选）
+     * @param dimension 维度类型
+     * @param startTime 开始时间（可选）
+     * @param endTime 结束时间（可选）
+     * @return 维度统计（dimensionValue、clickCount、conversionCount）
+     */
+    List<Map<String, Object>> selectDimensionStats(@Param("linkId") Long linkId,
+                                                   @Param("dimension") String dimension,
+                                                   @Param("startTime") LocalDateTime startTime,
+                                                   @Param("endTime") LocalDateTime endTime);
+
+    /**
+     * 删除时间范围内的小时汇总
+     * @param startTime 开始时间（含）
+     * @param endTime 结束时间（不含）
+     * @return 影响行数
+     */
+    int deleteHourlyStats(@Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
+
+    /**
+     * 删除时间范围内的维度汇总
+     * @param startTime 开始时间（含）
+     * @param endTime 结束时间（不含）
+     * @return 影响行数
+     */
+    int deleteDimensionStats(@Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
+
+    /**
+     * 删除时间范围内的日汇总
+     * @param startTime 开始时间（含）
+     * @param endTime 结束时间（不含）
+     * @return 影响行数
+     */
+    int deleteDailyStats(@Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
+}
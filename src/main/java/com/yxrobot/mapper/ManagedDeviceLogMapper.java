@@ -3,9 +3,11 @@ package com.yxrobot.mapper;
 import com.yxrobot.entity.ManagedDeviceLog;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 设备日志Mapper接口
@@ -24,6 +26,19 @@ public interface ManagedDeviceLogMapper {
                                       @Param("startDate") LocalDateTime startDate,
                                       @Param("endDate") LocalDateTime endDate);
     
+    /**
+     * 游标分页查询设备日志（按时间、ID倒序）
+     * cursorTime/cursorId 为上一页最后一条日志的时间和ID，第一页传null
+     */
+    List<ManagedDeviceLog> selectByCursor(@Param("deviceId") Long deviceId,
+                                        @Param("cursorTime") LocalDateTime cursorTime,
+                                        @Param("cursorId") Long cursorId,
+                                        @Param("limit") Integer limit,
+                                        @Param("level") String level,
+                                        @Param("category") String category,
+                                        @Param("startDate") LocalDateTime startDate,
+                                        @Param("endDate") LocalDateTime endDate);
+    
     /**
      * 统计设备日志总数（支持筛选）
      */
@@ -33,6 +48,16 @@ public interface ManagedDeviceLogMapper {
                             @Param("startDate") LocalDateTime startDate,
                             @Param("endDate") LocalDateTime endDate);
     
+    /**
+     * 流式查询导出设备日志（按时间、ID倒序），逐行交给 handler 处理；筛选条件同 countByConditions
+     */
+    void selectForExport(@Param("deviceId") Long deviceId,
+                         @Param("level") String level,
+                         @Param("category") String category,
+                         @Param("startDate") LocalDateTime startDate,
+                         @Param("endDate") LocalDateTime endDate,
+                         ResultHandler<Map<String, Object>> handler);
+    
     /**
      * 插入日志
      */
@@ -27,6 +27,11 @@ public interface ManagedDeviceMapper {
      */
     ManagedDevice selectById(@Param("id") Long id);
     
+    /**
+     * 根据ID列表批量查询设备（基本信息）
+     */
+    List<ManagedDevice> selectByIds(@Param("ids") List<Long> ids);
+    
     /**
      * 分页查询设备列表（支持搜索和筛选）
      */
@@ -41,6 +46,20 @@ public interface ManagedDeviceMapper {
                                    @Param("sortBy") String sortBy,
                                    @Param("sortOrder") String sortOrder);
     
+    /**
+     * 游标分页查询设备列表（按创建时间、ID倒序）
+     * cursorTime/cursorId 为上一页最后一行的创建时间和ID，第一页传null
+     */
+    List<ManagedDevice> selectByCursor(@Param("cursorTime") LocalDateTime cursorTime,
+                                     @Param("cursorId") Long cursorId,
+                                     @Param("limit") Integer limit,
+                                     @Param("keyword") String keyword,
+                                     @Param("status") String status,
+                                     @Param("model") String model,
+                                     @Param("customerId") Long customerId,
+                                     @Param("startDate") LocalDateTime startDate,
+                                     @Param("endDate") LocalDateTime endDate);
+    
     /**
      * 统计设备总数（支持搜索和筛选）
      */
@@ -126,6 +145,17 @@ public interface ManagedDeviceMapper {
      */
     List<String> getSearchSuggestions(@Param("field") String field, @Param("query") String query, @Param("limit") Integer limit);
     
+    /**
+     * 按ID顺序分批查询设备的输入提示字段，用于构建输入提示索引
+     * 返回 id、serialNumber、customerName、model、firmwareVersion、createdBy
+     */
+    List<Map<String, Object>> selectSuggestionTerms(@Param("afterId") Long afterId, @Param("limit") int limit);
+    
+    /**
+     * 查询单条设备的输入提示字段，不存在或已删除时返回null
+     */
+    Map<String, Object> selectSuggestionTermsById(@Param("id") Long id);
+    
     /**
      * 快速搜索设备
      */
@@ -54,6 +54,16 @@ public interface NewsMapper {
      */
     News selectByIdWithDetails(@Param("id") Long id);
     
+    /**
+     * 根据ID列表批量查询新闻（包含分类信息）
+     */
+    List<News> selectByIds(@Param("ids") List<Long> ids);
+    
+    /**
+     * 按ID顺序分批查询未删除的新闻，用于构建搜索索引
+     */
+    List<News> selectForIndex(@Param("afterId") Long afterId, @Param("limit") int limit);
+    
     /**
      * 分页查询新闻列表
      */
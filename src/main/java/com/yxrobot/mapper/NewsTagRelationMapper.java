@@ -6,6 +6,7 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 新闻标签关联映射器接口
@@ -87,6 +88,11 @@ public interface NewsTagRelationMapper {
      */
     List<NewsTag> selectTagsByNewsIds(@Param("newsIds") List<Long> newsIds);
     
+    /**
+     * 批量查询新闻的标签名称（newsId, tagName）
+     */
+    List<Map<String, Object>> selectTagNamesByNewsIds(@Param("newsIds") List<Long> newsIds);
+    
     /**
      * 更新新闻的标签关联（先删除后插入）
      */
@@ -1,12 +1,15 @@
 package com.yxrobot.mapper;
 
+import com.yxrobot.dto.OrderFacetRow;
 import com.yxrobot.dto.OrderQueryDTO;
 import com.yxrobot.entity.Order;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -287,6 +290,19 @@ public interface OrderMapper {
                                          @Param("offset") int offset,
                                          @Param("pageSize") int pageSize);
     
+    /**
+     * 游标分页查询订单列表（按创建时间、ID倒序），筛选条件同 selectOrdersWithPagination
+     * cursorTime/cursorId 为上一页最后一个订单的创建时间和ID，第一页传null
+     */
+    List<Order> selectOrdersByCursor(@Param("keyword") String keyword,
+                                   @Param("type") String type,
+                                   @Param("status") String status,
+                                   @Param("startDate") LocalDate startDate,
+                                   @Param("endDate") LocalDate endDate,
+                                   @Param("cursorTime") LocalDateTime cursorTime,
+                                   @Param("cursorId") Long cursorId,
+                                   @Param("limit") int limit);
+    
     /**
      * 查询订单总数，支持搜索和筛选
      */
@@ -296,6 +312,24 @@ public interface OrderMapper {
                    @Param("startDate") LocalDate startDate,
                    @Param("endDate") LocalDate endDate);
     
+    /**
+     * 流式查询导出订单，逐行交给 handler 处理，不在内存中保留结果集；筛选条件同 countOrders
+     */
+    void selectForExport(@Param("keyword") String keyword,
+                         @Param("type") String type,
+                         @Param("status") String status,
+                         @Param("startDate") LocalDate startDate,
+                         @Param("endDate") LocalDate endDate,
+                         ResultHandler<Map<String, Object>> handler);
+    
+    /**
+     * 订单分面统计：按类型、状态、支付状态、销售人员和金额区间分组计数，一次查询得到所有分面；
+     * 类型和状态不在SQL中筛选，由调用方汇总时应用，筛选条件其余部分同 countOrders
+     */
+    List<OrderFacetRow> selectFacetCounts(@Param("keyword") String keyword,
+                                          @Param("startDate") LocalDate startDate,
+                                          @Param("endDate") LocalDate endDate);
+    
     /**
      * 根据查询条件查询订单列表
      */
@@ -305,4 +339,20 @@ public interface OrderMapper {
      * 根据查询条件统计订单数量
      */
     Long countByQuery(@Param("query") OrderQueryDTO query);
+    
+    /**
+     * 按ID顺序分批查询订单的输入提示字段，用于构建输入提示索引
+     * 返回 id、orderNumber、customerName
+     */
+    List<Map<String, Object>> selectSuggestionTerms(@Param("afterId") Long afterId, @Param("limit") int limit);
+    
+    /**
+     * 查询单条订单的输入提示字段，不存在或已删除时返回null
+     */
+    Map<String, Object> selectSuggestionTermsById(@Param("id") Long id);
+    
+    /**
+     * 根据ID列表批量查询订单
+     */
+    List<Order> selectByIds(@Param("ids") List<Long> ids);
 }
\ No newline at end of file
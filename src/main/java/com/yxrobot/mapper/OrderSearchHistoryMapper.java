@@ -0,0 +1,32 @@
+package com.yxrobot.mapper;
+
+import com.yxrobot.entity.OrderSearchHistory;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 订单搜索历史Mapper接口
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-25
+ */
+@Mapper
+public interface OrderSearchHistoryMapper {
+
+    /**
+     * 写入搜索历史，同一用户的相同条件更新搜索时间、结果数量并累加搜索次数
+     */
+    int upsert(OrderSearchHistory history);
+
+    /**
+     * 查询用户最近的搜索历史
+     */
+    List<OrderSearchHistory> selectRecentByUserId(@Param("userId") String userId, @Param("limit") int limit);
+
+    /**
+     * 删除用户最近 keep 条以外的搜索历史
+     */
+    int deleteBeyondRecent(@Param("userId") String userId, @Param("keep") int keep);
+}
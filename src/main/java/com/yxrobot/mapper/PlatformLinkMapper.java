@@ -25,6 +25,13 @@ public interface PlatformLinkMapper {
      */
     PlatformLink selectById(@Param("id") Long id);
     
+    /**
+     * 根据ID列表批量查询链接
+     * @param ids 链接ID列表
+     * @return 链接列表
+     */
+    List<PlatformLink> selectByIds(@Param("ids") List<Long> ids);
+    
     /**
      * 分页查询平台链接列表
      * @param params 查询参数
@@ -76,6 +83,14 @@ public interface PlatformLinkMapper {
      */
     int updateLinkStatus(@Param("id") Long id, @Param("linkStatus") String linkStatus);
     
+    /**
+     * 批量更新链接状态和最后检查时间
+     * @param ids 链接ID列表
+     * @param linkStatus 链接状态
+     * @return 影响行数
+     */
+    int batchUpdateLinkStatus(@Param("ids") List<Long> ids, @Param("linkStatus") String linkStatus);
+    
     /**
      * 更新点击量
      * @param id 链接ID
@@ -173,6 +173,17 @@ public interface RentalDeviceMapper {
      */
     List<String> selectSearchSuggestions(@Param("keyword") String keyword, @Param("type") String type);
     
+    /**
+     * 按ID顺序分批查询租赁设备的输入提示字段，用于构建输入提示索引
+     * 返回 id、deviceId、deviceModel、deviceName、region
+     */
+    List<Map<String, Object>> selectSuggestionTerms(@Param("afterId") Long afterId, @Param("limit") int limit);
+    
+    /**
+     * 查询单条租赁设备的输入提示字段，不存在或已删除时返回null
+     */
+    Map<String, Object> selectSuggestionTermsById(@Param("id") Long id);
+    
     /**
      * 获取筛选选项统计
      */
@@ -0,0 +1,85 @@
+package com.yxrobot.mapper;
+
+import com.yxrobot.entity.RentalDailyFact;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 租赁日事实数据访问层接口
+ * 负责 rental_daily_facts / rental_daily_device_facts 的增量累加、按租赁记录重建和流式加载
+ *
+ * @author YXRobot开发团队
+ * @version 1.0
+ * @since 2025-03-07
+ */
+@Mapper
+public interface RentalFactMapper {
+
+    /**
+     * 累加日事实（不存在时插入）
+     * @param rows 事实增量
+     * @return 影响行数
+     */
+    int upsertDailyFacts(@Param("rows") List<RentalDailyFact> rows);
+
+    /**
+     * 累加设备日事实（不存在时插入）
+     * @param rows 事实增量（statDate、deviceId、orderCount）
+     * @return 影响行数
+     */
+    int upsertDeviceFacts(@Param("rows") List<RentalDailyFact> rows);
+
+    /**
+     * 流式读取全部订单数大于0的日事实
+     * @param handler 逐行处理
+     */
+    void selectDailyFacts(ResultHandler<RentalDailyFact> handler);
+
+    /**
+     * 流式读取全部订单数大于0的设备日事实
+     * @param handler 逐行处理
+     */
+    void selectDeviceFacts(ResultHandler<RentalDailyFact> handler);
+
+    /**
+     * 统计日事实行数
+     * @return 行数
+     */
+    long countDailyFacts();
+
+    /**
+     * 删除日期范围内的日事实
+     * @param startDate 开始日期（含，可选）
+     * @param endDate 结束日期（含，可选）
+     * @return 影响行数
+     */
+    int deleteDailyFacts(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * 删除日期范围内的设备日事实
+     * @param startDate 开始日期（含，可选）
+     * @param endDate 结束日期（含，可选）
+     * @return 影响行数
+     */
+    int deleteDeviceFacts(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * 按租赁记录重建日期范围内的日事实
+     * @param startDate 开始日期（含，可选）
+     * @param endDate 结束日期（含，可选）
+     * @return 插入行数
+     */
+    int insertDailyFactsFromRecords(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * 按租赁记录重建日期范围内的设备日事实
+     * @param startDate 开始日期（含，可选）
+     * @param endDate 结束日期（含，可选）
+     * @return 插入行数
+     */
+    int insertDeviceFactsFromRecords(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+}
@@ -22,6 +22,11 @@ public interface RentalRecordMapper {
      */
     RentalRecord selectById(@Param("id") Long id);
     
+    /**
+     * 根据ID查询租赁记录并加行锁（SELECT ... FOR UPDATE），须在事务中调用
+     */
+    RentalRecord selectByIdForUpdate(@Param("id") Long id);
+    
     /**
      * 根据订单号查询租赁记录
      */
@@ -4,6 +4,7 @@ import com.yxrobot.dto.SalesRecordQueryDTO;
 import com.yxrobot.entity.SalesRecord;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -281,4 +282,9 @@ public interface SalesRecordMapper {
      * 优化的计数查询
      */
     Long selectCountOptimized(@Param("query") SalesRecordQueryDTO query);
+    
+    /**
+     * 流式查询导出销售记录（带关联信息），逐行交给 handler 处理；筛选和排序同 selectListWithDetails，忽略分页
+     */
+    void selectForExport(@Param("query") SalesRecordQueryDTO query, ResultHandler<Map<String, Object>> handler);
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.yxrobot.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * 表统计信息Mapper接口
+ * 读取数据库维护的表统计信息，不扫描业务表
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-24
+ */
+@Mapper
+public interface TableStatisticsMapper {
+
+    /**
+     * 获取表的估算行数（InnoDB统计信息，可能与实际行数有偏差，且包含软删除的行）
+     *
+     * @param tableName 表名
+     * @return 估算行数，表不存在时返回null
+     */
+    Long selectEstimatedRowCount(@Param("tableName") String tableName);
+}
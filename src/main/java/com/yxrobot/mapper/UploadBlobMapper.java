@@ -0,0 +1,39 @@
+package com.yxrobot.mapper;
+
+import com.yxrobot.entity.UploadBlob;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * 上传文件内容Mapper接口
+ *
+ * @author YXRobot开发团队
+ * @since 2025-03-02
+ */
+@Mapper
+public interface UploadBlobMapper {
+
+    /**
+     * 根据内容摘要查询
+     */
+    UploadBlob selectByHash(@Param("contentHash") String contentHash);
+
+    /**
+     * 新增内容记录（引用次数为1），已存在时引用次数加1
+     */
+    int insertOrIncrement(UploadBlob blob);
+
+    /**
+     * 引用次数减1（不低于0）
+     *
+     * @return 更新行数，记录不存在或引用次数已为0时返回0
+     */
+    int decrementRefCount(@Param("contentHash") String contentHash);
+
+    /**
+     * 删除引用次数为0的记录
+     *
+     * @return 删除行数
+     */
+    int deleteUnreferenced(@Param("contentHash") String contentHash);
+}
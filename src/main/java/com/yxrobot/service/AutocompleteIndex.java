@@ -0,0 +1,336 @@
+package com.yxrobot.service;
+
+import com.yxrobot.mapper.CustomerMapper;
+import com.yxrobot.mapper.ManagedDeviceMapper;
+import com.yxrobot.mapper.OrderMapper;
+import com.yxrobot.mapper.RentalDeviceMapper;
+import com.yxrobot.util.SuggestionIndex;
+import com.yxrobot.util.TransactionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * 输入提示索引
+ * 为设备、租赁设备、客户和订单的常用字段维护内存中的 {@link SuggestionIndex}，
+ * 搜索框每次输入都直接从内存返回提示词，不再对数据库执行 LIKE '%关键词%' 查询。
+ *
+ * 索引在应用启动后和每天凌晨从数据库按ID分批全量加载；记录增删改后调用
+ * {@link #refreshAfterCommit(String, Long)}，在事务提交后重新读取该记录的字段更新索引。
+ * 数据源尚未加载完成时调用方应回退到数据库查询。
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-23
+ */
+@Component
+public class AutocompleteIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(AutocompleteIndex.class);
+
+    public static final String DEVICE = "device";
+    public static final String RENTAL_DEVICE = "rentalDevice";
+    public static final String CUSTOMER = "customer";
+    public static final String ORDER = "order";
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    @Autowired
+    private ManagedDeviceMapper managedDeviceMapper;
+
+    @Autowired
+    private RentalDeviceMapper rentalDeviceMapper;
+
+    @Autowired
+    private CustomerMapper customerMapper;
+
+    @Autowired
+    private OrderMapper orderMapper;
+
+    private final Map<String, Source> sources = new LinkedHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        register(new Source(DEVICE, managedDeviceMapper::selectSuggestionTerms,
+                managedDeviceMapper::selectSuggestionTermsById,
+                "serialNumber", "customerName", "model", "firmwareVersion", "createdBy"));
+        register(new Source(RENTAL_DEVICE, rentalDeviceMapper::selectSuggestionTerms,
+                rentalDeviceMapper::selectSuggestionTermsById,
+                "deviceId", "deviceModel", "deviceName", "region"));
+        register(new Source(CUSTOMER, customerMapper::selectSuggestionTerms,
+                customerMapper::selectSuggestionTermsById,
+                "name", "phone"));
+        register(new Source(ORDER, orderMapper::selectSuggestionTerms,
+                orderMapper::selectSuggestionTermsById,
+                "orderNumber", "customerName"));
+    }
+
+    private void register(Source source) {
+        sources.put(source.name, source);
+    }
+
+    /**
+     * 应用启动后加载索引
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuildAll();
+    }
+
+    /**
+     * 每天凌晨4点30分全量重建，修正增量更新可能遗漏的变更
+     */
+    @Scheduled(cron = "0 30 4 * * ?")
+    public void scheduledRebuild() {
+        rebuildAll();
+    }
+
+    /**
+     * 重建所有数据源的索引
+     */
+    public void rebuildAll() {
+        for (Source source : sources.values()) {
+            rebuild(source.name);
+        }
+    }
+
+    /**
+     * 从数据库重建一个数据源的索引
+     *
+     * @param sourceName 数据源名称
+     * @return 加载的记录数
+     */
+    public int rebuild(String sourceName) {
+        Source source = source(sourceName);
+        synchronized (source) {
+            long start = System.currentTimeMillis();
+            source.rebuilding = true;
+            source.changedDuringRebuild.clear();
+            try {
+                Map<String, Map<Long, String>> values = new HashMap<>();
+                source.fields.keySet().forEach(field -> values.put(field, new HashMap<>()));
+                long afterId = 0L;
+                int count = 0;
+                while (true) {
+                    List<Map<String, Object>> batch = source.batchLoader.apply(afterId, LOAD_BATCH_SIZE);
+                    if (batch.isEmpty()) {
+                        break;
+                    }
+                    for (Map<String, Object> row : batch) {
+                        Long id = toLong(row.get("id"));
+                        values.forEach((field, byId) -> byId.put(id, toText(row.get(field))));
+                    }
+                    count += batch.size();
+                    afterId = toLong(batch.get(batch.size() - 1).get("id"));
+                    if (batch.size() < LOAD_BATCH_SIZE) {
+                        break;
+                    }
+                }
+                values.forEach((field, byId) -> source.fields.get(field).replaceAll(byId));
+                source.ready = true;
+                source.lastRebuildAt = LocalDateTime.now();
+                source.lastRebuildMs = System.currentTimeMillis() - start;
+                logger.info("输入提示索引加载完成 - 数据源: {}, 记录数: {}, 耗时: {}ms",
+                           sourceName, count, source.lastRebuildMs);
+            } catch (Exception e) {
+                logger.error("输入提示索引加载失败 - 数据源: {}", sourceName, e);
+            } finally {
+                source.rebuilding = false;
+            }
+        }
+
+        // 重建期间的变更可能没有包含在读取的数据中
+        List<Long> changed = new ArrayList<>(source.changedDuringRebuild);
+        source.changedDuringRebuild.clear();
+        changed.forEach(id -> refresh(sourceName, id));
+        return source.fields.values().iterator().next().recordCount();
+    }
+
+    /**
+     * 在当前事务提交后重新读取记录并更新索引；没有事务时立即执行
+     *
+     * @param sourceName 数据源名称
+     * @param id 记录ID
+     */
+    public void refreshAfterCommit(String sourceName, Long id) {
+        if (id == null) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> refresh(sourceName, id));
+    }
+
+    /**
+     * 从数据库读取记录并更新索引，记录不存在或已删除时移出索引
+     *
+     * @param sourceName 数据源名称
+     * @param id 记录ID
+     */
+    public void refresh(String sourceName, Long id) {
+        Source source = source(sourceName);
+        if (source.rebuilding) {
+            source.changedDuringRebuild.add(id);
+        }
+        try {
+            Map<String, Object> row = source.rowLoader.apply(id);
+            source.fields.forEach((field, index) -> {
+                if (row == null) {
+                    index.remove(id);
+                } else {
+                    index.put(id, toText(row.get(field)));
+                }
+            });
+        } catch (Exception e) {
+            logger.warn("更新输入提示索引失败 - 数据源: {}, ID: {}, 错误: {}", sourceName, id, e.getMessage());
+        }
+    }
+
+    /**
+     * 数据源是否已完成首次加载
+     */
+    public boolean isReady(String sourceName) {
+        return source(sourceName).ready;
+    }
+
+    /**
+     * 获取字段的提示词
+     *
+     * @param sourceName 数据源名称
+     * @param field 字段名称
+     * @param query 用户输入
+     * @param limit 最多返回数量
+     * @return 提示词，字段不存在时返回空列表
+     */
+    public List<String> suggest(String sourceName, String field, String query, int limit) {
+        SuggestionIndex index = source(sourceName).fields.get(field);
+        return index != null ? index.suggest(query, limit) : Collections.emptyList();
+    }
+
+    /**
+     * 合并多个字段的提示词，按字段顺序排列并去重
+     *
+     * @param sourceName 数据源名称
+     * @param fields 字段名称
+     * @param query 用户输入
+     * @param limit 最多返回数量
+     * @return 提示词
+     */
+    public List<String> suggest(String sourceName, List<String> fields, String query, int limit) {
+        Set<String> merged = new LinkedHashSet<>();
+        for (String field : fields) {
+            if (merged.size() >= limit) {
+                break;
+            }
+            merged.addAll(suggest(sourceName, field, query, limit - merged.size()));
+        }
+        return new ArrayList<>(merged);
+    }
+
+    /**
+     * 获取与字段提示词对应的记录ID
+     *
+     * @param sourceName 数据源名称
+     * @param field 字段名称
+     * @param query 用户输入
+     * @param limit 最多匹配的取值数量
+     * @return 记录ID，按提示词的顺序排列
+     */
+    public List<Long> suggestIds(String sourceName, String field, String query, int limit) {
+        SuggestionIndex index = source(sourceName).fields.get(field);
+        return index != null ? index.suggestIds(query, limit) : Collections.emptyList();
+    }
+
+    /**
+     * 获取记录某个字段的当前取值
+     */
+    public String valueOf(String sourceName, String field, Long id) {
+        SuggestionIndex index = source(sourceName).fields.get(field);
+        return index != null ? index.valueOf(id) : null;
+    }
+
+    /**
+     * 获取字段取值等于给定值的记录ID，用于按业务编号（如租赁设备编号）定位记录
+     */
+    public Set<Long> idsOf(String sourceName, String field, String value) {
+        SuggestionIndex index = source(sourceName).fields.get(field);
+        return index != null ? index.idsOf(value) : Collections.emptySet();
+    }
+
+    /**
+     * 获取索引统计信息
+     */
+    public Map<String, Object> getIndexStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        sources.forEach((name, source) -> {
+            Map<String, Object> sourceStats = new LinkedHashMap<>();
+            sourceStats.put("ready", source.ready);
+            sourceStats.put("lastRebuildAt", source.lastRebuildAt);
+            sourceStats.put("lastRebuildMs", source.lastRebuildMs);
+            Map<String, Integer> distinctValues = new LinkedHashMap<>();
+            source.fields.forEach((field, index) -> distinctValues.put(field, index.size()));
+            sourceStats.put("distinctValues", distinctValues);
+            stats.put(name, sourceStats);
+        });
+        return stats;
+    }
+
+    private Source source(String sourceName) {
+        Source source = sources.get(sourceName);
+        if (source == null) {
+            throw new IllegalArgumentException("未知的输入提示数据源: " + sourceName);
+        }
+        return source;
+    }
+
+    private static Long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : Long.valueOf(String.valueOf(value));
+    }
+
+    private static String toText(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    /**
+     * 一个数据源：一张表的若干字段，各字段一个索引
+     */
+    private static final class Source {
+        private final String name;
+        private final BiFunction<Long, Integer, List<Map<String, Object>>> batchLoader;
+        private final Function<Long, Map<String, Object>> rowLoader;
+        private final Map<String, SuggestionIndex> fields = new LinkedHashMap<>();
+
+        private volatile boolean ready;
+        private volatile boolean rebuilding;
+        private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+        private volatile LocalDateTime lastRebuildAt;
+        private volatile long lastRebuildMs;
+
+        Source(String name, BiFunction<Long, Integer, List<Map<String, Object>>> batchLoader,
+               Function<Long, Map<String, Object>> rowLoader, String... fieldNames) {
+            this.name = name;
+            this.batchLoader = batchLoader;
+            this.rowLoader = rowLoader;
+            for (String fieldName : fieldNames) {
+                fields.put(fieldName, new SuggestionIndex());
+            }
+        }
+    }
+}
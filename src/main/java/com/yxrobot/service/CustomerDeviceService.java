@@ -7,7 +7,9 @@ import com.yxrobot.mapper.CustomerDeviceMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -253,6 +255,14 @@ public class CustomerDeviceService {
      * @param dailyRentalFee 日租金（租赁设备时）
      */
     @Transactional
+    @Caching(evict = {
+        @CacheEvict(cacheNames = {
+                "customerDevices", "customerDeviceStats", "customerPurchasedDevices",
+                "customerRentalDevices", "customerActiveDevices",
+                "customerDeviceTypeDistribution", "customerDeviceStatusDistribution"
+        }, key = "#customerId"),
+        @CacheEvict(cacheNames = {"activeDeviceCount", "customerOverview"}, allEntries = true)
+    })
     public void addCustomerDeviceRelation(Long customerId, Long deviceId, String relationType, 
                                          BigDecimal purchasePrice, BigDecimal dailyRentalFee) {
         try {
@@ -298,6 +308,14 @@ public class CustomerDeviceService {
      * @param deviceId 设备ID
      */
     @Transactional
+    @Caching(evict = {
+        @CacheEvict(cacheNames = {
+                "customerDevices", "customerDeviceStats", "customerPurchasedDevices",
+                "customerRentalDevices", "customerActiveDevices",
+                "customerDeviceTypeDistribution", "customerDeviceStatusDistribution"
+        }, key = "#customerId"),
+        @CacheEvict(cacheNames = {"activeDeviceCount", "customerOverview"}, allEntries = true)
+    })
     public void removeCustomerDeviceRelation(Long customerId, Long deviceId) {
         try {
             logger.info("移除客户设备关联: customerId={}, deviceId={}", customerId, deviceId);
@@ -322,6 +340,12 @@ public class CustomerDeviceService {
      * @param status 状态
      */
     @Transactional
+    @CacheEvict(cacheNames = {
+            "customerDevices", "customerDeviceStats", "customerPurchasedDevices",
+            "customerRentalDevices", "customerActiveDevices",
+            "customerDeviceTypeDistribution", "customerDeviceStatusDistribution",
+            "activeDeviceCount", "customerOverview"
+    }, allEntries = true)
     public void updateDeviceRelationStatus(Long relationId, Integer status) {
         try {
             logger.info("更新设备关联状态: relationId={}, status={}", relationId, status);
@@ -2,6 +2,7 @@ package com.yxrobot.service;
 
 import com.yxrobot.dto.CustomerQueryDTO;
 import com.yxrobot.dto.CustomerDTO;
+import com.yxrobot.util.PopularQueryTracker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -39,8 +40,8 @@ public class CustomerSearchOptimizationService {
     // 搜索性能统计
     private final Map<String, SearchPerformanceStats> performanceStats = new HashMap<>();
     
-    // 热门搜索关键词
-    private final Map<String, Integer> popularKeywords = new HashMap<>();
+    // 热门搜索关键词（固定内存的频率估算，不随关键词数量增长）
+    private final PopularQueryTracker popularKeywords = new PopularQueryTracker(200, 10000);
     
     // 搜索建议缓存
     private final Map<String, List<String>> suggestionCache = new HashMap<>();
@@ -339,9 +340,8 @@ public class CustomerSearchOptimizationService {
      * 基于历史搜索生成建议
      */
     private List<String> generateHistoryBasedSuggestions(String keyword) {
-        return popularKeywords.keySet().stream()
-                .filter(k -> k.toLowerCase().contains(keyword.toLowerCase()))
-                .sorted((k1, k2) -> popularKeywords.get(k2).compareTo(popularKeywords.get(k1)))
+        return popularKeywords.top(200).keySet().stream()
+                .filter(k -> k.contains(keyword.toLowerCase()))
                 .limit(5)
                 .collect(java.util.stream.Collectors.toList());
     }
@@ -453,7 +453,7 @@ public class CustomerSearchOptimizationService {
      */
     private void recordPopularKeyword(String keyword) {
         if (StringUtils.hasText(keyword) && keyword.length() >= 2) {
-            popularKeywords.merge(keyword.toLowerCase(), 1, Integer::sum);
+            popularKeywords.record(keyword.toLowerCase());
         }
     }
     
@@ -461,33 +461,21 @@ public class CustomerSearchOptimizationService {
      * 检查是否为热门关键词
      */
     private boolean isPopularKeyword(String keyword) {
-        return popularKeywords.getOrDefault(keyword.toLowerCase(), 0) >= 10;
+        return popularKeywords.estimate(keyword.toLowerCase()) >= 10;
     }
     
     /**
      * 获取热门关键词列表
      */
     public List<String> getPopularKeywords(Integer limit) {
-        return popularKeywords.entrySet().stream()
-                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
-                .limit(limit != null ? limit : 10)
-                .map(Map.Entry::getKey)
-                .collect(java.util.stream.Collectors.toList());
+        return new ArrayList<>(popularKeywords.top(limit != null ? limit : 10).keySet());
     }
     
     /**
      * 获取TOP热门关键词
      */
     private Map<String, Integer> getTopPopularKeywords(int limit) {
-        return popularKeywords.entrySet().stream()
-                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
-                .limit(limit)
-                .collect(java.util.stream.Collectors.toMap(
-                    Map.Entry::getKey,
-                    Map.Entry::getValue,
-                    (e1, e2) -> e1,
-                    LinkedHashMap::new
-                ));
+        return popularKeywords.top(limit);
     }
     
     // ==================== 工具方法 ====================
@@ -8,6 +8,7 @@ import com.yxrobot.entity.Customer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
@@ -18,7 +19,7 @@ import java.util.Collections;
 
 /**
  * 客户服务类
- * 提供客户相关的业务操作
+ * 提供客户相关的业务操作，写操作清除 CustomerStatsService 的统计缓存
  */
 @Service
 public class CustomerService {
@@ -29,12 +30,19 @@ public class CustomerService {
     // @Autowired
     // private CustomerMapper customerMapper;
     
+    @Autowired
+    private AutocompleteIndex autocompleteIndex;
+    
     /**
      * 创建客户
      * 
      * @param createDTO 客户创建信息
      * @return 创建的客户信息
      */
+    @CacheEvict(cacheNames = {
+            "customerLevelDistribution", "customerStatusDistribution", "customerRegionDistribution",
+            "newCustomersThisMonth", "activeDeviceCount", "totalRevenue", "customerOverview", "customerTrend"
+    }, allEntries = true)
     public CustomerDTO createCustomer(CustomerCreateDTO createDTO) {
         try {
             // TODO: 实际实现应该插入数据库
@@ -50,6 +58,7 @@ public class CustomerService {
             customer.setCustomerStatus(createDTO.getStatus());
             
             logger.debug("创建客户: {}", createDTO.getName());
+            autocompleteIndex.refreshAfterCommit(AutocompleteIndex.CUSTOMER, customer.getId());
             return customer;
             
         } catch (Exception e) {
@@ -64,6 +73,10 @@ public class CustomerService {
      * @param createDTO 客户创建信息
      * @return 创建的客户实体
      */
+    @CacheEvict(cacheNames = {
+            "customerLevelDistribution", "customerStatusDistribution", "customerRegionDistribution",
+            "newCustomersThisMonth", "activeDeviceCount", "totalRevenue", "customerOverview", "customerTrend"
+    }, allEntries = true)
     public Customer createCustomerFromDTO(CustomerCreateDTO createDTO) {
         try {
             // TODO: 实际实现应该插入数据库
@@ -176,6 +189,10 @@ public class CustomerService {
      * @param updateDTO 更新信息
      * @return 更新后的客户信息
      */
+    @CacheEvict(cacheNames = {
+            "customerLevelDistribution", "customerStatusDistribution", "customerRegionDistribution",
+            "newCustomersThisMonth", "activeDeviceCount", "totalRevenue", "customerOverview", "customerTrend"
+    }, allEntries = true)
     public CustomerDTO updateCustomer(Long customerId, CustomerUpdateDTO updateDTO) {
         if (customerId == null || customerId <= 0) {
             return null;
@@ -192,6 +209,7 @@ public class CustomerService {
             customer.setLevel("regular");
             
             logger.debug("更新客户信息: {}", customerId);
+            autocompleteIndex.refreshAfterCommit(AutocompleteIndex.CUSTOMER, customerId);
             return customer;
             
         } catch (Exception e) {
@@ -207,6 +225,10 @@ public class CustomerService {
      * @param updateDTO 更新信息
      * @return 更新后的客户实体
      */
+    @CacheEvict(cacheNames = {
+            "customerLevelDistribution", "customerStatusDistribution", "customerRegionDistribution",
+            "newCustomersThisMonth", "activeDeviceCount", "totalRevenue", "customerOverview", "customerTrend"
+    }, allEntries = true)
     public Customer updateCustomerFromDTO(Long customerId, CustomerUpdateDTO updateDTO) {
         if (customerId == null || customerId <= 0) {
             return null;
@@ -234,6 +256,10 @@ public class CustomerService {
      * 
      * @param customerId 客户ID
      */
+    @CacheEvict(cacheNames = {
+            "customerLevelDistribution", "customerStatusDistribution", "customerRegionDistribution",
+            "newCustomersThisMonth", "activeDeviceCount", "totalRevenue", "customerOverview", "customerTrend"
+    }, allEntries = true)
     public void deleteCustomer(Long customerId) {
         if (customerId == null || customerId <= 0) {
             return;
@@ -243,6 +269,7 @@ public class CustomerService {
             // TODO: 实际实现应该删除数据库记录
             
             logger.debug("删除客户: {}", customerId);
+            autocompleteIndex.refreshAfterCommit(AutocompleteIndex.CUSTOMER, customerId);
             
         } catch (Exception e) {
             logger.error("删除客户时发生异常", e);
@@ -421,11 +448,35 @@ public class CustomerService {
      */
     public List<Map<String, Object>> getSearchSuggestions(String keyword, Integer limit) {
         try {
-            // TODO: 实际实现应该查询数据库
-            
-            // 临时实现：返回空列表
             logger.debug("获取搜索建议: keyword={}, limit={}", keyword, limit);
-            return Collections.emptyList();
+            if (keyword == null || keyword.trim().isEmpty() || !autocompleteIndex.isReady(AutocompleteIndex.CUSTOMER)) {
+                return Collections.emptyList();
+            }
+            int max = limit != null && limit > 0 ? Math.min(limit, 50) : 10;
+            
+            // 先匹配客户名称，不足时再匹配电话
+            List<Map<String, Object>> suggestions = new ArrayList<>();
+            for (String name : autocompleteIndex.suggest(AutocompleteIndex.CUSTOMER, "name", keyword, max)) {
+                Map<String, Object> suggestion = new HashMap<>();
+                suggestion.put("type", "name");
+                suggestion.put("value", name);
+                suggestion.put("name", name);
+                suggestions.add(suggestion);
+            }
+            if (suggestions.size() < max) {
+                for (Long id : autocompleteIndex.suggestIds(AutocompleteIndex.CUSTOMER, "phone", keyword, max - suggestions.size())) {
+                    Map<String, Object> suggestion = new HashMap<>();
+                    suggestion.put("type", "phone");
+                    suggestion.put("id", id);
+                    suggestion.put("value", autocompleteIndex.valueOf(AutocompleteIndex.CUSTOMER, "phone", id));
+                    suggestion.put("name", autocompleteIndex.valueOf(AutocompleteIndex.CUSTOMER, "name", id));
+                    suggestions.add(suggestion);
+                    if (suggestions.size() >= max) {
+                        break;
+                    }
+                }
+            }
+            return suggestions;
             
         } catch (Exception e) {
             logger.error("获取搜索建议时发生异常", e);
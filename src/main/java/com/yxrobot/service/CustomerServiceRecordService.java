@@ -7,7 +7,11 @@ import com.yxrobot.mapper.CustomerServiceRecordMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,6 +20,7 @@ import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * 客户服务记录服务类
@@ -40,6 +45,21 @@ public class CustomerServiceRecordService {
     @Autowired
     private CustomerServiceRecordMapper customerServiceRecordMapper;
     
+    @Autowired
+    private CacheManager cacheManager;
+    
+    /**
+     * 以客户ID为键的服务记录缓存区域，与写操作上 @CacheEvict 的区域一致
+     */
+    private static final String[] CUSTOMER_KEYED_CACHES = {
+        "customerServiceRecords", "customerServiceStats",
+        "customerMaintenanceRecords", "customerUpgradeRecords",
+        "customerConsultationRecords", "customerComplaintRecords",
+        "customerCompletedServices", "customerInProgressServices",
+        "customerUrgentServices", "customerHighPriorityServices",
+        "customerServiceStatusDistribution", "customerServiceTypeDistribution"
+    };
+    
     /**
      * 服务记录信息内部类 - 用于返回给前端
      */
@@ -566,4 +586,181 @@ public class CustomerServiceRecordService {
             return List.of();
         }
     }
-}
\ No newline at end of file
+    
+    // ==================== 服务记录关联维护 ====================
+    // 写操作会清除该客户的全部服务记录缓存；最近记录和月度统计的键包含参数，整体清除
+    
+    /**
+     * 创建客户服务记录关联
+     * @param record 服务记录关联
+     * @return 创建后的关联记录
+     */
+    @Transactional
+    @Caching(evict = {
+        @CacheEvict(cacheNames = {
+            "customerServiceRecords", "customerServiceStats",
+            "customerMaintenanceRecords", "customerUpgradeRecords",
+            "customerConsultationRecords", "customerComplaintRecords",
+            "customerCompletedServices", "customerInProgressServices",
+            "customerUrgentServices", "customerHighPriorityServices",
+            "customerServiceStatusDistribution", "customerServiceTypeDistribution"
+        }, key = "#record.customerId"),
+        @CacheEvict(cacheNames = {"customerRecentServices", "customerMonthlyServiceStats"}, allEntries = true)
+    })
+    public CustomerServiceRecord createServiceRecord(CustomerServiceRecord record) {
+        validateServiceRecord(record);
+        
+        try {
+            logger.info("创建客户服务记录关联: customerId={}, serviceRecordId={}", 
+                       record.getCustomerId(), record.getServiceRecordId());
+            
+            if (record.getStatus() == null) {
+                record.setStatus(1);
+            }
+            customerServiceRecordMapper.insert(record);
+            
+            return record;
+            
+        } catch (Exception e) {
+            logger.error("创建客户服务记录关联失败: customerId={}", record.getCustomerId(), e);
+            throw new RuntimeException("创建客户服务记录关联失败: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * 更新客户服务记录关联
+     * 关联转到其他客户时，同时清除原客户的缓存
+     * @param record 服务记录关联（需包含id和customerId）
+     */
+    @Transactional
+    @Caching(evict = {
+        @CacheEvict(cacheNames = {
+            "customerServiceRecords", "customerServiceStats",
+            "customerMaintenanceRecords", "customerUpgradeRecords",
+            "customerConsultationRecords", "customerComplaintRecords",
+            "customerCompletedServices", "customerInProgressServices",
+            "customerUrgentServices", "customerHighPriorityServices",
+            "customerServiceStatusDistribution", "customerServiceTypeDistribution"
+        }, key = "#record.customerId"),
+        @CacheEvict(cacheNames = {"customerRecentServices", "customerMonthlyServiceStats"}, allEntries = true)
+    })
+    public void updateServiceRecord(CustomerServiceRecord record) {
+        validateServiceRecord(record);
+        if (record.getId() == null) {
+            throw new IllegalArgumentException("服务记录关联ID不能为空");
+        }
+        
+        try {
+            logger.info("更新客户服务记录关联: id={}, customerId={}", record.getId(), record.getCustomerId());
+            
+            CustomerServiceRecord existing = customerServiceRecordMapper.selectById(record.getId());
+            int updatedCount = customerServiceRecordMapper.updateById(record);
+            if (updatedCount == 0) {
+                throw new RuntimeException("服务记录关联不存在或更新失败");
+            }
+            if (existing != null && !Objects.equals(existing.getCustomerId(), record.getCustomerId())) {
+                evictCustomerCaches(existing.getCustomerId());
+            }
+            
+        } catch (Exception e) {
+            logger.error("更新客户服务记录关联失败: id={}", record.getId(), e);
+            throw new RuntimeException("更新客户服务记录关联失败: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * 删除客户服务记录关联
+     * @param customerId 客户ID
+     * @param serviceRecordId 服务记录ID
+     */
+    @Transactional
+    @Caching(evict = {
+        @CacheEvict(cacheNames = {
+            "customerServiceRecords", "customerServiceStats",
+            "customerMaintenanceRecords", "customerUpgradeRecords",
+            "customerConsultationRecords", "customerComplaintRecords",
+            "customerCompletedServices", "customerInProgressServices",
+            "customerUrgentServices", "customerHighPriorityServices",
+            "customerServiceStatusDistribution", "customerServiceTypeDistribution"
+        }, key = "#customerId"),
+        @CacheEvict(cacheNames = {"customerRecentServices", "customerMonthlyServiceStats"}, allEntries = true)
+    })
+    public void deleteServiceRecord(Long customerId, Long serviceRecordId) {
+        try {
+            logger.info("删除客户服务记录关联: customerId={}, serviceRecordId={}", customerId, serviceRecordId);
+            
+            int deletedCount = customerServiceRecordMapper.deleteByCustomerAndService(customerId, serviceRecordId);
+            if (deletedCount == 0) {
+                throw new RuntimeException("服务记录关联不存在或已删除");
+            }
+            
+        } catch (Exception e) {
+            logger.error("删除客户服务记录关联失败: customerId={}, serviceRecordId={}", customerId, serviceRecordId, e);
+            throw new RuntimeException("删除客户服务记录关联失败: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * 查询属于指定客户的服务记录关联
+     * @param customerId 客户ID
+     * @param relationId 服务记录关联ID
+     * @return 服务记录关联
+     * @throws IllegalArgumentException 关联不存在或不属于该客户
+     */
+    public CustomerServiceRecord getServiceRecordRelation(Long customerId, Long relationId) {
+        CustomerServiceRecord relation = relationId != null ? customerServiceRecordMapper.selectById(relationId) : null;
+        if (relation == null || !Objects.equals(relation.getCustomerId(), customerId)) {
+            throw new IllegalArgumentException("服务记录关联不存在，客户ID: " + customerId + ", 关联ID: " + relationId);
+        }
+        return relation;
+    }
+    
+    /**
+     * 按关联ID删除客户服务记录关联
+     * @param customerId 客户ID
+     * @param relationId 服务记录关联ID
+     * @throws IllegalArgumentException 关联不存在或不属于该客户
+     */
+    @Transactional
+    @Caching(evict = {
+        @CacheEvict(cacheNames = {
+            "customerServiceRecords", "customerServiceStats",
+            "customerMaintenanceRecords", "customerUpgradeRecords",
+            "customerConsultationRecords", "customerComplaintRecords",
+            "customerCompletedServices", "customerInProgressServices",
+            "customerUrgentServices", "customerHighPriorityServices",
+            "customerServiceStatusDistribution", "customerServiceTypeDistribution"
+        }, key = "#customerId"),
+        @CacheEvict(cacheNames = {"customerRecentServices", "customerMonthlyServiceStats"}, allEntries = true)
+    })
+    public void deleteServiceRecordRelation(Long customerId, Long relationId) {
+        getServiceRecordRelation(customerId, relationId);
+        logger.info("删除客户服务记录关联: customerId={}, relationId={}", customerId, relationId);
+        
+        int deletedCount = customerServiceRecordMapper.deleteById(relationId);
+        if (deletedCount == 0) {
+            throw new RuntimeException("服务记录关联不存在或已删除");
+        }
+    }
+    
+    /**
+     * 清除指定客户的服务记录缓存（新客户的缓存由 @CacheEvict 清除）
+     */
+    private void evictCustomerCaches(Long customerId) {
+        for (String cacheName : CUSTOMER_KEYED_CACHES) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.evict(customerId);
+            }
+        }
+    }
+    
+    private void validateServiceRecord(CustomerServiceRecord record) {
+        if (record == null || record.getCustomerId() == null || record.getCustomerId() <= 0) {
+            throw new IllegalArgumentException("客户ID无效");
+        }
+        if (record.getServiceRecordId() == null) {
+            throw new IllegalArgumentException("服务记录ID不能为空");
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package com.yxrobot.service;
 
+import com.yxrobot.cache.CustomerCacheService;
 import com.yxrobot.dto.CustomerStatsDTO;
 import com.yxrobot.mapper.CustomerMapper;
 import com.yxrobot.mapper.CustomerStatsMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -42,47 +44,57 @@ public class CustomerStatsService {
     @Autowired
     private CustomerStatsMapper customerStatsMapper;
     
+    @Autowired
+    private CustomerCacheService customerCacheService;
+    
     /**
      * 获取客户统计数据（支持前端统计卡片）
      * 包含：总客户数、等级分布、活跃设备、总收入等
-     * 使用缓存提高性能，缓存时间5分钟
+     * 使用缓存提高性能，缓存时间5分钟；并发未命中只查询一次，临近过期时后台刷新
      * @return 客户统计数据
      */
-    @Cacheable(value = "customerStats", key = "'current'", unless = "#result == null")
     public CustomerStatsDTO getCustomerStats() {
         try {
-            logger.debug("开始获取客户统计数据");
-            
-            // 优先使用实时计算的统计数据，确保数据准确性
-            CustomerStatsDTO stats = customerStatsMapper.calculateRealTimeStats();
-            
-            // 如果实时计算失败，尝试从统计表获取最新数据
-            if (stats == null) {
-                logger.warn("实时统计计算失败，尝试从统计表获取数据");
-                stats = customerStatsMapper.selectStatsDTO();
-            }
-            
-            // 如果仍然没有数据，返回零值统计（空状态处理）
-            if (stats == null) {
-                logger.info("数据库中暂无客户数据，返回零值统计");
-                stats = createEmptyStats();
-            }
-            
-            // 验证和修正数据
-            validateAndFixStats(stats);
-            
-            logger.debug("客户统计数据获取完成: 总数={}, VIP={}, 高级={}", 
-                        stats.getTotal(), stats.getVip(), stats.getPremium());
-            
-            return stats;
+            return customerCacheService.getCustomerStats(this::loadCustomerStats);
             
         } catch (Exception e) {
             logger.error("获取客户统计数据失败", e);
-            // 发生异常时返回空统计，确保前端页面正常显示
+            // 发生异常时返回空统计（不写入缓存），确保前端页面正常显示
             return createEmptyStats();
         }
     }
     
+    /**
+     * 从数据库加载客户统计数据
+     * @return 客户统计数据
+     */
+    private CustomerStatsDTO loadCustomerStats() {
+        logger.debug("开始获取客户统计数据");
+        
+        // 优先使用实时计算的统计数据，确保数据准确性
+        CustomerStatsDTO stats = customerStatsMapper.calculateRealTimeStats();
+        
+        // 如果实时计算失败，尝试从统计表获取最新数据
+        if (stats == null) {
+            logger.warn("实时统计计算失败，尝试从统计表获取数据");
+            stats = customerStatsMapper.selectStatsDTO();
+        }
+        
+        // 如果仍然没有数据，返回零值统计（空状态处理）
+        if (stats == null) {
+            logger.info("数据库中暂无客户数据，返回零值统计");
+            stats = createEmptyStats();
+        }
+        
+        // 验证和修正数据
+        validateAndFixStats(stats);
+        
+        logger.debug("客户统计数据获取完成: 总数={}, VIP={}, 高级={}", 
+                    stats.getTotal(), stats.getVip(), stats.getPremium());
+        
+        return stats;
+    }
+    
     /**
      * 创建空的统计数据（用于空状态处理）
      * @return 零值统计数据
@@ -313,6 +325,10 @@ public class CustomerStatsService {
      * 基于消费金额和设备数量自动调整客户等级
      * @param customerId 客户ID
      */
+    @CacheEvict(cacheNames = {
+            "customerLevelDistribution", "customerStatusDistribution", "customerRegionDistribution",
+            "newCustomersThisMonth", "activeDeviceCount", "totalRevenue", "customerOverview", "customerTrend"
+    }, allEntries = true)
     public void autoUpgradeCustomerLevel(Long customerId) {
         Map<String, Object> stats = customerMapper.selectCustomerFullStats(customerId);
         
@@ -426,6 +442,10 @@ public class CustomerStatsService {
      * 用于数据更新后立即刷新统计
      */
     @Transactional
+    @CacheEvict(cacheNames = {
+            "customerLevelDistribution", "customerStatusDistribution", "customerRegionDistribution",
+            "newCustomersThisMonth", "activeDeviceCount", "totalRevenue", "customerOverview", "customerTrend"
+    }, allEntries = true)
     public void refreshStatsCache() {
         try {
             logger.info("开始刷新客户统计数据缓存");
@@ -433,8 +453,8 @@ public class CustomerStatsService {
             // 生成今日统计数据
             customerStatsMapper.generateTodayStats();
             
-            // 这里可以添加缓存清理逻辑
-            // cacheManager.getCache("customerStats").clear();
+            // 清除统计缓存，下一次请求重新加载
+            customerCacheService.clearCustomerStatsCache();
             
             logger.info("客户统计数据缓存刷新完成");
             
@@ -0,0 +1,316 @@
+package com.yxrobot.service;
+
+import com.yxrobot.dto.CustomerQueryDTO;
+import com.yxrobot.dto.OrderQueryDTO;
+import com.yxrobot.dto.SalesRecordQueryDTO;
+import com.yxrobot.entity.CustomerLevel;
+import com.yxrobot.entity.CustomerStatus;
+import com.yxrobot.entity.LogCategory;
+import com.yxrobot.entity.LogLevel;
+import com.yxrobot.entity.OrderStatus;
+import com.yxrobot.entity.OrderType;
+import com.yxrobot.entity.SalesStatus;
+import com.yxrobot.enums.CustomerType;
+import com.yxrobot.enums.ExportFormat;
+import com.yxrobot.enums.PaymentStatus;
+import com.yxrobot.mapper.CustomerMapper;
+import com.yxrobot.mapper.LinkClickLogMapper;
+import com.yxrobot.mapper.ManagedDeviceLogMapper;
+import com.yxrobot.mapper.OrderMapper;
+import com.yxrobot.mapper.SalesRecordMapper;
+import com.yxrobot.util.RowStreamWriter;
+import org.apache.ibatis.session.ResultHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * 数据导出服务
+ * 订单和客户导出使用 MyBatis ResultHandler 流式读取，每读到一行就写入输出流，
+ * 结果集和已写出的行都不保留在内存中，导出行数不影响内存占用；
+ * 每写出 {@link #FLUSH_INTERVAL} 行推送一次，客户端在查询结束前就开始收到数据。
+ * 查询或写出中途失败时不写出文件结尾、不关闭输出流，异常抛给调用方，避免生成看似完整的残缺文件。
+ * 设备日志、点击日志和销售记录数据量大，由 {@link ExportJobService} 在后台任务中调用并写入文件。
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-27
+ */
+@Service
+public class DataExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataExportService.class);
+
+    static final int FLUSH_INTERVAL = 500;
+
+    static final List<Column> ORDER_COLUMNS = Arrays.asList(
+        new Column("orderNumber", "订单号"),
+        new Column("type", "订单类型", labels(OrderType.values(), OrderType::getCode, OrderType::getName)),
+        new Column("status", "订单状态", labels(OrderStatus.values(), OrderStatus::getCode, OrderStatus::getDescription)),
+        new Column("customerName", "客户名称"),
+        new Column("subtotal", "小计"),
+        new Column("shippingFee", "运费"),
+        new Column("discount", "折扣"),
+        new Column("totalAmount", "订单金额"),
+        new Column("currency", "币种"),
+        new Column("paymentStatus", "支付状态", labels(PaymentStatus.values(), PaymentStatus::getCode, PaymentStatus::getDescription)),
+        new Column("paymentMethod", "支付方式"),
+        new Column("paymentTime", "支付时间"),
+        new Column("salesPerson", "销售人员"),
+        new Column("deliveryAddress", "配送地址"),
+        new Column("createdAt", "创建时间")
+    );
+
+    static final List<Column> CUSTOMER_COLUMNS = Arrays.asList(
+        new Column("customerName", "客户名称"),
+        new Column("customerType", "客户类型", labels(CustomerType.values(), CustomerType::getCode, CustomerType::getDescription)),
+        new Column("customerLevel", "客户等级", labels(CustomerLevel.values(), CustomerLevel::getCode, CustomerLevel::getName)),
+        new Column("customerStatus", "客户状态", labels(CustomerStatus.values(), CustomerStatus::getCode, CustomerStatus::getName)),
+        new Column("contactPerson", "联系人"),
+        new Column("phone", "电话"),
+        new Column("email", "邮箱"),
+        new Column("region", "地区"),
+        new Column("address", "地址"),
+        new Column("industry", "行业"),
+        new Column("creditLevel", "信用等级"),
+        new Column("totalSpent", "累计消费"),
+        new Column("customerValue", "客户价值"),
+        new Column("registeredAt", "注册时间"),
+        new Column("lastActiveAt", "最后活跃时间")
+    );
+
+    static final List<Column> DEVICE_LOG_COLUMNS = Arrays.asList(
+        new Column("timestamp", "时间"),
+        new Column("level", "级别", labels(LogLevel.values(), LogLevel::name, LogLevel::getName)),
+        new Column("category", "分类", labels(LogCategory.values(), LogCategory::name, LogCategory::getName)),
+        new Column("message", "内容"),
+        new Column("details", "详情")
+    );
+
+    static final List<Column> CLICK_LOG_COLUMNS = Arrays.asList(
+        new Column("linkId", "链接ID"),
+        new Column("clickedAt", "点击时间"),
+        new Column("userIp", "IP地址"),
+        new Column("userAgent", "User-Agent"),
+        new Column("referer", "来源"),
+        new Column("isConversion", "是否转化"),
+        new Column("conversionType", "转化类型"),
+        new Column("conversionValue", "转化价值")
+    );
+
+    static final List<Column> SALES_RECORD_COLUMNS = Arrays.asList(
+        new Column("orderNumber", "订单号"),
+        new Column("orderDate", "订单日期"),
+        new Column("customerName", "客户名称"),
+        new Column("productName", "产品名称"),
+        new Column("salesStaffName", "销售人员"),
+        new Column("quantity", "数量"),
+        new Column("unitPrice", "单价"),
+        new Column("discountAmount", "折扣金额"),
+        new Column("salesAmount", "销售金额"),
+        new Column("status", "订单状态", labels(SalesStatus.values(), SalesStatus::getValue, SalesStatus::getDescription)),
+        new Column("paymentStatus", "支付状态", labels(PaymentStatus.values(), PaymentStatus::getCode, PaymentStatus::getDescription)),
+        new Column("paymentMethod", "支付方式"),
+        new Column("region", "地区"),
+        new Column("channel", "渠道"),
+        new Column("deliveryDate", "交付日期"),
+        new Column("createdAt", "创建时间")
+    );
+
+    @Autowired
+    private OrderMapper orderMapper;
+
+    @Autowired
+    private CustomerMapper customerMapper;
+
+    @Autowired
+    private ManagedDeviceLogMapper managedDeviceLogMapper;
+
+    @Autowired
+    private LinkClickLogMapper linkClickLogMapper;
+
+    @Autowired
+    private SalesRecordMapper salesRecordMapper;
+
+    /**
+     * 导出订单
+     *
+     * @param queryDTO 筛选条件（关键词、类型、状态、日期范围），不分页
+     * @param format 导出格式
+     * @param out 输出流，导出完成后关闭
+     * @return 导出行数
+     */
+    public long exportOrders(OrderQueryDTO queryDTO, ExportFormat format, OutputStream out) throws IOException {
+        return export("订单", ORDER_COLUMNS, format, out, null, handler -> orderMapper.selectForExport(
+            queryDTO.getKeyword(), queryDTO.getType(), queryDTO.getStatus(),
+            queryDTO.getStartDate(), queryDTO.getEndDate(), handler));
+    }
+
+    /**
+     * 导出客户
+     *
+     * @param queryDTO 筛选条件和排序，忽略分页参数
+     * @param format 导出格式
+     * @param out 输出流，导出完成后关闭
+     * @return 导出行数
+     */
+    public long exportCustomers(CustomerQueryDTO queryDTO, ExportFormat format, OutputStream out) throws IOException {
+        return export("客户", CUSTOMER_COLUMNS, format, out, null, handler -> customerMapper.selectForExport(queryDTO, handler));
+    }
+
+    /**
+     * 导出设备日志
+     *
+     * @param deviceId 设备ID
+     * @param level 日志级别（可选）
+     * @param category 日志分类（可选）
+     * @param startDate 开始时间（可选）
+     * @param endDate 结束时间（可选）
+     * @param format 导出格式
+     * @param out 输出流，导出完成后关闭
+     * @param progress 每推送一批后回调已写出的行数（可为空）
+     * @return 导出行数
+     */
+    public long exportDeviceLogs(Long deviceId, String level, String category, LocalDateTime startDate,
+                                 LocalDateTime endDate, ExportFormat format, OutputStream out,
+                                 LongConsumer progress) throws IOException {
+        return export("设备日志", DEVICE_LOG_COLUMNS, format, out, progress, handler -> managedDeviceLogMapper
+            .selectForExport(deviceId, level, category, startDate, endDate, handler));
+    }
+
+    /**
+     * 导出链接点击日志
+     *
+     * @param linkId 链接ID（可选，为空时导出全部链接）
+     * @param startTime 开始时间（可选）
+     * @param endTime 结束时间（可选）
+     * @param format 导出格式
+     * @param out 输出流，导出完成后关闭
+     * @param progress 每推送一批后回调已写出的行数（可为空）
+     * @return 导出行数
+     */
+    public long exportClickLogs(Long linkId, LocalDateTime startTime, LocalDateTime endTime, ExportFormat format,
+                                OutputStream out, LongConsumer progress) throws IOException {
+        return export("点击日志", CLICK_LOG_COLUMNS, format, out, progress, handler -> linkClickLogMapper
+            .selectForExport(linkId, startTime, endTime, handler));
+    }
+
+    /**
+     * 导出销售记录
+     *
+     * @param queryDTO 筛选条件和排序，忽略分页参数
+     * @param format 导出格式
+     * @param out 输出流，导出完成后关闭
+     * @param progress 每推送一批后回调已写出的行数（可为空）
+     * @return 导出行数
+     */
+    public long exportSalesRecords(SalesRecordQueryDTO queryDTO, ExportFormat format, OutputStream out,
+                                   LongConsumer progress) throws IOException {
+        return export("销售记录", SALES_RECORD_COLUMNS, format, out, progress,
+                      handler -> salesRecordMapper.selectForExport(queryDTO, handler));
+    }
+
+    private long export(String sheetName, List<Column> columns, ExportFormat format, OutputStream out,
+                        LongConsumer progress, Consumer<ResultHandler<Map<String, Object>>> query) throws IOException {
+        long start = System.currentTimeMillis();
+        long[] rows = {0};
+        IOException[] writeError = {null};
+        RowStreamWriter writer = RowStreamWriter.create(format, out, sheetName);
+        boolean completed = false;
+        try {
+            writer.writeRow(columns.stream().map(Column::getTitle).collect(Collectors.toList()));
+            query.accept(context -> {
+                try {
+                    writer.writeRow(toRow(columns, context.getResultObject()));
+                    if (++rows[0] % FLUSH_INTERVAL == 0) {
+                        writer.flush();
+                        if (progress != null) {
+                            progress.accept(rows[0]);
+                        }
+                    }
+                } catch (IOException e) {
+                    // 客户端断开时停止读取结果集
+                    writeError[0] = e;
+                    context.stop();
+                }
+            });
+            if (writeError[0] != null) {
+                throw writeError[0];
+            }
+            completed = true;
+        } finally {
+            if (completed) {
+                writer.close();
+            } else {
+                logger.warn("导出{}中途失败，放弃写出文件结尾 - 已写出行数: {}", sheetName, rows[0]);
+                writer.abort();
+            }
+        }
+        logger.info("导出{}完成 - 格式: {}, 行数: {}, 耗时: {}ms", sheetName, format.getCode(), rows[0],
+                    System.currentTimeMillis() - start);
+        return rows[0];
+    }
+
+    static List<Object> toRow(List<Column> columns, Map<String, Object> record) {
+        List<Object> row = new ArrayList<>(columns.size());
+        for (Column column : columns) {
+            row.add(column.valueOf(record.get(column.getKey())));
+        }
+        return row;
+    }
+
+    private static <E> Map<String, String> labels(E[] values, Function<E, String> code, Function<E, String> label) {
+        Map<String, String> labels = new HashMap<>();
+        for (E value : values) {
+            labels.put(code.apply(value), label.apply(value));
+        }
+        return labels;
+    }
+
+    /**
+     * 导出列：查询结果中的键、表头，以及代码值到中文名称的映射（可为空）
+     */
+    static class Column {
+        private final String key;
+        private final String title;
+        private final Map<String, String> labels;
+
+        Column(String key, String title) {
+            this(key, title, null);
+        }
+
+        Column(String key, String title, Map<String, String> labels) {
+            this.key = key;
+            this.title = title;
+            this.labels = labels;
+        }
+
+        String getKey() {
+            return key;
+        }
+
+        String getTitle() {
+            return title;
+        }
+
+        Object valueOf(Object value) {
+            if (value == null || labels == null) {
+                return value;
+            }
+            return labels.getOrDefault(value.toString(), value.toString());
+        }
+    }
+}
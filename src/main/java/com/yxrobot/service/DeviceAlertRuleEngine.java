@@ -0,0 +1,387 @@
+package com.yxrobot.service;
+
+import com.yxrobot.entity.AlertLevel;
+import com.yxrobot.entity.DeviceAlert;
+import com.yxrobot.entity.DeviceNetworkStatus;
+import com.yxrobot.entity.DevicePerformanceMetrics;
+import com.yxrobot.mapper.DeviceAlertMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 设备告警流式规则引擎
+ * 性能指标/网络状态样本写入时即按规则评估，替代按固定周期轮询数据库
+ *
+ * 每条规则按设备维护滑动时间窗口，窗口均值越过触发阈值（且样本数足够）时产生告警，
+ * 回落到恢复阈值后才重新布防（滞回），避免在阈值附近反复告警；
+ * 同一设备同一类型的告警在抑制时间内只产生一次。
+ * 告警先放入待写入队列，定时批量去重（跳过已有未解决告警）后批量插入。
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-19
+ */
+@Service
+public class DeviceAlertRuleEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceAlertRuleEngine.class);
+
+    /** 超过该时间没有新样本的设备规则状态会被清理 */
+    private static final long STATE_IDLE_NANOS = TimeUnit.HOURS.toNanos(1);
+
+    @Autowired
+    private DeviceAlertMapper deviceAlertMapper;
+
+    @Value("${yxrobot.device-alert.suppress-minutes:30}")
+    private long suppressMinutes = 30;
+
+    @Value("${yxrobot.device-alert.batch-size:500}")
+    private int batchSize = 500;
+
+    private final List<AlertRule<DevicePerformanceMetrics>> performanceRules = Arrays.asList(
+        AlertRule.above("HIGH_CPU_USAGE", DevicePerformanceMetrics::getCpuUsage, 85, 75,
+                        Duration.ofMinutes(5), 3, v -> AlertLevel.WARNING,
+                        v -> String.format("设备CPU使用率过高: %.1f%%", v)),
+        AlertRule.above("HIGH_MEMORY_USAGE", DevicePerformanceMetrics::getMemoryUsage, 90, 80,
+                        Duration.ofMinutes(5), 3, v -> AlertLevel.WARNING,
+                        v -> String.format("设备内存使用率过高: %.1f%%", v)),
+        AlertRule.above("HIGH_DISK_USAGE", DevicePerformanceMetrics::getDiskUsage, 85, 80,
+                        Duration.ofMinutes(10), 1, v -> AlertLevel.WARNING,
+                        v -> String.format("设备磁盘使用率过高: %.1f%%", v)),
+        AlertRule.above("HIGH_TEMPERATURE", DevicePerformanceMetrics::getTemperature, 75, 70,
+                        Duration.ofMinutes(3), 2, v -> v > 85 ? AlertLevel.ERROR : AlertLevel.WARNING,
+                        v -> String.format("设备温度过高: %.1f°C", v)),
+        AlertRule.below("LOW_BATTERY", DevicePerformanceMetrics::getBatteryLevel, 20, 25,
+                        Duration.ofMinutes(5), 1, v -> v < 10 ? AlertLevel.ERROR : AlertLevel.WARNING,
+                        v -> String.format("设备电池电量过低: %.1f%%", v))
+    );
+
+    private final List<AlertRule<DeviceNetworkStatus>> networkRules = Arrays.asList(
+        AlertRule.below("LOW_SIGNAL_STRENGTH", DeviceNetworkStatus::getSignalStrength, 30, 40,
+                        Duration.ofMinutes(5), 3, v -> AlertLevel.WARNING,
+                        v -> String.format("设备信号强度过低: %.0f%%", v)),
+        AlertRule.above("HIGH_NETWORK_LATENCY", DeviceNetworkStatus::getPingLatency, 200, 150,
+                        Duration.ofMinutes(5), 3, v -> AlertLevel.WARNING,
+                        v -> String.format("设备网络延迟过高: %.0fms", v)),
+        AlertRule.below("LOW_NETWORK_SPEED", DeviceNetworkStatus::getDownloadSpeed, 1.0, 2.0,
+                        Duration.ofMinutes(10), 3, v -> AlertLevel.INFO,
+                        v -> String.format("设备网络速度过慢: %.1fMbps", v))
+    );
+
+    // 设备ID:告警类型 -> 规则状态
+    private final Map<String, RuleState> states = new ConcurrentHashMap<>();
+
+    private final Queue<DeviceAlert> pendingAlerts = new ConcurrentLinkedQueue<>();
+
+    // 运行指标
+    private final AtomicLong evaluatedSamples = new AtomicLong(0);
+    private final AtomicLong firedAlerts = new AtomicLong(0);
+    private final AtomicLong suppressedAlerts = new AtomicLong(0);
+    private final AtomicLong insertedAlerts = new AtomicLong(0);
+    private final AtomicLong duplicateAlerts = new AtomicLong(0);
+    private final AtomicLong failedAlerts = new AtomicLong(0);
+
+    /**
+     * 评估新写入的性能指标样本
+     *
+     * @param metricsList 性能指标列表
+     * @return 新产生的告警数量
+     */
+    public int onPerformanceMetrics(List<DevicePerformanceMetrics> metricsList) {
+        int fired = 0;
+        for (DevicePerformanceMetrics metrics : metricsList) {
+            LocalDateTime sampleTime = metrics.getMetricTimestamp() != null ? metrics.getMetricTimestamp() : LocalDateTime.now();
+            for (AlertRule<DevicePerformanceMetrics> rule : performanceRules) {
+                fired += evaluate(rule, metrics.getDeviceId(), sampleTime, metrics) ? 1 : 0;
+            }
+        }
+        evaluatedSamples.addAndGet(metricsList.size());
+        return fired;
+    }
+
+    /**
+     * 评估新写入的网络状态样本
+     *
+     * @param statusList 网络状态列表
+     * @return 新产生的告警数量
+     */
+    public int onNetworkStatus(List<DeviceNetworkStatus> statusList) {
+        int fired = 0;
+        for (DeviceNetworkStatus status : statusList) {
+            LocalDateTime sampleTime = status.getUpdatedAt() != null ? status.getUpdatedAt()
+                    : status.getCreatedAt() != null ? status.getCreatedAt() : LocalDateTime.now();
+            for (AlertRule<DeviceNetworkStatus> rule : networkRules) {
+                fired += evaluate(rule, status.getDeviceId(), sampleTime, status) ? 1 : 0;
+            }
+        }
+        evaluatedSamples.addAndGet(statusList.size());
+        return fired;
+    }
+
+    /**
+     * 批量写入待写入的告警
+     * 同一批内同设备同类型只保留第一条，已有未解决告警的跳过
+     *
+     * @return 写入的告警数量
+     */
+    @Scheduled(fixedDelayString = "${yxrobot.device-alert.flush-interval-ms:1000}")
+    public synchronized int flushAlerts() {
+        int inserted = 0;
+        while (!pendingAlerts.isEmpty()) {
+            Map<String, DeviceAlert> batch = new LinkedHashMap<>();
+            DeviceAlert alert;
+            int drained = 0;
+            while (drained < batchSize && (alert = pendingAlerts.poll()) != null) {
+                drained++;
+                if (batch.putIfAbsent(stateKey(alert.getDeviceId(), alert.getAlertType()), alert) != null) {
+                    duplicateAlerts.incrementAndGet();
+                }
+            }
+            inserted += insertBatch(batch);
+        }
+        return inserted;
+    }
+
+    /**
+     * 清理长时间没有样本的设备规则状态
+     */
+    @Scheduled(fixedDelay = 600000)
+    public void cleanupIdleStates() {
+        long now = System.nanoTime();
+        int before = states.size();
+        states.values().removeIf(state -> now - state.lastUpdateNanos > STATE_IDLE_NANOS);
+        int removed = before - states.size();
+        if (removed > 0) {
+            logger.debug("清理空闲告警规则状态: {}", removed);
+        }
+    }
+
+    /**
+     * 获取规则引擎运行指标
+     *
+     * @return 指标数据
+     */
+    public Map<String, Object> getEngineStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("evaluatedSamples", evaluatedSamples.get());
+        stats.put("firedAlerts", firedAlerts.get());
+        stats.put("suppressedAlerts", suppressedAlerts.get());
+        stats.put("insertedAlerts", insertedAlerts.get());
+        stats.put("duplicateAlerts", duplicateAlerts.get());
+        stats.put("failedAlerts", failedAlerts.get());
+        stats.put("pendingAlerts", pendingAlerts.size());
+        stats.put("trackedStates", states.size());
+        List<String> rules = new ArrayList<>();
+        performanceRules.forEach(rule -> rules.add(rule.alertType));
+        networkRules.forEach(rule -> rules.add(rule.alertType));
+        stats.put("rules", rules);
+        return stats;
+    }
+
+    private <T> boolean evaluate(AlertRule<T> rule, Long deviceId, LocalDateTime sampleTime, T sample) {
+        Number value = rule.extractor.apply(sample);
+        if (deviceId == null || value == null) {
+            return false;
+        }
+
+        RuleState state = states.computeIfAbsent(stateKey(deviceId, rule.alertType), key -> new RuleState());
+        DeviceAlert alert = null;
+        synchronized (state) {
+            state.add(sampleTime, value.doubleValue(), rule.window);
+            if (state.samples.size() < rule.minSamples) {
+                return false;
+            }
+
+            double average = state.average();
+            if (state.firing) {
+                if (rule.recovered(average)) {
+                    state.firing = false;
+                }
+                return false;
+            }
+            if (!rule.breached(average)) {
+                return false;
+            }
+
+            state.firing = true;
+            if (state.lastAlertAt != null
+                    && sampleTime.isBefore(state.lastAlertAt.plusMinutes(suppressMinutes))) {
+                suppressedAlerts.incrementAndGet();
+                return false;
+            }
+            state.lastAlertAt = sampleTime;
+            alert = new DeviceAlert(deviceId, rule.level.apply(average), rule.alertType, rule.message.apply(average));
+        }
+
+        pendingAlerts.add(alert);
+        firedAlerts.incrementAndGet();
+        return true;
+    }
+
+    private int insertBatch(Map<String, DeviceAlert> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<DeviceAlert> alerts = new ArrayList<>(batch.values());
+        try {
+            // 跳过已有未解决告警的设备/类型，与 DeviceAlertService.createAlert 的去重规则一致
+            Set<Long> deviceIds = alerts.stream().map(DeviceAlert::getDeviceId).collect(Collectors.toSet());
+            Set<String> alertTypes = alerts.stream().map(DeviceAlert::getAlertType).collect(Collectors.toSet());
+            Set<String> unresolved = new HashSet<>();
+            for (Map<String, Object> row : deviceAlertMapper.selectUnresolvedKeys(deviceIds, alertTypes)) {
+                Object deviceId = row.get("deviceId");
+                if (deviceId instanceof Number) {
+                    unresolved.add(stateKey(((Number) deviceId).longValue(), String.valueOf(row.get("alertType"))));
+                }
+            }
+
+            List<DeviceAlert> toInsert = alerts.stream()
+                    .filter(alert -> !unresolved.contains(stateKey(alert.getDeviceId(), alert.getAlertType())))
+                    .collect(Collectors.toList());
+            duplicateAlerts.addAndGet(alerts.size() - toInsert.size());
+            if (toInsert.isEmpty()) {
+                return 0;
+            }
+
+            int result = deviceAlertMapper.batchInsert(toInsert);
+            insertedAlerts.addAndGet(toInsert.size());
+            logger.info("批量写入设备告警: {}条（跳过重复{}条）", toInsert.size(), alerts.size() - toInsert.size());
+            return result;
+
+        } catch (Exception e) {
+            failedAlerts.addAndGet(alerts.size());
+            logger.error("批量写入设备告警失败: {}条", alerts.size(), e);
+            // 重新布防，下一个越限样本会再次产生告警
+            for (DeviceAlert alert : alerts) {
+                RuleState state = states.get(stateKey(alert.getDeviceId(), alert.getAlertType()));
+                if (state != null) {
+                    synchronized (state) {
+                        state.firing = false;
+                        state.lastAlertAt = null;
+                    }
+                }
+            }
+            return 0;
+        }
+    }
+
+    private static String stateKey(Long deviceId, String alertType) {
+        return deviceId + ":" + alertType;
+    }
+
+    /**
+     * 告警规则：对样本中的一个数值做滑动窗口均值判断
+     */
+    static final class AlertRule<T> {
+        final String alertType;
+        final Function<T, ? extends Number> extractor;
+        final boolean above;
+        final double triggerThreshold;
+        final double clearThreshold;
+        final Duration window;
+        final int minSamples;
+        final DoubleFunction<AlertLevel> level;
+        final DoubleFunction<String> message;
+
+        private AlertRule(String alertType, Function<T, ? extends Number> extractor, boolean above,
+                          double triggerThreshold, double clearThreshold, Duration window, int minSamples,
+                          DoubleFunction<AlertLevel> level, DoubleFunction<String> message) {
+            this.alertType = alertType;
+            this.extractor = extractor;
+            this.above = above;
+            this.triggerThreshold = triggerThreshold;
+            this.clearThreshold = clearThreshold;
+            this.window = window;
+            this.minSamples = minSamples;
+            this.level = level;
+            this.message = message;
+        }
+
+        /**
+         * 窗口均值高于 trigger 时告警，低于 clear 时恢复
+         */
+        static <T> AlertRule<T> above(String alertType, Function<T, ? extends Number> extractor,
+                                      double trigger, double clear, Duration window, int minSamples,
+                                      DoubleFunction<AlertLevel> level, DoubleFunction<String> message) {
+            return new AlertRule<>(alertType, extractor, true, trigger, clear, window, minSamples, level, message);
+        }
+
+        /**
+         * 窗口均值低于 trigger 时告警，高于 clear 时恢复
+         */
+        static <T> AlertRule<T> below(String alertType, Function<T, ? extends Number> extractor,
+                                      double trigger, double clear, Duration window, int minSamples,
+                                      DoubleFunction<AlertLevel> level, DoubleFunction<String> message) {
+            return new AlertRule<>(alertType, extractor, false, trigger, clear, window, minSamples, level, message);
+        }
+
+        boolean breached(double value) {
+            return above ? value > triggerThreshold : value < triggerThreshold;
+        }
+
+        boolean recovered(double value) {
+            return above ? value < clearThreshold : value > clearThreshold;
+        }
+    }
+
+    /**
+     * 单个设备单条规则的滑动窗口与告警状态
+     */
+    static final class RuleState {
+        final ArrayDeque<Sample> samples = new ArrayDeque<>();
+        double sum;
+        LocalDateTime latest;
+        boolean firing;
+        LocalDateTime lastAlertAt;
+        volatile long lastUpdateNanos = System.nanoTime();
+
+        void add(LocalDateTime time, double value, Duration window) {
+            samples.addLast(new Sample(time, value));
+            sum += value;
+            if (latest == null || time.isAfter(latest)) {
+                latest = time;
+            }
+            LocalDateTime windowStart = latest.minus(window);
+            while (!samples.isEmpty() && samples.peekFirst().time.isBefore(windowStart)) {
+                sum -= samples.pollFirst().value;
+            }
+            lastUpdateNanos = System.nanoTime();
+        }
+
+        double average() {
+            return samples.isEmpty() ? 0.0 : sum / samples.size();
+        }
+    }
+
+    private static final class Sample {
+        final LocalDateTime time;
+        final double value;
+
+        Sample(LocalDateTime time, double value) {
+            this.time = time;
+            this.value = value;
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package com.yxrobot.service;
 
+import com.yxrobot.dto.CursorPage;
 import com.yxrobot.dto.DeviceAlertDTO;
 import com.yxrobot.entity.DeviceAlert;
 import com.yxrobot.entity.AlertLevel;
 import com.yxrobot.mapper.DeviceAlertMapper;
 import com.yxrobot.service.DeviceMonitoringService.PageResult;
+import com.yxrobot.util.PageCursor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -96,6 +98,48 @@ public class DeviceAlertService {
         }
     }
     
+    /**
+     * 游标分页查询设备告警列表
+     * 按告警时间倒序，通过上一页返回的游标定位下一页，筛选条件与 {@link #getDeviceAlerts} 相同
+     * 
+     * @param cursor 上一页返回的游标，第一页传null
+     * @param size 每页大小
+     * @param alertLevel 告警级别筛选
+     * @param deviceId 设备ID筛选
+     * @param isResolved 是否已解决筛选
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @param keyword 关键词搜索
+     * @param includeTotal 是否统计总数
+     * @return 告警列表和下一页游标
+     */
+    public CursorPage<DeviceAlertDTO> getDeviceAlertsByCursor(
+            String cursor, Integer size, String alertLevel, Long deviceId, 
+            Boolean isResolved, LocalDateTime startTime, LocalDateTime endTime, String keyword, 
+            boolean includeTotal) {
+        
+        int pageSize = size != null && size > 0 ? size : 20;
+        PageCursor position = PageCursor.decode(cursor);
+        
+        Map<String, Object> params = buildAlertQueryParams(
+            null, null, alertLevel, deviceId, isResolved, startTime, endTime, keyword);
+        Long total = includeTotal ? (long) deviceAlertMapper.countWithConditions(params) : null;
+        
+        if (position != null) {
+            params.put("cursorTime", position.getSortValue());
+            params.put("cursorId", position.getId());
+        }
+        // 多取一行用于判断是否还有下一页
+        params.put("limit", pageSize + 1);
+        
+        CursorPage<DeviceAlertDTO> result = CursorPage
+            .fromRows(deviceAlertMapper.selectByCursor(params), pageSize, 
+                      DeviceAlert::getAlertTimestamp, DeviceAlert::getId)
+            .map(this::convertToDTO);
+        result.setTotal(total);
+        return result;
+    }
+    
     /**
      * 根据设备ID查询告警列表
      * 
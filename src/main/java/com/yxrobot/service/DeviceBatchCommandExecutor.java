@@ -0,0 +1,368 @@
+package com.yxrobot.service;
+
+import com.yxrobot.dto.DeviceControlDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 设备批量命令执行器
+ * 以有限并发向多台设备同时下发控制命令，每台设备独立超时与重试
+ *
+ * 并发数由 yxrobot.device-control.parallelism 限制，每台设备的命令在工作线程中执行，
+ * 单次发送超过 command-timeout-ms 会被中断并按失败处理，失败后按退避时间重试 max-retries 次。
+ * 发送线程和异步批次的协调线程使用 {@link com.yxrobot.config.AsyncConfig} 中的有界线程池，线程池已满时该次发送或该批次按失败处理。
+ * 执行过程中的进度按批次ID记录，可在批次执行期间查询。
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-20
+ */
+@Component
+public class DeviceBatchCommandExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceBatchCommandExecutor.class);
+
+    /** 已完成批次的进度保留时间 */
+    private static final long FINISHED_RETENTION_MINUTES = 60;
+
+    private final int parallelism;
+    private final long commandTimeoutMs;
+    private final int maxRetries;
+    private final long retryBackoffMs;
+
+    // 每台设备一个任务，线程数即并发上限
+    private final ExecutorService workers;
+    // 实际发送命令的线程，用于对单次发送计时和中断
+    private final Executor senders;
+    // 异步批次的协调线程，等待设备任务完成后汇总结果
+    private final Executor coordinators;
+
+    private final Map<String, BatchProgress> progresses = new ConcurrentHashMap<>();
+
+    @Autowired
+    public DeviceBatchCommandExecutor(@Value("${yxrobot.device-control.parallelism:32}") int parallelism,
+                                      @Value("${yxrobot.device-control.command-timeout-ms:5000}") long commandTimeoutMs,
+                                      @Value("${yxrobot.device-control.max-retries:2}") int maxRetries,
+                                      @Value("${yxrobot.device-control.retry-backoff-ms:200}") long retryBackoffMs,
+                                      @Qualifier("deviceCommandSendExecutor") Executor senders,
+                                      @Qualifier("deviceCommandBatchExecutor") Executor coordinators) {
+        this.parallelism = Math.max(1, parallelism);
+        this.commandTimeoutMs = Math.max(1, commandTimeoutMs);
+        this.maxRetries = Math.max(0, maxRetries);
+        this.retryBackoffMs = Math.max(0, retryBackoffMs);
+        this.workers = Executors.newFixedThreadPool(this.parallelism, namedThreads("device-command-"));
+        this.senders = senders;
+        this.coordinators = coordinators;
+    }
+
+    /**
+     * 设备命令发送方式
+     */
+    @FunctionalInterface
+    public interface CommandSender {
+
+        /**
+         * 向设备发送命令
+         *
+         * @return 设备是否接受命令
+         */
+        boolean send(Long deviceId, String command) throws Exception;
+    }
+
+    /**
+     * 登记一个新批次的进度
+     *
+     * @param batchId 批次ID
+     * @param operation 操作类型
+     * @param totalCount 设备总数
+     * @return 批次进度
+     */
+    public BatchProgress register(String batchId, String operation, int totalCount) {
+        evictFinished();
+        BatchProgress progress = new BatchProgress(batchId, operation, totalCount);
+        progresses.put(batchId, progress);
+        return progress;
+    }
+
+    /**
+     * 查询批次进度
+     *
+     * @param batchId 批次ID
+     * @return 批次进度，不存在或已过期时返回null
+     */
+    public BatchProgress getProgress(String batchId) {
+        return progresses.get(batchId);
+    }
+
+    /**
+     * 并发向设备发送命令，等待全部设备完成
+     *
+     * @param progress 批次进度
+     * @param deviceIds 设备ID列表
+     * @param command 命令
+     * @param sender 发送方式
+     * @return 设备ID -> 执行结果，顺序与输入一致
+     */
+    public Map<Long, CommandOutcome> execute(BatchProgress progress, List<Long> deviceIds,
+                                             String command, CommandSender sender) {
+        List<CompletableFuture<CommandOutcome>> futures = new ArrayList<>(deviceIds.size());
+        for (Long deviceId : deviceIds) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                CommandOutcome outcome = sendWithRetry(deviceId, command, sender);
+                progress.record(outcome.isSuccess(), outcome.getAttempts() - 1);
+                return outcome;
+            }, workers));
+        }
+
+        Map<Long, CommandOutcome> outcomes = new LinkedHashMap<>();
+        for (CompletableFuture<CommandOutcome> future : futures) {
+            CommandOutcome outcome = future.join();
+            outcomes.put(outcome.getDeviceId(), outcome);
+        }
+        return outcomes;
+    }
+
+    /**
+     * 在协调线程中执行整个批次，立即返回
+     *
+     * @param progress 批次进度
+     * @param batch 批次执行逻辑
+     * @return 批次结果
+     */
+    public CompletableFuture<DeviceControlDTO.BatchControlResult> submit(BatchProgress progress,
+                                                                        Supplier<DeviceControlDTO.BatchControlResult> batch) {
+        CompletableFuture<DeviceControlDTO.BatchControlResult> future;
+        try {
+            future = CompletableFuture.supplyAsync(batch, coordinators);
+        } catch (RejectedExecutionException e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(new IllegalStateException("批量控制任务过多，请稍后重试", e));
+        }
+        return future
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        logger.error("批量控制设备失败: batchId={}", progress.getBatchId(), error);
+                        progress.fail(error.getMessage());
+                    }
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private CommandOutcome sendWithRetry(Long deviceId, String command, CommandSender sender) {
+        long start = System.nanoTime();
+        String message = null;
+        int attempt = 0;
+        while (attempt <= maxRetries) {
+            attempt++;
+            FutureTask<Boolean> future = new FutureTask<>(() -> sender.send(deviceId, command));
+            try {
+                senders.execute(future);
+                if (Boolean.TRUE.equals(future.get(commandTimeoutMs, TimeUnit.MILLISECONDS))) {
+                    return new CommandOutcome(deviceId, true, attempt, null, elapsedMs(start));
+                }
+                message = "命令发送失败";
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                message = "命令发送超时(" + commandTimeoutMs + "ms)";
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                message = "命令发送异常: " + cause.getMessage();
+            } catch (RejectedExecutionException e) {
+                message = "命令发送线程已满";
+            } catch (InterruptedException e) {
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+                return new CommandOutcome(deviceId, false, attempt, "命令发送被中断", elapsedMs(start));
+            }
+
+            logger.warn("设备命令发送失败: deviceId={}, command={}, attempt={}, reason={}",
+                       deviceId, command, attempt, message);
+            if (attempt <= maxRetries && retryBackoffMs > 0) {
+                try {
+                    Thread.sleep(retryBackoffMs * attempt);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        return new CommandOutcome(deviceId, false, attempt, message, elapsedMs(start));
+    }
+
+    private void evictFinished() {
+        LocalDateTime expireBefore = LocalDateTime.now().minusMinutes(FINISHED_RETENTION_MINUTES);
+        progresses.values().removeIf(progress -> progress.getFinishedAt() != null
+                && progress.getFinishedAt().isBefore(expireBefore));
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * 单台设备的命令执行结果
+     */
+    public static final class CommandOutcome {
+        private final Long deviceId;
+        private final boolean success;
+        private final int attempts;
+        private final String message;
+        private final long elapsedMs;
+
+        CommandOutcome(Long deviceId, boolean success, int attempts, String message, long elapsedMs) {
+            this.deviceId = deviceId;
+            this.success = success;
+            this.attempts = attempts;
+            this.message = message;
+            this.elapsedMs = elapsedMs;
+        }
+
+        public Long getDeviceId() {
+            return deviceId;
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        public int getAttempts() {
+            return attempts;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public long getElapsedMs() {
+            return elapsedMs;
+        }
+    }
+
+    /**
+     * 批次执行进度，设备任务完成时实时更新
+     */
+    public static final class BatchProgress {
+        private final String batchId;
+        private final String operation;
+        private final int totalCount;
+        private final AtomicInteger completedCount = new AtomicInteger();
+        private final AtomicInteger successCount = new AtomicInteger();
+        private final AtomicInteger failureCount = new AtomicInteger();
+        private final AtomicInteger retryCount = new AtomicInteger();
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private volatile LocalDateTime finishedAt;
+        private volatile String errorMessage;
+        private volatile DeviceControlDTO.BatchControlResult result;
+
+        BatchProgress(String batchId, String operation, int totalCount) {
+            this.batchId = batchId;
+            this.operation = operation;
+            this.totalCount = totalCount;
+        }
+
+        /**
+         * 记录一台设备的完成情况
+         */
+        public void record(boolean success, int retries) {
+            (success ? successCount : failureCount).incrementAndGet();
+            if (retries > 0) {
+                retryCount.addAndGet(retries);
+            }
+            completedCount.incrementAndGet();
+        }
+
+        public void complete(DeviceControlDTO.BatchControlResult result) {
+            this.result = result;
+            this.finishedAt = LocalDateTime.now();
+        }
+
+        void fail(String errorMessage) {
+            this.errorMessage = errorMessage;
+            this.finishedAt = LocalDateTime.now();
+        }
+
+        /**
+         * 批次异常结束时标记失败，已完成的批次不变
+         */
+        void failIfUnfinished(String errorMessage) {
+            if (finishedAt == null) {
+                fail(errorMessage);
+            }
+        }
+
+        public String getBatchId() {
+            return batchId;
+        }
+
+        public int getRetryCount() {
+            return retryCount.get();
+        }
+
+        public LocalDateTime getFinishedAt() {
+            return finishedAt;
+        }
+
+        public DeviceControlDTO.BatchControlResult getResult() {
+            return result;
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            int completed = completedCount.get();
+            map.put("batchId", batchId);
+            map.put("operation", operation);
+            map.put("totalCount", totalCount);
+            map.put("completedCount", completed);
+            map.put("successCount", successCount.get());
+            map.put("failureCount", failureCount.get());
+            map.put("retryCount", retryCount.get());
+            map.put("progress", totalCount == 0 ? 100 : completed * 100 / totalCount);
+            map.put("finished", finishedAt != null);
+            map.put("startedAt", startedAt);
+            map.put("finishedAt", finishedAt);
+            if (errorMessage != null) {
+                map.put("errorMessage", errorMessage);
+            }
+            if (result != null) {
+                map.put("result", result);
+            }
+            return map;
+        }
+    }
+}
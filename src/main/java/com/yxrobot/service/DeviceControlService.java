@@ -12,9 +12,13 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 /**
  * 设备控制服务类
@@ -26,6 +30,9 @@ public class DeviceControlService {
     
     private static final Logger logger = LoggerFactory.getLogger(DeviceControlService.class);
     
+    // 批量查询/更新设备状态时每条语句的设备数
+    private static final int STATUS_BATCH_SIZE = 500;
+    
     @Autowired
     private ManagedDeviceMapper managedDeviceMapper;
     
@@ -35,6 +42,9 @@ public class DeviceControlService {
     @Autowired
     private ManagedDeviceValidationService validationService;
     
+    @Autowired
+    private DeviceBatchCommandExecutor batchCommandExecutor;
+    
     /**
      * 启动设备
      * 
@@ -218,53 +228,164 @@ public class DeviceControlService {
     
     /**
      * 批量控制设备
+     * 命令以有限并发同时下发，设备状态在命令全部完成后按状态批量更新，不在整个批次期间持有事务
      * 
      * @param deviceIds 设备ID列表
      * @param operation 操作类型
      * @return 批量控制结果
      */
-    @Transactional
     public DeviceControlDTO.BatchControlResult batchControlDevices(List<Long> deviceIds, String operation) {
-        logger.info("批量控制设备: deviceIds={}, operation={}", deviceIds, operation);
-        
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(deviceIds));
         DeviceControlDTO.BatchControlResult batchResult = new DeviceControlDTO.BatchControlResult();
+        DeviceBatchCommandExecutor.BatchProgress progress =
+            batchCommandExecutor.register(batchResult.getBatchId(), operation, distinctIds.size());
+        try {
+            return runBatchControl(batchResult, progress, distinctIds, operation);
+        } finally {
+            // 执行中抛出异常时也结束进度，使其能按保留时间清除
+            progress.failIfUnfinished("批量控制异常结束");
+        }
+    }
+    
+    /**
+     * 异步批量控制设备
+     * 立即返回批次ID，执行进度和最终结果通过 getBatchProgress 查询
+     * 
+     * @param deviceIds 设备ID列表
+     * @param operation 操作类型
+     * @return 批次进度
+     */
+    public Map<String, Object> startBatchControl(List<Long> deviceIds, String operation) {
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(deviceIds));
+        DeviceControlDTO.BatchControlResult batchResult = new DeviceControlDTO.BatchControlResult();
+        DeviceBatchCommandExecutor.BatchProgress progress =
+            batchCommandExecutor.register(batchResult.getBatchId(), operation, distinctIds.size());
+        batchCommandExecutor.submit(progress, () -> runBatchControl(batchResult, progress, distinctIds, operation));
+        return progress.toMap();
+    }
+    
+    /**
+     * 获取批量控制进度
+     * 
+     * @param batchId 批次ID
+     * @return 批次进度，批次不存在时返回null
+     */
+    public Map<String, Object> getBatchProgress(String batchId) {
+        DeviceBatchCommandExecutor.BatchProgress progress = batchCommandExecutor.getProgress(batchId);
+        return progress != null ? progress.toMap() : null;
+    }
+    
+    private DeviceControlDTO.BatchControlResult runBatchControl(DeviceControlDTO.BatchControlResult batchResult,
+                                                                DeviceBatchCommandExecutor.BatchProgress progress,
+                                                                List<Long> deviceIds, String operation) {
+        logger.info("批量控制设备: batchId={}, deviceCount={}, operation={}", 
+                   batchResult.getBatchId(), deviceIds.size(), operation);
+        long startTime = System.currentTimeMillis();
         batchResult.setTotalCount(deviceIds.size());
         
+        String command = operation != null ? operation.toUpperCase() : "";
+        DeviceStatus targetStatus = targetStatusOf(command);
+        if (targetStatus == null) {
+            for (Long deviceId : deviceIds) {
+                batchResult.incrementFailureCount();
+                batchResult.addFailureDetail(deviceId, "不支持的操作类型: " + operation);
+                progress.record(false, 0);
+            }
+            progress.complete(batchResult);
+            return batchResult;
+        }
+        
+        // 一次查询所有设备，过滤不存在和已处于目标状态的设备
+        Map<Long, ManagedDevice> devices = new HashMap<>();
+        List<Long> validIds = deviceIds.stream().filter(Objects::nonNull).collect(Collectors.toList());
+        for (int i = 0; i < validIds.size(); i += STATUS_BATCH_SIZE) {
+            for (ManagedDevice device : managedDeviceMapper.selectByIds(
+                    validIds.subList(i, Math.min(i + STATUS_BATCH_SIZE, validIds.size())))) {
+                devices.put(device.getId(), device);
+            }
+        }
+        
+        List<Long> dispatchIds = new ArrayList<>();
         for (Long deviceId : deviceIds) {
+            ManagedDevice device = deviceId != null ? devices.get(deviceId) : null;
+            if (device == null) {
+                batchResult.incrementFailureCount();
+                batchResult.addFailureDetail(deviceId, deviceId == null ? "设备ID不能为空" : "设备不存在: " + deviceId);
+                progress.record(false, 0);
+            } else if (command.equals("START") && DeviceStatus.ONLINE.equals(device.getStatus())
+                    || command.equals("STOP") && DeviceStatus.OFFLINE.equals(device.getStatus())) {
+                batchResult.incrementSuccessCount();
+                progress.record(true, 0);
+            } else {
+                dispatchIds.add(deviceId);
+            }
+        }
+        
+        // 并发下发命令
+        Map<Long, DeviceBatchCommandExecutor.CommandOutcome> outcomes =
+            batchCommandExecutor.execute(progress, dispatchIds, command, this::sendControlCommand);
+        
+        List<Long> succeededIds = new ArrayList<>();
+        for (DeviceBatchCommandExecutor.CommandOutcome outcome : outcomes.values()) {
+            Long deviceId = outcome.getDeviceId();
+            if (outcome.isSuccess()) {
+                succeededIds.add(deviceId);
+            } else {
+                batchResult.incrementFailureCount();
+                batchResult.addFailureDetail(deviceId, outcome.getMessage());
+                recordControlOperation(deviceId, command, "FAILED", outcome.getMessage());
+                securityService.logDataAccessEvent("CONTROL", "ManagedDevice", deviceId.toString(), "SYSTEM", false);
+            }
+        }
+        
+        // 命令成功的设备按批次更新状态
+        for (int i = 0; i < succeededIds.size(); i += STATUS_BATCH_SIZE) {
+            List<Long> chunk = succeededIds.subList(i, Math.min(i + STATUS_BATCH_SIZE, succeededIds.size()));
+            boolean updated;
             try {
-                DeviceControlDTO.ControlResult result;
-                
-                switch (operation.toUpperCase()) {
-                    case "START":
-                        result = startDevice(deviceId);
-                        break;
-                    case "STOP":
-                        result = stopDevice(deviceId);
-                        break;
-                    case "RESTART":
-                        result = restartDevice(deviceId);
-                        break;
-                    default:
-                        result = DeviceControlDTO.ControlResult.failure("不支持的操作类型: " + operation);
-                }
-                
-                if (result.isSuccess()) {
+                managedDeviceMapper.updateStatusBatch(chunk, targetStatus.name());
+                updated = true;
+            } catch (Exception e) {
+                logger.error("批量更新设备状态失败: batchId={}, count={}", batchResult.getBatchId(), chunk.size(), e);
+                updated = false;
+            }
+            for (Long deviceId : chunk) {
+                if (updated) {
                     batchResult.incrementSuccessCount();
+                    recordControlOperation(deviceId, command, "SUCCESS", "批量控制成功");
                 } else {
                     batchResult.incrementFailureCount();
-                    batchResult.addFailureDetail(deviceId, result.getMessage());
+                    batchResult.addFailureDetail(deviceId, "命令已发送，设备状态更新失败");
                 }
-                
-            } catch (Exception e) {
-                logger.error("批量控制设备失败: deviceId={}, operation={}", deviceId, operation, e);
-                batchResult.incrementFailureCount();
-                batchResult.addFailureDetail(deviceId, "操作失败: " + e.getMessage());
+                securityService.logDataAccessEvent("CONTROL", "ManagedDevice", deviceId.toString(), "SYSTEM", updated);
             }
         }
         
+        batchResult.setRetryCount(progress.getRetryCount());
+        batchResult.setDurationMs(System.currentTimeMillis() - startTime);
+        progress.complete(batchResult);
+        logger.info("批量控制设备完成: batchId={}, 成功={}, 失败={}, 重试={}, 耗时={}ms", 
+                   batchResult.getBatchId(), batchResult.getSuccessCount(), batchResult.getFailureCount(),
+                   batchResult.getRetryCount(), batchResult.getDurationMs());
         return batchResult;
     }
     
+    /**
+     * 批量操作对应的设备目标状态，不支持的操作返回null
+     */
+    private DeviceStatus targetStatusOf(String command) {
+        switch (command) {
+            case "START":
+                return DeviceStatus.ONLINE;
+            case "STOP":
+                return DeviceStatus.OFFLINE;
+            case "RESTART":
+                return DeviceStatus.MAINTENANCE;
+            default:
+                return null;
+        }
+    }
+    
     /**
      * 验证设备是否可以进行控制操作
      */
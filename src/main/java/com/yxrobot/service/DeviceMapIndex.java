@@ -0,0 +1,658 @@
+package com.yxrobot.service;
+
+import com.yxrobot.dto.DeviceMapClusterDTO;
+import com.yxrobot.entity.DeviceMonitoringData;
+import com.yxrobot.entity.DeviceStatus;
+import com.yxrobot.mapper.DeviceMonitoringDataMapper;
+import com.yxrobot.util.TransactionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * 设备地图空间索引
+ * 按Web墨卡托瓦片坐标把有位置的设备划入四叉树网格，为每个地图缩放级别预先维护网格聚合
+ * （设备数、平均位置、各状态数量），地图按视口和缩放级别只取可见的网格，不再每次加载全部设备。
+ *
+ * 缩放级别 z 的聚合网格为第 z + {@link #CELL_SHIFT} 层瓦片，即每个256像素瓦片分为4x4个网格；
+ * 超过最大聚合级别时返回视口内的单个设备。
+ *
+ * 设备状态变更时直接更新索引，同步设备信息后通过 {@link #refreshAfterCommit(Long)} 在事务提交后
+ * 重新读取该设备，另按固定间隔整体重建一次以纠正遗漏的变更。加载完成前调用方应回退到数据库查询。
+ *
+ * @author YXRobot开发团队
+ * @since 2025-03-06
+ */
+@Component
+public class DeviceMapIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceMapIndex.class);
+
+    /** 设备坐标的瓦片层级，赤道附近每格约2.4米 */
+    static final int MAX_LEVEL = 24;
+
+    /** 聚合网格比缩放级别细的层数 */
+    static final int CELL_SHIFT = 2;
+
+    /** 支持的最大缩放级别 */
+    static final int MAX_ZOOM = MAX_LEVEL - CELL_SHIFT;
+
+    /** Web墨卡托投影的纬度范围 */
+    private static final double MAX_LATITUDE = 85.05112878;
+
+    private static final DeviceStatus[] DEVICE_STATUSES = DeviceStatus.values();
+
+    @Autowired
+    private DeviceMonitoringDataMapper deviceMonitoringDataMapper;
+
+    @Value("${yxrobot.device-map.cluster-max-zoom:14}")
+    private int clusterMaxZoom = 14;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Grid grid = new Grid(clusterMaxZoom);
+
+    /** 重建期间变更过的设备，重建完成后重新读取 */
+    private final Set<Long> changedDuringReload = new HashSet<>();
+
+    private boolean reloading;
+
+    private volatile boolean ready;
+
+    /**
+     * 应用启动后加载索引
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    /**
+     * 定时整体重建，纠正未经过服务层的数据变更
+     */
+    @Scheduled(fixedDelayString = "${yxrobot.device-map.reload-interval-ms:600000}",
+               initialDelayString = "${yxrobot.device-map.reload-interval-ms:600000}")
+    public void scheduledReload() {
+        reload();
+    }
+
+    /**
+     * 从数据库重建索引，建好后整体替换
+     *
+     * @return 索引中的设备数量，加载失败返回-1
+     */
+    public synchronized int reload() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            reloading = true;
+            changedDuringReload.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Set<Long> changed;
+        int size;
+        try {
+            Grid fresh = new Grid(clusterMaxZoom);
+            for (DeviceMonitoringData data : deviceMonitoringDataMapper.selectDevicesWithLocation()) {
+                fresh.put(data);
+            }
+            lock.writeLock().lock();
+            try {
+                grid = fresh;
+                size = fresh.size();
+                changed = new HashSet<>(changedDuringReload);
+            } finally {
+                reloading = false;
+                changedDuringReload.clear();
+                lock.writeLock().unlock();
+            }
+        } catch (Exception e) {
+            lock.writeLock().lock();
+            try {
+                reloading = false;
+                changedDuringReload.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.error("设备地图索引加载失败", e);
+            return -1;
+        }
+
+        // 加载期间的变更可能写入了被替换掉的旧索引
+        for (Long deviceId : changed) {
+            refresh(deviceId);
+        }
+        ready = true;
+        logger.info("设备地图索引加载完成: {}台设备, 耗时{}ms", size, System.currentTimeMillis() - start);
+        return size;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return grid.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 重新读取设备的监控数据并更新索引，没有位置的设备从索引中移除
+     *
+     * @param deviceId 设备ID
+     */
+    public void refresh(Long deviceId) {
+        if (deviceId == null) {
+            return;
+        }
+        try {
+            DeviceMonitoringData data = deviceMonitoringDataMapper.selectByDeviceId(deviceId);
+            modify(deviceId, current -> {
+                if (data != null) {
+                    current.put(data);
+                } else {
+                    current.remove(deviceId);
+                }
+            });
+        } catch (Exception e) {
+            logger.warn("刷新设备地图索引失败: deviceId={}", deviceId, e);
+        }
+    }
+
+    /**
+     * 在当前事务提交后刷新设备，没有事务时立即刷新
+     *
+     * @param deviceId 设备ID
+     */
+    public void refreshAfterCommit(Long deviceId) {
+        TransactionUtils.afterCommit(() -> refresh(deviceId));
+    }
+
+    /**
+     * 在当前事务提交后整体重建，用于批量同步之后
+     */
+    public void reloadAfterCommit() {
+        TransactionUtils.afterCommit(this::reload);
+    }
+
+    /**
+     * 从索引中移除设备
+     *
+     * @param deviceId 设备ID
+     */
+    public void remove(Long deviceId) {
+        if (deviceId != null) {
+            modify(deviceId, current -> current.remove(deviceId));
+        }
+    }
+
+    /**
+     * 更新设备状态和最后在线时间
+     */
+    public void updateStatus(Long deviceId, DeviceStatus status, LocalDateTime lastOnlineAt) {
+        if (deviceId != null) {
+            modify(deviceId, current -> current.updateStatus(deviceId, status, lastOnlineAt, true));
+        }
+    }
+
+    /**
+     * 批量更新设备状态，最后在线时间不变
+     */
+    public void updateStatus(List<Long> deviceIds, DeviceStatus status) {
+        lock.writeLock().lock();
+        try {
+            for (Long deviceId : deviceIds) {
+                if (deviceId != null) {
+                    grid.updateStatus(deviceId, status, null, false);
+                    markChanged(deviceId);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 索引中的全部设备，按更新时间倒序，与 selectDevicesWithLocation 一致
+     *
+     * @return 设备监控数据副本，未加载完成时返回null
+     */
+    public List<DeviceMonitoringData> getAllDevices() {
+        if (!ready) {
+            return null;
+        }
+        List<DeviceMonitoringData> devices;
+        lock.readLock().lock();
+        try {
+            devices = new ArrayList<>(grid.size());
+            for (Entry entry : grid.entries.values()) {
+                devices.add(copy(entry.data));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        devices.sort(Comparator.comparing(DeviceMonitoringData::getUpdatedAt,
+                                          Comparator.nullsLast(Comparator.reverseOrder())));
+        return devices;
+    }
+
+    /**
+     * 查询视口内的设备和聚合点
+     *
+     * @param minLat 视口最小纬度
+     * @param minLng 视口最小经度，大于最大经度时表示视口跨越180度经线
+     * @param maxLat 视口最大纬度
+     * @param maxLng 视口最大经度
+     * @param zoom 地图缩放级别
+     * @return 查询结果，未加载完成时返回null
+     */
+    public ViewportResult query(double minLat, double minLng, double maxLat, double maxLng, int zoom) {
+        if (!ready) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            return grid.query(minLat, minLng, maxLat, maxLng, zoom);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 索引未就绪时用数据库查询结果临时建立网格并查询
+     *
+     * @param rows 有位置的设备监控数据
+     */
+    public ViewportResult query(List<DeviceMonitoringData> rows, double minLat, double minLng,
+                                double maxLat, double maxLng, int zoom) {
+        Grid temporary = new Grid(Math.min(clusterMaxZoom, Math.max(zoom, 0)));
+        for (DeviceMonitoringData data : rows) {
+            temporary.put(data);
+        }
+        return temporary.query(minLat, minLng, maxLat, maxLng, zoom);
+    }
+
+    private void modify(Long deviceId, Consumer<Grid> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(grid);
+            markChanged(deviceId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void markChanged(Long deviceId) {
+        if (reloading) {
+            changedDuringReload.add(deviceId);
+        }
+    }
+
+    private static boolean hasLocation(DeviceMonitoringData data) {
+        return data.getDeviceId() != null
+            && data.getLocationLatitude() != null && data.getLocationLatitude().signum() != 0
+            && data.getLocationLongitude() != null && data.getLocationLongitude().signum() != 0;
+    }
+
+    private static DeviceMonitoringData copy(DeviceMonitoringData data) {
+        DeviceMonitoringData copy = new DeviceMonitoringData();
+        copy.setId(data.getId());
+        copy.setDeviceId(data.getDeviceId());
+        copy.setSerialNumber(data.getSerialNumber());
+        copy.setCustomerName(data.getCustomerName());
+        copy.setStatus(data.getStatus());
+        copy.setLastOnlineAt(data.getLastOnlineAt());
+        copy.setModel(data.getModel());
+        copy.setFirmwareVersion(data.getFirmwareVersion());
+        copy.setLocationLatitude(data.getLocationLatitude());
+        copy.setLocationLongitude(data.getLocationLongitude());
+        copy.setLocationAddress(data.getLocationAddress());
+        copy.setCreatedAt(data.getCreatedAt());
+        copy.setUpdatedAt(data.getUpdatedAt());
+        return copy;
+    }
+
+    /**
+     * 经度在第 {@link #MAX_LEVEL} 层的瓦片x坐标
+     */
+    static int tileX(double longitude) {
+        double n = 1 << MAX_LEVEL;
+        int x = (int) Math.floor((longitude + 180) / 360 * n);
+        return Math.max(0, Math.min((1 << MAX_LEVEL) - 1, x));
+    }
+
+    /**
+     * 纬度在第 {@link #MAX_LEVEL} 层的瓦片y坐标，北为0
+     */
+    static int tileY(double latitude) {
+        double lat = Math.toRadians(Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude)));
+        double n = 1 << MAX_LEVEL;
+        int y = (int) Math.floor((1 - Math.log(Math.tan(lat) + 1 / Math.cos(lat)) / Math.PI) / 2 * n);
+        return Math.max(0, Math.min((1 << MAX_LEVEL) - 1, y));
+    }
+
+    private static double tileLongitude(long x, int level) {
+        return (double) x / (1L << level) * 360 - 180;
+    }
+
+    private static double tileLatitude(long y, int level) {
+        double n = Math.PI * (1 - 2.0 * y / (1L << level));
+        return Math.toDegrees(Math.atan(Math.sinh(n)));
+    }
+
+    private static long cellKey(int x, int y, int level) {
+        int shift = MAX_LEVEL - level;
+        return ((long) (x >>> shift) << 32) | (y >>> shift);
+    }
+
+    private static BigDecimal degrees(double value) {
+        return BigDecimal.valueOf(value).setScale(6, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * 视口查询结果
+     */
+    public static class ViewportResult {
+
+        private final List<DeviceMonitoringData> devices = new ArrayList<>();
+
+        private final List<DeviceMapClusterDTO> clusters = new ArrayList<>();
+
+        private int total;
+
+        private boolean clustered;
+
+        /** 单独显示的设备（副本） */
+        public List<DeviceMonitoringData> getDevices() {
+            return devices;
+        }
+
+        public List<DeviceMapClusterDTO> getClusters() {
+            return clusters;
+        }
+
+        /** 视口内设备总数（含聚合点内的设备） */
+        public int getTotal() {
+            return total;
+        }
+
+        public boolean isClustered() {
+            return clustered;
+        }
+    }
+
+    /**
+     * 索引中的一台设备
+     */
+    private static class Entry {
+
+        final DeviceMonitoringData data;
+
+        final double latitude;
+
+        final double longitude;
+
+        final int x;
+
+        final int y;
+
+        Entry(DeviceMonitoringData data) {
+            this.data = copy(data);
+            this.latitude = data.getLocationLatitude().doubleValue();
+            this.longitude = data.getLocationLongitude().doubleValue();
+            this.x = tileX(longitude);
+            this.y = tileY(latitude);
+        }
+    }
+
+    /**
+     * 一个网格的聚合数据
+     */
+    private static class Cell {
+
+        int count;
+
+        double sumLatitude;
+
+        double sumLongitude;
+
+        /** 设备ID之和，网格内只有一台设备时即为该设备的ID */
+        long deviceIdSum;
+
+        /** 各状态设备数量，最后一位为无状态 */
+        final int[] statusCounts = new int[DEVICE_STATUSES.length + 1];
+
+        /** 网格内的设备，只在最细一层维护 */
+        final Set<Long> members;
+
+        Cell(boolean keepMembers) {
+            this.members = keepMembers ? new HashSet<>() : null;
+        }
+
+        void add(Entry entry) {
+            count++;
+            sumLatitude += entry.latitude;
+            sumLongitude += entry.longitude;
+            deviceIdSum += entry.data.getDeviceId();
+            statusCounts[statusIndex(entry.data.getStatus())]++;
+            if (members != null) {
+                members.add(entry.data.getDeviceId());
+            }
+        }
+
+        void remove(Entry entry) {
+            count--;
+            sumLatitude -= entry.latitude;
+            sumLongitude -= entry.longitude;
+            deviceIdSum -= entry.data.getDeviceId();
+            statusCounts[statusIndex(entry.data.getStatus())]--;
+            if (members != null) {
+                members.remove(entry.data.getDeviceId());
+            }
+        }
+
+        static int statusIndex(DeviceStatus status) {
+            return status != null ? status.ordinal() : DEVICE_STATUSES.length;
+        }
+    }
+
+    /**
+     * 四叉树网格：每个缩放级别一个 网格坐标 -> 聚合数据 的散列表，只保存有设备的网格
+     */
+    private static class Grid {
+
+        final int maxZoom;
+
+        final Map<Long, Entry> entries = new HashMap<>();
+
+        /** levels.get(z) 为缩放级别 z 的聚合网格 */
+        final List<Map<Long, Cell>> levels = new ArrayList<>();
+
+        Grid(int maxZoom) {
+            this.maxZoom = Math.max(0, Math.min(MAX_ZOOM, maxZoom));
+            for (int zoom = 0; zoom <= this.maxZoom; zoom++) {
+                levels.add(new HashMap<>());
+            }
+        }
+
+        int size() {
+            return entries.size();
+        }
+
+        void put(DeviceMonitoringData data) {
+            remove(data.getDeviceId());
+            if (!hasLocation(data)) {
+                return;
+            }
+            Entry entry = new Entry(data);
+            entries.put(data.getDeviceId(), entry);
+            for (int zoom = 0; zoom <= maxZoom; zoom++) {
+                boolean finest = zoom == maxZoom;
+                levels.get(zoom)
+                      .computeIfAbsent(cellKey(entry.x, entry.y, zoom + CELL_SHIFT), key -> new Cell(finest))
+                      .add(entry);
+            }
+        }
+
+        void remove(Long deviceId) {
+            Entry entry = entries.remove(deviceId);
+            if (entry == null) {
+                return;
+            }
+            for (int zoom = 0; zoom <= maxZoom; zoom++) {
+                Map<Long, Cell> cells = levels.get(zoom);
+                long key = cellKey(entry.x, entry.y, zoom + CELL_SHIFT);
+                Cell cell = cells.get(key);
+                cell.remove(entry);
+                if (cell.count == 0) {
+                    cells.remove(key);
+                }
+            }
+        }
+
+        void updateStatus(Long deviceId, DeviceStatus status, LocalDateTime lastOnlineAt, boolean updateLastOnline) {
+            Entry entry = entries.get(deviceId);
+            if (entry == null) {
+                return;
+            }
+            int from = Cell.statusIndex(entry.data.getStatus());
+            int to = Cell.statusIndex(status);
+            if (from != to) {
+                for (int zoom = 0; zoom <= maxZoom; zoom++) {
+                    Cell cell = levels.get(zoom).get(cellKey(entry.x, entry.y, zoom + CELL_SHIFT));
+                    cell.statusCounts[from]--;
+                    cell.statusCounts[to]++;
+                }
+            }
+            entry.data.setStatus(status);
+            if (updateLastOnline) {
+                entry.data.setLastOnlineAt(lastOnlineAt);
+            }
+        }
+
+        ViewportResult query(double minLat, double minLng, double maxLat, double maxLng, int zoom) {
+            ViewportResult result = new ViewportResult();
+            zoom = Math.max(0, Math.min(MAX_ZOOM, zoom));
+            result.clustered = zoom <= maxZoom;
+            int level = Math.min(zoom, maxZoom) + CELL_SHIFT;
+            int shift = MAX_LEVEL - level;
+
+            // 纬度越大y越小；跨越180度经线时拆成两段x范围
+            int yMin = tileY(maxLat) >>> shift;
+            int yMax = tileY(minLat) >>> shift;
+            int xMin = tileX(minLng) >>> shift;
+            int xMax = tileX(maxLng) >>> shift;
+            int[][] xRanges = minLng <= maxLng
+                ? new int[][] {{xMin, xMax}}
+                : new int[][] {{xMin, (1 << level) - 1}, {0, xMax}};
+
+            Map<Long, Cell> cells = levels.get(Math.min(zoom, maxZoom));
+            long rangeSize = 0;
+            for (int[] range : xRanges) {
+                rangeSize += (long) (range[1] - range[0] + 1) * (yMax - yMin + 1);
+            }
+            if (rangeSize <= cells.size()) {
+                for (int[] range : xRanges) {
+                    for (long x = range[0]; x <= range[1]; x++) {
+                        for (long y = yMin; y <= yMax; y++) {
+                            long key = (x << 32) | y;
+                            Cell cell = cells.get(key);
+                            if (cell != null) {
+                                collect(result, key, cell, level, minLat, minLng, maxLat, maxLng);
+                            }
+                        }
+                    }
+                }
+            } else {
+                // 视口覆盖的网格比已有网格多时，直接遍历已有网格
+                for (Map.Entry<Long, Cell> cell : cells.entrySet()) {
+                    long x = cell.getKey() >>> 32;
+                    long y = cell.getKey() & 0xFFFFFFFFL;
+                    if (y < yMin || y > yMax) {
+                        continue;
+                    }
+                    for (int[] range : xRanges) {
+                        if (x >= range[0] && x <= range[1]) {
+                            collect(result, cell.getKey(), cell.getValue(), level, minLat, minLng, maxLat, maxLng);
+                            break;
+                        }
+                    }
+                }
+            }
+            return result;
+        }
+
+        private void collect(ViewportResult result, long key, Cell cell, int level,
+                             double minLat, double minLng, double maxLat, double maxLng) {
+            if (!result.clustered) {
+                // 超过最大聚合级别，按设备的精确位置过滤
+                for (Long deviceId : cell.members) {
+                    Entry entry = entries.get(deviceId);
+                    boolean inLongitude = minLng <= maxLng
+                        ? entry.longitude >= minLng && entry.longitude <= maxLng
+                        : entry.longitude >= minLng || entry.longitude <= maxLng;
+                    if (inLongitude && entry.latitude >= minLat && entry.latitude <= maxLat) {
+                        result.devices.add(copy(entry.data));
+                        result.total++;
+                    }
+                }
+                return;
+            }
+
+            result.total += cell.count;
+            if (cell.count == 1) {
+                result.devices.add(copy(entries.get(cell.deviceIdSum).data));
+                return;
+            }
+
+            long x = key >>> 32;
+            long y = key & 0xFFFFFFFFL;
+            DeviceMapClusterDTO cluster = new DeviceMapClusterDTO();
+            cluster.setId(level + "/" + x + "/" + y);
+            cluster.setCount(cell.count);
+            cluster.setLatitude(degrees(cell.sumLatitude / cell.count));
+            cluster.setLongitude(degrees(cell.sumLongitude / cell.count));
+            cluster.setMinLongitude(degrees(tileLongitude(x, level)));
+            cluster.setMaxLongitude(degrees(tileLongitude(x + 1, level)));
+            cluster.setMinLatitude(degrees(tileLatitude(y + 1, level)));
+            cluster.setMaxLatitude(degrees(tileLatitude(y, level)));
+
+            Map<String, Integer> statusCounts = new LinkedHashMap<>();
+            for (DeviceStatus status : DEVICE_STATUSES) {
+                int count = cell.statusCounts[status.ordinal()];
+                if (count > 0) {
+                    statusCounts.put(status.getCode(), count);
+                }
+            }
+            cluster.setStatusCounts(statusCounts);
+            result.clusters.add(cluster);
+        }
+    }
+}
@@ -0,0 +1,645 @@
+package com.yxrobot.service;
+
+import com.yxrobot.entity.DevicePerformanceMetrics;
+import com.yxrobot.mapper.DevicePerformanceMetricsMapper;
+import com.yxrobot.util.TimeSeriesBlock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 设备性能指标时间序列存储
+ * 在内存中按设备保存性能样本，替代对 device_performance_metrics 的实时分组查询：
+ * - 原始样本按小时写入 {@link TimeSeriesBlock} 压缩块（二阶差分时间戳 + XOR 浮点），只追加，过期整块丢弃；
+ * - 写入时同步累加 1分钟/1小时/1天 三级汇总（各指标的和与非空样本数），只保存有样本的桶，过期的桶定期移除。
+ * 原始样本另外保存记录ID和创建时间（相对样本时间的毫秒差），历史查询返回的记录与数据库一致。
+ *
+ * 查询区间拆分为尽量粗的整桶，区间两端不足一分钟的部分扫描原始样本，因此平均值与按原始数据计算一致；
+ * 原始样本已过保留期时，两端按所在的最细汇总桶近似。
+ *
+ * 数据库仍是样本的持久存储：新样本写库后追加到本存储，启动时从数据库加载原始数据保留期内的样本，
+ * 加载完成前、或查询起点早于加载起点/各级保留期时返回null，由调用方回退到数据库查询。
+ *
+ * @author YXRobot开发团队
+ * @since 2025-03-03
+ */
+@Component
+public class DeviceMetricsTimeSeriesStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceMetricsTimeSeriesStore.class);
+
+    static final int CPU = 0;
+    static final int MEMORY = 1;
+    static final int DISK = 2;
+    static final int TEMPERATURE = 3;
+    static final int BATTERY = 4;
+    static final int LATENCY = 5;
+    static final int BANDWIDTH = 6;
+    static final int METRIC_COUNT = 7;
+
+    /** 原始数据块中指标之后的附加列：记录ID和创建时间，不参与汇总 */
+    static final int ID = 7;
+    static final int CREATED_AT = 8;
+    static final int COLUMN_COUNT = 9;
+
+    static final long MINUTE_MS = 60_000L;
+    static final long HOUR_MS = 60 * MINUTE_MS;
+    static final long DAY_MS = 24 * HOUR_MS;
+
+    /** 汇总结果中各指标对应的键，与 selectChartData/calculateAverageMetrics 的列别名一致 */
+    private static final String[] AVERAGE_KEYS = {
+        "avgCpuUsage", "avgMemoryUsage", "avgDiskUsage", "avgTemperature",
+        "avgBatteryLevel", "avgNetworkLatency", "avgNetworkBandwidth"
+    };
+
+    private static final DateTimeFormatter TIME_POINT_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:00");
+
+    @Autowired
+    private DevicePerformanceMetricsMapper devicePerformanceMetricsMapper;
+
+    @Value("${yxrobot.timeseries.raw-retention-hours:6}")
+    private long rawRetentionHours;
+
+    @Value("${yxrobot.timeseries.minute-retention-hours:24}")
+    private long minuteRetentionHours;
+
+    @Value("${yxrobot.timeseries.hour-retention-days:30}")
+    private long hourRetentionDays;
+
+    @Value("${yxrobot.timeseries.day-retention-days:400}")
+    private long dayRetentionDays;
+
+    private final Map<Long, DeviceSeries> series = new ConcurrentHashMap<>();
+
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    /** 启动时数据库中已有的最大ID，加载只读取不超过该ID的记录，之后的样本由写入路径追加 */
+    private volatile Long warmMaxId;
+
+    /** 已完整加载的起始时间（毫秒），早于该时间的数据不在存储中 */
+    private volatile long loadedFrom = Long.MAX_VALUE;
+
+    private volatile boolean ready;
+
+    @PostConstruct
+    public void init() {
+        try {
+            Long maxId = devicePerformanceMetricsMapper.selectMaxId();
+            warmMaxId = maxId != null ? maxId : 0L;
+        } catch (Exception e) {
+            logger.warn("读取性能指标最大ID失败，时间序列存储不加载历史数据，查询回退到数据库", e);
+        }
+    }
+
+    /**
+     * 应用启动后加载原始数据保留期内的样本
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        warmUp();
+    }
+
+    /**
+     * 从数据库加载样本
+     *
+     * @return 加载的样本数量
+     */
+    public synchronized int warmUp() {
+        if (ready || warmMaxId == null) {
+            return 0;
+        }
+        long start = System.currentTimeMillis();
+        long from = start - rawRetentionHours * HOUR_MS;
+        int[] loaded = {0};
+        try {
+            devicePerformanceMetricsMapper.selectForTimeSeries(toDateTime(from), warmMaxId, context -> {
+                append(context.getResultObject());
+                loaded[0]++;
+            });
+        } catch (Exception e) {
+            logger.error("加载设备性能时间序列失败，查询回退到数据库", e);
+            return 0;
+        }
+        loadedFrom = from;
+        ready = true;
+        logger.info("加载设备性能时间序列完成 - 样本数: {}, 设备数: {}, 耗时: {}ms",
+                    loaded[0], series.size(), System.currentTimeMillis() - start);
+        return loaded[0];
+    }
+
+    /**
+     * 追加已写入数据库的样本
+     */
+    public void append(List<DevicePerformanceMetrics> metricsList) {
+        for (DevicePerformanceMetrics metrics : metricsList) {
+            append(metrics);
+        }
+    }
+
+    private void append(DevicePerformanceMetrics metrics) {
+        if (metrics == null || metrics.getDeviceId() == null || metrics.getMetricTimestamp() == null) {
+            return;
+        }
+        double[] values = new double[COLUMN_COUNT];
+        values[CPU] = toDouble(metrics.getCpuUsage());
+        values[MEMORY] = toDouble(metrics.getMemoryUsage());
+        values[DISK] = toDouble(metrics.getDiskUsage());
+        values[TEMPERATURE] = toDouble(metrics.getTemperature());
+        values[BATTERY] = toDouble(metrics.getBatteryLevel());
+        values[LATENCY] = metrics.getNetworkLatency() != null ? metrics.getNetworkLatency() : Double.NaN;
+        values[BANDWIDTH] = toDouble(metrics.getNetworkBandwidth());
+        long timestamp = toMillis(metrics.getMetricTimestamp());
+        values[ID] = metrics.getId() != null ? metrics.getId() : Double.NaN;
+        values[CREATED_AT] = metrics.getCreatedAt() != null ? toMillis(metrics.getCreatedAt()) - timestamp : Double.NaN;
+        series.computeIfAbsent(metrics.getDeviceId(), id -> newSeries())
+            .append(timestamp, values);
+    }
+
+    /**
+     * 查询原始样本，按时间倒序
+     *
+     * @return 样本列表；起点为空或早于原始数据可用范围时返回null
+     */
+    public List<DevicePerformanceMetrics> getHistory(Long deviceId, LocalDateTime startTime,
+                                                     LocalDateTime endTime, Integer limit) {
+        long now = System.currentTimeMillis();
+        if (!ready || startTime == null || toMillis(startTime) < rawCoveredFrom(now)) {
+            return null;
+        }
+        long from = toMillis(startTime);
+        long to = endTime != null ? toMillis(endTime) : Long.MAX_VALUE;
+        DeviceSeries deviceSeries = series.get(deviceId);
+        if (deviceSeries == null) {
+            return new ArrayList<>();
+        }
+
+        List<DevicePerformanceMetrics> result = new ArrayList<>();
+        deviceSeries.scan(from, to, (timestamp, values) -> result.add(toMetrics(deviceId, timestamp, values)));
+        result.sort(Comparator.comparing(DevicePerformanceMetrics::getMetricTimestamp).reversed());
+        if (limit != null && result.size() > limit) {
+            return new ArrayList<>(result.subList(0, limit));
+        }
+        return result;
+    }
+
+    /**
+     * 按时间间隔汇总图表数据，结构与 selectChartData 相同（timePoint + 各指标平均值），没有样本的时间段不返回
+     *
+     * @return 图表数据；无法由存储回答（未加载、起点早于可用范围、间隔比起点处可用的汇总粒度更细）时返回null
+     */
+    public List<Map<String, Object>> getChartData(Long deviceId, LocalDateTime startTime,
+                                                  LocalDateTime endTime, Integer intervalMinutes) {
+        if (!ready || startTime == null || endTime == null || intervalMinutes == null || intervalMinutes <= 0) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        long from = toMillis(startTime);
+        long to = toMillis(endTime);
+        long interval = intervalMinutes * MINUTE_MS;
+        // 间隔必须是起点处可用汇总粒度的整数倍，否则同一个汇总桶会落入多个图表桶
+        long granularity = granularityAt(from, now);
+        if (granularity == 0 || interval % granularity != 0) {
+            return null;
+        }
+
+        List<Map<String, Object>> chartData = new ArrayList<>();
+        DeviceSeries deviceSeries = series.get(deviceId);
+        if (deviceSeries == null || from > to) {
+            return chartData;
+        }
+        for (long bucket = Math.floorDiv(from, interval) * interval; bucket <= to; bucket += interval) {
+            Aggregate aggregate = new Aggregate();
+            aggregate(deviceSeries, Math.max(bucket, from), Math.min(bucket + interval - 1, to), now, aggregate);
+            if (aggregate.samples == 0) {
+                continue;
+            }
+            Map<String, Object> point = new LinkedHashMap<>();
+            point.put("timePoint", toDateTime(bucket).format(TIME_POINT_FORMATTER));
+            for (int metric = CPU; metric <= BATTERY; metric++) {
+                point.put(AVERAGE_KEYS[metric], aggregate.average(metric));
+            }
+            chartData.add(point);
+        }
+        return chartData;
+    }
+
+    /**
+     * 计算时间段内各指标平均值，键与 calculateAverageMetrics 相同
+     *
+     * @return 平均值；无法由存储回答时返回null
+     */
+    public Map<String, BigDecimal> getAverages(Long deviceId, LocalDateTime startTime, LocalDateTime endTime) {
+        long now = System.currentTimeMillis();
+        if (!ready || startTime == null || granularityAt(toMillis(startTime), now) == 0) {
+            return null;
+        }
+        long from = toMillis(startTime);
+        long to = endTime != null ? toMillis(endTime) : now;
+        Aggregate aggregate = new Aggregate();
+        DeviceSeries deviceSeries = series.get(deviceId);
+        if (deviceSeries != null && from <= to) {
+            aggregate(deviceSeries, from, to, now, aggregate);
+        }
+        Map<String, BigDecimal> averages = new HashMap<>();
+        for (int metric = 0; metric < METRIC_COUNT; metric++) {
+            averages.put(AVERAGE_KEYS[metric], aggregate.average(metric));
+        }
+        return averages;
+    }
+
+    /**
+     * 每分钟丢弃过期的原始数据块和汇总桶，移除超过日汇总保留期没有数据的设备
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void expire() {
+        long now = System.currentTimeMillis();
+        long rawCutoff = now - rawRetentionHours * HOUR_MS;
+        long idleCutoff = now - dayRetentionDays * DAY_MS;
+        int blocks = 0;
+        long bytes = 0;
+        long samples = 0;
+        for (Map.Entry<Long, DeviceSeries> entry : series.entrySet()) {
+            DeviceSeries deviceSeries = entry.getValue();
+            synchronized (deviceSeries) {
+                deviceSeries.expire(rawCutoff, now);
+                if (deviceSeries.lastTimestamp < idleCutoff) {
+                    series.remove(entry.getKey(), deviceSeries);
+                    continue;
+                }
+                for (TimeSeriesBlock block : deviceSeries.blocks) {
+                    blocks++;
+                    bytes += block.getEncodedBytes();
+                    samples += block.size();
+                }
+            }
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("设备性能时间序列 - 设备数: {}, 数据块: {}, 原始样本: {}, 压缩后: {} 字节（每样本 {} 字节）",
+                         series.size(), blocks, samples, bytes, samples > 0 ? bytes / samples : 0);
+        }
+    }
+
+    /**
+     * 累加 [from, to] 内的样本：依次选择起点对齐且完整落在区间内的天/小时/分钟桶，
+     * 其余不足一分钟的部分扫描原始样本；原始样本不可用时用所在的最细汇总桶近似
+     */
+    private void aggregate(DeviceSeries deviceSeries, long from, long to, long now, Aggregate into) {
+        synchronized (deviceSeries) {
+            long cursor = from;
+            while (cursor <= to) {
+                RollupTier whole = null;
+                for (RollupTier tier : deviceSeries.tiers) {
+                    if (cursor % tier.bucketMillis == 0 && cursor + tier.bucketMillis - 1 <= to
+                        && cursor >= coveredFrom(tier, now)) {
+                        whole = tier;
+                        break;
+                    }
+                }
+                if (whole != null) {
+                    whole.addTo(cursor / whole.bucketMillis, into);
+                    cursor += whole.bucketMillis;
+                    continue;
+                }
+
+                if (cursor >= rawCoveredFrom(now)) {
+                    long end = Math.min((Math.floorDiv(cursor, MINUTE_MS) + 1) * MINUTE_MS - 1, to);
+                    deviceSeries.scan(cursor, end, into::add);
+                    cursor = end + 1;
+                    continue;
+                }
+
+                RollupTier nearest = null;
+                for (RollupTier tier : deviceSeries.tiers) {
+                    if (cursor >= coveredFrom(tier, now)) {
+                        nearest = tier;
+                    }
+                }
+                if (nearest == null) {
+                    return;
+                }
+                long bucket = Math.floorDiv(cursor, nearest.bucketMillis);
+                nearest.addTo(bucket, into);
+                cursor = (bucket + 1) * nearest.bucketMillis;
+            }
+        }
+    }
+
+    /**
+     * 指定时刻可用的最细汇总粒度（毫秒）：原始样本可用时为1分钟，都不可用时为0
+     */
+    private long granularityAt(long timestamp, long now) {
+        if (timestamp >= rawCoveredFrom(now) || timestamp >= coveredFrom(MINUTE_MS, minuteRetentionHours * HOUR_MS, now)) {
+            return MINUTE_MS;
+        }
+        if (timestamp >= coveredFrom(HOUR_MS, hourRetentionDays * DAY_MS, now)) {
+            return HOUR_MS;
+        }
+        if (timestamp >= coveredFrom(DAY_MS, dayRetentionDays * DAY_MS, now)) {
+            return DAY_MS;
+        }
+        return 0;
+    }
+
+    private long rawCoveredFrom(long now) {
+        return Math.max(loadedFrom, now - rawRetentionHours * HOUR_MS);
+    }
+
+    private long coveredFrom(RollupTier tier, long now) {
+        return coveredFrom(tier.bucketMillis, tier.retentionMillis, now);
+    }
+
+    /**
+     * 汇总桶完整可用的起始时间：加载起点所在桶可能缺少加载起点之前的样本，从下一个桶开始
+     */
+    private long coveredFrom(long bucketMillis, long retentionMillis, long now) {
+        if (loadedFrom == Long.MAX_VALUE) {
+            return Long.MAX_VALUE;
+        }
+        long loaded = Math.floorDiv(loadedFrom + bucketMillis - 1, bucketMillis) * bucketMillis;
+        long retained = (Math.floorDiv(now - retentionMillis, bucketMillis) + 1) * bucketMillis;
+        return Math.max(loaded, retained);
+    }
+
+    private DeviceSeries newSeries() {
+        return new DeviceSeries(new RollupTier[] {
+            new RollupTier(DAY_MS, dayRetentionDays * DAY_MS),
+            new RollupTier(HOUR_MS, hourRetentionDays * DAY_MS),
+            new RollupTier(MINUTE_MS, minuteRetentionHours * HOUR_MS)
+        });
+    }
+
+    private DevicePerformanceMetrics toMetrics(Long deviceId, long timestamp, double[] values) {
+        DevicePerformanceMetrics metrics = new DevicePerformanceMetrics();
+        metrics.setId(Double.isNaN(values[ID]) ? null : (long) values[ID]);
+        metrics.setDeviceId(deviceId);
+        metrics.setCpuUsage(toDecimal(values[CPU]));
+        metrics.setMemoryUsage(toDecimal(values[MEMORY]));
+        metrics.setDiskUsage(toDecimal(values[DISK]));
+        metrics.setTemperature(toDecimal(values[TEMPERATURE]));
+        metrics.setBatteryLevel(toDecimal(values[BATTERY]));
+        metrics.setNetworkLatency(Double.isNaN(values[LATENCY]) ? null : (int) Math.round(values[LATENCY]));
+        metrics.setNetworkBandwidth(toDecimal(values[BANDWIDTH]));
+        metrics.setMetricTimestamp(toDateTime(timestamp));
+        metrics.setCreatedAt(Double.isNaN(values[CREATED_AT]) ? null : toDateTime(timestamp + (long) values[CREATED_AT]));
+        return metrics;
+    }
+
+    private long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(zone).toInstant().toEpochMilli();
+    }
+
+    private LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), zone);
+    }
+
+    private static double toDouble(BigDecimal value) {
+        return value != null ? value.doubleValue() : Double.NaN;
+    }
+
+    private static BigDecimal toDecimal(double value) {
+        return Double.isNaN(value) ? null : BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * 单个设备的原始数据块和各级汇总，访问时以对象本身加锁
+     */
+    private static class DeviceSeries {
+        private final List<TimeSeriesBlock> blocks = new ArrayList<>();
+        private final RollupTier[] tiers;
+        private TimeSeriesBlock open;
+        private long openBlockHour = Long.MIN_VALUE;
+        private long lastTimestamp = Long.MIN_VALUE;
+
+        DeviceSeries(RollupTier[] tiers) {
+            this.tiers = tiers;
+        }
+
+        synchronized void append(long timestamp, double[] values) {
+            // 每小时一个数据块；迟到的样本写入当前块，块的时间范围随之扩展
+            long hour = Math.floorDiv(timestamp, HOUR_MS);
+            if (open == null || hour > openBlockHour) {
+                if (open != null) {
+                    open.trim();
+                }
+                open = new TimeSeriesBlock(COLUMN_COUNT);
+                openBlockHour = hour;
+                blocks.add(open);
+            }
+            open.append(timestamp, values);
+            for (RollupTier tier : tiers) {
+                tier.add(timestamp, values);
+            }
+            lastTimestamp = Math.max(lastTimestamp, timestamp);
+        }
+
+        synchronized void scan(long from, long to, TimeSeriesBlock.SampleVisitor visitor) {
+            for (TimeSeriesBlock block : blocks) {
+                if (block.getMaxTimestamp() < from || block.getMinTimestamp() > to) {
+                    continue;
+                }
+                block.forEach((timestamp, values) -> {
+                    if (timestamp >= from && timestamp <= to) {
+                        visitor.accept(timestamp, values);
+                    }
+                });
+            }
+        }
+
+        synchronized void expire(long cutoff, long now) {
+            blocks.removeIf(block -> block != open && block.getMaxTimestamp() < cutoff);
+            if (open != null && open.getMaxTimestamp() < cutoff) {
+                blocks.remove(open);
+                open = null;
+                openBlockHour = Long.MIN_VALUE;
+            }
+            for (RollupTier tier : tiers) {
+                tier.expire(now);
+            }
+        }
+    }
+
+    /**
+     * 一级汇总：按桶ID升序保存有样本的桶（各指标的和与非空样本数），数组按实际有数据的桶数扩容，
+     * 没有样本的时间段不占空间；超出保留期的桶从头部批量移除
+     */
+    private static class RollupTier {
+        private static final int INITIAL_CAPACITY = 4;
+
+        private final long bucketMillis;
+        private final long retentionMillis;
+        /** 保留的桶跨度：最新桶往前超过该数量的桶视为过期 */
+        private final long maxBuckets;
+        /** 容量上限：比保留跨度多留1/8，容量用满时一次至少移除1/8的过期桶 */
+        private final int maxCapacity;
+        private long[] bucketIds;
+        private double[] sums;
+        private int[] counts;
+        private int[] samples;
+        private int size;
+
+        RollupTier(long bucketMillis, long retentionMillis) {
+            this.bucketMillis = bucketMillis;
+            this.retentionMillis = retentionMillis;
+            this.maxBuckets = retentionMillis / bucketMillis + 2;
+            this.maxCapacity = (int) (maxBuckets + Math.max(INITIAL_CAPACITY, maxBuckets / 8));
+        }
+
+        void add(long timestamp, double[] values) {
+            long bucket = Math.floorDiv(timestamp, bucketMillis);
+            int slot;
+            if (size > 0 && bucketIds[size - 1] == bucket) {
+                slot = size - 1;
+            } else {
+                if (size > 0 && bucket <= bucketIds[size - 1] - maxBuckets) {
+                    // 比保留期内最旧的桶还早
+                    return;
+                }
+                slot = find(bucket);
+                if (slot < 0) {
+                    slot = insert(-slot - 1, bucket);
+                }
+            }
+            samples[slot]++;
+            for (int metric = 0; metric < METRIC_COUNT; metric++) {
+                if (!Double.isNaN(values[metric])) {
+                    sums[slot * METRIC_COUNT + metric] += values[metric];
+                    counts[slot * METRIC_COUNT + metric]++;
+                }
+            }
+        }
+
+        void addTo(long bucket, Aggregate into) {
+            int slot = find(bucket);
+            if (slot < 0) {
+                return;
+            }
+            into.samples += samples[slot];
+            for (int metric = 0; metric < METRIC_COUNT; metric++) {
+                into.sums[metric] += sums[slot * METRIC_COUNT + metric];
+                into.counts[metric] += counts[slot * METRIC_COUNT + metric];
+            }
+        }
+
+        /**
+         * 移除超出保留期的桶，有效桶数远小于容量时缩容，没有桶时释放数组
+         */
+        void expire(long now) {
+            evictBefore(Math.floorDiv(now, bucketMillis) - maxBuckets + 1);
+            if (size == 0) {
+                bucketIds = null;
+                sums = null;
+                counts = null;
+                samples = null;
+            } else if (bucketIds.length > INITIAL_CAPACITY && size <= bucketIds.length / 4) {
+                resize(Math.max(INITIAL_CAPACITY, size * 2));
+            }
+        }
+
+        private int find(long bucket) {
+            return size > 0 ? Arrays.binarySearch(bucketIds, 0, size, bucket) : -1;
+        }
+
+        private int insert(int index, long bucket) {
+            if (bucketIds == null) {
+                bucketIds = new long[INITIAL_CAPACITY];
+                sums = new double[INITIAL_CAPACITY * METRIC_COUNT];
+                counts = new int[INITIAL_CAPACITY * METRIC_COUNT];
+                samples = new int[INITIAL_CAPACITY];
+            } else if (size == bucketIds.length) {
+                // 先批量移除过期的桶（都在插入位置之前），仍超过容量的3/4时扩容
+                long newest = Math.max(bucket, bucketIds[size - 1]);
+                index -= evictBefore(newest - maxBuckets + 1);
+                if (size >= bucketIds.length * 3 / 4 && bucketIds.length < maxCapacity) {
+                    resize(Math.min(bucketIds.length * 2, maxCapacity));
+                }
+            }
+            if (index < size) {
+                System.arraycopy(bucketIds, index, bucketIds, index + 1, size - index);
+                System.arraycopy(sums, index * METRIC_COUNT, sums, (index + 1) * METRIC_COUNT, (size - index) * METRIC_COUNT);
+                System.arraycopy(counts, index * METRIC_COUNT, counts, (index + 1) * METRIC_COUNT, (size - index) * METRIC_COUNT);
+                System.arraycopy(samples, index, samples, index + 1, size - index);
+            }
+            bucketIds[index] = bucket;
+            Arrays.fill(sums, index * METRIC_COUNT, (index + 1) * METRIC_COUNT, 0);
+            Arrays.fill(counts, index * METRIC_COUNT, (index + 1) * METRIC_COUNT, 0);
+            samples[index] = 0;
+            size++;
+            return index;
+        }
+
+        /**
+         * 移除桶ID小于 oldest 的桶
+         *
+         * @return 移除的桶数
+         */
+        private int evictBefore(long oldest) {
+            int evicted = 0;
+            while (evicted < size && bucketIds[evicted] < oldest) {
+                evicted++;
+            }
+            if (evicted > 0) {
+                int remaining = size - evicted;
+                System.arraycopy(bucketIds, evicted, bucketIds, 0, remaining);
+                System.arraycopy(sums, evicted * METRIC_COUNT, sums, 0, remaining * METRIC_COUNT);
+                System.arraycopy(counts, evicted * METRIC_COUNT, counts, 0, remaining * METRIC_COUNT);
+                System.arraycopy(samples, evicted, samples, 0, remaining);
+                size = remaining;
+            }
+            return evicted;
+        }
+
+        private void resize(int capacity) {
+            bucketIds = Arrays.copyOf(bucketIds, capacity);
+            sums = Arrays.copyOf(sums, capacity * METRIC_COUNT);
+            counts = Arrays.copyOf(counts, capacity * METRIC_COUNT);
+            samples = Arrays.copyOf(samples, capacity);
+        }
+    }
+
+    /**
+     * 汇总结果：平均值按非空样本计算，与 SQL AVG 一致
+     */
+    private static class Aggregate {
+        private final double[] sums = new double[METRIC_COUNT];
+        private final long[] counts = new long[METRIC_COUNT];
+        private long samples;
+
+        void add(long timestamp, double[] values) {
+            samples++;
+            for (int metric = 0; metric < METRIC_COUNT; metric++) {
+                if (!Double.isNaN(values[metric])) {
+                    sums[metric] += values[metric];
+                    counts[metric]++;
+                }
+            }
+        }
+
+        BigDecimal average(int metric) {
+            return counts[metric] > 0
+                ? BigDecimal.valueOf(sums[metric] / counts[metric]).setScale(2, RoundingMode.HALF_UP) : null;
+        }
+    }
+}
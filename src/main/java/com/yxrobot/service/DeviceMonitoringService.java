@@ -2,6 +2,7 @@ package com.yxrobot.service;
 
 import com.yxrobot.dto.DeviceMonitoringDataDTO;
 import com.yxrobot.dto.DeviceMapDataDTO;
+import com.yxrobot.dto.DeviceMapViewDTO;
 import com.yxrobot.entity.DeviceMonitoringData;
 import com.yxrobot.entity.DevicePerformanceMetrics;
 import com.yxrobot.entity.DeviceNetworkStatus;
@@ -33,7 +34,7 @@ import java.util.stream.Collectors;
  * - 设备搜索和筛选
  * - 设备详情查询
  * - 设备状态更新
- * - 地图数据查询
+ * - 地图数据查询（视口查询和按缩放级别聚合由 {@link DeviceMapIndex} 提供）
  * 
  * @author YXRobot Development Team
  * @since 2024
@@ -53,6 +54,12 @@ public class DeviceMonitoringService {
     @Autowired
     private DeviceNetworkStatusMapper deviceNetworkStatusMapper;
     
+    @Autowired
+    private DeviceStateTable deviceStateTable;
+    
+    @Autowired
+    private DeviceMapIndex deviceMapIndex;
+    
     /**
      * 分页查询设备监控数据列表
      * 支持前端页面的分页、搜索、筛选需求
@@ -84,8 +91,7 @@ public class DeviceMonitoringService {
             
             // 4. 转换为DTO并填充关联数据
             List<DeviceMonitoringDataDTO> dtoList = dataList.stream()
-                    .map(this::convertToDTO)
-                    .peek(this::fillAssociatedData)
+                    .map(this::convertWithAssociatedData)
                     .collect(Collectors.toList());
             
             // 5. 构建分页结果
@@ -123,11 +129,8 @@ public class DeviceMonitoringService {
                 return null;
             }
             
-            // 2. 转换为DTO
-            DeviceMonitoringDataDTO dto = convertToDTO(data);
-            
-            // 3. 填充关联数据
-            fillAssociatedData(dto);
+            // 2. 转换为DTO并填充关联数据
+            DeviceMonitoringDataDTO dto = convertWithAssociatedData(data);
             
             logger.info("成功获取设备监控详情: deviceId={}", deviceId);
             return dto;
@@ -153,8 +156,7 @@ public class DeviceMonitoringService {
             List<DeviceMonitoringData> dataList = deviceMonitoringDataMapper.searchDevices(keyword, limit);
             
             return dataList.stream()
-                    .map(this::convertToDTO)
-                    .peek(this::fillAssociatedData)
+                    .map(this::convertWithAssociatedData)
                     .collect(Collectors.toList());
                     
         } catch (Exception e) {
@@ -178,8 +180,7 @@ public class DeviceMonitoringService {
             
             return dataList.stream()
                     .limit(limit != null ? limit : Long.MAX_VALUE)
-                    .map(this::convertToDTO)
-                    .peek(this::fillAssociatedData)
+                    .map(this::convertWithAssociatedData)
                     .collect(Collectors.toList());
                     
         } catch (Exception e) {
@@ -197,7 +198,10 @@ public class DeviceMonitoringService {
         logger.info("获取设备分布地图数据");
         
         try {
-            List<DeviceMonitoringData> dataList = deviceMonitoringDataMapper.selectDevicesWithLocation();
+            List<DeviceMonitoringData> dataList = deviceMapIndex.getAllDevices();
+            if (dataList == null) {
+                dataList = deviceMonitoringDataMapper.selectDevicesWithLocation();
+            }
             
             return dataList.stream()
                     .map(this::convertToMapDTO)
@@ -209,6 +213,38 @@ public class DeviceMonitoringService {
         }
     }
     
+    /**
+     * 获取视口范围内的设备分布地图数据
+     * 缩放级别不超过最大聚合级别时按网格聚合，网格内只有一台设备时直接返回设备
+     * 
+     * @param minLat 视口最小纬度
+     * @param minLng 视口最小经度，大于最大经度时表示视口跨越180度经线
+     * @param maxLat 视口最大纬度
+     * @param maxLng 视口最大经度
+     * @param zoom 地图缩放级别
+     * @return 视口内的设备和聚合点
+     */
+    public DeviceMapViewDTO getDeviceMapView(double minLat, double minLng, double maxLat, double maxLng, int zoom) {
+        logger.debug("获取视口设备地图数据: bbox=[{}, {}, {}, {}], zoom={}", minLat, minLng, maxLat, maxLng, zoom);
+        
+        DeviceMapIndex.ViewportResult result = deviceMapIndex.query(minLat, minLng, maxLat, maxLng, zoom);
+        if (result == null) {
+            // 索引尚未加载完成，用数据库查询结果临时聚合
+            result = deviceMapIndex.query(deviceMonitoringDataMapper.selectDevicesWithLocation(),
+                                          minLat, minLng, maxLat, maxLng, zoom);
+        }
+        
+        DeviceMapViewDTO view = new DeviceMapViewDTO();
+        view.setDevices(result.getDevices().stream()
+                .map(this::convertToMapDTO)
+                .collect(Collectors.toList()));
+        view.setClusters(result.getClusters());
+        view.setTotal(result.getTotal());
+        view.setZoom(zoom);
+        view.setClustered(result.isClustered());
+        return view;
+    }
+    
     /**
      * 更新设备状态
      * 
@@ -225,6 +261,8 @@ public class DeviceMonitoringService {
             int result = deviceMonitoringDataMapper.updateDeviceStatus(deviceId, status, lastOnlineAt);
             
             if (result > 0) {
+                deviceStateTable.updateStatus(deviceId, status, lastOnlineAt);
+                deviceMapIndex.updateStatus(deviceId, status, lastOnlineAt);
                 logger.info("设备状态更新成功: deviceId={}, status={}", deviceId, status);
                 return true;
             } else {
@@ -251,6 +289,8 @@ public class DeviceMonitoringService {
         
         try {
             int result = deviceMonitoringDataMapper.batchUpdateStatus(deviceIds, status);
+            deviceStateTable.updateStatus(deviceIds, status);
+            deviceMapIndex.updateStatus(deviceIds, status);
             logger.info("批量更新设备状态成功: 更新了{}台设备", result);
             return result;
             
@@ -275,8 +315,15 @@ public class DeviceMonitoringService {
             int result;
             if (deviceId != null) {
                 result = deviceMonitoringDataMapper.syncDeviceInfo(deviceId);
+                DeviceMonitoringData synced = deviceMonitoringDataMapper.selectByDeviceId(deviceId);
+                if (synced != null) {
+                    deviceStateTable.updateStatus(deviceId, synced.getStatus(), synced.getLastOnlineAt());
+                }
+                deviceMapIndex.refreshAfterCommit(deviceId);
             } else {
                 result = deviceMonitoringDataMapper.batchSyncAllDeviceInfo();
+                deviceStateTable.reloadStatuses();
+                deviceMapIndex.reloadAfterCommit();
             }
             
             logger.info("设备信息同步成功: 同步了{}台设备", result);
@@ -389,6 +436,7 @@ public class DeviceMonitoringService {
             return null;
         }
         
+        applyLatestState(data);
         DeviceMapDataDTO dto = new DeviceMapDataDTO();
         
         // 基本信息
@@ -416,20 +464,76 @@ public class DeviceMonitoringService {
             dto.setLastOnlineAtFormatted(data.getLastOnlineAt().format(formatter));
         }
         
+        // 性能和网络概况只取自设备状态表，不为地图上的每台设备查询数据库
+        DevicePerformanceMetrics metrics = deviceStateTable.getLatestPerformance(data.getDeviceId());
+        if (metrics != null) {
+            dto.setCpuUsage(metrics.getCpuUsage());
+            dto.setMemoryUsage(metrics.getMemoryUsage());
+            dto.setPerformanceLevel(getPerformanceLevel(metrics));
+        }
+        DeviceNetworkStatus networkStatus = deviceStateTable.getLatestNetworkStatus(data.getDeviceId());
+        if (networkStatus != null) {
+            dto.setNetworkType(networkStatus.getNetworkType() != null ? networkStatus.getNetworkType().getCode() : null);
+            dto.setSignalStrength(networkStatus.getSignalStrength());
+            dto.setConnectionStatus(networkStatus.getConnectionStatus() != null ? 
+                                   networkStatus.getConnectionStatus().getCode() : null);
+        }
+        
+        return dto;
+    }
+    
+    /**
+     * 用设备状态表中的最新状态覆盖监控数据中的状态和最后在线时间
+     */
+    private void applyLatestState(DeviceMonitoringData data) {
+        DeviceMonitoringData state = deviceStateTable.getDeviceState(data.getDeviceId());
+        if (state != null) {
+            data.setStatus(state.getStatus());
+            data.setLastOnlineAt(state.getLastOnlineAt());
+        }
+    }
+    
+    /**
+     * 性能等级，按 100 - (CPU + 内存) / 2 划分，与设备性能服务一致
+     */
+    private String getPerformanceLevel(DevicePerformanceMetrics metrics) {
+        if (metrics.getCpuUsage() == null || metrics.getMemoryUsage() == null) {
+            return "未知";
+        }
+        double performance = 100 - (metrics.getCpuUsage().doubleValue() + metrics.getMemoryUsage().doubleValue()) / 2;
+        if (performance >= 80) {
+            return "优秀";
+        } else if (performance >= 60) {
+            return "良好";
+        } else if (performance >= 40) {
+            return "一般";
+        } else {
+            return "较差";
+        }
+    }
+    
+    /**
+     * 转换为DTO并填充关联数据
+     */
+    private DeviceMonitoringDataDTO convertWithAssociatedData(DeviceMonitoringData data) {
+        if (data == null) {
+            return null;
+        }
+        applyLatestState(data);
+        DeviceMonitoringDataDTO dto = convertToDTO(data);
+        fillAssociatedData(dto, data.getDeviceId() != null ? data.getDeviceId() : data.getId());
         return dto;
     }
     
     /**
      * 填充关联数据（性能指标、网络状态）
      */
-    private void fillAssociatedData(DeviceMonitoringDataDTO dto) {
-        if (dto == null || dto.getId() == null) {
+    private void fillAssociatedData(DeviceMonitoringDataDTO dto, Long deviceId) {
+        if (dto == null || deviceId == null) {
             return;
         }
         
         try {
-            Long deviceId = Long.parseLong(dto.getId());
-            
             // 填充性能数据
             fillPerformanceData(dto, deviceId);
             
@@ -437,7 +541,7 @@ public class DeviceMonitoringService {
             fillNetworkData(dto, deviceId);
             
         } catch (Exception e) {
-            logger.warn("填充关联数据失败: deviceId={}", dto.getId(), e);
+            logger.warn("填充关联数据失败: deviceId={}", deviceId, e);
         }
     }
     
@@ -446,7 +550,10 @@ public class DeviceMonitoringService {
      */
     private void fillPerformanceData(DeviceMonitoringDataDTO dto, Long deviceId) {
         try {
-            DevicePerformanceMetrics metrics = devicePerformanceMetricsMapper.selectLatestByDeviceId(deviceId);
+            DevicePerformanceMetrics metrics = deviceStateTable.getLatestPerformance(deviceId);
+            if (metrics == null && !deviceStateTable.isReady()) {
+                metrics = devicePerformanceMetricsMapper.selectLatestByDeviceId(deviceId);
+            }
             
             if (metrics != null) {
                 DeviceMonitoringDataDTO.PerformanceDTO performance = new DeviceMonitoringDataDTO.PerformanceDTO();
@@ -468,7 +575,10 @@ public class DeviceMonitoringService {
      */
     private void fillNetworkData(DeviceMonitoringDataDTO dto, Long deviceId) {
         try {
-            DeviceNetworkStatus networkStatus = deviceNetworkStatusMapper.selectLatestByDeviceId(deviceId);
+            DeviceNetworkStatus networkStatus = deviceStateTable.getLatestNetworkStatus(deviceId);
+            if (networkStatus == null && !deviceStateTable.isReady()) {
+                networkStatus = deviceNetworkStatusMapper.selectLatestByDeviceId(deviceId);
+            }
             
             if (networkStatus != null) {
                 DeviceMonitoringDataDTO.NetworkStatusDTO network = new DeviceMonitoringDataDTO.NetworkStatusDTO();
@@ -45,6 +45,12 @@ public class DeviceNetworkService {
     
     @Autowired
     private DeviceNetworkStatusMapper deviceNetworkStatusMapper; 
+    
+    @Autowired
+    private DeviceAlertRuleEngine deviceAlertRuleEngine;
+    
+    @Autowired
+    private DeviceStateTable deviceStateTable;
    
     /**
      * 根据设备ID获取最新网络状态
@@ -56,7 +62,10 @@ public class DeviceNetworkService {
         logger.info("获取设备最新网络状态: deviceId={}", deviceId);
         
         try {
-            DeviceNetworkStatus networkStatus = deviceNetworkStatusMapper.selectLatestByDeviceId(deviceId);
+            DeviceNetworkStatus networkStatus = deviceStateTable.getLatestNetworkStatus(deviceId);
+            if (networkStatus == null && !deviceStateTable.isReady()) {
+                networkStatus = deviceNetworkStatusMapper.selectLatestByDeviceId(deviceId);
+            }
             
             if (networkStatus == null) {
                 logger.warn("未找到设备网络状态: deviceId={}", deviceId);
@@ -365,6 +374,7 @@ public class DeviceNetworkService {
                 deviceId, connectionStatus, lastConnectedAt);
             
             if (result > 0) {
+                deviceStateTable.updateConnectionStatus(deviceId, connectionStatus, lastConnectedAt);
                 logger.info("设备连接状态更新成功: deviceId={}", deviceId);
                 return true;
             } else {
@@ -391,6 +401,7 @@ public class DeviceNetworkService {
         
         try {
             int result = deviceNetworkStatusMapper.batchUpdateConnectionStatus(deviceIds, connectionStatus);
+            deviceStateTable.updateConnectionStatus(deviceIds, connectionStatus);
             logger.info("批量更新设备连接状态成功: 更新了{}台设备", result);
             return result;
             
@@ -492,14 +503,24 @@ public class DeviceNetworkService {
     public int batchInsertNetworkStatus(List<DeviceNetworkStatus> statusList) {
         logger.info("批量插入网络状态数据: count={}", statusList.size());
         
+        int result;
         try {
-            int result = deviceNetworkStatusMapper.batchInsert(statusList);
+            result = deviceNetworkStatusMapper.batchInsert(statusList);
             logger.info("批量插入网络状态数据成功: 插入了{}条记录", result);
-            return result;
         } catch (Exception e) {
             logger.error("批量插入网络状态数据失败", e);
             return 0;
         }
+        
+        // 数据已写入，后续内存更新失败不影响返回值，避免调用方重试造成重复写入
+        try {
+            deviceStateTable.updateNetworkStatus(statusList);
+            // 新样本即时评估告警规则
+            deviceAlertRuleEngine.onNetworkStatus(statusList);
+        } catch (Exception e) {
+            logger.error("网络状态写入后更新内存数据失败", e);
+        }
+        return result;
     }
     
     /**
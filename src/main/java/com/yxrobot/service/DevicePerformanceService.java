@@ -5,6 +5,7 @@ import com.yxrobot.dto.DeviceChartDataDTO;
 import com.yxrobot.entity.DevicePerformanceMetrics;
 import com.yxrobot.mapper.DevicePerformanceMetricsMapper;
 import com.yxrobot.service.DeviceMonitoringService.PageResult;
+import com.yxrobot.util.TransactionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -44,6 +45,15 @@ public class DevicePerformanceService {
     @Autowired
     private DevicePerformanceMetricsMapper devicePerformanceMetricsMapper;
     
+    @Autowired
+    private DeviceAlertRuleEngine deviceAlertRuleEngine;
+    
+    @Autowired
+    private DeviceMetricsTimeSeriesStore deviceMetricsTimeSeriesStore;
+    
+    @Autowired
+    private DeviceStateTable deviceStateTable;
+    
     /**
      * 根据设备ID获取最新性能指标
      * 
@@ -54,7 +64,10 @@ public class DevicePerformanceService {
         logger.info("获取设备最新性能指标: deviceId={}", deviceId);
         
         try {
-            DevicePerformanceMetrics metrics = devicePerformanceMetricsMapper.selectLatestByDeviceId(deviceId);
+            DevicePerformanceMetrics metrics = deviceStateTable.getLatestPerformance(deviceId);
+            if (metrics == null && !deviceStateTable.isReady()) {
+                metrics = devicePerformanceMetricsMapper.selectLatestByDeviceId(deviceId);
+            }
             
             if (metrics == null) {
                 logger.warn("未找到设备性能指标: deviceId={}", deviceId);
@@ -85,8 +98,13 @@ public class DevicePerformanceService {
                    deviceId, startTime, endTime);
         
         try {
-            List<DevicePerformanceMetrics> metricsList = devicePerformanceMetricsMapper
-                    .selectHistoryByDeviceId(deviceId, startTime, endTime, limit);
+            // 原始数据保留期内的记录从时间序列存储读取
+            List<DevicePerformanceMetrics> metricsList = deviceMetricsTimeSeriesStore
+                    .getHistory(deviceId, startTime, endTime, limit);
+            if (metricsList == null) {
+                metricsList = devicePerformanceMetricsMapper
+                        .selectHistoryByDeviceId(deviceId, startTime, endTime, limit);
+            }
             
             return metricsList.stream()
                     .map(this::convertToDTO)
@@ -162,9 +180,13 @@ public class DevicePerformanceService {
         logger.info("生成性能图表数据: deviceId={}, interval={}分钟", deviceId, intervalMinutes);
         
         try {
-            // 查询图表数据
-            List<Map<String, Object>> chartData = devicePerformanceMetricsMapper
-                    .selectChartData(deviceId, startTime, endTime, intervalMinutes);
+            // 查询图表数据：按间隔从时间序列存储的分钟/小时/天汇总合并，超出存储范围时回退到数据库分组查询
+            List<Map<String, Object>> chartData = deviceMetricsTimeSeriesStore
+                    .getChartData(deviceId, startTime, endTime, intervalMinutes);
+            if (chartData == null) {
+                chartData = devicePerformanceMetricsMapper
+                        .selectChartData(deviceId, startTime, endTime, intervalMinutes);
+            }
             
             if (chartData.isEmpty()) {
                 logger.warn("未找到图表数据: deviceId={}", deviceId);
@@ -253,6 +275,10 @@ public class DevicePerformanceService {
         logger.info("计算设备平均性能指标: deviceId={}", deviceId);
         
         try {
+            Map<String, BigDecimal> averages = deviceMetricsTimeSeriesStore.getAverages(deviceId, startTime, endTime);
+            if (averages != null) {
+                return averages;
+            }
             return devicePerformanceMetricsMapper.calculateAverageMetrics(deviceId, startTime, endTime);
         } catch (Exception e) {
             logger.error("计算设备平均性能指标失败: deviceId={}", deviceId, e);
@@ -334,14 +360,42 @@ public class DevicePerformanceService {
     public int batchInsertMetrics(List<DevicePerformanceMetrics> metricsList) {
         logger.info("批量插入性能指标数据: count={}", metricsList.size());
         
+        // 创建时间由应用写入（精确到秒，与数据库 DATETIME 一致），时间序列存储保存的记录与数据库相同
+        LocalDateTime createdAt = LocalDateTime.now().withNano(0);
+        for (DevicePerformanceMetrics metrics : metricsList) {
+            if (metrics.getCreatedAt() == null) {
+                metrics.setCreatedAt(createdAt);
+            }
+        }
+        
+        int result;
         try {
-            int result = devicePerformanceMetricsMapper.batchInsert(metricsList);
+            result = devicePerformanceMetricsMapper.batchInsert(metricsList);
             logger.info("批量插入性能指标数据成功: 插入了{}条记录", result);
-            return result;
         } catch (Exception e) {
             logger.error("批量插入性能指标数据失败", e);
             return 0;
         }
+        
+        // 数据已写入，后续内存更新失败不影响返回值，避免调用方重试造成重复写入
+        try {
+            // 时间序列存储在事务提交后追加，回滚的样本不进入存储
+            TransactionUtils.afterCommit(() -> appendToTimeSeries(metricsList));
+            deviceStateTable.updatePerformance(metricsList);
+            // 新样本即时评估告警规则
+            deviceAlertRuleEngine.onPerformanceMetrics(metricsList);
+        } catch (Exception e) {
+            logger.error("性能指标写入后更新内存数据失败", e);
+        }
+        return result;
+    }
+    
+    private void appendToTimeSeries(List<DevicePerformanceMetrics> metricsList) {
+        try {
+            deviceMetricsTimeSeriesStore.append(metricsList);
+        } catch (Exception e) {
+            logger.error("性能指标追加到时间序列存储失败", e);
+        }
     }
     
     /**
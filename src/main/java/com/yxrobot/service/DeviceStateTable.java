@@ -0,0 +1,560 @@
+package com.yxrobot.service;
+
+import com.yxrobot.entity.ConnectionStatus;
+import com.yxrobot.entity.DeviceMonitoringData;
+import com.yxrobot.entity.DeviceNetworkStatus;
+import com.yxrobot.entity.DevicePerformanceMetrics;
+import com.yxrobot.entity.DeviceStatus;
+import com.yxrobot.entity.NetworkType;
+import com.yxrobot.mapper.DeviceMonitoringDataMapper;
+import com.yxrobot.mapper.DeviceNetworkStatusMapper;
+import com.yxrobot.mapper.DevicePerformanceMetricsMapper;
+import com.yxrobot.util.LongIntHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 设备最新状态表
+ * 在内存中保存每台设备最新一条性能指标、最新网络状态和设备状态，替代按设备逐个执行的
+ * selectLatestByDeviceId（ORDER BY ... DESC LIMIT 1）查询。
+ *
+ * 按列存储：设备ID通过 {@link LongIntHashMap} 映射到行号，每个字段一个原始类型数组，
+ * 小数按两位定点存为 long，时间存为毫秒，枚举存为序号，空值用各类型的最小值表示，
+ * 不为每台设备保留实体对象。
+ *
+ * 性能指标和网络状态按采集/创建时间只保留最新的一条，较旧的数据不会覆盖较新的数据，
+ * 因此加载过程中写入的新数据不会被加载结果覆盖。加载完成前查不到时返回null，由调用方回退到数据库。
+ *
+ * @author YXRobot开发团队
+ * @since 2025-03-04
+ */
+@Component
+public class DeviceStateTable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceStateTable.class);
+
+    private static final long NULL_LONG = Long.MIN_VALUE;
+    private static final int NULL_INT = Integer.MIN_VALUE;
+    private static final byte NULL_BYTE = -1;
+
+    /** 定点小数位数 */
+    private static final int SCALE = 2;
+
+    private static final int CPU = 0;
+    private static final int MEMORY = 1;
+    private static final int DISK = 2;
+    private static final int TEMPERATURE = 3;
+    private static final int BATTERY = 4;
+    private static final int BANDWIDTH = 5;
+    private static final int PERF_DECIMALS = 6;
+
+    private static final int DOWNLOAD = 0;
+    private static final int UPLOAD = 1;
+    private static final int NET_DECIMALS = 2;
+
+    private static final NetworkType[] NETWORK_TYPES = NetworkType.values();
+    private static final ConnectionStatus[] CONNECTION_STATUSES = ConnectionStatus.values();
+    private static final DeviceStatus[] DEVICE_STATUSES = DeviceStatus.values();
+
+    @Autowired
+    private DevicePerformanceMetricsMapper devicePerformanceMetricsMapper;
+
+    @Autowired
+    private DeviceNetworkStatusMapper deviceNetworkStatusMapper;
+
+    @Autowired
+    private DeviceMonitoringDataMapper deviceMonitoringDataMapper;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final LongIntHashMap rows = new LongIntHashMap(1024);
+
+    private int rowCount;
+
+    private long[] deviceIds;
+
+    // 性能指标
+    private long[] perfIds;
+    private long[] perfTimestamps;
+    private long[] perfCreatedAt;
+    private long[] perfDecimals;
+    private int[] perfLatency;
+
+    // 网络状态
+    private long[] netIds;
+    private long[] netCreatedAt;
+    private long[] netUpdatedAt;
+    private long[] netLastConnectedAt;
+    private byte[] netTypes;
+    private byte[] netConnectionStatuses;
+    private int[] netSignal;
+    private int[] netPing;
+    private long[] netDecimals;
+    private String[] netIpAddresses;
+    private String[] netMacAddresses;
+
+    // 设备状态
+    private byte[] statuses;
+    private long[] lastOnlineAt;
+
+    private volatile boolean ready;
+
+    public DeviceStateTable() {
+        allocate(1024);
+    }
+
+    /**
+     * 应用启动后从数据库加载各设备最新状态
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        warmUp();
+    }
+
+    /**
+     * 从数据库加载各设备最新的性能指标、网络状态和设备状态
+     *
+     * @return 加载后的设备数量，加载失败返回-1
+     */
+    public synchronized int warmUp() {
+        if (ready) {
+            return size();
+        }
+        long start = System.currentTimeMillis();
+        try {
+            devicePerformanceMetricsMapper.selectLatestForAllDevices(
+                context -> updatePerformance(context.getResultObject()));
+            deviceNetworkStatusMapper.selectLatestForAllDevices(
+                context -> updateNetworkStatus(context.getResultObject()));
+            deviceMonitoringDataMapper.selectDeviceStates(context -> {
+                DeviceMonitoringData data = context.getResultObject();
+                loadStatus(data.getDeviceId(), data.getStatus(), data.getLastOnlineAt());
+            });
+        } catch (Exception e) {
+            logger.error("加载设备最新状态失败，查询回退到数据库", e);
+            return -1;
+        }
+        ready = true;
+        logger.info("加载设备最新状态完成 - 设备数: {}, 耗时: {}ms", size(), System.currentTimeMillis() - start);
+        return size();
+    }
+
+    /**
+     * 是否已完成加载；加载完成后查不到的设备即没有对应数据
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return rowCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 写入已保存到数据库的性能指标
+     */
+    public void updatePerformance(List<DevicePerformanceMetrics> metricsList) {
+        for (DevicePerformanceMetrics metrics : metricsList) {
+            updatePerformance(metrics);
+        }
+    }
+
+    private void updatePerformance(DevicePerformanceMetrics metrics) {
+        if (metrics == null || metrics.getDeviceId() == null || metrics.getMetricTimestamp() == null) {
+            return;
+        }
+        long timestamp = toMillis(metrics.getMetricTimestamp());
+        lock.writeLock().lock();
+        try {
+            int row = rowOf(metrics.getDeviceId());
+            if (perfTimestamps[row] != NULL_LONG && perfTimestamps[row] > timestamp) {
+                return;
+            }
+            perfIds[row] = toLong(metrics.getId());
+            perfTimestamps[row] = timestamp;
+            perfCreatedAt[row] = toMillis(metrics.getCreatedAt());
+            int base = row * PERF_DECIMALS;
+            perfDecimals[base + CPU] = toFixed(metrics.getCpuUsage());
+            perfDecimals[base + MEMORY] = toFixed(metrics.getMemoryUsage());
+            perfDecimals[base + DISK] = toFixed(metrics.getDiskUsage());
+            perfDecimals[base + TEMPERATURE] = toFixed(metrics.getTemperature());
+            perfDecimals[base + BATTERY] = toFixed(metrics.getBatteryLevel());
+            perfDecimals[base + BANDWIDTH] = toFixed(metrics.getNetworkBandwidth());
+            perfLatency[row] = toInt(metrics.getNetworkLatency());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 写入已保存到数据库的网络状态，创建时间为空时按当前时间（与数据库默认值一致）
+     */
+    public void updateNetworkStatus(List<DeviceNetworkStatus> statusList) {
+        for (DeviceNetworkStatus status : statusList) {
+            updateNetworkStatus(status);
+        }
+    }
+
+    private void updateNetworkStatus(DeviceNetworkStatus status) {
+        if (status == null || status.getDeviceId() == null) {
+            return;
+        }
+        long createdAt = status.getCreatedAt() != null ? toMillis(status.getCreatedAt()) : System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            int row = rowOf(status.getDeviceId());
+            if (netCreatedAt[row] != NULL_LONG && netCreatedAt[row] > createdAt) {
+                return;
+            }
+            netIds[row] = toLong(status.getId());
+            netCreatedAt[row] = createdAt;
+            netUpdatedAt[row] = status.getUpdatedAt() != null ? toMillis(status.getUpdatedAt()) : createdAt;
+            netLastConnectedAt[row] = toMillis(status.getLastConnectedAt());
+            netTypes[row] = toOrdinal(status.getNetworkType());
+            netConnectionStatuses[row] = toOrdinal(status.getConnectionStatus());
+            netSignal[row] = toInt(status.getSignalStrength());
+            netPing[row] = toInt(status.getPingLatency());
+            int base = row * NET_DECIMALS;
+            netDecimals[base + DOWNLOAD] = toFixed(status.getDownloadSpeed());
+            netDecimals[base + UPLOAD] = toFixed(status.getUploadSpeed());
+            netIpAddresses[row] = status.getIpAddress();
+            netMacAddresses[row] = status.getMacAddress();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 更新设备连接状态和最后连接时间（只更新已有网络状态的设备）
+     */
+    public void updateConnectionStatus(Long deviceId, ConnectionStatus connectionStatus,
+                                       LocalDateTime lastConnectedAt) {
+        updateConnectionStatus(Collections.singletonList(deviceId), connectionStatus, lastConnectedAt, true);
+    }
+
+    /**
+     * 批量更新设备连接状态，最后连接时间保持不变
+     */
+    public void updateConnectionStatus(List<Long> deviceIds, ConnectionStatus connectionStatus) {
+        updateConnectionStatus(deviceIds, connectionStatus, null, false);
+    }
+
+    private void updateConnectionStatus(List<Long> deviceIds, ConnectionStatus connectionStatus,
+                                        LocalDateTime lastConnectedAt, boolean setLastConnectedAt) {
+        long now = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            for (Long deviceId : deviceIds) {
+                int row = deviceId != null ? rows.get(deviceId) : LongIntHashMap.NO_VALUE;
+                if (row == LongIntHashMap.NO_VALUE || netCreatedAt[row] == NULL_LONG) {
+                    continue;
+                }
+                netConnectionStatuses[row] = toOrdinal(connectionStatus);
+                if (setLastConnectedAt) {
+                    netLastConnectedAt[row] = toMillis(lastConnectedAt);
+                }
+                netUpdatedAt[row] = now;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 更新设备状态和最后在线时间
+     */
+    public void updateStatus(Long deviceId, DeviceStatus status, LocalDateTime lastOnlineAt) {
+        updateStatus(Collections.singletonList(deviceId), status, lastOnlineAt, true);
+    }
+
+    /**
+     * 批量更新设备状态，最后在线时间保持不变
+     */
+    public void updateStatus(List<Long> deviceIds, DeviceStatus status) {
+        updateStatus(deviceIds, status, null, false);
+    }
+
+    private void updateStatus(List<Long> deviceIds, DeviceStatus status, LocalDateTime lastOnline,
+                              boolean setLastOnlineAt) {
+        lock.writeLock().lock();
+        try {
+            for (Long deviceId : deviceIds) {
+                if (deviceId == null) {
+                    continue;
+                }
+                int row = rowOf(deviceId);
+                statuses[row] = toOrdinal(status);
+                if (setLastOnlineAt) {
+                    lastOnlineAt[row] = toMillis(lastOnline);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 重新读取所有设备的状态和最后在线时间，用于批量同步设备信息之后
+     */
+    public void reloadStatuses() {
+        deviceMonitoringDataMapper.selectDeviceStates(context -> {
+            DeviceMonitoringData data = context.getResultObject();
+            updateStatus(data.getDeviceId(), data.getStatus(), data.getLastOnlineAt());
+        });
+    }
+
+    /**
+     * 加载时写入设备状态，已由更新路径写入的不覆盖
+     */
+    private void loadStatus(Long deviceId, DeviceStatus status, LocalDateTime lastOnline) {
+        if (deviceId == null || status == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            int row = rowOf(deviceId);
+            if (statuses[row] == NULL_BYTE) {
+                statuses[row] = toOrdinal(status);
+                lastOnlineAt[row] = toMillis(lastOnline);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 获取设备最新性能指标
+     *
+     * @return 性能指标，没有数据时返回null
+     */
+    public DevicePerformanceMetrics getLatestPerformance(Long deviceId) {
+        if (deviceId == null) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            int row = rows.get(deviceId);
+            if (row == LongIntHashMap.NO_VALUE || perfTimestamps[row] == NULL_LONG) {
+                return null;
+            }
+            DevicePerformanceMetrics metrics = new DevicePerformanceMetrics();
+            metrics.setId(toObject(perfIds[row]));
+            metrics.setDeviceId(deviceId);
+            int base = row * PERF_DECIMALS;
+            metrics.setCpuUsage(toDecimal(perfDecimals[base + CPU]));
+            metrics.setMemoryUsage(toDecimal(perfDecimals[base + MEMORY]));
+            metrics.setDiskUsage(toDecimal(perfDecimals[base + DISK]));
+            metrics.setTemperature(toDecimal(perfDecimals[base + TEMPERATURE]));
+            metrics.setBatteryLevel(toDecimal(perfDecimals[base + BATTERY]));
+            metrics.setNetworkBandwidth(toDecimal(perfDecimals[base + BANDWIDTH]));
+            metrics.setNetworkLatency(toObject(perfLatency[row]));
+            metrics.setMetricTimestamp(toDateTime(perfTimestamps[row]));
+            metrics.setCreatedAt(toDateTime(perfCreatedAt[row]));
+            return metrics;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 获取设备最新网络状态
+     *
+     * @return 网络状态，没有数据时返回null
+     */
+    public DeviceNetworkStatus getLatestNetworkStatus(Long deviceId) {
+        if (deviceId == null) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            int row = rows.get(deviceId);
+            if (row == LongIntHashMap.NO_VALUE || netCreatedAt[row] == NULL_LONG) {
+                return null;
+            }
+            DeviceNetworkStatus status = new DeviceNetworkStatus();
+            status.setId(toObject(netIds[row]));
+            status.setDeviceId(deviceId);
+            status.setNetworkType(netTypes[row] != NULL_BYTE ? NETWORK_TYPES[netTypes[row]] : null);
+            status.setConnectionStatus(netConnectionStatuses[row] != NULL_BYTE
+                                       ? CONNECTION_STATUSES[netConnectionStatuses[row]] : null);
+            status.setSignalStrength(toObject(netSignal[row]));
+            status.setPingLatency(toObject(netPing[row]));
+            int base = row * NET_DECIMALS;
+            status.setDownloadSpeed(toDecimal(netDecimals[base + DOWNLOAD]));
+            status.setUploadSpeed(toDecimal(netDecimals[base + UPLOAD]));
+            status.setIpAddress(netIpAddresses[row]);
+            status.setMacAddress(netMacAddresses[row]);
+            status.setLastConnectedAt(toDateTime(netLastConnectedAt[row]));
+            status.setCreatedAt(toDateTime(netCreatedAt[row]));
+            status.setUpdatedAt(toDateTime(netUpdatedAt[row]));
+            return status;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 获取设备状态，只填充 deviceId、status 和 lastOnlineAt
+     *
+     * @return 设备状态，没有数据时返回null
+     */
+    public DeviceMonitoringData getDeviceState(Long deviceId) {
+        if (deviceId == null) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            int row = rows.get(deviceId);
+            if (row == LongIntHashMap.NO_VALUE || statuses[row] == NULL_BYTE) {
+                return null;
+            }
+            DeviceMonitoringData data = new DeviceMonitoringData();
+            data.setDeviceId(deviceId);
+            data.setStatus(DEVICE_STATUSES[statuses[row]]);
+            data.setLastOnlineAt(toDateTime(lastOnlineAt[row]));
+            return data;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 获取设备所在行号，不存在时新增一行（调用方持有写锁）
+     */
+    private int rowOf(long deviceId) {
+        int row = rows.get(deviceId);
+        if (row != LongIntHashMap.NO_VALUE) {
+            return row;
+        }
+        if (rowCount == deviceIds.length) {
+            grow(deviceIds.length * 2);
+        }
+        row = rowCount++;
+        deviceIds[row] = deviceId;
+        rows.put(deviceId, row);
+        return row;
+    }
+
+    private void allocate(int capacity) {
+        deviceIds = new long[capacity];
+        perfIds = new long[capacity];
+        perfTimestamps = new long[capacity];
+        perfCreatedAt = new long[capacity];
+        perfDecimals = new long[capacity * PERF_DECIMALS];
+        perfLatency = new int[capacity];
+        netIds = new long[capacity];
+        netCreatedAt = new long[capacity];
+        netUpdatedAt = new long[capacity];
+        netLastConnectedAt = new long[capacity];
+        netTypes = new byte[capacity];
+        netConnectionStatuses = new byte[capacity];
+        netSignal = new int[capacity];
+        netPing = new int[capacity];
+        netDecimals = new long[capacity * NET_DECIMALS];
+        netIpAddresses = new String[capacity];
+        netMacAddresses = new String[capacity];
+        statuses = new byte[capacity];
+        lastOnlineAt = new long[capacity];
+        clearRows(0, capacity);
+    }
+
+    private void grow(int capacity) {
+        int from = deviceIds.length;
+        deviceIds = Arrays.copyOf(deviceIds, capacity);
+        perfIds = Arrays.copyOf(perfIds, capacity);
+        perfTimestamps = Arrays.copyOf(perfTimestamps, capacity);
+        perfCreatedAt = Arrays.copyOf(perfCreatedAt, capacity);
+        perfDecimals = Arrays.copyOf(perfDecimals, capacity * PERF_DECIMALS);
+        perfLatency = Arrays.copyOf(perfLatency, capacity);
+        netIds = Arrays.copyOf(netIds, capacity);
+        netCreatedAt = Arrays.copyOf(netCreatedAt, capacity);
+        netUpdatedAt = Arrays.copyOf(netUpdatedAt, capacity);
+        netLastConnectedAt = Arrays.copyOf(netLastConnectedAt, capacity);
+        netTypes = Arrays.copyOf(netTypes, capacity);
+        netConnectionStatuses = Arrays.copyOf(netConnectionStatuses, capacity);
+        netSignal = Arrays.copyOf(netSignal, capacity);
+        netPing = Arrays.copyOf(netPing, capacity);
+        netDecimals = Arrays.copyOf(netDecimals, capacity * NET_DECIMALS);
+        netIpAddresses = Arrays.copyOf(netIpAddresses, capacity);
+        netMacAddresses = Arrays.copyOf(netMacAddresses, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        lastOnlineAt = Arrays.copyOf(lastOnlineAt, capacity);
+        clearRows(from, capacity);
+    }
+
+    private void clearRows(int from, int to) {
+        Arrays.fill(perfIds, from, to, NULL_LONG);
+        Arrays.fill(perfTimestamps, from, to, NULL_LONG);
+        Arrays.fill(perfCreatedAt, from, to, NULL_LONG);
+        Arrays.fill(perfDecimals, from * PERF_DECIMALS, to * PERF_DECIMALS, NULL_LONG);
+        Arrays.fill(perfLatency, from, to, NULL_INT);
+        Arrays.fill(netIds, from, to, NULL_LONG);
+        Arrays.fill(netCreatedAt, from, to, NULL_LONG);
+        Arrays.fill(netUpdatedAt, from, to, NULL_LONG);
+        Arrays.fill(netLastConnectedAt, from, to, NULL_LONG);
+        Arrays.fill(netTypes, from, to, NULL_BYTE);
+        Arrays.fill(netConnectionStatuses, from, to, NULL_BYTE);
+        Arrays.fill(netSignal, from, to, NULL_INT);
+        Arrays.fill(netPing, from, to, NULL_INT);
+        Arrays.fill(netDecimals, from * NET_DECIMALS, to * NET_DECIMALS, NULL_LONG);
+        Arrays.fill(statuses, from, to, NULL_BYTE);
+        Arrays.fill(lastOnlineAt, from, to, NULL_LONG);
+    }
+
+    private static long toFixed(BigDecimal value) {
+        return value != null ? value.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValue() : NULL_LONG;
+    }
+
+    private static BigDecimal toDecimal(long fixed) {
+        return fixed != NULL_LONG ? BigDecimal.valueOf(fixed, SCALE) : null;
+    }
+
+    private static long toLong(Long value) {
+        return value != null ? value : NULL_LONG;
+    }
+
+    private static Long toObject(long value) {
+        return value != NULL_LONG ? value : null;
+    }
+
+    private static int toInt(Integer value) {
+        return value != null ? value : NULL_INT;
+    }
+
+    private static Integer toObject(int value) {
+        return value != NULL_INT ? value : null;
+    }
+
+    private static byte toOrdinal(Enum<?> value) {
+        return value != null ? (byte) value.ordinal() : NULL_BYTE;
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : NULL_LONG;
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return millis != NULL_LONG ? LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault()) : null;
+    }
+}
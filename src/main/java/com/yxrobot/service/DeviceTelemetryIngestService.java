@@ -0,0 +1,816 @@
+package com.yxrobot.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yxrobot.entity.ConnectionStatus;
+import com.yxrobot.entity.DeviceNetworkStatus;
+import com.yxrobot.entity.DevicePerformanceMetrics;
+import com.yxrobot.entity.NetworkType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.ToIntFunction;
+
+/**
+ * 设备遥测数据接入服务
+ * 接收设备上报的性能指标和网络状态批次，校验后放入有界队列，按批量大小或时间间隔合并为多行插入，
+ * 经 {@link DevicePerformanceService#batchInsertMetrics} 和 {@link DeviceNetworkService#batchInsertNetworkStatus}
+ * 写入数据库（同时更新时间序列存储、设备状态表并评估告警规则）。
+ *
+ * 支持两种请求体：
+ * - NDJSON：每行一个JSON对象，type 为 performance 或 network，字段名与实体属性一致，
+ *   performance 的 metricTimestamp 为毫秒时间戳；
+ * - 二进制：连续的定长记录（大端序），见 {@link #decodeBinary}。
+ *
+ * 队列满时丢弃样本并计数（设备侧会在下个周期重新上报），不阻塞请求线程。
+ * 批量写入失败时对半拆分重试，隔离写不进去的样本：单条样本累计失败 {@value #MAX_SAMPLE_ATTEMPTS} 次后丢弃；
+ * 拆分到单条仍连续失败时视为数据库不可用，样本放回队列按指数退避重试，只有队列放不下的部分计为丢弃。
+ * 定时写入只向专用的写入线程提交任务，不占用共享的定时任务线程。
+ *
+ * @author YXRobot开发团队
+ * @since 2025-03-05
+ */
+@Service
+public class DeviceTelemetryIngestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceTelemetryIngestService.class);
+
+    /** 二进制记录类型 */
+    static final int RECORD_PERFORMANCE = 1;
+    static final int RECORD_NETWORK = 2;
+
+    /** 二进制记录中表示空值的定点数 */
+    static final int BINARY_NULL = Integer.MIN_VALUE;
+
+    /** 允许设备时钟超前的时间 */
+    private static final long MAX_CLOCK_SKEW_MS = 5 * 60 * 1000L;
+
+    /** 每个请求最多返回的错误信息条数 */
+    private static final int MAX_ERRORS = 20;
+
+    /** 写入失败后的最大重试间隔 */
+    private static final long MAX_RETRY_BACKOFF_MS = 30_000L;
+
+    /** 单条样本写入失败的最大次数，超过后丢弃 */
+    private static final int MAX_SAMPLE_ATTEMPTS = 3;
+
+    /** DECIMAL(10,2) 列（带宽、上下行速度）的最大值 */
+    private static final BigDecimal MAX_DECIMAL_10_2 = new BigDecimal("99999999.99");
+
+    private static final NetworkType[] NETWORK_TYPES = NetworkType.values();
+    private static final ConnectionStatus[] CONNECTION_STATUSES = ConnectionStatus.values();
+
+    @Autowired
+    private DevicePerformanceService devicePerformanceService;
+
+    @Autowired
+    private DeviceNetworkService deviceNetworkService;
+
+    @Value("${yxrobot.telemetry.queue-capacity:50000}")
+    private int queueCapacity = 50000;
+
+    @Value("${yxrobot.telemetry.batch-size:1000}")
+    private int batchSize = 1000;
+
+    @Value("${yxrobot.telemetry.flush-interval-ms:500}")
+    private long flushIntervalMs = 500;
+
+    @Value("${yxrobot.telemetry.max-records-per-request:5000}")
+    private int maxRecordsPerRequest = 5000;
+
+    @Value("${yxrobot.telemetry.max-sample-age-hours:168}")
+    private long maxSampleAgeHours = 168;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private BlockingQueue<DevicePerformanceMetrics> performanceQueue;
+
+    private BlockingQueue<DeviceNetworkStatus> networkQueue;
+
+    /** 定时写入和队列达到批量大小时的写入都在这个线程执行 */
+    private ExecutorService flushExecutor;
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+    private volatile boolean shuttingDown = false;
+
+    /** 连续写入失败次数，决定重试间隔 */
+    private volatile int consecutiveFailures = 0;
+
+    /** 写入失败后，在此时间之前不再写入 */
+    private volatile long retryAt = 0;
+
+    /** 写入失败过的样本及失败次数，只在 flush 中访问 */
+    private final Map<Object, Integer> sampleAttempts = new IdentityHashMap<>();
+
+    // 接入指标
+    private final AtomicLong receivedCount = new AtomicLong(0);
+    private final AtomicLong acceptedCount = new AtomicLong(0);
+    private final AtomicLong rejectedCount = new AtomicLong(0);
+    private final AtomicLong droppedCount = new AtomicLong(0);
+    private final AtomicLong persistedCount = new AtomicLong(0);
+    private final AtomicLong failedCount = new AtomicLong(0);
+    private final AtomicLong discardedCount = new AtomicLong(0);
+    private final AtomicLong batchCount = new AtomicLong(0);
+    private final AtomicLong queueHighWatermark = new AtomicLong(0);
+    private final RateMeter acceptedRate = new RateMeter();
+    private final RateMeter persistedRate = new RateMeter();
+    private volatile long lastFlushTime = 0;
+    private volatile long lastFlushDurationMs = 0;
+
+    @PostConstruct
+    public void init() {
+        performanceQueue = new ArrayBlockingQueue<>(queueCapacity);
+        networkQueue = new ArrayBlockingQueue<>(queueCapacity);
+        flushExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "telemetry-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.info("遥测接入队列已初始化 - 容量: {}, 批量大小: {}", queueCapacity, batchSize);
+    }
+
+    /**
+     * 接收NDJSON批次
+     *
+     * @param body 请求体
+     * @return 接收结果
+     * @throws IOException 读取请求体失败
+     */
+    public IngestResult ingestNdjson(InputStream body) throws IOException {
+        IngestResult result = new IngestResult();
+        long now = System.currentTimeMillis();
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            int line = 0;
+            while (true) {
+                JsonToken token;
+                try {
+                    token = parser.nextToken();
+                } catch (IOException e) {
+                    // 语法错误之后无法可靠定位下一行，剩余部分整体拒绝
+                    reject(result, "第" + (line + 1) + "条: JSON格式错误");
+                    break;
+                }
+                if (token == null) {
+                    break;
+                }
+                line++;
+                if (line > maxRecordsPerRequest) {
+                    reject(result, "超过单次请求最大记录数 " + maxRecordsPerRequest);
+                    break;
+                }
+                JsonNode node;
+                try {
+                    node = objectMapper.readTree(parser);
+                } catch (IOException e) {
+                    reject(result, "第" + line + "条: JSON格式错误");
+                    break;
+                }
+                try {
+                    accept(result, parseJson(node, now));
+                } catch (IllegalArgumentException e) {
+                    reject(result, "第" + line + "条: " + e.getMessage());
+                }
+            }
+        }
+        afterIngest(result);
+        return result;
+    }
+
+    /**
+     * 接收二进制批次
+     * 每条记录以1字节类型开头，之后为8字节设备ID、8字节毫秒时间戳，定点数为放大100倍的int，空值为 Integer.MIN_VALUE：
+     * - 性能指标（类型1，共45字节）：CPU、内存、磁盘、温度、电量、带宽6个定点数，网络延迟int；
+     * - 网络状态（类型2，共45字节）：网络类型序号byte、信号强度int、连接状态序号byte、下载/上传速度定点数、
+     *   Ping延迟int、IPv4地址4字节、MAC地址6字节（全0为空），时间戳为最后连接时间，0为空。
+     *
+     * @param body 请求体
+     * @return 接收结果
+     * @throws IOException 读取请求体失败
+     */
+    public IngestResult decodeBinary(InputStream body) throws IOException {
+        IngestResult result = new IngestResult();
+        long now = System.currentTimeMillis();
+        DataInputStream input = new DataInputStream(new BufferedInputStream(body, 64 * 1024));
+        int record = 0;
+        while (true) {
+            int type = input.read();
+            if (type < 0) {
+                break;
+            }
+            record++;
+            if (record > maxRecordsPerRequest) {
+                reject(result, "超过单次请求最大记录数 " + maxRecordsPerRequest);
+                break;
+            }
+            try {
+                accept(result, readBinaryRecord(type, input, now));
+            } catch (EOFException e) {
+                reject(result, "第" + record + "条: 记录不完整");
+                break;
+            } catch (IllegalArgumentException e) {
+                reject(result, "第" + record + "条: " + e.getMessage());
+                if (type != RECORD_PERFORMANCE && type != RECORD_NETWORK) {
+                    // 类型未知时无法确定记录长度，剩余部分整体拒绝
+                    break;
+                }
+            }
+        }
+        afterIngest(result);
+        return result;
+    }
+
+    /**
+     * 定时提交写入任务到写入线程
+     */
+    @Scheduled(fixedDelayString = "${yxrobot.telemetry.flush-interval-ms:500}")
+    public void scheduleFlush() {
+        submitFlush();
+    }
+
+    /**
+     * 将队列中的样本批量写入数据库
+     * 写入失败的批次放回队列，在退避时间内不再写入（关闭时除外）
+     *
+     * @return 本次写入的样本数量
+     */
+    public synchronized int flush() {
+        if (performanceQueue == null) {
+            return 0;
+        }
+        long start = System.currentTimeMillis();
+        if (!shuttingDown && start < retryAt) {
+            return 0;
+        }
+
+        int failuresBefore = consecutiveFailures;
+        int flushed = flushQueue(performanceQueue, devicePerformanceService::batchInsertMetrics);
+        if (consecutiveFailures == failuresBefore) {
+            flushed += flushQueue(networkQueue, deviceNetworkService::batchInsertNetworkStatus);
+        }
+        if (consecutiveFailures == failuresBefore) {
+            consecutiveFailures = 0;
+        }
+
+        lastFlushTime = System.currentTimeMillis();
+        lastFlushDurationMs = lastFlushTime - start;
+        if (flushed > 0) {
+            logger.debug("遥测数据写入完成 - 数量: {}, 耗时: {}ms", flushed, lastFlushDurationMs);
+        }
+        return flushed;
+    }
+
+    /**
+     * 应用关闭前排空队列，之后的请求全部丢弃
+     */
+    @PreDestroy
+    public void shutdown() {
+        shuttingDown = true;
+        flushExecutor.shutdown();
+        try {
+            flushExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int flushed = flush();
+        logger.info("遥测接入队列已关闭 - 最后写入: {}, 累计写入: {}", flushed, persistedCount.get());
+    }
+
+    /**
+     * 获取接入运行指标
+     *
+     * @return 指标数据
+     */
+    public Map<String, Object> getIngestionStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        int performanceQueueSize = performanceQueue != null ? performanceQueue.size() : 0;
+        int networkQueueSize = networkQueue != null ? networkQueue.size() : 0;
+        stats.put("performanceQueueSize", performanceQueueSize);
+        stats.put("networkQueueSize", networkQueueSize);
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("queueUsage", queueCapacity > 0
+            ? Math.round(Math.max(performanceQueueSize, networkQueueSize) * 10000.0 / queueCapacity) / 100.0 : 0.0);
+        stats.put("queueHighWatermark", queueHighWatermark.get());
+        stats.put("ingestRatePerSecond", acceptedRate.ratePerSecond());
+        stats.put("persistRatePerSecond", persistedRate.ratePerSecond());
+        stats.put("receivedCount", receivedCount.get());
+        stats.put("acceptedCount", acceptedCount.get());
+        stats.put("rejectedCount", rejectedCount.get());
+        stats.put("droppedCount", droppedCount.get());
+        stats.put("persistedCount", persistedCount.get());
+        stats.put("failedCount", failedCount.get());
+        stats.put("discardedCount", discardedCount.get());
+        stats.put("consecutiveFailures", consecutiveFailures);
+        stats.put("batchCount", batchCount.get());
+        stats.put("lastFlushTime", lastFlushTime);
+        stats.put("lastFlushDurationMs", lastFlushDurationMs);
+        return stats;
+    }
+
+    /**
+     * 按批量大小写入一个队列
+     * 某一批写入失败时拆分重试；判定数据库不可用时放回队列并停止本次写入
+     */
+    private <T> int flushQueue(BlockingQueue<T> queue, ToIntFunction<List<T>> writer) {
+        List<T> batch = new ArrayList<>(batchSize);
+        int flushed = 0;
+        while (queue.drainTo(batch, batchSize) > 0) {
+            BatchOutcome<T> outcome = new BatchOutcome<>();
+            writeSplit(batch, writer, outcome);
+            flushed += outcome.written;
+            if (outcome.written < batch.size()) {
+                failedCount.addAndGet(batch.size() - outcome.written);
+                requeue(queue, outcome);
+                if (outcome.unavailable) {
+                    backOff();
+                    return flushed;
+                }
+            }
+            batch.clear();
+        }
+        return flushed;
+    }
+
+    /**
+     * 写入一批样本，失败时对半拆分后分别写入
+     * 拆分到单条仍失败、且自上一条单条失败以来（或本批开始以来）没有写入成功的样本时视为数据库不可用，剩余样本不再尝试
+     */
+    private <T> void writeSplit(List<T> rows, ToIntFunction<List<T>> writer, BatchOutcome<T> outcome) {
+        if (outcome.unavailable) {
+            outcome.pending.addAll(rows);
+            return;
+        }
+        batchCount.incrementAndGet();
+        int inserted;
+        try {
+            inserted = writer.applyAsInt(rows);
+        } catch (Exception e) {
+            // 事务提交失败等服务层未捕获的异常
+            logger.error("遥测数据批量写入异常", e);
+            inserted = 0;
+        }
+        if (inserted > 0) {
+            persistedCount.addAndGet(inserted);
+            persistedRate.add(inserted);
+            outcome.written += rows.size();
+            if (!sampleAttempts.isEmpty()) {
+                rows.forEach(sampleAttempts::remove);
+            }
+            return;
+        }
+        if (rows.size() == 1) {
+            outcome.failed.add(rows.get(0));
+            outcome.unavailable = outcome.written == outcome.writtenAtLastFailure;
+            outcome.writtenAtLastFailure = outcome.written;
+            return;
+        }
+        int middle = rows.size() / 2;
+        writeSplit(rows.subList(0, middle), writer, outcome);
+        writeSplit(rows.subList(middle, rows.size()), writer, outcome);
+    }
+
+    /**
+     * 写入失败的样本累计失败次数，未超过上限的放回队列；未尝试单独写入的样本直接放回队列
+     */
+    private <T> void requeue(BlockingQueue<T> queue, BatchOutcome<T> outcome) {
+        int discarded = 0;
+        int dropped = 0;
+        for (T sample : outcome.failed) {
+            int attempts = sampleAttempts.merge(sample, 1, Integer::sum);
+            if (attempts >= MAX_SAMPLE_ATTEMPTS) {
+                sampleAttempts.remove(sample);
+                discarded++;
+            } else if (!queue.offer(sample)) {
+                sampleAttempts.remove(sample);
+                dropped++;
+            }
+        }
+        for (T sample : outcome.pending) {
+            if (!queue.offer(sample)) {
+                sampleAttempts.remove(sample);
+                dropped++;
+            }
+        }
+        droppedCount.addAndGet(dropped);
+        discardedCount.addAndGet(discarded);
+        if (discarded > 0) {
+            logger.error("遥测样本连续{}次写入失败，已丢弃 - 数量: {}", MAX_SAMPLE_ATTEMPTS, discarded);
+        }
+        logger.warn("遥测数据写入失败 - 单条失败: {}, 未写入: {}, 超过重试次数丢弃: {}, 队列已满丢弃: {}",
+                    outcome.failed.size(), outcome.pending.size(), discarded, dropped);
+    }
+
+    private void backOff() {
+        int failures = ++consecutiveFailures;
+        long backoff = Math.min(MAX_RETRY_BACKOFF_MS, Math.max(flushIntervalMs, 1) << Math.min(failures, 10));
+        retryAt = System.currentTimeMillis() + backoff;
+        logger.warn("遥测数据库写入不可用，{}ms后重试 - 连续失败: {}", backoff, failures);
+    }
+
+    private void accept(IngestResult result, Object sample) {
+        receivedCount.incrementAndGet();
+        boolean queued;
+        BlockingQueue<?> queue;
+        if (sample instanceof DevicePerformanceMetrics) {
+            queue = performanceQueue;
+            queued = !shuttingDown && performanceQueue.offer((DevicePerformanceMetrics) sample);
+        } else {
+            queue = networkQueue;
+            queued = !shuttingDown && networkQueue.offer((DeviceNetworkStatus) sample);
+        }
+        if (!queued) {
+            result.dropped++;
+            droppedCount.incrementAndGet();
+            return;
+        }
+        result.accepted++;
+        acceptedCount.incrementAndGet();
+        long size = queue.size();
+        if (size > queueHighWatermark.get()) {
+            queueHighWatermark.accumulateAndGet(size, Math::max);
+        }
+    }
+
+    private void reject(IngestResult result, String error) {
+        receivedCount.incrementAndGet();
+        rejectedCount.incrementAndGet();
+        result.rejected++;
+        if (result.errors.size() < MAX_ERRORS) {
+            result.errors.add(error);
+        }
+    }
+
+    private void afterIngest(IngestResult result) {
+        acceptedRate.add(result.accepted);
+        if (result.dropped > 0) {
+            logger.warn("遥测接入队列已满，丢弃样本 - 数量: {}", result.dropped);
+        }
+        // 任一队列达到批量大小时立即写入，不必等待定时任务
+        if (performanceQueue.size() >= batchSize || networkQueue.size() >= batchSize) {
+            submitFlush();
+        }
+    }
+
+    private void submitFlush() {
+        if (shuttingDown || !flushScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            flushExecutor.execute(() -> {
+                flushScheduled.set(false);
+                try {
+                    flush();
+                } catch (Exception e) {
+                    logger.error("遥测数据写入失败", e);
+                }
+            });
+        } catch (Exception e) {
+            flushScheduled.set(false);
+        }
+    }
+
+    private Object parseJson(JsonNode node, long now) {
+        if (!node.isObject()) {
+            throw new IllegalArgumentException("记录必须是JSON对象");
+        }
+        String type = node.path("type").asText("");
+        long deviceId = requireDeviceId(node.path("deviceId").asLong(0));
+
+        if ("performance".equals(type)) {
+            JsonNode timestamp = node.get("metricTimestamp");
+            if (timestamp == null || !timestamp.canConvertToLong()) {
+                throw new IllegalArgumentException("metricTimestamp 必须是毫秒时间戳");
+            }
+            DevicePerformanceMetrics metrics = new DevicePerformanceMetrics();
+            metrics.setDeviceId(deviceId);
+            metrics.setMetricTimestamp(toDateTime(checkTimestamp(timestamp.asLong(), now)));
+            metrics.setCpuUsage(percent("cpuUsage", decimal(node, "cpuUsage")));
+            metrics.setMemoryUsage(percent("memoryUsage", decimal(node, "memoryUsage")));
+            metrics.setDiskUsage(percent("diskUsage", decimal(node, "diskUsage")));
+            metrics.setTemperature(range("temperature", decimal(node, "temperature"), -50, 150));
+            metrics.setBatteryLevel(percent("batteryLevel", decimal(node, "batteryLevel")));
+            metrics.setNetworkLatency(nonNegative("networkLatency", integer(node, "networkLatency")));
+            metrics.setNetworkBandwidth(decimal10("networkBandwidth", decimal(node, "networkBandwidth")));
+            return metrics;
+        }
+        if ("network".equals(type)) {
+            DeviceNetworkStatus status = new DeviceNetworkStatus();
+            status.setDeviceId(deviceId);
+            String networkType = node.path("networkType").asText(null);
+            String connectionStatus = node.path("connectionStatus").asText(null);
+            status.setNetworkType(networkType != null ? NetworkType.fromCode(networkType) : null);
+            status.setConnectionStatus(connectionStatus != null ? ConnectionStatus.fromCode(connectionStatus) : null);
+            status.setSignalStrength(range("signalStrength", integer(node, "signalStrength"), 0, 100));
+            status.setIpAddress(text(node, "ipAddress", 45));
+            status.setMacAddress(text(node, "macAddress", 17));
+            status.setDownloadSpeed(decimal10("downloadSpeed", decimal(node, "downloadSpeed")));
+            status.setUploadSpeed(decimal10("uploadSpeed", decimal(node, "uploadSpeed")));
+            status.setPingLatency(nonNegative("pingLatency", integer(node, "pingLatency")));
+            JsonNode lastConnectedAt = node.get("lastConnectedAt");
+            if (lastConnectedAt != null && !lastConnectedAt.isNull()) {
+                if (!lastConnectedAt.canConvertToLong()) {
+                    throw new IllegalArgumentException("lastConnectedAt 必须是毫秒时间戳");
+                }
+                status.setLastConnectedAt(toDateTime(checkTimestamp(lastConnectedAt.asLong(), now)));
+            }
+            return status;
+        }
+        throw new IllegalArgumentException("未知的记录类型: " + type);
+    }
+
+    private Object readBinaryRecord(int type, DataInputStream input, long now) throws IOException {
+        if (type == RECORD_PERFORMANCE) {
+            long deviceId = input.readLong();
+            long timestamp = input.readLong();
+            BigDecimal cpu = fixed(input.readInt());
+            BigDecimal memory = fixed(input.readInt());
+            BigDecimal disk = fixed(input.readInt());
+            BigDecimal temperature = fixed(input.readInt());
+            BigDecimal battery = fixed(input.readInt());
+            BigDecimal bandwidth = fixed(input.readInt());
+            int latency = input.readInt();
+
+            DevicePerformanceMetrics metrics = new DevicePerformanceMetrics();
+            metrics.setDeviceId(requireDeviceId(deviceId));
+            metrics.setMetricTimestamp(toDateTime(checkTimestamp(timestamp, now)));
+            metrics.setCpuUsage(percent("cpuUsage", cpu));
+            metrics.setMemoryUsage(percent("memoryUsage", memory));
+            metrics.setDiskUsage(percent("diskUsage", disk));
+            metrics.setTemperature(range("temperature", temperature, -50, 150));
+            metrics.setBatteryLevel(percent("batteryLevel", battery));
+            metrics.setNetworkBandwidth(decimal10("networkBandwidth", bandwidth));
+            metrics.setNetworkLatency(nonNegative("networkLatency", latency != BINARY_NULL ? latency : null));
+            return metrics;
+        }
+        if (type == RECORD_NETWORK) {
+            long deviceId = input.readLong();
+            long lastConnectedAt = input.readLong();
+            int networkType = input.readByte();
+            int signal = input.readInt();
+            int connectionStatus = input.readByte();
+            BigDecimal download = fixed(input.readInt());
+            BigDecimal upload = fixed(input.readInt());
+            int ping = input.readInt();
+            byte[] ip = new byte[4];
+            input.readFully(ip);
+            byte[] mac = new byte[6];
+            input.readFully(mac);
+
+            DeviceNetworkStatus status = new DeviceNetworkStatus();
+            status.setDeviceId(requireDeviceId(deviceId));
+            status.setNetworkType(ordinal("networkType", NETWORK_TYPES, networkType));
+            status.setConnectionStatus(ordinal("connectionStatus", CONNECTION_STATUSES, connectionStatus));
+            status.setSignalStrength(range("signalStrength", signal != BINARY_NULL ? signal : null, 0, 100));
+            status.setDownloadSpeed(decimal10("downloadSpeed", download));
+            status.setUploadSpeed(decimal10("uploadSpeed", upload));
+            status.setPingLatency(nonNegative("pingLatency", ping != BINARY_NULL ? ping : null));
+            status.setIpAddress(formatIpv4(ip));
+            status.setMacAddress(formatMac(mac));
+            if (lastConnectedAt != 0) {
+                status.setLastConnectedAt(toDateTime(checkTimestamp(lastConnectedAt, now)));
+            }
+            return status;
+        }
+        throw new IllegalArgumentException("未知的记录类型: " + type);
+    }
+
+    private static long requireDeviceId(long deviceId) {
+        if (deviceId <= 0) {
+            throw new IllegalArgumentException("deviceId 无效");
+        }
+        return deviceId;
+    }
+
+    private long checkTimestamp(long timestamp, long now) {
+        if (timestamp > now + MAX_CLOCK_SKEW_MS || timestamp < now - maxSampleAgeHours * 3600_000L) {
+            throw new IllegalArgumentException("时间戳超出允许范围: " + timestamp);
+        }
+        return timestamp;
+    }
+
+    private static BigDecimal decimal(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        if (!value.isNumber()) {
+            throw new IllegalArgumentException(field + " 必须是数字");
+        }
+        return value.decimalValue().setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static Integer integer(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        if (!value.canConvertToInt()) {
+            throw new IllegalArgumentException(field + " 必须是整数");
+        }
+        return value.intValue();
+    }
+
+    private static String text(JsonNode node, String field, int maxLength) {
+        JsonNode value = node.get(field);
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        String text = value.asText();
+        if (text.length() > maxLength) {
+            throw new IllegalArgumentException(field + " 长度超过 " + maxLength);
+        }
+        return text;
+    }
+
+    private static BigDecimal fixed(int value) {
+        return value != BINARY_NULL ? BigDecimal.valueOf(value, 2) : null;
+    }
+
+    private static BigDecimal percent(String field, BigDecimal value) {
+        return range(field, value, 0, 100);
+    }
+
+    private static BigDecimal range(String field, BigDecimal value, int min, int max) {
+        if (value != null && (value.compareTo(BigDecimal.valueOf(min)) < 0 || value.compareTo(BigDecimal.valueOf(max)) > 0)) {
+            throw new IllegalArgumentException(field + " 超出范围 [" + min + ", " + max + "]");
+        }
+        return value;
+    }
+
+    private static Integer range(String field, Integer value, int min, int max) {
+        if (value != null && (value < min || value > max)) {
+            throw new IllegalArgumentException(field + " 超出范围 [" + min + ", " + max + "]");
+        }
+        return value;
+    }
+
+    private static BigDecimal nonNegative(String field, BigDecimal value) {
+        if (value != null && value.signum() < 0) {
+            throw new IllegalArgumentException(field + " 不能为负数");
+        }
+        return value;
+    }
+
+    /**
+     * 非负且不超过 DECIMAL(10,2) 列的取值范围，超出范围的值会使整条多行插入失败
+     */
+    private static BigDecimal decimal10(String field, BigDecimal value) {
+        nonNegative(field, value);
+        if (value != null && value.compareTo(MAX_DECIMAL_10_2) > 0) {
+            throw new IllegalArgumentException(field + " 超出范围 [0, " + MAX_DECIMAL_10_2.toPlainString() + "]");
+        }
+        return value;
+    }
+
+    private static Integer nonNegative(String field, Integer value) {
+        if (value != null && value < 0) {
+            throw new IllegalArgumentException(field + " 不能为负数");
+        }
+        return value;
+    }
+
+    private static <E extends Enum<E>> E ordinal(String field, E[] values, int ordinal) {
+        if (ordinal == -1) {
+            return null;
+        }
+        if (ordinal < 0 || ordinal >= values.length) {
+            throw new IllegalArgumentException(field + " 无效: " + ordinal);
+        }
+        return values[ordinal];
+    }
+
+    private static String formatIpv4(byte[] ip) {
+        if (ip[0] == 0 && ip[1] == 0 && ip[2] == 0 && ip[3] == 0) {
+            return null;
+        }
+        return (ip[0] & 0xFF) + "." + (ip[1] & 0xFF) + "." + (ip[2] & 0xFF) + "." + (ip[3] & 0xFF);
+    }
+
+    private static String formatMac(byte[] mac) {
+        boolean empty = true;
+        for (byte b : mac) {
+            empty &= b == 0;
+        }
+        if (empty) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(17);
+        for (int i = 0; i < mac.length; i++) {
+            if (i > 0) {
+                sb.append(':');
+            }
+            sb.append(Character.forDigit((mac[i] >> 4) & 0xF, 16)).append(Character.forDigit(mac[i] & 0xF, 16));
+        }
+        return sb.toString().toUpperCase();
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    /**
+     * 一批样本拆分写入的结果
+     */
+    private static class BatchOutcome<T> {
+        private int written;
+        private int writtenAtLastFailure;
+        private boolean unavailable;
+        private final List<T> failed = new ArrayList<>();
+        private final List<T> pending = new ArrayList<>();
+    }
+
+    /**
+     * 单次请求的接收结果
+     */
+    public static class IngestResult {
+        private int accepted;
+        private int rejected;
+        private int dropped;
+        private final List<String> errors = new ArrayList<>();
+
+        public int getAccepted() {
+            return accepted;
+        }
+
+        public int getRejected() {
+            return rejected;
+        }
+
+        public int getDropped() {
+            return dropped;
+        }
+
+        public List<String> getErrors() {
+            return errors;
+        }
+    }
+
+    /**
+     * 按秒计数的速率统计，保留最近60秒
+     */
+    static class RateMeter {
+        private static final int WINDOW_SECONDS = 60;
+
+        private final AtomicLongArray counts = new AtomicLongArray(WINDOW_SECONDS);
+        private final AtomicLongArray seconds = new AtomicLongArray(WINDOW_SECONDS);
+
+        void add(long count) {
+            if (count <= 0) {
+                return;
+            }
+            long second = System.currentTimeMillis() / 1000;
+            int slot = (int) (second % WINDOW_SECONDS);
+            long slotSecond = seconds.get(slot);
+            if (slotSecond != second && seconds.compareAndSet(slot, slotSecond, second)) {
+                counts.set(slot, 0);
+            }
+            counts.addAndGet(slot, count);
+        }
+
+        /**
+         * 最近60秒（不含当前未结束的一秒）的平均每秒数量
+         */
+        double ratePerSecond() {
+            long current = System.currentTimeMillis() / 1000;
+            long total = 0;
+            for (int i = 0; i < WINDOW_SECONDS; i++) {
+                long second = seconds.get(i);
+                if (second < current && second >= current - WINDOW_SECONDS) {
+                    total += counts.get(i);
+                }
+            }
+            return Math.round(total * 100.0 / WINDOW_SECONDS) / 100.0;
+        }
+    }
+}
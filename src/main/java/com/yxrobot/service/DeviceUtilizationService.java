@@ -8,9 +8,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 设备利用率管理服务类
@@ -24,9 +28,14 @@ public class DeviceUtilizationService {
     
     private static final Logger logger = LoggerFactory.getLogger(DeviceUtilizationService.class);
     
+    private static final int SUGGESTION_LIMIT = 10;
+    
     @Autowired
     private RentalDeviceMapper rentalDeviceMapper;
     
+    @Autowired
+    private AutocompleteIndex autocompleteIndex;
+    
     /**
      * 获取设备利用率数据列表（使用参数Map）
      * 支持前端表格的分页、搜索、筛选功能
@@ -504,6 +513,8 @@ public class DeviceUtilizationService {
             int result = rentalDeviceMapper.softDeleteByDeviceId(deviceId.trim());
             
             if (result > 0) {
+                autocompleteIndex.idsOf(AutocompleteIndex.RENTAL_DEVICE, "deviceId", deviceId.trim())
+                    .forEach(id -> autocompleteIndex.refreshAfterCommit(AutocompleteIndex.RENTAL_DEVICE, id));
                 logger.info("设备软删除成功，设备编号：{}", deviceId);
                 return true;
             } else {
@@ -747,7 +758,9 @@ public class DeviceUtilizationService {
                 return List.of();
             }
             
-            List<String> suggestions = rentalDeviceMapper.selectSearchSuggestions(keyword.trim(), type);
+            List<String> suggestions = autocompleteIndex.isReady(AutocompleteIndex.RENTAL_DEVICE)
+                ? suggestFromIndex(keyword.trim(), type)
+                : rentalDeviceMapper.selectSearchSuggestions(keyword.trim(), type);
             
             logger.info("搜索建议获取成功，数量：{}", 
                        suggestions != null ? suggestions.size() : 0);
@@ -760,6 +773,30 @@ public class DeviceUtilizationService {
         }
     }
     
+    /**
+     * 从输入提示索引获取搜索建议
+     * 指定类型时返回该字段的取值；未指定时按设备编号、型号、名称匹配，返回匹配设备的设备编号
+     */
+    private List<String> suggestFromIndex(String keyword, String type) {
+        if ("deviceId".equals(type) || "deviceModel".equals(type) || "region".equals(type)) {
+            return autocompleteIndex.suggest(AutocompleteIndex.RENTAL_DEVICE, type, keyword, SUGGESTION_LIMIT);
+        }
+        
+        Set<String> deviceIds = new LinkedHashSet<>();
+        for (String field : Arrays.asList("deviceId", "deviceModel", "deviceName")) {
+            for (Long id : autocompleteIndex.suggestIds(AutocompleteIndex.RENTAL_DEVICE, field, keyword, SUGGESTION_LIMIT)) {
+                String deviceId = autocompleteIndex.valueOf(AutocompleteIndex.RENTAL_DEVICE, "deviceId", id);
+                if (deviceId != null) {
+                    deviceIds.add(deviceId);
+                }
+                if (deviceIds.size() >= SUGGESTION_LIMIT) {
+                    return new ArrayList<>(deviceIds);
+                }
+            }
+        }
+        return new ArrayList<>(deviceIds);
+    }
+    
     /**
      * 获取筛选选项统计
      * 返回各个筛选维度的选项及其对应的数量
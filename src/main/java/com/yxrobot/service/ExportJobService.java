@@ -0,0 +1,468 @@
+package com.yxrobot.service;
+
+import com.yxrobot.dto.SalesRecordQueryDTO;
+import com.yxrobot.enums.ExportFormat;
+import com.yxrobot.mapper.LinkClickLogMapper;
+import com.yxrobot.mapper.ManagedDeviceLogMapper;
+import com.yxrobot.mapper.SalesRecordMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.LongConsumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 后台导出任务服务
+ * 设备日志、点击日志、销售记录等大批量导出不在请求线程中执行：提交后立即返回任务ID，
+ * 由导出任务执行器流式查询并写入上传目录下的 exports 目录（CSV 以 gzip 压缩），
+ * 客户端轮询进度，完成后通过下载接口获取文件（支持 Range 断点续传）。
+ *
+ * 相同类型和筛选条件的导出在进行中或文件未过期时复用同一个任务；
+ * 已完成的文件保留 {@code yxrobot.export-job.ttl-minutes} 分钟后由定时任务删除。
+ * 任务状态只保存在内存中，服务重启后遗留的文件同样按修改时间过期清理。
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-28
+ */
+@Service
+public class ExportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportJobService.class);
+
+    static final String EXPORT_DIR = "exports";
+
+    private static final DateTimeFormatter FILE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    @Autowired
+    private DataExportService dataExportService;
+
+    @Autowired
+    private ManagedDeviceLogMapper managedDeviceLogMapper;
+
+    @Autowired
+    private LinkClickLogMapper linkClickLogMapper;
+
+    @Autowired
+    private SalesRecordMapper salesRecordMapper;
+
+    @Autowired
+    @Qualifier("exportJobExecutor")
+    private Executor exportJobExecutor;
+
+    @Value("${file.upload.path:./uploads}")
+    private String uploadPath;
+
+    @Value("${yxrobot.export-job.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    /**
+     * 任务ID -> 任务
+     */
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * 去重键（类型 + 格式 + 规范化筛选条件）-> 任务ID
+     */
+    private final Map<String, String> jobIdsByKey = new ConcurrentHashMap<>();
+
+    /**
+     * 提交设备日志导出
+     */
+    public ExportJob submitDeviceLogExport(Long deviceId, String level, String category, LocalDateTime startDate,
+                                           LocalDateTime endDate, ExportFormat format) {
+        Map<String, Object> criteria = new LinkedHashMap<>();
+        criteria.put("deviceId", deviceId);
+        criteria.put("level", level);
+        criteria.put("category", category);
+        criteria.put("startDate", startDate);
+        criteria.put("endDate", endDate);
+        return submit("device-logs", "设备日志-" + deviceId, format, criteria,
+            () -> managedDeviceLogMapper.countByConditions(deviceId, level, category, startDate, endDate),
+            (out, progress) -> dataExportService.exportDeviceLogs(deviceId, level, category, startDate, endDate,
+                                                                  format, out, progress));
+    }
+
+    /**
+     * 提交链接点击日志导出
+     */
+    public ExportJob submitClickLogExport(Long linkId, LocalDateTime startTime, LocalDateTime endTime,
+                                          ExportFormat format) {
+        Map<String, Object> criteria = new LinkedHashMap<>();
+        criteria.put("linkId", linkId);
+        criteria.put("startTime", startTime);
+        criteria.put("endTime", endTime);
+        return submit("click-logs", linkId != null ? "点击日志-" + linkId : "点击日志", format, criteria,
+            () -> linkClickLogMapper.selectClickCount(linkId, startTime, endTime),
+            (out, progress) -> dataExportService.exportClickLogs(linkId, startTime, endTime, format, out, progress));
+    }
+
+    /**
+     * 提交销售记录导出（忽略分页参数）
+     */
+    public ExportJob submitSalesRecordExport(SalesRecordQueryDTO query, ExportFormat format) {
+        Map<String, Object> criteria = new LinkedHashMap<>();
+        criteria.put("orderNumber", query.getOrderNumber());
+        criteria.put("customerId", query.getCustomerId());
+        criteria.put("customerName", query.getCustomerName());
+        criteria.put("productId", query.getProductId());
+        criteria.put("productName", query.getProductName());
+        criteria.put("salesStaffId", query.getSalesStaffId());
+        criteria.put("salesStaffName", query.getSalesStaffName());
+        criteria.put("minSalesAmount", query.getMinSalesAmount());
+        criteria.put("maxSalesAmount", query.getMaxSalesAmount());
+        criteria.put("startDate", query.getStartDate());
+        criteria.put("endDate", query.getEndDate());
+        criteria.put("status", query.getStatus());
+        criteria.put("paymentStatus", query.getPaymentStatus());
+        criteria.put("region", query.getRegion());
+        criteria.put("channel", query.getChannel());
+        criteria.put("paymentMethod", query.getPaymentMethod());
+        criteria.put("keyword", query.getKeyword());
+        criteria.put("sortBy", query.getSortBy());
+        criteria.put("sortDir", query.getSortDir());
+        return submit("sales-records", "销售记录", format, criteria,
+            () -> salesRecordMapper.selectCountWithDetails(query),
+            (out, progress) -> dataExportService.exportSalesRecords(query, format, out, progress));
+    }
+
+    /**
+     * 提交导出任务，相同去重键的有效任务直接返回
+     *
+     * @param type 导出类型
+     * @param baseName 下载文件名前缀
+     * @param format 导出格式
+     * @param criteria 筛选条件，用于去重
+     * @param counter 统计预计行数（用于计算进度，失败时不显示百分比）
+     * @param task 写出导出内容
+     * @return 导出任务
+     */
+    ExportJob submit(String type, String baseName, ExportFormat format, Map<String, ?> criteria,
+                     CountSupplier counter, ExportTask task) {
+        String key = type + ":" + format.getCode() + "?" + ResultCountService.normalizeCriteria(criteria);
+        ExportJob[] created = {null};
+        String jobId = jobIdsByKey.compute(key, (k, existingId) -> {
+            ExportJob existing = existingId != null ? jobs.get(existingId) : null;
+            if (existing != null && isReusable(existing)) {
+                return existingId;
+            }
+            ExportJob job = new ExportJob(UUID.randomUUID().toString().replace("-", ""), type, key,
+                                          fileNameOf(baseName, format), format);
+            jobs.put(job.getJobId(), job);
+            created[0] = job;
+            return job.getJobId();
+        });
+
+        if (created[0] == null) {
+            logger.info("复用导出任务 - 任务ID: {}, 类型: {}", jobId, type);
+            return jobs.get(jobId);
+        }
+
+        ExportJob job = created[0];
+        try {
+            exportJobExecutor.execute(() -> run(job, counter, task));
+            logger.info("提交导出任务 - 任务ID: {}, 类型: {}, 条件: {}", job.getJobId(), type, key);
+        } catch (RejectedExecutionException e) {
+            logger.warn("导出任务队列已满 - 类型: {}", type);
+            fail(job, "导出任务过多，请稍后重试");
+        }
+        return job;
+    }
+
+    /**
+     * 获取导出任务
+     *
+     * @param jobId 任务ID
+     * @return 导出任务，不存在或已过期时返回null
+     */
+    public ExportJob getJob(String jobId) {
+        return jobId != null ? jobs.get(jobId) : null;
+    }
+
+    /**
+     * 获取已完成任务的导出文件
+     *
+     * @param jobId 任务ID
+     * @return 文件路径，任务未完成、已过期或文件已删除时返回null
+     */
+    public Path getArtifact(String jobId) {
+        ExportJob job = getJob(jobId);
+        if (job == null || !STATUS_COMPLETED.equals(job.getStatus())) {
+            return null;
+        }
+        return Files.isRegularFile(job.file) ? job.file : null;
+    }
+
+    /**
+     * 删除过期的导出任务和文件
+     */
+    @Scheduled(fixedDelayString = "${yxrobot.export-job.cleanup-interval-ms:300000}")
+    public void cleanupExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int removed = 0;
+        Iterator<ExportJob> iterator = jobs.values().iterator();
+        while (iterator.hasNext()) {
+            ExportJob job = iterator.next();
+            if (job.getExpiresAt() != null && job.getExpiresAt().isBefore(now)) {
+                iterator.remove();
+                jobIdsByKey.remove(job.dedupKey, job.getJobId());
+                deleteQuietly(job.file);
+                removed++;
+            }
+        }
+
+        // 服务重启前生成的文件不在任务表中，按修改时间清理
+        Path dir = exportDir();
+        if (Files.isDirectory(dir)) {
+            long cutoff = System.currentTimeMillis() - ttlMinutes * 60_000L;
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    int dot = name.indexOf('.');
+                    boolean known = dot > 0 && jobs.containsKey(name.substring(0, dot));
+                    if (!known && Files.getLastModifiedTime(file).toMillis() < cutoff) {
+                        deleteQuietly(file);
+                        removed++;
+                    }
+                }
+            } catch (IOException e) {
+                logger.warn("清理导出目录失败: {}", dir, e);
+            }
+        }
+        if (removed > 0) {
+            logger.info("清理过期导出文件 - 数量: {}", removed);
+        }
+    }
+
+    private void run(ExportJob job, CountSupplier counter, ExportTask task) {
+        job.status = STATUS_RUNNING;
+        job.startedAt = LocalDateTime.now();
+        try {
+            Number estimated = counter.count();
+            job.estimatedRows = estimated != null ? estimated.longValue() : null;
+        } catch (RuntimeException e) {
+            logger.warn("统计导出行数失败，不显示进度百分比 - 任务ID: {}", job.getJobId(), e);
+        }
+
+        Path dir = exportDir();
+        Path part = dir.resolve(job.getJobId() + ".part");
+        Path target = dir.resolve(job.getJobId() + "." + extensionOf(job.format));
+        try {
+            Files.createDirectories(dir);
+            long rows;
+            try (OutputStream out = open(part, job.format)) {
+                rows = task.write(out, written -> job.rowsWritten = written);
+            }
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            job.file = target;
+            job.rowsWritten = rows;
+            job.fileSize = Files.size(target);
+            job.finishedAt = LocalDateTime.now();
+            job.expiresAt = job.finishedAt.plusMinutes(ttlMinutes);
+            job.status = STATUS_COMPLETED;
+            logger.info("导出任务完成 - 任务ID: {}, 行数: {}, 文件大小: {}字节, 耗时: {}ms", job.getJobId(), rows,
+                        job.fileSize, Duration.between(job.startedAt, job.finishedAt).toMillis());
+        } catch (Exception e) {
+            logger.error("导出任务失败 - 任务ID: {}", job.getJobId(), e);
+            deleteQuietly(part);
+            fail(job, "导出失败：" + e.getMessage());
+        }
+    }
+
+    private void fail(ExportJob job, String message) {
+        job.errorMessage = message;
+        job.finishedAt = LocalDateTime.now();
+        job.expiresAt = job.finishedAt.plusMinutes(ttlMinutes);
+        job.status = STATUS_FAILED;
+        // 失败的任务保留状态供查询，但相同条件再次提交时重新执行
+        jobIdsByKey.remove(job.dedupKey, job.getJobId());
+    }
+
+    private boolean isReusable(ExportJob job) {
+        if (STATUS_FAILED.equals(job.getStatus())) {
+            return false;
+        }
+        if (STATUS_COMPLETED.equals(job.getStatus())) {
+            return job.getExpiresAt().isAfter(LocalDateTime.now()) && Files.isRegularFile(job.file);
+        }
+        return true;
+    }
+
+    /**
+     * CSV 写入 gzip 文件；XLSX 本身是 zip 压缩，直接写入
+     */
+    private static OutputStream open(Path file, ExportFormat format) throws IOException {
+        OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024);
+        return format == ExportFormat.CSV ? new GZIPOutputStream(out, 8192) : out;
+    }
+
+    static String extensionOf(ExportFormat format) {
+        return format == ExportFormat.CSV ? "csv.gz" : format.getExtension();
+    }
+
+    private static String fileNameOf(String baseName, ExportFormat format) {
+        return baseName + "-" + LocalDateTime.now().format(FILE_TIME_FORMATTER) + "." + extensionOf(format);
+    }
+
+    private Path exportDir() {
+        return Paths.get(uploadPath, EXPORT_DIR);
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("删除导出文件失败: {}", file, e);
+        }
+    }
+
+    /**
+     * 统计预计导出行数
+     */
+    @FunctionalInterface
+    interface CountSupplier {
+        Number count();
+    }
+
+    /**
+     * 写出导出内容，返回行数；progress 接收已写出的行数
+     */
+    @FunctionalInterface
+    interface ExportTask {
+        long write(OutputStream out, LongConsumer progress) throws IOException;
+    }
+
+    /**
+     * 导出任务状态
+     */
+    public static class ExportJob {
+        private final String jobId;
+        private final String type;
+        private final String fileName;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final String dedupKey;
+        private final ExportFormat format;
+
+        private volatile String status = STATUS_PENDING;
+        private volatile long rowsWritten;
+        private volatile Long estimatedRows;
+        private volatile Long fileSize;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile LocalDateTime expiresAt;
+        private volatile String errorMessage;
+        private volatile Path file;
+
+        public ExportJob(String jobId, String type, String dedupKey, String fileName, ExportFormat format) {
+            this.jobId = jobId;
+            this.type = type;
+            this.dedupKey = dedupKey;
+            this.fileName = fileName;
+            this.format = format;
+        }
+
+        public String getJobId() {
+            return jobId;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getFormat() {
+            return format.getCode();
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public long getRowsWritten() {
+            return rowsWritten;
+        }
+
+        public Long getEstimatedRows() {
+            return estimatedRows;
+        }
+
+        /**
+         * 进度百分比：完成前最多显示99，预计行数未知时为null
+         */
+        public Integer getProgress() {
+            if (STATUS_COMPLETED.equals(status)) {
+                return 100;
+            }
+            Long estimated = estimatedRows;
+            if (estimated == null || estimated <= 0) {
+                return STATUS_PENDING.equals(status) ? 0 : null;
+            }
+            return (int) Math.min(99, rowsWritten * 100 / estimated);
+        }
+
+        public Long getFileSize() {
+            return fileSize;
+        }
+
+        public LocalDateTime getCreatedAt() {
+            return createdAt;
+        }
+
+        public LocalDateTime getStartedAt() {
+            return startedAt;
+        }
+
+        public LocalDateTime getFinishedAt() {
+            return finishedAt;
+        }
+
+        public LocalDateTime getExpiresAt() {
+            return expiresAt;
+        }
+
+        public String getErrorMessage() {
+            return errorMessage;
+        }
+
+        /**
+         * 下载地址，任务完成后才有值
+         */
+        public String getDownloadUrl() {
+            return STATUS_COMPLETED.equals(status) ? "/api/admin/export-jobs/" + jobId + "/download" : null;
+        }
+    }
+}
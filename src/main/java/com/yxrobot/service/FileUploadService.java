@@ -1,25 +1,26 @@
 package com.yxrobot.service;
 
+import com.yxrobot.service.UploadBlobService.StoredBlob;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
 import java.util.List;
-import java.util.UUID;
 
 /**
  * 文件上传服务类
  * 负责处理文件上传、存储和管理
+ * 产品图片和视频按内容保存（见 {@link UploadBlobService}），多个产品共用的同一文件只存一份
  * 
  * @author YXRobot开发团队
  * @version 1.0
@@ -30,6 +31,9 @@ public class FileUploadService {
     
     private static final Logger logger = LoggerFactory.getLogger(FileUploadService.class);
     
+    @Autowired
+    private UploadBlobService uploadBlobService;
+    
     /**
      * 文件存储根路径
      */
@@ -80,21 +84,12 @@ public class FileUploadService {
         // 验证文件
         validateImageFile(file);
         
-        // 生成文件存储路径
-        String relativePath = generateProductCoverPath(file);
-        String fullPath = uploadPath + File.separator + relativePath;
-        
-        // 确保目录存在
-        createDirectoryIfNotExists(fullPath);
-        
-        // 保存文件
-        Path targetPath = Paths.get(fullPath);
-        Files.copy(file.getInputStream(), targetPath);
+        // 按内容保存，相同图片复用已有文件
+        StoredBlob blob = storeBlob(file);
+        String accessUrl = blob.getUrl();
         
-        // 生成访问URL
-        String accessUrl = urlPrefix + "/" + relativePath.replace(File.separator, "/");
-        
-        logger.info("成功上传产品封面图片，存储路径: {}, 访问URL: {}", fullPath, accessUrl);
+        logger.info("成功上传产品封面图片，存储路径: {}, 访问URL: {}, 复用已有文件: {}", 
+                   blob.getStoragePath(), accessUrl, blob.isDeduplicated());
         return accessUrl;
     }
     
@@ -141,26 +136,18 @@ public class FileUploadService {
             throw new IllegalArgumentException("不支持的媒体类型: " + mediaType);
         }
         
-        // 生成文件存储路径
-        String relativePath = generateProductMediaPath(file, mediaType);
-        String fullPath = uploadPath + File.separator + relativePath;
-        
-        // 确保目录存在
-        createDirectoryIfNotExists(fullPath);
-        
-        // 保存文件
-        Path targetPath = Paths.get(fullPath);
-        Files.copy(file.getInputStream(), targetPath);
+        // 按内容保存，相同文件复用已有文件
+        StoredBlob blob = storeBlob(file);
+        String accessUrl = blob.getUrl();
         
-        // 生成访问URL
-        String accessUrl = urlPrefix + "/" + relativePath.replace(File.separator, "/");
-        
-        logger.info("成功上传产品媒体文件，存储路径: {}, 访问URL: {}", fullPath, accessUrl);
+        logger.info("成功上传产品媒体文件，存储路径: {}, 访问URL: {}, 复用已有文件: {}", 
+                   blob.getStoragePath(), accessUrl, blob.isDeduplicated());
         return accessUrl;
     }
     
     /**
      * 删除文件
+     * 内容寻址存储的文件被多处引用时只减少引用次数
      * 
      * @param fileUrl 文件访问URL
      * @return 删除是否成功
@@ -178,6 +165,11 @@ public class FileUploadService {
                 return false;
             }
             
+            // 内容寻址文件只释放一次引用，没有其他引用时才删除文件
+            if (uploadBlobService.isBlobPath(relativePath)) {
+                return uploadBlobService.release(relativePath) >= 0;
+            }
+            
             // 构建完整文件路径
             String fullPath = uploadPath + File.separator + relativePath.replace("/", File.separator);
             Path filePath = Paths.get(fullPath);
@@ -260,48 +252,14 @@ public class FileUploadService {
     }
     
     /**
-     * 生成产品封面图片存储路径
-     * 
-     * @param file 图片文件
-     * @return 相对存储路径
-     */
-    private String generateProductCoverPath(MultipartFile file) {
-        String dateStr = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy/MM/dd"));
-        String uuid = UUID.randomUUID().toString().replace("-", "");
-        String extension = getFileExtension(file.getOriginalFilename());
-        
-        return "products" + File.separator + "covers" + File.separator + 
-               dateStr + File.separator + uuid + "." + extension;
-    }
-    
-    /**
-     * 生成产品媒体文件存储路径
-     * 
-     * @param file 媒体文件
-     * @param mediaType 媒体类型
-     * @return 相对存储路径
-     */
-    private String generateProductMediaPath(MultipartFile file, String mediaType) {
-        String dateStr = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy/MM/dd"));
-        String uuid = UUID.randomUUID().toString().replace("-", "");
-        String extension = getFileExtension(file.getOriginalFilename());
-        
-        return "products" + File.separator + "media" + File.separator + mediaType + 
-               File.separator + dateStr + File.separator + uuid + "." + extension;
-    }
-    
-    /**
-     * 创建目录（如果不存在）
+     * 保存上传文件到内容寻址存储
      * 
-     * @param filePath 文件完整路径
+     * @param file 上传文件
+     * @return 保存结果
      */
-    private void createDirectoryIfNotExists(String filePath) throws IOException {
-        Path path = Paths.get(filePath);
-        Path parentDir = path.getParent();
-        
-        if (parentDir != null && !Files.exists(parentDir)) {
-            Files.createDirectories(parentDir);
-            logger.info("创建目录: {}", parentDir);
+    private StoredBlob storeBlob(MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return uploadBlobService.store(in, getFileExtension(file.getOriginalFilename()), file.getContentType());
         }
     }
     
@@ -0,0 +1,607 @@
+package com.yxrobot.service;
+
+import com.yxrobot.entity.LinkClickLog;
+import com.yxrobot.entity.LinkClickRollup;
+import com.yxrobot.mapper.LinkClickLogMapper;
+import com.yxrobot.mapper.LinkClickRollupMapper;
+import com.yxrobot.util.HyperLogLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 链接点击汇总服务类
+ * 维护按小时、按天、按设备类型/来源维度的点击汇总表，趋势和分布统计直接读取汇总表
+ *
+ * 点击日志批量写入后调用 {@link #accumulate(List)} 在内存中累加，
+ * {@link #flushRollups()} 将增量合并写入汇总表（写入失败的部分放回等待下次写入）。
+ * 日汇总中的独立访客使用 HyperLogLog 草图，写入时与已有草图合并；link_id = 0 为全部链接合计。
+ * {@link #rebuildRollups(LocalDate, LocalDate)} 按原始日志重建已结束日期的汇总，用于回填和每日校准；
+ * 原始日志已清理的日期保留现有汇总，不会被清空。
+ *
+ * @author YXRobot开发团队
+ * @version 1.0
+ * @since 2025-02-17
+ */
+@Service
+public class LinkClickRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LinkClickRollupService.class);
+
+    /** 日汇总中表示全部链接的链接ID */
+    public static final long ALL_LINKS = 0L;
+
+    static final String DIMENSION_DEVICE = "device";
+    static final String DIMENSION_REFERER = "referer";
+
+    private static final int UPSERT_BATCH_SIZE = 200;
+    private static final int REBUILD_PAGE_SIZE = 1000;
+    /** 重建时内存中累积的汇总行超过该数量即写入一次 */
+    private static final int REBUILD_FLUSH_THRESHOLD = 20000;
+
+    @Autowired
+    private LinkClickRollupMapper rollupMapper;
+
+    @Autowired
+    private LinkClickLogMapper clickLogMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // 尚未写入的汇总增量（受 this 保护）
+    private RollupBuffer pending = new RollupBuffer();
+
+    // 保证同一时间只有一次写入/重建
+    private final Object flushLock = new Object();
+
+    /**
+     * 累加已写入的点击日志
+     *
+     * @param clickLogs 点击日志列表
+     */
+    public void accumulate(List<LinkClickLog> clickLogs) {
+        if (clickLogs == null || clickLogs.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            for (LinkClickLog log : clickLogs) {
+                pending.addClick(log);
+            }
+        }
+    }
+
+    /**
+     * 累加已有点击记录更新为转化后的增量
+     *
+     * @param clickLog 更新前的点击日志
+     * @param conversionValue 新的转化价值
+     */
+    public void accumulateConversion(LinkClickLog clickLog, BigDecimal conversionValue) {
+        if (clickLog == null || clickLog.getLinkId() == null) {
+            return;
+        }
+        boolean newConversion = !Boolean.TRUE.equals(clickLog.getIsConversion());
+        BigDecimal valueDelta = nullToZero(conversionValue);
+        if (!newConversion) {
+            valueDelta = valueDelta.subtract(nullToZero(clickLog.getConversionValue()));
+        }
+        synchronized (this) {
+            pending.addConversion(clickLog, newConversion ? 1 : 0, valueDelta);
+        }
+    }
+
+    /**
+     * 将内存中的汇总增量写入汇总表
+     *
+     * @return 本次写入的汇总行数
+     */
+    public int flushRollups() {
+        synchronized (flushLock) {
+            RollupBuffer buffer;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return 0;
+                }
+                buffer = pending;
+                pending = new RollupBuffer();
+            }
+            return writeBuffer(buffer, true);
+        }
+    }
+
+    /**
+     * 按原始点击日志重建指定日期范围的汇总
+     * 只允许重建今天之前的日期，今天的汇总仍在增量累加中；没有原始日志的日期（如已超过日志保留期）跳过。
+     * 每天单独一个事务，天与天之间释放写入锁，重建较长范围时不阻塞增量写入
+     *
+     * @param startDate 开始日期（含）
+     * @param endDate 结束日期（含）
+     * @return 参与重建的点击日志数量
+     */
+    public long rebuildRollups(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("日期范围无效");
+        }
+        if (!endDate.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("只能重建今天之前的汇总数据");
+        }
+
+        logger.info("开始重建点击汇总 - 日期: {} ~ {}", startDate, endDate);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long processed = 0;
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            LocalDate rebuildDay = day;
+            Long dayProcessed = transactionTemplate.execute(status -> {
+                synchronized (flushLock) {
+                    return rebuildDay(rebuildDay);
+                }
+            });
+            processed += dayProcessed != null ? dayProcessed : 0L;
+        }
+        logger.info("重建点击汇总完成 - 日期: {} ~ {}, 点击日志: {}", startDate, endDate, processed);
+        return processed;
+    }
+
+    /**
+     * 删除并按原始日志重新写入一天的汇总，调用方持有 flushLock 并开启事务
+     * 这一天尚未写入的内存增量对应的日志已在原始日志中，重建前丢弃，避免重建后再次累加
+     *
+     * @return 参与重建的点击日志数量
+     */
+    private long rebuildDay(LocalDate day) {
+        LocalDateTime startTime = day.atStartOfDay();
+        LocalDateTime endTime = day.plusDays(1).atStartOfDay();
+        List<LinkClickLog> page = clickLogMapper.selectForRollup(0L, startTime, endTime, REBUILD_PAGE_SIZE);
+        if (page.isEmpty()) {
+            logger.debug("跳过重建点击汇总，没有原始日志 - 日期: {}", day);
+            return 0;
+        }
+
+        RollupBuffer discarded = takePending(startTime, endTime);
+        if (!discarded.isEmpty()) {
+            logger.debug("重建点击汇总，丢弃已包含在原始日志中的内存增量 - 日期: {}, 汇总行: {}", day, discarded.size());
+        }
+        try {
+            return replaceDay(day, page);
+        } catch (RuntimeException e) {
+            // 重建回滚，原有汇总不变，丢弃的增量放回
+            restorePending(discarded);
+            throw e;
+        }
+    }
+
+    /**
+     * 删除一天的汇总，从已查询的第一页开始按原始日志重新写入
+     */
+    private long replaceDay(LocalDate day, List<LinkClickLog> page) {
+        LocalDateTime startTime = day.atStartOfDay();
+        LocalDateTime endTime = day.plusDays(1).atStartOfDay();
+        rollupMapper.deleteHourlyStats(startTime, endTime);
+        rollupMapper.deleteDimensionStats(startTime, endTime);
+        rollupMapper.deleteDailyStats(startTime, endTime);
+
+        long processed = 0;
+        long afterId = 0;
+        RollupBuffer buffer = new RollupBuffer();
+        while (true) {
+            for (LinkClickLog log : page) {
+                buffer.addClick(log);
+                afterId = log.getId();
+            }
+            processed += page.size();
+
+            if (buffer.size() >= REBUILD_FLUSH_THRESHOLD) {
+                writeBuffer(buffer, false);
+                buffer = new RollupBuffer();
+            }
+            if (page.size() < REBUILD_PAGE_SIZE) {
+                break;
+            }
+            page = clickLogMapper.selectForRollup(afterId, startTime, endTime, REBUILD_PAGE_SIZE);
+        }
+        writeBuffer(buffer, false);
+
+        logger.debug("重建点击汇总 - 日期: {}, 点击日志: {}", day, processed);
+        return processed;
+    }
+
+    /**
+     * 从 pending 中取出统计时间在 [startTime, endTime) 内尚未写入的汇总增量
+     */
+    private synchronized RollupBuffer takePending(LocalDateTime startTime, LocalDateTime endTime) {
+        RollupBuffer taken = new RollupBuffer();
+        moveBetween(pending.hourly, taken.hourly, startTime, endTime);
+        moveBetween(pending.dimensions, taken.dimensions, startTime, endTime);
+        moveBetween(pending.daily, taken.daily, startTime, endTime);
+        return taken;
+    }
+
+    private synchronized void restorePending(RollupBuffer buffer) {
+        mergeInto(pending.hourly, buffer.hourly);
+        mergeInto(pending.dimensions, buffer.dimensions);
+        mergeInto(pending.daily, buffer.daily);
+    }
+
+    private static void moveBetween(Map<RollupKey, RollupCounter> from, Map<RollupKey, RollupCounter> to,
+                                    LocalDateTime startTime, LocalDateTime endTime) {
+        from.entrySet().removeIf(entry -> {
+            LocalDateTime statTime = entry.getKey().statTime;
+            if (statTime.isBefore(startTime) || !statTime.isBefore(endTime)) {
+                return false;
+            }
+            to.put(entry.getKey(), entry.getValue());
+            return true;
+        });
+    }
+
+    private static void mergeInto(Map<RollupKey, RollupCounter> target, Map<RollupKey, RollupCounter> source) {
+        for (Map.Entry<RollupKey, RollupCounter> entry : source.entrySet()) {
+            target.computeIfAbsent(entry.getKey(), k -> new RollupCounter()).merge(entry.getValue());
+        }
+    }
+
+    /**
+     * 获取点击趋势（按天）
+     *
+     * @param linkId 链接ID（可选，为空时统计全部链接）
+     * @param days 天数
+     * @return 趋势数据（date、clickCount、uniqueVisitors），按日期倒序
+     */
+    public List<Map<String, Object>> getClickTrends(Long linkId, int days) {
+        List<Map<String, Object>> trends = new ArrayList<>();
+        for (Map<String, Object> row : selectDailyTrends(linkId, days)) {
+            if (toLong(row.get("clickCount")) <= 0) {
+                continue;
+            }
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("date", row.get("date"));
+            item.put("clickCount", toLong(row.get("clickCount")));
+            item.put("uniqueVisitors", toLong(row.get("uniqueVisitors")));
+            trends.add(item);
+        }
+        return trends;
+    }
+
+    /**
+     * 获取转化趋势（按天）
+     *
+     * @param linkId 链接ID（可选，为空时统计全部链接）
+     * @param days 天数
+     * @return 趋势数据（date、conversionCount、totalValue），按日期倒序
+     */
+    public List<Map<String, Object>> getConversionTrends(Long linkId, int days) {
+        List<Map<String, Object>> trends = new ArrayList<>();
+        for (Map<String, Object> row : selectDailyTrends(linkId, days)) {
+            if (toLong(row.get("conversionCount")) <= 0) {
+                continue;
+            }
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("date", row.get("date"));
+            item.put("conversionCount", toLong(row.get("conversionCount")));
+            item.put("totalValue", row.get("totalValue") != null ? row.get("totalValue") : BigDecimal.ZERO);
+            trends.add(item);
+        }
+        return trends;
+    }
+
+    /**
+     * 获取设备类型分布，时间精度为小时
+     *
+     * @param linkId 链接ID（可选）
+     * @param startTime 开始时间（可选）
+     * @param endTime 结束时间（可选）
+     * @return 设备统计（deviceType、clickCount、conversionCount）
+     */
+    public List<Map<String, Object>> getDeviceStats(Long linkId, LocalDateTime startTime, LocalDateTime endTime) {
+        return selectDimensionStats(linkId, DIMENSION_DEVICE, "deviceType", startTime, endTime);
+    }
+
+    /**
+     * 获取来源分布，时间精度为小时
+     *
+     * @param linkId 链接ID（可选）
+     * @param startTime 开始时间（可选）
+     * @param endTime 结束时间（可选）
+     * @return 来源统计（refererSource、clickCount、conversionCount）
+     */
+    public List<Map<String, Object>> getRefererStats(Long linkId, LocalDateTime startTime, LocalDateTime endTime) {
+        return selectDimensionStats(linkId, DIMENSION_REFERER, "refererSource", startTime, endTime);
+    }
+
+    /**
+     * 按用户代理划分设备类型，与原 SQL 的 CASE 规则一致；用户代理为空时不参与设备统计
+     */
+    static String classifyDevice(String userAgent) {
+        if (userAgent == null) {
+            return null;
+        }
+        String ua = userAgent.toLowerCase();
+        if (ua.contains("mobile") || ua.contains("android") || ua.contains("iphone")) {
+            return "移动设备";
+        }
+        if (ua.contains("tablet") || ua.contains("ipad")) {
+            return "平板设备";
+        }
+        return "桌面设备";
+    }
+
+    /**
+     * 按来源页面划分来源，与原 SQL 的 CASE 规则一致
+     */
+    static String classifyReferer(String referer) {
+        if (referer == null || referer.isEmpty()) {
+            return "直接访问";
+        }
+        String value = referer.toLowerCase();
+        if (value.contains("google")) {
+            return "Google";
+        }
+        if (value.contains("baidu")) {
+            return "百度";
+        }
+        if (value.contains("bing")) {
+            return "Bing";
+        }
+        if (value.contains("facebook")) {
+            return "Facebook";
+        }
+        if (value.contains("twitter")) {
+            return "Twitter";
+        }
+        return "其他网站";
+    }
+
+    private List<Map<String, Object>> selectDailyTrends(Long linkId, int days) {
+        LocalDateTime startTime = LocalDate.now().minusDays(days).atStartOfDay();
+        return rollupMapper.selectDailyTrends(linkId != null ? linkId : ALL_LINKS, startTime);
+    }
+
+    private List<Map<String, Object>> selectDimensionStats(Long linkId, String dimension, String valueKey,
+                                                           LocalDateTime startTime, LocalDateTime endTime) {
+        LocalDateTime startHour = startTime != null ? startTime.truncatedTo(ChronoUnit.HOURS) : null;
+        List<Map<String, Object>> rows = rollupMapper.selectDimensionStats(linkId, dimension, startHour, endTime);
+        List<Map<String, Object>> result = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put(valueKey, row.get("dimensionValue"));
+            item.put("clickCount", toLong(row.get("clickCount")));
+            item.put("conversionCount", toLong(row.get("conversionCount")));
+            result.add(item);
+        }
+        return result;
+    }
+
+    /**
+     * 写入一批汇总增量；requeue 为 true 时写入失败的部分放回 pending
+     *
+     * @return 写入成功的汇总行数
+     */
+    private int writeBuffer(RollupBuffer buffer, boolean requeue) {
+        int written = 0;
+        written += writeCounters(buffer.hourly, rollupMapper::upsertHourlyStats, b -> b.hourly, requeue);
+        written += writeCounters(buffer.dimensions, rollupMapper::upsertDimensionStats, b -> b.dimensions, requeue);
+        written += writeCounters(buffer.daily, this::upsertDailyStats, b -> b.daily, requeue);
+        return written;
+    }
+
+    private int writeCounters(Map<RollupKey, RollupCounter> counters,
+                              Consumer<List<LinkClickRollup>> writer,
+                              Function<RollupBuffer, Map<RollupKey, RollupCounter>> target,
+                              boolean requeue) {
+        int written = 0;
+        List<Map.Entry<RollupKey, RollupCounter>> chunk = new ArrayList<>(UPSERT_BATCH_SIZE);
+        List<Map.Entry<RollupKey, RollupCounter>> entries = new ArrayList<>(counters.entrySet());
+        for (int i = 0; i < entries.size(); i += UPSERT_BATCH_SIZE) {
+            chunk.clear();
+            chunk.addAll(entries.subList(i, Math.min(i + UPSERT_BATCH_SIZE, entries.size())));
+            List<LinkClickRollup> rows = new ArrayList<>(chunk.size());
+            for (Map.Entry<RollupKey, RollupCounter> entry : chunk) {
+                rows.add(entry.getValue().toRollup(entry.getKey()));
+            }
+            try {
+                writer.accept(rows);
+                written += rows.size();
+            } catch (RuntimeException e) {
+                if (!requeue) {
+                    throw e;
+                }
+                logger.error("写入点击汇总失败 - 行数: {}, 错误: {}", rows.size(), e.getMessage(), e);
+                synchronized (this) {
+                    Map<RollupKey, RollupCounter> targetMap = target.apply(pending);
+                    for (Map.Entry<RollupKey, RollupCounter> entry : chunk) {
+                        targetMap.computeIfAbsent(entry.getKey(), k -> new RollupCounter()).merge(entry.getValue());
+                    }
+                }
+            }
+        }
+        return written;
+    }
+
+    /**
+     * 与已有的访客草图合并后写入日汇总
+     */
+    private void upsertDailyStats(List<LinkClickRollup> rows) {
+        Map<RollupKey, byte[]> existing = new HashMap<>();
+        for (LinkClickRollup sketchRow : rollupMapper.selectDailySketches(rows)) {
+            existing.put(new RollupKey(sketchRow.getLinkId(), sketchRow.getStatTime(), null, null),
+                        sketchRow.getVisitorSketch());
+        }
+        for (LinkClickRollup row : rows) {
+            HyperLogLog sketch = HyperLogLog.fromBytes(row.getVisitorSketch());
+            byte[] stored = existing.get(new RollupKey(row.getLinkId(), row.getStatTime(), null, null));
+            if (stored != null) {
+                sketch.merge(HyperLogLog.fromBytes(stored));
+            }
+            row.setVisitorSketch(sketch.toBytes());
+            row.setUniqueVisitors(sketch.estimate());
+        }
+        rollupMapper.upsertDailyStats(rows);
+    }
+
+    private static BigDecimal nullToZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    private static long toLong(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        return 0L;
+    }
+
+    /**
+     * 一批待写入的汇总增量
+     */
+    static final class RollupBuffer {
+        final Map<RollupKey, RollupCounter> hourly = new HashMap<>();
+        final Map<RollupKey, RollupCounter> dimensions = new HashMap<>();
+        final Map<RollupKey, RollupCounter> daily = new HashMap<>();
+
+        void addClick(LinkClickLog log) {
+            boolean conversion = Boolean.TRUE.equals(log.getIsConversion());
+            long conversions = conversion ? 1 : 0;
+            BigDecimal value = conversion ? nullToZero(log.getConversionValue()) : BigDecimal.ZERO;
+            add(log, 1, conversions, value, log.getUserIp());
+        }
+
+        void addConversion(LinkClickLog log, long conversions, BigDecimal value) {
+            add(log, 0, conversions, value, null);
+        }
+
+        private void add(LinkClickLog log, long clicks, long conversions, BigDecimal value, String visitor) {
+            LocalDateTime clickedAt = log.getClickedAt() != null ? log.getClickedAt() : LocalDateTime.now();
+            LocalDateTime hour = clickedAt.truncatedTo(ChronoUnit.HOURS);
+            LocalDateTime day = clickedAt.toLocalDate().atStartOfDay();
+            Long linkId = log.getLinkId();
+
+            counter(hourly, new RollupKey(linkId, hour, null, null)).add(clicks, conversions, value);
+
+            String deviceType = classifyDevice(log.getUserAgent());
+            if (deviceType != null) {
+                counter(dimensions, new RollupKey(linkId, hour, DIMENSION_DEVICE, deviceType)).add(clicks, conversions, null);
+            }
+            counter(dimensions, new RollupKey(linkId, hour, DIMENSION_REFERER, classifyReferer(log.getReferer())))
+                    .add(clicks, conversions, null);
+
+            for (Long dailyLinkId : new Long[] {linkId, ALL_LINKS}) {
+                RollupCounter dailyCounter = counter(daily, new RollupKey(dailyLinkId, day, null, null));
+                dailyCounter.add(clicks, conversions, value);
+                dailyCounter.addVisitor(visitor);
+            }
+        }
+
+        private static RollupCounter counter(Map<RollupKey, RollupCounter> map, RollupKey key) {
+            return map.computeIfAbsent(key, k -> new RollupCounter());
+        }
+
+        boolean isEmpty() {
+            return hourly.isEmpty() && dimensions.isEmpty() && daily.isEmpty();
+        }
+
+        int size() {
+            return hourly.size() + dimensions.size() + daily.size();
+        }
+    }
+
+    /**
+     * 汇总行主键：链接ID + 统计时间（+ 维度）
+     */
+    static final class RollupKey {
+        final Long linkId;
+        final LocalDateTime statTime;
+        final String dimension;
+        final String dimensionValue;
+
+        RollupKey(Long linkId, LocalDateTime statTime, String dimension, String dimensionValue) {
+            this.linkId = linkId;
+            this.statTime = statTime;
+            this.dimension = dimension;
+            this.dimensionValue = dimensionValue;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof RollupKey)) {
+                return false;
+            }
+            RollupKey other = (RollupKey) o;
+            return Objects.equals(linkId, other.linkId)
+                    && Objects.equals(statTime, other.statTime)
+                    && Objects.equals(dimension, other.dimension)
+                    && Objects.equals(dimensionValue, other.dimensionValue);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(linkId, statTime, dimension, dimensionValue);
+        }
+    }
+
+    /**
+     * 汇总行的累加值
+     */
+    static final class RollupCounter {
+        long clicks;
+        long conversions;
+        BigDecimal value = BigDecimal.ZERO;
+        HyperLogLog visitors;
+
+        void add(long clickDelta, long conversionDelta, BigDecimal valueDelta) {
+            clicks += clickDelta;
+            conversions += conversionDelta;
+            if (valueDelta != null) {
+                value = value.add(valueDelta);
+            }
+        }
+
+        void addVisitor(String visitor) {
+            if (visitor == null || visitor.isEmpty()) {
+                return;
+            }
+            if (visitors == null) {
+                visitors = new HyperLogLog();
+            }
+            visitors.add(visitor);
+        }
+
+        void merge(RollupCounter other) {
+            add(other.clicks, other.conversions, other.value);
+            if (other.visitors != null) {
+                if (visitors == null) {
+                    visitors = new HyperLogLog();
+                }
+                visitors.merge(other.visitors);
+            }
+        }
+
+        LinkClickRollup toRollup(RollupKey key) {
+            LinkClickRollup rollup = new LinkClickRollup(key.linkId, key.statTime);
+            rollup.setDimension(key.dimension);
+            rollup.setDimensionValue(key.dimensionValue);
+            rollup.setClickCount(clicks);
+            rollup.setConversionCount(conversions);
+            rollup.setConversionValue(value);
+            rollup.setVisitorSketch(visitors != null ? visitors.toBytes() : null);
+            return rollup;
+        }
+    }
+}
@@ -1,34 +1,55 @@
 package com.yxrobot.service;
 
+import com.yxrobot.cache.LocalCache;
+import com.yxrobot.cache.LocalCacheManager;
+import com.yxrobot.dto.CursorPage;
 import com.yxrobot.dto.LinkClickLogDTO;
 import com.yxrobot.entity.LinkClickLog;
-import com.yxrobot.entity.PlatformLink;
 import com.yxrobot.mapper.LinkClickLogMapper;
 import com.yxrobot.mapper.PlatformLinkMapper;
+import com.yxrobot.util.PageCursor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.servlet.http.HttpServletRequest;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
  * 链接点击统计服务类
  * 负责处理链接点击统计和转化跟踪相关的业务逻辑
  * 
+ * 点击/转化事件采用写后缓冲：请求线程只做校验并放入有界队列，
+ * 定时任务批量多行插入日志，链接的点击量/转化量在内存中按链接累加后增量更新。
+ * 队列满时由请求线程同步写入（背压），应用关闭时会排空队列和计数。
+ * 趋势、设备和来源统计读取 {@link LinkClickRollupService} 维护的汇总表，不再扫描原始日志。
+ * 点击记录和缓冲写入不开启事务，每条写入语句单独提交，批量写入失败时才能逐条隔离失败的日志。
+ * 
  * @author YXRobot开发团队
  * @version 1.0
  * @since 2024-12-22
  */
 @Service
-@Transactional
 public class LinkClickService {
     
     private static final Logger logger = LoggerFactory.getLogger(LinkClickService.class);
@@ -39,50 +60,84 @@ public class LinkClickService {
     @Autowired
     private PlatformLinkMapper platformLinkMapper;
     
+    @Autowired
+    private LocalCacheManager localCacheManager;
+    
+    @Autowired
+    private LinkClickRollupService rollupService;
+    
+    // 写后缓冲配置
+    @Value("${yxrobot.link-click.buffer-capacity:10000}")
+    private int bufferCapacity = 10000;
+    
+    @Value("${yxrobot.link-click.batch-size:500}")
+    private int batchSize = 500;
+    
+    private static final Duration LINK_EXISTS_CACHE_TTL = Duration.ofMinutes(5);
+    
+    // 单条写入失败（其他日志写入成功）时最多重试的次数，超过后丢弃
+    private static final int MAX_ROW_ATTEMPTS = 3;
+    
+    // 待写入的点击日志
+    private BlockingQueue<LinkClickLog> clickBuffer;
+    
+    // 待累加到链接表的点击量/转化量（链接ID -> 增量）
+    private final Map<Long, Long> pendingClickCounts = new ConcurrentHashMap<>();
+    private final Map<Long, Long> pendingConversionCounts = new ConcurrentHashMap<>();
+    
+    // 单条写入失败的日志及已尝试次数，只在 flushClickBuffer 中访问
+    private final Map<LinkClickLog, Integer> rowAttempts = new IdentityHashMap<>();
+    
+    // 链接是否存在的缓存，避免每次点击都查询链接表
+    private LocalCache<Long, Boolean> linkExistsCache;
+    
+    private volatile boolean shuttingDown = false;
+    
+    // 缓冲指标
+    private final AtomicLong enqueuedCount = new AtomicLong(0);
+    private final AtomicLong persistedCount = new AtomicLong(0);
+    private final AtomicLong batchCount = new AtomicLong(0);
+    private final AtomicLong overflowCount = new AtomicLong(0);
+    private final AtomicLong failedCount = new AtomicLong(0);
+    private final AtomicLong requeuedCount = new AtomicLong(0);
+    private final AtomicLong queueHighWatermark = new AtomicLong(0);
+    private volatile long lastFlushTime = 0;
+    private volatile long lastFlushDurationMs = 0;
+    
+    @PostConstruct
+    public void initClickBuffer() {
+        clickBuffer = new ArrayBlockingQueue<>(bufferCapacity);
+        linkExistsCache = localCacheManager.getOrCreateCache("platform-link-exists", 10000, LINK_EXISTS_CACHE_TTL);
+        logger.info("点击写后缓冲已初始化 - 容量: {}, 批量大小: {}", bufferCapacity, batchSize);
+    }
+    
     /**
      * 记录链接点击事件
+     * 日志放入写后缓冲，由定时任务批量写入，返回的DTO不含日志ID；
+     * 不开启事务，避免每次点击占用数据库连接
      * 
      * @param linkId 链接ID
      * @param request HTTP请求对象
      * @return 点击日志DTO
      * @throws IllegalArgumentException 如果链接不存在
      */
-    @Async
     public LinkClickLogDTO recordClick(Long linkId, HttpServletRequest request) {
-        logger.info("记录链接点击事件 - 链接ID: {}", linkId);
+        logger.debug("记录链接点击事件 - 链接ID: {}", linkId);
         
         if (linkId == null) {
             throw new IllegalArgumentException("链接ID不能为空");
         }
         
         // 验证链接是否存在
-        PlatformLink link = platformLinkMapper.selectById(linkId);
-        if (link == null) {
-            throw new IllegalArgumentException("链接不存在，ID: " + linkId);
-        }
+        validateLinkExists(linkId);
         
-        // 创建点击日志
-        LinkClickLog clickLog = new LinkClickLog();
-        clickLog.setLinkId(linkId);
-        clickLog.setClickedAt(LocalDateTime.now());
+        // 创建点击日志（请求信息必须在请求线程中提取）
+        LinkClickLog clickLog = createClickLog(linkId, request);
+        clickLog.setIsConversion(false);
         
-        // 从请求中提取信息
-        if (request != null) {
-            clickLog.setUserIp(getClientIpAddress(request));
-            clickLog.setUserAgent(request.getHeader("User-Agent"));
-            clickLog.setReferer(request.getHeader("Referer"));
-        }
+        // 放入写后缓冲
+        enqueueClickLog(clickLog);
         
-        // 保存点击日志
-        int result = clickLogMapper.insert(clickLog);
-        if (result <= 0) {
-            throw new RuntimeException("记录点击事件失败");
-        }
-        
-        // 异步更新链接统计
-        updateLinkClickStats(linkId);
-        
-        logger.info("记录链接点击事件成功 - 链接ID: {}, 日志ID: {}", linkId, clickLog.getId());
         return new LinkClickLogDTO(clickLog);
     }
     
@@ -96,7 +151,6 @@ public class LinkClickService {
      * @return 点击日志DTO
      * @throws IllegalArgumentException 如果链接不存在
      */
-    @Async
     public LinkClickLogDTO recordConversion(Long linkId, String conversionType, 
                                           BigDecimal conversionValue, HttpServletRequest request) {
         logger.info("记录转化事件 - 链接ID: {}, 类型: {}, 价值: {}", linkId, conversionType, conversionValue);
@@ -106,37 +160,17 @@ public class LinkClickService {
         }
         
         // 验证链接是否存在
-        PlatformLink link = platformLinkMapper.selectById(linkId);
-        if (link == null) {
-            throw new IllegalArgumentException("链接不存在，ID: " + linkId);
-        }
+        validateLinkExists(linkId);
         
         // 创建转化日志
-        LinkClickLog clickLog = new LinkClickLog();
-        clickLog.setLinkId(linkId);
-        clickLog.setClickedAt(LocalDateTime.now());
+        LinkClickLog clickLog = createClickLog(linkId, request);
         clickLog.setIsConversion(true);
         clickLog.setConversionType(conversionType);
         clickLog.setConversionValue(conversionValue);
         
-        // 从请求中提取信息
-        if (request != null) {
-            clickLog.setUserIp(getClientIpAddress(request));
-            clickLog.setUserAgent(request.getHeader("User-Agent"));
-            clickLog.setReferer(request.getHeader("Referer"));
-        }
+        // 放入写后缓冲
+        enqueueClickLog(clickLog);
         
-        // 保存转化日志
-        int result = clickLogMapper.insert(clickLog);
-        if (result <= 0) {
-            throw new RuntimeException("记录转化事件失败");
-        }
-        
-        // 异步更新链接统计
-        updateLinkClickStats(linkId);
-        
-        logger.info("记录转化事件成功 - 链接ID: {}, 日志ID: {}, 类型: {}", 
-                   linkId, clickLog.getId(), conversionType);
         return new LinkClickLogDTO(clickLog);
     }
     
@@ -148,6 +182,7 @@ public class LinkClickService {
      * @param conversionValue 转化价值
      * @return 是否更新成功
      */
+    @Transactional
     public boolean updateConversion(Long clickLogId, String conversionType, BigDecimal conversionValue) {
         logger.info("更新点击记录为转化 - 日志ID: {}, 类型: {}, 价值: {}", 
                    clickLogId, conversionType, conversionValue);
@@ -169,8 +204,11 @@ public class LinkClickService {
             return false;
         }
         
-        // 异步更新链接统计
-        updateLinkClickStats(clickLog.getLinkId());
+        // 首次转化时累加链接转化量
+        if (!Boolean.TRUE.equals(clickLog.getIsConversion())) {
+            pendingConversionCounts.merge(clickLog.getLinkId(), 1L, Long::sum);
+        }
+        rollupService.accumulateConversion(clickLog, conversionValue);
         
         logger.info("更新点击记录为转化成功 - 日志ID: {}", clickLogId);
         return true;
@@ -190,7 +228,7 @@ public class LinkClickService {
             days = 30; // 默认30天
         }
         
-        List<Map<String, Object>> trends = clickLogMapper.selectClickTrends(linkId, days);
+        List<Map<String, Object>> trends = rollupService.getClickTrends(linkId, days);
         
         logger.info("获取点击趋势数据完成 - 链接ID: {}, 数据点: {}", linkId, trends.size());
         return trends;
@@ -210,7 +248,7 @@ public class LinkClickService {
             days = 30; // 默认30天
         }
         
-        List<Map<String, Object>> trends = clickLogMapper.selectConversionTrends(linkId, days);
+        List<Map<String, Object>> trends = rollupService.getConversionTrends(linkId, days);
         
         logger.info("获取转化趋势数据完成 - 链接ID: {}, 数据点: {}", linkId, trends.size());
         return trends;
@@ -261,7 +299,7 @@ public class LinkClickService {
     public List<Map<String, Object>> getDeviceStats(Long linkId, LocalDateTime startTime, LocalDateTime endTime) {
         logger.info("获取用户设备统计 - 链接ID: {}, 开始时间: {}, 结束时间: {}", linkId, startTime, endTime);
         
-        List<Map<String, Object>> deviceStats = clickLogMapper.selectDeviceStats(linkId, startTime, endTime);
+        List<Map<String, Object>> deviceStats = rollupService.getDeviceStats(linkId, startTime, endTime);
         
         logger.info("获取用户设备统计完成 - 链接ID: {}, 设备类型数: {}", linkId, deviceStats.size());
         return deviceStats;
@@ -278,7 +316,7 @@ public class LinkClickService {
     public List<Map<String, Object>> getRefererStats(Long linkId, LocalDateTime startTime, LocalDateTime endTime) {
         logger.info("获取来源统计 - 链接ID: {}, 开始时间: {}, 结束时间: {}", linkId, startTime, endTime);
         
-        List<Map<String, Object>> refererStats = clickLogMapper.selectRefererStats(linkId, startTime, endTime);
+        List<Map<String, Object>> refererStats = rollupService.getRefererStats(linkId, startTime, endTime);
         
         logger.info("获取来源统计完成 - 链接ID: {}, 来源数: {}", linkId, refererStats.size());
         return refererStats;
@@ -311,40 +349,207 @@ public class LinkClickService {
         return result;
     }
     
+    /**
+     * 游标分页获取链接点击历史，按点击时间倒序
+     * 
+     * @param linkId 链接ID
+     * @param cursor 上一页返回的游标，第一页传null
+     * @param size 每页数量
+     * @param includeTotal 是否统计总点击数
+     * @return 点击历史和下一页游标
+     */
+    public CursorPage<LinkClickLogDTO> getClickHistoryByCursor(Long linkId, String cursor, Integer size, 
+                                                               boolean includeTotal) {
+        if (linkId == null) {
+            throw new IllegalArgumentException("链接ID不能为空");
+        }
+        int pageSize = size != null && size > 0 ? size : 50;
+        PageCursor position = PageCursor.decode(cursor);
+        
+        // 多取一行用于判断是否还有下一页
+        List<LinkClickLog> history = clickLogMapper.selectByLinkIdAfterCursor(
+                linkId, 
+                position != null ? position.getSortValue() : null, 
+                position != null ? position.getId() : null, 
+                pageSize + 1);
+        
+        CursorPage<LinkClickLogDTO> result = CursorPage
+                .fromRows(history, pageSize, LinkClickLog::getClickedAt, LinkClickLog::getId)
+                .map(LinkClickLogDTO::new);
+        if (includeTotal) {
+            result.setTotal(clickLogMapper.selectClickCount(linkId, null, null));
+        }
+        return result;
+    }
+    
     /**
      * 批量记录点击事件
+     * 链接的点击量/转化量和点击汇总在内存中累加，由 {@link #flushClickBuffer()} 定期写入
      * 
      * @param clickLogs 点击日志列表
      * @return 成功记录的数量
      */
+    @Transactional
     public int batchRecordClicks(List<LinkClickLog> clickLogs) {
-        logger.info("批量记录点击事件 - 数量: {}", clickLogs.size());
-        
         if (clickLogs == null || clickLogs.isEmpty()) {
             throw new IllegalArgumentException("点击日志列表不能为空");
         }
         
-        // 设置默认值
-        LocalDateTime now = LocalDateTime.now();
-        clickLogs.forEach(log -> {
-            if (log.getClickedAt() == null) {
-                log.setClickedAt(now);
+        logger.debug("批量记录点击事件 - 数量: {}", clickLogs.size());
+        
+        int result = insertClickLogs(clickLogs);
+        accumulateClickLogs(clickLogs);
+        
+        logger.debug("批量记录点击事件完成 - 成功: {}/{}", result, clickLogs.size());
+        return result;
+    }
+    
+    /**
+     * 将缓冲中的点击日志批量写入数据库，并增量更新链接统计和点击汇总
+     * 
+     * @return 本次写入的日志数量
+     */
+    @Scheduled(fixedDelayString = "${yxrobot.link-click.flush-interval-ms:1000}")
+    public synchronized int flushClickBuffer() {
+        if (clickBuffer == null) {
+            return 0;
+        }
+        
+        long startTime = System.currentTimeMillis();
+        int flushed = 0;
+        
+        List<LinkClickLog> batch = new ArrayList<>(batchSize);
+        while (clickBuffer.drainTo(batch, batchSize) > 0) {
+            try {
+                insertClickLogs(batch);
+            } catch (Exception e) {
+                logger.warn("批量写入点击日志失败，改为逐条写入 - 数量: {}, 错误: {}", batch.size(), e.getMessage());
+                flushed += flushRowByRow(batch);
+                // 失败的日志已放回缓冲，本次不再继续写入，剩余日志等待下次写入
+                batch.clear();
+                break;
             }
-            if (log.getIsConversion() == null) {
-                log.setIsConversion(false);
+            flushed += batch.size();
+            persistedCount.addAndGet(batch.size());
+            batchCount.incrementAndGet();
+            if (!rowAttempts.isEmpty()) {
+                batch.forEach(rowAttempts::remove);
             }
-        });
+            // 日志已写入，累加失败也不能再走逐条写入，否则会重复插入
+            accumulateWrittenClickLogs(batch);
+            batch.clear();
+        }
         
-        int result = clickLogMapper.batchInsert(clickLogs);
+        flushLinkClickCounts();
+        rollupService.flushRollups();
         
-        // 异步更新相关链接的统计
-        clickLogs.stream()
-                .map(LinkClickLog::getLinkId)
-                .distinct()
-                .forEach(this::updateLinkClickStats);
+        lastFlushTime = System.currentTimeMillis();
+        lastFlushDurationMs = lastFlushTime - startTime;
+        if (flushed > 0) {
+            logger.debug("点击缓冲写入完成 - 数量: {}, 耗时: {}ms", flushed, lastFlushDurationMs);
+        }
+        return flushed;
+    }
+    
+    /**
+     * 批量写入失败后逐条写入，隔离写不进去的日志
+     * 单独写入失败的日志每次计一次重试，超过 {@value #MAX_ROW_ATTEMPTS} 次后丢弃，其余放回缓冲；
+     * 第一条就失败时视为数据库不可用，剩余日志不再尝试，直接放回缓冲也不计重试。缓冲已满时丢弃
+     * 
+     * @return 写入成功的数量
+     */
+    private int flushRowByRow(List<LinkClickLog> batch) {
+        List<LinkClickLog> written = new ArrayList<>();
+        List<LinkClickLog> failed = new ArrayList<>();
+        List<LinkClickLog> skipped = new ArrayList<>();
+        for (LinkClickLog clickLog : batch) {
+            if (written.isEmpty() && !failed.isEmpty()) {
+                skipped.add(clickLog);
+                continue;
+            }
+            try {
+                insertClickLogs(Collections.singletonList(clickLog));
+                written.add(clickLog);
+                rowAttempts.remove(clickLog);
+            } catch (Exception e) {
+                failed.add(clickLog);
+                logger.debug("逐条写入点击日志失败 - 链接ID: {}, 错误: {}", clickLog.getLinkId(), e.getMessage());
+            }
+        }
+        if (!written.isEmpty()) {
+            persistedCount.addAndGet(written.size());
+            batchCount.incrementAndGet();
+            accumulateWrittenClickLogs(written);
+        }
         
-        logger.info("批量记录点击事件完成 - 成功: {}/{}", result, clickLogs.size());
-        return result;
+        int dropped = 0;
+        for (LinkClickLog clickLog : failed) {
+            int attempts = rowAttempts.merge(clickLog, 1, Integer::sum);
+            if (attempts >= MAX_ROW_ATTEMPTS) {
+                rowAttempts.remove(clickLog);
+                dropped++;
+            } else if (!requeueClickLog(clickLog)) {
+                dropped++;
+            }
+        }
+        for (LinkClickLog clickLog : skipped) {
+            if (!requeueClickLog(clickLog)) {
+                dropped++;
+            }
+        }
+        if (dropped > 0) {
+            failedCount.addAndGet(dropped);
+            logger.error("点击日志写入失败，丢弃数量: {}（超过重试次数或缓冲已满）", dropped);
+        }
+        logger.warn("点击日志写入失败，已放回缓冲等待重试 - 数量: {}, 写入成功: {}", 
+                   failed.size() + skipped.size() - dropped, written.size());
+        return written.size();
+    }
+    
+    private boolean requeueClickLog(LinkClickLog clickLog) {
+        if (clickBuffer.offer(clickLog)) {
+            requeuedCount.incrementAndGet();
+            return true;
+        }
+        rowAttempts.remove(clickLog);
+        return false;
+    }
+    
+    /**
+     * 应用关闭前排空缓冲，之后的点击改为同步写入
+     */
+    @PreDestroy
+    public void shutdownClickBuffer() {
+        shuttingDown = true;
+        int flushed = flushClickBuffer();
+        if (!clickBuffer.isEmpty()) {
+            logger.error("点击写后缓冲关闭时仍有日志未能写入 - 数量: {}", clickBuffer.size());
+        }
+        logger.info("点击写后缓冲已关闭 - 最后写入: {}, 累计写入: {}", flushed, persistedCount.get());
+    }
+    
+    /**
+     * 获取点击写后缓冲的运行指标
+     * 
+     * @return 指标数据
+     */
+    public Map<String, Object> getIngestionStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        int queueSize = clickBuffer != null ? clickBuffer.size() : 0;
+        stats.put("queueSize", queueSize);
+        stats.put("queueCapacity", bufferCapacity);
+        stats.put("queueUsage", bufferCapacity > 0 ? Math.round(queueSize * 10000.0 / bufferCapacity) / 100.0 : 0.0);
+        stats.put("queueHighWatermark", queueHighWatermark.get());
+        stats.put("enqueuedCount", enqueuedCount.get());
+        stats.put("persistedCount", persistedCount.get());
+        stats.put("batchCount", batchCount.get());
+        stats.put("overflowCount", overflowCount.get());
+        stats.put("failedCount", failedCount.get());
+        stats.put("requeuedCount", requeuedCount.get());
+        stats.put("pendingCounterLinks", pendingClickCounts.size());
+        stats.put("lastFlushTime", lastFlushTime);
+        stats.put("lastFlushDurationMs", lastFlushDurationMs);
+        return stats;
     }
     
     /**
@@ -353,6 +558,7 @@ public class LinkClickService {
      * @param beforeTime 时间点
      * @return 清理的数量
      */
+    @Transactional
     public int cleanupOldClickLogs(LocalDateTime beforeTime) {
         logger.info("清理过期点击日志 - 时间点: {}", beforeTime);
         
@@ -367,17 +573,132 @@ public class LinkClickService {
     }
     
     /**
-     * 异步更新链接的点击统计
+     * 验证链接是否存在（结果缓存5分钟）
      * 
      * @param linkId 链接ID
+     * @throws IllegalArgumentException 如果链接不存在
+     */
+    private void validateLinkExists(Long linkId) {
+        Boolean exists = linkExistsCache.get(linkId, id -> platformLinkMapper.selectById(id) != null);
+        if (!Boolean.TRUE.equals(exists)) {
+            throw new IllegalArgumentException("链接不存在，ID: " + linkId);
+        }
+    }
+    
+    /**
+     * 创建点击日志并从请求中提取信息
+     */
+    private LinkClickLog createClickLog(Long linkId, HttpServletRequest request) {
+        LinkClickLog clickLog = new LinkClickLog();
+        clickLog.setLinkId(linkId);
+        clickLog.setClickedAt(LocalDateTime.now());
+        
+        if (request != null) {
+            clickLog.setUserIp(getClientIpAddress(request));
+            clickLog.setUserAgent(request.getHeader("User-Agent"));
+            clickLog.setReferer(request.getHeader("Referer"));
+        }
+        return clickLog;
+    }
+    
+    /**
+     * 放入写后缓冲，缓冲已满或正在关闭时由当前线程同步写入
+     */
+    private void enqueueClickLog(LinkClickLog clickLog) {
+        if (!shuttingDown && clickBuffer.offer(clickLog)) {
+            enqueuedCount.incrementAndGet();
+            long size = clickBuffer.size();
+            if (size > queueHighWatermark.get()) {
+                queueHighWatermark.accumulateAndGet(size, Math::max);
+            }
+            return;
+        }
+        
+        overflowCount.incrementAndGet();
+        logger.warn("点击缓冲已满或正在关闭，同步写入 - 链接ID: {}", clickLog.getLinkId());
+        int result = batchRecordClicks(Collections.singletonList(clickLog));
+        if (result <= 0) {
+            throw new RuntimeException("记录点击事件失败");
+        }
+        persistedCount.incrementAndGet();
+        if (shuttingDown) {
+            flushLinkClickCounts();
+            rollupService.flushRollups();
+        }
+    }
+    
+    /**
+     * 补齐默认值后多行插入点击日志
+     */
+    private int insertClickLogs(List<LinkClickLog> clickLogs) {
+        LocalDateTime now = LocalDateTime.now();
+        clickLogs.forEach(log -> {
+            if (log.getClickedAt() == null) {
+                log.setClickedAt(now);
+            }
+            if (log.getIsConversion() == null) {
+                log.setIsConversion(false);
+            }
+        });
+        return clickLogMapper.batchInsert(clickLogs);
+    }
+    
+    /**
+     * 按链接累加点击量/转化量，并累加到点击汇总
      */
-    @Async
-    private void updateLinkClickStats(Long linkId) {
+    private void accumulateClickLogs(List<LinkClickLog> clickLogs) {
+        for (LinkClickLog log : clickLogs) {
+            pendingClickCounts.merge(log.getLinkId(), 1L, Long::sum);
+            if (Boolean.TRUE.equals(log.getIsConversion())) {
+                pendingConversionCounts.merge(log.getLinkId(), 1L, Long::sum);
+            }
+        }
+        rollupService.accumulate(clickLogs);
+    }
+    
+    /**
+     * 累加已写入的日志，失败时只记录错误，汇总可通过重建修复
+     */
+    private void accumulateWrittenClickLogs(List<LinkClickLog> clickLogs) {
         try {
-            clickLogMapper.updateLinkClickStats(linkId);
-            logger.debug("更新链接点击统计成功 - 链接ID: {}", linkId);
+            accumulateClickLogs(clickLogs);
         } catch (Exception e) {
-            logger.error("更新链接点击统计失败 - 链接ID: {}, 错误: {}", linkId, e.getMessage(), e);
+            logger.error("点击日志已写入，累加链接统计或点击汇总失败 - 数量: {}", clickLogs.size(), e);
+        }
+    }
+    
+    /**
+     * 将内存中累加的点击量/转化量增量写入链接表，写入失败的增量放回等待下次写入
+     */
+    private void flushLinkClickCounts() {
+        Map<Long, long[]> deltas = new HashMap<>();
+        for (Long linkId : new ArrayList<>(pendingClickCounts.keySet())) {
+            Long clicks = pendingClickCounts.remove(linkId);
+            if (clicks != null) {
+                deltas.computeIfAbsent(linkId, k -> new long[2])[0] = clicks;
+            }
+        }
+        for (Long linkId : new ArrayList<>(pendingConversionCounts.keySet())) {
+            Long conversions = pendingConversionCounts.remove(linkId);
+            if (conversions != null) {
+                deltas.computeIfAbsent(linkId, k -> new long[2])[1] = conversions;
+            }
+        }
+        
+        for (Map.Entry<Long, long[]> entry : deltas.entrySet()) {
+            Long linkId = entry.getKey();
+            long[] delta = entry.getValue();
+            try {
+                clickLogMapper.incrementLinkClickStats(linkId, delta[0], delta[1]);
+            } catch (Exception e) {
+                logger.error("更新链接点击统计失败 - 链接ID: {}, 错误: {}", linkId, e.getMessage(), e);
+                if (delta[0] > 0) {
+                    pendingClickCounts.merge(linkId, delta[0], Long::sum);
+                }
+                if (delta[1] > 0) {
+                    pendingConversionCounts.merge(linkId, delta[1], Long::sum);
+                }
+            }
         }
     }
     
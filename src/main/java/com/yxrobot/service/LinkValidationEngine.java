@@ -0,0 +1,295 @@
+package com.yxrobot.service;
+
+import com.yxrobot.config.PerformanceConfig;
+import com.yxrobot.dto.LinkValidationResultDTO;
+import com.yxrobot.entity.PlatformLink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 链接验证引擎
+ * 基于 java.net.http.HttpClient 的异步请求并发验证大量链接，不占用线程等待网络
+ *
+ * 同一主机复用连接（HTTP/1.1 keep-alive），并按主机限制并发数，避免对单个平台造成压力；
+ * 全局在途请求数也有上限。读取超时按主机历史响应时间自适应（平滑均值 + 4倍平均偏差，
+ * 限制在 minReadTimeoutMs ~ readTimeoutMs 之间），响应快的主机不会因个别挂起的请求拖慢整批验证。
+ * HEAD 请求返回 405/501 时改用 GET 重试一次。
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-18
+ */
+@Component
+public class LinkValidationEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(LinkValidationEngine.class);
+
+    private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36";
+
+    private final HttpClient httpClient;
+    private final int maxConcurrentPerHost;
+    private final long minTimeoutMs;
+    private final long maxTimeoutMs;
+
+    private final AsyncPermits globalPermits;
+    private final Map<String, HostState> hosts = new ConcurrentHashMap<>();
+
+    @Autowired
+    public LinkValidationEngine(PerformanceConfig performanceConfig) {
+        PerformanceConfig.Validation config = performanceConfig.getValidation();
+        this.maxConcurrentPerHost = Math.max(1, config.getMaxConcurrentPerHost());
+        this.maxTimeoutMs = Math.max(1, config.getReadTimeoutMs());
+        this.minTimeoutMs = Math.min(Math.max(1, config.getMinReadTimeoutMs()), maxTimeoutMs);
+        this.globalPermits = new AsyncPermits(Math.max(1, config.getMaxConcurrentValidations()));
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofMillis(config.getConnectionTimeoutMs()))
+                .build();
+    }
+
+    /**
+     * 异步验证单个链接，不会以异常结束
+     *
+     * @param link 平台链接
+     * @return 验证结果
+     */
+    public CompletableFuture<LinkValidationResultDTO> validate(PlatformLink link) {
+        URI uri;
+        try {
+            uri = URI.create(link.getLinkUrl().trim());
+            if (uri.getHost() == null || uri.getScheme() == null
+                    || !uri.getScheme().toLowerCase(Locale.ROOT).startsWith("http")) {
+                throw new IllegalArgumentException("不支持的链接地址: " + link.getLinkUrl());
+            }
+        } catch (Exception e) {
+            LinkValidationResultDTO result = newResult(link);
+            result.setIsValid(false);
+            result.setResponseTime(0);
+            result.setErrorMessage("验证异常: " + e.getMessage());
+            return CompletableFuture.completedFuture(result);
+        }
+
+        HostState host = hosts.computeIfAbsent(uri.getHost().toLowerCase(Locale.ROOT),
+                key -> new HostState(maxConcurrentPerHost, maxTimeoutMs));
+        return host.permits.acquire()
+                .thenCompose(ignored -> globalPermits.acquire())
+                .thenCompose(ignored -> send(link, uri, host))
+                .whenComplete((result, error) -> {
+                    globalPermits.release();
+                    host.permits.release();
+                });
+    }
+
+    /**
+     * 并发验证一批链接，等待全部完成
+     *
+     * @param links 平台链接列表
+     * @return 验证结果，顺序与输入一致
+     */
+    public List<LinkValidationResultDTO> validateAll(List<PlatformLink> links) {
+        List<CompletableFuture<LinkValidationResultDTO>> futures = new ArrayList<>(links.size());
+        for (PlatformLink link : links) {
+            futures.add(validate(link));
+        }
+        List<LinkValidationResultDTO> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<LinkValidationResultDTO> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    /**
+     * 各主机的当前自适应超时与在途请求数
+     *
+     * @return 主机 -> 指标
+     */
+    public Map<String, Map<String, Object>> getHostStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        hosts.forEach((name, host) -> {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("timeoutMs", host.timeoutMs(minTimeoutMs, maxTimeoutMs));
+            item.put("smoothedResponseMs", Math.round(host.smoothedMs));
+            item.put("inFlight", host.permits.inUse());
+            item.put("waiting", host.permits.waiting());
+            stats.put(name, item);
+        });
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        httpClient.shutdownNow();
+    }
+
+    private CompletableFuture<LinkValidationResultDTO> send(PlatformLink link, URI uri, HostState host) {
+        LinkValidationResultDTO result = newResult(link);
+        long startNanos = System.nanoTime();
+        Duration timeout = Duration.ofMillis(host.timeoutMs(minTimeoutMs, maxTimeoutMs));
+
+        CompletableFuture<HttpResponse<Void>> request;
+        try {
+            request = httpClient.sendAsync(buildRequest(uri, "HEAD", timeout), HttpResponse.BodyHandlers.discarding());
+        } catch (RuntimeException e) {
+            request = CompletableFuture.failedFuture(e);
+        }
+        return request
+                .thenCompose(response -> {
+                    int status = response.statusCode();
+                    if (status == 405 || status == 501) {
+                        return httpClient.sendAsync(buildRequest(uri, "GET", timeout), HttpResponse.BodyHandlers.discarding());
+                    }
+                    return CompletableFuture.completedFuture(response);
+                })
+                .handle((response, error) -> {
+                    long elapsedMs = (System.nanoTime() - startNanos) / 1_000_000;
+                    result.setResponseTime((int) elapsedMs);
+                    if (error == null) {
+                        int status = response.statusCode();
+                        boolean isValid = status >= 200 && status < 400;
+                        result.setStatusCode(status);
+                        result.setIsValid(isValid);
+                        if (!isValid) {
+                            result.setErrorMessage("HTTP状态码: " + status);
+                        }
+                        host.observe(elapsedMs);
+                        logger.debug("链接验证详情 - URL: {}, 状态码: {}, 响应时间: {}ms, 有效: {}",
+                                    link.getLinkUrl(), status, elapsedMs, isValid);
+                    } else {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                        String message = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+                        result.setIsValid(false);
+                        if (cause instanceof HttpTimeoutException) {
+                            result.setErrorMessage("连接超时: " + message);
+                            // 超时按超时时长计入，逐步放宽该主机的超时
+                            host.observe(timeout.toMillis());
+                        } else if (cause instanceof IOException) {
+                            result.setErrorMessage("网络错误: " + message);
+                        } else {
+                            result.setErrorMessage("验证异常: " + message);
+                        }
+                        logger.warn("链接验证失败 - URL: {}, 错误: {}", link.getLinkUrl(), result.getErrorMessage());
+                    }
+                    return result;
+                });
+    }
+
+    private HttpRequest buildRequest(URI uri, String method, Duration timeout) {
+        return HttpRequest.newBuilder(uri)
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .timeout(timeout)
+                .header("User-Agent", USER_AGENT)
+                .header("Accept", "*/*")
+                .build();
+    }
+
+    private static LinkValidationResultDTO newResult(PlatformLink link) {
+        LinkValidationResultDTO result = new LinkValidationResultDTO();
+        result.setId(link.getId());
+        result.setCheckedAt(LocalDateTime.now());
+        return result;
+    }
+
+    /**
+     * 单个主机的并发许可与响应时间统计
+     */
+    static final class HostState {
+        final AsyncPermits permits;
+        double smoothedMs;
+        double deviationMs;
+        private boolean observed;
+        private final long initialTimeoutMs;
+
+        HostState(int maxConcurrent, long initialTimeoutMs) {
+            this.permits = new AsyncPermits(maxConcurrent);
+            this.initialTimeoutMs = initialTimeoutMs;
+        }
+
+        synchronized void observe(long elapsedMs) {
+            if (!observed) {
+                smoothedMs = elapsedMs;
+                deviationMs = elapsedMs / 2.0;
+                observed = true;
+                return;
+            }
+            // 与 TCP 重传超时相同的平滑系数（1/8、1/4）
+            deviationMs += (Math.abs(elapsedMs - smoothedMs) - deviationMs) / 4;
+            smoothedMs += (elapsedMs - smoothedMs) / 8;
+        }
+
+        synchronized long timeoutMs(long min, long max) {
+            if (!observed) {
+                return initialTimeoutMs;
+            }
+            long timeout = Math.round(smoothedMs + 4 * deviationMs);
+            return Math.max(min, Math.min(max, timeout));
+        }
+    }
+
+    /**
+     * 非阻塞的计数许可：许可不足时返回未完成的 future，释放时按先来先得交给等待者
+     */
+    static final class AsyncPermits {
+        private final int limit;
+        private int inUse;
+        private final Queue<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+
+        AsyncPermits(int limit) {
+            this.limit = limit;
+        }
+
+        CompletableFuture<Void> acquire() {
+            synchronized (this) {
+                if (inUse < limit) {
+                    inUse++;
+                    return CompletableFuture.completedFuture(null);
+                }
+                CompletableFuture<Void> waiter = new CompletableFuture<>();
+                waiters.add(waiter);
+                return waiter;
+            }
+        }
+
+        void release() {
+            CompletableFuture<Void> next;
+            synchronized (this) {
+                next = waiters.poll();
+                if (next == null) {
+                    inUse--;
+                    return;
+                }
+            }
+            // 许可直接转交，在锁外完成以免在锁内执行后续请求
+            next.complete(null);
+        }
+
+        synchronized int inUse() {
+            return inUse;
+        }
+
+        synchronized int waiting() {
+            return waiters.size();
+        }
+    }
+}
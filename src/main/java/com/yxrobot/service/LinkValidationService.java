@@ -1,5 +1,6 @@
 package com.yxrobot.service;
 
+import com.yxrobot.config.PerformanceConfig;
 import com.yxrobot.dto.LinkValidationResultDTO;
 import com.yxrobot.entity.LinkValidationLog;
 import com.yxrobot.entity.PlatformLink;
@@ -10,20 +11,25 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.IOException;
-import java.net.HttpURLConnection;
-import java.net.SocketTimeoutException;
-import java.net.URL;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * 链接验证服务类
  * 负责处理平台链接验证相关的业务逻辑
  * 
+ * HTTP请求由 {@link LinkValidationEngine} 异步并发执行，验证期间不开启事务；
+ * 验证日志和链接状态在整批验证完成后批量写入。
+ * 
  * @author YXRobot开发团队
  * @version 1.0
  * @since 2024-12-22
@@ -34,9 +40,8 @@ public class LinkValidationService {
     
     private static final Logger logger = LoggerFactory.getLogger(LinkValidationService.class);
     
-    private static final int CONNECTION_TIMEOUT = 10000; // 10秒连接超时
-    private static final int READ_TIMEOUT = 15000; // 15秒读取超时
-    private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36";
+    // 批量查询链接的每批数量
+    private static final int LINK_QUERY_BATCH_SIZE = 1000;
     
     @Autowired
     private PlatformLinkMapper platformLinkMapper;
@@ -44,6 +49,12 @@ public class LinkValidationService {
     @Autowired
     private LinkValidationLogMapper validationLogMapper;
     
+    @Autowired
+    private LinkValidationEngine validationEngine;
+    
+    @Autowired
+    private PerformanceConfig performanceConfig;
+    
     /**
      * 验证单个平台链接的有效性
      * 
@@ -51,6 +62,7 @@ public class LinkValidationService {
      * @return 验证结果DTO
      * @throws IllegalArgumentException 如果链接不存在
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public LinkValidationResultDTO validatePlatformLink(Long linkId) {
         logger.info("开始验证平台链接 - ID: {}", linkId);
         
@@ -65,13 +77,10 @@ public class LinkValidationService {
         }
         
         // 执行验证
-        LinkValidationResultDTO result = performValidation(link);
-        
-        // 记录验证日志
-        recordValidationLog(linkId, result);
+        LinkValidationResultDTO result = validationEngine.validate(link).join();
         
-        // 更新链接状态
-        updateLinkStatus(linkId, result);
+        // 记录验证日志并更新链接状态
+        saveValidationResults(java.util.Collections.singletonList(result));
         
         logger.info("平台链接验证完成 - ID: {}, 有效: {}, 状态码: {}, 响应时间: {}ms", 
                    linkId, result.getIsValid(), result.getStatusCode(), result.getResponseTime());
@@ -108,34 +117,45 @@ public class LinkValidationService {
     
     /**
      * 批量验证平台链接
+     * 链接批量查询后并发验证，结果批量写入
      * 
      * @param linkIds 链接ID列表
-     * @return 验证结果列表
+     * @return 验证结果列表，顺序与输入一致
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<LinkValidationResultDTO> batchValidatePlatformLinks(List<Long> linkIds) {
-        logger.info("开始批量验证平台链接 - 数量: {}", linkIds.size());
-        
         if (linkIds == null || linkIds.isEmpty()) {
             throw new IllegalArgumentException("链接ID列表不能为空");
         }
         
-        List<LinkValidationResultDTO> results = linkIds.parallelStream()
-                .map(linkId -> {
-                    try {
-                        return validatePlatformLink(linkId);
-                    } catch (Exception e) {
-                        logger.warn("验证链接失败 - ID: {}, 错误: {}", linkId, e.getMessage());
-                        
-                        LinkValidationResultDTO errorResult = new LinkValidationResultDTO();
-                        errorResult.setId(linkId);
-                        errorResult.setIsValid(false);
-                        errorResult.setErrorMessage("验证失败: " + e.getMessage());
-                        errorResult.setCheckedAt(LocalDateTime.now());
-                        
-                        return errorResult;
-                    }
-                })
-                .collect(java.util.stream.Collectors.toList());
+        logger.info("开始批量验证平台链接 - 数量: {}", linkIds.size());
+        
+        // 批量查询链接
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(linkIds));
+        List<PlatformLink> links = new ArrayList<>(distinctIds.size());
+        for (int i = 0; i < distinctIds.size(); i += LINK_QUERY_BATCH_SIZE) {
+            List<Long> chunk = distinctIds.subList(i, Math.min(i + LINK_QUERY_BATCH_SIZE, distinctIds.size()));
+            links.addAll(platformLinkMapper.selectByIds(chunk));
+        }
+        
+        // 并发验证
+        Map<Long, LinkValidationResultDTO> resultById = validateLinks(links).stream()
+                .collect(Collectors.toMap(LinkValidationResultDTO::getId, Function.identity(), (a, b) -> a));
+        
+        List<LinkValidationResultDTO> results = new ArrayList<>(linkIds.size());
+        for (Long linkId : linkIds) {
+            LinkValidationResultDTO result = resultById.get(linkId);
+            if (result == null) {
+                logger.warn("验证链接失败 - ID: {}, 错误: 链接不存在", linkId);
+                
+                result = new LinkValidationResultDTO();
+                result.setId(linkId);
+                result.setIsValid(false);
+                result.setErrorMessage("验证失败: 链接不存在，ID: " + linkId);
+                result.setCheckedAt(LocalDateTime.now());
+            }
+            results.add(result);
+        }
         
         logger.info("批量验证平台链接完成 - 总数: {}, 成功: {}", 
                    linkIds.size(), results.stream().mapToInt(r -> r.getIsValid() ? 1 : 0).sum());
@@ -149,6 +169,7 @@ public class LinkValidationService {
      * @param limit 限制数量
      * @return 验证结果列表
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<LinkValidationResultDTO> validateLinksForScheduledTask(Integer limit) {
         logger.info("开始定时验证链接 - 限制数量: {}", limit);
         
@@ -165,11 +186,7 @@ public class LinkValidationService {
         }
         
         // 批量验证
-        List<Long> linkIds = linksToCheck.stream()
-                .map(PlatformLink::getId)
-                .collect(java.util.stream.Collectors.toList());
-        
-        List<LinkValidationResultDTO> results = batchValidatePlatformLinks(linkIds);
+        List<LinkValidationResultDTO> results = validateLinks(linksToCheck);
         
         logger.info("定时验证链接完成 - 检查数量: {}, 成功数量: {}", 
                    linksToCheck.size(), results.stream().mapToInt(r -> r.getIsValid() ? 1 : 0).sum());
@@ -221,127 +238,85 @@ public class LinkValidationService {
     }
     
     /**
-     * 执行实际的链接验证
+     * 并发验证一批链接并批量写入结果
      * 
-     * @param link 平台链接实体
-     * @return 验证结果
+     * @param links 平台链接列表
+     * @return 验证结果，顺序与输入一致
      */
-    private LinkValidationResultDTO performValidation(PlatformLink link) {
-        LinkValidationResultDTO result = new LinkValidationResultDTO();
-        result.setId(link.getId());
-        result.setCheckedAt(LocalDateTime.now());
+    private List<LinkValidationResultDTO> validateLinks(List<PlatformLink> links) {
+        if (links.isEmpty()) {
+            return new ArrayList<>();
+        }
         
-        HttpURLConnection connection = null;
         long startTime = System.currentTimeMillis();
+        List<LinkValidationResultDTO> results = validationEngine.validateAll(links);
+        logger.debug("链接并发验证完成 - 数量: {}, 耗时: {}ms", links.size(), System.currentTimeMillis() - startTime);
         
-        try {
-            // 创建URL连接
-            URL url = new URL(link.getLinkUrl());
-            connection = (HttpURLConnection) url.openConnection();
-            
-            // 设置请求属性
-            connection.setRequestMethod("HEAD"); // 使用HEAD请求减少数据传输
-            connection.setConnectTimeout(CONNECTION_TIMEOUT);
-            connection.setReadTimeout(READ_TIMEOUT);
-            connection.setRequestProperty("User-Agent", USER_AGENT);
-            connection.setRequestProperty("Accept", "*/*");
-            connection.setInstanceFollowRedirects(true);
-            
-            // 执行请求
-            connection.connect();
-            
-            // 计算响应时间
-            long responseTime = System.currentTimeMillis() - startTime;
-            result.setResponseTime((int) responseTime);
-            
-            // 获取响应状态码
-            int statusCode = connection.getResponseCode();
-            result.setStatusCode(statusCode);
-            
-            // 判断是否有效
-            boolean isValid = statusCode >= 200 && statusCode < 400;
-            result.setIsValid(isValid);
-            
-            if (!isValid) {
-                result.setErrorMessage("HTTP状态码: " + statusCode + " - " + connection.getResponseMessage());
-            }
-            
-            logger.debug("链接验证详情 - URL: {}, 状态码: {}, 响应时间: {}ms, 有效: {}", 
-                        link.getLinkUrl(), statusCode, responseTime, isValid);
-            
-        } catch (SocketTimeoutException e) {
-            result.setIsValid(false);
-            result.setErrorMessage("连接超时: " + e.getMessage());
-            result.setResponseTime((int) (System.currentTimeMillis() - startTime));
-            logger.warn("链接验证超时 - URL: {}, 错误: {}", link.getLinkUrl(), e.getMessage());
-            
-        } catch (IOException e) {
-            result.setIsValid(false);
-            result.setErrorMessage("网络错误: " + e.getMessage());
-            result.setResponseTime((int) (System.currentTimeMillis() - startTime));
-            logger.warn("链接验证网络错误 - URL: {}, 错误: {}", link.getLinkUrl(), e.getMessage());
-            
-        } catch (Exception e) {
-            result.setIsValid(false);
-            result.setErrorMessage("验证异常: " + e.getMessage());
-            result.setResponseTime((int) (System.currentTimeMillis() - startTime));
-            logger.error("链接验证异常 - URL: {}, 错误: {}", link.getLinkUrl(), e.getMessage(), e);
-            
-        } finally {
-            if (connection != null) {
-                connection.disconnect();
-            }
-        }
-        
-        return result;
+        saveValidationResults(results);
+        return results;
     }
     
     /**
-     * 记录验证日志
+     * 批量记录验证日志并更新链接状态
      * 
-     * @param linkId 链接ID
-     * @param result 验证结果
+     * @param results 验证结果列表
      */
-    private void recordValidationLog(Long linkId, LinkValidationResultDTO result) {
-        try {
-            LinkValidationLog log = new LinkValidationLog();
-            log.setLinkId(linkId);
-            log.setIsValid(result.getIsValid());
-            log.setStatusCode(result.getStatusCode());
-            log.setResponseTime(result.getResponseTime());
-            log.setErrorMessage(result.getErrorMessage());
-            log.setCheckedAt(result.getCheckedAt());
-            
-            validationLogMapper.insert(log);
+    private void saveValidationResults(List<LinkValidationResultDTO> results) {
+        int batchSize = Math.max(1, performanceConfig.getValidation().getMaxBatchSize());
+        
+        for (int i = 0; i < results.size(); i += batchSize) {
+            List<LinkValidationResultDTO> chunk = results.subList(i, Math.min(i + batchSize, results.size()));
             
-            logger.debug("验证日志记录成功 - 链接ID: {}", linkId);
+            // 记录验证日志
+            try {
+                List<LinkValidationLog> logs = chunk.stream()
+                        .map(this::toValidationLog)
+                        .collect(Collectors.toList());
+                validationLogMapper.batchInsert(logs);
+            } catch (Exception e) {
+                logger.error("批量记录验证日志失败 - 数量: {}, 错误: {}", chunk.size(), e.getMessage(), e);
+            }
             
-        } catch (Exception e) {
-            logger.error("记录验证日志失败 - 链接ID: {}, 错误: {}", linkId, e.getMessage(), e);
+            // 更新链接状态
+            Map<Boolean, List<Long>> idsByValidity = chunk.stream()
+                    .collect(Collectors.partitioningBy(r -> Boolean.TRUE.equals(r.getIsValid()),
+                            Collectors.mapping(LinkValidationResultDTO::getId, Collectors.toList())));
+            updateLinkStatus(idsByValidity.get(true), PlatformLink.LinkStatus.ACTIVE.getCode());
+            updateLinkStatus(idsByValidity.get(false), PlatformLink.LinkStatus.INACTIVE.getCode());
         }
     }
     
     /**
-     * 更新链接状态
+     * 将验证结果转换为验证日志
+     */
+    private LinkValidationLog toValidationLog(LinkValidationResultDTO result) {
+        LinkValidationLog log = new LinkValidationLog();
+        log.setLinkId(result.getId());
+        log.setIsValid(result.getIsValid());
+        log.setStatusCode(result.getStatusCode());
+        log.setResponseTime(result.getResponseTime());
+        log.setErrorMessage(result.getErrorMessage());
+        log.setCheckedAt(result.getCheckedAt());
+        return log;
+    }
+    
+    /**
+     * 批量更新链接状态
      * 
-     * @param linkId 链接ID
-     * @param result 验证结果
+     * @param linkIds 链接ID列表
+     * @param linkStatus 链接状态
      */
-    private void updateLinkStatus(Long linkId, LinkValidationResultDTO result) {
+    private void updateLinkStatus(List<Long> linkIds, String linkStatus) {
+        if (linkIds == null || linkIds.isEmpty()) {
+            return;
+        }
         try {
-            String linkStatus;
-            if (result.getIsValid()) {
-                linkStatus = PlatformLink.LinkStatus.ACTIVE.getCode();
-            } else {
-                linkStatus = PlatformLink.LinkStatus.INACTIVE.getCode();
-            }
-            
-            platformLinkMapper.updateLinkStatus(linkId, linkStatus);
+            platformLinkMapper.batchUpdateLinkStatus(linkIds, linkStatus);
             
-            logger.debug("链接状态更新成功 - 链接ID: {}, 状态: {}", linkId, linkStatus);
+            logger.debug("链接状态更新成功 - 数量: {}, 状态: {}", linkIds.size(), linkStatus);
             
         } catch (Exception e) {
-            logger.error("更新链接状态失败 - 链接ID: {}, 错误: {}", linkId, e.getMessage(), e);
+            logger.error("更新链接状态失败 - 数量: {}, 状态: {}, 错误: {}", linkIds.size(), linkStatus, e.getMessage(), e);
         }
     }
 }
\ No newline at end of file
@@ -2,19 +2,26 @@ package com.yxrobot.service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * 设备管理API监控服务
  * 提供API响应时间监控、性能分析和告警功能
  * 
+ * 每个API只保留固定容量的原始调用环形缓冲（用于最近调用的健康检查和百分位），
+ * 以及24小时的分钟级预聚合桶（用于时间范围报告、趋势和分布统计），
+ * 记录过程无锁，报告按分钟桶汇总而不扫描原始样本。
+ * 
  * @author YXRobot开发团队
  * @version 1.0.0
  * @since 2025-01-28
@@ -24,11 +31,8 @@ public class ManagedDeviceApiMonitoringService {
     
     private static final Logger logger = LoggerFactory.getLogger(ManagedDeviceApiMonitoringService.class);
     
-    @Autowired
-    private ManagedDevicePerformanceOptimizationService performanceService;
-    
     // 监控数据存储
-    private final Map<String, List<ApiMetric>> apiMetrics = new ConcurrentHashMap<>();
+    private final Map<String, ApiMetricStore> apiMetrics = new ConcurrentHashMap<>();
     private final Map<String, AtomicLong> apiCallCounts = new ConcurrentHashMap<>();
     private final Map<String, AtomicLong> apiErrorCounts = new ConcurrentHashMap<>();
     
@@ -41,6 +45,15 @@ public class ManagedDeviceApiMonitoringService {
     // 监控配置
     private static final int MAX_METRICS_PER_API = 1000;
     private static final int ALERT_THRESHOLD_COUNT = 5; // 连续5次超阈值触发告警
+    private static final int RETENTION_MINUTES = 24 * 60; // 分钟桶保留24小时
+    
+    // 响应时间分布的桶上界（毫秒），包含各性能等级阈值，最后一个桶不设上限
+    private static final long[] LATENCY_BOUNDS = {
+        10, 20, 50, 100, EXCELLENT_THRESHOLD, 300, GOOD_THRESHOLD, 750, ACCEPTABLE_THRESHOLD,
+        1500, POOR_THRESHOLD, 3000, 5000, 10000, 30000
+    };
+    private static final int LATENCY_BUCKET_COUNT = LATENCY_BOUNDS.length + 1;
+    private static final String[] STATUS_RANGES = {"2xx", "3xx", "4xx", "5xx"};
     
     /**
      * API指标数据类
@@ -54,7 +67,7 @@ public class ManagedDeviceApiMonitoringService {
         private final String clientIp;
         private final String userAgent;
         
-        public ApiMetric(String apiPath, String method, long responseTime, int statusCode, 
+        public ApiMetric(String apiPath, String method, long responseTime, int statusCode,
                         String clientIp, String userAgent) {
             this.apiPath = apiPath;
             this.method = method;
@@ -85,7 +98,7 @@ public class ManagedDeviceApiMonitoringService {
      * @param clientIp 客户端IP
      * @param userAgent 用户代理
      */
-    public void recordApiMetric(String apiPath, String method, long responseTime, 
+    public void recordApiMetric(String apiPath, String method, long responseTime,
                                int statusCode, String clientIp, String userAgent) {
         
         String apiKey = method + " " + apiPath;
@@ -93,15 +106,8 @@ public class ManagedDeviceApiMonitoringService {
         // 创建指标记录
         ApiMetric metric = new ApiMetric(apiPath, method, responseTime, statusCode, clientIp, userAgent);
         
-        // 存储指标
-        apiMetrics.computeIfAbsent(apiKey, k -> Collections.synchronizedList(new ArrayList<>()))
-                  .add(metric);
-        
-        // 限制存储数量
-        List<ApiMetric> metrics = apiMetrics.get(apiKey);
-        if (metrics.size() > MAX_METRICS_PER_API) {
-            metrics.remove(0);
-        }
+        // 存储指标（原始样本环形覆盖，分钟桶预聚合）
+        apiMetrics.computeIfAbsent(apiKey, k -> new ApiMetricStore()).record(metric, currentMinute());
         
         // 更新计数器
         apiCallCounts.computeIfAbsent(apiKey, k -> new AtomicLong(0)).incrementAndGet();
@@ -110,9 +116,6 @@ public class ManagedDeviceApiMonitoringService {
             apiErrorCounts.computeIfAbsent(apiKey, k -> new AtomicLong(0)).incrementAndGet();
         }
         
-        // 记录到性能优化服务
-        performanceService.recordQueryExecution(apiKey, responseTime);
-        
         // 性能告警检查
         checkPerformanceAlert(apiKey, responseTime, statusCode);
         
@@ -129,20 +132,24 @@ public class ManagedDeviceApiMonitoringService {
         
         Map<String, Object> statistics = new HashMap<>();
         
+        // 最近24小时各API的分钟桶汇总，各项统计共用
+        long now = currentMinute();
+        Map<String, AggregatedMetrics> retained = aggregateByApi(now - RETENTION_MINUTES + 1, now);
+        
         // 总体统计
-        statistics.put("overallStats", getOverallStatistics());
+        statistics.put("overallStats", getOverallStatistics(retained));
         
         // 各API详细统计
         statistics.put("apiDetailStats", getApiDetailStatistics());
         
         // 性能分析
-        statistics.put("performanceAnalysis", getPerformanceAnalysis());
+        statistics.put("performanceAnalysis", getPerformanceAnalysis(retained));
         
         // 错误分析
-        statistics.put("errorAnalysis", getErrorAnalysis());
+        statistics.put("errorAnalysis", getErrorAnalysis(retained));
         
         // 趋势分析
-        statistics.put("trendAnalysis", getTrendAnalysis());
+        statistics.put("trendAnalysis", getTrendAnalysis(now));
         
         return statistics;
     }
@@ -166,13 +173,14 @@ public class ManagedDeviceApiMonitoringService {
         realTimeData.put("activeApis", getActiveApis());
         
         // 性能状态
-        realTimeData.put("performanceStatus", getPerformanceStatus());
+        realTimeData.put("performanceStatus", getPerformanceStatus(recentStats));
         
         return realTimeData;
     }
     
     /**
      * 获取API性能报告
+     * 统计粒度为分钟，开始和结束时间所在的分钟均计入
      * 
      * @param startTime 开始时间
      * @param endTime 结束时间
@@ -189,8 +197,8 @@ public class ManagedDeviceApiMonitoringService {
             "endTime", endTime.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))
         ));
         
-        // 筛选时间范围内的数据
-        Map<String, List<ApiMetric>> filteredMetrics = filterMetricsByTimeRange(startTime, endTime);
+        // 汇总时间范围内的分钟桶
+        Map<String, AggregatedMetrics> filteredMetrics = aggregateByApi(toEpochMinute(startTime), toEpochMinute(endTime));
         
         // 生成报告内容
         report.put("summary", generateReportSummary(filteredMetrics));
@@ -211,21 +219,18 @@ public class ManagedDeviceApiMonitoringService {
         Map<String, Object> healthCheck = new HashMap<>();
         List<Map<String, Object>> apiHealthList = new ArrayList<>();
         
-        for (Map.Entry<String, List<ApiMetric>> entry : apiMetrics.entrySet()) {
+        for (Map.Entry<String, ApiMetricStore> entry : apiMetrics.entrySet()) {
             String apiKey = entry.getKey();
-            List<ApiMetric> metrics = entry.getValue();
             
-            if (metrics.isEmpty()) {
+            // 最近10次调用
+            List<ApiMetric> recentMetrics = entry.getValue().recent(10);
+            if (recentMetrics.isEmpty()) {
                 continue;
             }
             
             Map<String, Object> apiHealth = new HashMap<>();
             apiHealth.put("api", apiKey);
             
-            // 最近10次调用的平均响应时间
-            List<ApiMetric> recentMetrics = metrics.subList(
-                Math.max(0, metrics.size() - 10), metrics.size());
-            
             double avgResponseTime = recentMetrics.stream()
                     .mapToLong(ApiMetric::getResponseTime)
                     .average()
@@ -265,25 +270,24 @@ public class ManagedDeviceApiMonitoringService {
     
     /**
      * 清理过期的监控数据
+     * 分钟桶和原始样本均为定长环形结构，会被新数据自然覆盖；这里移除24小时内无调用的API
      */
     public void cleanupExpiredMetrics() {
         logger.info("开始清理过期的监控数据");
         
-        LocalDateTime cutoffTime = LocalDateTime.now().minusHours(24); // 保留24小时数据
+        long cutoffMinute = currentMinute() - RETENTION_MINUTES; // 保留24小时数据
         int cleanedCount = 0;
         
-        for (List<ApiMetric> metrics : apiMetrics.values()) {
-            Iterator<ApiMetric> iterator = metrics.iterator();
-            while (iterator.hasNext()) {
-                ApiMetric metric = iterator.next();
-                if (metric.getTimestamp().isBefore(cutoffTime)) {
-                    iterator.remove();
-                    cleanedCount++;
-                }
+        Iterator<Map.Entry<String, ApiMetricStore>> iterator = apiMetrics.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, ApiMetricStore> entry = iterator.next();
+            if (entry.getValue().getLastMinute() <= cutoffMinute) {
+                iterator.remove();
+                cleanedCount++;
             }
         }
         
-        logger.info("清理过期监控数据完成，清理了{}条记录", cleanedCount);
+        logger.info("清理过期监控数据完成，清理了{}个无调用的API", cleanedCount);
     }
     
     // 私有方法
@@ -304,7 +308,7 @@ public class ManagedDeviceApiMonitoringService {
         }
     }
     
-    private Map<String, Object> getOverallStatistics() {
+    private Map<String, Object> getOverallStatistics(Map<String, AggregatedMetrics> retained) {
         Map<String, Object> overallStats = new HashMap<>();
         
         long totalCalls = apiCallCounts.values().stream().mapToLong(AtomicLong::get).sum();
@@ -315,14 +319,9 @@ public class ManagedDeviceApiMonitoringService {
         overallStats.put("errorRate", totalCalls > 0 ? (double) totalErrors / totalCalls * 100 : 0);
         overallStats.put("successRate", totalCalls > 0 ? (double) (totalCalls - totalErrors) / totalCalls * 100 : 100);
         
-        // 计算总体平均响应时间
-        double overallAvgResponseTime = apiMetrics.values().stream()
-                .flatMap(List::stream)
-                .mapToLong(ApiMetric::getResponseTime)
-                .average()
-                .orElse(0);
-        
-        overallStats.put("averageResponseTime", Math.round(overallAvgResponseTime));
+        // 计算总体平均响应时间（最近24小时）
+        AggregatedMetrics overall = merge(retained.values());
+        overallStats.put("averageResponseTime", Math.round(overall.getAverageResponseTime()));
         
         return overallStats;
     }
@@ -330,11 +329,16 @@ public class ManagedDeviceApiMonitoringService {
     private Map<String, Object> getApiDetailStatistics() {
         Map<String, Object> apiDetailStats = new HashMap<>();
         
-        for (Map.Entry<String, List<ApiMetric>> entry : apiMetrics.entrySet()) {
+        for (Map.Entry<String, ApiMetricStore> entry : apiMetrics.entrySet()) {
             String apiKey = entry.getKey();
-            List<ApiMetric> metrics = entry.getValue();
             
-            if (metrics.isEmpty()) {
+            // 响应时间统计（最近 MAX_METRICS_PER_API 次调用）
+            List<Long> responseTimes = entry.getValue().recent(MAX_METRICS_PER_API).stream()
+                    .map(ApiMetric::getResponseTime)
+                    .sorted()
+                    .toList();
+            
+            if (responseTimes.isEmpty()) {
                 continue;
             }
             
@@ -344,20 +348,12 @@ public class ManagedDeviceApiMonitoringService {
             apiStats.put("callCount", apiCallCounts.getOrDefault(apiKey, new AtomicLong(0)).get());
             apiStats.put("errorCount", apiErrorCounts.getOrDefault(apiKey, new AtomicLong(0)).get());
             
-            // 响应时间统计
-            List<Long> responseTimes = metrics.stream()
-                    .map(ApiMetric::getResponseTime)
-                    .sorted()
-                    .toList();
-            
-            if (!responseTimes.isEmpty()) {
-                apiStats.put("averageResponseTime", responseTimes.stream().mapToLong(Long::longValue).average().orElse(0));
-                apiStats.put("minResponseTime", responseTimes.get(0));
-                apiStats.put("maxResponseTime", responseTimes.get(responseTimes.size() - 1));
-                apiStats.put("p50ResponseTime", getPercentile(responseTimes, 50));
-                apiStats.put("p95ResponseTime", getPercentile(responseTimes, 95));
-                apiStats.put("p99ResponseTime", getPercentile(responseTimes, 99));
-            }
+            apiStats.put("averageResponseTime", responseTimes.stream().mapToLong(Long::longValue).average().orElse(0));
+            apiStats.put("minResponseTime", responseTimes.get(0));
+            apiStats.put("maxResponseTime", responseTimes.get(responseTimes.size() - 1));
+            apiStats.put("p50ResponseTime", getPercentile(responseTimes, 50));
+            apiStats.put("p95ResponseTime", getPercentile(responseTimes, 95));
+            apiStats.put("p99ResponseTime", getPercentile(responseTimes, 99));
             
             apiDetailStats.put(apiKey, apiStats);
         }
@@ -365,47 +361,31 @@ public class ManagedDeviceApiMonitoringService {
         return apiDetailStats;
     }
     
-    private Map<String, Object> getPerformanceAnalysis() {
+    private Map<String, Object> getPerformanceAnalysis(Map<String, AggregatedMetrics> retained) {
         Map<String, Object> performanceAnalysis = new HashMap<>();
         
-        // 性能等级分布
-        Map<String, Integer> performanceGrades = new HashMap<>();
-        performanceGrades.put("excellent", 0);
-        performanceGrades.put("good", 0);
-        performanceGrades.put("acceptable", 0);
-        performanceGrades.put("poor", 0);
-        
-        for (List<ApiMetric> metrics : apiMetrics.values()) {
-            for (ApiMetric metric : metrics) {
-                long responseTime = metric.getResponseTime();
-                if (responseTime <= EXCELLENT_THRESHOLD) {
-                    performanceGrades.put("excellent", performanceGrades.get("excellent") + 1);
-                } else if (responseTime <= GOOD_THRESHOLD) {
-                    performanceGrades.put("good", performanceGrades.get("good") + 1);
-                } else if (responseTime <= ACCEPTABLE_THRESHOLD) {
-                    performanceGrades.put("acceptable", performanceGrades.get("acceptable") + 1);
-                } else {
-                    performanceGrades.put("poor", performanceGrades.get("poor") + 1);
-                }
-            }
-        }
+        // 性能等级分布（分布桶边界与等级阈值对齐）
+        AggregatedMetrics overall = merge(retained.values());
+        Map<String, Long> performanceGrades = new HashMap<>();
+        performanceGrades.put("excellent", overall.countAtMost(EXCELLENT_THRESHOLD));
+        performanceGrades.put("good", overall.countAtMost(GOOD_THRESHOLD) - overall.countAtMost(EXCELLENT_THRESHOLD));
+        performanceGrades.put("acceptable", overall.countAtMost(ACCEPTABLE_THRESHOLD) - overall.countAtMost(GOOD_THRESHOLD));
+        performanceGrades.put("poor", overall.callCount - overall.countAtMost(ACCEPTABLE_THRESHOLD));
         
         performanceAnalysis.put("performanceGrades", performanceGrades);
         
         return performanceAnalysis;
     }
     
-    private Map<String, Object> getErrorAnalysis() {
+    private Map<String, Object> getErrorAnalysis(Map<String, AggregatedMetrics> retained) {
         Map<String, Object> errorAnalysis = new HashMap<>();
         
         // 错误状态码分布
-        Map<String, Integer> statusCodeDistribution = new HashMap<>();
-        
-        for (List<ApiMetric> metrics : apiMetrics.values()) {
-            for (ApiMetric metric : metrics) {
-                String statusCodeRange = getStatusCodeRange(metric.getStatusCode());
-                statusCodeDistribution.put(statusCodeRange, 
-                    statusCodeDistribution.getOrDefault(statusCodeRange, 0) + 1);
+        AggregatedMetrics overall = merge(retained.values());
+        Map<String, Long> statusCodeDistribution = new HashMap<>();
+        for (int i = 0; i < STATUS_RANGES.length; i++) {
+            if (overall.statusCounts[i] > 0) {
+                statusCodeDistribution.put(STATUS_RANGES[i], overall.statusCounts[i]);
             }
         }
         
@@ -414,38 +394,21 @@ public class ManagedDeviceApiMonitoringService {
         return errorAnalysis;
     }
     
-    private Map<String, Object> getTrendAnalysis() {
+    private Map<String, Object> getTrendAnalysis(long nowMinute) {
         Map<String, Object> trendAnalysis = new HashMap<>();
         
         // 最近24小时的趋势（按小时分组）
-        Map<String, List<Long>> hourlyResponseTimes = new HashMap<>();
+        Map<String, Double> hourlyAverages = new HashMap<>();
+        DateTimeFormatter hourFormatter = DateTimeFormatter.ofPattern("HH:00");
         
         LocalDateTime now = LocalDateTime.now();
         for (int i = 23; i >= 0; i--) {
-            LocalDateTime hour = now.minusHours(i);
-            String hourKey = hour.format(DateTimeFormatter.ofPattern("HH:00"));
-            hourlyResponseTimes.put(hourKey, new ArrayList<>());
-        }
-        
-        // 收集数据
-        for (List<ApiMetric> metrics : apiMetrics.values()) {
-            for (ApiMetric metric : metrics) {
-                if (metric.getTimestamp().isAfter(now.minusHours(24))) {
-                    String hourKey = metric.getTimestamp().format(DateTimeFormatter.ofPattern("HH:00"));
-                    List<Long> times = hourlyResponseTimes.get(hourKey);
-                    if (times != null) {
-                        times.add(metric.getResponseTime());
-                    }
-                }
-            }
-        }
-        
-        // 计算每小时平均响应时间
-        Map<String, Double> hourlyAverages = new HashMap<>();
-        for (Map.Entry<String, List<Long>> entry : hourlyResponseTimes.entrySet()) {
-            List<Long> times = entry.getValue();
-            double average = times.isEmpty() ? 0 : times.stream().mapToLong(Long::longValue).average().orElse(0);
-            hourlyAverages.put(entry.getKey(), average);
+            LocalDateTime hour = now.minusHours(i).withMinute(0).withSecond(0).withNano(0);
+            long hourStart = Math.max(toEpochMinute(hour), nowMinute - RETENTION_MINUTES + 1);
+            long hourEnd = Math.min(hourStart + 59, nowMinute);
+            
+            AggregatedMetrics hourly = merge(aggregateByApi(hourStart, hourEnd).values());
+            hourlyAverages.put(hour.format(hourFormatter), hourly.getAverageResponseTime());
         }
         
         trendAnalysis.put("hourlyAverageResponseTime", hourlyAverages);
@@ -454,52 +417,33 @@ public class ManagedDeviceApiMonitoringService {
     }
     
     private Map<String, Object> getRecentStatistics(int minutes) {
-        LocalDateTime cutoffTime = LocalDateTime.now().minusMinutes(minutes);
-        
-        List<ApiMetric> recentMetrics = apiMetrics.values().stream()
-                .flatMap(List::stream)
-                .filter(metric -> metric.getTimestamp().isAfter(cutoffTime))
-                .toList();
+        long now = currentMinute();
+        AggregatedMetrics recent = merge(aggregateByApi(now - minutes + 1, now).values());
         
         Map<String, Object> recentStats = new HashMap<>();
-        recentStats.put("totalCalls", recentMetrics.size());
+        recentStats.put("totalCalls", recent.callCount);
         
-        if (!recentMetrics.isEmpty()) {
-            double avgResponseTime = recentMetrics.stream()
-                    .mapToLong(ApiMetric::getResponseTime)
-                    .average()
-                    .orElse(0);
-            
-            long errorCount = recentMetrics.stream()
-                    .mapToInt(ApiMetric::getStatusCode)
-                    .filter(code -> code >= 400)
-                    .count();
-            
-            recentStats.put("averageResponseTime", Math.round(avgResponseTime));
-            recentStats.put("errorCount", errorCount);
-            recentStats.put("errorRate", (double) errorCount / recentMetrics.size() * 100);
+        if (recent.callCount > 0) {
+            recentStats.put("averageResponseTime", Math.round(recent.getAverageResponseTime()));
+            recentStats.put("errorCount", recent.errorCount);
+            recentStats.put("errorRate", recent.getErrorRate());
         }
         
         return recentStats;
     }
     
     private List<String> getActiveApis() {
-        LocalDateTime cutoffTime = LocalDateTime.now().minusMinutes(5);
+        long now = currentMinute();
         
-        return apiMetrics.entrySet().stream()
-                .filter(entry -> entry.getValue().stream()
-                        .anyMatch(metric -> metric.getTimestamp().isAfter(cutoffTime)))
-                .map(Map.Entry::getKey)
+        return aggregateByApi(now - 4, now).keySet().stream()
                 .sorted()
                 .toList();
     }
     
-    private String getPerformanceStatus() {
-        Map<String, Object> recentStats = getRecentStatistics(5);
-        
+    private String getPerformanceStatus(Map<String, Object> recentStats) {
         if (recentStats.containsKey("averageResponseTime")) {
-            long avgTime = Math.round((Double) recentStats.get("averageResponseTime"));
-            double errorRate = (Double) recentStats.getOrDefault("errorRate", 0.0);
+            long avgTime = ((Number) recentStats.get("averageResponseTime")).longValue();
+            double errorRate = ((Number) recentStats.getOrDefault("errorRate", 0.0)).doubleValue();
             
             if (avgTime <= EXCELLENT_THRESHOLD && errorRate < 1.0) {
                 return "优秀";
@@ -524,82 +468,82 @@ public class ManagedDeviceApiMonitoringService {
         return sortedList.get(index);
     }
     
-    private String getStatusCodeRange(int statusCode) {
-        if (statusCode < 300) return "2xx";
-        else if (statusCode < 400) return "3xx";
-        else if (statusCode < 500) return "4xx";
-        else return "5xx";
+    private static int getStatusRangeIndex(int statusCode) {
+        if (statusCode < 300) return 0;
+        else if (statusCode < 400) return 1;
+        else if (statusCode < 500) return 2;
+        else return 3;
     }
     
-    private Map<String, List<ApiMetric>> filterMetricsByTimeRange(LocalDateTime startTime, LocalDateTime endTime) {
-        Map<String, List<ApiMetric>> filteredMetrics = new HashMap<>();
-        
-        for (Map.Entry<String, List<ApiMetric>> entry : apiMetrics.entrySet()) {
-            List<ApiMetric> filtered = entry.getValue().stream()
-                    .filter(metric -> !metric.getTimestamp().isBefore(startTime) && 
-                                     !metric.getTimestamp().isAfter(endTime))
-                    .toList();
-            
-            if (!filtered.isEmpty()) {
-                filteredMetrics.put(entry.getKey(), filtered);
+    private static int getLatencyBucketIndex(long responseTime) {
+        for (int i = 0; i < LATENCY_BOUNDS.length; i++) {
+            if (responseTime <= LATENCY_BOUNDS[i]) {
+                return i;
             }
         }
-        
-        return filteredMetrics;
+        return LATENCY_BOUNDS.length;
     }
     
-    private Map<String, Object> generateReportSummary(Map<String, List<ApiMetric>> filteredMetrics) {
+    /**
+     * 按API汇总时间范围内的分钟桶，跳过无调用的API
+     */
+    private Map<String, AggregatedMetrics> aggregateByApi(long fromMinute, long toMinute) {
+        Map<String, AggregatedMetrics> result = new HashMap<>();
+        for (Map.Entry<String, ApiMetricStore> entry : apiMetrics.entrySet()) {
+            AggregatedMetrics aggregated = entry.getValue().aggregate(fromMinute, toMinute);
+            if (aggregated.callCount > 0) {
+                result.put(entry.getKey(), aggregated);
+            }
+        }
+        return result;
+    }
+    
+    private AggregatedMetrics merge(Collection<AggregatedMetrics> metrics) {
+        AggregatedMetrics merged = new AggregatedMetrics();
+        for (AggregatedMetrics item : metrics) {
+            merged.add(item);
+        }
+        return merged;
+    }
+    
+    private static long currentMinute() {
+        return TimeUnit.MILLISECONDS.toMinutes(System.currentTimeMillis());
+    }
+    
+    private static long toEpochMinute(LocalDateTime time) {
+        return TimeUnit.SECONDS.toMinutes(time.atZone(ZoneId.systemDefault()).toEpochSecond());
+    }
+    
+    private Map<String, Object> generateReportSummary(Map<String, AggregatedMetrics> filteredMetrics) {
         Map<String, Object> summary = new HashMap<>();
         
-        int totalCalls = filteredMetrics.values().stream().mapToInt(List::size).sum();
-        summary.put("totalCalls", totalCalls);
+        AggregatedMetrics overall = merge(filteredMetrics.values());
+        summary.put("totalCalls", overall.callCount);
         
-        if (totalCalls > 0) {
-            double avgResponseTime = filteredMetrics.values().stream()
-                    .flatMap(List::stream)
-                    .mapToLong(ApiMetric::getResponseTime)
-                    .average()
-                    .orElse(0);
-            
-            long errorCount = filteredMetrics.values().stream()
-                    .flatMap(List::stream)
-                    .mapToInt(ApiMetric::getStatusCode)
-                    .filter(code -> code >= 400)
-                    .count();
-            
-            summary.put("averageResponseTime", Math.round(avgResponseTime));
-            summary.put("errorCount", errorCount);
-            summary.put("errorRate", (double) errorCount / totalCalls * 100);
+        if (overall.callCount > 0) {
+            summary.put("averageResponseTime", Math.round(overall.getAverageResponseTime()));
+            summary.put("errorCount", overall.errorCount);
+            summary.put("errorRate", overall.getErrorRate());
         }
         
         return summary;
     }
     
-    private Map<String, Object> generateApiPerformanceReport(Map<String, List<ApiMetric>> filteredMetrics) {
+    private Map<String, Object> generateApiPerformanceReport(Map<String, AggregatedMetrics> filteredMetrics) {
         Map<String, Object> apiPerformance = new HashMap<>();
         
-        for (Map.Entry<String, List<ApiMetric>> entry : filteredMetrics.entrySet()) {
+        for (Map.Entry<String, AggregatedMetrics> entry : filteredMetrics.entrySet()) {
             String apiKey = entry.getKey();
-            List<ApiMetric> metrics = entry.getValue();
+            AggregatedMetrics metrics = entry.getValue();
             
             Map<String, Object> apiReport = new HashMap<>();
             
-            List<Long> responseTimes = metrics.stream()
-                    .map(ApiMetric::getResponseTime)
-                    .sorted()
-                    .toList();
-            
-            apiReport.put("callCount", metrics.size());
-            apiReport.put("averageResponseTime", responseTimes.stream().mapToLong(Long::longValue).average().orElse(0));
-            apiReport.put("p95ResponseTime", getPercentile(responseTimes, 95));
-            
-            long errorCount = metrics.stream()
-                    .mapToInt(ApiMetric::getStatusCode)
-                    .filter(code -> code >= 400)
-                    .count();
-            
-            apiReport.put("errorCount", errorCount);
-            apiReport.put("errorRate", (double) errorCount / metrics.size() * 100);
+            apiReport.put("callCount", metrics.callCount);
+            apiReport.put("averageResponseTime", metrics.getAverageResponseTime());
+            apiReport.put("p95ResponseTime", metrics.getPercentile(95));
+            apiReport.put("maxResponseTime", metrics.maxResponseTime);
+            apiReport.put("errorCount", metrics.errorCount);
+            apiReport.put("errorRate", metrics.getErrorRate());
             
             apiPerformance.put(apiKey, apiReport);
         }
@@ -607,30 +551,19 @@ public class ManagedDeviceApiMonitoringService {
         return apiPerformance;
     }
     
-    private List<String> generatePerformanceRecommendations(Map<String, List<ApiMetric>> filteredMetrics) {
+    private List<String> generatePerformanceRecommendations(Map<String, AggregatedMetrics> filteredMetrics) {
         List<String> recommendations = new ArrayList<>();
         
         // 分析性能问题并生成建议
-        for (Map.Entry<String, List<ApiMetric>> entry : filteredMetrics.entrySet()) {
+        for (Map.Entry<String, AggregatedMetrics> entry : filteredMetrics.entrySet()) {
             String apiKey = entry.getKey();
-            List<ApiMetric> metrics = entry.getValue();
+            AggregatedMetrics metrics = entry.getValue();
             
-            double avgResponseTime = metrics.stream()
-                    .mapToLong(ApiMetric::getResponseTime)
-                    .average()
-                    .orElse(0);
-            
-            if (avgResponseTime > ACCEPTABLE_THRESHOLD) {
+            if (metrics.getAverageResponseTime() > ACCEPTABLE_THRESHOLD) {
                 recommendations.add(apiKey + " 平均响应时间过长，建议优化查询或添加索引");
             }
             
-            long errorCount = metrics.stream()
-                    .mapToInt(ApiMetric::getStatusCode)
-                    .filter(code -> code >= 400)
-                    .count();
-            
-            double errorRate = (double) errorCount / metrics.size() * 100;
-            if (errorRate > 5.0) {
+            if (metrics.getErrorRate() > 5.0) {
                 recommendations.add(apiKey + " 错误率偏高，建议检查业务逻辑和错误处理");
             }
         }
@@ -687,4 +620,196 @@ public class ManagedDeviceApiMonitoringService {
             return "健康";
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * 单个API的指标存储
+     * 原始样本写入定长环形缓冲，同时累加到按分钟轮转的预聚合桶，均为无锁写入
+     */
+    static class ApiMetricStore {
+        private final AtomicReferenceArray<ApiMetric> samples = new AtomicReferenceArray<>(MAX_METRICS_PER_API);
+        private final AtomicLong sampleSequence = new AtomicLong();
+        private final AtomicReferenceArray<MinuteBucket> minuteBuckets = new AtomicReferenceArray<>(RETENTION_MINUTES);
+        private volatile long lastMinute;
+        
+        void record(ApiMetric metric, long minute) {
+            long sequence = sampleSequence.getAndIncrement();
+            samples.set((int) (sequence % MAX_METRICS_PER_API), metric);
+            
+            currentBucket(minute).add(metric.getResponseTime(), metric.getStatusCode());
+            if (minute > lastMinute) {
+                lastMinute = minute;
+            }
+        }
+        
+        private MinuteBucket currentBucket(long minute) {
+            int index = (int) Math.floorMod(minute, (long) RETENTION_MINUTES);
+            MinuteBucket bucket = minuteBuckets.get(index);
+            while (bucket == null || bucket.minute < minute) {
+                // 24小时前的桶整体替换
+                MinuteBucket fresh = new MinuteBucket(minute);
+                if (minuteBuckets.compareAndSet(index, bucket, fresh)) {
+                    return fresh;
+                }
+                bucket = minuteBuckets.get(index);
+            }
+            return bucket;
+        }
+        
+        /**
+         * 最近的若干条原始样本，按写入顺序排列
+         */
+        List<ApiMetric> recent(int limit) {
+            long end = sampleSequence.get();
+            long start = Math.max(0, end - Math.min(limit, MAX_METRICS_PER_API));
+            List<ApiMetric> result = new ArrayList<>((int) (end - start));
+            for (long sequence = start; sequence < end; sequence++) {
+                ApiMetric metric = samples.get((int) (sequence % MAX_METRICS_PER_API));
+                if (metric != null) {
+                    result.add(metric);
+                }
+            }
+            return result;
+        }
+        
+        AggregatedMetrics aggregate(long fromMinute, long toMinute) {
+            AggregatedMetrics aggregated = new AggregatedMetrics();
+            if (toMinute < fromMinute) {
+                return aggregated;
+            }
+            if (toMinute - fromMinute + 1 >= RETENTION_MINUTES) {
+                // 覆盖整个保留期时直接遍历所有桶
+                for (int i = 0; i < RETENTION_MINUTES; i++) {
+                    MinuteBucket bucket = minuteBuckets.get(i);
+                    if (bucket != null && bucket.minute >= fromMinute && bucket.minute <= toMinute) {
+                        bucket.addTo(aggregated);
+                    }
+                }
+                return aggregated;
+            }
+            for (long minute = fromMinute; minute <= toMinute; minute++) {
+                MinuteBucket bucket = minuteBuckets.get((int) Math.floorMod(minute, (long) RETENTION_MINUTES));
+                if (bucket != null && bucket.minute == minute) {
+                    bucket.addTo(aggregated);
+                }
+            }
+            return aggregated;
+        }
+        
+        long getLastMinute() {
+            return lastMinute;
+        }
+    }
+    
+    /**
+     * 一分钟内的预聚合指标
+     */
+    static class MinuteBucket {
+        private final long minute;
+        private final AtomicLong callCount = new AtomicLong();
+        private final AtomicLong errorCount = new AtomicLong();
+        private final AtomicLong totalResponseTime = new AtomicLong();
+        private final AtomicLong maxResponseTime = new AtomicLong();
+        private final AtomicIntegerArray latencyCounts = new AtomicIntegerArray(LATENCY_BUCKET_COUNT);
+        private final AtomicIntegerArray statusCounts = new AtomicIntegerArray(STATUS_RANGES.length);
+        
+        MinuteBucket(long minute) {
+            this.minute = minute;
+        }
+        
+        void add(long responseTime, int statusCode) {
+            callCount.incrementAndGet();
+            totalResponseTime.addAndGet(responseTime);
+            if (statusCode >= 400) {
+                errorCount.incrementAndGet();
+            }
+            latencyCounts.incrementAndGet(getLatencyBucketIndex(responseTime));
+            statusCounts.incrementAndGet(getStatusRangeIndex(statusCode));
+            
+            long max;
+            while (responseTime > (max = maxResponseTime.get())) {
+                if (maxResponseTime.compareAndSet(max, responseTime)) {
+                    break;
+                }
+            }
+        }
+        
+        void addTo(AggregatedMetrics aggregated) {
+            aggregated.callCount += callCount.get();
+            aggregated.errorCount += errorCount.get();
+            aggregated.totalResponseTime += totalResponseTime.get();
+            aggregated.maxResponseTime = Math.max(aggregated.maxResponseTime, maxResponseTime.get());
+            for (int i = 0; i < LATENCY_BUCKET_COUNT; i++) {
+                aggregated.latencyCounts[i] += latencyCounts.get(i);
+            }
+            for (int i = 0; i < STATUS_RANGES.length; i++) {
+                aggregated.statusCounts[i] += statusCounts.get(i);
+            }
+        }
+    }
+    
+    /**
+     * 若干分钟桶的汇总结果
+     */
+    static class AggregatedMetrics {
+        private long callCount;
+        private long errorCount;
+        private long totalResponseTime;
+        private long maxResponseTime;
+        private final long[] latencyCounts = new long[LATENCY_BUCKET_COUNT];
+        private final long[] statusCounts = new long[STATUS_RANGES.length];
+        
+        void add(AggregatedMetrics other) {
+            callCount += other.callCount;
+            errorCount += other.errorCount;
+            totalResponseTime += other.totalResponseTime;
+            maxResponseTime = Math.max(maxResponseTime, other.maxResponseTime);
+            for (int i = 0; i < LATENCY_BUCKET_COUNT; i++) {
+                latencyCounts[i] += other.latencyCounts[i];
+            }
+            for (int i = 0; i < STATUS_RANGES.length; i++) {
+                statusCounts[i] += other.statusCounts[i];
+            }
+        }
+        
+        long getCallCount() {
+            return callCount;
+        }
+        
+        double getAverageResponseTime() {
+            return callCount > 0 ? (double) totalResponseTime / callCount : 0;
+        }
+        
+        double getErrorRate() {
+            return callCount > 0 ? (double) errorCount / callCount * 100 : 0;
+        }
+        
+        /**
+         * 响应时间不超过阈值的调用数，阈值需为分布桶边界
+         */
+        long countAtMost(long threshold) {
+            long count = 0;
+            for (int i = 0; i < LATENCY_BOUNDS.length && LATENCY_BOUNDS[i] <= threshold; i++) {
+                count += latencyCounts[i];
+            }
+            return count;
+        }
+        
+        /**
+         * 百分位响应时间，取所在分布桶的上界（不超过最大值）
+         */
+        long getPercentile(int percentile) {
+            if (callCount == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(callCount * percentile / 100.0));
+            long seen = 0;
+            for (int i = 0; i < LATENCY_BUCKET_COUNT; i++) {
+                seen += latencyCounts[i];
+                if (seen >= rank) {
+                    return i < LATENCY_BOUNDS.length ? Math.min(LATENCY_BOUNDS[i], maxResponseTime) : maxResponseTime;
+                }
+            }
+            return maxResponseTime;
+        }
+    }
+}
@@ -132,6 +132,7 @@ public class ManagedDeviceLargeDataOptimizationService {
             "建议减小页面大小以提高查询性能",
             "建议使用日期范围筛选减少数据量",
             "建议使用设备状态或型号筛选",
+            "深度翻页建议使用游标分页接口 GET /api/admin/devices/cursor",
             "系统已自动优化查询参数"
         };
     }
@@ -188,7 +189,7 @@ public class ManagedDeviceLargeDataOptimizationService {
             
             // 性能警告
             if (queryTime > 2000) {
-                logger.warn("分页查询性能警告 - 页码: {}, 页面大小: {}, 查询时间: {}ms, 结果数量: {}", 
+                logger.warn("分页查询性能警告 - 页码: {}, 页面大小: {}, 查询时间: {}ms, 结果数量: {}，深度翻页请改用游标分页", 
                     criteria.getPage(), criteria.getPageSize(), queryTime, resultCount);
             }
             
@@ -1,10 +1,12 @@
 package com.yxrobot.service;
 
+import com.yxrobot.dto.CursorPage;
 import com.yxrobot.dto.ManagedDeviceLogDTO;
 import com.yxrobot.entity.LogCategory;
 import com.yxrobot.entity.LogLevel;
 import com.yxrobot.entity.ManagedDeviceLog;
 import com.yxrobot.mapper.ManagedDeviceLogMapper;
+import com.yxrobot.util.PageCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -81,6 +83,50 @@ public class ManagedDeviceLogService {
         return result;
     }
     
+    /**
+     * 游标分页查询设备日志（支持筛选）
+     * 按日志时间倒序，通过上一页返回的游标定位下一页
+     * 
+     * @param deviceId 设备ID
+     * @param cursor 上一页返回的游标，第一页传null
+     * @param pageSize 每页大小
+     * @param level 日志级别筛选
+     * @param category 日志分类筛选
+     * @param startDate 开始时间
+     * @param endDate 结束时间
+     * @param includeTotal 是否统计总数
+     * @return 日志列表和下一页游标
+     */
+    public CursorPage<ManagedDeviceLogDTO> getManagedDeviceLogsByCursor(Long deviceId, String cursor, Integer pageSize, 
+                                                                       String level, String category, 
+                                                                       LocalDateTime startDate, LocalDateTime endDate, 
+                                                                       boolean includeTotal) {
+        if (deviceId == null) {
+            throw new IllegalArgumentException("设备ID不能为空");
+        }
+        if (pageSize == null || pageSize < 1) {
+            pageSize = 20;
+        }
+        
+        PageCursor position = PageCursor.decode(cursor);
+        List<ManagedDeviceLog> logs = managedDeviceLogMapper.selectByCursor(
+            deviceId, 
+            position != null ? position.getSortValue() : null, 
+            position != null ? position.getId() : null, 
+            pageSize + 1, level, category, startDate, endDate
+        );
+        
+        CursorPage<ManagedDeviceLogDTO> result = CursorPage
+            .fromRows(logs, pageSize, ManagedDeviceLog::getTimestamp, ManagedDeviceLog::getId)
+            .map(this::convertToDTO);
+        
+        if (includeTotal) {
+            Integer total = managedDeviceLogMapper.countByConditions(deviceId, level, category, startDate, endDate);
+            result.setTotal(total != null ? total.longValue() : 0L);
+        }
+        return result;
+    }
+    
     /**
      * 创建设备日志
      * 
@@ -30,6 +30,9 @@ public class ManagedDeviceOperationService {
     @Autowired
     private ManagedDeviceLogMapper deviceLogMapper;
     
+    @Autowired
+    private AutocompleteIndex autocompleteIndex;
+    
     /**
      * 更新设备状态
      * 支持设备状态变更，包含状态流转验证
@@ -227,6 +230,7 @@ public class ManagedDeviceOperationService {
         updateDevice.setId(id);
         updateDevice.setFirmwareVersion(firmwareVersion);
         managedDeviceMapper.updateById(updateDevice);
+        autocompleteIndex.refreshAfterCommit(AutocompleteIndex.DEVICE, id);
         
         // 记录操作日志
         recordOperationLog(id, "固件推送", 
@@ -42,6 +42,9 @@ public class ManagedDeviceSearchOptimizationService {
     @Autowired
     private ManagedDeviceSearchPerformanceService performanceService;
     
+    @Autowired
+    private ManagedDeviceSearchService searchService;
+    
     /**
      * 高级搜索设备
      * 支持多条件组合搜索、分页、排序
@@ -266,7 +269,7 @@ public class ManagedDeviceSearchOptimizationService {
             }
             
             int suggestionLimit = limit != null ? Math.min(limit, 20) : 10;
-            return managedDeviceMapper.getSearchSuggestions(field, query.trim(), suggestionLimit);
+            return searchService.getSearchSuggestions(field, query.trim(), suggestionLimit);
             
         } catch (Exception e) {
             logger.error("获取搜索建议失败", e);
@@ -15,6 +15,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -32,9 +34,18 @@ public class ManagedDeviceSearchService {
     
     private static final Logger logger = LoggerFactory.getLogger(ManagedDeviceSearchService.class);
     
+    /**
+     * 输入提示索引中的设备字段
+     */
+    private static final List<String> INDEXED_SUGGESTION_FIELDS = Arrays.asList(
+        "serialNumber", "customerName", "model", "firmwareVersion", "createdBy");
+    
     @Autowired
     private ManagedDeviceMapper managedDeviceMapper;
     
+    @Autowired
+    private AutocompleteIndex autocompleteIndex;
+    
     @Autowired
     private ManagedDeviceValidationService validationService;
     
@@ -352,8 +363,10 @@ public class ManagedDeviceSearchService {
                 limit = 50; // 限制最大返回数量
             }
             
-            // 根据字段类型获取建议
-            List<String> suggestions = managedDeviceMapper.getSearchSuggestions(field, query, limit);
+            // 根据字段类型获取建议，输入提示索引加载完成后直接从内存返回
+            List<String> suggestions = autocompleteIndex.isReady(AutocompleteIndex.DEVICE)
+                ? suggestFromIndex(field, query, limit)
+                : managedDeviceMapper.getSearchSuggestions(field, query, limit);
             
             logger.debug("获取到{}条搜索建议", suggestions.size());
             
@@ -365,6 +378,31 @@ public class ManagedDeviceSearchService {
         }
     }
     
+    /**
+     * 从输入提示索引获取建议，未知字段按序列号处理
+     * 
+     * @param field 搜索字段
+     * @param query 查询关键词
+     * @param limit 返回数量限制
+     * @return 搜索建议列表
+     */
+    private List<String> suggestFromIndex(String field, String query, int limit) {
+        if (query == null || query.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+        if ("status".equals(field)) {
+            // 状态只有固定的几种取值，直接匹配枚举
+            String key = query.trim().toUpperCase();
+            return Arrays.stream(DeviceStatus.values())
+                .map(DeviceStatus::name)
+                .filter(name -> name.contains(key))
+                .limit(limit)
+                .collect(Collectors.toList());
+        }
+        String indexField = INDEXED_SUGGESTION_FIELDS.contains(field) ? field : "serialNumber";
+        return autocompleteIndex.suggest(AutocompleteIndex.DEVICE, indexField, query, limit);
+    }
+    
     /**
      * 验证搜索条件
      * 
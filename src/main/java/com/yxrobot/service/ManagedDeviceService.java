@@ -1,12 +1,16 @@
 package com.yxrobot.service;
 
+import com.yxrobot.dto.CountResult;
+import com.yxrobot.dto.CursorPage;
 import com.yxrobot.dto.ManagedDeviceDTO;
 import com.yxrobot.dto.ManagedDeviceMaintenanceRecordDTO;
 import com.yxrobot.dto.ManagedDeviceSearchCriteria;
 import com.yxrobot.entity.*;
+import com.yxrobot.enums.CountMode;
 import com.yxrobot.exception.ManagedDeviceException;
 import com.yxrobot.mapper.*;
 import com.yxrobot.util.DeviceValidationUtils;
+import com.yxrobot.util.PageCursor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -30,6 +34,11 @@ public class ManagedDeviceService {
     
     private static final Logger logger = LoggerFactory.getLogger(ManagedDeviceService.class);
     
+    /**
+     * 设备列表接口名称，用于总数统计方式配置和总数缓存
+     */
+    public static final String DEVICE_LIST_ENDPOINT = "devices.list";
+    
     @Autowired
     private ManagedDeviceMapper managedDeviceMapper;
     
@@ -60,6 +69,12 @@ public class ManagedDeviceService {
     @Autowired
     private ManagedDeviceLocationMapper locationMapper;
     
+    @Autowired
+    private AutocompleteIndex autocompleteIndex;
+    
+    @Autowired
+    private ResultCountService resultCountService;
+    
     /**
      * 分页查询设备列表
      * 支持前端页面的分页、搜索、筛选需求
@@ -80,8 +95,24 @@ public class ManagedDeviceService {
                                                         String keyword, String status, String model, 
                                                         Long customerId, LocalDateTime startDate, 
                                                         LocalDateTime endDate, String sortBy, String sortOrder) {
+        return getManagedDevices(page, pageSize, keyword, status, model, customerId, 
+                                 startDate, endDate, sortBy, sortOrder, null);
+    }
+    
+    /**
+     * 分页查询设备列表，按指定方式统计总数
+     * 
+     * @param countMode 总数统计方式（exact、cached、estimated、hasMore），为空时使用 devices.list 接口的配置
+     * @return 设备列表和分页信息，totalExact 说明总数是否为精确值
+     * @see ResultCountService
+     */
+    public com.yxrobot.dto.PageResult<ManagedDeviceDTO> getManagedDevices(Integer page, Integer pageSize, 
+                                                        String keyword, String status, String model, 
+                                                        Long customerId, LocalDateTime startDate, 
+                                                        LocalDateTime endDate, String sortBy, String sortOrder, 
+                                                        String countMode) {
         
-        logger.debug("查询设备列表: page={}, pageSize={}, keyword={}", page, pageSize, keyword);
+        logger.debug("查询设备列表: page={}, pageSize={}, keyword={}, countMode={}", page, pageSize, keyword, countMode);
         
         long startTime = System.currentTimeMillis();
         
@@ -120,26 +151,34 @@ public class ManagedDeviceService {
         
             // 计算偏移量
             int offset = (criteria.getPage() - 1) * criteria.getPageSize();
+            CountMode mode = resultCountService.resolveMode(DEVICE_LIST_ENDPOINT, countMode);
+            String statusCode = criteria.getStatus() != null ? criteria.getStatus().getCode() : null;
+            String modelCode = criteria.getModel() != null ? criteria.getModel().getCode() : null;
+            String searchKeyword = criteria.getKeyword();
+            Long searchCustomerId = criteria.getCustomerId();
             
             // 记录查询开始时间
             long queryStartTime = System.currentTimeMillis();
             
             // 查询设备列表
             List<ManagedDevice> devices = managedDeviceMapper.selectByPage(
-                offset, criteria.getPageSize(), criteria.getKeyword(), 
-                criteria.getStatus() != null ? criteria.getStatus().getCode() : null, 
-                criteria.getModel() != null ? criteria.getModel().getCode() : null, 
-                criteria.getCustomerId(), startDate, endDate, 
+                offset, ResultCountService.fetchSize(mode, criteria.getPageSize()), searchKeyword, 
+                statusCode, modelCode, searchCustomerId, startDate, endDate, 
                 criteria.getSortBy(), criteria.getSortOrder()
             );
+            boolean hasMore = ResultCountService.trimExtraRow(devices, criteria.getPageSize());
             
             // 查询总数
-            Integer total = managedDeviceMapper.countByConditions(
-                criteria.getKeyword(), 
-                criteria.getStatus() != null ? criteria.getStatus().getCode() : null, 
-                criteria.getModel() != null ? criteria.getModel().getCode() : null, 
-                criteria.getCustomerId(), startDate, endDate
-            );
+            Map<String, Object> countCriteria = new HashMap<>();
+            countCriteria.put("keyword", searchKeyword);
+            countCriteria.put("status", statusCode);
+            countCriteria.put("model", modelCode);
+            countCriteria.put("customerId", searchCustomerId);
+            countCriteria.put("startDate", startDate);
+            countCriteria.put("endDate", endDate);
+            CountResult count = resultCountService.count(DEVICE_LIST_ENDPOINT, mode, countCriteria, "managed_devices",
+                () -> managedDeviceMapper.countByConditions(searchKeyword, statusCode, modelCode, 
+                                                            searchCustomerId, startDate, endDate));
             
             // 记录数据库查询性能
             long queryTime = System.currentTimeMillis() - queryStartTime;
@@ -153,12 +192,11 @@ public class ManagedDeviceService {
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
         
-            // 计算总页数
-            int totalPages = (int) Math.ceil((double) total / criteria.getPageSize());
-            
             // 记录业务指标
             performanceMonitorService.recordBusinessMetric("device_list_query_count", deviceDTOs.size());
-            performanceMonitorService.recordBusinessMetric("device_list_total_count", total);
+            if (count.getTotal() != null) {
+                performanceMonitorService.recordBusinessMetric("device_list_total_count", count.getTotal());
+            }
             
             // 记录数据访问事件
             securityService.logDataAccessEvent("READ", "ManagedDevice", "LIST", "SYSTEM", true);
@@ -168,7 +206,8 @@ public class ManagedDeviceService {
             performanceMonitorService.recordApiPerformance("getManagedDevices", totalTime);
             
             // 使用DTO包中的PageResult类
-            com.yxrobot.dto.PageResult<ManagedDeviceDTO> pageResult = new com.yxrobot.dto.PageResult<>(deviceDTOs, total.longValue(), criteria.getPage(), criteria.getPageSize());
+            com.yxrobot.dto.PageResult<ManagedDeviceDTO> pageResult = com.yxrobot.dto.PageResult.of(
+                deviceDTOs, count, criteria.getPage(), criteria.getPageSize(), hasMore);
             return pageResult;
             
         } catch (Exception e) {
@@ -183,6 +222,61 @@ public class ManagedDeviceService {
         }
     }
     
+    /**
+     * 游标分页查询设备列表
+     * 按创建时间倒序，通过上一页返回的游标定位下一页，翻页深度不影响查询耗时
+     * 
+     * @param cursor 上一页返回的游标，第一页传null
+     * @param pageSize 每页大小
+     * @param keyword 搜索关键词
+     * @param status 设备状态筛选
+     * @param model 设备型号筛选
+     * @param customerId 客户筛选
+     * @param startDate 开始日期
+     * @param endDate 结束日期
+     * @param includeTotal 是否统计总数（需要额外执行COUNT）
+     * @return 设备列表和下一页游标
+     */
+    public CursorPage<ManagedDeviceDTO> getManagedDevicesByCursor(String cursor, Integer pageSize, 
+                                                                 String keyword, String status, String model, 
+                                                                 Long customerId, LocalDateTime startDate, 
+                                                                 LocalDateTime endDate, boolean includeTotal) {
+        
+        logger.debug("游标查询设备列表: cursor={}, pageSize={}, keyword={}", cursor, pageSize, keyword);
+        
+        pageSize = pageSize != null && pageSize > 0 ? pageSize : 20;
+        validationService.validatePaginationParams(1, pageSize);
+        validationService.validateSearchParams(keyword, status, model);
+        
+        PageCursor position = PageCursor.decode(cursor);
+        String statusCode = status != null ? DeviceStatus.fromCode(status).getCode() : null;
+        String modelCode = model != null ? DeviceModel.fromCode(model).getCode() : null;
+        
+        long queryStartTime = System.currentTimeMillis();
+        
+        // 多取一行用于判断是否还有下一页
+        List<ManagedDevice> devices = managedDeviceMapper.selectByCursor(
+            position != null ? position.getSortValue() : null, 
+            position != null ? position.getId() : null, 
+            pageSize + 1, keyword, statusCode, modelCode, customerId, startDate, endDate
+        );
+        
+        CursorPage<ManagedDeviceDTO> result = CursorPage
+            .fromRows(devices, pageSize, ManagedDevice::getCreatedAt, ManagedDevice::getId)
+            .map(this::convertToDTO);
+        
+        if (includeTotal) {
+            Integer total = managedDeviceMapper.countByConditions(
+                keyword, statusCode, modelCode, customerId, startDate, endDate
+            );
+            result.setTotal(total != null ? total.longValue() : 0L);
+        }
+        
+        performanceMonitorService.recordDatabaseQueryPerformance("selectDevicesByCursor", 
+                                                                 System.currentTimeMillis() - queryStartTime);
+        return result;
+    }
+    
     /**
      * 根据ID查询设备详细信息
      * 返回完整的设备详细信息，包含关联数据
@@ -250,6 +344,8 @@ public class ManagedDeviceService {
             
             // 创建关联数据
             createAssociatedData(device, deviceDTO);
+            autocompleteIndex.refreshAfterCommit(AutocompleteIndex.DEVICE, device.getId());
+            resultCountService.invalidate(DEVICE_LIST_ENDPOINT);
             
             // 记录数据访问事件
             securityService.logDataAccessEvent("CREATE", "ManagedDevice", device.getId().toString(), "SYSTEM", true);
@@ -302,6 +398,7 @@ public class ManagedDeviceService {
                 securityService.logDataAccessEvent("UPDATE", "ManagedDevice", id.toString(), "SYSTEM", false);
                 throw ManagedDeviceException.operationFailed("更新设备", id, "数据库更新失败");
             }
+            autocompleteIndex.refreshAfterCommit(AutocompleteIndex.DEVICE, id);
             
             // 更新关联数据
             updateAssociatedData(device, deviceDTO);
@@ -352,6 +449,8 @@ public class ManagedDeviceService {
             
             // 删除关联数据
             deleteAssociatedData(id);
+            autocompleteIndex.refreshAfterCommit(AutocompleteIndex.DEVICE, id);
+            resultCountService.invalidate(DEVICE_LIST_ENDPOINT);
             
             // 记录数据访问事件
             securityService.logDataAccessEvent("DELETE", "ManagedDevice", id.toString(), "SYSTEM", true);
@@ -386,8 +485,10 @@ public class ManagedDeviceService {
         
         // 删除关联数据
         for (Long id : ids) {
+            autocompleteIndex.refreshAfterCommit(AutocompleteIndex.DEVICE, id);
             deleteAssociatedData(id);
         }
+        resultCountService.invalidate(DEVICE_LIST_ENDPOINT);
     }
     
     /**
@@ -2,8 +2,10 @@ package com.yxrobot.service;
 
 import com.yxrobot.exception.NewsValidationException;
 import com.yxrobot.exception.NewsOperationException;
+import com.yxrobot.service.UploadBlobService.StoredBlob;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
@@ -14,21 +16,21 @@ import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.function.Function;
 
 /**
  * 新闻文件上传服务类
  * 负责处理新闻相关的文件上传功能
+ * 原图按内容保存（见 {@link UploadBlobService}），重复上传的图片复用已有原图和缩略图
  * 
  * @author YXRobot开发团队
  * @version 1.0.0
@@ -61,6 +63,9 @@ public class NewsFileUploadService {
         THUMBNAIL_SIZES.put("small", new int[]{200, 150});
     }
     
+    @Autowired
+    private UploadBlobService uploadBlobService;
+    
     @Value("${app.upload.news.path:/uploads/news/}")
     private String uploadBasePath;
     
@@ -83,28 +88,32 @@ public class NewsFileUploadService {
         validateImageFile(file);
         
         try {
-            // 生成文件路径
-            String relativePath = generateFilePath(file);
-            Path fullPath = Paths.get(uploadBasePath, relativePath);
-            
-            // 确保目录存在
-            Files.createDirectories(fullPath.getParent());
-            
-            // 保存原始文件
-            Files.copy(file.getInputStream(), fullPath, StandardCopyOption.REPLACE_EXISTING);
+            // 按内容保存原图，相同图片复用已有文件
+            StoredBlob blob;
+            try (InputStream in = file.getInputStream()) {
+                blob = uploadBlobService.store(in, getFileExtension(file.getOriginalFilename()).substring(1),
+                                               file.getContentType());
+            }
+            String relativePath = blob.getStoragePath();
             
-            // 生成缩略图
-            Map<String, String> thumbnails = generateThumbnails(fullPath, relativePath);
+            // 新图片生成缩略图，重复图片的缩略图已存在时直接复用
+            Map<String, String> thumbnails = blob.isDeduplicated() ? findThumbnails(relativePath) : new HashMap<>();
+            if (thumbnails.size() < THUMBNAIL_SIZES.size()) {
+                thumbnails = generateThumbnails(uploadBlobService.resolve(relativePath), relativePath);
+            }
             
             // 构建返回结果
             Map<String, Object> result = new HashMap<>();
-            result.put("originalUrl", urlPrefix + relativePath);
+            result.put("originalUrl", blob.getUrl());
+            result.put("relativePath", relativePath);
+            result.put("hash", blob.getContentHash());
+            result.put("deduplicated", blob.isDeduplicated());
             result.put("thumbnails", thumbnails);
             result.put("fileName", file.getOriginalFilename());
             result.put("fileSize", file.getSize());
             result.put("uploadTime", LocalDateTime.now());
             
-            logger.info("上传新闻图片成功 - 路径: {}", relativePath);
+            logger.info("上传新闻图片成功 - 路径: {}, 复用已有文件: {}", relativePath, blob.isDeduplicated());
             return result;
             
         } catch (IOException e) {
@@ -137,6 +146,7 @@ public class NewsFileUploadService {
     
     /**
      * 删除新闻图片
+     * 按内容保存的图片只释放一次引用，没有其他引用时才删除原图和缩略图
      * 
      * @param relativePath 相对路径
      * @return 是否删除成功
@@ -149,13 +159,22 @@ public class NewsFileUploadService {
         }
         
         try {
+            if (uploadBlobService.isBlobPath(relativePath)) {
+                int remaining = uploadBlobService.release(relativePath);
+                if (remaining == 0) {
+                    deleteThumbnails(relativePath, uploadBlobService::resolve);
+                }
+                logger.info("释放新闻图片引用 - 路径: {}, 剩余引用: {}", relativePath, remaining);
+                return remaining >= 0;
+            }
+            
             Path fullPath = Paths.get(uploadBasePath, relativePath);
             
             // 删除原始文件
             boolean deleted = Files.deleteIfExists(fullPath);
             
             // 删除缩略图
-            deleteThumbnails(relativePath);
+            deleteThumbnails(relativePath, path -> Paths.get(uploadBasePath, path));
             
             logger.info("删除新闻图片{} - 路径: {}", deleted ? "成功" : "失败", relativePath);
             return deleted;
@@ -287,29 +306,10 @@ public class NewsFileUploadService {
     }
     
     /**
-     * 生成文件保存路径
-     * 
-     * @param file 上传的文件
-     * @return 相对路径
-     */
-    private String generateFilePath(MultipartFile file) {
-        String originalFilename = file.getOriginalFilename();
-        String extension = getFileExtension(originalFilename);
-        
-        // 按日期分目录
-        String dateDir = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy/MM/dd"));
-        
-        // 生成唯一文件名
-        String uniqueFileName = UUID.randomUUID().toString() + extension;
-        
-        return dateDir + "/" + uniqueFileName;
-    }
-    
-    /**
-     * 生成缩略图
+     * 生成缩略图，保存在原图所在目录
      * 
      * @param originalPath 原始文件路径
-     * @param relativePath 相对路径
+     * @param relativePath 原图在内容寻址存储中的路径
      * @return 缩略图URL映射
      */
     private Map<String, String> generateThumbnails(Path originalPath, String relativePath) {
@@ -335,12 +335,12 @@ public class NewsFileUploadService {
                     
                     // 保存缩略图
                     String thumbnailPath = baseName + "_" + sizeName + extension;
-                    Path thumbnailFullPath = Paths.get(uploadBasePath, thumbnailPath);
+                    Path thumbnailFullPath = uploadBlobService.resolve(thumbnailPath);
                     
                     String formatName = extension.substring(1); // 去掉点号
                     ImageIO.write(thumbnail, formatName, thumbnailFullPath.toFile());
                     
-                    thumbnails.put(sizeName, urlPrefix + thumbnailPath);
+                    thumbnails.put(sizeName, uploadBlobService.toUrl(thumbnailPath));
                     
                 } catch (Exception e) {
                     logger.warn("生成{}缩略图失败: {}, 错误: {}", sizeName, relativePath, e.getMessage());
@@ -354,19 +354,40 @@ public class NewsFileUploadService {
         return thumbnails;
     }
     
+    /**
+     * 查找已生成的缩略图
+     * 
+     * @param relativePath 原图在内容寻址存储中的路径
+     * @return 已存在的缩略图URL映射
+     */
+    private Map<String, String> findThumbnails(String relativePath) {
+        Map<String, String> thumbnails = new HashMap<>();
+        String baseName = getFileNameWithoutExtension(relativePath);
+        String extension = getFileExtension(relativePath);
+        
+        for (String sizeName : THUMBNAIL_SIZES.keySet()) {
+            String thumbnailPath = baseName + "_" + sizeName + extension;
+            if (Files.isRegularFile(uploadBlobService.resolve(thumbnailPath))) {
+                thumbnails.put(sizeName, uploadBlobService.toUrl(thumbnailPath));
+            }
+        }
+        return thumbnails;
+    }
+    
     /**
      * 删除缩略图
      * 
      * @param relativePath 原始文件相对路径
+     * @param resolver 相对路径到文件的解析方式
      */
-    private void deleteThumbnails(String relativePath) {
+    private void deleteThumbnails(String relativePath, Function<String, Path> resolver) {
         String baseName = getFileNameWithoutExtension(relativePath);
         String extension = getFileExtension(relativePath);
         
         for (String sizeName : THUMBNAIL_SIZES.keySet()) {
             try {
                 String thumbnailPath = baseName + "_" + sizeName + extension;
-                Path thumbnailFullPath = Paths.get(uploadBasePath, thumbnailPath);
+                Path thumbnailFullPath = resolver.apply(thumbnailPath);
                 Files.deleteIfExists(thumbnailFullPath);
             } catch (IOException e) {
                 logger.warn("删除{}缩略图失败: {}, 错误: {}", sizeName, relativePath, e.getMessage());
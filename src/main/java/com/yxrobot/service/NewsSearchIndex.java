@@ -0,0 +1,532 @@
+package com.yxrobot.service;
+
+import com.yxrobot.entity.News;
+import com.yxrobot.entity.NewsStatus;
+import com.yxrobot.mapper.NewsMapper;
+import com.yxrobot.mapper.NewsTagRelationMapper;
+import com.yxrobot.util.CjkBigramTokenizer;
+import com.yxrobot.util.TransactionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * 新闻全文搜索索引
+ * 在内存中维护标题、摘要、正文和标签的倒排索引，替代 LIKE '%关键词%' 的全表扫描
+ *
+ * 文本按 {@link CjkBigramTokenizer} 切分，查询要求所有词项都出现，结果按 BM25 打分排序。
+ * 各字段按权重合并词频（标题3、标签2、摘要1.5、正文1）。
+ * 新闻增删改和状态变更在事务提交后增量更新索引；启动时和每天凌晨从数据库全量重建，
+ * 重建期间发生变更的新闻在重建完成后重新索引。索引未就绪时由调用方回退到数据库查询。
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-21
+ */
+@Component
+public class NewsSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(NewsSearchIndex.class);
+
+    static final float TITLE_WEIGHT = 3.0f;
+    static final float TAG_WEIGHT = 2.0f;
+    static final float EXCERPT_WEIGHT = 1.5f;
+    static final float CONTENT_WEIGHT = 1.0f;
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final int LOAD_BATCH_SIZE = 500;
+
+    private static final Pattern HTML_TAG = Pattern.compile("<[^>]*>|&[a-zA-Z]+;|&#\\d+;");
+
+    @Autowired
+    private NewsMapper newsMapper;
+
+    @Autowired
+    private NewsTagRelationMapper newsTagRelationMapper;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private IndexData data = new IndexData();
+
+    private volatile boolean ready;
+    private volatile boolean rebuilding;
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private volatile LocalDateTime lastRebuildAt;
+    private volatile long lastRebuildMs;
+
+    /**
+     * 应用启动后构建索引
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * 每天凌晨4点全量重建，修正增量更新可能遗漏的变更
+     */
+    @Scheduled(cron = "0 0 4 * * ?")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    /**
+     * 从数据库全量重建索引
+     *
+     * @return 索引的新闻数量
+     */
+    public synchronized int rebuild() {
+        long start = System.currentTimeMillis();
+        rebuilding = true;
+        changedDuringRebuild.clear();
+        try {
+            IndexData fresh = new IndexData();
+            long afterId = 0L;
+            while (true) {
+                List<News> batch = newsMapper.selectForIndex(afterId, LOAD_BATCH_SIZE);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                Map<Long, List<String>> tags = loadTagNames(batch);
+                for (News news : batch) {
+                    fresh.put(toDocument(news, tags.getOrDefault(news.getId(), Collections.emptyList())));
+                }
+                afterId = batch.get(batch.size() - 1).getId();
+                if (batch.size() < LOAD_BATCH_SIZE) {
+                    break;
+                }
+            }
+
+            lock.writeLock().lock();
+            try {
+                data = fresh;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            ready = true;
+        } catch (Exception e) {
+            logger.error("重建新闻搜索索引失败", e);
+            return 0;
+        } finally {
+            rebuilding = false;
+        }
+
+        // 重建期间的变更可能没有包含在读取的数据中
+        List<Long> changed = new ArrayList<>(changedDuringRebuild);
+        changedDuringRebuild.clear();
+        changed.forEach(this::refresh);
+
+        lastRebuildAt = LocalDateTime.now();
+        lastRebuildMs = System.currentTimeMillis() - start;
+        int size = size();
+        logger.info("新闻搜索索引重建完成 - 文档数: {}, 耗时: {}ms", size, lastRebuildMs);
+        return size;
+    }
+
+    /**
+     * 在当前事务提交后重新索引新闻；没有事务时立即执行
+     *
+     * @param newsId 新闻ID
+     */
+    public void refreshAfterCommit(Long newsId) {
+        if (newsId == null) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> refresh(newsId));
+    }
+
+    /**
+     * 从数据库读取新闻并更新索引，新闻不存在或已删除时移出索引
+     *
+     * @param newsId 新闻ID
+     */
+    public void refresh(Long newsId) {
+        if (rebuilding) {
+            changedDuringRebuild.add(newsId);
+        }
+        try {
+            News news = newsMapper.selectById(newsId);
+            if (news == null || Boolean.TRUE.equals(news.getIsDeleted())) {
+                remove(newsId);
+                return;
+            }
+            Map<Long, List<String>> tags = loadTagNames(Collections.singletonList(news));
+            index(news, tags.getOrDefault(newsId, Collections.emptyList()));
+        } catch (Exception e) {
+            logger.warn("更新新闻搜索索引失败 - ID: {}, 错误: {}", newsId, e.getMessage());
+        }
+    }
+
+    /**
+     * 索引或重新索引一条新闻
+     *
+     * @param news 新闻
+     * @param tagNames 标签名称
+     */
+    public void index(News news, List<String> tagNames) {
+        IndexedNews document = toDocument(news, tagNames);
+        lock.writeLock().lock();
+        try {
+            data.remove(document.getId());
+            data.put(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 移出索引
+     *
+     * @param newsId 新闻ID
+     */
+    public void remove(Long newsId) {
+        lock.writeLock().lock();
+        try {
+            data.remove(newsId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 索引是否已完成首次构建
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 搜索新闻
+     *
+     * @param keyword 关键词
+     * @param filter 文档过滤条件，可以为null
+     * @param offset 结果偏移
+     * @param limit 返回数量
+     * @return 当前页命中与命中总数
+     */
+    public SearchHits search(String keyword, Predicate<IndexedNews> filter, int offset, int limit) {
+        Set<String> terms = new LinkedHashSet<>(CjkBigramTokenizer.tokenize(keyword));
+        if (terms.isEmpty()) {
+            return new SearchHits(Collections.emptyList(), 0);
+        }
+
+        List<SearchHit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            IndexData current = data;
+            List<Map<Long, Float>> termPostings = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Map<Long, Float> postings = current.postingsFor(term);
+                if (postings.isEmpty()) {
+                    return new SearchHits(Collections.emptyList(), 0);
+                }
+                termPostings.add(postings);
+            }
+            // 从最短的倒排表开始求交集
+            termPostings.sort(Comparator.comparingInt(Map::size));
+
+            int documentCount = current.documents.size();
+            double averageLength = documentCount == 0 ? 1.0 : Math.max(current.totalLength / documentCount, 1.0);
+            Map<Long, Float> shortest = termPostings.get(0);
+            candidates:
+            for (Long newsId : shortest.keySet()) {
+                IndexedNews document = current.documents.get(newsId);
+                if (document == null || (filter != null && !filter.test(document))) {
+                    continue;
+                }
+                double score = 0;
+                double lengthNorm = K1 * (1 - B + B * document.length / averageLength);
+                for (Map<Long, Float> postings : termPostings) {
+                    Float tf = postings.get(newsId);
+                    if (tf == null) {
+                        continue candidates;
+                    }
+                    double df = postings.size();
+                    double idf = Math.log(1 + (documentCount - df + 0.5) / (df + 0.5));
+                    score += idf * tf * (K1 + 1) / (tf + lengthNorm);
+                }
+                hits.add(new SearchHit(document, score));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        hits.sort(SearchHit.RANKING);
+        int total = hits.size();
+        int from = Math.min(Math.max(offset, 0), total);
+        int to = Math.min(from + Math.max(limit, 0), total);
+        return new SearchHits(new ArrayList<>(hits.subList(from, to)), total);
+    }
+
+    /**
+     * 按相关度返回匹配新闻的标题
+     *
+     * @param keyword 关键词
+     * @param limit 数量
+     * @return 标题列表
+     */
+    public List<String> suggestTitles(String keyword, int limit) {
+        List<String> titles = new ArrayList<>();
+        for (SearchHit hit : search(keyword, null, 0, limit * 2).getHits()) {
+            String title = hit.getDocument().getTitle();
+            if (title != null && !titles.contains(title)) {
+                titles.add(title);
+                if (titles.size() >= limit) {
+                    break;
+                }
+            }
+        }
+        return titles;
+    }
+
+    /**
+     * 索引统计信息
+     */
+    public Map<String, Object> getIndexStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            stats.put("documents", data.documents.size());
+            stats.put("terms", data.postings.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+        stats.put("ready", ready);
+        stats.put("rebuilding", rebuilding);
+        stats.put("lastRebuildAt", lastRebuildAt);
+        stats.put("lastRebuildMs", lastRebuildMs);
+        return stats;
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return data.documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, List<String>> loadTagNames(List<News> newsList) {
+        Map<Long, List<String>> tags = new HashMap<>();
+        List<Long> ids = new ArrayList<>(newsList.size());
+        newsList.forEach(news -> ids.add(news.getId()));
+        for (Map<String, Object> row : newsTagRelationMapper.selectTagNamesByNewsIds(ids)) {
+            Object newsId = row.get("newsId");
+            Object tagName = row.get("tagName");
+            if (newsId instanceof Number && tagName != null) {
+                tags.computeIfAbsent(((Number) newsId).longValue(), key -> new ArrayList<>()).add(tagName.toString());
+            }
+        }
+        return tags;
+    }
+
+    static IndexedNews toDocument(News news, List<String> tagNames) {
+        Map<String, Float> termFrequencies = new HashMap<>();
+        float length = 0;
+        length += addField(termFrequencies, news.getTitle(), TITLE_WEIGHT);
+        length += addField(termFrequencies, news.getExcerpt(), EXCERPT_WEIGHT);
+        length += addField(termFrequencies, stripHtml(news.getContent()), CONTENT_WEIGHT);
+        if (tagNames != null) {
+            for (String tagName : tagNames) {
+                length += addField(termFrequencies, tagName, TAG_WEIGHT);
+            }
+        }
+        return new IndexedNews(news, termFrequencies, length);
+    }
+
+    private static float addField(Map<String, Float> termFrequencies, String text, float weight) {
+        List<String> tokens = CjkBigramTokenizer.tokenize(text);
+        for (String token : tokens) {
+            termFrequencies.merge(token, weight, Float::sum);
+        }
+        return tokens.size() * weight;
+    }
+
+    private static String stripHtml(String content) {
+        return content == null ? null : HTML_TAG.matcher(content).replaceAll(" ");
+    }
+
+    /**
+     * 倒排表与文档表
+     */
+    private static final class IndexData {
+        final Map<String, Map<Long, Float>> postings = new HashMap<>();
+        final Map<Long, IndexedNews> documents = new HashMap<>();
+        double totalLength;
+
+        void put(IndexedNews document) {
+            documents.put(document.getId(), document);
+            totalLength += document.length;
+            document.termFrequencies.forEach((term, tf) ->
+                    postings.computeIfAbsent(term, key -> new HashMap<>()).put(document.getId(), tf));
+        }
+
+        void remove(Long newsId) {
+            IndexedNews document = documents.remove(newsId);
+            if (document == null) {
+                return;
+            }
+            totalLength -= document.length;
+            for (String term : document.termFrequencies.keySet()) {
+                Map<Long, Float> postingList = postings.get(term);
+                if (postingList != null) {
+                    postingList.remove(newsId);
+                    if (postingList.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+        }
+
+        /**
+         * 查询词项的倒排表；单个中日韩字没有对应的二元组，合并所有包含该字的词项
+         */
+        Map<Long, Float> postingsFor(String term) {
+            Map<Long, Float> postingList = postings.get(term);
+            if (term.length() > 2 || !CjkBigramTokenizer.isCjk(term.codePointAt(0))
+                    || term.codePointCount(0, term.length()) != 1) {
+                return postingList != null ? postingList : Collections.emptyMap();
+            }
+            Map<Long, Float> merged = postingList != null ? new HashMap<>(postingList) : new HashMap<>();
+            postings.forEach((indexed, list) -> {
+                if (!indexed.equals(term) && indexed.contains(term)) {
+                    list.forEach((newsId, tf) -> merged.merge(newsId, tf, Float::sum));
+                }
+            });
+            return merged;
+        }
+    }
+
+    /**
+     * 索引中的新闻：词频和用于过滤、排序的字段
+     */
+    public static final class IndexedNews {
+        private final Long id;
+        private final String title;
+        private final String author;
+        private final NewsStatus status;
+        private final Long categoryId;
+        private final boolean featured;
+        private final int sortOrder;
+        private final LocalDateTime createdAt;
+        private final Map<String, Float> termFrequencies;
+        private final float length;
+
+        IndexedNews(News news, Map<String, Float> termFrequencies, float length) {
+            this.id = news.getId();
+            this.title = news.getTitle();
+            this.author = news.getAuthor();
+            this.status = news.getStatus();
+            this.categoryId = news.getCategoryId();
+            this.featured = Boolean.TRUE.equals(news.getIsFeatured());
+            this.sortOrder = news.getSortOrder() != null ? news.getSortOrder() : 0;
+            this.createdAt = news.getCreatedAt();
+            this.termFrequencies = termFrequencies;
+            this.length = length;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public String getAuthor() {
+            return author;
+        }
+
+        public NewsStatus getStatus() {
+            return status;
+        }
+
+        public Long getCategoryId() {
+            return categoryId;
+        }
+
+        public boolean isFeatured() {
+            return featured;
+        }
+
+        public int getSortOrder() {
+            return sortOrder;
+        }
+
+        public LocalDateTime getCreatedAt() {
+            return createdAt;
+        }
+    }
+
+    /**
+     * 单条命中
+     */
+    public static final class SearchHit {
+
+        /** 相关度优先，相同时与列表页排序一致 */
+        static final Comparator<SearchHit> RANKING = Comparator
+                .comparingDouble(SearchHit::getScore).reversed()
+                .thenComparing(hit -> hit.document.isFeatured(), Comparator.reverseOrder())
+                .thenComparing(hit -> hit.document.getSortOrder(), Comparator.reverseOrder())
+                .thenComparing(hit -> hit.document.getCreatedAt(), Comparator.nullsLast(Comparator.reverseOrder()));
+
+        private final IndexedNews document;
+        private final double score;
+
+        SearchHit(IndexedNews document, double score) {
+            this.document = document;
+            this.score = score;
+        }
+
+        public IndexedNews getDocument() {
+            return document;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+
+    /**
+     * 一页命中结果
+     */
+    public static final class SearchHits {
+        private final List<SearchHit> hits;
+        private final int total;
+
+        SearchHits(List<SearchHit> hits, int total) {
+            this.hits = hits;
+            this.total = total;
+        }
+
+        public List<SearchHit> getHits() {
+            return hits;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+    }
+}
@@ -12,9 +12,12 @@ import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -36,6 +39,9 @@ public class NewsSearchService {
     @Autowired
     private NewsService newsService;
     
+    @Autowired
+    private NewsSearchIndex newsSearchIndex;
+    
     /**
      * 高级搜索新闻
      * 
@@ -52,9 +58,18 @@ public class NewsSearchService {
         
         int offset = (searchCriteria.getPage() - 1) * searchCriteria.getPageSize();
         
-        // 执行搜索
-        List<News> newsList = newsMapper.selectByConditions(conditions, offset, searchCriteria.getPageSize());
-        int total = newsMapper.countByConditions(conditions);
+        // 执行搜索：有关键词时使用全文索引，索引未就绪时回退到数据库查询
+        List<News> newsList;
+        int total;
+        if (StringUtils.hasText(searchCriteria.getKeyword()) && newsSearchIndex.isReady()) {
+            NewsSearchIndex.SearchHits hits = newsSearchIndex.search(searchCriteria.getKeyword(),
+                    document -> matchesCriteria(document, searchCriteria), offset, searchCriteria.getPageSize());
+            newsList = loadInHitOrder(hits);
+            total = hits.getTotal();
+        } else {
+            newsList = newsMapper.selectByConditions(conditions, offset, searchCriteria.getPageSize());
+            total = newsMapper.countByConditions(conditions);
+        }
         
         // 转换为DTO
         List<NewsDTO> newsDTOList = newsList.stream()
@@ -243,8 +258,11 @@ public class NewsSearchService {
         
         if (limit < 1 || limit > 20) limit = 10;
         
-        // 这里可以实现基于历史搜索、热门关键词等的建议逻辑
-        // 目前返回基于标题的简单建议
+        if (newsSearchIndex.isReady()) {
+            return newsSearchIndex.suggestTitles(keyword, limit);
+        }
+        
+        // 索引未就绪时返回基于标题的简单建议
         List<News> newsList = newsMapper.searchByKeyword(keyword, 0, limit);
         
         return newsList.stream()
@@ -254,6 +272,62 @@ public class NewsSearchService {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * 索引文档是否满足搜索条件中除关键词外的筛选项
+     * 
+     * @param document 索引文档
+     * @param criteria 搜索条件
+     * @return 是否满足
+     */
+    private boolean matchesCriteria(NewsSearchIndex.IndexedNews document, NewsSearchCriteria criteria) {
+        if (StringUtils.hasText(criteria.getTitle())
+                && (document.getTitle() == null || !document.getTitle().contains(criteria.getTitle()))) {
+            return false;
+        }
+        if (StringUtils.hasText(criteria.getAuthor()) && !criteria.getAuthor().equals(document.getAuthor())) {
+            return false;
+        }
+        if (criteria.getStatus() != null && criteria.getStatus() != document.getStatus()) {
+            return false;
+        }
+        if (criteria.getCategoryId() != null && !criteria.getCategoryId().equals(document.getCategoryId())) {
+            return false;
+        }
+        if (criteria.getIsFeatured() != null && criteria.getIsFeatured() != document.isFeatured()) {
+            return false;
+        }
+        if (criteria.getStartDate() != null
+                && (document.getCreatedAt() == null || document.getCreatedAt().isBefore(criteria.getStartDate()))) {
+            return false;
+        }
+        if (criteria.getEndDate() != null
+                && (document.getCreatedAt() == null || document.getCreatedAt().isAfter(criteria.getEndDate()))) {
+            return false;
+        }
+        return true;
+    }
+    
+    /**
+     * 按命中顺序批量加载新闻
+     * 
+     * @param hits 索引命中
+     * @return 新闻列表
+     */
+    private List<News> loadInHitOrder(NewsSearchIndex.SearchHits hits) {
+        if (hits.getHits().isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> ids = hits.getHits().stream()
+                .map(hit -> hit.getDocument().getId())
+                .collect(Collectors.toList());
+        Map<Long, News> newsById = newsMapper.selectByIds(ids).stream()
+                .collect(Collectors.toMap(News::getId, Function.identity(), (a, b) -> a));
+        return ids.stream()
+                .map(newsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+    
     /**
      * 验证搜索条件
      * 
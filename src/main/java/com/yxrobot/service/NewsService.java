@@ -1,5 +1,6 @@
 package com.yxrobot.service;
 
+import com.yxrobot.dto.CountResult;
 import com.yxrobot.dto.NewsDTO;
 import com.yxrobot.dto.NewsFormDTO;
 import com.yxrobot.dto.NewsTagDTO;
@@ -10,6 +11,7 @@ import com.yxrobot.entity.News;
 import com.yxrobot.entity.NewsCategory;
 import com.yxrobot.entity.NewsStatus;
 import com.yxrobot.entity.NewsTag;
+import com.yxrobot.enums.CountMode;
 import com.yxrobot.mapper.NewsMapper;
 import com.yxrobot.mapper.NewsCategoryMapper;
 import com.yxrobot.mapper.NewsTagMapper;
@@ -44,6 +46,11 @@ public class NewsService {
     
     private static final Logger logger = LoggerFactory.getLogger(NewsService.class);
     
+    /**
+     * 新闻列表接口名称，用于总数统计方式配置和总数缓存
+     */
+    public static final String NEWS_LIST_ENDPOINT = "news.list";
+    
     @Autowired
     private NewsMapper newsMapper;
     
@@ -59,6 +66,12 @@ public class NewsService {
     @Autowired
     private NewsTagRelationMapper newsTagRelationMapper;
     
+    @Autowired
+    private NewsSearchIndex newsSearchIndex;
+    
+    @Autowired
+    private ResultCountService resultCountService;
+    
     /**
      * 分页查询新闻列表
      * 支持按分类、状态、作者、关键词等条件筛选
@@ -75,6 +88,19 @@ public class NewsService {
     public Map<String, Object> getNewsList(int page, int pageSize, Long categoryId, 
                                           NewsStatus status, String author, String keyword, 
                                           Boolean isFeatured) {
+        return getNewsList(page, pageSize, categoryId, status, author, keyword, isFeatured, null);
+    }
+    
+    /**
+     * 分页查询新闻列表，按指定方式统计总数
+     * 
+     * @param countMode 总数统计方式（exact、cached、estimated、hasMore），为空时使用 news.list 接口的配置
+     * @return 分页结果，totalExact 说明总数是否为精确值
+     * @see ResultCountService
+     */
+    public Map<String, Object> getNewsList(int page, int pageSize, Long categoryId, 
+                                          NewsStatus status, String author, String keyword, 
+                                          Boolean isFeatured, String countMode) {
         logger.info("查询新闻列表 - 页码: {}, 每页大小: {}, 分类ID: {}, 状态: {}, 作者: {}, 关键词: {}, 是否推荐: {}", 
                    page, pageSize, categoryId, status, author, keyword, isFeatured);
         
@@ -103,18 +129,23 @@ public class NewsService {
         }
         
         // 查询数据
+        CountMode mode = resultCountService.resolveMode(NEWS_LIST_ENDPOINT, countMode);
+        int fetchSize = ResultCountService.fetchSize(mode, pageSize);
         List<News> newsList;
-        int total;
+        CountResult count;
         
         if (conditions.isEmpty()) {
             // 无条件查询
-            newsList = newsMapper.selectByPage(offset, pageSize);
-            total = newsMapper.countAll();
+            newsList = newsMapper.selectByPage(offset, fetchSize);
+            count = resultCountService.count(NEWS_LIST_ENDPOINT, mode, conditions, "news", newsMapper::countAll);
         } else {
             // 条件查询
-            newsList = newsMapper.selectByConditions(conditions, offset, pageSize);
-            total = newsMapper.countByConditions(conditions);
+            newsList = newsMapper.selectByConditions(conditions, offset, fetchSize);
+            count = resultCountService.count(NEWS_LIST_ENDPOINT, mode, conditions, "news",
+                                             () -> newsMapper.countByConditions(conditions));
         }
+        boolean hasMore = ResultCountService.trimExtraRow(newsList, pageSize);
+        Long total = count.getTotal();
         
         // 转换为DTO
         List<NewsDTO> newsDTOList = newsList.stream()
@@ -127,7 +158,10 @@ public class NewsService {
         result.put("total", total);
         result.put("page", page);
         result.put("pageSize", pageSize);
-        result.put("totalPages", (int) Math.ceil((double) total / pageSize));
+        result.put("totalPages", total != null ? (int) Math.ceil((double) total / pageSize) : null);
+        result.put("totalExact", count.isExact());
+        result.put("countMode", count.getMode().getCode());
+        result.put("hasMore", total != null ? (long) page * pageSize < total : hasMore);
         
         logger.info("查询新闻列表完成 - 总数: {}, 当前页数据量: {}", total, newsDTOList.size());
         return result;
@@ -186,6 +220,10 @@ public class NewsService {
             newsTagMapper.batchIncrementUsageCount(newsFormDTO.getTagIds());
         }
         
+        // 事务提交后更新搜索索引
+        newsSearchIndex.refreshAfterCommit(news.getId());
+        resultCountService.invalidate(NEWS_LIST_ENDPOINT);
+        
         logger.info("创建新闻成功 - ID: {}, 标题: {}", news.getId(), news.getTitle());
         return getNewsById(news.getId());
     }
@@ -239,6 +277,8 @@ public class NewsService {
             newsTagMapper.batchIncrementUsageCount(newTagIds);
         }
         
+        newsSearchIndex.refreshAfterCommit(id);
+        
         logger.info("更新新闻成功 - ID: {}", id);
         return getNewsById(id);
     }
@@ -273,6 +313,9 @@ public class NewsService {
             newsTagMapper.batchDecrementUsageCount(tagIds);
         }
         
+        newsSearchIndex.refreshAfterCommit(id);
+        resultCountService.invalidate(NEWS_LIST_ENDPOINT);
+        
         logger.info("删除新闻成功 - ID: {}", id);
     }
     
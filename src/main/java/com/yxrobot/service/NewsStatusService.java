@@ -40,6 +40,9 @@ public class NewsStatusService {
     @Autowired
     private NewsService newsService;
     
+    @Autowired
+    private NewsSearchIndex newsSearchIndex;
+    
     @Autowired
     private NewsStatusLogMapper newsStatusLogMapper;
     
@@ -81,6 +84,7 @@ public class NewsStatusService {
         
         // 记录状态变更日志
         recordStatusChangeLog(newsId, news.getStatus(), NewsStatus.PUBLISHED, "发布新闻", "system");
+        newsSearchIndex.refreshAfterCommit(newsId);
         
         logger.info("发布新闻成功 - ID: {}, 标题: {}", newsId, news.getTitle());
         return newsService.getNewsById(newsId);
@@ -119,6 +123,7 @@ public class NewsStatusService {
         // 记录状态变更日志
         String logReason = (reason != null && !reason.trim().isEmpty()) ? reason : "下线新闻";
         recordStatusChangeLog(newsId, news.getStatus(), NewsStatus.OFFLINE, logReason, "system");
+        newsSearchIndex.refreshAfterCommit(newsId);
         
         logger.info("下线新闻成功 - ID: {}, 标题: {}", newsId, news.getTitle());
         return newsService.getNewsById(newsId);
@@ -154,6 +159,7 @@ public class NewsStatusService {
         
         // 记录状态变更日志
         recordStatusChangeLog(newsId, news.getStatus(), NewsStatus.DRAFT, "转为草稿", "system");
+        newsSearchIndex.refreshAfterCommit(newsId);
         
         logger.info("转为草稿成功 - ID: {}, 标题: {}", newsId, news.getTitle());
         return newsService.getNewsById(newsId);
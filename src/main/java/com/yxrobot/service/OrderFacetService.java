@@ -0,0 +1,156 @@
+package com.yxrobot.service;
+
+import com.yxrobot.cache.LocalCache;
+import com.yxrobot.cache.LocalCacheManager;
+import com.yxrobot.dto.OrderFacetRow;
+import com.yxrobot.dto.OrderFacets;
+import com.yxrobot.dto.OrderQueryDTO;
+import com.yxrobot.mapper.OrderMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 订单分面统计服务
+ * 一次分组查询（按类型、状态、支付状态、销售人员、金额区间）取回当前关键词和日期范围内的所有组合计数，
+ * 再在内存中汇总出各分面，替代逐个分面查询和对当前页的重复遍历。
+ *
+ * 分组结果与类型、状态筛选无关，按关键词和日期范围缓存30秒，在分面间切换筛选时不需要再查询数据库；
+ * 订单新增、修改、删除后清空缓存。
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-26
+ */
+@Service
+public class OrderFacetService {
+
+    /**
+     * 金额区间，与 OrderMapper.selectFacetCounts 中的 CASE 分支一致
+     */
+    static final List<OrderFacets.AmountBucket> AMOUNT_BUCKETS = List.of(
+        new OrderFacets.AmountBucket("0-1000", new BigDecimal("0"), new BigDecimal("1000"), 0),
+        new OrderFacets.AmountBucket("1000-5000", new BigDecimal("1000"), new BigDecimal("5000"), 0),
+        new OrderFacets.AmountBucket("5000-10000", new BigDecimal("5000"), new BigDecimal("10000"), 0),
+        new OrderFacets.AmountBucket("10000+", new BigDecimal("10000"), null, 0)
+    );
+
+    private static final String UNKNOWN = "unknown";
+
+    @Autowired
+    private OrderMapper orderMapper;
+
+    @Autowired
+    private LocalCacheManager localCacheManager;
+
+    private LocalCache<String, List<OrderFacetRow>> facetRowCache;
+
+    @PostConstruct
+    public void init() {
+        facetRowCache = localCacheManager.getOrCreateCache("order-facets", 500, Duration.ofSeconds(30));
+    }
+
+    /**
+     * 统计查询条件下的订单分面
+     *
+     * @param queryDTO 预处理后的查询条件
+     * @return 分面统计
+     */
+    public OrderFacets getFacets(OrderQueryDTO queryDTO) {
+        String key = queryDTO.getKeyword() + "|" + queryDTO.getStartDate() + "|" + queryDTO.getEndDate();
+        List<OrderFacetRow> rows = facetRowCache.get(key, k -> orderMapper.selectFacetCounts(
+            queryDTO.getKeyword(), queryDTO.getStartDate(), queryDTO.getEndDate()));
+        return aggregate(rows != null ? rows : new ArrayList<>(), queryDTO.getType(), queryDTO.getStatus());
+    }
+
+    /**
+     * 清空分组缓存，在订单新增、修改、删除后调用
+     */
+    public void invalidateAll() {
+        facetRowCache.invalidateAll();
+    }
+
+    /**
+     * 汇总分组行：类型分面只应用状态筛选，状态分面只应用类型筛选，其余分面应用两者
+     *
+     * @param rows 分组行
+     * @param type 类型筛选，可为空
+     * @param status 状态筛选，可为空
+     * @return 分面统计
+     */
+    static OrderFacets aggregate(List<OrderFacetRow> rows, String type, String status) {
+        Map<String, Long> types = new HashMap<>();
+        Map<String, Long> statuses = new HashMap<>();
+        Map<String, Long> paymentStatuses = new HashMap<>();
+        Map<String, Long> salesPersons = new HashMap<>();
+        long[] bucketCounts = new long[AMOUNT_BUCKETS.size()];
+        long matchedCount = 0;
+        BigDecimal matchedAmount = BigDecimal.ZERO;
+
+        for (OrderFacetRow row : rows) {
+            long count = row.getOrderCount() != null ? row.getOrderCount() : 0;
+            boolean typeMatched = matches(type, row.getType());
+            boolean statusMatched = matches(status, row.getStatus());
+            if (statusMatched) {
+                types.merge(valueOf(row.getType()), count, Long::sum);
+            }
+            if (typeMatched) {
+                statuses.merge(valueOf(row.getStatus()), count, Long::sum);
+            }
+            if (!typeMatched || !statusMatched) {
+                continue;
+            }
+            matchedCount += count;
+            if (row.getTotalAmount() != null) {
+                matchedAmount = matchedAmount.add(row.getTotalAmount());
+            }
+            paymentStatuses.merge(valueOf(row.getPaymentStatus()), count, Long::sum);
+            if (row.getSalesPerson() != null && !row.getSalesPerson().isEmpty()) {
+                salesPersons.merge(row.getSalesPerson(), count, Long::sum);
+            }
+            Integer bucket = row.getAmountBucket();
+            if (bucket != null && bucket >= 0 && bucket < bucketCounts.length) {
+                bucketCounts[bucket] += count;
+            }
+        }
+
+        OrderFacets facets = new OrderFacets();
+        facets.setMatchedCount(matchedCount);
+        facets.setMatchedAmount(matchedAmount);
+        facets.setTypes(sortByCount(types));
+        facets.setStatuses(sortByCount(statuses));
+        facets.setPaymentStatuses(sortByCount(paymentStatuses));
+        facets.setSalesPersons(sortByCount(salesPersons));
+        List<OrderFacets.AmountBucket> amountRanges = new ArrayList<>();
+        for (int i = 0; i < bucketCounts.length; i++) {
+            OrderFacets.AmountBucket bucket = AMOUNT_BUCKETS.get(i);
+            amountRanges.add(new OrderFacets.AmountBucket(bucket.getLabel(), bucket.getMin(), bucket.getMax(), bucketCounts[i]));
+        }
+        facets.setAmountRanges(amountRanges);
+        return facets;
+    }
+
+    private static boolean matches(String filter, String value) {
+        return filter == null || filter.isEmpty() || Objects.equals(filter, value);
+    }
+
+    private static String valueOf(String value) {
+        return value != null && !value.isEmpty() ? value : UNKNOWN;
+    }
+
+    private static Map<String, Long> sortByCount(Map<String, Long> counts) {
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        counts.entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+            .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+        return sorted;
+    }
+}
@@ -0,0 +1,34 @@
+package com.yxrobot.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * 订单搜索缓存失效
+ * 订单新增、修改、删除和状态变更后统一清除订单搜索结果、总数和分面缓存，
+ * 由 {@link OrderService} 和 {@link OrderStatusService} 共用，调用方在事务提交后执行。
+ *
+ * @author YXRobot开发团队
+ * @since 2025-08-26
+ */
+@Component
+public class OrderSearchCacheInvalidator {
+
+    @Autowired
+    private ResultCountService resultCountService;
+
+    @Autowired
+    private OrderSearchResultCache orderSearchResultCache;
+
+    @Autowired
+    private OrderFacetService orderFacetService;
+
+    /**
+     * 清除订单搜索结果、总数和分面缓存
+     */
+    public void invalidateAll() {
+        resultCountService.invalidate(OrderSearchService.ORDER_SEARCH_ENDPOINT);
+        orderSearchResultCache.invalidateAll();
+        orderFacetService.invalidateAll();
+    }
+}
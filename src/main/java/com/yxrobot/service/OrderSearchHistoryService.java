@@ -0,0 +1,174 @@
+package com.yxrobot.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yxrobot.cache.LocalCache;
+import com.yxrobot.cache.LocalCacheManager;
+import com.yxrobot.dto.OrderQueryDTO;
+import com.yxrobot.entity.OrderSearchHistory;
+import com.yxrobot.mapper.OrderSearchHistoryMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * 订单搜索历史服务
+ * 搜索历史保存在 order_search_history 表，同一用户的相同搜索条件（规范化后）只保留一行并累加次数，
+ * 每个用户最多保留 {@link #MAX_HISTORY_PER_USER} 条；最近历史按用户缓存，写入后失效。
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-25
+ */
+@Service
+public class OrderSearchHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderSearchHistoryService.class);
+
+    /**
+     * 每个用户保留的搜索历史条数
+     */
+    public static final int MAX_HISTORY_PER_USER = 20;
+
+    private static final int QUERY_TEXT_MAX_LENGTH = 500;
+
+    @Autowired
+    private OrderSearchHistoryMapper orderSearchHistoryMapper;
+
+    @Autowired
+    private LocalCacheManager localCacheManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private LocalCache<String, List<OrderSearchHistory>> historyCache;
+
+    @PostConstruct
+    public void init() {
+        historyCache = localCacheManager.getOrCreateCache("order-search-history", 1000, Duration.ofMinutes(30));
+    }
+
+    /**
+     * 记录一次搜索
+     *
+     * @param userId 用户ID
+     * @param queryDTO 查询条件
+     * @param resultCount 结果数量
+     */
+    @Transactional
+    public void record(String userId, OrderQueryDTO queryDTO, int resultCount) {
+        Map<String, Object> criteria = OrderSearchService.criteriaOf(queryDTO);
+        String normalized = ResultCountService.normalizeCriteria(criteria);
+
+        OrderSearchHistory history = new OrderSearchHistory();
+        history.setUserId(userId);
+        history.setQueryHash(DigestUtils.md5DigestAsHex(normalized.getBytes(StandardCharsets.UTF_8)));
+        history.setQueryText(describe(queryDTO));
+        history.setCriteriaJson(toJson(queryDTO));
+        history.setResultCount(resultCount);
+        history.setSearchedAt(LocalDateTime.now());
+
+        orderSearchHistoryMapper.upsert(history);
+        orderSearchHistoryMapper.deleteBeyondRecent(userId, MAX_HISTORY_PER_USER);
+        historyCache.invalidate(userId);
+    }
+
+    /**
+     * 获取用户最近的搜索历史，按搜索时间降序
+     *
+     * @param userId 用户ID
+     * @param limit 数量，超过保留条数时按保留条数返回
+     * @return 搜索历史
+     */
+    public List<OrderSearchService.SearchHistory> getRecent(String userId, int limit) {
+        List<OrderSearchHistory> rows = historyCache.get(userId,
+            key -> orderSearchHistoryMapper.selectRecentByUserId(key, MAX_HISTORY_PER_USER));
+        List<OrderSearchService.SearchHistory> result = new ArrayList<>();
+        if (rows == null) {
+            return result;
+        }
+        for (OrderSearchHistory row : rows) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(toSearchHistory(row));
+        }
+        return result;
+    }
+
+    private OrderSearchService.SearchHistory toSearchHistory(OrderSearchHistory row) {
+        OrderSearchService.SearchHistory history = new OrderSearchService.SearchHistory();
+        history.setQuery(row.getQueryText());
+        history.setCriteria(fromJson(row.getCriteriaJson()));
+        history.setResultCount(row.getResultCount() != null ? row.getResultCount() : 0);
+        history.setSearchCount(row.getSearchCount() != null ? row.getSearchCount() : 1);
+        history.setSearchedAt(row.getSearchedAt());
+        history.setSearchDate(row.getSearchedAt() != null ? row.getSearchedAt().toLocalDate() : null);
+        return history;
+    }
+
+    /**
+     * 生成搜索条件描述，如“关键词:张三 状态:pending”
+     */
+    static String describe(OrderQueryDTO queryDTO) {
+        StringJoiner joiner = new StringJoiner(" ");
+        appendCondition(joiner, "关键词", queryDTO.getKeyword());
+        appendCondition(joiner, "订单号", queryDTO.getOrderNumber());
+        appendCondition(joiner, "类型", queryDTO.getType());
+        appendCondition(joiner, "状态", queryDTO.getStatus());
+        appendCondition(joiner, "支付状态", queryDTO.getPaymentStatus());
+        appendCondition(joiner, "客户", queryDTO.getCustomerName());
+        appendCondition(joiner, "销售", queryDTO.getSalesPerson());
+        if (queryDTO.getStartDate() != null || queryDTO.getEndDate() != null) {
+            joiner.add("日期:" + (queryDTO.getStartDate() != null ? queryDTO.getStartDate() : "")
+                + "~" + (queryDTO.getEndDate() != null ? queryDTO.getEndDate() : ""));
+        }
+        if (queryDTO.getMinAmount() != null || queryDTO.getMaxAmount() != null) {
+            joiner.add("金额:" + (queryDTO.getMinAmount() != null ? queryDTO.getMinAmount().toPlainString() : "")
+                + "~" + (queryDTO.getMaxAmount() != null ? queryDTO.getMaxAmount().toPlainString() : ""));
+        }
+        String text = joiner.length() > 0 ? joiner.toString() : "全部订单";
+        return text.length() > QUERY_TEXT_MAX_LENGTH ? text.substring(0, QUERY_TEXT_MAX_LENGTH) : text;
+    }
+
+    private static void appendCondition(StringJoiner joiner, String label, String value) {
+        if (value != null && !value.trim().isEmpty()) {
+            joiner.add(label + ":" + value.trim());
+        }
+    }
+
+    private String toJson(OrderQueryDTO queryDTO) {
+        try {
+            return objectMapper.writeValueAsString(queryDTO);
+        } catch (JsonProcessingException e) {
+            logger.warn("序列化搜索条件失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private OrderQueryDTO fromJson(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            OrderQueryDTO queryDTO = objectMapper.readValue(json, OrderQueryDTO.class);
+            // 从历史重新搜索时回到第一页
+            queryDTO.setPage(1);
+            return queryDTO;
+        } catch (JsonProcessingException e) {
+            logger.warn("解析搜索条件失败: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.yxrobot.service;
+
+import com.yxrobot.cache.LocalCache;
+import com.yxrobot.cache.LocalCacheManager;
+import com.yxrobot.dto.OrderQueryDTO;
+import com.yxrobot.util.PopularQueryTracker;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 热门订单搜索结果缓存
+ * 用 {@link PopularQueryTracker} 统计规范化后的搜索条件（含分页和排序）的出现次数，
+ * 只缓存次数最多的前N个搜索的结果页，由 {@link OrderSearchService} 定时预热；
+ * 长尾搜索不进入缓存，避免冲掉热门结果。订单新增、修改、删除后清空缓存结果。
+ *
+ * 独立于 {@link OrderSearchService} 是为了让 {@link OrderService} 失效缓存时不形成循环依赖。
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-25
+ */
+@Component
+public class OrderSearchResultCache {
+
+    @Autowired
+    private LocalCacheManager localCacheManager;
+
+    /**
+     * 缓存的热门搜索数量
+     */
+    @Value("${yxrobot.order-search.hot-query-count:20}")
+    private int hotQueryCount = 20;
+
+    /**
+     * 进入缓存前搜索的最少次数
+     */
+    @Value("${yxrobot.order-search.hot-query-min-hits:3}")
+    private int minHits = 3;
+
+    /**
+     * 结果缓存时间（秒）
+     */
+    @Value("${yxrobot.order-search.result-ttl-seconds:120}")
+    private long resultTtlSeconds = 120;
+
+    private final PopularQueryTracker tracker = new PopularQueryTracker(200, 10000);
+
+    /**
+     * 热门搜索键 -> 查询条件，用于预热
+     */
+    private final Map<String, OrderQueryDTO> hotQueries = new ConcurrentHashMap<>();
+
+    private LocalCache<String, OrderSearchService.AdvancedSearchResult> resultCache;
+
+    @PostConstruct
+    public void init() {
+        resultCache = localCacheManager.getOrCreateCache("order-search-results", hotQueryCount * 2,
+            Duration.ofSeconds(resultTtlSeconds));
+    }
+
+    /**
+     * 生成缓存键：规范化搜索条件加上分页、排序和统计方式的摘要
+     *
+     * @param queryDTO 预处理后的查询条件
+     * @return 缓存键
+     */
+    public static String keyOf(OrderQueryDTO queryDTO) {
+        Map<String, Object> criteria = new HashMap<>(OrderSearchService.criteriaOf(queryDTO));
+        criteria.put("page", queryDTO.getPage());
+        criteria.put("size", queryDTO.getSize());
+        criteria.put("countMode", queryDTO.getCountMode());
+        String normalized = ResultCountService.normalizeCriteria(criteria);
+        return DigestUtils.md5DigestAsHex(normalized.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 记录一次搜索
+     *
+     * @param key 缓存键
+     * @param queryDTO 查询条件
+     * @return 是否为热门搜索（结果应读写缓存）
+     */
+    public boolean recordQuery(String key, OrderQueryDTO queryDTO) {
+        int hits = tracker.record(key);
+        if (hits < minHits || !tracker.isTop(key, hotQueryCount)) {
+            return false;
+        }
+        hotQueries.computeIfAbsent(key, k -> copyOf(queryDTO));
+        return true;
+    }
+
+    public OrderSearchService.AdvancedSearchResult get(String key) {
+        return resultCache.get(key);
+    }
+
+    public void put(String key, OrderSearchService.AdvancedSearchResult result) {
+        resultCache.put(key, result);
+    }
+
+    /**
+     * 当前的热门搜索，同时移除已经跌出前N的搜索及其缓存结果
+     *
+     * @return 缓存键 -> 查询条件副本
+     */
+    public Map<String, OrderQueryDTO> hotQueries() {
+        Map<String, OrderQueryDTO> result = new HashMap<>();
+        hotQueries.entrySet().removeIf(entry -> {
+            if (tracker.isTop(entry.getKey(), hotQueryCount)) {
+                result.put(entry.getKey(), copyOf(entry.getValue()));
+                return false;
+            }
+            resultCache.invalidate(entry.getKey());
+            return true;
+        });
+        return result;
+    }
+
+    /**
+     * 清空缓存结果，热门搜索统计保留，由下一轮预热重新填充
+     */
+    public void invalidateAll() {
+        resultCache.invalidateAll();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>(resultCache.getStats());
+        stats.put("hotQueries", hotQueries.size());
+        return stats;
+    }
+
+    private static OrderQueryDTO copyOf(OrderQueryDTO queryDTO) {
+        OrderQueryDTO copy = new OrderQueryDTO();
+        BeanUtils.copyProperties(queryDTO, copy);
+        return copy;
+    }
+}
@@ -1,20 +1,30 @@
 package com.yxrobot.service;
 
+import com.yxrobot.dto.CountResult;
 import com.yxrobot.dto.OrderDTO;
+import com.yxrobot.dto.OrderFacets;
 import com.yxrobot.dto.OrderQueryDTO;
 import com.yxrobot.entity.Order;
+import com.yxrobot.enums.CountMode;
 import com.yxrobot.mapper.OrderMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -27,12 +37,37 @@ public class OrderSearchService {
     
     private static final Logger logger = LoggerFactory.getLogger(OrderSearchService.class);
     
+    /**
+     * 参与输入提示的订单字段
+     */
+    private static final List<String> ORDER_SUGGESTION_FIELDS = Arrays.asList("orderNumber", "customerName");
+    
+    /**
+     * 订单高级搜索接口名称，用于总数统计方式配置和总数缓存
+     */
+    public static final String ORDER_SEARCH_ENDPOINT = "orders.search";
+    
     @Autowired
     private OrderMapper orderMapper;
     
     @Autowired
     private OrderService orderService;
     
+    @Autowired
+    private AutocompleteIndex autocompleteIndex;
+    
+    @Autowired
+    private ResultCountService resultCountService;
+    
+    @Autowired
+    private OrderSearchHistoryService orderSearchHistoryService;
+    
+    @Autowired
+    private OrderSearchResultCache orderSearchResultCache;
+    
+    @Autowired
+    private OrderFacetService orderFacetService;
+    
     /**
      * 高级搜索订单
      * 支持多条件组合搜索和智能筛选
@@ -47,31 +82,21 @@ public class OrderSearchService {
             // 预处理查询条件
             preprocessQueryConditions(queryDTO);
             
-            // 执行搜索
-            List<Order> orders = executeAdvancedSearch(queryDTO);
-            
-            // 查询总数
-            int total = countAdvancedSearch(queryDTO);
-            
-            // 转换为DTO
-            List<OrderDTO> orderDTOs = orders.stream()
-                .map(this::convertToOrderDTO)
-                .collect(Collectors.toList());
-            
-            // 生成搜索统计信息
-            SearchStatistics statistics = generateSearchStatistics(orders, queryDTO);
-            
-            // 生成搜索建议
-            List<SearchSuggestion> suggestions = generateSearchSuggestions(queryDTO, total);
-            
-            AdvancedSearchResult result = new AdvancedSearchResult();
-            result.setOrders(orderDTOs);
-            result.setTotal(total);
-            result.setStatistics(statistics);
-            result.setSuggestions(suggestions);
-            result.setQueryTime(System.currentTimeMillis());
+            // 热门搜索直接读取缓存结果
+            String cacheKey = OrderSearchResultCache.keyOf(queryDTO);
+            boolean hot = orderSearchResultCache.recordQuery(cacheKey, queryDTO);
+            if (hot) {
+                AdvancedSearchResult cached = orderSearchResultCache.get(cacheKey);
+                if (cached != null) {
+                    logger.debug("高级搜索命中热门搜索缓存");
+                    return cached;
+                }
+            }
             
-            logger.debug("高级搜索完成，找到 {} 条记录", total);
+            AdvancedSearchResult result = searchOrders(queryDTO);
+            if (hot) {
+                orderSearchResultCache.put(cacheKey, result);
+            }
             return result;
             
         } catch (Exception e) {
@@ -80,6 +105,73 @@ public class OrderSearchService {
         }
     }
     
+    /**
+     * 预热热门搜索结果
+     * 重新执行结果缓存已失效的热门搜索，使热门搜索在订单变更后仍能命中缓存
+     */
+    @Scheduled(fixedDelayString = "${yxrobot.order-search.warm-interval-ms:60000}")
+    public void warmHotQueries() {
+        Map<String, OrderQueryDTO> hotQueries = orderSearchResultCache.hotQueries();
+        int warmed = 0;
+        for (Map.Entry<String, OrderQueryDTO> entry : hotQueries.entrySet()) {
+            if (orderSearchResultCache.get(entry.getKey()) != null) {
+                continue;
+            }
+            try {
+                orderSearchResultCache.put(entry.getKey(), searchOrders(entry.getValue()));
+                warmed++;
+            } catch (Exception e) {
+                logger.warn("预热热门搜索失败 - 条件: {}, 错误: {}", entry.getValue(), e.getMessage());
+            }
+        }
+        if (warmed > 0) {
+            logger.debug("预热热门搜索结果 {} 个，热门搜索共 {} 个", warmed, hotQueries.size());
+        }
+    }
+    
+    /**
+     * 执行搜索并组装结果，查询条件需已预处理
+     */
+    private AdvancedSearchResult searchOrders(OrderQueryDTO queryDTO) {
+        CountMode mode = resultCountService.resolveMode(ORDER_SEARCH_ENDPOINT, queryDTO.getCountMode());
+        
+        // 执行搜索
+        List<Order> orders = executeAdvancedSearch(queryDTO, ResultCountService.fetchSize(mode, queryDTO.getSize()));
+        boolean hasMore = ResultCountService.trimExtraRow(orders, queryDTO.getSize());
+        
+        // 查询总数
+        CountResult count = countAdvancedSearch(queryDTO, mode);
+        Long total = count.getTotal();
+        
+        // 转换为DTO
+        List<OrderDTO> orderDTOs = orders.stream()
+            .map(this::convertToOrderDTO)
+            .collect(Collectors.toList());
+        
+        // 分面统计，搜索统计信息由分面汇总得到，覆盖全部结果而不只是当前页
+        OrderFacets facets = orderFacetService.getFacets(queryDTO);
+        SearchStatistics statistics = generateSearchStatistics(facets, queryDTO);
+        
+        // 生成搜索建议，未统计总数时按已知的最少结果数判断
+        long knownTotal = total != null ? total
+            : (long) (queryDTO.getPage() - 1) * queryDTO.getSize() + orders.size() + (hasMore ? 1 : 0);
+        List<SearchSuggestion> suggestions = generateSearchSuggestions(queryDTO, knownTotal);
+        
+        AdvancedSearchResult result = new AdvancedSearchResult();
+        result.setOrders(orderDTOs);
+        result.setTotal(total);
+        result.setTotalExact(count.isExact());
+        result.setCountMode(count.getMode().getCode());
+        result.setHasMore(total != null ? (long) queryDTO.getPage() * queryDTO.getSize() < total : hasMore);
+        result.setStatistics(statistics);
+        result.setFacets(facets);
+        result.setSuggestions(suggestions);
+        result.setQueryTime(System.currentTimeMillis());
+        
+        logger.debug("高级搜索完成，找到 {} 条记录（{}）", total, count.getMode().getCode());
+        return result;
+    }
+    
     /**
      * 快速搜索订单
      * 用于前端搜索框的实时搜索
@@ -96,6 +188,10 @@ public class OrderSearchService {
         }
         
         try {
+            if (autocompleteIndex.isReady(AutocompleteIndex.ORDER)) {
+                return quickSearchFromIndex(keyword.trim(), limit != null ? limit : 10);
+            }
+            
             OrderQueryDTO queryDTO = new OrderQueryDTO();
             queryDTO.setKeyword(keyword.trim());
             queryDTO.setPage(1);
@@ -103,7 +199,7 @@ public class OrderSearchService {
             queryDTO.setSortBy("createdAt");
             queryDTO.setSortOrder("desc");
             
-            List<Order> orders = executeAdvancedSearch(queryDTO);
+            List<Order> orders = executeAdvancedSearch(queryDTO, queryDTO.getSize());
             
             List<OrderDTO> result = orders.stream()
                 .map(this::convertToOrderDTO)
@@ -118,6 +214,48 @@ public class OrderSearchService {
         }
     }
     
+    /**
+     * 通过输入提示索引快速搜索：按订单号、客户名称匹配出订单ID后按主键查询
+     */
+    private List<OrderDTO> quickSearchFromIndex(String keyword, int limit) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (String field : ORDER_SUGGESTION_FIELDS) {
+            for (Long id : autocompleteIndex.suggestIds(AutocompleteIndex.ORDER, field, keyword, limit)) {
+                if (ids.size() >= limit) {
+                    break;
+                }
+                ids.add(id);
+            }
+        }
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        List<OrderDTO> result = orderMapper.selectByIds(new ArrayList<>(ids)).stream()
+            .sorted(Comparator.comparing(Order::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder())))
+            .map(this::convertToOrderDTO)
+            .collect(Collectors.toList());
+        
+        logger.debug("快速搜索完成（索引），找到 {} 条记录", result.size());
+        return result;
+    }
+    
+    /**
+     * 获取搜索框的关键词建议
+     * 从订单号和客户名称的输入提示索引中匹配，索引未加载完成时返回空列表
+     * 
+     * @param input 用户输入
+     * @param limit 限制数量
+     * @return 关键词建议
+     */
+    public List<String> getKeywordSuggestions(String input, Integer limit) {
+        if (input == null || input.trim().isEmpty() || !autocompleteIndex.isReady(AutocompleteIndex.ORDER)) {
+            return new ArrayList<>();
+        }
+        return autocompleteIndex.suggest(AutocompleteIndex.ORDER, ORDER_SUGGESTION_FIELDS,
+                                         input.trim(), limit != null ? limit : 5);
+    }
+    
     /**
      * 智能筛选建议
      * 根据当前搜索条件提供筛选建议
@@ -131,20 +269,20 @@ public class OrderSearchService {
         try {
             FilterSuggestions suggestions = new FilterSuggestions();
             
-            // 获取可用的订单类型
-            suggestions.setAvailableTypes(getAvailableOrderTypes(queryDTO));
-            
-            // 获取可用的订单状态
-            suggestions.setAvailableStatuses(getAvailableOrderStatuses(queryDTO));
-            
-            // 获取可用的支付状态
-            suggestions.setAvailablePaymentStatuses(getAvailablePaymentStatuses(queryDTO));
-            
-            // 获取可用的销售人员
-            suggestions.setAvailableSalesPersons(getAvailableSalesPersons(queryDTO));
+            // 一次分组查询得到所有分面，可选值按订单数量降序
+            preprocessQueryConditions(queryDTO);
+            OrderFacets facets = orderFacetService.getFacets(queryDTO);
+            suggestions.setFacets(facets);
+            suggestions.setAvailableTypes(new ArrayList<>(facets.getTypes().keySet()));
+            suggestions.setAvailableStatuses(new ArrayList<>(facets.getStatuses().keySet()));
+            suggestions.setAvailablePaymentStatuses(new ArrayList<>(facets.getPaymentStatuses().keySet()));
+            suggestions.setAvailableSalesPersons(new ArrayList<>(facets.getSalesPersons().keySet()));
             
-            // 获取金额范围建议
-            suggestions.setAmountRangeSuggestions(getAmountRangeSuggestions(queryDTO));
+            // 金额范围建议，只保留有订单的区间
+            suggestions.setAmountRangeSuggestions(facets.getAmountRanges().stream()
+                .filter(range -> range.getCount() > 0)
+                .map(range -> new AmountRange(range.getLabel(), range.getMin(), range.getMax()))
+                .collect(Collectors.toList()));
             
             // 获取日期范围建议
             suggestions.setDateRangeSuggestions(getDateRangeSuggestions(queryDTO));
@@ -165,9 +303,7 @@ public class OrderSearchService {
      * @return 搜索历史
      */
     public List<SearchHistory> getSearchHistory(String userId) {
-        // TODO: 实现搜索历史功能
-        // 这里可以使用Redis或数据库存储用户的搜索历史
-        return new ArrayList<>();
+        return orderSearchHistoryService.getRecent(userId, OrderSearchHistoryService.MAX_HISTORY_PER_USER);
     }
     
     /**
@@ -177,8 +313,33 @@ public class OrderSearchService {
      * @param queryDTO 查询条件
      */
     public void saveSearchHistory(String userId, OrderQueryDTO queryDTO) {
-        // TODO: 实现保存搜索历史功能
         logger.debug("保存搜索历史，用户: {}, 查询条件: {}", userId, queryDTO);
+        preprocessQueryConditions(queryDTO);
+        // 结果数量使用缓存的总数，刚执行过的搜索通常不需要再统计一次
+        Long total = countAdvancedSearch(queryDTO, CountMode.CACHED).getTotal();
+        orderSearchHistoryService.record(userId, queryDTO, total != null ? total.intValue() : 0);
+    }
+    
+    /**
+     * 搜索条件中的筛选字段，不含分页和统计方式，用于生成搜索历史和结果缓存的键
+     */
+    static Map<String, Object> criteriaOf(OrderQueryDTO queryDTO) {
+        Map<String, Object> criteria = new HashMap<>();
+        criteria.put("keyword", queryDTO.getKeyword());
+        criteria.put("orderNumber", queryDTO.getOrderNumber());
+        criteria.put("type", queryDTO.getType());
+        criteria.put("status", queryDTO.getStatus());
+        criteria.put("paymentStatus", queryDTO.getPaymentStatus());
+        criteria.put("customerId", queryDTO.getCustomerId());
+        criteria.put("customerName", queryDTO.getCustomerName());
+        criteria.put("salesPerson", queryDTO.getSalesPerson());
+        criteria.put("startDate", queryDTO.getStartDate());
+        criteria.put("endDate", queryDTO.getEndDate());
+        criteria.put("minAmount", queryDTO.getMinAmount() != null ? queryDTO.getMinAmount().stripTrailingZeros().toPlainString() : null);
+        criteria.put("maxAmount", queryDTO.getMaxAmount() != null ? queryDTO.getMaxAmount().stripTrailingZeros().toPlainString() : null);
+        criteria.put("sortBy", queryDTO.getSortBy());
+        criteria.put("sortOrder", queryDTO.getSortOrder());
+        return criteria;
     }
     
     /**
@@ -232,7 +393,7 @@ public class OrderSearchService {
     /**
      * 执行高级搜索
      */
-    private List<Order> executeAdvancedSearch(OrderQueryDTO queryDTO) {
+    private List<Order> executeAdvancedSearch(OrderQueryDTO queryDTO, int limit) {
         // 计算分页参数
         int offset = (queryDTO.getPage() - 1) * queryDTO.getSize();
         
@@ -244,58 +405,58 @@ public class OrderSearchService {
             queryDTO.getStartDate(),
             queryDTO.getEndDate(),
             offset,
-            queryDTO.getSize()
+            limit
         );
     }
     
     /**
      * 统计高级搜索结果数量
      */
-    private int countAdvancedSearch(OrderQueryDTO queryDTO) {
-        return orderMapper.countOrders(
+    private CountResult countAdvancedSearch(OrderQueryDTO queryDTO, CountMode mode) {
+        Map<String, Object> criteria = new HashMap<>();
+        criteria.put("keyword", queryDTO.getKeyword());
+        criteria.put("type", queryDTO.getType());
+        criteria.put("status", queryDTO.getStatus());
+        criteria.put("startDate", queryDTO.getStartDate());
+        criteria.put("endDate", queryDTO.getEndDate());
+        return resultCountService.count(ORDER_SEARCH_ENDPOINT, mode, criteria, "orders", () -> orderMapper.countOrders(
             queryDTO.getKeyword(),
             queryDTO.getType(),
             queryDTO.getStatus(),
             queryDTO.getStartDate(),
             queryDTO.getEndDate()
-        );
+        ));
     }
     
     /**
      * 生成搜索统计信息
      */
-    private SearchStatistics generateSearchStatistics(List<Order> orders, OrderQueryDTO queryDTO) {
+    private SearchStatistics generateSearchStatistics(OrderFacets facets, OrderQueryDTO queryDTO) {
         SearchStatistics statistics = new SearchStatistics();
         
-        if (orders.isEmpty()) {
+        if (facets.getMatchedCount() == 0) {
             return statistics;
         }
         
-        // 按状态统计
+        // 状态、类型分面不应用自身筛选，统计信息只保留符合筛选条件的值
         Map<String, Integer> statusCount = new HashMap<>();
+        facets.getStatuses().forEach((status, count) -> {
+            if (queryDTO.getStatus() == null || queryDTO.getStatus().isEmpty() || queryDTO.getStatus().equals(status)) {
+                statusCount.put(status, count.intValue());
+            }
+        });
         Map<String, Integer> typeCount = new HashMap<>();
-        BigDecimal totalAmount = BigDecimal.ZERO;
-        
-        for (Order order : orders) {
-            // 状态统计
-            String status = order.getStatus() != null ? order.getStatus().getCode() : "unknown";
-            statusCount.put(status, statusCount.getOrDefault(status, 0) + 1);
-            
-            // 类型统计
-            String type = order.getType() != null ? order.getType().getCode() : "unknown";
-            typeCount.put(type, typeCount.getOrDefault(type, 0) + 1);
-            
-            // 金额统计
-            if (order.getTotalAmount() != null) {
-                totalAmount = totalAmount.add(order.getTotalAmount());
+        facets.getTypes().forEach((type, count) -> {
+            if (queryDTO.getType() == null || queryDTO.getType().isEmpty() || queryDTO.getType().equals(type)) {
+                typeCount.put(type, count.intValue());
             }
-        }
+        });
         
         statistics.setStatusCount(statusCount);
         statistics.setTypeCount(typeCount);
-        statistics.setTotalAmount(totalAmount);
-        statistics.setAverageAmount(orders.size() > 0 ? 
-            totalAmount.divide(new BigDecimal(orders.size()), 2, BigDecimal.ROUND_HALF_UP) : BigDecimal.ZERO);
+        statistics.setTotalAmount(facets.getMatchedAmount());
+        statistics.setAverageAmount(facets.getMatchedAmount()
+            .divide(BigDecimal.valueOf(facets.getMatchedCount()), 2, RoundingMode.HALF_UP));
         
         return statistics;
     }
@@ -303,7 +464,7 @@ public class OrderSearchService {
     /**
      * 生成搜索建议
      */
-    private List<SearchSuggestion> generateSearchSuggestions(OrderQueryDTO queryDTO, int total) {
+    private List<SearchSuggestion> generateSearchSuggestions(OrderQueryDTO queryDTO, long total) {
         List<SearchSuggestion> suggestions = new ArrayList<>();
         
         if (total == 0) {
@@ -321,69 +482,6 @@ public class OrderSearchService {
         return suggestions;
     }
     
-    /**
-     * 获取可用的订单类型
-     */
-    private List<String> getAvailableOrderTypes(OrderQueryDTO queryDTO) {
-        // TODO: 从数据库查询实际可用的订单类型
-        List<String> types = new ArrayList<>();
-        types.add("sales");
-        types.add("rental");
-        return types;
-    }
-    
-    /**
-     * 获取可用的订单状态
-     */
-    private List<String> getAvailableOrderStatuses(OrderQueryDTO queryDTO) {
-        // TODO: 从数据库查询实际可用的订单状态
-        List<String> statuses = new ArrayList<>();
-        statuses.add("pending");
-        statuses.add("confirmed");
-        statuses.add("processing");
-        statuses.add("shipped");
-        statuses.add("delivered");
-        statuses.add("completed");
-        statuses.add("cancelled");
-        return statuses;
-    }
-    
-    /**
-     * 获取可用的支付状态
-     */
-    private List<String> getAvailablePaymentStatuses(OrderQueryDTO queryDTO) {
-        List<String> statuses = new ArrayList<>();
-        statuses.add("pending");
-        statuses.add("paid");
-        statuses.add("failed");
-        statuses.add("refunded");
-        return statuses;
-    }
-    
-    /**
-     * 获取可用的销售人员
-     */
-    private List<String> getAvailableSalesPersons(OrderQueryDTO queryDTO) {
-        // TODO: 从数据库查询实际的销售人员列表
-        List<String> salesPersons = new ArrayList<>();
-        salesPersons.add("张三");
-        salesPersons.add("李四");
-        salesPersons.add("王五");
-        return salesPersons;
-    }
-    
-    /**
-     * 获取金额范围建议
-     */
-    private List<AmountRange> getAmountRangeSuggestions(OrderQueryDTO queryDTO) {
-        List<AmountRange> ranges = new ArrayList<>();
-        ranges.add(new AmountRange("0-1000", new BigDecimal("0"), new BigDecimal("1000")));
-        ranges.add(new AmountRange("1000-5000", new BigDecimal("1000"), new BigDecimal("5000")));
-        ranges.add(new AmountRange("5000-10000", new BigDecimal("5000"), new BigDecimal("10000")));
-        ranges.add(new AmountRange("10000+", new BigDecimal("10000"), null));
-        return ranges;
-    }
-    
     /**
      * 获取日期范围建议
      */
@@ -417,8 +515,12 @@ public class OrderSearchService {
      */
     public static class AdvancedSearchResult {
         private List<OrderDTO> orders;
-        private int total;
+        private Long total;
+        private boolean totalExact;
+        private String countMode;
+        private boolean hasMore;
         private SearchStatistics statistics;
+        private OrderFacets facets;
         private List<SearchSuggestion> suggestions;
         private long queryTime;
         
@@ -426,12 +528,24 @@ public class OrderSearchService {
         public List<OrderDTO> getOrders() { return orders; }
         public void setOrders(List<OrderDTO> orders) { this.orders = orders; }
         
-        public int getTotal() { return total; }
-        public void setTotal(int total) { this.total = total; }
+        public Long getTotal() { return total; }
+        public void setTotal(Long total) { this.total = total; }
+        
+        public boolean isTotalExact() { return totalExact; }
+        public void setTotalExact(boolean totalExact) { this.totalExact = totalExact; }
+        
+        public String getCountMode() { return countMode; }
+        public void setCountMode(String countMode) { this.countMode = countMode; }
+        
+        public boolean isHasMore() { return hasMore; }
+        public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
         
         public SearchStatistics getStatistics() { return statistics; }
         public void setStatistics(SearchStatistics statistics) { this.statistics = statistics; }
         
+        public OrderFacets getFacets() { return facets; }
+        public void setFacets(OrderFacets facets) { this.facets = facets; }
+        
         public List<SearchSuggestion> getSuggestions() { return suggestions; }
         public void setSuggestions(List<SearchSuggestion> suggestions) { this.suggestions = suggestions; }
         
@@ -491,6 +605,7 @@ public class OrderSearchService {
         private List<String> availableSalesPersons = new ArrayList<>();
         private List<AmountRange> amountRangeSuggestions = new ArrayList<>();
         private List<DateRange> dateRangeSuggestions = new ArrayList<>();
+        private OrderFacets facets = new OrderFacets();
         
         // Getter和Setter方法
         public List<String> getAvailableTypes() { return availableTypes; }
@@ -510,6 +625,9 @@ public class OrderSearchService {
         
         public List<DateRange> getDateRangeSuggestions() { return dateRangeSuggestions; }
         public void setDateRangeSuggestions(List<DateRange> dateRangeSuggestions) { this.dateRangeSuggestions = dateRangeSuggestions; }
+        
+        public OrderFacets getFacets() { return facets; }
+        public void setFacets(OrderFacets facets) { this.facets = facets; }
     }
     
     /**
@@ -565,16 +683,28 @@ public class OrderSearchService {
      */
     public static class SearchHistory {
         private String query;
+        private OrderQueryDTO criteria;
         private LocalDate searchDate;
+        private LocalDateTime searchedAt;
         private int resultCount;
+        private int searchCount;
         
         public String getQuery() { return query; }
         public void setQuery(String query) { this.query = query; }
         
+        public OrderQueryDTO getCriteria() { return criteria; }
+        public void setCriteria(OrderQueryDTO criteria) { this.criteria = criteria; }
+        
         public LocalDate getSearchDate() { return searchDate; }
         public void setSearchDate(LocalDate searchDate) { this.searchDate = searchDate; }
         
+        public LocalDateTime getSearchedAt() { return searchedAt; }
+        public void setSearchedAt(LocalDateTime searchedAt) { this.searchedAt = searchedAt; }
+        
         public int getResultCount() { return resultCount; }
         public void setResultCount(int resultCount) { this.resultCount = resultCount; }
+        
+        public int getSearchCount() { return searchCount; }
+        public void setSearchCount(int searchCount) { this.searchCount = searchCount; }
     }
 }
\ No newline at end of file
@@ -6,6 +6,8 @@ import com.yxrobot.mapper.*;
 import com.yxrobot.validator.OrderFormValidator;
 import com.yxrobot.validator.DataIntegrityValidator;
 import com.yxrobot.exception.OrderException;
+import com.yxrobot.util.PageCursor;
+import com.yxrobot.util.TransactionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -45,6 +47,12 @@ public class OrderService {
 
     @Autowired
     private DataIntegrityValidator dataIntegrityValidator;
+    
+    @Autowired
+    private AutocompleteIndex autocompleteIndex;
+    
+    @Autowired
+    private OrderSearchCacheInvalidator orderSearchCacheInvalidator;
 
     /**
      * 分页查询订单列表，支持搜索和筛选
@@ -84,6 +92,47 @@ public class OrderService {
         return new OrderQueryResult(orderDTOs, total);
     }
 
+    /**
+     * 游标分页查询订单列表，按创建时间倒序
+     * 使用 queryDTO 中的关键词、类型、状态和日期筛选，忽略页码和排序字段
+     * 
+     * @param queryDTO 查询条件，size 为每页数量
+     * @param cursor 上一页返回的游标，第一页传null
+     * @param includeTotal 是否统计总数
+     * @return 订单列表和下一页游标
+     */
+    public CursorPage<OrderDTO> getOrdersByCursor(OrderQueryDTO queryDTO, String cursor, boolean includeTotal) {
+        int size = queryDTO.getSize() != null && queryDTO.getSize() > 0 ? queryDTO.getSize() : 10;
+        PageCursor position = PageCursor.decode(cursor);
+        
+        // 多取一行用于判断是否还有下一页
+        List<Order> orders = orderMapper.selectOrdersByCursor(
+            queryDTO.getKeyword(),
+            queryDTO.getType(),
+            queryDTO.getStatus(),
+            queryDTO.getStartDate(),
+            queryDTO.getEndDate(),
+            position != null ? position.getSortValue() : null,
+            position != null ? position.getId() : null,
+            size + 1
+        );
+        
+        CursorPage<OrderDTO> result = CursorPage
+            .fromRows(orders, size, Order::getCreatedAt, Order::getId)
+            .map(this::convertToOrderDTO);
+        
+        if (includeTotal) {
+            result.setTotal((long) orderMapper.countOrders(
+                queryDTO.getKeyword(),
+                queryDTO.getType(),
+                queryDTO.getStatus(),
+                queryDTO.getStartDate(),
+                queryDTO.getEndDate()
+            ));
+        }
+        return result;
+    }
+
     /**
      * 根据ID查询订单详情
      * 
@@ -168,6 +217,8 @@ public class OrderService {
         
             // 记录操作日志
             logOrderAction(order.getId(), "创建订单", "admin", "订单创建成功");
+            autocompleteIndex.refreshAfterCommit(AutocompleteIndex.ORDER, order.getId());
+            TransactionUtils.afterCommit(orderSearchCacheInvalidator::invalidateAll);
             
             return convertToOrderDTO(order);
         } catch (Exception e) {
@@ -253,6 +304,8 @@ public class OrderService {
         
             // 记录操作日志
             logOrderAction(orderId, "更新订单", "admin", "订单信息更新成功");
+            autocompleteIndex.refreshAfterCommit(AutocompleteIndex.ORDER, orderId);
+            TransactionUtils.afterCommit(orderSearchCacheInvalidator::invalidateAll);
             
             return convertToOrderDTO(existingOrder);
         } catch (Exception e) {
@@ -280,6 +333,8 @@ public class OrderService {
         
         // 记录操作日志
         logOrderAction(orderId, "删除订单", "admin", "订单已删除");
+        autocompleteIndex.refreshAfterCommit(AutocompleteIndex.ORDER, orderId);
+        TransactionUtils.afterCommit(orderSearchCacheInvalidator::invalidateAll);
     }
 
     /**
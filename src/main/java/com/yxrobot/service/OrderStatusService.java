@@ -3,6 +3,7 @@ package com.yxrobot.service;
 import com.yxrobot.dto.OrderStatusUpdateDTO;
 import com.yxrobot.entity.*;
 import com.yxrobot.mapper.*;
+import com.yxrobot.util.TransactionUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,6 +25,9 @@ public class OrderStatusService {
     @Autowired
     private OrderLogMapper orderLogMapper;
 
+    @Autowired
+    private OrderSearchCacheInvalidator orderSearchCacheInvalidator;
+
     /**
      * 更新单个订单状态
      * 
@@ -54,6 +58,7 @@ public class OrderStatusService {
         if (result > 0) {
             // 记录操作日志
             logStatusChange(orderId, currentStatus.getCode(), newStatus, operator, notes);
+            TransactionUtils.afterCommit(orderSearchCacheInvalidator::invalidateAll);
             return true;
         }
         return false;
@@ -125,6 +130,10 @@ public class OrderStatusService {
             }
         }
 
+        if (!successIds.isEmpty()) {
+            TransactionUtils.afterCommit(orderSearchCacheInvalidator::invalidateAll);
+        }
+
         result.setSuccessCount(successIds.size());
         result.setFailedCount(failedIds.size());
         result.setSuccessIds(successIds);
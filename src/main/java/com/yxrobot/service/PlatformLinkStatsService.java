@@ -28,6 +28,9 @@ public class PlatformLinkStatsService {
     @Autowired
     private PlatformLinkMapper platformLinkMapper;
     
+    @Autowired
+    private LinkClickRollupService rollupService;
+    
     /**
      * 获取平台链接统计数据
      * 包含基础统计、表现最佳链接、地区统计、语言统计等
@@ -237,6 +240,19 @@ public class PlatformLinkStatsService {
                     .collect(Collectors.toList());
             chartData.put("conversionRanking", conversionRankingData);
             
+            // 近7天点击趋势（读取点击日汇总）
+            List<Map<String, Object>> clickTrendData = rollupService.getClickTrends(null, 7).stream()
+                    .sorted(java.util.Comparator.comparing(data -> String.valueOf(data.get("date"))))
+                    .map(data -> {
+                        Map<String, Object> item = new java.util.HashMap<>();
+                        item.put("name", String.valueOf(data.get("date")));
+                        item.put("value", data.get("clickCount"));
+                        item.put("uniqueVisitors", data.get("uniqueVisitors"));
+                        return item;
+                    })
+                    .collect(Collectors.toList());
+            chartData.put("clickTrend", clickTrendData);
+            
             logger.info("获取图表数据完成 - 地区: {}, 语言: {}, 排行: {}", 
                        regionChartData.size(), languageChartData.size(), clickRankingData.size());
             
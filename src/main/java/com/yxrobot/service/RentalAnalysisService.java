@@ -32,6 +32,9 @@ public class RentalAnalysisService {
     @Autowired
     private RentalDeviceMapper rentalDeviceMapper;
     
+    @Autowired
+    private RentalFactService rentalFactService;
+    
     /**
      * 获取租赁趋势图表数据
      * 支持前端租赁趋势分析图表（收入+订单数+利用率）
@@ -68,7 +71,7 @@ public class RentalAnalysisService {
             }
             
             // 查询趋势数据
-            List<RentalTrendDTO> trendData = rentalRecordMapper.selectRentalTrends(startDate, endDate, period);
+            List<RentalTrendDTO> trendData = selectRentalTrends(startDate, endDate, period);
             
             // 构建ECharts格式数据
             Map<String, Object> chartData = new HashMap<>();
@@ -123,7 +126,7 @@ public class RentalAnalysisService {
      * 获取分布图表数据
      * 支持地区分布、设备型号分析等图表
      * 
-     * @param type 分布类型（region、device-model、utilization-ranking）
+     * @param type 分布类型（region、channel、device-model、utilization-ranking）
      * @param startDate 开始日期
      * @param endDate 结束日期
      * @return ECharts格式的图表数据
@@ -138,6 +141,9 @@ public class RentalAnalysisService {
                 case "region":
                     chartData = getRegionDistributionData(startDate, endDate);
                     break;
+                case "channel":
+                    chartData = getChannelDistributionData(startDate, endDate);
+                    break;
                 case "device-model":
                     chartData = getDeviceModelDistributionData();
                     break;
@@ -169,7 +175,11 @@ public class RentalAnalysisService {
      * 获取地区分布图表数据
      */
     private Map<String, Object> getRegionDistributionData(LocalDate startDate, LocalDate endDate) {
-        List<Map<String, Object>> regionData = rentalRecordMapper.selectRegionDistribution(startDate, endDate);
+        List<Map<String, Object>> regionData = rentalFactService.getDistribution(
+            RentalFactService.DIMENSION_REGION, startDate, endDate, 10);
+        if (regionData == null) {
+            regionData = rentalRecordMapper.selectRegionDistribution(startDate, endDate);
+        }
         
         Map<String, Object> chartData = new HashMap<>();
         
@@ -195,6 +205,44 @@ public class RentalAnalysisService {
         return chartData;
     }
     
+    /**
+     * 获取渠道分布图表数据
+     */
+    private Map<String, Object> getChannelDistributionData(LocalDate startDate, LocalDate endDate) {
+        List<Map<String, Object>> channelData = rentalFactService.getDistribution(
+            RentalFactService.DIMENSION_CHANNEL, startDate, endDate, 0);
+        if (channelData == null) {
+            channelData = rentalRecordMapper.selectChannelAnalysis(startDate, endDate);
+        }
+        
+        Map<String, Object> chartData = new HashMap<>();
+        
+        if (channelData != null && !channelData.isEmpty()) {
+            List<String> categories = channelData.stream()
+                .map(item -> (String) item.get("channel"))
+                .toList();
+            
+            List<Map<String, Object>> series = List.of(
+                Map.of(
+                    "name", "租赁收入",
+                    "data", channelData.stream().map(item -> item.get("revenue")).toList()
+                ),
+                Map.of(
+                    "name", "订单数量",
+                    "data", channelData.stream().map(item -> item.get("orderCount")).toList()
+                )
+            );
+            
+            chartData.put("categories", categories);
+            chartData.put("series", series);
+        } else {
+            chartData.put("categories", List.of());
+            chartData.put("series", List.of());
+        }
+        
+        return chartData;
+    }
+    
     /**
      * 获取设备型号分布图表数据
      */
@@ -398,7 +446,7 @@ public class RentalAnalysisService {
             }
             
             // 查询趋势数据
-            List<RentalTrendDTO> trendData = rentalRecordMapper.selectRentalTrends(startDate, endDate, period);
+            List<RentalTrendDTO> trendData = selectRentalTrends(startDate, endDate, period);
             
             ChartDataDTO chartData = new ChartDataDTO();
             chartData.setTitle("租赁趋势分析");
@@ -460,4 +508,12 @@ public class RentalAnalysisService {
             return emptyData;
         }
     }
+    
+    /**
+     * 查询租赁趋势，日事实已加载时从日事实计算，否则回退到数据库聚合
+     */
+    private List<RentalTrendDTO> selectRentalTrends(LocalDate startDate, LocalDate endDate, String period) {
+        List<RentalTrendDTO> trends = rentalFactService.getTrends(startDate, endDate, period);
+        return trends != null ? trends : rentalRecordMapper.selectRentalTrends(startDate, endDate, period);
+    }
 }
\ No newline at end of file
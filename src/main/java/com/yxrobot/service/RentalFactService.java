@@ -0,0 +1,713 @@
+package com.yxrobot.service;
+
+import com.yxrobot.dto.RentalTrendDTO;
+import com.yxrobot.entity.RentalDailyFact;
+import com.yxrobot.entity.RentalDevice;
+import com.yxrobot.entity.RentalRecord;
+import com.yxrobot.enums.RentalStatus;
+import com.yxrobot.mapper.RentalDeviceMapper;
+import com.yxrobot.mapper.RentalFactMapper;
+import com.yxrobot.util.LongIntHashMap;
+import com.yxrobot.util.TransactionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * 租赁日事实服务类
+ * 维护按租赁开始日期、地区（交付地址）、渠道（交付方式）、设备型号汇总的日事实表，以及按日期、设备汇总订单数的
+ * 设备日事实表。租赁统计和趋势/分布图表从内存中的日事实计算，周、月视图由日事实合并得到，
+ * 计算量只与天数和维度组合数有关，与租赁记录数无关。
+ *
+ * 租赁记录写入时调用 {@link #recordChanged(RentalRecord, RentalRecord)}，在调用方事务中累加事实表增量，
+ * 提交后更新内存。租赁设备数按天保存设备位图，日期范围内取并集得到去重数量。
+ * {@link #rebuildFacts(LocalDate, LocalDate)} 按租赁记录重建，用于回填和每日校准。
+ * 加载完成前查询方法返回null，由调用方回退到数据库聚合。
+ *
+ * @author YXRobot开发团队
+ * @version 1.0
+ * @since 2025-03-07
+ */
+@Service
+public class RentalFactService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RentalFactService.class);
+
+    public static final String DIMENSION_REGION = "region";
+    public static final String DIMENSION_CHANNEL = "channel";
+    public static final String DIMENSION_DEVICE_MODEL = "device-model";
+
+    static final String UNKNOWN_REGION = "未知地区";
+    static final String UNKNOWN_CHANNEL = "未知渠道";
+    static final String UNKNOWN_MODEL = "未知型号";
+
+    /** 地区取交付地址的前500个字符，与事实表字段长度一致 */
+    private static final int MAX_REGION_LENGTH = 500;
+
+    /** 加载期间有增量提交时重新加载的最大次数 */
+    private static final int MAX_RELOAD_ATTEMPTS = 3;
+
+    private static final BigDecimal ACTIVE_UTILIZATION = new BigDecimal("80.0");
+    private static final BigDecimal COMPLETED_UTILIZATION = new BigDecimal("75.0");
+    private static final BigDecimal OTHER_UTILIZATION = new BigDecimal("60.0");
+
+    @Autowired
+    private RentalFactMapper rentalFactMapper;
+
+    @Autowired
+    private RentalDeviceMapper rentalDeviceMapper;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private FactTable table = new FactTable();
+
+    private boolean reloading;
+
+    private boolean changedDuringReload;
+
+    private volatile boolean ready;
+
+    /**
+     * 应用启动后加载日事实，事实表为空时先按全部租赁记录重建
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        warmUp();
+    }
+
+    /**
+     * 加载日事实
+     *
+     * @return 加载的天数，失败返回-1
+     */
+    public int warmUp() {
+        try {
+            if (rentalFactMapper.countDailyFacts() == 0) {
+                int rows = rebuildFromRecords(null, null);
+                logger.info("租赁日事实表为空，已按全部租赁记录重建: {}行", rows);
+            }
+        } catch (Exception e) {
+            logger.error("租赁日事实表初始化失败，租赁统计回退到数据库聚合", e);
+            return -1;
+        }
+        return reload();
+    }
+
+    /**
+     * 从事实表重新加载内存中的日事实，加载完成后整体替换
+     *
+     * @return 加载的天数，失败返回-1
+     */
+    public synchronized int reload() {
+        long start = System.currentTimeMillis();
+        for (int attempt = 1; ; attempt++) {
+            setReloading(true);
+            FactTable fresh = new FactTable();
+            try {
+                rentalFactMapper.selectDailyFacts(context -> fresh.addFact(context.getResultObject()));
+                rentalFactMapper.selectDeviceFacts(context -> {
+                    RentalDailyFact fact = context.getResultObject();
+                    fresh.addDevice(fact.getStatDate(), fact.getDeviceId(), fact.getOrderCount());
+                });
+            } catch (Exception e) {
+                setReloading(false);
+                logger.error("加载租赁日事实失败，租赁统计回退到数据库聚合", e);
+                return -1;
+            }
+
+            boolean changed;
+            lock.writeLock().lock();
+            try {
+                table = fresh;
+                changed = changedDuringReload;
+                reloading = false;
+                changedDuringReload = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            // 加载期间提交的增量没有写入内存，且可能未被读到，重新加载一次
+            if (changed && attempt < MAX_RELOAD_ATTEMPTS) {
+                continue;
+            }
+            ready = true;
+            logger.info("加载租赁日事实完成 - 天数: {}, 耗时: {}ms", fresh.days.size(), System.currentTimeMillis() - start);
+            return fresh.days.size();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 租赁记录新增、修改、归还或删除后累加事实表增量，在调用方事务中执行，提交后更新内存。
+     * 写入失败时异常抛给调用方，与租赁记录一起回滚（失败后事务已不可用，不能只记录日志后继续提交）。
+     *
+     * @param before 修改前的记录，新增时为null
+     * @param after 修改后的记录，删除时为null
+     */
+    public void recordChanged(RentalRecord before, RentalRecord after) {
+        Map<Long, String> models = new HashMap<>();
+        FactDelta delta = new FactDelta();
+        delta.add(before, deviceModel(before, models), -1);
+        delta.add(after, deviceModel(after, models), 1);
+        if (delta.isEmpty()) {
+            return;
+        }
+
+        List<RentalDailyFact> dailyRows = delta.toDailyRows();
+        if (!dailyRows.isEmpty()) {
+            rentalFactMapper.upsertDailyFacts(dailyRows);
+        }
+        List<RentalDailyFact> deviceRows = delta.toDeviceRows();
+        if (!deviceRows.isEmpty()) {
+            rentalFactMapper.upsertDeviceFacts(deviceRows);
+        }
+        TransactionUtils.afterCommit(() -> apply(delta));
+    }
+
+    /**
+     * 按租赁记录重建日期范围内的日事实，提交后重新加载内存
+     *
+     * @param startDate 开始日期（含），为null时不限
+     * @param endDate 结束日期（含），为null时不限
+     * @return 重建的日事实行数
+     */
+    @Transactional
+    public int rebuildFacts(LocalDate startDate, LocalDate endDate) {
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("日期范围无效");
+        }
+        logger.info("开始重建租赁日事实 - 日期: {} ~ {}", startDate, endDate);
+        int rows = rebuildFromRecords(startDate, endDate);
+        TransactionUtils.afterCommit(this::reload);
+        logger.info("重建租赁日事实完成 - 日期: {} ~ {}, 日事实: {}行", startDate, endDate, rows);
+        return rows;
+    }
+
+    /**
+     * 获取租赁统计，字段与 selectRentalStats 一致
+     *
+     * @param startDate 开始日期（含），为null时不限
+     * @param endDate 结束日期（含），为null时不限
+     * @return 统计数据，未加载完成时返回null
+     */
+    public Map<String, Object> getRentalStats(LocalDate startDate, LocalDate endDate) {
+        if (!ready) {
+            return null;
+        }
+        Bucket total = new Bucket();
+        lock.readLock().lock();
+        try {
+            for (DayFacts day : table.range(startDate, endDate).values()) {
+                total.add(day);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalRentalRevenue", total.measures.revenue);
+        stats.put("totalRentalOrders", total.measures.orders);
+        stats.put("totalRentalDevices", (long) total.devices.cardinality());
+        stats.put("activeRentalDevices", total.measures.active);
+        stats.put("averageRentalPeriod", average(BigDecimal.valueOf(total.measures.rentalDays), total.measures.orders, 4));
+        stats.put("averageOrderValue", average(total.measures.revenue, total.measures.orders, 6));
+        return stats;
+    }
+
+    /**
+     * 获取单日概览，字段与 selectTodayStats 一致
+     *
+     * @param date 日期
+     * @return 概览数据（revenue、orders、activeDevices、avgUtilization），未加载完成时返回null
+     */
+    public Map<String, Object> getDayStats(LocalDate date) {
+        if (!ready) {
+            return null;
+        }
+        Bucket bucket = new Bucket();
+        lock.readLock().lock();
+        try {
+            DayFacts day = table.days.get(date);
+            if (day != null) {
+                bucket.add(day);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("revenue", bucket.measures.revenue);
+        stats.put("orders", bucket.measures.orders);
+        stats.put("activeDevices", (long) bucket.devices.cardinality());
+        stats.put("avgUtilization", bucket.measures.utilization());
+        return stats;
+    }
+
+    /**
+     * 获取租赁趋势，周期与 selectRentalTrends 一致：daily 按天、weekly 按周（yyyy-ww，周一为一周第一天）、
+     * monthly 按月，其他周期按天
+     *
+     * @param startDate 开始日期（含），为null时不限
+     * @param endDate 结束日期（含），为null时不限
+     * @param period 时间周期
+     * @return 按日期升序的趋势数据，未加载完成时返回null
+     */
+    public List<RentalTrendDTO> getTrends(LocalDate startDate, LocalDate endDate, String period) {
+        if (!ready) {
+            return null;
+        }
+        Function<LocalDate, String> bucketKey = bucketKey(period);
+        Map<String, Bucket> buckets = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            for (Map.Entry<LocalDate, DayFacts> day : table.range(startDate, endDate).entrySet()) {
+                if (day.getValue().isEmpty()) {
+                    continue;
+                }
+                buckets.computeIfAbsent(bucketKey.apply(day.getKey()), key -> new Bucket()).add(day.getValue());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<RentalTrendDTO> trends = new ArrayList<>(buckets.size());
+        for (Map.Entry<String, Bucket> bucket : buckets.entrySet()) {
+            Measures measures = bucket.getValue().measures;
+            if (measures.orders <= 0) {
+                continue;
+            }
+            trends.add(new RentalTrendDTO(bucket.getKey(), measures.revenue, (int) measures.orders,
+                                          bucket.getValue().devices.cardinality(), measures.utilization()));
+        }
+        return trends;
+    }
+
+    /**
+     * 按维度获取收入和订单分布，按收入倒序
+     *
+     * @param dimension 维度：region、channel、device-model
+     * @param startDate 开始日期（含），为null时不限
+     * @param endDate 结束日期（含），为null时不限
+     * @param limit 返回条数，不大于0时不限
+     * @return 分布数据（维度名、revenue、orderCount），未加载完成时返回null
+     */
+    public List<Map<String, Object>> getDistribution(String dimension, LocalDate startDate, LocalDate endDate,
+                                                     int limit) {
+        if (!ready) {
+            return null;
+        }
+        Function<FactKey, String> valueOf;
+        String nameKey;
+        switch (dimension) {
+            case DIMENSION_REGION:
+                valueOf = key -> key.region;
+                nameKey = "region";
+                break;
+            case DIMENSION_CHANNEL:
+                valueOf = key -> key.channel;
+                nameKey = "channel";
+                break;
+            case DIMENSION_DEVICE_MODEL:
+                valueOf = key -> key.deviceModel;
+                nameKey = "deviceModel";
+                break;
+            default:
+                throw new IllegalArgumentException("未知的维度: " + dimension);
+        }
+
+        Map<String, Measures> groups = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (DayFacts day : table.range(startDate, endDate).values()) {
+                for (Map.Entry<FactKey, Measures> fact : day.facts.entrySet()) {
+                    groups.computeIfAbsent(valueOf.apply(fact.getKey()), key -> new Measures()).add(fact.getValue(), 1);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Map.Entry<String, Measures>> sorted = new ArrayList<>(groups.entrySet());
+        sorted.removeIf(group -> group.getValue().orders <= 0);
+        sorted.sort((a, b) -> b.getValue().revenue.compareTo(a.getValue().revenue));
+        if (limit > 0 && sorted.size() > limit) {
+            sorted = sorted.subList(0, limit);
+        }
+        List<Map<String, Object>> result = new ArrayList<>(sorted.size());
+        for (Map.Entry<String, Measures> group : sorted) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put(nameKey, group.getKey());
+            item.put("revenue", group.getValue().revenue);
+            item.put("orderCount", group.getValue().orders);
+            result.add(item);
+        }
+        return result;
+    }
+
+    private int rebuildFromRecords(LocalDate startDate, LocalDate endDate) {
+        rentalFactMapper.deleteDailyFacts(startDate, endDate);
+        rentalFactMapper.deleteDeviceFacts(startDate, endDate);
+        int rows = rentalFactMapper.insertDailyFactsFromRecords(startDate, endDate);
+        rentalFactMapper.insertDeviceFactsFromRecords(startDate, endDate);
+        return rows;
+    }
+
+    private void apply(FactDelta delta) {
+        lock.writeLock().lock();
+        try {
+            if (reloading) {
+                changedDuringReload = true;
+                return;
+            }
+            table.apply(delta);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void setReloading(boolean value) {
+        lock.writeLock().lock();
+        try {
+            reloading = value;
+            changedDuringReload = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private String deviceModel(RentalRecord record, Map<Long, String> models) {
+        if (record == null || record.getDeviceId() == null) {
+            return UNKNOWN_MODEL;
+        }
+        return models.computeIfAbsent(record.getDeviceId(), deviceId -> {
+            RentalDevice device = rentalDeviceMapper.selectById(deviceId);
+            return device != null && device.getDeviceModel() != null ? device.getDeviceModel() : UNKNOWN_MODEL;
+        });
+    }
+
+    private static BigDecimal average(BigDecimal sum, long count, int scale) {
+        if (count <= 0) {
+            return BigDecimal.ZERO;
+        }
+        return sum.divide(BigDecimal.valueOf(count), scale, RoundingMode.HALF_UP);
+    }
+
+    private static Function<LocalDate, String> bucketKey(String period) {
+        if ("weekly".equals(period)) {
+            return date -> String.format("%d-%02d", date.getYear(), weekOfYear(date));
+        }
+        if ("monthly".equals(period)) {
+            return date -> String.format("%d-%02d", date.getYear(), date.getMonthValue());
+        }
+        return LocalDate::toString;
+    }
+
+    /**
+     * 与 MySQL 的 %u（WEEK(date, 1)）一致：周一为一周第一天，包含4天及以上的第一周为第1周，
+     * 之前的日期为第0周，不跨年
+     */
+    static int weekOfYear(LocalDate date) {
+        LocalDate firstDay = date.withDayOfYear(1);
+        int offset = firstDay.getDayOfWeek().getValue() - DayOfWeek.MONDAY.getValue();
+        long week = ChronoUnit.DAYS.between(firstDay.minusDays(offset), date) / 7;
+        return (int) (offset <= 3 ? week + 1 : week);
+    }
+
+    /**
+     * 地区、渠道、设备型号维度，与事实表重建SQL中的取值规则一致
+     */
+    static FactKey factKey(RentalRecord record, String deviceModel) {
+        String region = record.getDeliveryAddress() != null ? record.getDeliveryAddress() : UNKNOWN_REGION;
+        if (region.length() > MAX_REGION_LENGTH) {
+            region = region.substring(0, MAX_REGION_LENGTH);
+        }
+        String channel = record.getDeliveryMethod() != null ? record.getDeliveryMethod() : UNKNOWN_CHANNEL;
+        return new FactKey(region, channel, deviceModel);
+    }
+
+    /**
+     * 日事实维度
+     */
+    static final class FactKey {
+
+        final String region;
+
+        final String channel;
+
+        final String deviceModel;
+
+        FactKey(String region, String channel, String deviceModel) {
+            this.region = region;
+            this.channel = channel;
+            this.deviceModel = deviceModel;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FactKey)) {
+                return false;
+            }
+            FactKey that = (FactKey) o;
+            return region.equals(that.region) && channel.equals(that.channel) && deviceModel.equals(that.deviceModel);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(region, channel, deviceModel);
+        }
+    }
+
+    /**
+     * 可累加的度量
+     */
+    static final class Measures {
+
+        BigDecimal revenue = BigDecimal.ZERO;
+
+        long orders;
+
+        long rentalDays;
+
+        long active;
+
+        long completed;
+
+        void add(Measures other, int sign) {
+            revenue = sign > 0 ? revenue.add(other.revenue) : revenue.subtract(other.revenue);
+            orders += sign * other.orders;
+            rentalDays += sign * other.rentalDays;
+            active += sign * other.active;
+            completed += sign * other.completed;
+        }
+
+        boolean isZero() {
+            return orders == 0 && rentalDays == 0 && active == 0 && completed == 0 && revenue.signum() == 0;
+        }
+
+        /**
+         * 平均利用率：租赁中按80、已完成按75、其他按60计，与原SQL一致
+         */
+        BigDecimal utilization() {
+            if (orders <= 0) {
+                return BigDecimal.ZERO;
+            }
+            BigDecimal sum = ACTIVE_UTILIZATION.multiply(BigDecimal.valueOf(active))
+                .add(COMPLETED_UTILIZATION.multiply(BigDecimal.valueOf(completed)))
+                .add(OTHER_UTILIZATION.multiply(BigDecimal.valueOf(orders - active - completed)));
+            return sum.divide(BigDecimal.valueOf(orders), 5, RoundingMode.HALF_UP);
+        }
+
+        static Measures of(RentalRecord record) {
+            Measures measures = new Measures();
+            measures.revenue = record.getTotalRentalFee() != null ? record.getTotalRentalFee() : BigDecimal.ZERO;
+            measures.orders = 1;
+            measures.rentalDays = record.getRentalPeriod() != null ? record.getRentalPeriod() : 0;
+            measures.active = record.getRentalStatus() == RentalStatus.ACTIVE ? 1 : 0;
+            measures.completed = record.getRentalStatus() == RentalStatus.COMPLETED ? 1 : 0;
+            return measures;
+        }
+    }
+
+    /**
+     * 一次写入产生的事实增量
+     */
+    static final class FactDelta {
+
+        final Map<LocalDate, Map<FactKey, Measures>> facts = new TreeMap<>();
+
+        final Map<LocalDate, Map<Long, Integer>> devices = new TreeMap<>();
+
+        void add(RentalRecord record, String deviceModel, int sign) {
+            if (record == null || Boolean.TRUE.equals(record.getIsDeleted()) || record.getRentalStartDate() == null) {
+                return;
+            }
+            LocalDate date = record.getRentalStartDate();
+            Map<FactKey, Measures> dayFacts = facts.computeIfAbsent(date, key -> new HashMap<>());
+            FactKey key = factKey(record, deviceModel);
+            Measures measures = dayFacts.computeIfAbsent(key, k -> new Measures());
+            measures.add(Measures.of(record), sign);
+            if (measures.isZero()) {
+                dayFacts.remove(key);
+            }
+            if (record.getDeviceId() != null) {
+                Map<Long, Integer> dayDevices = devices.computeIfAbsent(date, k -> new HashMap<>());
+                if (dayDevices.merge(record.getDeviceId(), sign, Integer::sum) == 0) {
+                    dayDevices.remove(record.getDeviceId());
+                }
+            }
+        }
+
+        boolean isEmpty() {
+            return facts.values().stream().allMatch(Map::isEmpty) && devices.values().stream().allMatch(Map::isEmpty);
+        }
+
+        List<RentalDailyFact> toDailyRows() {
+            List<RentalDailyFact> rows = new ArrayList<>();
+            for (Map.Entry<LocalDate, Map<FactKey, Measures>> day : facts.entrySet()) {
+                for (Map.Entry<FactKey, Measures> fact : day.getValue().entrySet()) {
+                    RentalDailyFact row = new RentalDailyFact();
+                    row.setStatDate(day.getKey());
+                    row.setRegion(fact.getKey().region);
+                    row.setChannel(fact.getKey().channel);
+                    row.setDeviceModel(fact.getKey().deviceModel);
+                    row.setRevenue(fact.getValue().revenue);
+                    row.setOrderCount((int) fact.getValue().orders);
+                    row.setRentalDays(fact.getValue().rentalDays);
+                    row.setActiveOrders((int) fact.getValue().active);
+                    row.setCompletedOrders((int) fact.getValue().completed);
+                    rows.add(row);
+                }
+            }
+            return rows;
+        }
+
+        List<RentalDailyFact> toDeviceRows() {
+            List<RentalDailyFact> rows = new ArrayList<>();
+            for (Map.Entry<LocalDate, Map<Long, Integer>> day : devices.entrySet()) {
+                for (Map.Entry<Long, Integer> device : day.getValue().entrySet()) {
+                    RentalDailyFact row = new RentalDailyFact();
+                    row.setStatDate(day.getKey());
+                    row.setDeviceId(device.getKey());
+                    row.setOrderCount(device.getValue());
+                    rows.add(row);
+                }
+            }
+            return rows;
+        }
+    }
+
+    /**
+     * 一天的事实：各维度组合的度量，以及当天有订单的设备（订单数和位图）
+     */
+    static final class DayFacts {
+
+        final Map<FactKey, Measures> facts = new HashMap<>();
+
+        final Map<Long, Integer> deviceOrders = new HashMap<>();
+
+        final BitSet devices = new BitSet();
+
+        boolean isEmpty() {
+            return facts.isEmpty() && deviceOrders.isEmpty();
+        }
+    }
+
+    /**
+     * 合并若干天的度量和设备位图
+     */
+    static final class Bucket {
+
+        final Measures measures = new Measures();
+
+        final BitSet devices = new BitSet();
+
+        void add(DayFacts day) {
+            for (Measures fact : day.facts.values()) {
+                measures.add(fact, 1);
+            }
+            devices.or(day.devices);
+        }
+    }
+
+    /**
+     * 内存中的日事实，设备ID映射为位图下标
+     */
+    static final class FactTable {
+
+        final TreeMap<LocalDate, DayFacts> days = new TreeMap<>();
+
+        final LongIntHashMap deviceIndex = new LongIntHashMap(1024);
+
+        NavigableMap<LocalDate, DayFacts> range(LocalDate startDate, LocalDate endDate) {
+            if (startDate != null && endDate != null) {
+                return startDate.isAfter(endDate) ? new TreeMap<>() : days.subMap(startDate, true, endDate, true);
+            }
+            if (startDate != null) {
+                return days.tailMap(startDate, true);
+            }
+            if (endDate != null) {
+                return days.headMap(endDate, true);
+            }
+            return days;
+        }
+
+        void addFact(RentalDailyFact row) {
+            Measures measures = new Measures();
+            measures.revenue = row.getRevenue() != null ? row.getRevenue() : BigDecimal.ZERO;
+            measures.orders = row.getOrderCount() != null ? row.getOrderCount() : 0;
+            measures.rentalDays = row.getRentalDays() != null ? row.getRentalDays() : 0;
+            measures.active = row.getActiveOrders() != null ? row.getActiveOrders() : 0;
+            measures.completed = row.getCompletedOrders() != null ? row.getCompletedOrders() : 0;
+            addFact(row.getStatDate(), new FactKey(row.getRegion(), row.getChannel(), row.getDeviceModel()), measures, 1);
+        }
+
+        void addFact(LocalDate date, FactKey key, Measures delta, int sign) {
+            Map<FactKey, Measures> facts = days.computeIfAbsent(date, k -> new DayFacts()).facts;
+            Measures measures = facts.computeIfAbsent(key, k -> new Measures());
+            measures.add(delta, sign);
+            if (measures.isZero()) {
+                facts.remove(key);
+            }
+        }
+
+        void addDevice(LocalDate date, Long deviceId, Integer orders) {
+            if (deviceId == null || orders == null) {
+                return;
+            }
+            DayFacts day = days.computeIfAbsent(date, k -> new DayFacts());
+            int index = deviceIndex.get(deviceId);
+            if (index == LongIntHashMap.NO_VALUE) {
+                index = deviceIndex.size();
+                deviceIndex.put(deviceId, index);
+            }
+            int count = day.deviceOrders.merge(deviceId, orders, Integer::sum);
+            if (count > 0) {
+                day.devices.set(index);
+            } else {
+                day.deviceOrders.remove(deviceId);
+                day.devices.clear(index);
+            }
+        }
+
+        void apply(FactDelta delta) {
+            for (Map.Entry<LocalDate, Map<FactKey, Measures>> day : delta.facts.entrySet()) {
+                for (Map.Entry<FactKey, Measures> fact : day.getValue().entrySet()) {
+                    addFact(day.getKey(), fact.getKey(), fact.getValue(), 1);
+                }
+            }
+            for (Map.Entry<LocalDate, Map<Long, Integer>> day : delta.devices.entrySet()) {
+                for (Map.Entry<Long, Integer> device : day.getValue().entrySet()) {
+                    addDevice(day.getKey(), device.getKey(), device.getValue());
+                }
+            }
+        }
+    }
+}
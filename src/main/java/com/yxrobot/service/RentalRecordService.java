@@ -0,0 +1,131 @@
+package com.yxrobot.service;
+
+import com.yxrobot.entity.RentalRecord;
+import com.yxrobot.enums.RentalStatus;
+import com.yxrobot.exception.RentalException;
+import com.yxrobot.mapper.RentalRecordMapper;
+import com.yxrobot.validation.RentalFormValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+/**
+ * 租赁记录服务类
+ * 处理租赁记录的新增、修改、归还和删除，写入后在同一事务中累加租赁日事实
+ *
+ * @author YXRobot开发团队
+ * @version 1.0
+ * @since 2025-03-07
+ */
+@Service
+public class RentalRecordService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RentalRecordService.class);
+
+    @Autowired
+    private RentalRecordMapper rentalRecordMapper;
+
+    @Autowired
+    private RentalFormValidator rentalFormValidator;
+
+    @Autowired
+    private RentalFactService rentalFactService;
+
+    /**
+     * 新增租赁记录
+     *
+     * @param record 租赁记录
+     * @return 新增后的租赁记录
+     */
+    @Transactional
+    public RentalRecord createRentalRecord(RentalRecord record) {
+        rentalFormValidator.validateAndThrow(rentalFormValidator.validateRentalRecordForm(record), "租赁记录");
+        if (record.getRentalStatus() == null) {
+            record.setRentalStatus(RentalStatus.PENDING);
+        }
+        record.setIsDeleted(false);
+        rentalRecordMapper.insert(record);
+        rentalFactService.recordChanged(null, record);
+        logger.info("新增租赁记录成功 - ID: {}, 订单号: {}", record.getId(), record.getRentalOrderNumber());
+        return record;
+    }
+
+    /**
+     * 修改租赁记录
+     *
+     * @param id 租赁记录ID
+     * @param record 修改后的租赁记录
+     * @return 修改后的租赁记录
+     */
+    @Transactional
+    public RentalRecord updateRentalRecord(Long id, RentalRecord record) {
+        RentalRecord existing = getExisting(id);
+        record.setId(id);
+        rentalFormValidator.validateAndThrow(rentalFormValidator.validateRentalRecordForm(record), "租赁记录");
+        record.setIsDeleted(false);
+        rentalRecordMapper.updateById(record);
+        rentalFactService.recordChanged(existing, record);
+        logger.info("修改租赁记录成功 - ID: {}", id);
+        return record;
+    }
+
+    /**
+     * 归还租赁设备，租赁记录标记为已完成
+     *
+     * @param id 租赁记录ID
+     * @param returnDate 归还日期，为null时为当天
+     * @param returnCondition 归还状况（可选）
+     * @return 归还后的租赁记录
+     */
+    @Transactional
+    public RentalRecord returnRental(Long id, LocalDate returnDate, String returnCondition) {
+        RentalRecord existing = getExisting(id);
+        if (existing.getRentalStatus() == RentalStatus.COMPLETED) {
+            throw RentalException.rentalAlreadyCompleted(String.valueOf(id));
+        }
+        if (existing.getRentalStatus() == RentalStatus.CANCELLED) {
+            throw RentalException.rentalAlreadyCancelled(String.valueOf(id));
+        }
+
+        RentalRecord returned = rentalRecordMapper.selectById(id);
+        LocalDate date = returnDate != null ? returnDate : LocalDate.now();
+        returned.setRentalStatus(RentalStatus.COMPLETED);
+        returned.setReturnDate(date);
+        returned.setRentalEndDate(date);
+        if (returnCondition != null) {
+            returned.setReturnCondition(returnCondition);
+        }
+        rentalRecordMapper.updateById(returned);
+        rentalFactService.recordChanged(existing, returned);
+        logger.info("归还租赁设备成功 - ID: {}, 归还日期: {}", id, date);
+        return returned;
+    }
+
+    /**
+     * 删除租赁记录（软删除）
+     *
+     * @param id 租赁记录ID
+     */
+    @Transactional
+    public void deleteRentalRecord(Long id) {
+        RentalRecord existing = getExisting(id);
+        rentalRecordMapper.deleteById(id);
+        rentalFactService.recordChanged(existing, null);
+        logger.info("删除租赁记录成功 - ID: {}", id);
+    }
+
+    /**
+     * 加行锁读取修改前的记录，并发修改同一条记录时按顺序执行，保证事实表增量基于最新的旧值
+     */
+    private RentalRecord getExisting(Long id) {
+        RentalRecord existing = id != null ? rentalRecordMapper.selectByIdForUpdate(id) : null;
+        if (existing == null) {
+            throw RentalException.rentalRecordNotFound(String.valueOf(id));
+        }
+        return existing;
+    }
+}
@@ -1,5 +1,6 @@
 package com.yxrobot.service;
 
+import com.yxrobot.cache.RentalCacheService;
 import com.yxrobot.dto.RentalStatsDTO;
 import com.yxrobot.dto.TodayStatsDTO;
 import com.yxrobot.mapper.RentalRecordMapper;
@@ -36,6 +37,12 @@ public class RentalStatsService {
     @Autowired
     private RentalCustomerMapper rentalCustomerMapper;
     
+    @Autowired
+    private RentalCacheService rentalCacheService;
+    
+    @Autowired
+    private RentalFactService rentalFactService;
+    
     /**
      * 获取租赁统计数据
      * 支持前端核心指标卡片显示
@@ -48,57 +55,73 @@ public class RentalStatsService {
         logger.info("开始获取租赁统计数据，时间范围：{} 到 {}", startDate, endDate);
         
         try {
-            // 查询基础统计数据
-            Map<String, Object> statsData = rentalRecordMapper.selectRentalStats(startDate, endDate);
-            
-            // 查询设备状态统计
-            Map<String, Object> deviceStats = rentalDeviceMapper.selectDeviceStatusStats();
-            
-            // 查询客户统计
-            Long activeCustomerCount = rentalCustomerMapper.selectActiveCustomerCount();
+            String cacheKey = rentalCacheService.generateStatsKey(
+                startDate != null ? startDate.toString() : null,
+                endDate != null ? endDate.toString() : null);
             
-            // 创建统计DTO
-            RentalStatsDTO statsDTO = new RentalStatsDTO();
-            
-            // 设置基础统计数据
-            if (statsData != null) {
-                statsDTO.setTotalRentalRevenue(getBigDecimalValue(statsData, "totalRentalRevenue"));
-                statsDTO.setTotalRentalOrders(getIntegerValue(statsData, "totalRentalOrders"));
-                statsDTO.setTotalRentalDevices(getIntegerValue(statsData, "totalRentalDevices"));
-                statsDTO.setActiveRentalDevices(getIntegerValue(statsData, "activeRentalDevices"));
-                statsDTO.setAverageRentalPeriod(getBigDecimalValue(statsData, "averageRentalPeriod"));
-            }
-            
-            // 设置设备统计数据
-            if (deviceStats != null) {
-                Integer activeDevices = getIntegerValue(deviceStats, "active");
-                Integer totalDevices = activeDevices + getIntegerValue(deviceStats, "idle") + getIntegerValue(deviceStats, "maintenance");
-                
-                if (totalDevices > 0) {
-                    BigDecimal utilizationRate = BigDecimal.valueOf(activeDevices)
-                        .multiply(BigDecimal.valueOf(100))
-                        .divide(BigDecimal.valueOf(totalDevices), 2, RoundingMode.HALF_UP);
-                    statsDTO.setDeviceUtilizationRate(utilizationRate);
-                }
-            }
-            
-            // 计算增长率
-            calculateGrowthRates(statsDTO, startDate, endDate);
-            
-            logger.info("租赁统计数据获取成功：总收入={}, 总订单={}, 设备利用率={}%", 
-                       statsDTO.getTotalRentalRevenue(), 
-                       statsDTO.getTotalRentalOrders(),
-                       statsDTO.getDeviceUtilizationRate());
-            
-            return statsDTO;
+            // 并发未命中只执行一次聚合查询，临近过期时后台刷新
+            return rentalCacheService.getStatsCache(cacheKey, () -> calculateRentalStats(startDate, endDate));
             
         } catch (Exception e) {
             logger.error("获取租赁统计数据失败", e);
-            // 返回默认值，避免前端报错
+            // 返回默认值（不写入缓存），避免前端报错
             return new RentalStatsDTO();
         }
     }
     
+    /**
+     * 从数据库聚合租赁统计数据
+     * 
+     * @param startDate 开始日期
+     * @param endDate 结束日期
+     * @return 租赁统计DTO
+     */
+    private RentalStatsDTO calculateRentalStats(LocalDate startDate, LocalDate endDate) {
+        // 查询基础统计数据
+        Map<String, Object> statsData = selectRentalStats(startDate, endDate);
+        
+        // 查询设备状态统计
+        Map<String, Object> deviceStats = rentalDeviceMapper.selectDeviceStatusStats();
+        
+        // 查询客户统计
+        Long activeCustomerCount = rentalCustomerMapper.selectActiveCustomerCount();
+        
+        // 创建统计DTO
+        RentalStatsDTO statsDTO = new RentalStatsDTO();
+        
+        // 设置基础统计数据
+        if (statsData != null) {
+            statsDTO.setTotalRentalRevenue(getBigDecimalValue(statsData, "totalRentalRevenue"));
+            statsDTO.setTotalRentalOrders(getIntegerValue(statsData, "totalRentalOrders"));
+            statsDTO.setTotalRentalDevices(getIntegerValue(statsData, "totalRentalDevices"));
+            statsDTO.setActiveRentalDevices(getIntegerValue(statsData, "activeRentalDevices"));
+            statsDTO.setAverageRentalPeriod(getBigDecimalValue(statsData, "averageRentalPeriod"));
+        }
+        
+        // 设置设备统计数据
+        if (deviceStats != null) {
+            Integer activeDevices = getIntegerValue(deviceStats, "active");
+            Integer totalDevices = activeDevices + getIntegerValue(deviceStats, "idle") + getIntegerValue(deviceStats, "maintenance");
+            
+            if (totalDevices > 0) {
+                BigDecimal utilizationRate = BigDecimal.valueOf(activeDevices)
+                    .multiply(BigDecimal.valueOf(100))
+                    .divide(BigDecimal.valueOf(totalDevices), 2, RoundingMode.HALF_UP);
+                statsDTO.setDeviceUtilizationRate(utilizationRate);
+            }
+        }
+        
+        // 计算增长率
+        calculateGrowthRates(statsDTO, startDate, endDate);
+        
+        logger.info("租赁统计数据获取成功：总收入={}, 总订单={}, 设备利用率={}%", 
+                   statsDTO.getTotalRentalRevenue(), 
+                   statsDTO.getTotalRentalOrders(),
+                   statsDTO.getDeviceUtilizationRate());
+        
+        return statsDTO;
+    }
+    
     /**
      * 获取今日概览统计数据（Map格式）
      * 支持前端右侧面板今日概览功能
@@ -110,7 +133,7 @@ public class RentalStatsService {
         
         try {
             LocalDate today = LocalDate.now();
-            Map<String, Object> todayData = rentalRecordMapper.selectTodayStats(today);
+            Map<String, Object> todayData = selectTodayStats(today);
             
             if (todayData != null) {
                 logger.info("今日概览统计数据获取成功：收入={}, 订单={}, 活跃设备={}", 
@@ -151,7 +174,7 @@ public class RentalStatsService {
         
         try {
             LocalDate today = LocalDate.now();
-            Map<String, Object> todayData = rentalRecordMapper.selectTodayStats(today);
+            Map<String, Object> todayData = selectTodayStats(today);
             
             TodayStatsDTO todayStats = new TodayStatsDTO();
             
@@ -191,7 +214,7 @@ public class RentalStatsService {
             LocalDate previousEndDate = startDate.minusDays(1);
             
             // 查询上一个周期的统计数据
-            Map<String, Object> previousStats = rentalRecordMapper.selectRentalStats(previousStartDate, previousEndDate);
+            Map<String, Object> previousStats = selectRentalStats(previousStartDate, previousEndDate);
             
             if (previousStats != null) {
                 // 计算收入增长率
@@ -225,6 +248,22 @@ public class RentalStatsService {
         }
     }
     
+    /**
+     * 查询租赁基础统计，日事实已加载时从日事实计算，否则回退到数据库聚合
+     */
+    private Map<String, Object> selectRentalStats(LocalDate startDate, LocalDate endDate) {
+        Map<String, Object> stats = rentalFactService.getRentalStats(startDate, endDate);
+        return stats != null ? stats : rentalRecordMapper.selectRentalStats(startDate, endDate);
+    }
+    
+    /**
+     * 查询单日概览，日事实已加载时从日事实计算，否则回退到数据库聚合
+     */
+    private Map<String, Object> selectTodayStats(LocalDate today) {
+        Map<String, Object> stats = rentalFactService.getDayStats(today);
+        return stats != null ? stats : rentalRecordMapper.selectTodayStats(today);
+    }
+    
     /**
      * 从Map中安全获取BigDecimal值
      */
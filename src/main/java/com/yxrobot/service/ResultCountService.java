@@ -0,0 +1,221 @@
+package com.yxrobot.service;
+
+import com.yxrobot.cache.LocalCache;
+import com.yxrobot.cache.LocalCacheManager;
+import com.yxrobot.config.CountStrategyConfig;
+import com.yxrobot.dto.CountResult;
+import com.yxrobot.enums.CountMode;
+import com.yxrobot.mapper.TableStatisticsMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * 分页总数统计服务
+ * 为分页列表按接口选择总数统计方式，避免每翻一页都执行一次与数据查询同样昂贵的 COUNT(*)：
+ * <ul>
+ *   <li>exact：每次执行 COUNT(*)</li>
+ *   <li>cached：按规范化后的查询条件缓存 COUNT(*) 结果，默认30秒过期</li>
+ *   <li>estimated：无筛选条件时读取表统计信息估算，有筛选条件时按 cached 处理</li>
+ *   <li>hasMore：不统计总数，调用方多取一行判断是否还有下一页</li>
+ * </ul>
+ * 返回的 {@link CountResult} 说明总数是否为精确值，由接口透传给前端。
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-24
+ */
+@Service
+public class ResultCountService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResultCountService.class);
+
+    @Autowired
+    private CountStrategyConfig countStrategyConfig;
+
+    @Autowired
+    private TableStatisticsMapper tableStatisticsMapper;
+
+    @Autowired
+    private LocalCacheManager localCacheManager;
+
+    private LocalCache<String, Long> countCache;
+
+    private LocalCache<String, Long> estimateCache;
+
+    @PostConstruct
+    public void init() {
+        countCache = localCacheManager.getOrCreateCache("result-count",
+            countStrategyConfig.getCacheMaximumSize(), Duration.ofSeconds(countStrategyConfig.getCacheTtlSeconds()));
+        estimateCache = localCacheManager.getOrCreateCache("table-row-estimate", 64,
+            Duration.ofSeconds(countStrategyConfig.getEstimateTtlSeconds()));
+    }
+
+    /**
+     * 确定接口使用的统计方式：请求参数优先，其次是接口配置，最后是默认配置
+     *
+     * @param endpoint 接口名称，如 devices.list
+     * @param requestedMode 请求参数指定的统计方式，可为空
+     * @return 统计方式
+     * @throws IllegalArgumentException 统计方式无效
+     */
+    public CountMode resolveMode(String endpoint, String requestedMode) {
+        if (StringUtils.hasText(requestedMode)) {
+            return CountMode.fromCode(requestedMode.trim());
+        }
+        String configured = countStrategyConfig.getEndpoints().get(endpoint);
+        return CountMode.fromCode(configured != null ? configured : countStrategyConfig.getDefaultMode());
+    }
+
+    /**
+     * 数据查询应读取的行数：hasMore 方式多取一行用于判断是否还有下一页
+     */
+    public static int fetchSize(CountMode mode, int pageSize) {
+        return mode == CountMode.HAS_MORE ? pageSize + 1 : pageSize;
+    }
+
+    /**
+     * 去掉多取的一行
+     *
+     * @param rows 查询结果，会被修改
+     * @param pageSize 每页大小
+     * @return 是否还有下一页
+     */
+    public static boolean trimExtraRow(List<?> rows, int pageSize) {
+        if (rows.size() > pageSize) {
+            rows.subList(pageSize, rows.size()).clear();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 按统计方式获取总数
+     *
+     * @param endpoint 接口名称，作为缓存键的一部分
+     * @param mode 统计方式
+     * @param criteria 查询条件，null值和空字符串视为未筛选
+     * @param tableName 估算行数使用的表名，为null时不支持估算
+     * @param exactCounter 执行 COUNT(*) 的查询
+     * @return 统计结果
+     */
+    public CountResult count(String endpoint, CountMode mode, Map<String, ?> criteria,
+                             String tableName, Supplier<? extends Number> exactCounter) {
+        switch (mode) {
+            case HAS_MORE:
+                return CountResult.unknown();
+            case ESTIMATED:
+                String normalized = normalizeCriteria(criteria);
+                if (normalized.isEmpty() && tableName != null) {
+                    Long estimate = estimateRowCount(tableName);
+                    if (estimate != null) {
+                        return new CountResult(estimate, false, CountMode.ESTIMATED);
+                    }
+                }
+                return cachedCount(endpoint, criteria, exactCounter);
+            case CACHED:
+                return cachedCount(endpoint, criteria, exactCounter);
+            case EXACT:
+            default:
+                return CountResult.exact(toLong(exactCounter.get()));
+        }
+    }
+
+    /**
+     * 清除接口的缓存总数，在新增、删除数据后调用
+     *
+     * @param endpoint 接口名称
+     */
+    public void invalidate(String endpoint) {
+        String prefix = endpoint + ":";
+        countCache.invalidateIf(key -> key.startsWith(prefix));
+    }
+
+    /**
+     * 获取缓存统计信息
+     */
+    public Map<String, Object> getStats() {
+        return countCache.getStats();
+    }
+
+    private CountResult cachedCount(String endpoint, Map<String, ?> criteria, Supplier<? extends Number> exactCounter) {
+        String key = cacheKey(endpoint, criteria);
+        Long cached = countCache.get(key);
+        if (cached != null) {
+            return new CountResult(cached, false, CountMode.CACHED);
+        }
+        long total = toLong(exactCounter.get());
+        countCache.put(key, total);
+        return new CountResult(total, true, CountMode.CACHED);
+    }
+
+    private Long estimateRowCount(String tableName) {
+        try {
+            return estimateCache.get(tableName, tableStatisticsMapper::selectEstimatedRowCount);
+        } catch (Exception e) {
+            logger.warn("读取表统计信息失败 - 表: {}, 错误: {}", tableName, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 缓存键：接口名称 + 规范化查询条件的摘要
+     */
+    static String cacheKey(String endpoint, Map<String, ?> criteria) {
+        String normalized = normalizeCriteria(criteria);
+        return endpoint + ":" + DigestUtils.md5DigestAsHex(normalized.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 规范化查询条件：忽略空值，按键排序，字符串去除首尾空白并转小写，
+     * 使同一筛选的不同写法得到同一个缓存键
+     */
+    static String normalizeCriteria(Map<String, ?> criteria) {
+        if (criteria == null || criteria.isEmpty()) {
+            return "";
+        }
+        Map<String, String> sorted = new TreeMap<>();
+        criteria.forEach((key, value) -> {
+            String text = normalizeValue(value);
+            if (text != null) {
+                sorted.put(key, text);
+            }
+        });
+        StringJoiner joiner = new StringJoiner("&");
+        sorted.forEach((key, value) -> joiner.add(key + "=" + value));
+        return joiner.toString();
+    }
+
+    private static String normalizeValue(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Collection) {
+            if (((Collection<?>) value).isEmpty()) {
+                return null;
+            }
+            StringJoiner joiner = new StringJoiner(",", "[", "]");
+            ((Collection<?>) value).stream().map(String::valueOf).sorted().forEach(joiner::add);
+            return joiner.toString().toLowerCase(Locale.ROOT);
+        }
+        String text = value instanceof Enum ? ((Enum<?>) value).name() : value.toString().trim();
+        return text.isEmpty() ? null : text.toLowerCase(Locale.ROOT);
+    }
+
+    private static long toLong(Number value) {
+        return value != null ? value.longValue() : 0L;
+    }
+}
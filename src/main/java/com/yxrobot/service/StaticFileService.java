@@ -0,0 +1,195 @@
+package com.yxrobot.service;
+
+import com.yxrobot.cache.LocalCache;
+import com.yxrobot.cache.LocalCacheManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 上传文件访问服务
+ * 解析上传目录下的文件并缓存其元数据（MIME类型、大小、修改时间、内容摘要），
+ * 同一文件的后续请求只需一次 stat 即可得到强 ETag，无需重新探测类型或读取内容。
+ *
+ * 缓存项记录生成时的文件大小和修改时间，文件被覆盖后两者之一变化即重新计算；
+ * 同一文件的并发首次访问由缓存合并为一次摘要计算。
+ *
+ * @author YXRobot开发团队
+ * @since 2025-03-01
+ */
+@Service
+public class StaticFileService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StaticFileService.class);
+
+    private static final int DIGEST_BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private LocalCacheManager localCacheManager;
+
+    @Value("${file.upload.path:./uploads}")
+    private String uploadPath;
+
+    private LocalCache<Path, FileMetadata> metadataCache;
+
+    @PostConstruct
+    public void init() {
+        // 条目按文件大小和修改时间校验，不设TTL，避免定期重新计算大文件的哈希
+        metadataCache = localCacheManager.getOrCreateCache("file-metadata", 10000, null);
+    }
+
+    /**
+     * 获取上传文件的元数据
+     *
+     * @param relativePath 相对上传目录的路径，使用 / 分隔
+     * @return 文件元数据，文件不存在或不是普通文件时返回null
+     * @throws IllegalArgumentException 路径指向上传目录之外
+     * @throws IOException 读取文件失败
+     */
+    public FileMetadata getMetadata(String relativePath) throws IOException {
+        Path root = Paths.get(uploadPath).toAbsolutePath().normalize();
+        Path file = root.resolve(relativePath).normalize();
+        if (!file.startsWith(root)) {
+            throw new IllegalArgumentException("非法文件路径: " + relativePath);
+        }
+
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (IOException e) {
+            metadataCache.invalidate(file);
+            return null;
+        }
+        if (!attributes.isRegularFile()) {
+            return null;
+        }
+
+        long size = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        FileMetadata cached = metadataCache.get(file);
+        if (cached != null && cached.getSize() == size && cached.getLastModified() == lastModified) {
+            return cached;
+        }
+
+        // 文件新出现或已被覆盖
+        metadataCache.invalidate(file);
+        try {
+            return metadataCache.get(file, path -> load(path, size, lastModified));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static FileMetadata load(Path file, long size, long lastModified) {
+        long start = System.currentTimeMillis();
+        String digest;
+        try {
+            digest = digestOf(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String contentType = MediaTypeFactory.getMediaType(file.getFileName().toString())
+            .map(MediaType::toString)
+            .orElseGet(() -> probeContentType(file));
+        logger.debug("计算文件元数据 - 文件: {}, 大小: {}, 类型: {}, 耗时: {}ms", file, size, contentType,
+                     System.currentTimeMillis() - start);
+        return new FileMetadata(file, contentType, size, lastModified, "\"" + digest + "\"");
+    }
+
+    /**
+     * 计算文件内容的 MD5 摘要（十六进制），作为强 ETag
+     */
+    static String digestOf(Path file) throws IOException {
+        MessageDigest md5;
+        try {
+            md5 = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(DIGEST_BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                md5.update(buffer);
+                buffer.clear();
+            }
+        }
+        StringBuilder hex = new StringBuilder(32);
+        for (byte b : md5.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static String probeContentType(Path file) {
+        try {
+            String contentType = Files.probeContentType(file);
+            return contentType != null ? contentType : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        } catch (IOException e) {
+            return MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        }
+    }
+
+    /**
+     * 文件元数据
+     */
+    public static class FileMetadata {
+        private final Path path;
+        private final String contentType;
+        private final long size;
+        private final long lastModified;
+        private final String etag;
+
+        FileMetadata(Path path, String contentType, long size, long lastModified, String etag) {
+            this.path = path;
+            this.contentType = contentType;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.etag = etag;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * 最后修改时间（毫秒）
+         */
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * 强 ETag（带引号的内容摘要）
+         */
+        public String getEtag() {
+            return etag;
+        }
+    }
+}
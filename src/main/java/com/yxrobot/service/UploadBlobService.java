@@ -0,0 +1,287 @@
+package com.yxrobot.service;
+
+import com.yxrobot.entity.UploadBlob;
+import com.yxrobot.mapper.UploadBlobMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * 上传文件内容寻址存储服务
+ * 上传内容边写临时文件边计算 SHA-256，按摘要存放到 blobs/ab/cd/{sha256}.{ext}：
+ * 相同内容（如多个SKU共用的产品图片）只保存一份，返回同一个访问地址，
+ * upload_blobs.ref_count 记录引用次数，释放到0时才删除文件。
+ *
+ * 同一摘要的写入和释放由分段锁串行执行，避免“释放方删除文件”与“上传方复用文件”交错；
+ * 锁只在本进程内有效，多实例部署共享上传目录时需改为数据库行锁。
+ *
+ * @author YXRobot开发团队
+ * @since 2025-03-02
+ */
+@Service
+public class UploadBlobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadBlobService.class);
+
+    static final String BLOB_DIR = "blobs";
+
+    private static final String TEMP_DIR = ".tmp";
+
+    private static final Pattern BLOB_FILE_NAME = Pattern.compile("[0-9a-f]{64}(\\.[0-9a-z]{1,10})?");
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    @Autowired
+    private UploadBlobMapper uploadBlobMapper;
+
+    @Value("${file.upload.path:./uploads}")
+    private String uploadPath;
+
+    @Value("${file.access.url.prefix:/api/v1/files}")
+    private String urlPrefix;
+
+    public UploadBlobService() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * 保存上传内容，相同内容复用已有文件并增加引用次数
+     *
+     * @param input 上传内容，读取完毕后关闭
+     * @param extension 扩展名（不含点，可为空），仅在首次保存该内容时使用
+     * @param contentType MIME类型
+     * @return 保存结果
+     */
+    public StoredBlob store(InputStream input, String extension, String contentType) throws IOException {
+        Path root = rootDir();
+        Path tempDir = Files.createDirectories(root.resolve(BLOB_DIR).resolve(TEMP_DIR));
+        Path temp = Files.createTempFile(tempDir, "upload-", ".part");
+        try {
+            MessageDigest sha256 = newSha256();
+            long size;
+            try (InputStream in = new DigestInputStream(input, sha256)) {
+                size = Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String hash = toHex(sha256.digest());
+
+            ReentrantLock lock = lockFor(hash);
+            lock.lock();
+            try {
+                UploadBlob existing = uploadBlobMapper.selectByHash(hash);
+                String storagePath = existing != null ? existing.getStoragePath() : storagePathOf(hash, extension);
+                Path target = root.resolve(storagePath);
+                boolean deduplicated = Files.isRegularFile(target);
+                if (!deduplicated) {
+                    // 新内容，或记录存在但文件已丢失
+                    Files.createDirectories(target.getParent());
+                    moveIntoPlace(temp, target);
+                }
+
+                UploadBlob blob = new UploadBlob();
+                blob.setContentHash(hash);
+                blob.setStoragePath(storagePath);
+                blob.setFileSize(size);
+                blob.setContentType(contentType);
+                try {
+                    uploadBlobMapper.insertOrIncrement(blob);
+                } catch (RuntimeException e) {
+                    if (!deduplicated && existing == null) {
+                        Files.deleteIfExists(target);
+                    }
+                    throw e;
+                }
+
+                int refCount = existing != null ? existing.getRefCount() + 1 : 1;
+                logger.info("保存上传内容 - 摘要: {}, 大小: {}, 引用次数: {}, 复用已有文件: {}", hash, size, refCount,
+                            deduplicated);
+                return new StoredBlob(hash, storagePath, size, refCount, deduplicated, toUrl(storagePath));
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * 释放一次引用，引用次数降为0时删除文件
+     *
+     * @param storagePath 存储路径（相对上传目录）
+     * @return 剩余引用次数；路径不是内容寻址文件或没有引用记录时返回 -1
+     */
+    public int release(String storagePath) throws IOException {
+        String hash = hashOf(storagePath);
+        if (hash == null) {
+            return -1;
+        }
+
+        ReentrantLock lock = lockFor(hash);
+        lock.lock();
+        try {
+            if (uploadBlobMapper.decrementRefCount(hash) == 0) {
+                logger.warn("释放上传内容失败，没有引用记录 - 路径: {}", storagePath);
+                return -1;
+            }
+            if (uploadBlobMapper.deleteUnreferenced(hash) > 0) {
+                Files.deleteIfExists(rootDir().resolve(storagePath));
+                logger.info("删除无引用的上传内容 - 路径: {}", storagePath);
+                return 0;
+            }
+            UploadBlob blob = uploadBlobMapper.selectByHash(hash);
+            int remaining = blob != null ? blob.getRefCount() : 0;
+            logger.info("释放上传内容引用 - 路径: {}, 剩余引用: {}", storagePath, remaining);
+            return remaining;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 是否为内容寻址存储的文件路径
+     */
+    public boolean isBlobPath(String storagePath) {
+        return hashOf(storagePath) != null;
+    }
+
+    /**
+     * 存储路径对应的文件
+     */
+    public Path resolve(String storagePath) {
+        return rootDir().resolve(storagePath);
+    }
+
+    /**
+     * 存储路径对应的访问URL
+     */
+    public String toUrl(String storagePath) {
+        return urlPrefix + "/" + storagePath;
+    }
+
+    /**
+     * 摘要对应的存储路径：按摘要前两级分目录，避免单个目录下文件过多
+     */
+    static String storagePathOf(String hash, String extension) {
+        String path = BLOB_DIR + "/" + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash;
+        if (extension == null || extension.isEmpty()) {
+            return path;
+        }
+        return path + "." + extension.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 从存储路径解析内容摘要，不是内容寻址文件时返回null
+     */
+    static String hashOf(String storagePath) {
+        if (storagePath == null || !storagePath.startsWith(BLOB_DIR + "/")) {
+            return null;
+        }
+        String fileName = storagePath.substring(storagePath.lastIndexOf('/') + 1);
+        if (!BLOB_FILE_NAME.matcher(fileName).matches()) {
+            return null;
+        }
+        String hash = fileName.substring(0, 64);
+        return storagePath.equals(storagePathOf(hash, fileName.length() > 65 ? fileName.substring(65) : null))
+            ? hash : null;
+    }
+
+    private static void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // 同一内容由其他进程先写入
+            logger.debug("上传内容已存在: {}", target);
+        }
+    }
+
+    private ReentrantLock lockFor(String hash) {
+        return locks[Integer.parseInt(hash.substring(0, 2), 16) % LOCK_STRIPES];
+    }
+
+    private Path rootDir() {
+        return Paths.get(uploadPath).toAbsolutePath().normalize();
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * 保存结果
+     */
+    public static class StoredBlob {
+        private final String contentHash;
+        private final String storagePath;
+        private final long size;
+        private final int refCount;
+        private final boolean deduplicated;
+        private final String url;
+
+        StoredBlob(String contentHash, String storagePath, long size, int refCount, boolean deduplicated, String url) {
+            this.contentHash = contentHash;
+            this.storagePath = storagePath;
+            this.size = size;
+            this.refCount = refCount;
+            this.deduplicated = deduplicated;
+            this.url = url;
+        }
+
+        public String getContentHash() {
+            return contentHash;
+        }
+
+        public String getStoragePath() {
+            return storagePath;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public int getRefCount() {
+            return refCount;
+        }
+
+        /**
+         * 是否复用了已有文件（本次没有新增文件）
+         */
+        public boolean isDeduplicated() {
+            return deduplicated;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.yxrobot.task;
 
 import com.yxrobot.dto.LinkValidationResultDTO;
+import com.yxrobot.service.LinkClickRollupService;
 import com.yxrobot.service.LinkValidationService;
 import com.yxrobot.service.PlatformLinkStatsService;
 import org.slf4j.Logger;
@@ -10,6 +11,7 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -33,6 +35,9 @@ public class LinkMonitoringTask {
     @Autowired
     private PlatformLinkStatsService statsService;
     
+    @Autowired
+    private LinkClickRollupService rollupService;
+    
     /**
      * 定期检查链接有效性
      * 每小时执行一次
@@ -121,6 +126,25 @@ public class LinkMonitoringTask {
         }
     }
     
+    /**
+     * 按原始日志重建前一天的点击汇总，校准增量累加中可能丢失的数据（如进程异常退出）
+     * 每天凌晨2点30分执行，需在清理点击日志之前
+     */
+    @Scheduled(cron = "0 30 2 * * ?") // 每天凌晨2点30分执行
+    public void rebuildClickRollups() {
+        logger.info("开始重建前一天的点击汇总");
+        
+        try {
+            LocalDate yesterday = LocalDate.now().minusDays(1);
+            long processed = rollupService.rebuildRollups(yesterday, yesterday);
+            
+            logger.info("点击汇总重建完成 - 日期: {}, 点击日志: {}", yesterday, processed);
+            
+        } catch (Exception e) {
+            logger.error("重建点击汇总失败", e);
+        }
+    }
+    
     /**
      * 定期清理过期的点击日志
      * 每天凌晨3点执行
@@ -0,0 +1,47 @@
+package com.yxrobot.task;
+
+import com.yxrobot.service.RentalFactService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * 租赁分析定时任务类
+ * 每天按租赁记录重建最近几天的租赁日事实，校准写入时累加的增量
+ *
+ * @author YXRobot开发团队
+ * @version 1.0
+ * @since 2025-03-07
+ */
+@Component
+public class RentalAnalyticsTask {
+
+    private static final Logger logger = LoggerFactory.getLogger(RentalAnalyticsTask.class);
+
+    @Autowired
+    private RentalFactService rentalFactService;
+
+    @Value("${yxrobot.rental-facts.rebuild-days:7}")
+    private int rebuildDays;
+
+    /**
+     * 重建最近几天（含今天）的租赁日事实
+     * 每天凌晨2点40分执行
+     */
+    @Scheduled(cron = "${yxrobot.rental-facts.rebuild-cron:0 40 2 * * ?}")
+    public void rebuildRecentFacts() {
+        LocalDate endDate = LocalDate.now();
+        LocalDate startDate = endDate.minusDays(Math.max(rebuildDays, 1) - 1L);
+        try {
+            int rows = rentalFactService.rebuildFacts(startDate, endDate);
+            logger.info("租赁日事实重建完成 - 日期: {} ~ {}, 日事实: {}行", startDate, endDate, rows);
+        } catch (Exception e) {
+            logger.error("重建租赁日事实失败", e);
+        }
+    }
+}
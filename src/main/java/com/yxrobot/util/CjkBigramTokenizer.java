@@ -0,0 +1,94 @@
+package com.yxrobot.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 中日韩文本分词器
+ * 不依赖词典：连续的中日韩字符切分为重叠的二元组（"机器人" -> "机器"、"器人"），
+ * 只有一个字时保留单字；连续的字母数字作为一个词并转为小写，其他字符作为分隔符。
+ *
+ * 查询和文档使用相同的切分，查询词的所有二元组都出现即近似于原来的子串匹配。
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-21
+ */
+public final class CjkBigramTokenizer {
+
+    /** 超长的字母数字串（如Base64、URL片段）截断后索引 */
+    private static final int MAX_WORD_LENGTH = 64;
+
+    private CjkBigramTokenizer() {
+    }
+
+    /**
+     * 切分文本
+     *
+     * @param text 文本，可以为null
+     * @return 词项列表，保留重复以便统计词频
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+
+        StringBuilder word = new StringBuilder();
+        List<Integer> cjkRun = new ArrayList<>();
+        int i = 0;
+        while (i < text.length()) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+
+            if (isCjk(codePoint)) {
+                flushWord(word, tokens);
+                cjkRun.add(codePoint);
+            } else if (Character.isLetterOrDigit(codePoint)) {
+                flushCjk(cjkRun, tokens);
+                if (word.length() < MAX_WORD_LENGTH) {
+                    word.appendCodePoint(Character.toLowerCase(codePoint));
+                }
+            } else {
+                flushWord(word, tokens);
+                flushCjk(cjkRun, tokens);
+            }
+        }
+        flushWord(word, tokens);
+        flushCjk(cjkRun, tokens);
+        return tokens;
+    }
+
+    /**
+     * 是否为中日韩文字
+     */
+    public static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+
+    private static void flushWord(StringBuilder word, List<String> tokens) {
+        if (word.length() > 0) {
+            tokens.add(word.toString());
+            word.setLength(0);
+        }
+    }
+
+    private static void flushCjk(List<Integer> run, List<String> tokens) {
+        if (run.isEmpty()) {
+            return;
+        }
+        if (run.size() == 1) {
+            tokens.add(new String(Character.toChars(run.get(0))));
+        } else {
+            for (int i = 0; i + 1 < run.size(); i++) {
+                StringBuilder bigram = new StringBuilder(4);
+                bigram.appendCodePoint(run.get(i)).appendCodePoint(run.get(i + 1));
+                tokens.add(bigram.toString());
+            }
+        }
+        run.clear();
+    }
+}
@@ -0,0 +1,70 @@
+package com.yxrobot.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * CSV 流式写出
+ * UTF-8 编码并写入BOM，Excel 打开时中文不乱码；字段按 RFC 4180 加引号转义。
+ * 以 = + - @ 开头的文本前加单引号，防止在表格软件中被当作公式执行。
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-27
+ */
+public class CsvStreamWriter implements RowStreamWriter {
+
+    private static final char BOM = '\uFEFF';
+
+    private final Writer writer;
+
+    public CsvStreamWriter(OutputStream out) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+        writer.write(BOM);
+    }
+
+    @Override
+    public void writeRow(List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = values.get(i);
+            writer.write(value instanceof Number ? RowStreamWriter.format(value) : escape(RowStreamWriter.format(value)));
+        }
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    static String escape(String text) {
+        if (text.isEmpty()) {
+            return text;
+        }
+        char first = text.charAt(0);
+        if (first == '=' || first == '+' || first == '-' || first == '@') {
+            text = "'" + text;
+        }
+        boolean quote = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+                quote = true;
+                break;
+            }
+        }
+        return quote ? "\"" + text.replace("\"", "\"\"") + "\"" : text;
+    }
+}
@@ -0,0 +1,78 @@
+package com.yxrobot.util;
+
+import com.yxrobot.enums.ExportFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 导出文件响应工具
+ * 直接写入 HttpServletResponse 的输出流，数据边查询边发送，不在内存中组装整个文件；
+ * 客户端接受 gzip 时 CSV 以 Content-Encoding: gzip 压缩传输（XLSX 本身已是 zip 压缩，不再压缩）。
+ * 写出第一批数据前发生异常时响应尚未提交，调用方仍可返回错误信息。
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-27
+ */
+public final class ExportResponseUtil {
+
+    private static final DateTimeFormatter FILE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private ExportResponseUtil() {
+    }
+
+    /**
+     * 写出导出内容
+     */
+    @FunctionalInterface
+    public interface ExportBody {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * 设置下载响应头并写出导出文件
+     *
+     * @param response HTTP响应
+     * @param baseName 文件名前缀，如“订单”
+     * @param format 导出格式
+     * @param acceptEncoding 请求头 Accept-Encoding，可为空
+     * @param body 写出导出内容，写完后关闭输出流
+     */
+    public static void write(HttpServletResponse response, String baseName, ExportFormat format,
+                             String acceptEncoding, ExportBody body) throws IOException {
+        String fileName = baseName + "-" + LocalDateTime.now().format(FILE_TIME_FORMATTER) + "." + format.getExtension();
+        boolean gzip = format == ExportFormat.CSV && acceptsGzip(acceptEncoding);
+
+        response.setContentType(format.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment().filename(fileName, StandardCharsets.UTF_8).build().toString());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        OutputStream out = response.getOutputStream();
+        body.writeTo(gzip ? new GZIPOutputStream(out, 8192) : out);
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            if ("gzip".equalsIgnoreCase(tokens[0].trim())) {
+                return tokens.length < 2 || !tokens[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,138 @@
+package com.yxrobot.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * HyperLogLog 基数估计
+ * 用于在汇总表中保存独立访客数，多个时间段/链接的草图可以直接合并后估算，无需保留原始IP
+ *
+ * 精度为 2^11 个寄存器（每个1字节，序列化后2KB），标准误差约 1.04/√2048 ≈ 2.3%；
+ * 基数较小时使用线性计数修正，小样本下基本精确。
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-17
+ */
+public class HyperLogLog {
+
+    private static final int PRECISION = 11;
+
+    /** 寄存器数量，也是序列化后的字节数 */
+    public static final int REGISTER_COUNT = 1 << PRECISION;
+
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTER_COUNT);
+
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this.registers = new byte[REGISTER_COUNT];
+    }
+
+    private HyperLogLog(byte[] registers) {
+        this.registers = registers;
+    }
+
+    /**
+     * 从序列化字节恢复，长度不符时返回空草图
+     *
+     * @param bytes {@link #toBytes()} 的结果
+     * @return 草图
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length != REGISTER_COUNT) {
+            return new HyperLogLog();
+        }
+        return new HyperLogLog(Arrays.copyOf(bytes, REGISTER_COUNT));
+    }
+
+    /**
+     * 添加一个元素，null 或空字符串忽略
+     *
+     * @param value 元素
+     */
+    public void add(String value) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        addHash(hash64(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    void addHash(long hash) {
+        int index = (int) (hash >>> (64 - PRECISION));
+        // 剩余位中首个1的位置（从1开始），末尾补1保证不超过 64-PRECISION+1
+        long remaining = (hash << PRECISION) | (1L << (PRECISION - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(remaining) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    /**
+     * 合并另一个草图（取各寄存器最大值）
+     *
+     * @param other 另一个草图
+     * @return 当前草图
+     */
+    public HyperLogLog merge(HyperLogLog other) {
+        if (other != null) {
+            for (int i = 0; i < REGISTER_COUNT; i++) {
+                if (other.registers[i] > registers[i]) {
+                    registers[i] = other.registers[i];
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 估算独立元素个数
+     *
+     * @return 基数估计值
+     */
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = ALPHA * REGISTER_COUNT * REGISTER_COUNT / sum;
+        if (estimate <= 2.5 * REGISTER_COUNT && zeros > 0) {
+            // 线性计数
+            estimate = REGISTER_COUNT * Math.log((double) REGISTER_COUNT / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public boolean isEmpty() {
+        for (byte register : registers) {
+            if (register != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public byte[] toBytes() {
+        return Arrays.copyOf(registers, REGISTER_COUNT);
+    }
+
+    /**
+     * 64位哈希：FNV-1a 后做 MurmurHash3 的 fmix64 混合，保证高位分布均匀
+     */
+    static long hash64(byte[] data) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : data) {
+            h ^= (b & 0xff);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe53e87bdL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,258 @@
+package com.yxrobot.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 响应时间分布记录器
+ * 按对数-线性分桶（HDR Histogram 思路）记录耗时，支持最近1分钟/5分钟/1小时的滚动窗口百分位统计
+ *
+ * 分桶以微秒为单位：0~31μs 每微秒一个桶，之后每个2的幂区间再均分为16个子桶，
+ * 相对误差不超过 1/16，上限约71分钟（超出计入最后一个桶）。
+ *
+ * 时间窗口由两组环形时间片组成：15秒片 × 20（覆盖5分钟）和5分钟片 × 12（覆盖1小时）。
+ * 时间片在首次写入时才分配，空闲接口不占用分桶内存；片内分桶按16个一组，组在首次写入时才分配，
+ * 一个接口的耗时通常只落在少数几个数量级，每片只占用几百字节。
+ * 记录过程无锁，总耗时和最大值使用分段累加（{@link LongAdder}/{@link LongAccumulator}），高并发时不争用同一个计数。
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-14
+ */
+public class LatencyRecorder {
+
+    /** 每个2的幂区间的子桶数（2^4） */
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    /** 线性区间上限，小于该值的微秒数各占一个桶 */
+    private static final int LINEAR_LIMIT = SUB_BUCKET_COUNT << 1;
+    private static final int LINEAR_MAGNITUDE = SUB_BUCKET_BITS + 1;
+    /** 最大可区分的数量级（2^32μs ≈ 71分钟） */
+    private static final int MAX_MAGNITUDE = 31;
+
+    static final int BUCKET_COUNT = LINEAR_LIMIT + (MAX_MAGNITUDE - LINEAR_MAGNITUDE + 1) * SUB_BUCKET_COUNT;
+    /** 分桶组数，每组 SUB_BUCKET_COUNT 个桶 */
+    private static final int GROUP_COUNT = BUCKET_COUNT >>> SUB_BUCKET_BITS;
+
+    private static final long FINE_SLICE_NANOS = TimeUnit.SECONDS.toNanos(15);
+    private static final int FINE_SLICE_COUNT = 20;
+    private static final long COARSE_SLICE_NANOS = TimeUnit.MINUTES.toNanos(5);
+    private static final int COARSE_SLICE_COUNT = 12;
+
+    private final long originNanos;
+    private final SlicedWindow fineWindow = new SlicedWindow(FINE_SLICE_NANOS, FINE_SLICE_COUNT);
+    private final SlicedWindow coarseWindow = new SlicedWindow(COARSE_SLICE_NANOS, COARSE_SLICE_COUNT);
+
+    public LatencyRecorder() {
+        this(System.nanoTime());
+    }
+
+    LatencyRecorder(long originNanos) {
+        this.originNanos = originNanos;
+    }
+
+    /**
+     * 记录一次耗时
+     *
+     * @param durationNanos 耗时（纳秒）
+     */
+    public void record(long durationNanos) {
+        record(durationNanos, System.nanoTime());
+    }
+
+    void record(long durationNanos, long nowNanos) {
+        long micros = Math.max(0, durationNanos) / 1000;
+        int bucket = bucketIndex(micros);
+        long elapsed = nowNanos - originNanos;
+        fineWindow.record(bucket, micros, elapsed);
+        coarseWindow.record(bucket, micros, elapsed);
+    }
+
+    /**
+     * 获取最近一段时间的耗时分布
+     *
+     * @param windowNanos 窗口长度（纳秒），不超过1小时；5分钟以内使用15秒精度，否则使用5分钟精度
+     * @return 分布快照
+     */
+    public Snapshot snapshot(long windowNanos) {
+        return snapshot(windowNanos, System.nanoTime());
+    }
+
+    Snapshot snapshot(long windowNanos, long nowNanos) {
+        long elapsed = nowNanos - originNanos;
+        SlicedWindow window = windowNanos <= FINE_SLICE_NANOS * FINE_SLICE_COUNT ? fineWindow : coarseWindow;
+        return window.snapshot(windowNanos, elapsed);
+    }
+
+    static int bucketIndex(long micros) {
+        if (micros < LINEAR_LIMIT) {
+            return (int) micros;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(micros);
+        if (magnitude > MAX_MAGNITUDE) {
+            return BUCKET_COUNT - 1;
+        }
+        int subBucket = (int) ((micros >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1));
+        return LINEAR_LIMIT + (magnitude - LINEAR_MAGNITUDE) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * 桶内可表示的最大值（微秒）
+     */
+    static long bucketUpperMicros(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int offset = index - LINEAR_LIMIT;
+        int magnitude = LINEAR_MAGNITUDE + offset / SUB_BUCKET_COUNT;
+        long subBucket = SUB_BUCKET_COUNT + offset % SUB_BUCKET_COUNT;
+        long unit = 1L << (magnitude - SUB_BUCKET_BITS);
+        return subBucket * unit + unit - 1;
+    }
+
+    /**
+     * 固定时长的环形时间片
+     */
+    private static final class SlicedWindow {
+        private final long sliceNanos;
+        private final AtomicReferenceArray<Slice> slices;
+
+        SlicedWindow(long sliceNanos, int sliceCount) {
+            this.sliceNanos = sliceNanos;
+            this.slices = new AtomicReferenceArray<>(sliceCount);
+        }
+
+        void record(int bucket, long micros, long elapsedNanos) {
+            Slice slice = currentSlice(Math.floorDiv(elapsedNanos, sliceNanos));
+            slice.increment(bucket);
+            slice.totalMicros.add(micros);
+            slice.maxMicros.accumulate(micros);
+        }
+
+        private Slice currentSlice(long epoch) {
+            int index = (int) Math.floorMod(epoch, (long) slices.length());
+            Slice slice = slices.get(index);
+            while (slice == null || slice.epoch < epoch) {
+                // 时间片过期时整体替换，旧片上的并发写入随之丢弃
+                Slice fresh = new Slice(epoch);
+                if (slices.compareAndSet(index, slice, fresh)) {
+                    return fresh;
+                }
+                slice = slices.get(index);
+            }
+            return slice;
+        }
+
+        Snapshot snapshot(long windowNanos, long elapsedNanos) {
+            long currentEpoch = Math.floorDiv(elapsedNanos, sliceNanos);
+            long sliceSpan = Math.min(slices.length(), Math.max(1, (windowNanos + sliceNanos - 1) / sliceNanos));
+            long oldestEpoch = currentEpoch - sliceSpan + 1;
+
+            long[] merged = new long[BUCKET_COUNT];
+            long count = 0;
+            long totalMicros = 0;
+            long maxMicros = 0;
+            for (int i = 0; i < slices.length(); i++) {
+                Slice slice = slices.get(i);
+                if (slice == null || slice.epoch < oldestEpoch || slice.epoch > currentEpoch) {
+                    continue;
+                }
+                for (int g = 0; g < GROUP_COUNT; g++) {
+                    AtomicIntegerArray group = slice.groups.get(g);
+                    if (group == null) {
+                        continue;
+                    }
+                    for (int b = 0; b < SUB_BUCKET_COUNT; b++) {
+                        int c = group.get(b);
+                        merged[(g << SUB_BUCKET_BITS) + b] += c;
+                        count += c;
+                    }
+                }
+                totalMicros += slice.totalMicros.sum();
+                maxMicros = Math.max(maxMicros, slice.maxMicros.get());
+            }
+            return new Snapshot(merged, count, totalMicros, maxMicros);
+        }
+    }
+
+    /**
+     * 单个时间片的分桶计数，分桶按组延迟分配
+     */
+    private static final class Slice {
+        final long epoch;
+        final AtomicReferenceArray<AtomicIntegerArray> groups = new AtomicReferenceArray<>(GROUP_COUNT);
+        final LongAdder totalMicros = new LongAdder();
+        final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+        Slice(long epoch) {
+            this.epoch = epoch;
+        }
+
+        void increment(int bucket) {
+            int index = bucket >>> SUB_BUCKET_BITS;
+            AtomicIntegerArray group = groups.get(index);
+            if (group == null) {
+                // 并发首次写入时只有一个数组生效，其余线程使用已生效的数组
+                groups.compareAndSet(index, null, new AtomicIntegerArray(SUB_BUCKET_COUNT));
+                group = groups.get(index);
+            }
+            group.getAndIncrement(bucket & (SUB_BUCKET_COUNT - 1));
+        }
+    }
+
+    /**
+     * 耗时分布快照，时间单位为毫秒
+     */
+    public static class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long totalMicros;
+        private final long maxMicros;
+
+        Snapshot(long[] counts, long count, long totalMicros, long maxMicros) {
+            this.counts = counts;
+            this.count = count;
+            this.totalMicros = totalMicros;
+            this.maxMicros = maxMicros;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMean() {
+            return count > 0 ? toMillis((double) totalMicros / count) : 0.0;
+        }
+
+        public double getMax() {
+            return toMillis(maxMicros);
+        }
+
+        /**
+         * 百分位耗时
+         *
+         * @param percentile 百分位（0~100）
+         * @return 耗时（毫秒），无数据时为0
+         */
+        public double getPercentile(double percentile) {
+            if (count == 0) {
+                return 0.0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return toMillis(Math.min(bucketUpperMicros(i), maxMicros));
+                }
+            }
+            return getMax();
+        }
+
+        private static double toMillis(double micros) {
+            return Math.round(micros) / 1000.0;
+        }
+    }
+}
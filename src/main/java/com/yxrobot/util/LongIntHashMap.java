@@ -0,0 +1,161 @@
+package com.yxrobot.util;
+
+import java.util.Arrays;
+
+/**
+ * long 到 int 的开放寻址哈希表
+ * 键值都是原始类型，不为每个条目创建 Long/Integer/Entry 对象，适合按设备ID索引列式数组的行号。
+ *
+ * 线性探测，负载超过 0.6 时扩容；删除时回移后续条目，不使用墓碑。
+ * 本类不是线程安全的，由调用方加锁。
+ *
+ * @author YXRobot开发团队
+ * @since 2025-03-04
+ */
+public class LongIntHashMap {
+
+    /** 表示键不存在的返回值 */
+    public static final int NO_VALUE = -1;
+
+    private static final long EMPTY_KEY = Long.MIN_VALUE;
+
+    private static final double LOAD_FACTOR = 0.6;
+
+    private long[] keys;
+
+    private int[] values;
+
+    private int size;
+
+    private int threshold;
+
+    public LongIntHashMap() {
+        this(16);
+    }
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * 获取键对应的值
+     *
+     * @return 值，不存在时返回 {@link #NO_VALUE}
+     */
+    public int get(long key) {
+        checkKey(key);
+        int mask = keys.length - 1;
+        for (int index = mix(key) & mask; ; index = (index + 1) & mask) {
+            if (keys[index] == key) {
+                return values[index];
+            }
+            if (keys[index] == EMPTY_KEY) {
+                return NO_VALUE;
+            }
+        }
+    }
+
+    /**
+     * 写入键值
+     *
+     * @param value 值，不能为负数
+     * @return 原来的值，不存在时返回 {@link #NO_VALUE}
+     */
+    public int put(long key, int value) {
+        checkKey(key);
+        if (value < 0) {
+            throw new IllegalArgumentException("值不能为负数: " + value);
+        }
+        int mask = keys.length - 1;
+        int index = mix(key) & mask;
+        while (keys[index] != EMPTY_KEY) {
+            if (keys[index] == key) {
+                int previous = values[index];
+                values[index] = value;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size > threshold) {
+            rehash(keys.length << 1);
+        }
+        return NO_VALUE;
+    }
+
+    /**
+     * 删除键
+     *
+     * @return 原来的值，不存在时返回 {@link #NO_VALUE}
+     */
+    public int remove(long key) {
+        checkKey(key);
+        int mask = keys.length - 1;
+        int index = mix(key) & mask;
+        while (keys[index] != key) {
+            if (keys[index] == EMPTY_KEY) {
+                return NO_VALUE;
+            }
+            index = (index + 1) & mask;
+        }
+        int previous = values[index];
+
+        // 把探测链上后续的条目移到空位，保证查找不会提前遇到空槽
+        int gap = index;
+        for (int next = (gap + 1) & mask; keys[next] != EMPTY_KEY; next = (next + 1) & mask) {
+            int home = mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = EMPTY_KEY;
+        size--;
+        return previous;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY_KEY) {
+                int index = mix(oldKeys[i]) & mask;
+                while (keys[index] != EMPTY_KEY) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY_KEY);
+        values = new int[capacity];
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static void checkKey(long key) {
+        if (key == EMPTY_KEY) {
+            throw new IllegalArgumentException("不支持的键: " + key);
+        }
+    }
+
+    /**
+     * 打散连续的设备ID，避免线性探测时聚集
+     */
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
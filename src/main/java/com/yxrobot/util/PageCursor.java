@@ -0,0 +1,74 @@
+package com.yxrobot.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 游标分页的位置标记
+ * 记录上一页最后一行的排序时间和ID，下一页从该位置之后继续查询：
+ * WHERE (time &lt; #{sortValue} OR (time = #{sortValue} AND id &lt; #{id})) ORDER BY time DESC, id DESC
+ *
+ * 对外以不透明字符串传递（Base64URL编码），客户端只需原样回传，不应解析其内容。
+ * 无论翻到第几页，数据库都只需沿 (time, id) 索引定位后读取一页数据，不再扫描并丢弃前面的行。
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-22
+ */
+public final class PageCursor {
+
+    private static final char SEPARATOR = '|';
+
+    private final LocalDateTime sortValue;
+    private final Long id;
+
+    public PageCursor(LocalDateTime sortValue, Long id) {
+        if (sortValue == null || id == null) {
+            throw new IllegalArgumentException("游标的排序值和ID不能为空");
+        }
+        this.sortValue = sortValue;
+        this.id = id;
+    }
+
+    /**
+     * 编码为不透明的游标字符串
+     */
+    public String encode() {
+        String raw = sortValue.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标字符串
+     *
+     * @param token 游标，为空表示第一页
+     * @return 游标位置，第一页返回null
+     * @throws IllegalArgumentException 游标格式不正确
+     */
+    public static PageCursor decode(String token) {
+        if (token == null || token.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator <= 0) {
+                throw new IllegalArgumentException("无效的分页游标");
+            }
+            return new PageCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                                  Long.valueOf(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            // 包含Base64解码失败和ID不是数字
+            throw new IllegalArgumentException("无效的分页游标", e);
+        }
+    }
+
+    public LocalDateTime getSortValue() {
+        return sortValue;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
@@ -6,11 +6,15 @@ import org.springframework.stereotype.Component;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 性能监控工具类
  * 用于监控API响应时间和系统性能指标
+ * 
+ * 耗时使用 System.nanoTime 计算，每个API另外维护 {@link LatencyRecorder}，
+ * 提供最近1分钟/5分钟/1小时的 p50/p95/p99 等百分位统计。
  */
 @Component
 public class PerformanceMonitor {
@@ -20,6 +24,10 @@ public class PerformanceMonitor {
     // 存储各个API的性能统计数据
     private final Map<String, ApiPerformanceStats> apiStats = new ConcurrentHashMap<>();
     
+    // 最多跟踪的API数量，超出后归入 OTHER_API，避免未归一化的路径撑爆内存
+    static final int MAX_TRACKED_APIS = 512;
+    static final String OTHER_API = "OTHER";
+    
     // 全局请求计数器
     private final AtomicLong totalRequests = new AtomicLong(0);
     private final AtomicLong totalErrors = new AtomicLong(0);
@@ -28,29 +36,29 @@ public class PerformanceMonitor {
      * 记录API调用开始时间
      * 
      * @param apiPath API路径
-     * @return 开始时间戳
+     * @return 开始时间（System.nanoTime，仅用于计算耗时）
      */
     public long startTiming(String apiPath) {
         totalRequests.incrementAndGet();
-        return System.currentTimeMillis();
+        return System.nanoTime();
     }
     
     /**
      * 记录API调用结束时间并计算性能指标
      * 
      * @param apiPath API路径
-     * @param startTime 开始时间戳
+     * @param startTime {@link #startTiming} 返回的开始时间
      * @param success 是否成功
      */
     public void endTiming(String apiPath, long startTime, boolean success) {
-        long endTime = System.currentTimeMillis();
-        long duration = endTime - startTime;
+        long durationNanos = System.nanoTime() - startTime;
+        long duration = TimeUnit.NANOSECONDS.toMillis(durationNanos);
         
         // 获取或创建API统计数据
-        ApiPerformanceStats stats = apiStats.computeIfAbsent(apiPath, k -> new ApiPerformanceStats());
+        ApiPerformanceStats stats = getOrCreateStats(apiPath);
         
         // 更新统计数据
-        stats.addRequest(duration, success);
+        stats.addRequestNanos(durationNanos, success);
         
         if (!success) {
             totalErrors.incrementAndGet();
@@ -68,6 +76,18 @@ public class PerformanceMonitor {
         }
     }
     
+    /**
+     * 获取API耗时分布
+     * 
+     * @param apiPath API路径
+     * @param windowMillis 统计窗口（毫秒），最长1小时
+     * @return 耗时分布，API不存在时返回null
+     */
+    public LatencyRecorder.Snapshot getLatencySnapshot(String apiPath, long windowMillis) {
+        ApiPerformanceStats stats = apiStats.get(apiPath);
+        return stats != null ? stats.getLatency(windowMillis) : null;
+    }
+    
     /**
      * 获取API性能统计数据
      * 
@@ -113,6 +133,18 @@ public class PerformanceMonitor {
         logger.info("性能监控数据已重置");
     }
     
+    private ApiPerformanceStats getOrCreateStats(String apiPath) {
+        ApiPerformanceStats stats = apiStats.get(apiPath);
+        if (stats != null) {
+            return stats;
+        }
+        if (apiStats.size() >= MAX_TRACKED_APIS) {
+            logger.debug("跟踪的API数量已达上限 {}，{} 计入 {}", MAX_TRACKED_APIS, apiPath, OTHER_API);
+            return apiStats.computeIfAbsent(OTHER_API, k -> new ApiPerformanceStats());
+        }
+        return apiStats.computeIfAbsent(apiPath, k -> new ApiPerformanceStats());
+    }
+    
     /**
      * 获取慢查询阈值
      * 
@@ -175,8 +207,27 @@ public class PerformanceMonitor {
         private volatile long minResponseTime = Long.MAX_VALUE;
         private volatile long maxResponseTime = 0;
         private volatile long lastCallTime = 0;
+        private final LatencyRecorder latencyRecorder = new LatencyRecorder();
         
+        /**
+         * 记录一次请求
+         * 
+         * @param responseTime 响应时间（毫秒）
+         * @param success 是否成功
+         */
         public void addRequest(long responseTime, boolean success) {
+            addRequestNanos(TimeUnit.MILLISECONDS.toNanos(responseTime), success);
+        }
+        
+        /**
+         * 记录一次请求
+         * 
+         * @param responseNanos 响应时间（纳秒）
+         * @param success 是否成功
+         */
+        public void addRequestNanos(long responseNanos, boolean success) {
+            long responseTime = TimeUnit.NANOSECONDS.toMillis(responseNanos);
+            latencyRecorder.record(responseNanos);
             totalCalls.incrementAndGet();
             totalResponseTime.addAndGet(responseTime);
             lastCallTime = System.currentTimeMillis();
@@ -233,6 +284,15 @@ public class PerformanceMonitor {
         public long getLastCallTime() {
             return lastCallTime;
         }
+        
+        /**
+         * 最近一段时间的耗时分布
+         * 
+         * @param windowMillis 统计窗口（毫秒），最长1小时
+         */
+        public LatencyRecorder.Snapshot getLatency(long windowMillis) {
+            return latencyRecorder.snapshot(TimeUnit.MILLISECONDS.toNanos(windowMillis));
+        }
     }
     
     /**
@@ -0,0 +1,187 @@
+package com.yxrobot.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 热门查询统计
+ * 用 Count-Min Sketch 估算每个查询的出现次数，同时维护估算次数最高的若干个查询，
+ * 内存占用固定，与出现过的不同查询数量无关。
+ *
+ * 计数采用保守更新（只增加各行中最小的计数器），减少哈希冲突带来的高估；
+ * 累计记录次数达到阈值后所有计数减半，使过去的热门查询逐渐冷却。
+ * 线程安全：所有方法同步执行。
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-25
+ */
+public class PopularQueryTracker {
+
+    private static final int DEPTH = 4;
+    private static final long[] SEEDS = {
+        0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0x27D4EB2F165667C5L
+    };
+
+    private final int[][] counters;
+    private final int widthMask;
+    private final int capacity;
+    private final long sampleSize;
+    private long additions;
+
+    /**
+     * 当前估算次数最高的查询 -> 估算次数
+     */
+    private final Map<String, Integer> topQueries = new HashMap<>();
+
+    /**
+     * @param capacity 跟踪的热门查询数量
+     * @param expectedDistinct 预计的不同查询数量，决定计数器宽度
+     */
+    public PopularQueryTracker(int capacity, int expectedDistinct) {
+        int width = Integer.highestOneBit(Math.max(expectedDistinct, 64) - 1) << 1;
+        this.counters = new int[DEPTH][width];
+        this.widthMask = width - 1;
+        this.capacity = Math.max(capacity, 1);
+        this.sampleSize = (long) width * 10;
+    }
+
+    /**
+     * 记录一次查询
+     *
+     * @param query 规范化后的查询
+     * @return 记录后的估算次数
+     */
+    public synchronized int record(String query) {
+        int hash = query.hashCode();
+        int current = estimateOf(hash);
+        int updated = current == Integer.MAX_VALUE ? current : current + 1;
+        for (int i = 0; i < DEPTH; i++) {
+            int index = indexOf(hash, i);
+            if (counters[i][index] < updated) {
+                counters[i][index] = updated;
+            }
+        }
+
+        updateTop(query, updated);
+        if (++additions >= sampleSize) {
+            age();
+        }
+        return updated;
+    }
+
+    /**
+     * 估算查询的出现次数
+     */
+    public synchronized int estimate(String query) {
+        return estimateOf(query.hashCode());
+    }
+
+    /**
+     * 是否在估算次数最高的前 n 个查询中
+     */
+    public synchronized boolean isTop(String query, int n) {
+        Integer count = topQueries.get(query);
+        if (count == null) {
+            return false;
+        }
+        int higher = 0;
+        for (int other : topQueries.values()) {
+            if (other > count && ++higher >= n) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 获取估算次数最高的查询
+     *
+     * @param n 数量
+     * @return 查询 -> 估算次数，按次数降序
+     */
+    public synchronized Map<String, Integer> top(int n) {
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>(topQueries.entrySet());
+        entries.sort(Map.Entry.<String, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : entries) {
+            if (result.size() >= n) {
+                break;
+            }
+            result.put(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * 清空统计
+     */
+    public synchronized void clear() {
+        for (int[] row : counters) {
+            Arrays.fill(row, 0);
+        }
+        topQueries.clear();
+        additions = 0;
+    }
+
+    private void updateTop(String query, int count) {
+        if (topQueries.containsKey(query) || topQueries.size() < capacity) {
+            topQueries.put(query, count);
+            return;
+        }
+        // 替换次数最少的热门查询
+        String weakest = null;
+        int weakestCount = Integer.MAX_VALUE;
+        for (Map.Entry<String, Integer> entry : topQueries.entrySet()) {
+            if (entry.getValue() < weakestCount) {
+                weakest = entry.getKey();
+                weakestCount = entry.getValue();
+            }
+        }
+        if (count > weakestCount) {
+            topQueries.remove(weakest);
+            topQueries.put(query, count);
+        }
+    }
+
+    /**
+     * 所有计数减半（老化）
+     */
+    private void age() {
+        for (int[] row : counters) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] >>>= 1;
+            }
+        }
+        Iterator<Map.Entry<String, Integer>> iterator = topQueries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Integer> entry = iterator.next();
+            int halved = entry.getValue() >>> 1;
+            if (halved == 0) {
+                iterator.remove();
+            } else {
+                entry.setValue(halved);
+            }
+        }
+        additions = 0;
+    }
+
+    private int estimateOf(int hash) {
+        int estimate = Integer.MAX_VALUE;
+        for (int i = 0; i < DEPTH; i++) {
+            estimate = Math.min(estimate, counters[i][indexOf(hash, i)]);
+        }
+        return estimate;
+    }
+
+    private int indexOf(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h ^= h >>> 32;
+        return (int) h & widthMask;
+    }
+}
@@ -0,0 +1,78 @@
+package com.yxrobot.util;
+
+import com.yxrobot.enums.ExportFormat;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * 表格数据流式写出
+ * 逐行写入输出流，不在内存中保留已写出的行，导出任意行数时内存占用不变；
+ * close 时写出文件结尾并关闭输出流，导出中途失败时改为调用 {@link #abort()}
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-27
+ */
+public interface RowStreamWriter extends Closeable {
+
+    DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * 写入一行
+     *
+     * @param values 单元格值，数字写为数字单元格，其余按 {@link #format(Object)} 转为文本
+     */
+    void writeRow(List<?> values) throws IOException;
+
+    /**
+     * 将已写入的数据推送给客户端
+     */
+    void flush() throws IOException;
+
+    /**
+     * 导出中途失败时放弃写出：不写出文件结尾，也不关闭输出流。
+     * 已发送的 XLSX 缺少 zip 目录、gzip 缺少结尾，客户端不会把不完整的内容当作完整文件；
+     * 响应尚未提交时调用方仍可重置响应并返回错误状态
+     */
+    default void abort() {
+    }
+
+    /**
+     * 按导出格式创建写出器
+     */
+    static RowStreamWriter create(ExportFormat format, OutputStream out, String sheetName) throws IOException {
+        return format == ExportFormat.XLSX ? new XlsxStreamWriter(out, sheetName) : new CsvStreamWriter(out);
+    }
+
+    /**
+     * 单元格文本：日期时间格式化为 yyyy-MM-dd HH:mm:ss，金额不使用科学计数法，枚举取名称
+     */
+    static String format(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof LocalDateTime) {
+            return ((LocalDateTime) value).format(DATE_TIME_FORMATTER);
+        }
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toLocalDateTime().format(DATE_TIME_FORMATTER);
+        }
+        if (value instanceof LocalDate) {
+            return value.toString();
+        }
+        if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).toPlainString();
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value ? "是" : "否";
+        }
+        return value.toString();
+    }
+}
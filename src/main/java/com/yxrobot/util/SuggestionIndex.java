@@ -0,0 +1,323 @@
+package com.yxrobot.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 单字段的输入提示索引
+ * 保存一个字段（如设备序列号、客户名称）所有记录的取值，按前缀和子串匹配返回提示词。
+ *
+ * 取值统一转小写后作为键：有序Map按前缀定位，二元组倒排表（每两个相邻字符一个词项）用于子串匹配，
+ * 查询时取各二元组倒排表的交集再校验。前缀匹配排在子串匹配之前，同类中按权重（相同取值的记录数）降序。
+ * 单个字符的查询只做前缀匹配，避免一个字符匹配出大量无意义的结果。
+ *
+ * 索引按记录ID维护取值，更新记录时会先移除旧值，所以可以直接用数据库记录的增删改驱动。
+ * 线程安全：读写锁保护，查询可以并发执行。
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-23
+ */
+public class SuggestionIndex {
+
+    private static final Comparator<Entry> RANKING = Comparator
+            .comparingInt(Entry::weight).reversed()
+            .thenComparingInt((Entry entry) -> entry.display.length())
+            .thenComparing(entry -> entry.display);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, String> valuesById = new HashMap<>();
+    private final NavigableMap<String, Entry> entries = new TreeMap<>();
+    private final Map<String, Set<Entry>> bigrams = new HashMap<>();
+
+    /**
+     * 设置记录的取值，取值为空时等同于移除
+     *
+     * @param id 记录ID
+     * @param value 字段取值
+     */
+    public void put(Long id, String value) {
+        String display = value != null ? value.trim() : "";
+        lock.writeLock().lock();
+        try {
+            String previous = valuesById.get(id);
+            if (previous != null && previous.equals(display)) {
+                return;
+            }
+            detach(id);
+            if (!display.isEmpty()) {
+                attach(id, display);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 移除记录
+     *
+     * @param id 记录ID
+     */
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            detach(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 用全部记录替换索引内容
+     *
+     * @param values 记录ID -> 字段取值
+     */
+    public void replaceAll(Map<Long, String> values) {
+        lock.writeLock().lock();
+        try {
+            valuesById.clear();
+            entries.clear();
+            bigrams.clear();
+            values.forEach((id, value) -> {
+                String display = value != null ? value.trim() : "";
+                if (!display.isEmpty()) {
+                    attach(id, display);
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 获取提示词
+     *
+     * @param query 用户输入
+     * @param limit 最多返回数量
+     * @return 提示词，按匹配方式和权重排序
+     */
+    public List<String> suggest(String query, int limit) {
+        List<String> result = new ArrayList<>();
+        for (Entry entry : match(query, limit)) {
+            result.add(entry.display);
+        }
+        return result;
+    }
+
+    /**
+     * 获取与提示词对应的记录ID
+     *
+     * @param query 用户输入
+     * @param limit 最多匹配的取值数量
+     * @return 记录ID，按提示词的顺序排列
+     */
+    public List<Long> suggestIds(String query, int limit) {
+        Set<Long> ids = new LinkedHashSet<>();
+        lock.readLock().lock();
+        try {
+            for (Entry entry : match(query, limit)) {
+                ids.addAll(entry.ids);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new ArrayList<>(ids);
+    }
+
+    /**
+     * 获取记录当前的取值
+     */
+    public String valueOf(Long id) {
+        lock.readLock().lock();
+        try {
+            return valuesById.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 获取取值与给定值相同（忽略大小写）的记录ID
+     */
+    public Set<Long> idsOf(String value) {
+        if (value == null) {
+            return Collections.emptySet();
+        }
+        lock.readLock().lock();
+        try {
+            Entry entry = entries.get(normalize(value));
+            return entry != null ? new HashSet<>(entry.ids) : Collections.emptySet();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 不同取值的数量
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 已索引的记录数量
+     */
+    public int recordCount() {
+        lock.readLock().lock();
+        try {
+            return valuesById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Entry> match(String query, int limit) {
+        String key = query != null ? normalize(query.trim()) : "";
+        if (key.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Entry> result = topEntries(entries.subMap(key, true, key + Character.MAX_VALUE, false).values(),
+                                            limit, Collections.emptySet());
+            if (result.size() < limit && key.codePointCount(0, key.length()) > 1) {
+                Set<Entry> prefixMatches = new HashSet<>(result);
+                List<Entry> infix = new ArrayList<>();
+                for (Entry entry : candidates(key)) {
+                    // 前缀匹配的取值已在前面的结果中
+                    if (!entry.key.startsWith(key) && entry.key.contains(key)) {
+                        infix.add(entry);
+                    }
+                }
+                result.addAll(topEntries(infix, limit - result.size(), prefixMatches));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 查询所有二元组倒排表的交集，从最短的倒排表开始
+     */
+    private Set<Entry> candidates(String key) {
+        List<Set<Entry>> postings = new ArrayList<>();
+        for (String gram : bigramsOf(key)) {
+            Set<Entry> posting = bigrams.get(gram);
+            if (posting == null) {
+                return Collections.emptySet();
+            }
+            postings.add(posting);
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+        Set<Entry> result = new HashSet<>(postings.get(0));
+        for (int i = 1; i < postings.size() && !result.isEmpty(); i++) {
+            result.retainAll(postings.get(i));
+        }
+        return result;
+    }
+
+    private static List<Entry> topEntries(Iterable<Entry> matches, int limit, Set<Entry> exclude) {
+        PriorityQueue<Entry> top = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        for (Entry entry : matches) {
+            if (exclude.contains(entry)) {
+                continue;
+            }
+            top.offer(entry);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<Entry> result = new ArrayList<>(top);
+        result.sort(RANKING);
+        return result;
+    }
+
+    private void attach(Long id, String display) {
+        String key = normalize(display);
+        valuesById.put(id, display);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = new Entry(key, display);
+            entries.put(key, entry);
+            for (String gram : bigramsOf(key)) {
+                bigrams.computeIfAbsent(gram, g -> new HashSet<>()).add(entry);
+            }
+        }
+        entry.ids.add(id);
+    }
+
+    private void detach(Long id) {
+        String previous = valuesById.remove(id);
+        if (previous == null) {
+            return;
+        }
+        String key = normalize(previous);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return;
+        }
+        entry.ids.remove(id);
+        if (entry.ids.isEmpty()) {
+            entries.remove(key);
+            for (String gram : bigramsOf(key)) {
+                Set<Entry> posting = bigrams.get(gram);
+                if (posting != null) {
+                    posting.remove(entry);
+                    if (posting.isEmpty()) {
+                        bigrams.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> bigramsOf(String key) {
+        Set<String> grams = new LinkedHashSet<>();
+        int[] codePoints = key.codePoints().toArray();
+        for (int i = 0; i + 1 < codePoints.length; i++) {
+            grams.add(new String(codePoints, i, 2));
+        }
+        return grams;
+    }
+
+    /**
+     * 一个不同的取值，权重为具有该取值的记录数
+     */
+    private static final class Entry {
+        private final String key;
+        private final String display;
+        private final Set<Long> ids = new HashSet<>(2);
+
+        Entry(String key, String display) {
+            this.key = key;
+            this.display = display;
+        }
+
+        int weight() {
+            return ids.size();
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.yxrobot.util;
+
+import java.util.Arrays;
+
+/**
+ * 压缩时间序列数据块
+ * 按 Gorilla 方式逐条追加 (时间戳, 多列数值) 样本，写入后不可修改，只能整块丢弃：
+ * - 时间戳存二阶差分（delta-of-delta），定时上报的设备大多只占1位；
+ * - 每列数值与该列上一个值做 XOR，值不变时占1位，变化时只存有效位。
+ *
+ * 时间戳单位为毫秒，允许乱序（差分为负数时同样可以编码），块内最小/最大时间戳单独记录。
+ * 空值用 NaN 表示。本类不是线程安全的，由调用方加锁。
+ *
+ * @author YXRobot开发团队
+ * @since 2025-03-03
+ */
+public class TimeSeriesBlock {
+
+    private final int columns;
+
+    private final BitWriter bits = new BitWriter();
+
+    private int count;
+
+    private long minTimestamp = Long.MAX_VALUE;
+
+    private long maxTimestamp = Long.MIN_VALUE;
+
+    private long prevTimestamp;
+
+    private long prevDelta;
+
+    private final long[] prevValues;
+
+    private final int[] prevLeading;
+
+    private final int[] prevTrailing;
+
+    public TimeSeriesBlock(int columns) {
+        if (columns <= 0) {
+            throw new IllegalArgumentException("列数必须大于0");
+        }
+        this.columns = columns;
+        this.prevValues = new long[columns];
+        this.prevLeading = new int[columns];
+        this.prevTrailing = new int[columns];
+    }
+
+    /**
+     * 追加一条样本
+     *
+     * @param timestamp 时间戳（毫秒）
+     * @param values 各列数值，长度等于列数，空值传 NaN
+     */
+    public void append(long timestamp, double[] values) {
+        if (values.length != columns) {
+            throw new IllegalArgumentException("列数不匹配: " + values.length);
+        }
+
+        if (count == 0) {
+            bits.write(timestamp, 64);
+            for (int i = 0; i < columns; i++) {
+                long raw = Double.doubleToRawLongBits(values[i]);
+                bits.write(raw, 64);
+                prevValues[i] = raw;
+                prevLeading[i] = -1;
+            }
+        } else {
+            long delta = timestamp - prevTimestamp;
+            writeDeltaOfDelta(delta - prevDelta);
+            prevDelta = delta;
+            for (int i = 0; i < columns; i++) {
+                writeValue(i, Double.doubleToRawLongBits(values[i]));
+            }
+        }
+
+        prevTimestamp = timestamp;
+        minTimestamp = Math.min(minTimestamp, timestamp);
+        maxTimestamp = Math.max(maxTimestamp, timestamp);
+        count++;
+    }
+
+    /**
+     * 按写入顺序解码所有样本
+     * 回调中的数组会被复用，需要保留时请复制
+     */
+    public void forEach(SampleVisitor visitor) {
+        if (count == 0) {
+            return;
+        }
+        BitReader reader = new BitReader(bits.words);
+        long[] values = new long[columns];
+        int[] leading = new int[columns];
+        int[] trailing = new int[columns];
+        double[] decoded = new double[columns];
+
+        long timestamp = reader.read(64);
+        for (int i = 0; i < columns; i++) {
+            values[i] = reader.read(64);
+            decoded[i] = Double.longBitsToDouble(values[i]);
+        }
+        visitor.accept(timestamp, decoded);
+
+        long delta = 0;
+        for (int n = 1; n < count; n++) {
+            delta += readDeltaOfDelta(reader);
+            timestamp += delta;
+            for (int i = 0; i < columns; i++) {
+                if (reader.read(1) != 0) {
+                    if (reader.read(1) != 0) {
+                        leading[i] = (int) reader.read(5);
+                        int length = (int) reader.read(6) + 1;
+                        trailing[i] = 64 - leading[i] - length;
+                    }
+                    int length = 64 - leading[i] - trailing[i];
+                    values[i] ^= reader.read(length) << trailing[i];
+                }
+                decoded[i] = Double.longBitsToDouble(values[i]);
+            }
+            visitor.accept(timestamp, decoded);
+        }
+    }
+
+    /**
+     * 块写满后释放多余的缓冲空间
+     */
+    public void trim() {
+        bits.trim();
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * 块内最小时间戳，空块为 Long.MAX_VALUE
+     */
+    public long getMinTimestamp() {
+        return minTimestamp;
+    }
+
+    /**
+     * 块内最大时间戳，空块为 Long.MIN_VALUE
+     */
+    public long getMaxTimestamp() {
+        return maxTimestamp;
+    }
+
+    /**
+     * 已编码的字节数
+     */
+    public long getEncodedBytes() {
+        return (bits.position + 7) / 8;
+    }
+
+    /**
+     * 二阶差分按取值范围分档：0 -> '0'，7位 -> '10'，12位 -> '110'，20位 -> '1110'，其余 '1111' + 64位
+     */
+    private void writeDeltaOfDelta(long dod) {
+        if (dod == 0) {
+            bits.write(0, 1);
+        } else if (fits(dod, 7)) {
+            bits.write(0b10, 2);
+            bits.write(dod, 7);
+        } else if (fits(dod, 12)) {
+            bits.write(0b110, 3);
+            bits.write(dod, 12);
+        } else if (fits(dod, 20)) {
+            bits.write(0b1110, 4);
+            bits.write(dod, 20);
+        } else {
+            bits.write(0b1111, 4);
+            bits.write(dod, 64);
+        }
+    }
+
+    private static long readDeltaOfDelta(BitReader reader) {
+        if (reader.read(1) == 0) {
+            return 0;
+        }
+        if (reader.read(1) == 0) {
+            return signExtend(reader.read(7), 7);
+        }
+        if (reader.read(1) == 0) {
+            return signExtend(reader.read(12), 12);
+        }
+        if (reader.read(1) == 0) {
+            return signExtend(reader.read(20), 20);
+        }
+        return reader.read(64);
+    }
+
+    /**
+     * XOR 为0写 '0'；有效位落在上一个值的前导/尾随零窗口内写 '10' + 有效位；
+     * 否则写 '11' + 5位前导零数 + 6位有效位长度 + 有效位
+     */
+    private void writeValue(int column, long raw) {
+        long xor = raw ^ prevValues[column];
+        prevValues[column] = raw;
+        if (xor == 0) {
+            bits.write(0, 1);
+            return;
+        }
+
+        int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+        int trailing = Long.numberOfTrailingZeros(xor);
+        if (prevLeading[column] >= 0 && leading >= prevLeading[column] && trailing >= prevTrailing[column]) {
+            bits.write(0b10, 2);
+            bits.write(xor >>> prevTrailing[column], 64 - prevLeading[column] - prevTrailing[column]);
+            return;
+        }
+
+        int length = 64 - leading - trailing;
+        bits.write(0b11, 2);
+        bits.write(leading, 5);
+        bits.write(length - 1, 6);
+        bits.write(xor >>> trailing, length);
+        prevLeading[column] = leading;
+        prevTrailing[column] = trailing;
+    }
+
+    private static boolean fits(long value, int width) {
+        long limit = 1L << (width - 1);
+        return value >= -limit && value < limit;
+    }
+
+    private static long signExtend(long value, int width) {
+        return (value << (64 - width)) >> (64 - width);
+    }
+
+    private static long mask(int width) {
+        return width == 64 ? -1L : (1L << width) - 1;
+    }
+
+    /**
+     * 样本回调
+     */
+    @FunctionalInterface
+    public interface SampleVisitor {
+        void accept(long timestamp, double[] values);
+    }
+
+    /**
+     * 按位写入，高位在前
+     */
+    private static class BitWriter {
+        private long[] words = new long[16];
+        private long position;
+
+        void write(long value, int width) {
+            if (width == 0) {
+                return;
+            }
+            int index = (int) (position >>> 6);
+            int free = 64 - (int) (position & 63);
+            if (index + 1 >= words.length) {
+                words = Arrays.copyOf(words, words.length * 2);
+            }
+            if (width <= free) {
+                words[index] |= (value & mask(width)) << (free - width);
+            } else {
+                int rest = width - free;
+                words[index] |= (value >>> rest) & mask(free);
+                words[index + 1] |= (value & mask(rest)) << (64 - rest);
+            }
+            position += width;
+        }
+
+        void trim() {
+            // 保留一个空字用于继续写入时跨字
+            words = Arrays.copyOf(words, (int) (position >>> 6) + 2);
+        }
+    }
+
+    /**
+     * 按位读取，与 {@link BitWriter} 对应
+     */
+    private static class BitReader {
+        private final long[] words;
+        private long position;
+
+        BitReader(long[] words) {
+            this.words = words;
+        }
+
+        long read(int width) {
+            if (width == 0) {
+                return 0;
+            }
+            int index = (int) (position >>> 6);
+            int available = 64 - (int) (position & 63);
+            long result;
+            if (width <= available) {
+                result = (words[index] >>> (available - width)) & mask(width);
+            } else {
+                int rest = width - available;
+                result = ((words[index] & mask(available)) << rest) | (words[index + 1] >>> (64 - rest));
+            }
+            position += width;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.yxrobot.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 事务工具
+ * 缓存失效、索引刷新等副作用要在事务提交后执行：提交前执行会让并发查询读到旧数据并重新写入缓存，
+ * 事务回滚时也不应生效。
+ *
+ * @author YXRobot开发团队
+ * @since 2025-08-26
+ */
+public final class TransactionUtils {
+
+    private TransactionUtils() {
+    }
+
+    /**
+     * 在当前事务提交后执行操作，未在事务中时立即执行
+     *
+     * @param action 要执行的操作
+     */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.yxrobot.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * XLSX 流式写出
+ * 直接输出 SpreadsheetML：固定的包结构文件在构造时写出，工作表逐行写入 zip 条目，
+ * 文本使用内联字符串而不是共享字符串表，因此不需要在内存中收集所有单元格。
+ * 只生成单个工作表，不带样式，行数不能超过 Excel 的上限 1048576 行。
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-27
+ */
+public class XlsxStreamWriter implements RowStreamWriter {
+
+    /**
+     * Excel 单个工作表的最大行数
+     */
+    public static final int MAX_ROWS = 1_048_576;
+
+    private static final String XML_HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+
+    private static final String CONTENT_TYPES = XML_HEADER
+        + "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+        + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+        + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+        + "<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>"
+        + "<Override PartName=\"/xl/worksheets/sheet1.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>"
+        + "</Types>";
+
+    private static final String ROOT_RELS = XML_HEADER
+        + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+        + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\" Target=\"xl/workbook.xml\"/>"
+        + "</Relationships>";
+
+    private static final String WORKBOOK_RELS = XML_HEADER
+        + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+        + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet\" Target=\"worksheets/sheet1.xml\"/>"
+        + "</Relationships>";
+
+    private final ZipOutputStream zip;
+    private final Writer sheet;
+    private int rowCount;
+
+    public XlsxStreamWriter(OutputStream out, String sheetName) throws IOException {
+        this.zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        writeEntry("[Content_Types].xml", CONTENT_TYPES);
+        writeEntry("_rels/.rels", ROOT_RELS);
+        writeEntry("xl/_rels/workbook.xml.rels", WORKBOOK_RELS);
+        writeEntry("xl/workbook.xml", XML_HEADER
+            + "<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\""
+            + " xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\">"
+            + "<sheets><sheet name=\"" + escapeXml(sheetName(sheetName)) + "\" sheetId=\"1\" r:id=\"rId1\"/></sheets>"
+            + "</workbook>");
+
+        zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+        this.sheet = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), 16 * 1024);
+        sheet.write(XML_HEADER);
+        sheet.write("<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>");
+    }
+
+    @Override
+    public void writeRow(List<?> values) throws IOException {
+        if (rowCount >= MAX_ROWS) {
+            throw new IllegalStateException("导出行数超过Excel上限 " + MAX_ROWS + " 行，请缩小导出范围或使用CSV格式");
+        }
+        int rowNumber = ++rowCount;
+        sheet.write("<row r=\"");
+        sheet.write(Integer.toString(rowNumber));
+        sheet.write("\">");
+        for (int i = 0; i < values.size(); i++) {
+            Object value = values.get(i);
+            if (value == null) {
+                continue;
+            }
+            String ref = columnName(i) + rowNumber;
+            if (value instanceof Number) {
+                sheet.write("<c r=\"" + ref + "\"><v>" + RowStreamWriter.format(value) + "</v></c>");
+            } else {
+                sheet.write("<c r=\"" + ref + "\" t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+                sheet.write(escapeXml(RowStreamWriter.format(value)));
+                sheet.write("</t></is></c>");
+            }
+        }
+        sheet.write("</row>");
+    }
+
+    @Override
+    public void flush() throws IOException {
+        sheet.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        sheet.write("</sheetData></worksheet>");
+        sheet.flush();
+        zip.closeEntry();
+        zip.close();
+    }
+
+    private void writeEntry(String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+
+    /**
+     * 列序号转列名：0 -> A，25 -> Z，26 -> AA
+     */
+    static String columnName(int index) {
+        StringBuilder name = new StringBuilder();
+        for (int n = index + 1; n > 0; n = (n - 1) / 26) {
+            name.insert(0, (char) ('A' + (n - 1) % 26));
+        }
+        return name.toString();
+    }
+
+    /**
+     * 工作表名称不能包含 []:*?/\ 且不超过31个字符
+     */
+    private static String sheetName(String name) {
+        String cleaned = name == null ? "" : name.replaceAll("[\\[\\]:*?/\\\\]", "_");
+        if (cleaned.isEmpty()) {
+            return "Sheet1";
+        }
+        return cleaned.length() > 31 ? cleaned.substring(0, 31) : cleaned;
+    }
+
+    /**
+     * XML 转义，并去掉 XML 1.0 不允许的控制字符
+     */
+    static String escapeXml(String text) {
+        StringBuilder escaped = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            String replacement;
+            switch (c) {
+                case '<': replacement = "&lt;"; break;
+                case '>': replacement = "&gt;"; break;
+                case '&': replacement = "&amp;"; break;
+                case '"': replacement = "&quot;"; break;
+                default:
+                    replacement = c < 0x20 && c != '\t' && c != '\n' && c != '\r' ? "" : null;
+            }
+            if (replacement != null && escaped == null) {
+                escaped = new StringBuilder(text.length() + 16).append(text, 0, i);
+            }
+            if (escaped != null) {
+                if (replacement != null) {
+                    escaped.append(replacement);
+                } else {
+                    escaped.append(c);
+                }
+            }
+        }
+        return escaped != null ? escaped.toString() : text;
+    }
+}
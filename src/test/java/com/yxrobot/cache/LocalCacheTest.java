@@ -0,0 +1,237 @@
+package com.yxrobot.cache;
+
+import com.yxrobot.config.LocalCacheConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LocalCache / LocalCacheManager 单元测试
+ * 验证容量淘汰、TTL过期、频率准入、合并加载、提前刷新和统计计数
+ */
+public class LocalCacheTest {
+
+    private LocalCacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new LocalCacheManager(new LocalCacheConfig(), Runnable::run);
+    }
+
+    @Test
+    void testGetAndPut() {
+        LocalCache<String, String> cache = cacheManager.getOrCreateCache("test", 10, Duration.ofMinutes(1));
+
+        assertNull(cache.get("a"));
+        cache.put("a", "1");
+        assertEquals("1", cache.get("a"));
+
+        Map<String, Object> stats = cache.getStats();
+        assertEquals(1L, stats.get("hitCount"));
+        assertEquals(1L, stats.get("missCount"));
+        assertEquals(1L, stats.get("putCount"));
+    }
+
+    @Test
+    void testLruEvictionKeepsSizeBounded() {
+        LocalCache<Integer, Integer> cache = cacheManager.getOrCreateCache("lru", 3, Duration.ofMinutes(1));
+
+        cache.put(1, 1);
+        cache.put(2, 2);
+        cache.put(3, 3);
+        cache.get(1); // 1 成为最近访问
+        cache.put(4, 4);
+
+        assertEquals(3, cache.size());
+        assertNull(cache.get(2));
+        assertEquals(1, cache.get(1));
+        assertEquals(4, cache.get(4));
+        assertEquals(1L, cache.getStats().get("evictionCount"));
+    }
+
+    @Test
+    void testSizeBoundedUnderManyKeys() {
+        LocalCache<Integer, Integer> cache = cacheManager.getOrCreateCache("many", 1000, Duration.ofMinutes(1));
+
+        for (int i = 0; i < 100_000; i++) {
+            cache.put(i, i);
+        }
+
+        assertTrue(cache.size() <= 1000);
+    }
+
+    @Test
+    void testTtlExpiration() throws InterruptedException {
+        LocalCache<String, String> cache = cacheManager.getOrCreateCache("ttl", 10, Duration.ofMillis(20));
+
+        cache.put("a", "1");
+        Thread.sleep(40);
+
+        assertNull(cache.get("a"));
+        assertEquals(1L, cache.getStats().get("expirationCount"));
+    }
+
+    @Test
+    void testCleanUpRemovesExpiredEntries() throws InterruptedException {
+        LocalCache<String, String> cache = cacheManager.getOrCreateCache("cleanup", 10, Duration.ofMillis(20));
+
+        cache.put("a", "1");
+        cache.put("b", "2");
+        Thread.sleep(40);
+
+        assertEquals(2, cache.cleanUp());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testTinyLfuRejectsColdKey() {
+        LocalCache<String, String> cache = cacheManager.getOrCreateCache("lfu", 2, Duration.ofMinutes(1),
+            LocalCache.EvictionPolicy.TINY_LFU);
+
+        cache.put("hot1", "1");
+        cache.put("hot2", "2");
+        for (int i = 0; i < 5; i++) {
+            cache.get("hot1");
+            cache.get("hot2");
+        }
+
+        cache.put("cold", "3");
+
+        assertNull(cache.get("cold"));
+        assertEquals("1", cache.get("hot1"));
+        assertEquals("2", cache.get("hot2"));
+        assertEquals(1L, cache.getStats().get("rejectionCount"));
+    }
+
+    @Test
+    void testInvalidateIf() {
+        LocalCache<String, String> cache = cacheManager.getOrCreateCache("prefix", 10, Duration.ofMinutes(1));
+        cache.put("customer_devices_1", "a");
+        cache.put("customer_orders_1", "b");
+        cache.put("customer_devices_2", "c");
+
+        assertEquals(2, cache.invalidateIf(key -> key.startsWith("customer_devices_")));
+        assertEquals("b", cache.get("customer_orders_1"));
+    }
+
+    @Test
+    void testRegionOverrideFromConfig() {
+        LocalCacheConfig config = new LocalCacheConfig();
+        LocalCacheConfig.Region region = new LocalCacheConfig.Region();
+        region.setMaximumSize(5);
+        region.setTtlSeconds(30L);
+        region.setPolicy("tiny_lfu");
+        config.getRegions().put("configured", region);
+
+        LocalCache<String, String> cache = new LocalCacheManager(config, Runnable::run)
+            .getOrCreateCache("configured", 100, Duration.ofMinutes(10));
+
+        assertEquals(5, cache.getMaximumSize());
+        assertEquals(Duration.ofSeconds(30), cache.getTtl());
+        assertEquals(LocalCache.EvictionPolicy.TINY_LFU, cache.getPolicy());
+    }
+
+    @Test
+    void testRegionWithoutTtlNeverExpires() {
+        LocalCache<String, String> cache = cacheManager.getOrCreateCache("no-ttl", 2, null);
+
+        cache.put("a", "1");
+        assertEquals(0, cache.cleanUp());
+        assertEquals("1", cache.get("a"));
+        assertNull(cache.getTtl());
+        assertEquals(0L, cache.getStats().get("ttlSeconds"));
+
+        // 仍按容量淘汰
+        cache.put("b", "2");
+        cache.put("c", "3");
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void testManagerReturnsSameRegion() {
+        LocalCache<String, String> first = cacheManager.getOrCreateCache("shared", 10, Duration.ofMinutes(1));
+        LocalCache<String, String> second = cacheManager.getOrCreateCache("shared", 99, Duration.ofMinutes(9));
+
+        assertSame(first, second);
+        assertTrue(cacheManager.getCacheNames().contains("shared"));
+        assertTrue(cacheManager.clear("shared"));
+        assertFalse(cacheManager.clear("missing"));
+    }
+
+    @Test
+    void testConcurrentMissesLoadOnce() throws Exception {
+        LocalCache<String, Integer> cache = cacheManager.getOrCreateCache("singleflight", 10, Duration.ofMinutes(1));
+        AtomicInteger loadCount = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.get("stats", key -> {
+                    loadCount.incrementAndGet();
+                    loaderStarted.countDown();
+                    try {
+                        releaseLoader.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return 42;
+                })));
+            }
+            assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+            Thread.sleep(50);
+            releaseLoader.countDown();
+
+            for (Future<Integer> result : results) {
+                assertEquals(42, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loadCount.get());
+        assertEquals(1L, cache.getStats().get("loadCount"));
+    }
+
+    @Test
+    void testLoaderFailureIsNotCached() {
+        LocalCache<String, Integer> cache = cacheManager.getOrCreateCache("failure", 10, Duration.ofMinutes(1));
+
+        assertThrows(IllegalStateException.class, () -> cache.get("k", key -> {
+            throw new IllegalStateException("db down");
+        }));
+
+        assertEquals(7, cache.get("k", key -> 7));
+        assertEquals(1L, cache.getStats().get("loadFailureCount"));
+    }
+
+    @Test
+    void testRefreshAheadReturnsOldValueAndReloads() throws InterruptedException {
+        LocalCache<String, Integer> cache = cacheManager.getOrCreateCache("refresh", 10, Duration.ofMinutes(1),
+            LocalCache.EvictionPolicy.LRU, Duration.ofMillis(20));
+        AtomicInteger version = new AtomicInteger();
+
+        assertEquals(1, cache.get("k", key -> version.incrementAndGet()));
+        assertEquals(1, cache.get("k", key -> version.incrementAndGet()));
+
+        Thread.sleep(40);
+        // 测试中刷新执行器为同步执行：本次返回旧值，同时完成刷新
+        assertEquals(1, cache.get("k", key -> version.incrementAndGet()));
+        assertEquals(2, cache.get("k", key -> version.incrementAndGet()));
+        assertEquals(1L, cache.getStats().get("refreshCount"));
+    }
+}
@@ -0,0 +1,155 @@
+package com.yxrobot.controller;
+
+import com.yxrobot.service.StaticFileService;
+import com.yxrobot.service.StaticFileService.FileMetadata;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * FileController 测试
+ * 验证 ETag/304、Range 分段下载、If-Range 和路径越界检查
+ *
+ * @author YXRobot开发团队
+ * @since 2025-03-01
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("文件访问测试")
+class FileControllerTest {
+
+    private static final String VIDEO_PATH = "products/videos/demo.mp4";
+
+    private static final String ETAG = "\"781e5e245d69b566979b86e28d23f2c7\"";
+
+    private static final long LAST_MODIFIED = 1_700_000_000_000L;
+
+    @TempDir
+    Path uploadDir;
+
+    @Mock
+    private StaticFileService staticFileService;
+
+    @InjectMocks
+    private FileController fileController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(fileController, "maxAgeSeconds", 3600L);
+        mockMvc = MockMvcBuilders.standaloneSetup(fileController).build();
+    }
+
+    /**
+     * 准备视频文件及其元数据，部分用例（如304）不会读取全部属性
+     */
+    private void givenVideo() throws Exception {
+        Path dir = Files.createDirectories(uploadDir.resolve("products/videos"));
+        Path video = Files.write(dir.resolve("demo.mp4"), "0123456789".getBytes(StandardCharsets.UTF_8));
+
+        FileMetadata metadata = mock(FileMetadata.class);
+        lenient().when(metadata.getPath()).thenReturn(video);
+        lenient().when(metadata.getContentType()).thenReturn("video/mp4");
+        lenient().when(metadata.getSize()).thenReturn(10L);
+        lenient().when(metadata.getLastModified()).thenReturn(LAST_MODIFIED);
+        lenient().when(metadata.getEtag()).thenReturn(ETAG);
+        when(staticFileService.getMetadata(VIDEO_PATH)).thenReturn(metadata);
+    }
+
+    @Test
+    @DisplayName("测试完整下载带缓存相关响应头")
+    void testFullContent() throws Exception {
+        givenVideo();
+
+        mockMvc.perform(get("/api/v1/files/" + VIDEO_PATH))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("video/mp4"))
+                .andExpect(content().string("0123456789"))
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=3600, public"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 10))
+                .andExpect(header().dateValue(HttpHeaders.LAST_MODIFIED, LAST_MODIFIED));
+
+        mockMvc.perform(head("/api/v1/files/" + VIDEO_PATH))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 10))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @DisplayName("测试ETag匹配时返回304，不匹配时返回完整内容")
+    void testNotModified() throws Exception {
+        givenVideo();
+
+        mockMvc.perform(get("/api/v1/files/" + VIDEO_PATH).header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get("/api/v1/files/" + VIDEO_PATH).header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string("0123456789"))
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG));
+    }
+
+    @Test
+    @DisplayName("测试Range请求返回206分段内容")
+    void testPartialContent() throws Exception {
+        givenVideo();
+
+        mockMvc.perform(get("/api/v1/files/" + VIDEO_PATH).header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string("2345"))
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 4));
+
+        mockMvc.perform(get("/api/v1/files/" + VIDEO_PATH).header(HttpHeaders.RANGE, "bytes=-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string("789"));
+
+        // If-Range 匹配时返回分段，不匹配时返回完整内容
+        mockMvc.perform(get("/api/v1/files/" + VIDEO_PATH).header(HttpHeaders.RANGE, "bytes=8-")
+                            .header(HttpHeaders.IF_RANGE, ETAG))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string("89"));
+        mockMvc.perform(get("/api/v1/files/" + VIDEO_PATH).header(HttpHeaders.RANGE, "bytes=8-")
+                            .header(HttpHeaders.IF_RANGE, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string("0123456789"));
+
+        mockMvc.perform(get("/api/v1/files/" + VIDEO_PATH).header(HttpHeaders.RANGE, "bytes=20-30"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+    }
+
+    @Test
+    @DisplayName("测试不存在的文件和越界路径")
+    void testMissingAndIllegalPath() throws Exception {
+        when(staticFileService.getMetadata("products/videos/missing.mp4")).thenReturn(null);
+        when(staticFileService.getMetadata("../secret.txt")).thenThrow(new IllegalArgumentException("非法文件路径"));
+
+        mockMvc.perform(get("/api/v1/files/products/videos/missing.mp4"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get(new URI("/api/v1/files/%2E%2E/secret.txt")))
+                .andExpect(status().isBadRequest());
+    }
+}
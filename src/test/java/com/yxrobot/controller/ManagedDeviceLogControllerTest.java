@@ -1,6 +1,8 @@
 package com.yxrobot.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yxrobot.enums.ExportFormat;
+import com.yxrobot.service.ExportJobService;
 import com.yxrobot.service.ManagedDeviceLogService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -38,6 +40,9 @@ class ManagedDeviceLogControllerTest {
     @MockBean
     private ManagedDeviceLogService logService;
     
+    @MockBean
+    private ExportJobService exportJobService;
+    
     private Map<String, Object> testLogsResult;
     
     @BeforeEach
@@ -251,18 +256,23 @@ class ManagedDeviceLogControllerTest {
         // 准备测试数据
         Long deviceId = 1L;
         
-        // 执行测试
+        ExportJobService.ExportJob job = new ExportJobService.ExportJob(
+                "job1", "device-logs", "device-logs:csv?deviceId=1", "设备日志-1.csv.gz", ExportFormat.CSV);
+        when(exportJobService.submitDeviceLogExport(eq(deviceId), eq("error"), isNull(), isNull(), isNull(),
+                eq(ExportFormat.CSV))).thenReturn(job);
+        
+        // 执行测试：提交后台导出任务后立即返回任务信息
         mockMvc.perform(get("/api/admin/devices/{id}/logs/export", deviceId)
                 .param("format", "csv")
                 .param("level", "error")
                 .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isOk())
+                .andExpect(status().isAccepted())
                 .andExpect(jsonPath("$.code").value(200))
-                .andExpect(jsonPath("$.message").value("导出成功"))
-                .andExpect(jsonPath("$.data.filename").exists())
-                .andExpect(jsonPath("$.data.downloadUrl").exists())
-                .andExpect(jsonPath("$.data.format").value("csv"))
-                .andExpect(jsonPath("$.data.exportTime").exists());
+                .andExpect(jsonPath("$.message").value("导出任务已提交"))
+                .andExpect(jsonPath("$.data.jobId").value("job1"))
+                .andExpect(jsonPath("$.data.status").value("PENDING"))
+                .andExpect(jsonPath("$.data.fileName").value("设备日志-1.csv.gz"))
+                .andExpect(jsonPath("$.data.format").value("csv"));
     }
     
     @Test
@@ -270,12 +280,27 @@ class ManagedDeviceLogControllerTest {
         // 准备测试数据
         Long deviceId = 1L;
         
+        when(exportJobService.submitDeviceLogExport(any(), any(), any(), any(), any(), any()))
+            .thenReturn(new ExportJobService.ExportJob("job2", "device-logs", "key", "设备日志-1.csv.gz", ExportFormat.CSV));
+        
         // 执行测试（不传format参数，使用默认值csv）
         mockMvc.perform(get("/api/admin/devices/{id}/logs/export", deviceId)
                 .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isOk())
+                .andExpect(status().isAccepted())
                 .andExpect(jsonPath("$.code").value(200))
                 .andExpect(jsonPath("$.data.format").value("csv"));
+        
+        verify(exportJobService).submitDeviceLogExport(deviceId, null, null, null, null, ExportFormat.CSV);
+    }
+    
+    @Test
+    void testExportDeviceLogs_UnsupportedFormat() throws Exception {
+        mockMvc.perform(get("/api/admin/devices/{id}/logs/export", 1L)
+                .param("format", "pdf"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(400));
+        
+        verifyNoInteractions(exportJobService);
     }
     
     @Test
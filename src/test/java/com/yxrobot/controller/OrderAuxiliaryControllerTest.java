@@ -4,10 +4,13 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.yxrobot.dto.OrderDTO;
 import com.yxrobot.dto.OrderQueryDTO;
 import com.yxrobot.dto.ShippingInfoDTO;
+import com.yxrobot.enums.ExportFormat;
+import com.yxrobot.service.DataExportService;
 import com.yxrobot.service.OrderService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -15,15 +18,21 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -46,6 +55,9 @@ class OrderAuxiliaryControllerTest {
     @Mock
     private OrderService orderService;
     
+    @Mock
+    private DataExportService dataExportService;
+    
     @InjectMocks
     private OrderController orderController;
     
@@ -85,11 +97,12 @@ class OrderAuxiliaryControllerTest {
      */
     @Test
     void testExportOrders_Success() throws Exception {
-        // 准备测试数据
-        List<OrderDTO> orderList = Arrays.asList(mockOrder);
-        OrderService.OrderQueryResult mockResult = new OrderService.OrderQueryResult(orderList, 1);  // 修复构造函数问题
-        
-        when(orderService.getOrders(any(OrderQueryDTO.class))).thenReturn(mockResult);
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(2);
+            out.write("订单号\r\nORD202501010001\r\n".getBytes(StandardCharsets.UTF_8));
+            out.close();
+            return 1L;
+        }).when(dataExportService).exportOrders(any(OrderQueryDTO.class), eq(ExportFormat.CSV), any(OutputStream.class));
         
         // 执行请求并验证结果
         mockMvc.perform(get("/api/admin/orders/export")
@@ -98,44 +111,44 @@ class OrderAuxiliaryControllerTest {
                 .param("status", "pending")
                 .param("startDate", "2025-01-01")
                 .param("endDate", "2025-01-31")
-                .param("format", "excel")
-                .contentType(MediaType.APPLICATION_JSON))
+                .param("format", "csv"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.code").value(200))
-                .andExpect(jsonPath("$.message").value("导出数据准备完成"))
-                .andExpect(jsonPath("$.data.orders").isArray())
-                .andExpect(jsonPath("$.data.total").value(1))
-                .andExpect(jsonPath("$.data.format").value("excel"))
-                .andExpect(jsonPath("$.data.filters.keyword").value("测试"))
-                .andExpect(jsonPath("$.data.filters.type").value("sales"));
+                .andExpect(header().string("Content-Type", "text/csv;charset=UTF-8"))
+                .andExpect(header().string("Content-Disposition", containsString("attachment")))
+                .andExpect(content().string(containsString("ORD202501010001")));
         
-        // 验证服务方法被调用
-        verify(orderService, times(1)).getOrders(any(OrderQueryDTO.class));
+        // 验证筛选条件传给导出服务
+        ArgumentCaptor<OrderQueryDTO> captor = ArgumentCaptor.forClass(OrderQueryDTO.class);
+        verify(dataExportService, times(1)).exportOrders(captor.capture(), eq(ExportFormat.CSV), any(OutputStream.class));
+        assertEquals("测试", captor.getValue().getKeyword());
+        assertEquals("sales", captor.getValue().getType());
+        assertEquals(LocalDate.of(2025, 1, 31), captor.getValue().getEndDate());
+        verify(orderService, never()).getOrders(any(OrderQueryDTO.class));
     }
     
     /**
-     * 测试订单数据导出接口 - 无筛选条件
+     * 测试订单数据导出接口 - 无筛选条件，默认导出Excel
      */
     @Test
     void testExportOrders_NoFilters() throws Exception {
-        // 准备测试数据
-        List<OrderDTO> orderList = Arrays.asList(mockOrder);
-        OrderService.OrderQueryResult mockResult = new OrderService.OrderQueryResult(orderList, 1);  // 修复构造函数问题
-        
-        when(orderService.getOrders(any(OrderQueryDTO.class))).thenReturn(mockResult);
+        mockMvc.perform(get("/api/admin/orders/export"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type",
+                    "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
         
-        // 执行请求并验证结果
+        verify(dataExportService, times(1)).exportOrders(any(OrderQueryDTO.class), eq(ExportFormat.XLSX), any(OutputStream.class));
+    }
+    
+    /**
+     * 测试订单数据导出接口 - CSV按Accept-Encoding压缩传输
+     */
+    @Test
+    void testExportOrders_Gzip() throws Exception {
         mockMvc.perform(get("/api/admin/orders/export")
-                .contentType(MediaType.APPLICATION_JSON))
+                .param("format", "csv")
+                .header("Accept-Encoding", "gzip, deflate"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.code").value(200))
-                .andExpect(jsonPath("$.message").value("导出数据准备完成"))
-                .andExpect(jsonPath("$.data.format").value("excel"))
-                .andExpect(jsonPath("$.data.filters.keyword").value(""))
-                .andExpect(jsonPath("$.data.filters.type").value(""));
-        
-        // 验证服务方法被调用
-        verify(orderService, times(1)).getOrders(any(OrderQueryDTO.class));
+                .andExpect(header().string("Content-Encoding", "gzip"));
     }
     
     /**
@@ -269,7 +282,7 @@ class OrderAuxiliaryControllerTest {
     @Test
     void testExportOrders_Exception() throws Exception {
         // 准备测试数据 - 模拟服务异常
-        when(orderService.getOrders(any(OrderQueryDTO.class)))
+        when(dataExportService.exportOrders(any(OrderQueryDTO.class), any(ExportFormat.class), any(OutputStream.class)))
                 .thenThrow(new RuntimeException("数据库连接失败"));
         
         // 执行请求并验证结果
@@ -280,7 +293,23 @@ class OrderAuxiliaryControllerTest {
                 .andExpect(jsonPath("$.message").value("导出失败：数据库连接失败"));
         
         // 验证服务方法被调用
-        verify(orderService, times(1)).getOrders(any(OrderQueryDTO.class));
+        verify(dataExportService, times(1)).exportOrders(any(OrderQueryDTO.class), any(ExportFormat.class), any(OutputStream.class));
+    }
+    
+    /**
+     * 测试订单数据导出接口 - 不支持的导出格式
+     */
+    @Test
+    void testExportOrders_UnsupportedFormat() throws Exception {
+        // 执行请求并验证结果
+        mockMvc.perform(get("/api/admin/orders/export")
+                .param("format", "pdf")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(400))
+                .andExpect(jsonPath("$.message").value("导出失败：不支持的导出格式: pdf"));
+        
+        verifyNoInteractions(dataExportService);
     }
     
     /**
@@ -342,6 +371,7 @@ class OrderAuxiliaryControllerTest {
                 .andExpect(jsonPath("$.code").value(400));
 
         // 验证服务方法未被调用
-        verify(orderService, never()).getOrders(any(OrderQueryDTO.class));       
+        verify(orderService, never()).getOrders(any(OrderQueryDTO.class));
+        verifyNoInteractions(dataExportService);
     }
 }
\ No newline at end of file
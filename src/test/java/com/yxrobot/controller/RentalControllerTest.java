@@ -6,6 +6,8 @@ import com.yxrobot.service.RentalStatsService;
 import com.yxrobot.service.DeviceUtilizationService;
 import com.yxrobot.service.RentalAnalysisService;
 import com.yxrobot.service.RentalCustomerService;
+import com.yxrobot.service.RentalFactService;
+import com.yxrobot.service.RentalRecordService;
 import com.yxrobot.validation.RentalValidator;
 import com.yxrobot.validation.RentalFormValidator;
 import com.yxrobot.cache.RentalCacheService;
@@ -56,6 +58,12 @@ class RentalControllerTest {
     @MockBean
     private RentalCustomerService rentalCustomerService;
     
+    @MockBean
+    private RentalRecordService rentalRecordService;
+    
+    @MockBean
+    private RentalFactService rentalFactService;
+    
     @MockBean
     private RentalValidator rentalValidator;
     
@@ -0,0 +1,70 @@
+package com.yxrobot.interceptor;
+
+import com.yxrobot.service.ManagedDeviceApiMonitoringService;
+import com.yxrobot.service.ManagedDevicePerformanceMonitorService;
+import com.yxrobot.util.PerformanceMonitor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 性能监控拦截器测试
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("性能监控拦截器测试")
+class PerformanceInterceptorTest {
+
+    @Mock
+    private ManagedDevicePerformanceMonitorService performanceMonitorService;
+
+    @Mock
+    private ManagedDeviceApiMonitoringService apiMonitoringService;
+
+    @Spy
+    private PerformanceMonitor performanceMonitor = new PerformanceMonitor();
+
+    @InjectMocks
+    private PerformanceInterceptor performanceInterceptor;
+
+    private void handle(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        performanceInterceptor.preHandle(request, response, null);
+        performanceInterceptor.afterCompletion(request, response, null, null);
+    }
+
+    @Test
+    @DisplayName("测试按路由模板记录耗时")
+    void testRecordsByRoutePattern() throws Exception {
+        for (long id = 1; id <= 3; id++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/admin/devices/" + id);
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/admin/devices/{id}");
+            handle(request);
+        }
+
+        assertEquals(3, performanceMonitor.getApiStats("GET /api/admin/devices/{id}").getTotalCalls());
+        verify(apiMonitoringService, times(3)).recordApiMetric(eq("/api/admin/devices/{id}"), eq("GET"),
+            anyLong(), eq(200), any(), any());
+    }
+
+    @Test
+    @DisplayName("测试未匹配路由的请求归入同一个统计项")
+    void testUnmatchedRequestsShareOneKey() throws Exception {
+        handle(new MockHttpServletRequest("GET", "/wp-login.php"));
+        handle(new MockHttpServletRequest("POST", "/api/admin/devices/unknown/path"));
+
+        assertEquals(2, performanceMonitor.getApiStats(PerformanceInterceptor.UNMATCHED_API).getTotalCalls());
+        assertEquals(1, performanceMonitor.getAllApiStats().size());
+        verify(apiMonitoringService, never()).recordApiMetric(any(), any(), anyLong(), anyInt(), any(), any());
+    }
+}
@@ -0,0 +1,147 @@
+package com.yxrobot.service;
+
+import com.yxrobot.cache.LocalCacheManager;
+import com.yxrobot.config.CacheConfig;
+import com.yxrobot.config.LocalCacheConfig;
+import com.yxrobot.dto.ServiceRecordDTO;
+import com.yxrobot.entity.CustomerServiceRecord;
+import com.yxrobot.mapper.CustomerMapper;
+import com.yxrobot.mapper.CustomerServiceRecordMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * CustomerServiceRecordService 注解缓存测试
+ * 验证 @Cacheable 命中本地缓存，以及写操作按客户清除缓存
+ */
+@SpringJUnitConfig(CustomerServiceRecordServiceCacheTest.TestConfig.class)
+public class CustomerServiceRecordServiceCacheTest {
+
+    @Configuration
+    @Import({CacheConfig.class, LocalCacheConfig.class, LocalCacheManager.class, CustomerServiceRecordService.class})
+    static class TestConfig {
+
+        @Bean
+        public Executor cacheRefreshExecutor() {
+            return Runnable::run;
+        }
+    }
+
+    @MockBean
+    private CustomerMapper customerMapper;
+
+    @MockBean
+    private CustomerServiceRecordMapper customerServiceRecordMapper;
+
+    @Autowired
+    private CustomerServiceRecordService customerServiceRecordService;
+
+    @Autowired
+    private LocalCacheManager localCacheManager;
+
+    @BeforeEach
+    void setUp() {
+        localCacheManager.clearAll();
+        when(customerServiceRecordMapper.selectCustomerServiceRecordsByCustomerId(anyLong()))
+            .thenReturn(List.of(new ServiceRecordDTO()));
+    }
+
+    @Test
+    void testServiceRecordsAreCached() {
+        customerServiceRecordService.getCustomerServiceRecords(1L);
+        customerServiceRecordService.getCustomerServiceRecords(1L);
+
+        verify(customerServiceRecordMapper, times(1)).selectCustomerServiceRecordsByCustomerId(1L);
+        assertNotNull(localCacheManager.getCache("customerServiceRecords"));
+    }
+
+    @Test
+    void testCreateEvictsOnlyThatCustomer() {
+        customerServiceRecordService.getCustomerServiceRecords(1L);
+        customerServiceRecordService.getCustomerServiceRecords(2L);
+
+        CustomerServiceRecord record = new CustomerServiceRecord();
+        record.setCustomerId(1L);
+        record.setServiceRecordId(10L);
+        customerServiceRecordService.createServiceRecord(record);
+
+        customerServiceRecordService.getCustomerServiceRecords(1L);
+        customerServiceRecordService.getCustomerServiceRecords(2L);
+
+        verify(customerServiceRecordMapper, times(2)).selectCustomerServiceRecordsByCustomerId(1L);
+        verify(customerServiceRecordMapper, times(1)).selectCustomerServiceRecordsByCustomerId(2L);
+    }
+
+    @Test
+    void testDeleteEvictsCustomerCache() {
+        when(customerServiceRecordMapper.deleteByCustomerAndService(1L, 10L)).thenReturn(1);
+        customerServiceRecordService.getCustomerServiceRecords(1L);
+
+        customerServiceRecordService.deleteServiceRecord(1L, 10L);
+        customerServiceRecordService.getCustomerServiceRecords(1L);
+
+        verify(customerServiceRecordMapper, times(2)).selectCustomerServiceRecordsByCustomerId(1L);
+    }
+
+    @Test
+    void testDeleteRelationChecksCustomerAndEvicts() {
+        CustomerServiceRecord relation = new CustomerServiceRecord();
+        relation.setId(5L);
+        relation.setCustomerId(1L);
+        relation.setServiceRecordId(10L);
+        when(customerServiceRecordMapper.selectById(5L)).thenReturn(relation);
+        when(customerServiceRecordMapper.deleteById(5L)).thenReturn(1);
+        customerServiceRecordService.getCustomerServiceRecords(1L);
+
+        // 关联不属于该客户时不删除
+        assertThrows(IllegalArgumentException.class,
+            () -> customerServiceRecordService.deleteServiceRecordRelation(2L, 5L));
+        verify(customerServiceRecordMapper, never()).deleteById(anyLong());
+
+        customerServiceRecordService.deleteServiceRecordRelation(1L, 5L);
+        customerServiceRecordService.getCustomerServiceRecords(1L);
+
+        verify(customerServiceRecordMapper).deleteById(5L);
+        verify(customerServiceRecordMapper, times(2)).selectCustomerServiceRecordsByCustomerId(1L);
+    }
+
+    @Test
+    void testUpdateEvictsOldAndNewCustomer() {
+        CustomerServiceRecord existing = new CustomerServiceRecord();
+        existing.setId(5L);
+        existing.setCustomerId(1L);
+        existing.setServiceRecordId(10L);
+        when(customerServiceRecordMapper.selectById(5L)).thenReturn(existing);
+        when(customerServiceRecordMapper.updateById(any())).thenReturn(1);
+        customerServiceRecordService.getCustomerServiceRecords(1L);
+        customerServiceRecordService.getCustomerServiceRecords(2L);
+        customerServiceRecordService.getCustomerServiceRecords(3L);
+
+        CustomerServiceRecord moved = new CustomerServiceRecord();
+        moved.setId(5L);
+        moved.setCustomerId(2L);
+        moved.setServiceRecordId(10L);
+        customerServiceRecordService.updateServiceRecord(moved);
+
+        customerServiceRecordService.getCustomerServiceRecords(1L);
+        customerServiceRecordService.getCustomerServiceRecords(2L);
+        customerServiceRecordService.getCustomerServiceRecords(3L);
+
+        verify(customerServiceRecordMapper, times(2)).selectCustomerServiceRecordsByCustomerId(1L);
+        verify(customerServiceRecordMapper, times(2)).selectCustomerServiceRecordsByCustomerId(2L);
+        verify(customerServiceRecordMapper, times(1)).selectCustomerServiceRecordsByCustomerId(3L);
+    }
+}
@@ -36,6 +36,9 @@ public class CustomerServiceTest {
     @Mock
     private CustomerAddressMapper customerAddressMapper;
     
+    @Mock
+    private AutocompleteIndex autocompleteIndex;
+    
     @InjectMocks
     private CustomerService customerService;
     
@@ -0,0 +1,221 @@
+package com.yxrobot.service;
+
+import com.yxrobot.dto.CustomerQueryDTO;
+import com.yxrobot.dto.OrderQueryDTO;
+import com.yxrobot.enums.ExportFormat;
+import com.yxrobot.mapper.CustomerMapper;
+import com.yxrobot.mapper.ManagedDeviceLogMapper;
+import com.yxrobot.mapper.OrderMapper;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * DataExportService 测试
+ * 验证逐行写出、代码值转换和客户端断开时停止读取
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-27
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("数据导出测试")
+class DataExportServiceTest {
+
+    @Mock
+    private OrderMapper orderMapper;
+
+    @Mock
+    private CustomerMapper customerMapper;
+
+    @Mock
+    private ManagedDeviceLogMapper managedDeviceLogMapper;
+
+    @InjectMocks
+    private DataExportService dataExportService;
+
+    private static Map<String, Object> orderRow(int i) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("orderNumber", "ORD" + i);
+        row.put("type", "rental");
+        row.put("status", "completed");
+        row.put("customerName", "客户" + i);
+        row.put("totalAmount", new BigDecimal("99.90"));
+        row.put("createdAt", LocalDateTime.of(2025, 2, 1, 10, 0));
+        return row;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void streamOrders(int count) {
+        doAnswer(invocation -> {
+            ResultHandler<Map<String, Object>> handler = invocation.getArgument(5);
+            DefaultResultContext<Map<String, Object>> context = new DefaultResultContext<>();
+            for (int i = 1; i <= count && !context.isStopped(); i++) {
+                context.nextResultObject(orderRow(i));
+                handler.handleResult(context);
+            }
+            return null;
+        }).when(orderMapper).selectForExport(any(), any(), any(), any(), any(), any(ResultHandler.class));
+    }
+
+    @Test
+    @DisplayName("测试订单导出为CSV")
+    @SuppressWarnings("unchecked")
+    void testExportOrdersCsv() throws Exception {
+        streamOrders(3);
+        OrderQueryDTO queryDTO = new OrderQueryDTO();
+        queryDTO.setStatus("completed");
+        queryDTO.setStartDate(LocalDate.of(2025, 1, 1));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = dataExportService.exportOrders(queryDTO, ExportFormat.CSV, out);
+
+        assertEquals(3, rows);
+        String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).substring(1).split("\r\n");
+        assertEquals(4, lines.length);
+        assertTrue(lines[0].startsWith("订单号,订单类型,订单状态,客户名称"));
+        assertTrue(lines[1].startsWith("ORD1,租赁,已完成,客户1,,,,99.90,"));
+        assertTrue(lines[3].endsWith(",2025-02-01 10:00:00"));
+        verify(orderMapper).selectForExport(isNull(), isNull(), eq("completed"), eq(LocalDate.of(2025, 1, 1)),
+                                            isNull(), any(ResultHandler.class));
+    }
+
+    @Test
+    @DisplayName("测试客户端断开后停止读取结果集")
+    void testStopOnClientAbort() {
+        streamOrders(10 * DataExportService.FLUSH_INTERVAL);
+        AtomicInteger flushes = new AtomicInteger();
+        OutputStream brokenPipe = new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+
+            @Override
+            public void flush() throws IOException {
+                if (flushes.incrementAndGet() > 1) {
+                    throw new IOException("Broken pipe");
+                }
+            }
+        };
+
+        IOException error = assertThrows(IOException.class,
+            () -> dataExportService.exportOrders(new OrderQueryDTO(), ExportFormat.CSV, brokenPipe));
+        assertEquals("Broken pipe", error.getMessage());
+    }
+
+    @Test
+    @DisplayName("测试查询中途失败时不写出文件结尾也不关闭输出流")
+    @SuppressWarnings("unchecked")
+    void testAbortOnQueryFailure() {
+        doAnswer(invocation -> {
+            ResultHandler<Map<String, Object>> handler = invocation.getArgument(5);
+            DefaultResultContext<Map<String, Object>> context = new DefaultResultContext<>();
+            context.nextResultObject(orderRow(1));
+            handler.handleResult(context);
+            throw new PersistenceException("Communications link failure");
+        }).when(orderMapper).selectForExport(any(), any(), any(), any(), any(), any(ResultHandler.class));
+        AtomicBoolean closed = new AtomicBoolean();
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+
+        assertThrows(PersistenceException.class,
+            () -> dataExportService.exportOrders(new OrderQueryDTO(), ExportFormat.XLSX, out));
+
+        assertFalse(closed.get());
+        // 没有 zip 中央目录结尾记录（PK\5\6），不是完整的 XLSX
+        byte[] bytes = out.toByteArray();
+        for (int i = 0; i + 3 < bytes.length; i++) {
+            assertFalse(bytes[i] == 'P' && bytes[i + 1] == 'K' && bytes[i + 2] == 5 && bytes[i + 3] == 6);
+        }
+    }
+
+    @Test
+    @DisplayName("测试客户导出为XLSX")
+    @SuppressWarnings("unchecked")
+    void testExportCustomersXlsx() throws Exception {
+        doAnswer(invocation -> {
+            ResultHandler<Map<String, Object>> handler = invocation.getArgument(1);
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("customerName", "北京机器人有限公司");
+            row.put("customerLevel", "vip");
+            row.put("totalSpent", new BigDecimal("50000.00"));
+            DefaultResultContext<Map<String, Object>> context = new DefaultResultContext<>();
+            context.nextResultObject(row);
+            handler.handleResult(context);
+            return null;
+        }).when(customerMapper).selectForExport(any(CustomerQueryDTO.class), any(ResultHandler.class));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = dataExportService.exportCustomers(new CustomerQueryDTO(), ExportFormat.XLSX, out);
+
+        assertEquals(1, rows);
+        byte[] bytes = out.toByteArray();
+        assertEquals('P', bytes[0]);
+        assertEquals('K', bytes[1]);
+    }
+
+    @Test
+    @DisplayName("测试设备日志导出按批回调进度")
+    @SuppressWarnings("unchecked")
+    void testExportDeviceLogsProgress() throws Exception {
+        int count = 2 * DataExportService.FLUSH_INTERVAL + 1;
+        doAnswer(invocation -> {
+            ResultHandler<Map<String, Object>> handler = invocation.getArgument(5);
+            DefaultResultContext<Map<String, Object>> context = new DefaultResultContext<>();
+            for (int i = 1; i <= count; i++) {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("timestamp", LocalDateTime.of(2025, 2, 1, 10, 0));
+                row.put("level", "ERROR");
+                row.put("category", "NETWORK");
+                row.put("message", "连接超时");
+                context.nextResultObject(row);
+                handler.handleResult(context);
+            }
+            return null;
+        }).when(managedDeviceLogMapper).selectForExport(eq(1L), eq("ERROR"), isNull(), isNull(), isNull(),
+                                                       any(ResultHandler.class));
+
+        List<Long> progress = new ArrayList<>();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = dataExportService.exportDeviceLogs(1L, "ERROR", null, null, null, ExportFormat.CSV, out,
+                                                       progress::add);
+
+        assertEquals(count, rows);
+        assertEquals(List.of((long) DataExportService.FLUSH_INTERVAL, 2L * DataExportService.FLUSH_INTERVAL), progress);
+        String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).substring(1).split("\r\n");
+        assertEquals("时间,级别,分类,内容,详情", lines[0]);
+        assertEquals("2025-02-01 10:00:00,错误,网络,连接超时,", lines[1]);
+    }
+}
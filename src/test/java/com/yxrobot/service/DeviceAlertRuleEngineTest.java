@@ -0,0 +1,154 @@
+package com.yxrobot.service;
+
+import com.yxrobot.entity.AlertLevel;
+import com.yxrobot.entity.DeviceAlert;
+import com.yxrobot.entity.DeviceNetworkStatus;
+import com.yxrobot.entity.DevicePerformanceMetrics;
+import com.yxrobot.mapper.DeviceAlertMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * DeviceAlertRuleEngine 单元测试
+ * 验证滑动窗口、滞回、抑制以及批量去重写入
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-19
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("设备告警规则引擎测试")
+class DeviceAlertRuleEngineTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 2, 19, 10, 0);
+
+    @Mock
+    private DeviceAlertMapper deviceAlertMapper;
+
+    @InjectMocks
+    private DeviceAlertRuleEngine engine;
+
+    @Test
+    @DisplayName("测试窗口均值与最少样本数")
+    void testWindowAverage() {
+        // 单个尖峰不足以触发CPU告警
+        assertEquals(0, engine.onPerformanceMetrics(List.of(cpu(1L, 99, 0))));
+        assertEquals(0, engine.onPerformanceMetrics(List.of(cpu(1L, 60, 1))));
+        // 三个样本均值 (99+60+50)/3 未超过85
+        assertEquals(0, engine.onPerformanceMetrics(List.of(cpu(1L, 50, 2))));
+
+        // 旧样本滑出5分钟窗口后均值超过阈值
+        assertEquals(0, engine.onPerformanceMetrics(List.of(cpu(1L, 95, 6))));
+        assertEquals(0, engine.onPerformanceMetrics(List.of(cpu(1L, 95, 7))));
+        assertEquals(1, engine.onPerformanceMetrics(List.of(cpu(1L, 95, 8))));
+    }
+
+    @Test
+    @DisplayName("测试滞回与抑制时间")
+    void testHysteresisAndSuppression() {
+        // 温度连续两个样本均值超过75触发，超过85为ERROR
+        engine.onPerformanceMetrics(List.of(temperature(1L, 90, 0)));
+        assertEquals(1, engine.onPerformanceMetrics(List.of(temperature(1L, 90, 1))));
+
+        // 回落到72，仍高于恢复阈值70，再次升高不重复告警
+        engine.onPerformanceMetrics(List.of(temperature(1L, 72, 5), temperature(1L, 72, 6)));
+        assertEquals(0, engine.onPerformanceMetrics(List.of(temperature(1L, 80, 8), temperature(1L, 80, 9))));
+
+        // 恢复后在抑制时间内再次越限，不产生告警
+        engine.onPerformanceMetrics(List.of(temperature(1L, 60, 12), temperature(1L, 60, 13)));
+        assertEquals(0, engine.onPerformanceMetrics(List.of(temperature(1L, 80, 16), temperature(1L, 80, 17))));
+
+        // 恢复后超过抑制时间再次越限，重新告警
+        engine.onPerformanceMetrics(List.of(temperature(1L, 60, 20), temperature(1L, 60, 21)));
+        assertEquals(1, engine.onPerformanceMetrics(List.of(temperature(1L, 80, 40), temperature(1L, 80, 41))));
+
+        assertEquals(1L, engine.getEngineStats().get("suppressedAlerts"));
+    }
+
+    @Test
+    @DisplayName("测试批量写入跳过已有未解决告警")
+    @SuppressWarnings("unchecked")
+    void testFlushSkipsUnresolved() {
+        Map<String, Object> unresolved = new HashMap<>();
+        unresolved.put("deviceId", 2L);
+        unresolved.put("alertType", "LOW_BATTERY");
+        when(deviceAlertMapper.selectUnresolvedKeys(anyCollection(), anyCollection()))
+                .thenReturn(Collections.singletonList(unresolved));
+        when(deviceAlertMapper.batchInsert(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+
+        engine.onPerformanceMetrics(List.of(battery(1L, 5, 0), battery(2L, 15, 0)));
+        DeviceNetworkStatus slow = new DeviceNetworkStatus();
+        slow.setDeviceId(3L);
+        slow.setDownloadSpeed(new BigDecimal("0.5"));
+        for (int i = 0; i < 3; i++) {
+            slow.setUpdatedAt(START.plusMinutes(i));
+            engine.onNetworkStatus(List.of(slow));
+        }
+
+        assertEquals(2, engine.flushAlerts());
+        assertEquals(0, engine.flushAlerts());
+
+        ArgumentCaptor<List<DeviceAlert>> captor = ArgumentCaptor.forClass(List.class);
+        verify(deviceAlertMapper).batchInsert(captor.capture());
+        List<DeviceAlert> inserted = captor.getValue();
+        assertEquals(2, inserted.size());
+        assertEquals(1L, inserted.get(0).getDeviceId());
+        assertEquals(AlertLevel.ERROR, inserted.get(0).getAlertLevel());
+        assertEquals("设备电池电量过低: 5.0%", inserted.get(0).getAlertMessage());
+        assertEquals("LOW_NETWORK_SPEED", inserted.get(1).getAlertType());
+        assertEquals(AlertLevel.INFO, inserted.get(1).getAlertLevel());
+        assertEquals(1L, engine.getEngineStats().get("duplicateAlerts"));
+    }
+
+    @Test
+    @DisplayName("测试写入失败后重新布防")
+    void testFailedFlushRearms() {
+        when(deviceAlertMapper.batchInsert(anyList())).thenThrow(new RuntimeException("db down"));
+
+        assertEquals(1, engine.onPerformanceMetrics(List.of(battery(1L, 15, 0))));
+        assertEquals(0, engine.flushAlerts());
+        assertEquals(1L, engine.getEngineStats().get("failedAlerts"));
+
+        assertEquals(1, engine.onPerformanceMetrics(List.of(battery(1L, 15, 1))));
+    }
+
+    private static DevicePerformanceMetrics cpu(Long deviceId, double value, int minute) {
+        DevicePerformanceMetrics metrics = sample(deviceId, minute);
+        metrics.setCpuUsage(BigDecimal.valueOf(value));
+        return metrics;
+    }
+
+    private static DevicePerformanceMetrics temperature(Long deviceId, double value, int minute) {
+        DevicePerformanceMetrics metrics = sample(deviceId, minute);
+        metrics.setTemperature(BigDecimal.valueOf(value));
+        return metrics;
+    }
+
+    private static DevicePerformanceMetrics battery(Long deviceId, double value, int minute) {
+        DevicePerformanceMetrics metrics = sample(deviceId, minute);
+        metrics.setBatteryLevel(BigDecimal.valueOf(value));
+        return metrics;
+    }
+
+    private static DevicePerformanceMetrics sample(Long deviceId, int minute) {
+        DevicePerformanceMetrics metrics = new DevicePerformanceMetrics();
+        metrics.setDeviceId(deviceId);
+        metrics.setMetricTimestamp(START.plusMinutes(minute));
+        return metrics;
+    }
+}
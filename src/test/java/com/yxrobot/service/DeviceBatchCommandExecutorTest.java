@@ -0,0 +1,197 @@
+package com.yxrobot.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.yxrobot.dto.DeviceControlDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DeviceBatchCommandExecutor 测试
+ * 验证并发上限、单设备超时与重试、批次进度
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-20
+ */
+@DisplayName("设备批量命令执行器测试")
+class DeviceBatchCommandExecutorTest {
+
+    private DeviceBatchCommandExecutor executor;
+
+    private final ExecutorService senders = Executors.newFixedThreadPool(16);
+
+    private final ExecutorService coordinators = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+        senders.shutdownNow();
+        coordinators.shutdownNow();
+    }
+
+    private DeviceBatchCommandExecutor newExecutor(int parallelism, long commandTimeoutMs, int maxRetries,
+                                                   long retryBackoffMs) {
+        return new DeviceBatchCommandExecutor(parallelism, commandTimeoutMs, maxRetries, retryBackoffMs,
+                senders, coordinators);
+    }
+
+    private static List<Long> deviceIds(int count) {
+        List<Long> ids = new ArrayList<>();
+        for (long i = 1; i <= count; i++) {
+            ids.add(i);
+        }
+        return ids;
+    }
+
+    @Test
+    @DisplayName("测试并发下发且不超过并发上限")
+    void testBoundedParallelism() {
+        executor = newExecutor(8, 10_000, 0, 0);
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        // 前8台设备都在发送中才放行，串行执行时等待超时返回失败
+        CountDownLatch allRunning = new CountDownLatch(8);
+
+        DeviceBatchCommandExecutor.BatchProgress progress = executor.register("BATCH-1", "RESTART", 40);
+        Map<Long, DeviceBatchCommandExecutor.CommandOutcome> outcomes = executor.execute(progress, deviceIds(40), "RESTART",
+                (deviceId, command) -> {
+                    maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                    allRunning.countDown();
+                    boolean parallel = allRunning.await(5, TimeUnit.SECONDS);
+                    active.decrementAndGet();
+                    return parallel;
+                });
+
+        assertEquals(40, outcomes.size());
+        assertTrue(outcomes.values().stream().allMatch(DeviceBatchCommandExecutor.CommandOutcome::isSuccess));
+        assertEquals(8, maxActive.get(), "应8路并发且不超过8");
+
+        Map<String, Object> snapshot = executor.getProgress("BATCH-1").toMap();
+        assertEquals(40, snapshot.get("completedCount"));
+        assertEquals(100, snapshot.get("progress"));
+        assertEquals(false, snapshot.get("finished"));
+    }
+
+    @Test
+    @DisplayName("测试超时中断与重试")
+    void testTimeoutAndRetry() throws InterruptedException {
+        executor = newExecutor(4, 100, 2, 10);
+        Map<Long, AtomicInteger> attempts = new ConcurrentHashMap<>();
+        CountDownLatch interrupted = new CountDownLatch(3);
+
+        DeviceBatchCommandExecutor.BatchProgress progress = executor.register("BATCH-2", "START", 3);
+        Map<Long, DeviceBatchCommandExecutor.CommandOutcome> outcomes = executor.execute(progress, deviceIds(3), "START",
+                (deviceId, command) -> {
+                    int attempt = attempts.computeIfAbsent(deviceId, id -> new AtomicInteger()).incrementAndGet();
+                    if (deviceId == 1L) {
+                        return true;
+                    }
+                    if (deviceId == 2L) {
+                        // 第一次失败，第二次成功
+                        return attempt > 1;
+                    }
+                    // 设备3一直挂起
+                    try {
+                        Thread.sleep(60_000);
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                        throw e;
+                    }
+                    return true;
+                });
+
+        assertTrue(outcomes.get(1L).isSuccess());
+        assertEquals(1, outcomes.get(1L).getAttempts());
+
+        assertTrue(outcomes.get(2L).isSuccess());
+        assertEquals(2, outcomes.get(2L).getAttempts());
+
+        DeviceBatchCommandExecutor.CommandOutcome hung = outcomes.get(3L);
+        assertFalse(hung.isSuccess());
+        assertEquals(3, hung.getAttempts());
+        assertTrue(hung.getMessage().startsWith("命令发送超时"));
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS), "每次超时的发送都应被中断");
+
+        assertEquals(1 + 2, progress.getRetryCount());
+        assertEquals(2, progress.toMap().get("successCount"));
+        assertEquals(1, progress.toMap().get("failureCount"));
+    }
+
+    @Test
+    @DisplayName("测试发送异常按失败处理")
+    void testSenderException() {
+        executor = newExecutor(2, 1000, 0, 0);
+        DeviceBatchCommandExecutor.BatchProgress progress = executor.register("BATCH-3", "STOP", 1);
+
+        DeviceBatchCommandExecutor.CommandOutcome outcome = executor.execute(progress, deviceIds(1), "STOP",
+                (deviceId, command) -> {
+                    throw new IllegalStateException("设备拒绝连接");
+                }).get(1L);
+
+        assertFalse(outcome.isSuccess());
+        assertEquals("命令发送异常: 设备拒绝连接", outcome.getMessage());
+        assertNull(executor.getProgress("UNKNOWN"));
+    }
+
+    @Test
+    @DisplayName("测试发送线程池已满时按发送失败处理")
+    void testSendRejected() {
+        executor = new DeviceBatchCommandExecutor(2, 1000, 0, 0, task -> {
+            throw new RejectedExecutionException("full");
+        }, coordinators);
+        DeviceBatchCommandExecutor.BatchProgress progress = executor.register("BATCH-4", "STOP", 1);
+
+        DeviceBatchCommandExecutor.CommandOutcome outcome = executor.execute(progress, deviceIds(1), "STOP",
+                (deviceId, command) -> true).get(1L);
+
+        assertFalse(outcome.isSuccess());
+        assertEquals("命令发送线程已满", outcome.getMessage());
+    }
+
+    @Test
+    @DisplayName("测试协调线程池已满时批次立即结束")
+    void testSubmitRejected() {
+        executor = new DeviceBatchCommandExecutor(2, 1000, 0, 0, senders, task -> {
+            throw new RejectedExecutionException("full");
+        });
+        DeviceBatchCommandExecutor.BatchProgress progress = executor.register("BATCH-5", "STOP", 1);
+
+        CompletableFuture<DeviceControlDTO.BatchControlResult> future =
+                executor.submit(progress, DeviceControlDTO.BatchControlResult::new);
+
+        assertTrue(future.isCompletedExceptionally());
+        assertNotNull(progress.getFinishedAt());
+        assertEquals("批量控制任务过多，请稍后重试", progress.toMap().get("errorMessage"));
+    }
+
+    @Test
+    @DisplayName("测试批次异常结束时进度标记为完成")
+    void testFailIfUnfinished() {
+        executor = newExecutor(2, 1000, 0, 0);
+        DeviceBatchCommandExecutor.BatchProgress completed = executor.register("BATCH-6", "STOP", 0);
+        completed.complete(new DeviceControlDTO.BatchControlResult());
+        completed.failIfUnfinished("批量控制异常结束");
+        assertNull(completed.toMap().get("errorMessage"));
+
+        DeviceBatchCommandExecutor.BatchProgress aborted = executor.register("BATCH-7", "STOP", 1);
+        aborted.failIfUnfinished("批量控制异常结束");
+        assertNotNull(aborted.getFinishedAt());
+        assertEquals("批量控制异常结束", aborted.toMap().get("errorMessage"));
+    }
+}
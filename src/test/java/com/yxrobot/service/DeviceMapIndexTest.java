@@ -0,0 +1,178 @@
+package com.yxrobot.service;
+
+import com.yxrobot.dto.DeviceMapClusterDTO;
+import com.yxrobot.entity.DeviceMonitoringData;
+import com.yxrobot.entity.DeviceStatus;
+import com.yxrobot.mapper.DeviceMonitoringDataMapper;
+import com.yxrobot.service.DeviceMapIndex.ViewportResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * DeviceMapIndex 测试
+ * 验证各缩放级别聚合数与设备数一致、视口过滤与逐台判断一致，以及增量更新
+ *
+ * @author YXRobot开发团队
+ * @since 2025-03-06
+ */
+@DisplayName("设备地图空间索引测试")
+class DeviceMapIndexTest {
+
+    private DeviceMapIndex index;
+
+    private final Map<Long, DeviceMonitoringData> rows = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        DeviceMonitoringDataMapper mapper = mock(DeviceMonitoringDataMapper.class);
+        when(mapper.selectDevicesWithLocation()).thenAnswer(invocation -> new ArrayList<>(rows.values()));
+        when(mapper.selectByDeviceId(anyLong())).thenAnswer(invocation -> rows.get(invocation.<Long>getArgument(0)));
+
+        index = new DeviceMapIndex();
+        ReflectionTestUtils.setField(index, "deviceMonitoringDataMapper", mapper);
+        ReflectionTestUtils.setField(index, "clusterMaxZoom", 14);
+    }
+
+    private DeviceMonitoringData device(long deviceId, double latitude, double longitude, DeviceStatus status) {
+        DeviceMonitoringData data = new DeviceMonitoringData();
+        data.setId(deviceId + 100);
+        data.setDeviceId(deviceId);
+        data.setSerialNumber("YX-" + deviceId);
+        data.setStatus(status);
+        data.setLocationLatitude(BigDecimal.valueOf(latitude));
+        data.setLocationLongitude(BigDecimal.valueOf(longitude));
+        rows.put(deviceId, data);
+        return data;
+    }
+
+    private static Set<Long> deviceIds(ViewportResult result) {
+        return result.getDevices().stream().map(DeviceMonitoringData::getDeviceId).collect(Collectors.toSet());
+    }
+
+    @Test
+    @DisplayName("测试各缩放级别聚合数量与逐台判断一致")
+    void testClusteringMatchesBruteForce() {
+        Random random = new Random(11);
+        DeviceStatus[] statuses = DeviceStatus.values();
+        for (long deviceId = 1; deviceId <= 2000; deviceId++) {
+            // 集中在几个城市附近，制造多层聚合
+            double latitude = 22 + random.nextInt(4) * 3 + random.nextGaussian() * 0.2;
+            double longitude = 110 + random.nextInt(4) * 3 + random.nextGaussian() * 0.2;
+            device(deviceId, latitude, longitude, statuses[random.nextInt(statuses.length)]);
+        }
+        assertNull(index.query(-85, -180, 85, 180, 0));
+        assertEquals(2000, index.reload());
+
+        for (int zoom = 0; zoom <= 14; zoom++) {
+            ViewportResult world = index.query(-85, -180, 85, 180, zoom);
+            assertTrue(world.isClustered());
+            assertEquals(2000, world.getTotal());
+            int clustered = world.getClusters().stream().mapToInt(DeviceMapClusterDTO::getCount).sum();
+            assertEquals(2000, clustered + world.getDevices().size());
+            for (DeviceMapClusterDTO cluster : world.getClusters()) {
+                assertEquals(cluster.getCount(), cluster.getStatusCounts().values().stream().mapToInt(i -> i).sum());
+                assertTrue(cluster.getLatitude().compareTo(cluster.getMinLatitude()) >= 0);
+                assertTrue(cluster.getLatitude().compareTo(cluster.getMaxLatitude()) <= 0);
+            }
+        }
+
+        for (int i = 0; i < 50; i++) {
+            double minLat = 20 + random.nextDouble() * 10;
+            double minLng = 108 + random.nextDouble() * 10;
+            double maxLat = minLat + random.nextDouble() * 2;
+            double maxLng = minLng + random.nextDouble() * 2;
+            long expected = rows.values().stream()
+                .filter(d -> d.getLocationLatitude().doubleValue() >= minLat
+                    && d.getLocationLatitude().doubleValue() <= maxLat
+                    && d.getLocationLongitude().doubleValue() >= minLng
+                    && d.getLocationLongitude().doubleValue() <= maxLng)
+                .count();
+
+            // 超过最大聚合级别时与逐台判断完全一致
+            ViewportResult devices = index.query(minLat, minLng, maxLat, maxLng, 16);
+            assertFalse(devices.isClustered());
+            assertEquals(expected, devices.getTotal());
+            assertEquals(expected, devices.getDevices().size());
+
+            // 聚合时包含视口边缘的整个网格，不会漏掉视口内的设备
+            ViewportResult clusters = index.query(minLat, minLng, maxLat, maxLng, 8);
+            assertTrue(clusters.getTotal() >= expected);
+        }
+    }
+
+    @Test
+    @DisplayName("测试跨越180度经线的视口")
+    void testAntimeridian() {
+        device(1L, -17.5, 179.9, DeviceStatus.ONLINE);
+        device(2L, -17.6, -179.9, DeviceStatus.ONLINE);
+        device(3L, -17.5, 0.5, DeviceStatus.ONLINE);
+        index.reload();
+
+        assertEquals(Set.of(1L, 2L), deviceIds(index.query(-18, 179, -17, -179, 18)));
+        assertEquals(2, index.query(-18, 179, -17, -179, 3).getTotal());
+        assertEquals(Set.of(3L), deviceIds(index.query(-18, -179, -17, 179, 18)));
+    }
+
+    @Test
+    @DisplayName("测试增量更新位置和状态")
+    void testIncrementalUpdates() {
+        device(1L, 31.23, 121.47, DeviceStatus.ONLINE);
+        device(2L, 31.24, 121.48, DeviceStatus.ONLINE);
+        index.reload();
+
+        ViewportResult shanghai = index.query(30, 120, 32, 122, 5);
+        assertEquals(1, shanghai.getClusters().size());
+        assertEquals(Map.of("online", 2), shanghai.getClusters().get(0).getStatusCounts());
+
+        index.updateStatus(List.of(1L, 5L), DeviceStatus.OFFLINE);
+        index.updateStatus(2L, DeviceStatus.ERROR, null);
+        assertEquals(Map.of("offline", 1, "error", 1),
+                     index.query(30, 120, 32, 122, 5).getClusters().get(0).getStatusCounts());
+
+        // 设备移动到北京后，上海只剩一台设备且直接返回设备
+        device(2L, 39.90, 116.40, DeviceStatus.ERROR);
+        index.refresh(2L);
+        shanghai = index.query(30, 120, 32, 122, 5);
+        assertTrue(shanghai.getClusters().isEmpty());
+        assertEquals(Set.of(1L), deviceIds(shanghai));
+        assertEquals(DeviceStatus.OFFLINE, shanghai.getDevices().get(0).getStatus());
+        assertEquals(Set.of(2L), deviceIds(index.query(39, 116, 40, 117, 10)));
+
+        // 清除位置或删除记录后从索引中移除
+        device(1L, 0, 0, DeviceStatus.OFFLINE);
+        index.refresh(1L);
+        rows.remove(2L);
+        index.refresh(2L);
+        assertEquals(0, index.size());
+        assertEquals(0, index.query(-85, -180, 85, 180, 0).getTotal());
+    }
+
+    @Test
+    @DisplayName("测试未就绪时用查询结果临时聚合")
+    void testFallback() {
+        device(1L, 31.23, 121.47, DeviceStatus.ONLINE);
+        device(2L, 31.24, 121.48, DeviceStatus.OFFLINE);
+        assertFalse(index.isReady());
+        assertNull(index.getAllDevices());
+
+        ViewportResult result = index.query(new ArrayList<>(rows.values()), 30, 120, 32, 122, 5);
+        assertEquals(2, result.getTotal());
+        assertEquals(1, result.getClusters().size());
+        assertEquals(2, index.query(new ArrayList<>(rows.values()), 30, 120, 32, 122, 18).getDevices().size());
+    }
+}
@@ -0,0 +1,276 @@
+package com.yxrobot.service;
+
+import com.yxrobot.entity.DevicePerformanceMetrics;
+import com.yxrobot.mapper.DevicePerformanceMetricsMapper;
+import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * DeviceMetricsTimeSeriesStore 测试
+ * 验证图表数据和平均值与按原始样本计算的结果一致、历史查询以及超出范围时回退
+ *
+ * @author YXRobot开发团队
+ * @since 2025-03-03
+ */
+@DisplayName("设备性能时间序列存储测试")
+class DeviceMetricsTimeSeriesStoreTest {
+
+    private static final long MINUTE = 60_000L;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long DAY = 24 * HOUR;
+
+    private DeviceMetricsTimeSeriesStore store;
+
+    private DevicePerformanceMetricsMapper mapper;
+
+    private final List<DevicePerformanceMetrics> database = new ArrayList<>();
+
+    private final long now = System.currentTimeMillis();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        mapper = mock(DevicePerformanceMetricsMapper.class);
+        when(mapper.selectMaxId()).thenReturn(100L);
+        doAnswer(invocation -> {
+            LocalDateTime startTime = invocation.getArgument(0);
+            ResultHandler<DevicePerformanceMetrics> handler = invocation.getArgument(2);
+            DefaultResultContext<DevicePerformanceMetrics> context = new DefaultResultContext<>();
+            for (DevicePerformanceMetrics metrics : database) {
+                if (!metrics.getMetricTimestamp().isBefore(startTime)) {
+                    context.nextResultObject(metrics);
+                    handler.handleResult(context);
+                }
+            }
+            return null;
+        }).when(mapper).selectForTimeSeries(any(), eq(100L), any());
+
+        store = new DeviceMetricsTimeSeriesStore();
+        ReflectionTestUtils.setField(store, "devicePerformanceMetricsMapper", mapper);
+        ReflectionTestUtils.setField(store, "rawRetentionHours", 6L);
+        ReflectionTestUtils.setField(store, "minuteRetentionHours", 24L);
+        ReflectionTestUtils.setField(store, "hourRetentionDays", 30L);
+        ReflectionTestUtils.setField(store, "dayRetentionDays", 400L);
+        store.init();
+    }
+
+    private static LocalDateTime time(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static DevicePerformanceMetrics sample(long deviceId, long timestamp, double cpu, Double memory) {
+        DevicePerformanceMetrics metrics = new DevicePerformanceMetrics();
+        metrics.setDeviceId(deviceId);
+        metrics.setMetricTimestamp(time(timestamp));
+        metrics.setCpuUsage(BigDecimal.valueOf(cpu));
+        metrics.setMemoryUsage(memory != null ? BigDecimal.valueOf(memory) : null);
+        metrics.setDiskUsage(new BigDecimal("55.50"));
+        metrics.setTemperature(new BigDecimal("41.25"));
+        metrics.setBatteryLevel(new BigDecimal("80.00"));
+        metrics.setNetworkLatency(35);
+        metrics.setNetworkBandwidth(new BigDecimal("100.00"));
+        return metrics;
+    }
+
+    /**
+     * 每台设备每10秒左右一条样本，约十分之一内存值为空
+     */
+    private List<DevicePerformanceMetrics> generate(long deviceId, long from, long to, long seed) {
+        Random random = new Random(seed);
+        List<DevicePerformanceMetrics> samples = new ArrayList<>();
+        for (long timestamp = from; timestamp < to; timestamp += 10_000 + random.nextInt(500)) {
+            samples.add(sample(deviceId, timestamp, random.nextInt(10000) / 100.0,
+                               random.nextInt(10) == 0 ? null : random.nextInt(10000) / 100.0));
+        }
+        return samples;
+    }
+
+    private static double average(List<DevicePerformanceMetrics> samples, long from, long to, boolean memory) {
+        double sum = 0;
+        int count = 0;
+        for (DevicePerformanceMetrics metrics : samples) {
+            long timestamp = millis(metrics.getMetricTimestamp());
+            BigDecimal value = memory ? metrics.getMemoryUsage() : metrics.getCpuUsage();
+            if (timestamp >= from && timestamp <= to && value != null) {
+                sum += value.doubleValue();
+                count++;
+            }
+        }
+        return sum / count;
+    }
+
+    @Test
+    @DisplayName("测试图表数据与按原始样本分组计算一致")
+    void testChartDataMatchesRaw() {
+        database.addAll(generate(1L, now - 5 * HOUR, now - HOUR, 1));
+        store.warmUp();
+        // 加载之后的新样本由写入路径追加
+        List<DevicePerformanceMetrics> live = generate(1L, now - HOUR, now, 2);
+        store.append(live);
+        store.append(generate(2L, now - 3 * HOUR, now, 3));
+
+        List<DevicePerformanceMetrics> all = new ArrayList<>(database);
+        all.addAll(live);
+        long from = now - 4 * HOUR - 17 * MINUTE - 3500;
+        long to = now - 10 * MINUTE + 1234;
+        for (int interval : new int[] {1, 5, 60}) {
+            List<Map<String, Object>> chartData = store.getChartData(1L, time(from), time(to), interval);
+            long intervalMs = interval * MINUTE;
+
+            TreeMap<Long, Boolean> expectedBuckets = new TreeMap<>();
+            for (DevicePerformanceMetrics metrics : all) {
+                long timestamp = millis(metrics.getMetricTimestamp());
+                if (timestamp >= from && timestamp <= to) {
+                    expectedBuckets.put(Math.floorDiv(timestamp, intervalMs) * intervalMs, true);
+                }
+            }
+            assertEquals(expectedBuckets.size(), chartData.size(), "interval " + interval);
+
+            int i = 0;
+            for (long bucket : expectedBuckets.keySet()) {
+                Map<String, Object> point = chartData.get(i++);
+                assertEquals(time(bucket).format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:00")),
+                             point.get("timePoint"));
+                long bucketFrom = Math.max(bucket, from);
+                long bucketTo = Math.min(bucket + intervalMs - 1, to);
+                assertEquals(average(all, bucketFrom, bucketTo, false),
+                             ((BigDecimal) point.get("avgCpuUsage")).doubleValue(), 0.006);
+                assertEquals(average(all, bucketFrom, bucketTo, true),
+                             ((BigDecimal) point.get("avgMemoryUsage")).doubleValue(), 0.006);
+                assertEquals(new BigDecimal("55.50"), point.get("avgDiskUsage"));
+            }
+        }
+        verify(mapper, times(1)).selectForTimeSeries(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("测试长时间段平均值由天/小时/分钟汇总合并")
+    void testAveragesFromRollups() {
+        store.warmUp();
+        // 模拟已运行多天：加载起点提前，原始数据只保留最近6小时
+        ReflectionTestUtils.setField(store, "loadedFrom", now - 10 * DAY);
+        List<DevicePerformanceMetrics> samples = generate(1L, now - 8 * DAY, now, 4);
+        store.append(samples);
+        store.expire();
+
+        // 起点对齐到小时（小时汇总覆盖、分钟汇总和原始数据已过期）
+        long from = Math.floorDiv(now - 3 * DAY - 7 * MINUTE, HOUR) * HOUR;
+        Map<String, BigDecimal> averages = store.getAverages(1L, time(from), time(now));
+        assertEquals(average(samples, from, now, false), averages.get("avgCpuUsage").doubleValue(), 0.006);
+        assertEquals(average(samples, from, now, true), averages.get("avgMemoryUsage").doubleValue(), 0.006);
+        assertEquals(new BigDecimal("35.00"), averages.get("avgNetworkLatency"));
+
+        // 分钟汇总范围内：任意起点精确到原始样本
+        long recent = now - 5 * HOUR - 13 * MINUTE - 4321;
+        averages = store.getAverages(1L, time(recent), time(now - 1000));
+        assertEquals(average(samples, recent, now - 1000, false), averages.get("avgCpuUsage").doubleValue(), 0.006);
+
+        // 小时汇总范围内的图表只能按整小时间隔
+        assertNull(store.getChartData(1L, time(from), time(now), 5));
+        List<Map<String, Object>> hourly = store.getChartData(1L, time(from), time(now), 60);
+        assertNotNull(hourly);
+        assertTrue(hourly.size() >= 72);
+
+        // 超出日汇总保留期回退到数据库
+        assertNull(store.getAverages(1L, time(now - 500 * DAY), time(now)));
+        assertNull(store.getAverages(2L, time(from), time(now)).get("avgCpuUsage"));
+    }
+
+    @Test
+    @DisplayName("测试汇总只保存有样本的桶，乱序写入结果不变")
+    void testSparseRollups() {
+        store.warmUp();
+        ReflectionTestUtils.setField(store, "loadedFrom", now - 10 * DAY);
+        // 每小时一条样本，乱序写入
+        List<DevicePerformanceMetrics> samples = new ArrayList<>();
+        for (long timestamp = now - 8 * DAY; timestamp < now; timestamp += HOUR) {
+            samples.add(sample(1L, timestamp, (timestamp / HOUR) % 100, 50.0));
+        }
+        List<DevicePerformanceMetrics> shuffled = new ArrayList<>(samples);
+        Collections.shuffle(shuffled, new Random(5));
+        store.append(shuffled);
+        store.expire();
+
+        long from = Math.floorDiv(now - 5 * DAY, HOUR) * HOUR;
+        Map<String, BigDecimal> averages = store.getAverages(1L, time(from), time(now));
+        assertEquals(average(samples, from, now, false), averages.get("avgCpuUsage").doubleValue(), 0.006);
+
+        Map<?, ?> series = (Map<?, ?>) ReflectionTestUtils.getField(store, "series");
+        Object[] tiers = (Object[]) ReflectionTestUtils.getField(series.get(1L), "tiers");
+        // 天、小时、分钟汇总的容量与有样本的桶数相当，而不是整个保留期（402/722/1442）
+        assertTrue(((long[]) ReflectionTestUtils.getField(tiers[0], "bucketIds")).length <= 16);
+        assertTrue(((long[]) ReflectionTestUtils.getField(tiers[1], "bucketIds")).length <= 256);
+        assertTrue(((long[]) ReflectionTestUtils.getField(tiers[2], "bucketIds")).length <= 64);
+    }
+
+    @Test
+    @DisplayName("测试原始样本历史按时间倒序返回")
+    void testHistory() {
+        store.warmUp();
+        DevicePerformanceMetrics latest = sample(1L, now - MINUTE, 30.0, null);
+        latest.setId(123456789L);
+        latest.setCreatedAt(time(now - MINUTE + 1500));
+        store.append(List.of(
+            sample(1L, now - 3 * MINUTE, 10.5, 20.25),
+            latest,
+            sample(1L, now - 2 * MINUTE, 12.75, 22.0),
+            sample(2L, now - MINUTE, 99.0, 99.0)));
+
+        List<DevicePerformanceMetrics> history = store.getHistory(1L, time(now - 10 * MINUTE), time(now), 2);
+        assertEquals(2, history.size());
+        assertEquals(time(now - MINUTE), history.get(0).getMetricTimestamp());
+        assertEquals(new BigDecimal("30.00"), history.get(0).getCpuUsage());
+        assertNull(history.get(0).getMemoryUsage());
+        assertEquals(123456789L, history.get(0).getId());
+        assertEquals(time(now - MINUTE + 1500), history.get(0).getCreatedAt());
+        assertNull(history.get(1).getId());
+        assertNull(history.get(1).getCreatedAt());
+        assertEquals(new BigDecimal("12.75"), history.get(1).getCpuUsage());
+        assertEquals(35, history.get(1).getNetworkLatency());
+        assertEquals(new BigDecimal("41.25"), history.get(1).getTemperature());
+
+        assertEquals(3, store.getHistory(1L, time(now - 10 * MINUTE), null, null).size());
+        assertTrue(store.getHistory(3L, time(now - 10 * MINUTE), null, null).isEmpty());
+        // 早于原始数据保留期或未指定起点时回退到数据库
+        assertNull(store.getHistory(1L, time(now - 7 * HOUR), null, null));
+        assertNull(store.getHistory(1L, null, null, null));
+    }
+
+    @Test
+    @DisplayName("测试加载完成前和加载失败时返回null")
+    void testNotReady() {
+        store.append(List.of(sample(1L, now - MINUTE, 10, 10.0)));
+        assertNull(store.getHistory(1L, time(now - HOUR), null, null));
+        assertNull(store.getChartData(1L, time(now - HOUR), time(now), 5));
+        assertNull(store.getAverages(1L, time(now - HOUR), time(now)));
+
+        doThrow(new RuntimeException("db down")).when(mapper).selectForTimeSeries(any(), any(), any());
+        assertEquals(0, store.warmUp());
+        assertNull(store.getAverages(1L, time(now - HOUR), time(now)));
+    }
+}
@@ -0,0 +1,202 @@
+package com.yxrobot.service;
+
+import com.yxrobot.entity.ConnectionStatus;
+import com.yxrobot.entity.DeviceMonitoringData;
+import com.yxrobot.entity.DeviceNetworkStatus;
+import com.yxrobot.entity.DevicePerformanceMetrics;
+import com.yxrobot.entity.DeviceStatus;
+import com.yxrobot.entity.NetworkType;
+import com.yxrobot.mapper.DeviceMonitoringDataMapper;
+import com.yxrobot.mapper.DeviceNetworkStatusMapper;
+import com.yxrobot.mapper.DevicePerformanceMetricsMapper;
+import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * DeviceStateTable 测试
+ * 验证加载、写入时只保留最新数据、字段往返以及状态更新
+ *
+ * @author YXRobot开发团队
+ * @since 2025-03-04
+ */
+@DisplayName("设备最新状态表测试")
+class DeviceStateTableTest {
+
+    private DeviceStateTable table;
+
+    private DevicePerformanceMetricsMapper performanceMapper;
+
+    private final List<DevicePerformanceMetrics> latestMetrics = new ArrayList<>();
+
+    private final List<DeviceNetworkStatus> latestNetwork = new ArrayList<>();
+
+    private final List<DeviceMonitoringData> deviceStates = new ArrayList<>();
+
+    private final LocalDateTime base = LocalDateTime.of(2025, 3, 4, 10, 0, 0);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        performanceMapper = mock(DevicePerformanceMetricsMapper.class);
+        DeviceNetworkStatusMapper networkMapper = mock(DeviceNetworkStatusMapper.class);
+        DeviceMonitoringDataMapper monitoringMapper = mock(DeviceMonitoringDataMapper.class);
+        doAnswer(invocation -> stream(latestMetrics, invocation.getArgument(0)))
+            .when(performanceMapper).selectLatestForAllDevices(any());
+        doAnswer(invocation -> stream(latestNetwork, invocation.getArgument(0)))
+            .when(networkMapper).selectLatestForAllDevices(any());
+        doAnswer(invocation -> stream(deviceStates, invocation.getArgument(0)))
+            .when(monitoringMapper).selectDeviceStates(any());
+
+        table = new DeviceStateTable();
+        ReflectionTestUtils.setField(table, "devicePerformanceMetricsMapper", performanceMapper);
+        ReflectionTestUtils.setField(table, "deviceNetworkStatusMapper", networkMapper);
+        ReflectionTestUtils.setField(table, "deviceMonitoringDataMapper", monitoringMapper);
+    }
+
+    private static <T> Object stream(List<T> rows, ResultHandler<T> handler) {
+        DefaultResultContext<T> context = new DefaultResultContext<>();
+        for (T row : rows) {
+            context.nextResultObject(row);
+            handler.handleResult(context);
+        }
+        return null;
+    }
+
+    private DevicePerformanceMetrics metrics(long deviceId, int minute, String cpu) {
+        DevicePerformanceMetrics metrics = new DevicePerformanceMetrics();
+        metrics.setId(deviceId * 1000 + minute);
+        metrics.setDeviceId(deviceId);
+        metrics.setCpuUsage(new BigDecimal(cpu));
+        metrics.setMemoryUsage(new BigDecimal("62.25"));
+        metrics.setTemperature(new BigDecimal("-5.5"));
+        metrics.setBatteryLevel(new BigDecimal("80.00"));
+        metrics.setNetworkLatency(35);
+        metrics.setMetricTimestamp(base.plusMinutes(minute));
+        metrics.setCreatedAt(base.plusMinutes(minute).plusSeconds(1));
+        return metrics;
+    }
+
+    private DeviceNetworkStatus network(long deviceId, int minute, int signal) {
+        DeviceNetworkStatus status = new DeviceNetworkStatus();
+        status.setId(deviceId * 1000 + minute);
+        status.setDeviceId(deviceId);
+        status.setNetworkType(NetworkType.WIFI);
+        status.setSignalStrength(signal);
+        status.setConnectionStatus(ConnectionStatus.CONNECTED);
+        status.setIpAddress("192.168.1." + deviceId);
+        status.setDownloadSpeed(new BigDecimal("120.5"));
+        status.setPingLatency(18);
+        status.setCreatedAt(base.plusMinutes(minute));
+        return status;
+    }
+
+    @Test
+    @DisplayName("测试加载后字段往返一致且查不到时返回null")
+    void testWarmUpRoundTrip() {
+        for (long deviceId = 1; deviceId <= 3000; deviceId++) {
+            latestMetrics.add(metrics(deviceId, 5, "35.50"));
+        }
+        latestNetwork.add(network(7L, 3, 88));
+        DeviceMonitoringData state = new DeviceMonitoringData();
+        state.setDeviceId(7L);
+        state.setStatus(DeviceStatus.ONLINE);
+        state.setLastOnlineAt(base);
+        deviceStates.add(state);
+
+        assertFalse(table.isReady());
+        assertEquals(3000, table.warmUp());
+        assertTrue(table.isReady());
+
+        DevicePerformanceMetrics loaded = table.getLatestPerformance(2999L);
+        assertEquals(2999L * 1000 + 5, loaded.getId());
+        assertEquals(new BigDecimal("35.50"), loaded.getCpuUsage());
+        assertEquals(new BigDecimal("-5.50"), loaded.getTemperature());
+        assertNull(loaded.getDiskUsage());
+        assertNull(loaded.getNetworkBandwidth());
+        assertEquals(35, loaded.getNetworkLatency());
+        assertEquals(base.plusMinutes(5), loaded.getMetricTimestamp());
+        assertEquals(base.plusMinutes(5).plusSeconds(1), loaded.getCreatedAt());
+
+        DeviceNetworkStatus net = table.getLatestNetworkStatus(7L);
+        assertEquals(NetworkType.WIFI, net.getNetworkType());
+        assertEquals(ConnectionStatus.CONNECTED, net.getConnectionStatus());
+        assertEquals(88, net.getSignalStrength());
+        assertEquals(new BigDecimal("120.50"), net.getDownloadSpeed());
+        assertNull(net.getUploadSpeed());
+        assertEquals("192.168.1.7", net.getIpAddress());
+        assertNull(net.getLastConnectedAt());
+        assertEquals(base.plusMinutes(3), net.getUpdatedAt());
+
+        assertEquals(DeviceStatus.ONLINE, table.getDeviceState(7L).getStatus());
+        assertNull(table.getDeviceState(8L));
+        assertNull(table.getLatestNetworkStatus(8L));
+        assertNull(table.getLatestPerformance(3001L));
+        assertNull(table.getLatestPerformance(null));
+    }
+
+    @Test
+    @DisplayName("测试较旧的数据不覆盖较新的数据")
+    void testNewerWins() {
+        // 加载前写入路径已写入较新的样本
+        table.updatePerformance(List.of(metrics(1L, 10, "90.00")));
+        table.updateNetworkStatus(List.of(network(1L, 10, 20)));
+        table.updateStatus(1L, DeviceStatus.ERROR, base.plusMinutes(10));
+        latestMetrics.add(metrics(1L, 5, "10.00"));
+        latestNetwork.add(network(1L, 5, 99));
+        DeviceMonitoringData state = new DeviceMonitoringData();
+        state.setDeviceId(1L);
+        state.setStatus(DeviceStatus.ONLINE);
+        deviceStates.add(state);
+        table.warmUp();
+
+        assertEquals(new BigDecimal("90.00"), table.getLatestPerformance(1L).getCpuUsage());
+        assertEquals(20, table.getLatestNetworkStatus(1L).getSignalStrength());
+        assertEquals(DeviceStatus.ERROR, table.getDeviceState(1L).getStatus());
+
+        table.updatePerformance(List.of(metrics(1L, 8, "50.00"), metrics(1L, 12, "60.00")));
+        assertEquals(new BigDecimal("60.00"), table.getLatestPerformance(1L).getCpuUsage());
+        assertEquals(1L, table.size());
+    }
+
+    @Test
+    @DisplayName("测试连接状态和设备状态更新")
+    void testStatusUpdates() {
+        table.warmUp();
+        table.updateNetworkStatus(List.of(network(1L, 0, 50)));
+        table.updateConnectionStatus(1L, ConnectionStatus.DISCONNECTED, base.plusMinutes(1));
+        // 没有网络状态的设备不新增
+        table.updateConnectionStatus(List.of(1L, 2L), ConnectionStatus.CONNECTING);
+
+        DeviceNetworkStatus net = table.getLatestNetworkStatus(1L);
+        assertEquals(ConnectionStatus.CONNECTING, net.getConnectionStatus());
+        assertEquals(base.plusMinutes(1), net.getLastConnectedAt());
+        assertNull(table.getLatestNetworkStatus(2L));
+
+        table.updateStatus(3L, DeviceStatus.ONLINE, base);
+        table.updateStatus(List.of(3L, 4L), DeviceStatus.MAINTENANCE);
+        assertEquals(DeviceStatus.MAINTENANCE, table.getDeviceState(3L).getStatus());
+        assertEquals(base, table.getDeviceState(3L).getLastOnlineAt());
+        assertNull(table.getDeviceState(4L).getLastOnlineAt());
+    }
+
+    @Test
+    @DisplayName("测试加载失败时保持未就绪")
+    void testWarmUpFailure() {
+        doThrow(new RuntimeException("db down")).when(performanceMapper).selectLatestForAllDevices(any());
+        assertEquals(-1, table.warmUp());
+        assertFalse(table.isReady());
+    }
+}
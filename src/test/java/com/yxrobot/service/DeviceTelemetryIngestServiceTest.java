@@ -0,0 +1,346 @@
+package com.yxrobot.service;
+
+import com.yxrobot.entity.ConnectionStatus;
+import com.yxrobot.entity.DeviceNetworkStatus;
+import com.yxrobot.entity.DevicePerformanceMetrics;
+import com.yxrobot.entity.NetworkType;
+import com.yxrobot.service.DeviceTelemetryIngestService.IngestResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * DeviceTelemetryIngestService 测试
+ * 验证NDJSON和二进制批次的解析与校验、队列满时丢弃以及按批量大小写入
+ *
+ * @author YXRobot开发团队
+ * @since 2025-03-05
+ */
+@DisplayName("设备遥测数据接入服务测试")
+class DeviceTelemetryIngestServiceTest {
+
+    private DeviceTelemetryIngestService service;
+
+    private DevicePerformanceService performanceService;
+
+    private DeviceNetworkService networkService;
+
+    private final List<List<DevicePerformanceMetrics>> metricsBatches = new ArrayList<>();
+
+    private final List<List<DeviceNetworkStatus>> networkBatches = new ArrayList<>();
+
+    private final long now = System.currentTimeMillis();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        performanceService = mock(DevicePerformanceService.class);
+        networkService = mock(DeviceNetworkService.class);
+        when(performanceService.batchInsertMetrics(anyList())).thenAnswer(invocation -> {
+            List<DevicePerformanceMetrics> batch = new ArrayList<>(invocation.getArgument(0));
+            metricsBatches.add(batch);
+            return batch.size();
+        });
+        when(networkService.batchInsertNetworkStatus(anyList())).thenAnswer(invocation -> {
+            List<DeviceNetworkStatus> batch = new ArrayList<>(invocation.getArgument(0));
+            networkBatches.add(batch);
+            return batch.size();
+        });
+
+        service = new DeviceTelemetryIngestService();
+        ReflectionTestUtils.setField(service, "devicePerformanceService", performanceService);
+        ReflectionTestUtils.setField(service, "deviceNetworkService", networkService);
+        ReflectionTestUtils.setField(service, "queueCapacity", 10);
+        ReflectionTestUtils.setField(service, "batchSize", 4);
+        ReflectionTestUtils.setField(service, "maxRecordsPerRequest", 100);
+        ReflectionTestUtils.setField(service, "maxSampleAgeHours", 24L);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    private static InputStream text(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("测试NDJSON解析和逐条校验")
+    void testNdjson() throws IOException {
+        String body = "{\"type\":\"performance\",\"deviceId\":1,\"metricTimestamp\":" + now
+            + ",\"cpuUsage\":35.5,\"memoryUsage\":62.255,\"networkLatency\":40}\n"
+            + "{\"type\":\"network\",\"deviceId\":2,\"networkType\":\"wifi\",\"connectionStatus\":\"connected\","
+            + "\"signalStrength\":88,\"ipAddress\":\"10.0.0.2\",\"downloadSpeed\":120}\n"
+            + "{\"type\":\"performance\",\"deviceId\":3,\"metricTimestamp\":" + now + ",\"cpuUsage\":101}\n"
+            + "{\"type\":\"performance\",\"deviceId\":0,\"metricTimestamp\":" + now + "}\n"
+            + "{\"type\":\"performance\",\"deviceId\":4,\"metricTimestamp\":" + (now - 48 * 3600_000L) + "}\n"
+            + "{\"type\":\"network\",\"deviceId\":5,\"networkType\":\"satellite\"}\n"
+            + "{\"type\":\"gps\",\"deviceId\":6}\n";
+
+        IngestResult result = service.ingestNdjson(text(body));
+        assertEquals(2, result.getAccepted());
+        assertEquals(5, result.getRejected());
+        assertEquals(0, result.getDropped());
+        assertTrue(result.getErrors().get(0).startsWith("第3条"), result.getErrors().toString());
+
+        assertEquals(2, service.flush());
+        DevicePerformanceMetrics metrics = metricsBatches.get(0).get(0);
+        assertEquals(1L, metrics.getDeviceId());
+        assertEquals(new BigDecimal("35.50"), metrics.getCpuUsage());
+        assertEquals(new BigDecimal("62.26"), metrics.getMemoryUsage());
+        assertEquals(40, metrics.getNetworkLatency());
+        assertNull(metrics.getDiskUsage());
+        DeviceNetworkStatus status = networkBatches.get(0).get(0);
+        assertEquals(NetworkType.WIFI, status.getNetworkType());
+        assertEquals(ConnectionStatus.CONNECTED, status.getConnectionStatus());
+        assertEquals(new BigDecimal("120.00"), status.getDownloadSpeed());
+
+        // 语法错误之后的内容整体拒绝
+        result = service.ingestNdjson(text("{\"type\":\"performance\",\"deviceId\":1,\"metricTimestamp\":" + now
+                                           + "}\n{\"type\": oops}\n{\"type\":\"network\",\"deviceId\":2}\n"));
+        assertEquals(1, result.getAccepted());
+        assertEquals(1, result.getRejected());
+    }
+
+    @Test
+    @DisplayName("测试二进制记录解析")
+    void testBinary() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(DeviceTelemetryIngestService.RECORD_PERFORMANCE);
+        out.writeLong(7L);
+        out.writeLong(now);
+        out.writeInt(3550);
+        out.writeInt(DeviceTelemetryIngestService.BINARY_NULL);
+        out.writeInt(5000);
+        out.writeInt(-550);
+        out.writeInt(8000);
+        out.writeInt(10025);
+        out.writeInt(35);
+        out.writeByte(DeviceTelemetryIngestService.RECORD_NETWORK);
+        out.writeLong(8L);
+        out.writeLong(0L);
+        out.writeByte(NetworkType.CELLULAR_5G.ordinal());
+        out.writeInt(66);
+        out.writeByte(-1);
+        out.writeInt(12000);
+        out.writeInt(DeviceTelemetryIngestService.BINARY_NULL);
+        out.writeInt(12);
+        out.write(new byte[] {(byte) 192, (byte) 168, 1, 20});
+        out.write(new byte[] {0x0A, 0x1B, 0x2C, 0x3D, 0x4E, (byte) 0xFF});
+        // 校验失败的记录不影响后续记录
+        out.writeByte(DeviceTelemetryIngestService.RECORD_NETWORK);
+        out.writeLong(9L);
+        out.writeLong(0L);
+        out.writeByte(99);
+        out.write(new byte[26]);
+        // 不完整的记录
+        out.writeByte(DeviceTelemetryIngestService.RECORD_PERFORMANCE);
+        out.writeLong(10L);
+
+        IngestResult result = service.decodeBinary(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(2, result.getAccepted());
+        assertEquals(2, result.getRejected());
+        service.flush();
+
+        DevicePerformanceMetrics metrics = metricsBatches.get(0).get(0);
+        assertEquals(7L, metrics.getDeviceId());
+        assertEquals(new BigDecimal("35.50"), metrics.getCpuUsage());
+        assertNull(metrics.getMemoryUsage());
+        assertEquals(new BigDecimal("-5.50"), metrics.getTemperature());
+        assertEquals(new BigDecimal("100.25"), metrics.getNetworkBandwidth());
+        assertEquals(35, metrics.getNetworkLatency());
+
+        DeviceNetworkStatus status = networkBatches.get(0).get(0);
+        assertEquals(NetworkType.CELLULAR_5G, status.getNetworkType());
+        assertNull(status.getConnectionStatus());
+        assertNull(status.getLastConnectedAt());
+        assertNull(status.getUploadSpeed());
+        assertEquals("192.168.1.20", status.getIpAddress());
+        assertEquals("0A:1B:2C:3D:4E:FF", status.getMacAddress());
+    }
+
+    @Test
+    @DisplayName("测试队列满时丢弃并按批量大小写入")
+    void testDropAndBatching() throws IOException {
+        // 停止按批量大小触发的异步写入，只验证定时写入路径
+        ReflectionTestUtils.setField(service, "batchSize", 1000);
+        StringBuilder body = new StringBuilder();
+        for (int i = 1; i <= 15; i++) {
+            body.append("{\"type\":\"performance\",\"deviceId\":").append(i)
+                .append(",\"metricTimestamp\":").append(now).append("}\n");
+        }
+        IngestResult result = service.ingestNdjson(text(body.toString()));
+        assertEquals(10, result.getAccepted());
+        assertEquals(5, result.getDropped());
+
+        ReflectionTestUtils.setField(service, "batchSize", 4);
+        assertEquals(10, service.flush());
+        assertEquals(List.of(4, 4, 2), metricsBatches.stream().map(List::size).collect(Collectors.toList()));
+
+        Map<String, Object> stats = service.getIngestionStats();
+        assertEquals(10L, stats.get("acceptedCount"));
+        assertEquals(5L, stats.get("droppedCount"));
+        assertEquals(10L, stats.get("persistedCount"));
+        assertEquals(3L, stats.get("batchCount"));
+        assertEquals(10L, stats.get("queueHighWatermark"));
+        assertEquals(0, stats.get("performanceQueueSize"));
+    }
+
+    @Test
+    @DisplayName("测试写入失败时放回队列并在退避后重试")
+    void testFailedBatchIsRequeued() throws IOException {
+        ReflectionTestUtils.setField(service, "batchSize", 1000);
+        StringBuilder body = new StringBuilder();
+        for (int i = 1; i <= 3; i++) {
+            body.append("{\"type\":\"performance\",\"deviceId\":").append(i)
+                .append(",\"metricTimestamp\":").append(now).append("}\n");
+        }
+        service.ingestNdjson(text(body.toString()));
+
+        when(performanceService.batchInsertMetrics(anyList())).thenReturn(0);
+        assertEquals(0, service.flush());
+        Map<String, Object> stats = service.getIngestionStats();
+        assertEquals(3, stats.get("performanceQueueSize"));
+        assertEquals(3L, stats.get("failedCount"));
+        assertEquals(0L, stats.get("droppedCount"));
+        assertEquals(1, stats.get("consecutiveFailures"));
+
+        // 整批失败后拆分到第一条仍失败，视为数据库不可用；退避时间内不再写入
+        assertEquals(0, service.flush());
+        verify(performanceService, times(2)).batchInsertMetrics(anyList());
+
+        when(performanceService.batchInsertMetrics(anyList())).thenAnswer(invocation -> {
+            List<DevicePerformanceMetrics> batch = invocation.getArgument(0);
+            return batch.size();
+        });
+        ReflectionTestUtils.setField(service, "retryAt", 0L);
+        assertEquals(3, service.flush());
+        stats = service.getIngestionStats();
+        assertEquals(0, stats.get("performanceQueueSize"));
+        assertEquals(3L, stats.get("persistedCount"));
+        assertEquals(0, stats.get("consecutiveFailures"));
+    }
+
+    @Test
+    @DisplayName("测试放回队列时队列已满的样本计为丢弃")
+    void testRequeueDropsWhenQueueFull() throws IOException {
+        ReflectionTestUtils.setField(service, "batchSize", 1000);
+        StringBuilder body = new StringBuilder();
+        for (int i = 1; i <= 6; i++) {
+            body.append("{\"type\":\"performance\",\"deviceId\":").append(i)
+                .append(",\"metricTimestamp\":").append(now).append("}\n");
+        }
+        service.ingestNdjson(text(body.toString()));
+
+        // 写入期间新样本占满队列
+        boolean[] refilled = {false};
+        when(performanceService.batchInsertMetrics(anyList())).thenAnswer(invocation -> {
+            if (refilled[0]) {
+                return 0;
+            }
+            refilled[0] = true;
+            StringBuilder more = new StringBuilder();
+            for (int i = 11; i <= 18; i++) {
+                more.append("{\"type\":\"performance\",\"deviceId\":").append(i)
+                    .append(",\"metricTimestamp\":").append(now).append("}\n");
+            }
+            service.ingestNdjson(text(more.toString()));
+            return 0;
+        });
+        service.flush();
+
+        Map<String, Object> stats = service.getIngestionStats();
+        assertEquals(10, stats.get("performanceQueueSize"));
+        assertEquals(4L, stats.get("droppedCount"));
+    }
+
+    @Test
+    @DisplayName("测试拆分写入隔离失败样本，多次失败后丢弃")
+    void testPoisonSampleIsIsolatedAndDiscarded() throws IOException {
+        ReflectionTestUtils.setField(service, "batchSize", 1000);
+        StringBuilder body = new StringBuilder();
+        for (int i = 1; i <= 5; i++) {
+            body.append("{\"type\":\"performance\",\"deviceId\":").append(i)
+                .append(",\"metricTimestamp\":").append(now).append("}\n");
+        }
+        service.ingestNdjson(text(body.toString()));
+
+        // 设备3的样本始终写不进去
+        when(performanceService.batchInsertMetrics(anyList())).thenAnswer(invocation -> {
+            List<DevicePerformanceMetrics> batch = invocation.getArgument(0);
+            if (batch.stream().anyMatch(metrics -> metrics.getDeviceId() == 3L)) {
+                return 0;
+            }
+            metricsBatches.add(new ArrayList<>(batch));
+            return batch.size();
+        });
+
+        // 正常样本写入，单独剩下的失败样本按数据库不可用退避
+        assertEquals(4, service.flush());
+        Map<String, Object> stats = service.getIngestionStats();
+        assertEquals(1, stats.get("performanceQueueSize"));
+        assertEquals(1, stats.get("consecutiveFailures"));
+
+        // 第三次失败后丢弃，不再放回队列
+        ReflectionTestUtils.setField(service, "retryAt", 0L);
+        assertEquals(0, service.flush());
+        ReflectionTestUtils.setField(service, "retryAt", 0L);
+        assertEquals(0, service.flush());
+        ReflectionTestUtils.setField(service, "retryAt", 0L);
+        assertEquals(0, service.flush());
+        stats = service.getIngestionStats();
+        assertEquals(0, stats.get("performanceQueueSize"));
+        assertEquals(4L, stats.get("persistedCount"));
+        assertEquals(1L, stats.get("discardedCount"));
+        assertEquals(0, stats.get("consecutiveFailures"));
+        assertEquals(List.of(1L, 2L, 4L, 5L), metricsBatches.stream().flatMap(List::stream)
+            .map(DevicePerformanceMetrics::getDeviceId).sorted().collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("测试超出 DECIMAL(10,2) 范围的带宽和速度被拒绝")
+    void testDecimalColumnRange() throws IOException {
+        IngestResult result = service.ingestNdjson(text(
+            "{\"type\":\"performance\",\"deviceId\":1,\"metricTimestamp\":" + now + ",\"networkBandwidth\":100000000}\n"
+            + "{\"type\":\"performance\",\"deviceId\":1,\"metricTimestamp\":" + now + ",\"networkBandwidth\":99999999.99}\n"
+            + "{\"type\":\"network\",\"deviceId\":1,\"uploadSpeed\":1e12}\n"));
+
+        assertEquals(1, result.getAccepted());
+        assertEquals(2, result.getRejected());
+        assertTrue(result.getErrors().get(0).contains("networkBandwidth"));
+        assertTrue(result.getErrors().get(1).contains("uploadSpeed"));
+    }
+
+    @Test
+    @DisplayName("测试达到批量大小时立即写入")
+    void testSizeTriggeredFlush() throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int i = 1; i <= 5; i++) {
+            body.append("{\"type\":\"performance\",\"deviceId\":").append(i)
+                .append(",\"metricTimestamp\":").append(now).append("}\n");
+        }
+        service.ingestNdjson(text(body.toString()));
+        verify(performanceService, timeout(2000).atLeastOnce()).batchInsertMetrics(anyList());
+    }
+}
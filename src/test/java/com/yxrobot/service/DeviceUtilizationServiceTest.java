@@ -31,6 +31,9 @@ class DeviceUtilizationServiceTest {
     @Mock
     private RentalDeviceMapper rentalDeviceMapper;
     
+    @Mock
+    private AutocompleteIndex autocompleteIndex;
+    
     @InjectMocks
     private DeviceUtilizationService deviceUtilizationService;
     
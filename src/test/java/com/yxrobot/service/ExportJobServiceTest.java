@@ -0,0 +1,244 @@
+package com.yxrobot.service;
+
+import com.yxrobot.enums.ExportFormat;
+import com.yxrobot.mapper.LinkClickLogMapper;
+import com.yxrobot.mapper.ManagedDeviceLogMapper;
+import com.yxrobot.mapper.SalesRecordMapper;
+import com.yxrobot.service.ExportJobService.ExportJob;
+import com.yxrobot.util.RowStreamWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * ExportJobService 测试
+ * 验证导出文件写入、进度、相同条件去重、失败重试和过期清理
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-28
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("后台导出任务测试")
+class ExportJobServiceTest {
+
+    @TempDir
+    Path uploadDir;
+
+    @Mock
+    private DataExportService dataExportService;
+
+    @Mock
+    private ManagedDeviceLogMapper managedDeviceLogMapper;
+
+    @Mock
+    private LinkClickLogMapper linkClickLogMapper;
+
+    @Mock
+    private SalesRecordMapper salesRecordMapper;
+
+    @Mock
+    private Executor exportJobExecutor;
+
+    @InjectMocks
+    private ExportJobService exportJobService;
+
+    private final List<Runnable> queued = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(exportJobService, "uploadPath", uploadDir.toString());
+        ReflectionTestUtils.setField(exportJobService, "ttlMinutes", 60L);
+    }
+
+    /**
+     * 提交的任务先放入队列，由测试调用 runQueued 执行
+     */
+    private void queueTasks() {
+        doAnswer(invocation -> queued.add(invocation.getArgument(0))).when(exportJobExecutor).execute(any(Runnable.class));
+    }
+
+    private void runQueued() {
+        List<Runnable> tasks = new ArrayList<>(queued);
+        queued.clear();
+        tasks.forEach(Runnable::run);
+    }
+
+    private void stubDeviceLogs(Long deviceId, int rows) throws IOException {
+        when(managedDeviceLogMapper.countByConditions(eq(deviceId), any(), any(), any(), any())).thenReturn(rows);
+        when(dataExportService.exportDeviceLogs(eq(deviceId), any(), any(), any(), any(), eq(ExportFormat.CSV), any(), any()))
+            .thenAnswer(invocation -> writeLogs(invocation.getArgument(6), invocation.getArgument(7), rows));
+    }
+
+    private ExportJob submitDeviceLogs(Long deviceId, String level) {
+        return exportJobService.submitDeviceLogExport(deviceId, level, null, null, null, ExportFormat.CSV);
+    }
+
+    private static long writeLogs(OutputStream out, LongConsumer progress, int rows) throws IOException {
+        try (RowStreamWriter writer = RowStreamWriter.create(ExportFormat.CSV, out, "设备日志")) {
+            writer.writeRow(Arrays.asList("时间", "内容"));
+            for (int i = 1; i <= rows; i++) {
+                writer.writeRow(Arrays.asList(LocalDateTime.of(2025, 2, 1, 10, 0), "日志" + i));
+                progress.accept(i);
+            }
+        }
+        return rows;
+    }
+
+    private static String readGzip(Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    @DisplayName("测试导出写入gzip文件并报告进度")
+    void testExportToCompressedFile() throws Exception {
+        queueTasks();
+        stubDeviceLogs(1L, 3);
+
+        ExportJob job = submitDeviceLogs(1L, "ERROR");
+        assertEquals(ExportJobService.STATUS_PENDING, job.getStatus());
+        assertEquals(0, job.getProgress());
+        assertNull(exportJobService.getArtifact(job.getJobId()));
+
+        runQueued();
+
+        assertEquals(ExportJobService.STATUS_COMPLETED, job.getStatus());
+        assertEquals(3, job.getRowsWritten());
+        assertEquals(3L, job.getEstimatedRows());
+        assertEquals(100, job.getProgress());
+        assertTrue(job.getFileName().startsWith("设备日志-1-"));
+        assertTrue(job.getFileName().endsWith(".csv.gz"));
+        assertEquals("/api/admin/export-jobs/" + job.getJobId() + "/download", job.getDownloadUrl());
+        assertNotNull(job.getExpiresAt());
+
+        Path file = exportJobService.getArtifact(job.getJobId());
+        assertEquals(uploadDir.resolve(ExportJobService.EXPORT_DIR).resolve(job.getJobId() + ".csv.gz"), file);
+        assertEquals(Files.size(file), job.getFileSize());
+        String[] lines = readGzip(file).substring(1).split("\r\n");
+        assertEquals(4, lines.length);
+        assertEquals("时间,内容", lines[0]);
+        assertEquals("2025-02-01 10:00:00,日志3", lines[3]);
+    }
+
+    @Test
+    @DisplayName("测试相同条件的导出复用同一个任务")
+    void testDeduplicate() throws Exception {
+        queueTasks();
+        stubDeviceLogs(1L, 2);
+        stubDeviceLogs(2L, 2);
+
+        ExportJob first = submitDeviceLogs(1L, "ERROR");
+        ExportJob running = submitDeviceLogs(1L, " error ");
+        assertSame(first, running);
+        assertEquals(1, queued.size());
+
+        ExportJob other = submitDeviceLogs(2L, null);
+        assertNotSame(first, other);
+
+        runQueued();
+        ExportJob completed = submitDeviceLogs(1L, "ERROR");
+        assertSame(first, completed);
+        verify(dataExportService, times(2)).exportDeviceLogs(any(), any(), any(), any(), any(), any(), any(), any());
+        assertTrue(queued.isEmpty());
+    }
+
+    @Test
+    @DisplayName("测试失败任务保留状态，相同条件重新提交时重新执行")
+    void testFailedJobRetried() throws Exception {
+        queueTasks();
+        when(linkClickLogMapper.selectClickCount(1L, null, null)).thenThrow(new IllegalStateException("count failed"));
+        when(dataExportService.exportClickLogs(eq(1L), any(), any(), eq(ExportFormat.CSV), any(), any()))
+            .thenThrow(new IOException("磁盘已满"));
+
+        ExportJob failed = exportJobService.submitClickLogExport(1L, null, null, ExportFormat.CSV);
+        runQueued();
+
+        assertEquals(ExportJobService.STATUS_FAILED, failed.getStatus());
+        assertEquals("导出失败：磁盘已满", failed.getErrorMessage());
+        assertNull(failed.getEstimatedRows());
+        assertNull(failed.getDownloadUrl());
+        assertSame(failed, exportJobService.getJob(failed.getJobId()));
+        try (Stream<Path> files = Files.list(uploadDir.resolve(ExportJobService.EXPORT_DIR))) {
+            assertEquals(0, files.count());
+        }
+
+        ExportJob retried = exportJobService.submitClickLogExport(1L, null, null, ExportFormat.CSV);
+        assertNotSame(failed, retried);
+        assertEquals(1, queued.size());
+    }
+
+    @Test
+    @DisplayName("测试执行器队列已满时任务直接失败")
+    void testRejected() {
+        doThrow(new RejectedExecutionException("full")).when(exportJobExecutor).execute(any(Runnable.class));
+
+        ExportJob job = submitDeviceLogs(1L, null);
+        assertEquals(ExportJobService.STATUS_FAILED, job.getStatus());
+        assertEquals("导出任务过多，请稍后重试", job.getErrorMessage());
+        verifyNoInteractions(dataExportService);
+    }
+
+    @Test
+    @DisplayName("测试过期任务和遗留文件被清理")
+    void testCleanupExpired() throws Exception {
+        queueTasks();
+        stubDeviceLogs(1L, 1);
+        stubDeviceLogs(2L, 1);
+
+        ExportJob kept = submitDeviceLogs(1L, null);
+        runQueued();
+        Path keptFile = exportJobService.getArtifact(kept.getJobId());
+        Path exportDir = keptFile.getParent();
+        Path orphan = Files.write(exportDir.resolve("orphan.csv.gz"), new byte[] {1});
+        Files.setLastModifiedTime(orphan, FileTime.fromMillis(System.currentTimeMillis() - 2 * 3600_000L));
+
+        exportJobService.cleanupExpired();
+        assertTrue(Files.exists(keptFile));
+        assertFalse(Files.exists(orphan));
+
+        // 保留时间为负时任务完成即过期
+        ReflectionTestUtils.setField(exportJobService, "ttlMinutes", -1L);
+        ExportJob expired = submitDeviceLogs(2L, null);
+        runQueued();
+        Path expiredFile = exportDir.resolve(expired.getJobId() + ".csv.gz");
+        assertTrue(Files.exists(expiredFile));
+
+        exportJobService.cleanupExpired();
+        assertNull(exportJobService.getJob(expired.getJobId()));
+        assertFalse(Files.exists(expiredFile));
+        assertSame(kept, exportJobService.getJob(kept.getJobId()));
+        assertTrue(Files.exists(keptFile));
+
+        // 过期后相同条件重新生成
+        ExportJob again = submitDeviceLogs(2L, null);
+        assertNotSame(expired, again);
+    }
+}
@@ -0,0 +1,264 @@
+package com.yxrobot.service;
+
+import com.yxrobot.entity.LinkClickLog;
+import com.yxrobot.entity.LinkClickRollup;
+import com.yxrobot.mapper.LinkClickLogMapper;
+import com.yxrobot.mapper.LinkClickRollupMapper;
+import com.yxrobot.util.HyperLogLog;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * LinkClickRollupService 单元测试
+ * 验证点击汇总的增量累加、访客草图合并、失败重试和重建
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-17
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("链接点击汇总服务测试")
+class LinkClickRollupServiceTest {
+
+    private static final LocalDateTime CLICKED_AT = LocalDateTime.of(2025, 2, 17, 10, 25);
+
+    @Mock
+    private LinkClickRollupMapper rollupMapper;
+
+    @Mock
+    private LinkClickLogMapper clickLogMapper;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private LinkClickRollupService rollupService;
+
+    @Test
+    @DisplayName("测试按小时、维度、天累加")
+    @SuppressWarnings("unchecked")
+    void testAccumulateAndFlush() {
+        rollupService.accumulate(Arrays.asList(
+                click(1L, "1.1.1.1", "Mozilla/5.0 (iPhone)", "https://www.google.com/search", false, null),
+                click(1L, "1.1.1.1", "Mozilla/5.0 (Windows NT 10.0)", null, true, new BigDecimal("20.00")),
+                click(2L, "2.2.2.2", null, "https://www.baidu.com", false, null)));
+
+        assertEquals(2 + 5 + 3, rollupService.flushRollups());
+        assertEquals(0, rollupService.flushRollups());
+
+        ArgumentCaptor<List<LinkClickRollup>> hourly = ArgumentCaptor.forClass(List.class);
+        verify(rollupMapper).upsertHourlyStats(hourly.capture());
+        LinkClickRollup link1Hour = find(hourly.getValue(), 1L, null);
+        assertEquals(CLICKED_AT.withMinute(0), link1Hour.getStatTime());
+        assertEquals(2L, link1Hour.getClickCount());
+        assertEquals(1L, link1Hour.getConversionCount());
+        assertEquals(0, new BigDecimal("20.00").compareTo(link1Hour.getConversionValue()));
+
+        ArgumentCaptor<List<LinkClickRollup>> dimensions = ArgumentCaptor.forClass(List.class);
+        verify(rollupMapper).upsertDimensionStats(dimensions.capture());
+        Map<String, Long> link1Dimensions = dimensions.getValue().stream()
+                .filter(r -> r.getLinkId() == 1L)
+                .collect(Collectors.toMap(r -> r.getDimension() + ":" + r.getDimensionValue(), LinkClickRollup::getClickCount));
+        assertEquals(1L, link1Dimensions.get("device:移动设备"));
+        assertEquals(1L, link1Dimensions.get("device:桌面设备"));
+        assertEquals(1L, link1Dimensions.get("referer:Google"));
+        assertEquals(1L, link1Dimensions.get("referer:直接访问"));
+        // 用户代理为空的点击不计入设备统计
+        assertFalse(dimensions.getValue().stream()
+                .anyMatch(r -> r.getLinkId() == 2L && "device".equals(r.getDimension())));
+
+        ArgumentCaptor<List<LinkClickRollup>> daily = ArgumentCaptor.forClass(List.class);
+        verify(rollupMapper).upsertDailyStats(daily.capture());
+        LinkClickRollup allLinks = find(daily.getValue(), LinkClickRollupService.ALL_LINKS, null);
+        assertEquals(CLICKED_AT.toLocalDate().atStartOfDay(), allLinks.getStatTime());
+        assertEquals(3L, allLinks.getClickCount());
+        assertEquals(2L, allLinks.getUniqueVisitors());
+        assertEquals(1L, find(daily.getValue(), 1L, null).getUniqueVisitors());
+    }
+
+    @Test
+    @DisplayName("测试日汇总与已有访客草图合并")
+    void testDailySketchMerged() {
+        HyperLogLog stored = new HyperLogLog();
+        stored.add("9.9.9.9");
+        stored.add("1.1.1.1");
+        LinkClickRollup existing = new LinkClickRollup(1L, CLICKED_AT.toLocalDate().atStartOfDay());
+        existing.setVisitorSketch(stored.toBytes());
+        when(rollupMapper.selectDailySketches(anyList())).thenReturn(Collections.singletonList(existing));
+
+        rollupService.accumulate(Collections.singletonList(click(1L, "1.1.1.1", null, null, false, null)));
+        rollupService.flushRollups();
+
+        verify(rollupMapper).upsertDailyStats(argThat(rows -> {
+            LinkClickRollup row = find(rows, 1L, null);
+            return row.getUniqueVisitors() == 2L && row.getClickCount() == 1L;
+        }));
+    }
+
+    @Test
+    @DisplayName("测试写入失败的增量放回下次写入")
+    void testFailedFlushIsRequeued() {
+        when(rollupMapper.upsertHourlyStats(anyList()))
+                .thenThrow(new RuntimeException("db down"))
+                .thenReturn(1);
+
+        rollupService.accumulate(Collections.singletonList(click(1L, "1.1.1.1", null, null, false, null)));
+        rollupService.flushRollups();
+        rollupService.accumulate(Collections.singletonList(click(1L, "1.1.1.2", null, null, false, null)));
+        rollupService.flushRollups();
+
+        verify(rollupMapper).upsertHourlyStats(argThat(rows -> rows.size() == 1 && rows.get(0).getClickCount() == 2L));
+        // 其他汇总表不受影响，各自只写入本次增量
+        verify(rollupMapper, times(2)).upsertDailyStats(anyList());
+    }
+
+    @Test
+    @DisplayName("测试转化更新的增量")
+    void testAccumulateConversion() {
+        LinkClickLog first = click(1L, "1.1.1.1", null, null, false, null);
+        rollupService.accumulateConversion(first, new BigDecimal("15"));
+
+        LinkClickLog already = click(1L, "1.1.1.1", null, null, true, new BigDecimal("10"));
+        rollupService.accumulateConversion(already, new BigDecimal("12"));
+
+        rollupService.flushRollups();
+
+        verify(rollupMapper).upsertHourlyStats(argThat(rows -> {
+            LinkClickRollup row = rows.get(0);
+            return row.getClickCount() == 0L && row.getConversionCount() == 1L
+                    && new BigDecimal("17").compareTo(row.getConversionValue()) == 0;
+        }));
+    }
+
+    @Test
+    @DisplayName("测试按原始日志分页重建")
+    void testRebuildRollups() {
+        LocalDate day = LocalDate.now().minusDays(1);
+        List<LinkClickLog> firstPage = new ArrayList<>();
+        for (long i = 1; i <= 1000; i++) {
+            LinkClickLog log = click(1L, "10.0.0." + (i % 100), null, null, false, null);
+            log.setId(i);
+            log.setClickedAt(day.atTime(9, 0));
+            firstPage.add(log);
+        }
+        when(clickLogMapper.selectForRollup(eq(0L), any(), any(), eq(1000))).thenReturn(firstPage);
+        when(clickLogMapper.selectForRollup(eq(1000L), any(), any(), eq(1000))).thenReturn(new ArrayList<>());
+
+        assertEquals(1000, rollupService.rebuildRollups(day, day));
+
+        verify(rollupMapper).deleteHourlyStats(day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+        verify(rollupMapper).deleteDailyStats(day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+        verify(rollupMapper).upsertDailyStats(argThat(rows -> {
+            LinkClickRollup row = find(rows, 1L, null);
+            return row.getClickCount() == 1000L && row.getUniqueVisitors() == 100L;
+        }));
+
+        assertThrows(IllegalArgumentException.class, () -> rollupService.rebuildRollups(day, LocalDate.now()));
+    }
+
+    @Test
+    @DisplayName("测试按天分事务重建，跳过没有原始日志的日期")
+    void testRebuildRollupsOneDayPerTransaction() {
+        LocalDate endDay = LocalDate.now().minusDays(1);
+        LocalDate middleDay = endDay.minusDays(1);
+        LocalDate startDay = endDay.minusDays(2);
+        LinkClickLog log = click(1L, "10.0.0.1", null, null, false, null);
+        log.setId(1L);
+        log.setClickedAt(middleDay.atTime(9, 0));
+        when(clickLogMapper.selectForRollup(anyLong(), any(), any(), eq(1000))).thenReturn(new ArrayList<>());
+        when(clickLogMapper.selectForRollup(eq(0L), eq(middleDay.atStartOfDay()), any(), eq(1000)))
+            .thenReturn(new ArrayList<>(Collections.singletonList(log)));
+
+        assertEquals(1, rollupService.rebuildRollups(startDay, endDay));
+
+        verify(rollupMapper).deleteHourlyStats(middleDay.atStartOfDay(), endDay.atStartOfDay());
+        verify(rollupMapper, times(1)).deleteHourlyStats(any(), any());
+        verify(rollupMapper, times(1)).deleteDailyStats(any(), any());
+        verify(transactionManager, times(3)).getTransaction(any());
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    @DisplayName("测试重建时丢弃当天未写入的增量，其他日期的增量保留")
+    void testRebuildDiscardsPendingDeltasOfRebuiltDay() {
+        LocalDate day = LocalDate.now().minusDays(1);
+        LinkClickLog rebuilt = click(1L, "10.0.0.1", null, null, false, null);
+        rebuilt.setId(1L);
+        rebuilt.setClickedAt(day.atTime(9, 0));
+        LinkClickLog today = click(1L, "10.0.0.2", null, null, false, null);
+        today.setClickedAt(LocalDate.now().atTime(0, 5));
+        rollupService.accumulate(Arrays.asList(rebuilt, today));
+        when(clickLogMapper.selectForRollup(eq(0L), any(), any(), eq(1000)))
+            .thenReturn(new ArrayList<>(Collections.singletonList(rebuilt)));
+
+        assertEquals(1, rollupService.rebuildRollups(day, day));
+        verify(rollupMapper).upsertHourlyStats(argThat(rows -> rows.size() == 1
+            && rows.get(0).getStatTime().equals(day.atTime(9, 0)) && rows.get(0).getClickCount() == 1L));
+
+        // 写入的只剩今天的增量，重建日期不会再累加一次
+        clearInvocations(rollupMapper);
+        rollupService.flushRollups();
+        verify(rollupMapper).upsertHourlyStats(argThat(rows -> rows.size() == 1
+            && rows.get(0).getStatTime().equals(LocalDate.now().atStartOfDay())));
+        verify(rollupMapper).upsertDailyStats(argThat(rows -> rows.stream()
+            .allMatch(row -> row.getStatTime().equals(LocalDate.now().atStartOfDay()))));
+    }
+
+    @Test
+    @DisplayName("测试趋势读取日汇总")
+    void testTrendsReadDailyRollups() {
+        Map<String, Object> clicksOnly = new HashMap<>();
+        clicksOnly.put("date", "2025-02-16");
+        clicksOnly.put("clickCount", 5L);
+        clicksOnly.put("uniqueVisitors", 3L);
+        clicksOnly.put("conversionCount", 0L);
+        clicksOnly.put("totalValue", BigDecimal.ZERO);
+        when(rollupMapper.selectDailyTrends(eq(LinkClickRollupService.ALL_LINKS), any()))
+                .thenReturn(Collections.singletonList(clicksOnly));
+
+        List<Map<String, Object>> clickTrends = rollupService.getClickTrends(null, 7);
+        assertEquals(1, clickTrends.size());
+        assertEquals(3L, clickTrends.get(0).get("uniqueVisitors"));
+        assertTrue(rollupService.getConversionTrends(null, 7).isEmpty());
+    }
+
+    private static LinkClickLog click(Long linkId, String ip, String userAgent, String referer,
+                                      boolean conversion, BigDecimal value) {
+        LinkClickLog log = new LinkClickLog();
+        log.setLinkId(linkId);
+        log.setUserIp(ip);
+        log.setUserAgent(userAgent);
+        log.setReferer(referer);
+        log.setClickedAt(CLICKED_AT);
+        log.setIsConversion(conversion);
+        log.setConversionValue(value);
+        return log;
+    }
+
+    private static LinkClickRollup find(List<LinkClickRollup> rows, Long linkId, String dimension) {
+        return rows.stream()
+                .filter(r -> r.getLinkId().equals(linkId) && java.util.Objects.equals(r.getDimension(), dimension))
+                .findFirst()
+                .orElseThrow(AssertionError::new);
+    }
+}
@@ -0,0 +1,220 @@
+package com.yxrobot.service;
+
+import com.yxrobot.cache.LocalCacheManager;
+import com.yxrobot.config.LocalCacheConfig;
+import com.yxrobot.entity.LinkClickLog;
+import com.yxrobot.entity.PlatformLink;
+import com.yxrobot.mapper.LinkClickLogMapper;
+import com.yxrobot.mapper.PlatformLinkMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * LinkClickService 写后缓冲测试
+ * 验证点击批量写入、链接统计增量合并、背压同步写入和关闭时排空
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-16
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("链接点击写后缓冲测试")
+class LinkClickServiceTest {
+
+    @Mock
+    private LinkClickLogMapper clickLogMapper;
+
+    @Mock
+    private PlatformLinkMapper platformLinkMapper;
+
+    @Mock
+    private LinkClickRollupService rollupService;
+
+    @Spy
+    private LocalCacheManager localCacheManager = new LocalCacheManager(new LocalCacheConfig(), Runnable::run);
+
+    @InjectMocks
+    private LinkClickService linkClickService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(linkClickService, "bufferCapacity", 3);
+        ReflectionTestUtils.setField(linkClickService, "batchSize", 2);
+        linkClickService.initClickBuffer();
+
+        lenient().when(platformLinkMapper.selectById(1L)).thenReturn(new PlatformLink());
+        lenient().when(clickLogMapper.batchInsert(anyList())).thenAnswer(invocation -> invocation.<List<?>>getArgument(0).size());
+    }
+
+    @Test
+    @DisplayName("测试点击先入缓冲再批量写入")
+    @SuppressWarnings("unchecked")
+    void testClicksAreBatched() {
+        linkClickService.recordClick(1L, null);
+        linkClickService.recordClick(1L, null);
+        linkClickService.recordConversion(1L, "purchase", new BigDecimal("9.90"), null);
+
+        verify(clickLogMapper, never()).batchInsert(anyList());
+        verify(clickLogMapper, never()).insert(any());
+        // 链接存在性只查询一次
+        verify(platformLinkMapper, times(1)).selectById(1L);
+
+        assertEquals(3, linkClickService.flushClickBuffer());
+
+        ArgumentCaptor<List<LinkClickLog>> batches = ArgumentCaptor.forClass(List.class);
+        verify(clickLogMapper, times(2)).batchInsert(batches.capture());
+        verify(clickLogMapper).incrementLinkClickStats(1L, 3L, 1L);
+        verify(clickLogMapper, never()).updateLinkClickStats(anyLong());
+        verify(rollupService, times(2)).accumulate(anyList());
+        verify(rollupService).flushRollups();
+
+        Map<String, Object> stats = linkClickService.getIngestionStats();
+        assertEquals(3L, stats.get("enqueuedCount"));
+        assertEquals(3L, stats.get("persistedCount"));
+        assertEquals(2L, stats.get("batchCount"));
+        assertEquals(0, stats.get("queueSize"));
+    }
+
+    @Test
+    @DisplayName("测试缓冲已满时同步写入")
+    void testOverflowWritesSynchronously() {
+        for (int i = 0; i < 4; i++) {
+            linkClickService.recordClick(1L, null);
+        }
+
+        verify(clickLogMapper, times(1)).batchInsert(argThat(logs -> logs.size() == 1));
+        assertEquals(1L, linkClickService.getIngestionStats().get("overflowCount"));
+        assertEquals(3L, linkClickService.getIngestionStats().get("queueHighWatermark"));
+    }
+
+    @Test
+    @DisplayName("测试链接不存在时拒绝记录")
+    void testUnknownLinkRejected() {
+        when(platformLinkMapper.selectById(99L)).thenReturn(null);
+
+        assertThrows(IllegalArgumentException.class, () -> linkClickService.recordClick(99L, null));
+        assertEquals(0, linkClickService.flushClickBuffer());
+    }
+
+    @Test
+    @DisplayName("测试统计更新失败时保留增量")
+    void testFailedCounterUpdateIsRetried() {
+        when(clickLogMapper.incrementLinkClickStats(anyLong(), anyLong(), anyLong()))
+            .thenThrow(new RuntimeException("db down"))
+            .thenReturn(1);
+
+        linkClickService.recordClick(1L, null);
+        linkClickService.flushClickBuffer();
+        linkClickService.recordClick(1L, null);
+        linkClickService.flushClickBuffer();
+
+        verify(clickLogMapper).incrementLinkClickStats(1L, 1L, 0L);
+        verify(clickLogMapper).incrementLinkClickStats(1L, 2L, 0L);
+    }
+
+    @Test
+    @DisplayName("测试批量写入失败时逐条写入并放回失败日志")
+    void testFailedBatchFallsBackToRowWrites() {
+        when(clickLogMapper.batchInsert(anyList())).thenAnswer(invocation -> {
+            List<?> logs = invocation.getArgument(0);
+            if (logs.size() > 1) {
+                throw new RuntimeException("batch failed");
+            }
+            return 1;
+        });
+
+        linkClickService.recordClick(1L, null);
+        linkClickService.recordClick(1L, null);
+
+        assertEquals(2, linkClickService.flushClickBuffer());
+        verify(clickLogMapper, times(2)).batchInsert(argThat(logs -> logs.size() == 1));
+        verify(clickLogMapper).incrementLinkClickStats(1L, 2L, 0L);
+        assertEquals(2L, linkClickService.getIngestionStats().get("persistedCount"));
+        assertEquals(0L, linkClickService.getIngestionStats().get("failedCount"));
+    }
+
+    @Test
+    @DisplayName("测试数据库不可用时日志留在缓冲等待重试")
+    void testFailedBatchIsRequeued() {
+        when(clickLogMapper.batchInsert(anyList())).thenThrow(new RuntimeException("db down"));
+
+        linkClickService.recordClick(1L, null);
+        linkClickService.recordClick(1L, null);
+
+        assertEquals(0, linkClickService.flushClickBuffer());
+        Map<String, Object> stats = linkClickService.getIngestionStats();
+        assertEquals(2, stats.get("queueSize"));
+        assertEquals(2L, stats.get("requeuedCount"));
+        assertEquals(0L, stats.get("failedCount"));
+
+        // 数据库恢复后写入
+        reset(clickLogMapper);
+        when(clickLogMapper.batchInsert(anyList())).thenAnswer(invocation -> invocation.<List<?>>getArgument(0).size());
+        assertEquals(2, linkClickService.flushClickBuffer());
+        assertEquals(0, linkClickService.getIngestionStats().get("queueSize"));
+    }
+
+    @Test
+    @DisplayName("测试单独写入失败的日志重试多次后丢弃")
+    void testPoisonRowIsDropped() {
+        when(clickLogMapper.batchInsert(anyList())).thenThrow(new RuntimeException("bad row"));
+
+        linkClickService.recordClick(1L, null);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, linkClickService.flushClickBuffer());
+        }
+        Map<String, Object> stats = linkClickService.getIngestionStats();
+        assertEquals(0, stats.get("queueSize"));
+        assertEquals(1L, stats.get("failedCount"));
+        assertEquals(2L, stats.get("requeuedCount"));
+        verify(clickLogMapper, times(6)).batchInsert(anyList());
+    }
+
+    @Test
+    @DisplayName("测试写入成功后汇总累加失败时不重复写入")
+    void testRollupFailureDoesNotReinsert() {
+        doThrow(new IllegalStateException("rollup failed")).when(rollupService).accumulate(anyList());
+
+        linkClickService.recordClick(1L, null);
+        linkClickService.recordClick(1L, null);
+
+        assertEquals(2, linkClickService.flushClickBuffer());
+        verify(clickLogMapper, times(1)).batchInsert(anyList());
+        Map<String, Object> stats = linkClickService.getIngestionStats();
+        assertEquals(2L, stats.get("persistedCount"));
+        assertEquals(0, stats.get("queueSize"));
+        assertEquals(0L, stats.get("requeuedCount"));
+    }
+
+    @Test
+    @DisplayName("测试关闭时排空缓冲")
+    void testShutdownDrainsBuffer() {
+        linkClickService.recordClick(1L, null);
+        linkClickService.recordClick(1L, null);
+
+        linkClickService.shutdownClickBuffer();
+
+        verify(clickLogMapper).incrementLinkClickStats(1L, 2L, 0L);
+        assertEquals(2L, linkClickService.getIngestionStats().get("persistedCount"));
+
+        // 关闭后直接同步写入
+        linkClickService.recordClick(1L, null);
+        verify(clickLogMapper).incrementLinkClickStats(1L, 1L, 0L);
+    }
+}
@@ -0,0 +1,183 @@
+package com.yxrobot.service;
+
+import com.sun.net.httpserver.HttpServer;
+import com.yxrobot.config.PerformanceConfig;
+import com.yxrobot.dto.LinkValidationResultDTO;
+import com.yxrobot.entity.PlatformLink;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LinkValidationEngine 测试
+ * 使用本地 HttpServer 作为被验证的目标站点
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-18
+ */
+@DisplayName("链接验证引擎测试")
+class LinkValidationEngineTest {
+
+    private HttpServer server;
+    private String baseUrl;
+    private LinkValidationEngine engine;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger maxActive = new AtomicInteger();
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/ok", exchange -> {
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.createContext("/missing", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.createContext("/get-only", exchange -> {
+            boolean head = "HEAD".equals(exchange.getRequestMethod());
+            exchange.sendResponseHeaders(head ? 405 : 200, -1);
+            exchange.close();
+        });
+        server.createContext("/slow", exchange -> {
+            int current = active.incrementAndGet();
+            maxActive.accumulateAndGet(current, Math::max);
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            active.decrementAndGet();
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.createContext("/hang", exchange -> {
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (engine != null) {
+            engine.shutdown();
+        }
+        server.stop(0);
+    }
+
+    private LinkValidationEngine newEngine(int perHost, int readTimeoutMs, int minTimeoutMs) {
+        PerformanceConfig config = new PerformanceConfig();
+        config.getValidation().setConnectionTimeoutMs(2000);
+        config.getValidation().setReadTimeoutMs(readTimeoutMs);
+        config.getValidation().setMinReadTimeoutMs(minTimeoutMs);
+        config.getValidation().setMaxConcurrentPerHost(perHost);
+        config.getValidation().setMaxConcurrentValidations(100);
+        engine = new LinkValidationEngine(config);
+        return engine;
+    }
+
+    private static PlatformLink link(long id, String url) {
+        PlatformLink link = new PlatformLink();
+        link.setId(id);
+        link.setLinkUrl(url);
+        return link;
+    }
+
+    @Test
+    @DisplayName("测试状态码判断与HEAD不支持时改用GET")
+    void testStatusCodes() {
+        newEngine(4, 5000, 1000);
+        List<LinkValidationResultDTO> results = engine.validateAll(List.of(
+                link(1, baseUrl + "/ok"),
+                link(2, baseUrl + "/missing"),
+                link(3, baseUrl + "/get-only"),
+                link(4, "not a url"),
+                link(5, "http://127.0.0.1:1/closed")));
+
+        assertTrue(results.get(0).getIsValid());
+        assertEquals(200, results.get(0).getStatusCode());
+
+        assertFalse(results.get(1).getIsValid());
+        assertEquals(404, results.get(1).getStatusCode());
+        assertEquals("HTTP状态码: 404", results.get(1).getErrorMessage());
+
+        assertTrue(results.get(2).getIsValid());
+        assertEquals(200, results.get(2).getStatusCode());
+
+        assertFalse(results.get(3).getIsValid());
+        assertTrue(results.get(3).getErrorMessage().startsWith("验证异常"));
+
+        assertFalse(results.get(4).getIsValid());
+        assertTrue(results.get(4).getErrorMessage().startsWith("网络错误"));
+
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i + 1L, results.get(i).getId());
+            assertNotNull(results.get(i).getCheckedAt());
+        }
+    }
+
+    @Test
+    @DisplayName("测试单主机并发上限与连接复用")
+    void testPerHostConcurrencyLimit() {
+        newEngine(3, 5000, 1000);
+        List<PlatformLink> links = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            links.add(link(i, baseUrl + "/slow?i=" + i));
+        }
+
+        List<LinkValidationResultDTO> results = engine.validateAll(links);
+
+        assertTrue(results.stream().allMatch(LinkValidationResultDTO::getIsValid));
+        assertTrue(maxActive.get() <= 3, "单主机并发不应超过3，实际: " + maxActive.get());
+        assertTrue(maxActive.get() >= 2, "应并发请求，实际: " + maxActive.get());
+        // 30个请求复用少量连接
+        assertTrue(clientPorts.size() <= 6, "连接应复用，实际连接数: " + clientPorts.size());
+        assertEquals(0, engine.getHostStats().get("127.0.0.1").get("inFlight"));
+    }
+
+    @Test
+    @DisplayName("测试自适应超时")
+    void testAdaptiveTimeout() {
+        newEngine(4, 10000, 300);
+
+        assertTrue(engine.getHostStats().isEmpty());
+        for (int i = 0; i < 5; i++) {
+            assertTrue(engine.validate(link(i, baseUrl + "/ok")).join().getIsValid());
+        }
+        long timeoutMs = (long) engine.getHostStats().get("127.0.0.1").get("timeoutMs");
+        assertTrue(timeoutMs < 10000, "响应快的主机应缩短超时，实际: " + timeoutMs);
+
+        long start = System.currentTimeMillis();
+        LinkValidationResultDTO hung = engine.validate(link(99, baseUrl + "/hang")).join();
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertFalse(hung.getIsValid());
+        assertTrue(hung.getErrorMessage().startsWith("连接超时"));
+        assertTrue(elapsed < 4000, "应在自适应超时内结束，实际: " + elapsed);
+    }
+}
@@ -0,0 +1,105 @@
+package com.yxrobot.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ManagedDeviceApiMonitoringService 单元测试
+ * 验证环形缓冲容量上限和分钟桶汇总报告
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-15
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("设备管理API监控服务测试")
+class ManagedDeviceApiMonitoringServiceTest {
+
+    @InjectMocks
+    private ManagedDeviceApiMonitoringService monitoringService;
+
+    @Test
+    @DisplayName("测试原始样本按容量覆盖")
+    void testSamplesAreBounded() {
+        ManagedDeviceApiMonitoringService.ApiMetricStore store = new ManagedDeviceApiMonitoringService.ApiMetricStore();
+        for (int i = 0; i < 2500; i++) {
+            store.record(new ManagedDeviceApiMonitoringService.ApiMetric("/api/admin/devices", "GET", i, 200, null, null), 100);
+        }
+
+        List<ManagedDeviceApiMonitoringService.ApiMetric> recent = store.recent(5000);
+        assertEquals(1000, recent.size());
+        assertEquals(1500, recent.get(0).getResponseTime());
+        assertEquals(2499, recent.get(recent.size() - 1).getResponseTime());
+        assertEquals(2500, store.aggregate(100, 100).getCallCount());
+    }
+
+    @Test
+    @DisplayName("测试分钟桶按时间范围汇总")
+    void testAggregateByMinuteRange() {
+        ManagedDeviceApiMonitoringService.ApiMetricStore store = new ManagedDeviceApiMonitoringService.ApiMetricStore();
+        store.record(new ManagedDeviceApiMonitoringService.ApiMetric("/a", "GET", 100, 200, null, null), 1000);
+        store.record(new ManagedDeviceApiMonitoringService.ApiMetric("/a", "GET", 300, 500, null, null), 1001);
+        store.record(new ManagedDeviceApiMonitoringService.ApiMetric("/a", "GET", 5000, 200, null, null), 1005);
+
+        ManagedDeviceApiMonitoringService.AggregatedMetrics range = store.aggregate(1000, 1001);
+        assertEquals(2, range.getCallCount());
+        assertEquals(200.0, range.getAverageResponseTime(), 0.001);
+        assertEquals(50.0, range.getErrorRate(), 0.001);
+        assertEquals(300, range.getPercentile(95));
+
+        // 24小时后同一槽位的旧桶被替换
+        store.record(new ManagedDeviceApiMonitoringService.ApiMetric("/a", "GET", 10, 200, null, null), 1000 + 24 * 60);
+        assertEquals(0, store.aggregate(1000, 1000).getCallCount());
+        assertEquals(1, store.aggregate(1000 + 24 * 60, 1000 + 24 * 60).getCallCount());
+    }
+
+    @Test
+    @DisplayName("测试性能报告与实时数据")
+    void testReportAndRealTimeData() {
+        for (int i = 0; i < 20; i++) {
+            monitoringService.recordApiMetric("/api/admin/devices", "GET", 100, 200, "127.0.0.1", "test");
+        }
+        monitoringService.recordApiMetric("/api/admin/devices/{id}", "DELETE", 1500, 500, "127.0.0.1", "test");
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Object> report = monitoringService.getPerformanceReport(now.minusMinutes(5), now.plusMinutes(1));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> summary = (Map<String, Object>) report.get("summary");
+        assertEquals(21L, summary.get("totalCalls"));
+        assertEquals(1L, summary.get("errorCount"));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> apiPerformance = (Map<String, Object>) report.get("apiPerformance");
+        assertTrue(apiPerformance.containsKey("GET /api/admin/devices"));
+        assertTrue(apiPerformance.containsKey("DELETE /api/admin/devices/{id}"));
+
+        Map<String, Object> realTime = monitoringService.getRealTimeMonitoringData();
+        assertEquals("良好", realTime.get("performanceStatus"));
+        assertEquals(2, ((List<?>) realTime.get("activeApis")).size());
+
+        Map<String, Object> health = monitoringService.checkApiHealth();
+        assertEquals("异常", health.get("overallHealth"));
+    }
+
+    @Test
+    @DisplayName("测试清理长时间无调用的API")
+    void testCleanupKeepsActiveApis() {
+        monitoringService.recordApiMetric("/api/admin/devices", "GET", 50, 200, null, null);
+
+        monitoringService.cleanupExpiredMetrics();
+
+        Map<String, Object> statistics = monitoringService.getApiMonitoringStatistics();
+        @SuppressWarnings("unchecked")
+        Map<String, Object> details = (Map<String, Object>) statistics.get("apiDetailStats");
+        assertTrue(details.containsKey("GET /api/admin/devices"));
+    }
+}
@@ -0,0 +1,139 @@
+package com.yxrobot.service;
+
+import com.yxrobot.entity.News;
+import com.yxrobot.entity.NewsStatus;
+import com.yxrobot.mapper.NewsMapper;
+import com.yxrobot.mapper.NewsTagRelationMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * NewsSearchIndex 单元测试
+ * 验证全文检索、BM25排序、筛选以及增量更新
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-21
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("新闻全文搜索索引测试")
+class NewsSearchIndexTest {
+
+    @Mock
+    private NewsMapper newsMapper;
+
+    @Mock
+    private NewsTagRelationMapper newsTagRelationMapper;
+
+    @InjectMocks
+    private NewsSearchIndex index;
+
+    private static News news(long id, String title, String excerpt, String content) {
+        News news = new News();
+        news.setId(id);
+        news.setTitle(title);
+        news.setExcerpt(excerpt);
+        news.setContent(content);
+        news.setStatus(NewsStatus.PUBLISHED);
+        news.setCategoryId(1L);
+        news.setAuthor("编辑部");
+        news.setIsFeatured(false);
+        news.setSortOrder(0);
+        news.setCreatedAt(LocalDateTime.of(2025, 2, 1, 10, 0).plusDays(id));
+        return news;
+    }
+
+    private static List<Long> ids(NewsSearchIndex.SearchHits hits) {
+        return hits.getHits().stream().map(hit -> hit.getDocument().getId()).collect(Collectors.toList());
+    }
+
+    @Test
+    @DisplayName("测试分页重建索引并按相关度排序")
+    void testRebuildAndRanking() {
+        List<News> firstBatch = new ArrayList<>();
+        firstBatch.add(news(1, "公司新闻", "年度总结", "<p>今年推出了多款<b>教育机器人</b>产品</p>"));
+        firstBatch.add(news(2, "教育机器人进入课堂", "教育机器人助力编程教学", "课堂上的机器人"));
+        firstBatch.add(news(3, "展会回顾", "参展照片", "我们参加了工业展会"));
+        for (long id = 4; id <= 500; id++) {
+            firstBatch.add(news(id, "其他新闻" + id, null, "无关内容"));
+        }
+        when(newsMapper.selectForIndex(0L, 500)).thenReturn(firstBatch);
+        when(newsMapper.selectForIndex(500L, 500)).thenReturn(Collections.singletonList(
+                news(501, "行业动态", null, "服务机器人市场")));
+        Map<String, Object> tag = new HashMap<>();
+        tag.put("newsId", 3L);
+        tag.put("tagName", "教育机器人");
+        when(newsTagRelationMapper.selectTagNamesByNewsIds(anyList()))
+                .thenReturn(Collections.singletonList(tag))
+                .thenReturn(Collections.emptyList());
+
+        assertFalse(index.isReady());
+        assertEquals(501, index.rebuild());
+        assertTrue(index.isReady());
+
+        NewsSearchIndex.SearchHits hits = index.search("教育机器人", null, 0, 10);
+        assertEquals(3, hits.getTotal());
+        // 标题和摘要都命中的排第一，HTML标签不影响正文匹配，标签可以被搜索到
+        assertEquals(2L, ids(hits).get(0));
+        assertTrue(ids(hits).containsAll(Arrays.asList(1L, 3L)));
+
+        // 关键词的所有二元组都要出现
+        assertEquals(Collections.singletonList(501L), ids(index.search("服务机器人", null, 0, 10)));
+        assertEquals(0, index.search("机器狗", null, 0, 10).getTotal());
+        // 单字查询匹配包含该字的词项
+        assertEquals(4, index.search("机", null, 0, 10).getTotal());
+    }
+
+    @Test
+    @DisplayName("测试筛选与分页")
+    void testFilterAndPaging() {
+        for (long id = 1; id <= 25; id++) {
+            News news = news(id, "机器人新闻" + id, null, null);
+            news.setStatus(id % 2 == 0 ? NewsStatus.PUBLISHED : NewsStatus.DRAFT);
+            index.index(news, Collections.emptyList());
+        }
+
+        NewsSearchIndex.SearchHits page = index.search("机器人", doc -> doc.getStatus() == NewsStatus.PUBLISHED, 10, 10);
+        assertEquals(12, page.getTotal());
+        assertEquals(2, page.getHits().size());
+        // 得分相同按创建时间倒序
+        assertEquals(Arrays.asList(4L, 2L), ids(page));
+    }
+
+    @Test
+    @DisplayName("测试增量更新与删除")
+    void testIncrementalUpdate() {
+        index.index(news(1, "旧标题", null, "旧内容"), Collections.emptyList());
+        assertEquals(1, index.search("旧标题", null, 0, 10).getTotal());
+
+        News updated = news(1, "新标题", null, "新内容");
+        when(newsMapper.selectById(1L)).thenReturn(updated);
+        when(newsTagRelationMapper.selectTagNamesByNewsIds(anyList())).thenReturn(Collections.emptyList());
+        index.refreshAfterCommit(1L);
+
+        assertEquals(0, index.search("旧标题", null, 0, 10).getTotal());
+        assertEquals(1, index.search("新标题", null, 0, 10).getTotal());
+
+        when(newsMapper.selectById(1L)).thenReturn(null);
+        index.refresh(1L);
+        assertEquals(0, index.search("新标题", null, 0, 10).getTotal());
+        assertEquals(0, index.getIndexStats().get("terms"));
+        assertEquals(Collections.emptyList(), index.suggestTitles("新标题", 5));
+    }
+}
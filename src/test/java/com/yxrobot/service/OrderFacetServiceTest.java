@@ -0,0 +1,127 @@
+package com.yxrobot.service;
+
+import com.yxrobot.cache.LocalCacheManager;
+import com.yxrobot.config.LocalCacheConfig;
+import com.yxrobot.dto.OrderFacetRow;
+import com.yxrobot.dto.OrderFacets;
+import com.yxrobot.dto.OrderQueryDTO;
+import com.yxrobot.mapper.OrderMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * OrderFacetService 测试
+ * 验证分组行汇总为各分面的计数，以及分组结果缓存
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-26
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("订单分面统计测试")
+class OrderFacetServiceTest {
+
+    @Mock
+    private OrderMapper orderMapper;
+
+    @Spy
+    private LocalCacheManager localCacheManager = new LocalCacheManager(new LocalCacheConfig(), Runnable::run);
+
+    @InjectMocks
+    private OrderFacetService orderFacetService;
+
+    private final List<OrderFacetRow> rows = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        orderFacetService.init();
+        rows.add(row("sales", "pending", "pending", "张三", 0, 5, "2500"));
+        rows.add(row("sales", "completed", "paid", "李四", 2, 3, "21000"));
+        rows.add(row("rental", "pending", "paid", "张三", 1, 2, "4000"));
+        rows.add(row("rental", "completed", null, null, -1, 1, null));
+    }
+
+    private static OrderFacetRow row(String type, String status, String paymentStatus, String salesPerson,
+                                     int amountBucket, long count, String amount) {
+        OrderFacetRow row = new OrderFacetRow();
+        row.setType(type);
+        row.setStatus(status);
+        row.setPaymentStatus(paymentStatus);
+        row.setSalesPerson(salesPerson);
+        row.setAmountBucket(amountBucket);
+        row.setOrderCount(count);
+        row.setTotalAmount(amount != null ? new BigDecimal(amount) : null);
+        return row;
+    }
+
+    @Test
+    @DisplayName("测试无筛选条件时汇总全部分组")
+    void testAggregateWithoutFilters() {
+        OrderFacets facets = OrderFacetService.aggregate(rows, null, null);
+
+        assertEquals(11, facets.getMatchedCount());
+        assertEquals(0, new BigDecimal("27500").compareTo(facets.getMatchedAmount()));
+        assertEquals(List.of("sales", "rental"), new ArrayList<>(facets.getTypes().keySet()));
+        assertEquals(8L, facets.getTypes().get("sales"));
+        assertEquals(7L, facets.getStatuses().get("pending"));
+        assertEquals(5L, facets.getPaymentStatuses().get("paid"));
+        assertEquals(1L, facets.getPaymentStatuses().get("unknown"));
+        assertEquals(7L, facets.getSalesPersons().get("张三"));
+        assertFalse(facets.getSalesPersons().containsKey("unknown"));
+
+        assertEquals(4, facets.getAmountRanges().size());
+        assertEquals(5, facets.getAmountRanges().get(0).getCount());
+        assertEquals(2, facets.getAmountRanges().get(1).getCount());
+        assertEquals(3, facets.getAmountRanges().get(2).getCount());
+        assertEquals(0, facets.getAmountRanges().get(3).getCount());
+    }
+
+    @Test
+    @DisplayName("测试类型和状态分面不应用自身筛选")
+    void testAggregateWithFilters() {
+        OrderFacets facets = OrderFacetService.aggregate(rows, "sales", "pending");
+
+        assertEquals(5, facets.getMatchedCount());
+        // 状态分面只按类型筛选，仍能看到已完成的销售订单
+        assertEquals(5L, facets.getStatuses().get("pending"));
+        assertEquals(3L, facets.getStatuses().get("completed"));
+        // 类型分面只按状态筛选
+        assertEquals(5L, facets.getTypes().get("sales"));
+        assertEquals(2L, facets.getTypes().get("rental"));
+        // 其余分面应用全部筛选
+        assertEquals(1, facets.getPaymentStatuses().size());
+        assertEquals(5L, facets.getSalesPersons().get("张三"));
+        assertFalse(facets.getSalesPersons().containsKey("李四"));
+    }
+
+    @Test
+    @DisplayName("测试切换类型和状态筛选时复用分组结果")
+    void testFacetRowsCached() {
+        when(orderMapper.selectFacetCounts(any(), any(), any())).thenReturn(rows);
+
+        OrderQueryDTO queryDTO = new OrderQueryDTO();
+        queryDTO.setKeyword("ORD");
+        assertEquals(11, orderFacetService.getFacets(queryDTO).getMatchedCount());
+
+        queryDTO.setStatus("completed");
+        assertEquals(4, orderFacetService.getFacets(queryDTO).getMatchedCount());
+        verify(orderMapper, times(1)).selectFacetCounts(any(), any(), any());
+
+        orderFacetService.invalidateAll();
+        orderFacetService.getFacets(queryDTO);
+        verify(orderMapper, times(2)).selectFacetCounts(any(), any(), any());
+    }
+}
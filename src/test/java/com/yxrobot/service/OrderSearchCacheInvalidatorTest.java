@@ -0,0 +1,37 @@
+package com.yxrobot.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * 订单搜索缓存失效测试类
+ */
+@ExtendWith(MockitoExtension.class)
+class OrderSearchCacheInvalidatorTest {
+
+    @Mock
+    private ResultCountService resultCountService;
+
+    @Mock
+    private OrderSearchResultCache orderSearchResultCache;
+
+    @Mock
+    private OrderFacetService orderFacetService;
+
+    @InjectMocks
+    private OrderSearchCacheInvalidator orderSearchCacheInvalidator;
+
+    @Test
+    void testInvalidateAllClearsResultCountAndFacetCaches() {
+        orderSearchCacheInvalidator.invalidateAll();
+
+        verify(resultCountService).invalidate(OrderSearchService.ORDER_SEARCH_ENDPOINT);
+        verify(orderSearchResultCache).invalidateAll();
+        verify(orderFacetService).invalidateAll();
+    }
+}
@@ -38,6 +38,12 @@ class OrderServiceTest {
     @Mock
     private OrderLogMapper orderLogMapper;
 
+    @Mock
+    private AutocompleteIndex autocompleteIndex;
+
+    @Mock
+    private OrderSearchCacheInvalidator orderSearchCacheInvalidator;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -8,6 +8,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -29,6 +31,9 @@ class OrderStatusServiceTest {
     @Mock
     private OrderLogMapper orderLogMapper;
 
+    @Mock
+    private OrderSearchCacheInvalidator orderSearchCacheInvalidator;
+
     @InjectMocks
     private OrderStatusService orderStatusService;
 
@@ -61,6 +66,28 @@ class OrderStatusServiceTest {
         verify(orderMapper).selectById(1L);
         verify(orderMapper).updateStatus(1L, "confirmed");
         verify(orderLogMapper).insert(any(OrderLog.class));
+        verify(orderSearchCacheInvalidator).invalidateAll();
+    }
+
+    @Test
+    void testUpdateOrderStatusInvalidatesSearchCachesAfterCommit() {
+        when(orderMapper.selectById(1L)).thenReturn(testOrder);
+        when(orderMapper.updateStatus(1L, "confirmed")).thenReturn(1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            orderStatusService.updateOrderStatus(1L, "confirmed", "admin", "确认订单");
+
+            // 提交前不清除，避免并发查询读到旧数据后重新写入缓存
+            verify(orderSearchCacheInvalidator, never()).invalidateAll();
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(orderSearchCacheInvalidator).invalidateAll();
     }
 
     @Test
@@ -148,6 +175,7 @@ class OrderStatusServiceTest {
         verify(orderMapper, times(2)).selectById(anyLong());
         verify(orderMapper, times(2)).updateStatus(anyLong(), eq("confirmed"));
         verify(orderLogMapper, times(2)).insert(any(OrderLog.class));
+        verify(orderSearchCacheInvalidator).invalidateAll();
     }
 
     @Test
@@ -0,0 +1,401 @@
+package com.yxrobot.service;
+
+import com.yxrobot.dto.RentalTrendDTO;
+import com.yxrobot.entity.RentalDailyFact;
+import com.yxrobot.entity.RentalDevice;
+import com.yxrobot.entity.RentalRecord;
+import com.yxrobot.enums.RentalStatus;
+import com.yxrobot.mapper.RentalDeviceMapper;
+import com.yxrobot.mapper.RentalFactMapper;
+import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * RentalFactService 测试
+ * 验证日事实计算的统计、趋势和分布与逐条聚合一致，事实表往返加载一致，以及修改、归还、删除的增量
+ *
+ * @author YXRobot开发团队
+ * @since 2025-03-07
+ */
+@DisplayName("租赁日事实服务测试")
+class RentalFactServiceTest {
+
+    private static final String[] ADDRESSES = {"北京市朝阳区", "上海市浦东新区", "广州市天河区", null};
+
+    private static final String[] METHODS = {"快递", "自提", null};
+
+    private RentalFactService service;
+
+    private RentalFactMapper factMapper;
+
+    private RentalDeviceMapper deviceMapper;
+
+    /** 模拟事实表：upsert 累加到这里，reload 从这里读取 */
+    private final Map<String, RentalDailyFact> dailyTable = new LinkedHashMap<>();
+
+    private final Map<String, RentalDailyFact> deviceTable = new LinkedHashMap<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        factMapper = mock(RentalFactMapper.class);
+        deviceMapper = mock(RentalDeviceMapper.class);
+        when(deviceMapper.selectById(anyLong())).thenAnswer(invocation -> {
+            long id = invocation.getArgument(0);
+            RentalDevice device = new RentalDevice();
+            device.setDeviceModel(id % 3 == 0 ? null : "YX-" + (id % 3));
+            return device;
+        });
+        doAnswer(invocation -> upsert(dailyTable, invocation.getArgument(0), true))
+            .when(factMapper).upsertDailyFacts(anyList());
+        doAnswer(invocation -> upsert(deviceTable, invocation.getArgument(0), false))
+            .when(factMapper).upsertDeviceFacts(anyList());
+        doAnswer(invocation -> stream(new ArrayList<>(dailyTable.values()), invocation.getArgument(0)))
+            .when(factMapper).selectDailyFacts(any());
+        doAnswer(invocation -> stream(new ArrayList<>(deviceTable.values()), invocation.getArgument(0)))
+            .when(factMapper).selectDeviceFacts(any());
+        when(factMapper.countDailyFacts()).thenReturn(1L);
+
+        service = newService();
+        assertNull(service.getRentalStats(null, null), "加载完成前应回退到数据库");
+        assertEquals(0, service.warmUp());
+    }
+
+    @Test
+    @DisplayName("统计、趋势、分布与逐条聚合一致，重新加载后结果不变")
+    void factsMatchBruteForceAggregation() {
+        List<RentalRecord> records = randomRecords(new Random(42), 400);
+        for (RentalRecord record : records) {
+            service.recordChanged(null, record);
+        }
+
+        assertMatches(service, records);
+
+        RentalFactService reloaded = newService();
+        reloaded.warmUp();
+        assertMatches(reloaded, records);
+    }
+
+    @Test
+    @DisplayName("归还、修改和删除按增量更新统计和去重设备数")
+    void changesApplyDeltas() {
+        RentalRecord first = record(1L, 2L, LocalDate.of(2025, 3, 3), "100.00", RentalStatus.ACTIVE);
+        RentalRecord second = record(2L, 2L, LocalDate.of(2025, 3, 3), "50.00", RentalStatus.ACTIVE);
+        service.recordChanged(null, first);
+        service.recordChanged(null, second);
+
+        Map<String, Object> stats = service.getRentalStats(null, null);
+        assertEquals(0, new BigDecimal("150.00").compareTo((BigDecimal) stats.get("totalRentalRevenue")));
+        assertEquals(2L, stats.get("totalRentalOrders"));
+        assertEquals(1L, stats.get("totalRentalDevices"));
+        assertEquals(2L, stats.get("activeRentalDevices"));
+
+        RentalRecord returned = copy(first);
+        returned.setRentalStatus(RentalStatus.COMPLETED);
+        returned.setTotalRentalFee(new BigDecimal("120.00"));
+        service.recordChanged(first, returned);
+
+        stats = service.getRentalStats(null, null);
+        assertEquals(0, new BigDecimal("170.00").compareTo((BigDecimal) stats.get("totalRentalRevenue")));
+        assertEquals(1L, stats.get("activeRentalDevices"));
+        Map<String, Object> day = service.getDayStats(LocalDate.of(2025, 3, 3));
+        assertEquals(0, new BigDecimal("77.50000").compareTo((BigDecimal) day.get("avgUtilization")));
+
+        // 改期到另一天：原日期只剩一条，新日期多一条
+        RentalRecord moved = copy(second);
+        moved.setRentalStartDate(LocalDate.of(2025, 3, 10));
+        service.recordChanged(second, moved);
+        assertEquals(1L, service.getDayStats(LocalDate.of(2025, 3, 3)).get("orders"));
+        assertEquals(1L, service.getDayStats(LocalDate.of(2025, 3, 10)).get("orders"));
+        assertEquals(1L, service.getRentalStats(null, null).get("totalRentalDevices"));
+
+        service.recordChanged(returned, null);
+        service.recordChanged(moved, null);
+
+        stats = service.getRentalStats(null, null);
+        assertEquals(0L, stats.get("totalRentalOrders"));
+        assertEquals(0L, stats.get("totalRentalDevices"));
+        assertEquals(0, BigDecimal.ZERO.compareTo((BigDecimal) stats.get("totalRentalRevenue")));
+        assertTrue(service.getTrends(null, null, "daily").isEmpty());
+        assertTrue(service.getDistribution(RentalFactService.DIMENSION_REGION, null, null, 0).isEmpty());
+    }
+
+    @Test
+    @DisplayName("未变化的修改和已删除的记录不写事实表")
+    void unchangedRecordsDoNotWrite() {
+        RentalRecord record = record(1L, 4L, LocalDate.of(2025, 3, 3), "100.00", RentalStatus.ACTIVE);
+        service.recordChanged(record, copy(record));
+
+        RentalRecord deleted = copy(record);
+        deleted.setIsDeleted(true);
+        service.recordChanged(null, deleted);
+
+        verify(factMapper, never()).upsertDailyFacts(anyList());
+        verify(factMapper, never()).upsertDeviceFacts(anyList());
+    }
+
+    @Test
+    @DisplayName("事实表写入失败时抛出异常，不更新内存")
+    void upsertFailurePropagates() {
+        doThrow(new RuntimeException("Deadlock found when trying to get lock"))
+            .when(factMapper).upsertDailyFacts(anyList());
+        RentalRecord record = record(1L, 4L, LocalDate.of(2025, 3, 3), "100.00", RentalStatus.ACTIVE);
+
+        assertThrows(RuntimeException.class, () -> service.recordChanged(null, record));
+        assertEquals(0L, service.getRentalStats(null, null).get("totalRentalOrders"));
+        verify(factMapper, never()).upsertDeviceFacts(anyList());
+    }
+
+    @Test
+    @DisplayName("周序号与 MySQL %u 一致")
+    void weekOfYearMatchesMysql() {
+        assertEquals(1, RentalFactService.weekOfYear(LocalDate.of(2025, 1, 1)));
+        assertEquals(1, RentalFactService.weekOfYear(LocalDate.of(2025, 1, 5)));
+        assertEquals(2, RentalFactService.weekOfYear(LocalDate.of(2025, 1, 6)));
+        assertEquals(0, RentalFactService.weekOfYear(LocalDate.of(2021, 1, 1)));
+        assertEquals(1, RentalFactService.weekOfYear(LocalDate.of(2021, 1, 4)));
+        assertEquals(53, RentalFactService.weekOfYear(LocalDate.of(2020, 12, 31)));
+        assertEquals(53, RentalFactService.weekOfYear(LocalDate.of(2024, 12, 30)));
+    }
+
+    private void assertMatches(RentalFactService facts, List<RentalRecord> records) {
+        LocalDate start = LocalDate.of(2025, 1, 20);
+        LocalDate end = LocalDate.of(2025, 2, 25);
+
+        Map<String, Object> expected = bruteStats(records, start, end);
+        Map<String, Object> actual = facts.getRentalStats(start, end);
+        assertEquals(expected.get("totalRentalOrders"), actual.get("totalRentalOrders"));
+        assertEquals(expected.get("totalRentalDevices"), actual.get("totalRentalDevices"));
+        assertEquals(expected.get("activeRentalDevices"), actual.get("activeRentalDevices"));
+        assertDecimal(expected.get("totalRentalRevenue"), actual.get("totalRentalRevenue"));
+        assertDecimal(expected.get("averageRentalPeriod"), actual.get("averageRentalPeriod"));
+
+        for (String period : new String[] {"daily", "weekly", "monthly"}) {
+            List<RentalTrendDTO> expectedTrends = bruteTrends(records, start, end, period);
+            List<RentalTrendDTO> actualTrends = facts.getTrends(start, end, period);
+            assertEquals(expectedTrends.size(), actualTrends.size(), period);
+            for (int i = 0; i < expectedTrends.size(); i++) {
+                RentalTrendDTO e = expectedTrends.get(i);
+                RentalTrendDTO a = actualTrends.get(i);
+                assertEquals(e.getDate(), a.getDate(), period);
+                assertEquals(e.getOrderCount(), a.getOrderCount(), period + " " + e.getDate());
+                assertEquals(e.getDeviceCount(), a.getDeviceCount(), period + " " + e.getDate());
+                assertDecimal(e.getRevenue(), a.getRevenue());
+                assertDecimal(e.getUtilizationRate(), a.getUtilizationRate());
+            }
+        }
+
+        Map<String, BigDecimal> expectedRegions = bruteRevenue(records, start, end,
+            r -> r.getDeliveryAddress() != null ? r.getDeliveryAddress() : "未知地区");
+        List<Map<String, Object>> regions = facts.getDistribution(RentalFactService.DIMENSION_REGION, start, end, 0);
+        assertEquals(expectedRegions.size(), regions.size());
+        for (Map<String, Object> region : regions) {
+            assertDecimal(expectedRegions.get(region.get("region")), region.get("revenue"));
+        }
+        for (int i = 1; i < regions.size(); i++) {
+            assertTrue(((BigDecimal) regions.get(i - 1).get("revenue"))
+                .compareTo((BigDecimal) regions.get(i).get("revenue")) >= 0, "应按收入倒序");
+        }
+        assertEquals(2, facts.getDistribution(RentalFactService.DIMENSION_REGION, start, end, 2).size());
+
+        Map<String, BigDecimal> expectedChannels = bruteRevenue(records, start, end,
+            r -> r.getDeliveryMethod() != null ? r.getDeliveryMethod() : "未知渠道");
+        for (Map<String, Object> channel : facts.getDistribution(RentalFactService.DIMENSION_CHANNEL, start, end, 0)) {
+            assertDecimal(expectedChannels.get(channel.get("channel")), channel.get("revenue"));
+        }
+
+        Map<String, BigDecimal> expectedModels = bruteRevenue(records, start, end,
+            r -> r.getDeviceId() % 3 == 0 ? "未知型号" : "YX-" + (r.getDeviceId() % 3));
+        List<Map<String, Object>> models = facts.getDistribution(RentalFactService.DIMENSION_DEVICE_MODEL, start, end, 0);
+        assertEquals(expectedModels.size(), models.size());
+        for (Map<String, Object> model : models) {
+            assertDecimal(expectedModels.get(model.get("deviceModel")), model.get("revenue"));
+        }
+    }
+
+    private static Map<String, Object> bruteStats(List<RentalRecord> records, LocalDate start, LocalDate end) {
+        BigDecimal revenue = BigDecimal.ZERO;
+        long orders = 0;
+        long active = 0;
+        long days = 0;
+        Set<Long> devices = new HashSet<>();
+        for (RentalRecord r : inRange(records, start, end)) {
+            revenue = revenue.add(r.getTotalRentalFee());
+            orders++;
+            days += r.getRentalPeriod();
+            devices.add(r.getDeviceId());
+            if (r.getRentalStatus() == RentalStatus.ACTIVE) {
+                active++;
+            }
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalRentalRevenue", revenue);
+        stats.put("totalRentalOrders", orders);
+        stats.put("totalRentalDevices", (long) devices.size());
+        stats.put("activeRentalDevices", active);
+        stats.put("averageRentalPeriod", BigDecimal.valueOf(days).divide(BigDecimal.valueOf(orders), 4, RoundingMode.HALF_UP));
+        return stats;
+    }
+
+    private static List<RentalTrendDTO> bruteTrends(List<RentalRecord> records, LocalDate start, LocalDate end,
+                                                    String period) {
+        Map<String, List<RentalRecord>> groups = new TreeMap<>();
+        for (RentalRecord r : inRange(records, start, end)) {
+            LocalDate date = r.getRentalStartDate();
+            String key;
+            if ("weekly".equals(period)) {
+                key = String.format("%d-%02d", date.getYear(), RentalFactService.weekOfYear(date));
+            } else if ("monthly".equals(period)) {
+                key = String.format("%d-%02d", date.getYear(), date.getMonthValue());
+            } else {
+                key = date.toString();
+            }
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(r);
+        }
+        List<RentalTrendDTO> trends = new ArrayList<>();
+        for (Map.Entry<String, List<RentalRecord>> group : groups.entrySet()) {
+            BigDecimal revenue = BigDecimal.ZERO;
+            BigDecimal utilization = BigDecimal.ZERO;
+            Set<Long> devices = new HashSet<>();
+            for (RentalRecord r : group.getValue()) {
+                revenue = revenue.add(r.getTotalRentalFee());
+                devices.add(r.getDeviceId());
+                utilization = utilization.add(r.getRentalStatus() == RentalStatus.ACTIVE ? new BigDecimal("80.0")
+                    : r.getRentalStatus() == RentalStatus.COMPLETED ? new BigDecimal("75.0") : new BigDecimal("60.0"));
+            }
+            int orders = group.getValue().size();
+            trends.add(new RentalTrendDTO(group.getKey(), revenue, orders, devices.size(),
+                utilization.divide(BigDecimal.valueOf(orders), 5, RoundingMode.HALF_UP)));
+        }
+        return trends;
+    }
+
+    private static Map<String, BigDecimal> bruteRevenue(List<RentalRecord> records, LocalDate start, LocalDate end,
+                                                        Function<RentalRecord, String> dimension) {
+        Map<String, BigDecimal> revenue = new HashMap<>();
+        for (RentalRecord r : inRange(records, start, end)) {
+            revenue.merge(dimension.apply(r), r.getTotalRentalFee(), BigDecimal::add);
+        }
+        return revenue;
+    }
+
+    private static List<RentalRecord> inRange(List<RentalRecord> records, LocalDate start, LocalDate end) {
+        List<RentalRecord> result = new ArrayList<>();
+        for (RentalRecord r : records) {
+            if (!r.getRentalStartDate().isBefore(start) && !r.getRentalStartDate().isAfter(end)) {
+                result.add(r);
+            }
+        }
+        return result;
+    }
+
+    private static void assertDecimal(Object expected, Object actual) {
+        assertNotNull(actual);
+        assertEquals(0, ((BigDecimal) expected).compareTo((BigDecimal) actual), expected + " != " + actual);
+    }
+
+    private static List<RentalRecord> randomRecords(Random random, int count) {
+        RentalStatus[] statuses = RentalStatus.values();
+        List<RentalRecord> records = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            RentalRecord r = record((long) i + 1, 1L + random.nextInt(12),
+                LocalDate.of(2025, 1, 1).plusDays(random.nextInt(70)),
+                BigDecimal.valueOf(1000 + random.nextInt(200000), 2).toPlainString(),
+                statuses[random.nextInt(statuses.length)]);
+            r.setDeliveryAddress(ADDRESSES[random.nextInt(ADDRESSES.length)]);
+            r.setDeliveryMethod(METHODS[random.nextInt(METHODS.length)]);
+            r.setRentalPeriod(1 + random.nextInt(60));
+            records.add(r);
+        }
+        return records;
+    }
+
+    private static RentalRecord record(Long id, Long deviceId, LocalDate startDate, String fee, RentalStatus status) {
+        RentalRecord r = new RentalRecord();
+        r.setId(id);
+        r.setDeviceId(deviceId);
+        r.setRentalStartDate(startDate);
+        r.setTotalRentalFee(new BigDecimal(fee));
+        r.setRentalStatus(status);
+        r.setRentalPeriod(7);
+        r.setDeliveryAddress("北京市朝阳区");
+        r.setDeliveryMethod("快递");
+        r.setIsDeleted(false);
+        return r;
+    }
+
+    private static RentalRecord copy(RentalRecord source) {
+        RentalRecord r = record(source.getId(), source.getDeviceId(), source.getRentalStartDate(),
+            source.getTotalRentalFee().toPlainString(), source.getRentalStatus());
+        r.setRentalPeriod(source.getRentalPeriod());
+        r.setDeliveryAddress(source.getDeliveryAddress());
+        r.setDeliveryMethod(source.getDeliveryMethod());
+        return r;
+    }
+
+    private RentalFactService newService() {
+        RentalFactService factService = new RentalFactService();
+        ReflectionTestUtils.setField(factService, "rentalFactMapper", factMapper);
+        ReflectionTestUtils.setField(factService, "rentalDeviceMapper", deviceMapper);
+        return factService;
+    }
+
+    /**
+     * 模拟 ON DUPLICATE KEY UPDATE 累加
+     */
+    private static int upsert(Map<String, RentalDailyFact> table, List<RentalDailyFact> rows, boolean daily) {
+        for (RentalDailyFact row : rows) {
+            String key = daily
+                ? row.getStatDate() + "|" + row.getRegion() + "|" + row.getChannel() + "|" + row.getDeviceModel()
+                : row.getStatDate() + "|" + row.getDeviceId();
+            RentalDailyFact existing = table.get(key);
+            if (existing == null) {
+                table.put(key, row);
+                continue;
+            }
+            existing.setOrderCount(existing.getOrderCount() + row.getOrderCount());
+            if (daily) {
+                existing.setRevenue(existing.getRevenue().add(row.getRevenue()));
+                existing.setRentalDays(existing.getRentalDays() + row.getRentalDays());
+                existing.setActiveOrders(existing.getActiveOrders() + row.getActiveOrders());
+                existing.setCompletedOrders(existing.getCompletedOrders() + row.getCompletedOrders());
+            }
+        }
+        return rows.size();
+    }
+
+    private static Object stream(List<RentalDailyFact> rows, ResultHandler<RentalDailyFact> handler) {
+        DefaultResultContext<RentalDailyFact> context = new DefaultResultContext<>();
+        for (RentalDailyFact row : rows) {
+            if (row.getOrderCount() > 0) {
+                context.nextResultObject(row);
+                handler.handleResult(context);
+            }
+        }
+        return null;
+    }
+}
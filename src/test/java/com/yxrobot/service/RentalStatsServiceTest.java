@@ -1,5 +1,6 @@
 package com.yxrobot.service;
 
+import com.yxrobot.cache.RentalCacheService;
 import com.yxrobot.dto.RentalStatsDTO;
 import com.yxrobot.dto.TodayStatsDTO;
 import com.yxrobot.mapper.RentalRecordMapper;
@@ -16,9 +17,11 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 /**
@@ -40,6 +43,12 @@ class RentalStatsServiceTest {
     @Mock
     private RentalCustomerMapper rentalCustomerMapper;
     
+    @Mock
+    private RentalCacheService rentalCacheService;
+    
+    @Mock
+    private RentalFactService rentalFactService;
+    
     @InjectMocks
     private RentalStatsService rentalStatsService;
     
@@ -50,6 +59,14 @@ class RentalStatsServiceTest {
     
     @BeforeEach
     void setUp() {
+        // 缓存直接调用加载函数，测试聚合逻辑本身
+        lenient().when(rentalCacheService.generateStatsKey(any(), any())).thenCallRealMethod();
+        lenient().when(rentalCacheService.getStatsCache(anyString(), any()))
+            .thenAnswer(invocation -> invocation.<Supplier<RentalStatsDTO>>getArgument(1).get());
+        // 日事实未加载，统计回退到数据库聚合
+        lenient().when(rentalFactService.getRentalStats(any(), any())).thenReturn(null);
+        lenient().when(rentalFactService.getDayStats(any())).thenReturn(null);
+        
         startDate = LocalDate.of(2025, 1, 1);
         endDate = LocalDate.of(2025, 1, 31);
         
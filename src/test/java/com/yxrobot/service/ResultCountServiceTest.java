@@ -0,0 +1,142 @@
+package com.yxrobot.service;
+
+import com.yxrobot.cache.LocalCacheManager;
+import com.yxrobot.config.CountStrategyConfig;
+import com.yxrobot.config.LocalCacheConfig;
+import com.yxrobot.dto.CountResult;
+import com.yxrobot.enums.CountMode;
+import com.yxrobot.mapper.TableStatisticsMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * ResultCountService 测试
+ * 验证统计方式选择、总数缓存、表统计信息估算和多取一行判断下一页
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-24
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("分页总数统计测试")
+class ResultCountServiceTest {
+
+    @Spy
+    private CountStrategyConfig countStrategyConfig = new CountStrategyConfig();
+
+    @Mock
+    private TableStatisticsMapper tableStatisticsMapper;
+
+    @Spy
+    private LocalCacheManager localCacheManager = new LocalCacheManager(new LocalCacheConfig(), Runnable::run);
+
+    @InjectMocks
+    private ResultCountService resultCountService;
+
+    private final AtomicInteger countQueries = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        countStrategyConfig.getEndpoints().put("devices.list", "cached");
+        resultCountService.init();
+    }
+
+    private Integer countQuery() {
+        countQueries.incrementAndGet();
+        return 42;
+    }
+
+    @Test
+    @DisplayName("测试请求参数优先于接口配置")
+    void testResolveMode() {
+        assertEquals(CountMode.CACHED, resultCountService.resolveMode("devices.list", null));
+        assertEquals(CountMode.HAS_MORE, resultCountService.resolveMode("devices.list", "hasMore"));
+        assertEquals(CountMode.EXACT, resultCountService.resolveMode("news.list", " "));
+        assertThrows(IllegalArgumentException.class, () -> resultCountService.resolveMode("news.list", "fast"));
+    }
+
+    @Test
+    @DisplayName("测试相同条件的总数只统计一次")
+    void testCachedCount() {
+        Map<String, Object> criteria = new HashMap<>();
+        criteria.put("keyword", " Robot ");
+        criteria.put("status", null);
+        CountResult first = resultCountService.count("devices.list", CountMode.CACHED, criteria, null, this::countQuery);
+        assertEquals(42L, first.getTotal());
+        assertTrue(first.isExact());
+
+        Map<String, Object> sameCriteria = new HashMap<>();
+        sameCriteria.put("keyword", "robot");
+        CountResult second = resultCountService.count("devices.list", CountMode.CACHED, sameCriteria, null, this::countQuery);
+        assertEquals(42L, second.getTotal());
+        assertFalse(second.isExact());
+        assertEquals(CountMode.CACHED, second.getMode());
+        assertEquals(1, countQueries.get());
+
+        resultCountService.invalidate("devices.list");
+        resultCountService.count("devices.list", CountMode.CACHED, sameCriteria, null, this::countQuery);
+        assertEquals(2, countQueries.get());
+    }
+
+    @Test
+    @DisplayName("测试无筛选条件时按表统计信息估算")
+    void testEstimatedCount() {
+        when(tableStatisticsMapper.selectEstimatedRowCount("managed_devices")).thenReturn(100000L);
+
+        CountResult estimated = resultCountService.count("devices.list", CountMode.ESTIMATED,
+                                                         new HashMap<>(), "managed_devices", this::countQuery);
+        assertEquals(100000L, estimated.getTotal());
+        assertFalse(estimated.isExact());
+        assertEquals(CountMode.ESTIMATED, estimated.getMode());
+        assertEquals(0, countQueries.get());
+
+        // 有筛选条件时不能使用整表行数
+        CountResult filtered = resultCountService.count("devices.list", CountMode.ESTIMATED,
+                                                        Map.of("status", "online"), "managed_devices", this::countQuery);
+        assertEquals(42L, filtered.getTotal());
+        assertEquals(CountMode.CACHED, filtered.getMode());
+        assertEquals(1, countQueries.get());
+    }
+
+    @Test
+    @DisplayName("测试只判断是否有下一页")
+    void testHasMore() {
+        CountResult result = resultCountService.count("devices.list", CountMode.HAS_MORE, null, null, this::countQuery);
+        assertNull(result.getTotal());
+        assertFalse(result.isExact());
+        assertEquals(0, countQueries.get());
+
+        assertEquals(11, ResultCountService.fetchSize(CountMode.HAS_MORE, 10));
+        assertEquals(10, ResultCountService.fetchSize(CountMode.EXACT, 10));
+
+        List<Integer> rows = new ArrayList<>(List.of(1, 2, 3));
+        assertTrue(ResultCountService.trimExtraRow(rows, 2));
+        assertEquals(List.of(1, 2), rows);
+        assertFalse(ResultCountService.trimExtraRow(rows, 2));
+    }
+
+    @Test
+    @DisplayName("测试查询条件规范化")
+    void testNormalizeCriteria() {
+        Map<String, Object> criteria = new HashMap<>();
+        criteria.put("status", CountMode.EXACT);
+        criteria.put("keyword", "  ");
+        criteria.put("ids", List.of(3L, 1L));
+        assertEquals("ids=[1,3]&status=exact", ResultCountService.normalizeCriteria(criteria));
+        assertEquals("", ResultCountService.normalizeCriteria(null));
+    }
+}
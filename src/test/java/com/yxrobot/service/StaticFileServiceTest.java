@@ -0,0 +1,97 @@
+package com.yxrobot.service;
+
+import com.yxrobot.cache.LocalCacheManager;
+import com.yxrobot.config.LocalCacheConfig;
+import com.yxrobot.service.StaticFileService.FileMetadata;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * StaticFileService 测试
+ * 验证文件元数据缓存、覆盖后重新计算 ETag 和路径越界检查
+ *
+ * @author YXRobot开发团队
+ * @since 2025-03-01
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("文件元数据服务测试")
+class StaticFileServiceTest {
+
+    @TempDir
+    Path uploadDir;
+
+    @Spy
+    private LocalCacheManager localCacheManager = new LocalCacheManager(new LocalCacheConfig(), Runnable::run);
+
+    @InjectMocks
+    private StaticFileService staticFileService;
+
+    private Path video;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ReflectionTestUtils.setField(staticFileService, "uploadPath", uploadDir.toString());
+        staticFileService.init();
+
+        Path dir = Files.createDirectories(uploadDir.resolve("products/videos"));
+        video = Files.write(dir.resolve("demo.mp4"), "0123456789".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(video, FileTime.fromMillis(1_700_000_000_000L));
+    }
+
+    @Test
+    @DisplayName("测试元数据内容和缓存命中")
+    void testMetadataCached() throws Exception {
+        FileMetadata metadata = staticFileService.getMetadata("products/videos/demo.mp4");
+
+        assertEquals(video.toAbsolutePath().normalize(), metadata.getPath());
+        assertEquals("video/mp4", metadata.getContentType());
+        assertEquals(10, metadata.getSize());
+        assertEquals(1_700_000_000_000L, metadata.getLastModified());
+        assertEquals("\"781e5e245d69b566979b86e28d23f2c7\"", metadata.getEtag());
+        assertEquals("781e5e245d69b566979b86e28d23f2c7", StaticFileService.digestOf(video));
+
+        // 大小和修改时间不变时直接使用缓存，不重新计算摘要
+        assertSame(metadata, staticFileService.getMetadata("products/videos/demo.mp4"));
+        verify(localCacheManager).getOrCreateCache("file-metadata", 10000, null);
+    }
+
+    @Test
+    @DisplayName("测试文件被覆盖后重新计算ETag")
+    void testMetadataRefreshedAfterOverwrite() throws Exception {
+        FileMetadata before = staticFileService.getMetadata("products/videos/demo.mp4");
+
+        Files.write(video, "abcdefghij".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(video, FileTime.fromMillis(1_700_000_060_000L));
+        FileMetadata after = staticFileService.getMetadata("products/videos/demo.mp4");
+
+        assertNotEquals(before.getEtag(), after.getEtag());
+        assertEquals(1_700_000_060_000L, after.getLastModified());
+        assertEquals("\"" + StaticFileService.digestOf(video) + "\"", after.getEtag());
+    }
+
+    @Test
+    @DisplayName("测试不存在的文件、目录和越界路径")
+    void testMissingAndIllegalPath() throws Exception {
+        Files.write(uploadDir.resolveSibling(uploadDir.getFileName() + "-secret.txt"), new byte[] {1});
+
+        assertNull(staticFileService.getMetadata("products/videos/missing.mp4"));
+        assertNull(staticFileService.getMetadata("products/videos"));
+        assertThrows(IllegalArgumentException.class,
+            () -> staticFileService.getMetadata("../" + uploadDir.getFileName() + "-secret.txt"));
+    }
+}
@@ -0,0 +1,198 @@
+package com.yxrobot.service;
+
+import com.yxrobot.entity.UploadBlob;
+import com.yxrobot.mapper.UploadBlobMapper;
+import com.yxrobot.service.UploadBlobService.StoredBlob;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * UploadBlobService 测试
+ * 验证流式摘要、相同内容去重、引用计数释放和路径识别
+ *
+ * @author YXRobot开发团队
+ * @since 2025-03-02
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("上传文件内容寻址存储测试")
+class UploadBlobServiceTest {
+
+    @TempDir
+    Path uploadDir;
+
+    @Mock
+    private UploadBlobMapper uploadBlobMapper;
+
+    @InjectMocks
+    private UploadBlobService uploadBlobService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(uploadBlobService, "uploadPath", uploadDir.toString());
+        ReflectionTestUtils.setField(uploadBlobService, "urlPrefix", "/api/v1/files");
+    }
+
+    private StoredBlob store(String content, String extension) throws Exception {
+        return uploadBlobService.store(stream(content), extension, "image/png");
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String sha256(String content) throws Exception {
+        return HexFormat.of().formatHex(
+            MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String storagePath(String hash, String extension) {
+        return "blobs/" + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + "." + extension;
+    }
+
+    private static UploadBlob record(String hash, String storagePath, int refCount) {
+        UploadBlob blob = new UploadBlob();
+        blob.setContentHash(hash);
+        blob.setStoragePath(storagePath);
+        blob.setRefCount(refCount);
+        return blob;
+    }
+
+    private long blobFileCount() throws Exception {
+        try (Stream<Path> files = Files.walk(uploadDir.resolve(UploadBlobService.BLOB_DIR))) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+
+    @Test
+    @DisplayName("测试按内容摘要保存文件")
+    void testStore() throws Exception {
+        StoredBlob blob = store("robot-image", "PNG");
+
+        String hash = sha256("robot-image");
+        assertEquals(hash, blob.getContentHash());
+        assertEquals(storagePath(hash, "png"), blob.getStoragePath());
+        assertEquals("/api/v1/files/" + blob.getStoragePath(), blob.getUrl());
+        assertEquals(11, blob.getSize());
+        assertEquals(1, blob.getRefCount());
+        assertFalse(blob.isDeduplicated());
+        assertEquals("robot-image", Files.readString(uploadDir.resolve(blob.getStoragePath())));
+
+        ArgumentCaptor<UploadBlob> captor = ArgumentCaptor.forClass(UploadBlob.class);
+        verify(uploadBlobMapper).insertOrIncrement(captor.capture());
+        assertEquals(hash, captor.getValue().getContentHash());
+        assertEquals(blob.getStoragePath(), captor.getValue().getStoragePath());
+        assertEquals(11L, captor.getValue().getFileSize());
+        assertEquals("image/png", captor.getValue().getContentType());
+
+        // 临时文件已清理
+        try (Stream<Path> temp = Files.list(uploadDir.resolve("blobs/.tmp"))) {
+            assertEquals(0, temp.count());
+        }
+    }
+
+    @Test
+    @DisplayName("测试相同内容只保存一份并增加引用次数")
+    void testDeduplicate() throws Exception {
+        String hash = sha256("shared-sku-image");
+        when(uploadBlobMapper.selectByHash(hash)).thenReturn(null, record(hash, storagePath(hash, "jpg"), 1));
+
+        StoredBlob first = store("shared-sku-image", "jpg");
+        StoredBlob second = store("shared-sku-image", "jpeg");
+        StoredBlob other = store("another-image", "jpg");
+
+        assertTrue(second.isDeduplicated());
+        assertEquals(first.getStoragePath(), second.getStoragePath());
+        assertEquals(first.getUrl(), second.getUrl());
+        assertEquals(2, second.getRefCount());
+        assertNotEquals(first.getStoragePath(), other.getStoragePath());
+        verify(uploadBlobMapper, times(3)).insertOrIncrement(any(UploadBlob.class));
+        assertEquals(2, blobFileCount());
+    }
+
+    @Test
+    @DisplayName("测试写入引用记录失败时删除新文件")
+    void testInsertFailureRemovesNewFile() throws Exception {
+        when(uploadBlobMapper.insertOrIncrement(any(UploadBlob.class))).thenThrow(new RuntimeException("db down"));
+
+        assertThrows(RuntimeException.class, () -> store("robot-image", "png"));
+        assertEquals(0, blobFileCount());
+    }
+
+    @Test
+    @DisplayName("测试最后一个引用释放时才删除文件")
+    void testRelease() throws Exception {
+        String hash = sha256("shared-sku-image");
+        when(uploadBlobMapper.selectByHash(hash)).thenReturn(null, record(hash, storagePath(hash, "jpg"), 1), null);
+        when(uploadBlobMapper.decrementRefCount(hash)).thenReturn(1, 1, 0);
+        when(uploadBlobMapper.deleteUnreferenced(hash)).thenReturn(0, 1);
+
+        StoredBlob blob = store("shared-sku-image", "jpg");
+        Path file = uploadDir.resolve(blob.getStoragePath());
+
+        assertEquals(1, uploadBlobService.release(blob.getStoragePath()));
+        assertTrue(Files.exists(file));
+
+        assertEquals(0, uploadBlobService.release(blob.getStoragePath()));
+        assertFalse(Files.exists(file));
+
+        // 再次释放或释放非内容寻址路径
+        assertEquals(-1, uploadBlobService.release(blob.getStoragePath()));
+        assertEquals(-1, uploadBlobService.release("products/covers/2025/01/01/a.jpg"));
+        verify(uploadBlobMapper, times(3)).decrementRefCount(anyString());
+
+        // 删除后重新上传生成新文件
+        StoredBlob again = store("shared-sku-image", "jpg");
+        assertFalse(again.isDeduplicated());
+        assertTrue(Files.exists(file));
+    }
+
+    @Test
+    @DisplayName("测试记录存在但文件丢失时重新写入")
+    void testRestoreMissingFile() throws Exception {
+        String hash = sha256("robot-image");
+        when(uploadBlobMapper.selectByHash(hash)).thenReturn(null, record(hash, storagePath(hash, "png"), 1));
+
+        StoredBlob blob = store("robot-image", "png");
+        Files.delete(uploadDir.resolve(blob.getStoragePath()));
+
+        StoredBlob again = store("robot-image", "png");
+        assertFalse(again.isDeduplicated());
+        assertEquals(2, again.getRefCount());
+        assertEquals("robot-image", Files.readString(uploadDir.resolve(again.getStoragePath())));
+    }
+
+    @Test
+    @DisplayName("测试内容寻址路径识别")
+    void testIsBlobPath() {
+        String hash = "ab" + "0".repeat(62);
+        assertTrue(uploadBlobService.isBlobPath("blobs/ab/00/" + hash + ".png"));
+        assertTrue(uploadBlobService.isBlobPath("blobs/ab/00/" + hash));
+        assertFalse(uploadBlobService.isBlobPath("blobs/ab/00/" + hash + "_small.png"));
+        assertFalse(uploadBlobService.isBlobPath("blobs/cd/00/" + hash + ".png"));
+        assertFalse(uploadBlobService.isBlobPath("blobs/ab/00/../" + hash + ".png"));
+        assertFalse(uploadBlobService.isBlobPath("products/covers/" + hash + ".png"));
+        assertFalse(uploadBlobService.isBlobPath(null));
+        verifyNoInteractions(uploadBlobMapper);
+    }
+}
@@ -0,0 +1,35 @@
+package com.yxrobot.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CjkBigramTokenizer 测试
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-21
+ */
+@DisplayName("中日韩二元分词测试")
+class CjkBigramTokenizerTest {
+
+    @Test
+    @DisplayName("测试中文切分为重叠二元组")
+    void testCjkBigrams() {
+        assertEquals(Arrays.asList("教育", "育机", "机器", "器人"), CjkBigramTokenizer.tokenize("教育机器人"));
+        assertEquals(Collections.singletonList("机"), CjkBigramTokenizer.tokenize("机"));
+    }
+
+    @Test
+    @DisplayName("测试中英文混合与标点")
+    void testMixedText() {
+        assertEquals(Arrays.asList("yx", "robot", "发布", "v2", "版本", "ai", "课"),
+                CjkBigramTokenizer.tokenize("YX-Robot发布V2版本，AI课"));
+        assertTrue(CjkBigramTokenizer.tokenize(null).isEmpty());
+        assertTrue(CjkBigramTokenizer.tokenize("  ，。!").isEmpty());
+    }
+}
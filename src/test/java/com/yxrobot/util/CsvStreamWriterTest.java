@@ -0,0 +1,49 @@
+package com.yxrobot.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CSV 流式写出测试
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-27
+ */
+@DisplayName("CSV流式写出测试")
+class CsvStreamWriterTest {
+
+    @Test
+    @DisplayName("测试BOM、转义和值格式化")
+    void testWriteRows() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CsvStreamWriter writer = new CsvStreamWriter(out)) {
+            writer.writeRow(Arrays.asList("订单号", "金额", "备注"));
+            writer.writeRow(Arrays.asList("ORD001", new BigDecimal("1E+3"), "含,逗号\"引号\""));
+            writer.writeRow(Arrays.asList("ORD002", null, LocalDateTime.of(2025, 2, 27, 8, 5, 9)));
+        }
+
+        byte[] bytes = out.toByteArray();
+        assertEquals((byte) 0xEF, bytes[0]);
+        String text = new String(bytes, StandardCharsets.UTF_8).substring(1);
+        assertEquals("订单号,金额,备注\r\n"
+            + "ORD001,1000,\"含,逗号\"\"引号\"\"\"\r\n"
+            + "ORD002,,2025-02-27 08:05:09\r\n", text);
+    }
+
+    @Test
+    @DisplayName("测试公式前缀转义")
+    void testFormulaInjection() {
+        assertEquals("'=SUM(A1:A2)", CsvStreamWriter.escape("=SUM(A1:A2)"));
+        assertEquals("\"'+1,2\"", CsvStreamWriter.escape("+1,2"));
+        assertEquals("张三", CsvStreamWriter.escape("张三"));
+        assertEquals("", CsvStreamWriter.escape(""));
+    }
+}
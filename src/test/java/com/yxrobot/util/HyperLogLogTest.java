@@ -0,0 +1,69 @@
+package com.yxrobot.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * HyperLogLog 基数估计测试
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-17
+ */
+@DisplayName("HyperLogLog基数估计测试")
+class HyperLogLogTest {
+
+    @Test
+    @DisplayName("测试小基数精确、重复元素不计数")
+    void testSmallCardinality() {
+        HyperLogLog hll = new HyperLogLog();
+        assertTrue(hll.isEmpty());
+        assertEquals(0, hll.estimate());
+
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 50; i++) {
+                hll.add("192.168.1." + i);
+            }
+        }
+        hll.add(null);
+        hll.add("");
+
+        assertEquals(50, hll.estimate(), 1);
+    }
+
+    @Test
+    @DisplayName("测试大基数误差")
+    void testLargeCardinality() {
+        HyperLogLog hll = new HyperLogLog();
+        int n = 100_000;
+        for (int i = 0; i < n; i++) {
+            hll.add("10." + (i >> 16) + "." + ((i >> 8) & 0xff) + "." + (i & 0xff));
+        }
+
+        // 标准误差约2.3%，取3倍
+        assertEquals(n, hll.estimate(), n * 0.07);
+    }
+
+    @Test
+    @DisplayName("测试合并与序列化")
+    void testMergeAndSerialize() {
+        HyperLogLog a = new HyperLogLog();
+        HyperLogLog b = new HyperLogLog();
+        for (int i = 0; i < 6000; i++) {
+            a.add("user-" + i);
+        }
+        for (int i = 4000; i < 10000; i++) {
+            b.add("user-" + i);
+        }
+
+        HyperLogLog restored = HyperLogLog.fromBytes(a.toBytes());
+        assertEquals(a.estimate(), restored.estimate());
+        assertEquals(HyperLogLog.REGISTER_COUNT, restored.toBytes().length);
+
+        restored.merge(b);
+        assertEquals(10000, restored.estimate(), 10000 * 0.07);
+
+        assertTrue(HyperLogLog.fromBytes(new byte[3]).isEmpty());
+    }
+}
@@ -0,0 +1,117 @@
+package com.yxrobot.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 响应时间分布记录器测试
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-14
+ */
+@DisplayName("响应时间分布记录器测试")
+class LatencyRecorderTest {
+
+    private static final long ORIGIN = 1_000_000_000L;
+
+    @Test
+    @DisplayName("测试分桶边界与相对误差")
+    void testBucketPrecision() {
+        assertEquals(0, LatencyRecorder.bucketIndex(0));
+        assertEquals(31, LatencyRecorder.bucketIndex(31));
+        assertEquals(LatencyRecorder.BUCKET_COUNT - 1, LatencyRecorder.bucketIndex(Long.MAX_VALUE));
+
+        for (long micros = 1; micros < 4_000_000_000L; micros = micros * 3 / 2 + 1) {
+            int index = LatencyRecorder.bucketIndex(micros);
+            long upper = LatencyRecorder.bucketUpperMicros(index);
+            assertTrue(upper >= micros, "桶上界应不小于记录值: " + micros);
+            assertTrue(upper - micros <= micros / 16 + 1, "相对误差应不超过1/16: " + micros);
+        }
+    }
+
+    @Test
+    @DisplayName("测试百分位计算")
+    void testPercentiles() {
+        LatencyRecorder recorder = new LatencyRecorder(ORIGIN);
+        // 1ms ~ 100ms 各一次
+        for (int ms = 1; ms <= 100; ms++) {
+            recorder.record(TimeUnit.MILLISECONDS.toNanos(ms), ORIGIN);
+        }
+
+        LatencyRecorder.Snapshot snapshot = recorder.snapshot(TimeUnit.MINUTES.toNanos(1), ORIGIN);
+
+        assertEquals(100, snapshot.getCount());
+        assertEquals(50.5, snapshot.getMean(), 0.01);
+        assertEquals(50.0, snapshot.getPercentile(50), 50 * 0.07);
+        assertEquals(95.0, snapshot.getPercentile(95), 95 * 0.07);
+        assertEquals(99.0, snapshot.getPercentile(99), 99 * 0.07);
+        assertEquals(100.0, snapshot.getPercentile(100), 0.001);
+        assertEquals(100.0, snapshot.getMax(), 0.001);
+    }
+
+    @Test
+    @DisplayName("测试滚动窗口过期")
+    void testRollingWindows() {
+        LatencyRecorder recorder = new LatencyRecorder(ORIGIN);
+        recorder.record(TimeUnit.MILLISECONDS.toNanos(500), ORIGIN);
+
+        long twoMinutesLater = ORIGIN + TimeUnit.MINUTES.toNanos(2);
+        recorder.record(TimeUnit.MILLISECONDS.toNanos(10), twoMinutesLater);
+
+        LatencyRecorder.Snapshot lastMinute = recorder.snapshot(TimeUnit.MINUTES.toNanos(1), twoMinutesLater);
+        LatencyRecorder.Snapshot lastFiveMinutes = recorder.snapshot(TimeUnit.MINUTES.toNanos(5), twoMinutesLater);
+        LatencyRecorder.Snapshot lastHour = recorder.snapshot(TimeUnit.HOURS.toNanos(1), twoMinutesLater);
+
+        assertEquals(1, lastMinute.getCount());
+        assertEquals(10.0, lastMinute.getMax(), 0.001);
+        assertEquals(2, lastFiveMinutes.getCount());
+        assertEquals(500.0, lastFiveMinutes.getMax(), 0.001);
+        assertEquals(2, lastHour.getCount());
+
+        long twoHoursLater = ORIGIN + TimeUnit.HOURS.toNanos(2);
+        assertEquals(0, recorder.snapshot(TimeUnit.HOURS.toNanos(1), twoHoursLater).getCount());
+        assertEquals(0.0, recorder.snapshot(TimeUnit.HOURS.toNanos(1), twoHoursLater).getPercentile(99));
+    }
+
+    @Test
+    @DisplayName("测试并发记录不丢失")
+    void testConcurrentRecording() throws InterruptedException {
+        LatencyRecorder recorder = new LatencyRecorder(ORIGIN);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    recorder.record(TimeUnit.MICROSECONDS.toNanos(i), ORIGIN);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        LatencyRecorder.Snapshot snapshot = recorder.snapshot(TimeUnit.MINUTES.toNanos(1), ORIGIN);
+        assertEquals(80_000, snapshot.getCount());
+        assertEquals(5.0, snapshot.getMean(), 0.001);
+        assertEquals(9.999, snapshot.getMax(), 0.001);
+    }
+
+    @Test
+    @DisplayName("测试PerformanceMonitor按API记录百分位")
+    void testPerformanceMonitorLatency() {
+        PerformanceMonitor monitor = new PerformanceMonitor();
+        long start = monitor.startTiming("GET /api/test");
+        monitor.endTiming("GET /api/test", start, true);
+
+        assertEquals(1, monitor.getLatencySnapshot("GET /api/test", TimeUnit.MINUTES.toMillis(1)).getCount());
+        assertNull(monitor.getLatencySnapshot("GET /api/missing", TimeUnit.MINUTES.toMillis(1)));
+        assertEquals(1, monitor.getApiStats("GET /api/test").getTotalCalls());
+    }
+}
@@ -0,0 +1,64 @@
+package com.yxrobot.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LongIntHashMap 测试
+ * 与 HashMap 对照随机增删改，验证扩容和删除回移后查找结果一致
+ *
+ * @author YXRobot开发团队
+ * @since 2025-03-04
+ */
+@DisplayName("long-int 开放寻址哈希表测试")
+class LongIntHashMapTest {
+
+    @Test
+    @DisplayName("测试随机增删改与 HashMap 一致")
+    void testAgainstHashMap() {
+        Random random = new Random(7);
+        LongIntHashMap map = new LongIntHashMap(4);
+        Map<Long, Integer> expected = new HashMap<>();
+
+        for (int i = 0; i < 200_000; i++) {
+            // 键集中在小范围内，制造大量冲突和重复写入
+            long key = random.nextBoolean() ? random.nextInt(5000) : random.nextLong();
+            if (key == Long.MIN_VALUE) {
+                continue;
+            }
+            int op = random.nextInt(10);
+            if (op < 6) {
+                int value = random.nextInt(Integer.MAX_VALUE);
+                Integer previous = expected.put(key, value);
+                assertEquals(previous != null ? previous : LongIntHashMap.NO_VALUE, map.put(key, value));
+            } else if (op < 8) {
+                Integer previous = expected.remove(key);
+                assertEquals(previous != null ? previous : LongIntHashMap.NO_VALUE, map.remove(key));
+            } else {
+                Integer value = expected.get(key);
+                assertEquals(value != null ? value : LongIntHashMap.NO_VALUE, map.get(key));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+    }
+
+    @Test
+    @DisplayName("测试非法键值")
+    void testInvalid() {
+        LongIntHashMap map = new LongIntHashMap();
+        assertThrows(IllegalArgumentException.class, () -> map.put(Long.MIN_VALUE, 1));
+        assertThrows(IllegalArgumentException.class, () -> map.put(1L, -1));
+        assertEquals(LongIntHashMap.NO_VALUE, map.get(0L));
+        assertEquals(LongIntHashMap.NO_VALUE, map.remove(0L));
+    }
+}
@@ -0,0 +1,74 @@
+package com.yxrobot.util;
+
+import com.yxrobot.dto.CursorPage;
+import com.yxrobot.entity.ManagedDeviceLog;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PageCursor 与 CursorPage 测试
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-22
+ */
+@DisplayName("游标分页测试")
+class PageCursorTest {
+
+    private static final LocalDateTime TIME = LocalDateTime.of(2025, 2, 22, 9, 30, 15, 123_000_000);
+
+    @Test
+    @DisplayName("测试游标编码与解码")
+    void testRoundTrip() {
+        String token = new PageCursor(TIME, 42L).encode();
+        assertFalse(token.contains("|"));
+
+        PageCursor decoded = PageCursor.decode(token);
+        assertEquals(TIME, decoded.getSortValue());
+        assertEquals(42L, decoded.getId());
+
+        assertNull(PageCursor.decode(null));
+        assertNull(PageCursor.decode(" "));
+    }
+
+    @Test
+    @DisplayName("测试无效游标")
+    void testInvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("not a cursor!"));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("MjAyNS0wMi0yMg"));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(
+                new PageCursor(TIME, 1L).encode().substring(3)));
+    }
+
+    @Test
+    @DisplayName("测试多取一行判断下一页")
+    void testFromRows() {
+        List<ManagedDeviceLog> rows = new ArrayList<>();
+        for (long id = 5; id >= 1; id--) {
+            ManagedDeviceLog log = new ManagedDeviceLog();
+            log.setId(id);
+            log.setTimestamp(TIME.minusSeconds(5 - id));
+            rows.add(log);
+        }
+
+        CursorPage<Long> page = CursorPage
+                .fromRows(rows.subList(0, 4), 3, ManagedDeviceLog::getTimestamp, ManagedDeviceLog::getId)
+                .map(ManagedDeviceLog::getId);
+        assertEquals(List.of(5L, 4L, 3L), page.getList());
+        assertTrue(page.isHasMore());
+        PageCursor next = PageCursor.decode(page.getNextCursor());
+        assertEquals(3L, next.getId());
+        assertEquals(TIME.minusSeconds(2), next.getSortValue());
+
+        CursorPage<ManagedDeviceLog> last = CursorPage
+                .fromRows(rows.subList(3, 5), 3, ManagedDeviceLog::getTimestamp, ManagedDeviceLog::getId);
+        assertEquals(2, last.getList().size());
+        assertFalse(last.isHasMore());
+        assertNull(last.getNextCursor());
+    }
+}
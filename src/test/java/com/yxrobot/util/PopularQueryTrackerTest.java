@@ -0,0 +1,90 @@
+package com.yxrobot.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 热门查询统计测试
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-25
+ */
+@DisplayName("热门查询统计测试")
+class PopularQueryTrackerTest {
+
+    @Test
+    @DisplayName("测试按次数排出热门查询")
+    void testTopQueries() {
+        PopularQueryTracker tracker = new PopularQueryTracker(10, 10000);
+        record(tracker, "status=pending", 30);
+        record(tracker, "keyword=张三", 20);
+        record(tracker, "type=rental", 10);
+        for (int i = 0; i < 100; i++) {
+            tracker.record("keyword=" + i);
+        }
+
+        Map<String, Integer> top = tracker.top(3);
+        assertEquals(List.of("status=pending", "keyword=张三", "type=rental"), new ArrayList<>(top.keySet()));
+        assertTrue(tracker.isTop("keyword=张三", 2));
+        assertFalse(tracker.isTop("type=rental", 2));
+        assertFalse(tracker.isTop("keyword=1", 3));
+    }
+
+    @Test
+    @DisplayName("测试估算次数不低于实际次数")
+    void testEstimateNeverUnderCounts() {
+        PopularQueryTracker tracker = new PopularQueryTracker(10, 256);
+        for (int i = 0; i < 200; i++) {
+            record(tracker, "q" + i, i % 5 + 1);
+        }
+        for (int i = 0; i < 200; i++) {
+            assertTrue(tracker.estimate("q" + i) >= i % 5 + 1);
+        }
+        assertEquals(0, new PopularQueryTracker(10, 256).estimate("q1"));
+    }
+
+    @Test
+    @DisplayName("测试热门查询数量有上限，新的高频查询替换最少的")
+    void testCapacity() {
+        PopularQueryTracker tracker = new PopularQueryTracker(2, 10000);
+        record(tracker, "a", 5);
+        record(tracker, "b", 3);
+        record(tracker, "c", 1);
+        assertEquals(2, tracker.top(10).size());
+        assertFalse(tracker.top(10).containsKey("c"));
+
+        record(tracker, "c", 5);
+        assertTrue(tracker.top(10).containsKey("c"));
+        assertFalse(tracker.top(10).containsKey("b"));
+    }
+
+    @Test
+    @DisplayName("测试计数老化和清空")
+    void testAgingAndClear() {
+        // 宽度64，记录640次后计数减半
+        PopularQueryTracker tracker = new PopularQueryTracker(10, 64);
+        record(tracker, "old", 600);
+        assertEquals(600, tracker.estimate("old"));
+        for (int i = 0; i < 40; i++) {
+            tracker.record("new" + (i % 4));
+        }
+        int aged = tracker.estimate("old");
+        assertTrue(aged >= 300 && aged < 600, "aged=" + aged);
+
+        tracker.clear();
+        assertEquals(0, tracker.estimate("old"));
+        assertTrue(tracker.top(10).isEmpty());
+    }
+
+    private static void record(PopularQueryTracker tracker, String query, int times) {
+        for (int i = 0; i < times; i++) {
+            tracker.record(query);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.yxrobot.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SuggestionIndex 测试
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-23
+ */
+@DisplayName("输入提示索引测试")
+class SuggestionIndexTest {
+
+    @Test
+    @DisplayName("测试前缀匹配排在子串匹配之前")
+    void testPrefixBeforeInfix() {
+        SuggestionIndex index = new SuggestionIndex();
+        index.put(1L, "YX-ROBOT-001");
+        index.put(2L, "ROBOT-X");
+        index.put(3L, "Smart Robot");
+
+        assertEquals(List.of("ROBOT-X", "Smart Robot", "YX-ROBOT-001"), index.suggest("robot", 10));
+        assertEquals(List.of("ROBOT-X"), index.suggest("robot", 1));
+        assertTrue(index.suggest("robox", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("测试单字符只做前缀匹配")
+    void testSingleCharacterPrefixOnly() {
+        SuggestionIndex index = new SuggestionIndex();
+        index.put(1L, "北京");
+        index.put(2L, "南京");
+
+        assertEquals(List.of("南京"), index.suggest("南", 10));
+        assertTrue(index.suggest("京", 10).isEmpty());
+        index.put(3L, "东京都");
+        assertEquals(List.of("东京都"), index.suggest("京都", 10));
+    }
+
+    @Test
+    @DisplayName("测试按记录数加权排序")
+    void testWeighting() {
+        SuggestionIndex index = new SuggestionIndex();
+        index.put(1L, "YX-Pro");
+        index.put(2L, "YX-Pro");
+        index.put(3L, "YX-Pro");
+        index.put(4L, "YX-A");
+
+        assertEquals(List.of("YX-Pro", "YX-A"), index.suggest("yx", 10));
+        assertEquals(2, index.size());
+        assertEquals(4, index.recordCount());
+        assertEquals(Set.of(1L, 2L, 3L), index.idsOf("yx-pro"));
+    }
+
+    @Test
+    @DisplayName("测试更新和移除记录")
+    void testUpdateAndRemove() {
+        SuggestionIndex index = new SuggestionIndex();
+        index.put(1L, "张三科技");
+        index.put(2L, "李四贸易");
+
+        index.put(1L, "王五科技");
+        assertTrue(index.suggest("张三", 10).isEmpty());
+        assertEquals(List.of("王五科技"), index.suggest("科技", 10));
+        assertEquals("王五科技", index.valueOf(1L));
+
+        index.put(2L, " ");
+        assertTrue(index.suggest("李四", 10).isEmpty());
+        assertNull(index.valueOf(2L));
+
+        index.remove(1L);
+        assertEquals(0, index.size());
+        assertTrue(index.suggest("科技", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("测试全量替换与按ID返回")
+    void testReplaceAllAndSuggestIds() {
+        SuggestionIndex index = new SuggestionIndex();
+        index.put(9L, "旧数据");
+
+        Map<Long, String> values = new HashMap<>();
+        values.put(1L, "ORD-2025-001");
+        values.put(2L, "ORD-2025-002");
+        values.put(3L, null);
+        index.replaceAll(values);
+
+        assertNull(index.valueOf(9L));
+        assertEquals(2, index.recordCount());
+        assertEquals(List.of(1L, 2L), index.suggestIds("ord-2025", 10));
+        assertEquals(List.of(2L), index.suggestIds("002", 10));
+    }
+}
@@ -0,0 +1,107 @@
+package com.yxrobot.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TimeSeriesBlock 测试
+ * 验证时间戳二阶差分和 XOR 浮点编码的往返一致性与压缩效果
+ *
+ * @author YXRobot开发团队
+ * @since 2025-03-03
+ */
+@DisplayName("压缩时间序列数据块测试")
+class TimeSeriesBlockTest {
+
+    private static List<Object[]> decode(TimeSeriesBlock block) {
+        List<Object[]> samples = new ArrayList<>();
+        block.forEach((timestamp, values) -> samples.add(new Object[] {timestamp, values.clone()}));
+        return samples;
+    }
+
+    @Test
+    @DisplayName("测试随机样本编码后解码一致")
+    void testRoundTrip() {
+        Random random = new Random(42);
+        TimeSeriesBlock block = new TimeSeriesBlock(4);
+        List<Long> timestamps = new ArrayList<>();
+        List<double[]> rows = new ArrayList<>();
+
+        long timestamp = 1_740_000_000_000L;
+        for (int i = 0; i < 2000; i++) {
+            // 大多数间隔5秒带毫秒抖动，偶尔断线很久或乱序
+            int kind = random.nextInt(100);
+            if (kind < 2) {
+                timestamp += random.nextInt(Integer.MAX_VALUE) * 10L;
+            } else if (kind < 4) {
+                timestamp -= random.nextInt(60_000);
+            } else {
+                timestamp += 5000 + random.nextInt(200) - 100;
+            }
+            double[] values = {
+                Math.round(random.nextDouble() * 10000) / 100.0,
+                kind < 10 ? Double.NaN : 42.5,
+                random.nextGaussian() * 1e9,
+                i % 3 == 0 ? -0.0 : Double.longBitsToDouble(random.nextLong())
+            };
+            block.append(timestamp, values);
+            timestamps.add(timestamp);
+            rows.add(values);
+        }
+
+        List<Object[]> decoded = decode(block);
+        assertEquals(2000, block.size());
+        assertEquals(2000, decoded.size());
+        for (int i = 0; i < decoded.size(); i++) {
+            assertEquals(timestamps.get(i), decoded.get(i)[0], "timestamp " + i);
+            double[] values = (double[]) decoded.get(i)[1];
+            for (int column = 0; column < 4; column++) {
+                assertEquals(Double.doubleToRawLongBits(rows.get(i)[column]), Double.doubleToRawLongBits(values[column]),
+                             "row " + i + " column " + column);
+            }
+        }
+        assertEquals(timestamps.stream().mapToLong(Long::longValue).min().getAsLong(), block.getMinTimestamp());
+        assertEquals(timestamps.stream().mapToLong(Long::longValue).max().getAsLong(), block.getMaxTimestamp());
+    }
+
+    @Test
+    @DisplayName("测试定时上报且数值变化缓慢时的压缩效果")
+    void testCompression() {
+        TimeSeriesBlock block = new TimeSeriesBlock(7);
+        long timestamp = 1_740_000_000_000L;
+        for (int i = 0; i < 720; i++) {
+            block.append(timestamp + i * 5000L, new double[] {
+                35.5 + (i % 10) / 10.0, 62.25, 48.0, 41.5 + (i / 60), 90 - i / 100, 20, 100.0
+            });
+        }
+        block.trim();
+
+        // 原始为每条 8 字节时间戳 + 7 x 8 字节数值
+        long rawBytes = 720L * 64;
+        assertTrue(block.getEncodedBytes() * 5 < rawBytes, "encoded " + block.getEncodedBytes() + " bytes");
+
+        List<Object[]> decoded = decode(block);
+        assertEquals(timestamp + 719 * 5000L, decoded.get(719)[0]);
+        assertEquals(36.4, ((double[]) decoded.get(719)[1])[0]);
+
+        // 收缩后仍可继续追加
+        block.append(timestamp + 720 * 5000L, new double[] {1, 2, 3, 4, 5, 6, 7});
+        assertEquals(7.0, ((double[]) decode(block).get(720)[1])[6]);
+    }
+
+    @Test
+    @DisplayName("测试空块和参数校验")
+    void testEmptyAndInvalid() {
+        TimeSeriesBlock block = new TimeSeriesBlock(2);
+        assertTrue(decode(block).isEmpty());
+        assertEquals(0, block.getEncodedBytes());
+        assertThrows(IllegalArgumentException.class, () -> block.append(1L, new double[] {1}));
+        assertThrows(IllegalArgumentException.class, () -> new TimeSeriesBlock(0));
+    }
+}
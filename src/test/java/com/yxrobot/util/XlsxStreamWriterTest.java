@@ -0,0 +1,74 @@
+package com.yxrobot.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * XLSX 流式写出测试
+ *
+ * @author YXRobot开发团队
+ * @since 2025-02-27
+ */
+@DisplayName("XLSX流式写出测试")
+class XlsxStreamWriterTest {
+
+    @Test
+    @DisplayName("测试生成的工作簿结构和单元格")
+    void testWorkbook() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (XlsxStreamWriter writer = new XlsxStreamWriter(out, "订单[2025]")) {
+            writer.writeRow(Arrays.asList("订单号", "金额"));
+            writer.writeRow(Arrays.asList("A<&>B", new BigDecimal("12.50")));
+            writer.writeRow(Arrays.asList(null, 3));
+        }
+
+        Map<String, String> entries = unzip(out.toByteArray());
+        assertTrue(entries.containsKey("[Content_Types].xml"));
+        assertTrue(entries.containsKey("_rels/.rels"));
+        assertTrue(entries.containsKey("xl/_rels/workbook.xml.rels"));
+        assertTrue(entries.get("xl/workbook.xml").contains("name=\"订单_2025_\""));
+
+        String sheet = entries.get("xl/worksheets/sheet1.xml");
+        assertTrue(sheet.contains("<row r=\"1\"><c r=\"A1\" t=\"inlineStr\"><is><t xml:space=\"preserve\">订单号</t></is></c>"));
+        assertTrue(sheet.contains("<t xml:space=\"preserve\">A&lt;&amp;&gt;B</t>"));
+        assertTrue(sheet.contains("<c r=\"B2\"><v>12.50</v></c>"));
+        assertTrue(sheet.contains("<row r=\"3\"><c r=\"B3\"><v>3</v></c></row>"));
+        assertTrue(sheet.endsWith("</sheetData></worksheet>"));
+    }
+
+    @Test
+    @DisplayName("测试列名和XML转义")
+    void testHelpers() {
+        assertEquals("A", XlsxStreamWriter.columnName(0));
+        assertEquals("Z", XlsxStreamWriter.columnName(25));
+        assertEquals("AA", XlsxStreamWriter.columnName(26));
+        assertEquals("AZ", XlsxStreamWriter.columnName(51));
+        assertEquals("BA", XlsxStreamWriter.columnName(52));
+
+        assertEquals("plain", XlsxStreamWriter.escapeXml("plain"));
+        assertEquals("a&quot;bc\n", XlsxStreamWriter.escapeXml("a\"b\u0001c\n"));
+    }
+
+    private static Map<String, String> unzip(byte[] bytes) throws Exception {
+        Map<String, String> entries = new HashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entries.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return entries;
+    }
+}